@@ -5,6 +5,8 @@ import com.nike.wingtips.Span;
 import com.nike.wingtips.Tracer;
 import com.nike.wingtips.apache.httpclient.tag.ApacheHttpClientTagAdapter;
 import com.nike.wingtips.apache.httpclient.util.WingtipsApacheHttpClientUtil;
+import com.nike.wingtips.http.propagation.B3MultiHeaderPropagationCodec;
+import com.nike.wingtips.http.propagation.PropagationCodec;
 import com.nike.wingtips.tags.HttpTagAndSpanNamingAdapter;
 import com.nike.wingtips.tags.HttpTagAndSpanNamingStrategy;
 import com.nike.wingtips.tags.NoOpHttpTagAdapter;
@@ -119,6 +121,7 @@ public class WingtipsApacheHttpClientInterceptor implements HttpRequestIntercept
     
     protected final HttpTagAndSpanNamingStrategy<HttpRequest, HttpResponse> tagAndNamingStrategy;
     protected final HttpTagAndSpanNamingAdapter<HttpRequest, HttpResponse> tagAndNamingAdapter;
+    protected final PropagationCodec propagationCodec;
 
     /**
      * Creates a new instance with the subspan option turned on and the default {@link HttpTagAndSpanNamingStrategy}
@@ -159,6 +162,33 @@ public class WingtipsApacheHttpClientInterceptor implements HttpRequestIntercept
         boolean surroundCallsWithSubspan,
         HttpTagAndSpanNamingStrategy<HttpRequest, HttpResponse> tagAndNamingStrategy,
         HttpTagAndSpanNamingAdapter<HttpRequest, HttpResponse> tagAndNamingAdapter
+    ) {
+        this(
+            surroundCallsWithSubspan,
+            tagAndNamingStrategy,
+            tagAndNamingAdapter,
+            B3MultiHeaderPropagationCodec.getDefaultInstance()
+        );
+    }
+
+    /**
+     * Creates a new instance with the subspan option set to the value of the {@code surroundCallsWithSubspan}
+     * argument, the given {@link HttpTagAndSpanNamingStrategy} and {@link HttpTagAndSpanNamingAdapter}, and the given
+     * {@link PropagationCodec} for writing the tracing headers.
+     *
+     * @param surroundCallsWithSubspan Pass in true to have requests surrounded in a subspan, false to disable the
+     * subspan option.
+     * @param tagAndNamingStrategy The span tag and naming strategy to use - cannot be null. If you really want no
+     * tag and naming strategy, then pass in {@link NoOpHttpTagStrategy#getDefaultInstance()}.
+     * @param tagAndNamingAdapter The tag and naming adapter to use - cannot be null. If you really want no tag and
+     * naming adapter, then pass in {@link NoOpHttpTagAdapter#getDefaultInstance()}.
+     * @param propagationCodec The {@link PropagationCodec} to use for writing the tracing headers - cannot be null.
+     */
+    public WingtipsApacheHttpClientInterceptor(
+        boolean surroundCallsWithSubspan,
+        HttpTagAndSpanNamingStrategy<HttpRequest, HttpResponse> tagAndNamingStrategy,
+        HttpTagAndSpanNamingAdapter<HttpRequest, HttpResponse> tagAndNamingAdapter,
+        PropagationCodec propagationCodec
     ) {
         if (tagAndNamingStrategy == null) {
             throw new IllegalArgumentException(
@@ -171,10 +201,15 @@ public class WingtipsApacheHttpClientInterceptor implements HttpRequestIntercept
                 "tagAndNamingAdapter cannot be null - if you really want no adapter, use NoOpHttpTagAdapter"
             );
         }
+
+        if (propagationCodec == null) {
+            throw new IllegalArgumentException("propagationCodec cannot be null");
+        }
         
         this.surroundCallsWithSubspan = surroundCallsWithSubspan;
         this.tagAndNamingStrategy = tagAndNamingStrategy;
         this.tagAndNamingAdapter = tagAndNamingAdapter;
+        this.propagationCodec = propagationCodec;
     }
 
 
@@ -195,7 +230,7 @@ public class WingtipsApacheHttpClientInterceptor implements HttpRequestIntercept
             context.setAttribute(SPAN_TO_CLOSE_HTTP_CONTEXT_ATTR_KEY, spanToClose);
         }
 
-        propagateTracingHeaders(request, tracer.getCurrentSpan());
+        propagateTracingHeaders(request, tracer.getCurrentSpan(), propagationCodec);
     }
 
     @Override
@@ -6,6 +6,8 @@ import com.nike.wingtips.Span.SpanPurpose;
 import com.nike.wingtips.Tracer;
 import com.nike.wingtips.apache.httpclient.tag.ApacheHttpClientTagAdapter;
 import com.nike.wingtips.apache.httpclient.util.WingtipsApacheHttpClientUtil;
+import com.nike.wingtips.http.propagation.B3MultiHeaderPropagationCodec;
+import com.nike.wingtips.http.propagation.PropagationCodec;
 import com.nike.wingtips.tags.HttpTagAndSpanNamingAdapter;
 import com.nike.wingtips.tags.HttpTagAndSpanNamingStrategy;
 import com.nike.wingtips.tags.NoOpHttpTagAdapter;
@@ -94,6 +96,7 @@ public class WingtipsHttpClientBuilder extends HttpClientBuilder {
 
     protected HttpTagAndSpanNamingStrategy<HttpRequest, HttpResponse> tagAndNamingStrategy;
     protected HttpTagAndSpanNamingAdapter<HttpRequest, HttpResponse> tagAndNamingAdapter;
+    protected PropagationCodec propagationCodec;
     
     /**
      * Creates a new instance with the subspan option turned on and the default {@link HttpTagAndSpanNamingStrategy}
@@ -134,6 +137,33 @@ public class WingtipsHttpClientBuilder extends HttpClientBuilder {
         boolean surroundCallsWithSubspan,
         HttpTagAndSpanNamingStrategy<HttpRequest, HttpResponse> tagAndNamingStrategy,
         HttpTagAndSpanNamingAdapter<HttpRequest, HttpResponse> tagAndNamingAdapter
+    ) {
+        this(
+            surroundCallsWithSubspan,
+            tagAndNamingStrategy,
+            tagAndNamingAdapter,
+            B3MultiHeaderPropagationCodec.getDefaultInstance()
+        );
+    }
+
+    /**
+     * Creates a new instance with the subspan option set to the value of the {@code surroundCallsWithSubspan}
+     * argument, the given {@link HttpTagAndSpanNamingStrategy} and {@link HttpTagAndSpanNamingAdapter}, and the given
+     * {@link PropagationCodec} for writing the tracing headers.
+     *
+     * @param surroundCallsWithSubspan Pass in true to have requests surrounded in a subspan, false to disable the
+     * subspan option.
+     * @param tagAndNamingStrategy The span tag and naming strategy to use - cannot be null. If you really want no
+     * tag and naming strategy, then pass in {@link NoOpHttpTagStrategy#getDefaultInstance()}.
+     * @param tagAndNamingAdapter The tag and naming adapter to use - cannot be null. If you really want no tag and
+     * naming adapter, then pass in {@link NoOpHttpTagAdapter#getDefaultInstance()}.
+     * @param propagationCodec The {@link PropagationCodec} to use for writing the tracing headers - cannot be null.
+     */
+    public WingtipsHttpClientBuilder(
+        boolean surroundCallsWithSubspan,
+        HttpTagAndSpanNamingStrategy<HttpRequest, HttpResponse> tagAndNamingStrategy,
+        HttpTagAndSpanNamingAdapter<HttpRequest, HttpResponse> tagAndNamingAdapter,
+        PropagationCodec propagationCodec
     ) {
         if (tagAndNamingStrategy == null) {
             throw new IllegalArgumentException(
@@ -147,9 +177,14 @@ public class WingtipsHttpClientBuilder extends HttpClientBuilder {
             );
         }
 
+        if (propagationCodec == null) {
+            throw new IllegalArgumentException("propagationCodec cannot be null");
+        }
+
         this.surroundCallsWithSubspan = surroundCallsWithSubspan;
         this.tagAndNamingStrategy = tagAndNamingStrategy;
         this.tagAndNamingAdapter = tagAndNamingAdapter;
+        this.propagationCodec = propagationCodec;
     }
     
     /**
@@ -195,6 +230,7 @@ public class WingtipsHttpClientBuilder extends HttpClientBuilder {
     @Override
     protected ClientExecChain decorateProtocolExec(final ClientExecChain protocolExec) {
         final boolean myHttpClientSurroundCallsWithSubspan = surroundCallsWithSubspan;
+        final PropagationCodec myHttpClientPropagationCodec = propagationCodec;
 
         return new ClientExecChain() {
             @Override
@@ -250,7 +286,9 @@ public class WingtipsHttpClientBuilder extends HttpClientBuilder {
                 HttpClientContext clientContext,
                 HttpExecutionAware execAware
             ) throws IOException, HttpException {
-                propagateTracingHeaders(request, Tracer.getInstance().getCurrentSpan());
+                propagateTracingHeaders(
+                    request, Tracer.getInstance().getCurrentSpan(), myHttpClientPropagationCodec
+                );
                 return protocolExec.execute(route, request, clientContext, execAware);
             }
         };
@@ -304,4 +342,28 @@ public class WingtipsHttpClientBuilder extends HttpClientBuilder {
         this.surroundCallsWithSubspan = surroundCallsWithSubspan;
         return this;
     }
+
+    /**
+     * @return The current {@link PropagationCodec} used to write the tracing headers.
+     */
+    public PropagationCodec getPropagationCodec() {
+        return propagationCodec;
+    }
+
+    /**
+     * Sets the {@link PropagationCodec} used to write the tracing headers. Like {@link
+     * #setSurroundCallsWithSubspan(boolean)}, this only affects {@link HttpClient}s generated with {@link #build()}
+     * after this is called.
+     *
+     * @param propagationCodec The {@link PropagationCodec} to use - cannot be null.
+     * @return This builder after setting the propagation codec to the desired value.
+     */
+    public WingtipsHttpClientBuilder setPropagationCodec(PropagationCodec propagationCodec) {
+        if (propagationCodec == null) {
+            throw new IllegalArgumentException("propagationCodec cannot be null");
+        }
+
+        this.propagationCodec = propagationCodec;
+        return this;
+    }
 }
@@ -4,6 +4,7 @@ import com.nike.wingtips.Span;
 import com.nike.wingtips.apache.httpclient.WingtipsApacheHttpClientInterceptor;
 import com.nike.wingtips.apache.httpclient.WingtipsHttpClientBuilder;
 import com.nike.wingtips.http.HttpRequestTracingUtils;
+import com.nike.wingtips.http.propagation.PropagationCodec;
 import com.nike.wingtips.tags.HttpTagAndSpanNamingAdapter;
 
 import org.apache.http.HttpRequest;
@@ -50,6 +51,26 @@ public class WingtipsApacheHttpClientUtil {
         HttpRequestTracingUtils.propagateTracingHeaders(requestForPropagation, span);
     }
 
+    /**
+     * Sets the tracing headers on the given {@link HttpRequest} with values from the given {@link Span}, using the
+     * given {@link PropagationCodec} to decide which headers are sent (e.g. B3 vs. W3C {@code traceparent}).
+     * Does nothing if any of the given arguments are null (i.e. it is safe to pass null, but nothing will happen).
+     *
+     * @param request The {@link HttpRequest} to set tracing headers on. Can be null - if this is null then this
+     * method will do nothing.
+     * @param span The {@link Span} to get the tracing info from to set on the headers. Can be null - if this is null
+     * then this method will do nothing.
+     * @param propagationCodec The {@link PropagationCodec} that writes the headers. Can be null - if this is null
+     * then this method will do nothing.
+     */
+    public static void propagateTracingHeaders(HttpRequest request, Span span, PropagationCodec propagationCodec) {
+        if (request == null || propagationCodec == null) {
+            return;
+        }
+
+        propagationCodec.injectTracingHeaders(new HttpRequestForPropagation(request), span);
+    }
+
     /**
      * Returns span name that should be used for the subspan surrounding the given request when {@link
      * com.nike.wingtips.tags.HttpTagAndSpanNamingStrategy#getInitialSpanName(Object, HttpTagAndSpanNamingAdapter)}
@@ -0,0 +1,84 @@
+package com.nike.wingtips.benchmark;
+
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.Tracer;
+import com.nike.wingtips.util.asynchelperwrapper.ExecutorServiceWithTracing;
+import com.nike.wingtips.util.asynchelperwrapper.RunnableWithTracing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the cost of hopping tracing state across threads: capturing the current tracing state into a {@link
+ * RunnableWithTracing} and linking/unlinking it when the runnable executes, and a full submit/get round trip through an
+ * {@link ExecutorServiceWithTracing}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AsyncTracingWrapperBenchmark {
+
+    private static final Runnable NO_OP_RUNNABLE = new Runnable() {
+        @Override
+        public void run() {
+            // Do nothing
+        }
+    };
+
+    private ExecutorService executorWithTracing;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // One single-threaded executor per benchmark thread so the round trip isn't dominated by queue contention.
+        executorWithTracing = ExecutorServiceWithTracing.withTracing(Executors.newSingleThreadExecutor());
+    }
+
+    @Setup(Level.Iteration)
+    public void startRequestSpan() {
+        Tracer tracer = Tracer.getInstance();
+        tracer.startRequestWithRootSpan("GET /some/path");
+        tracer.startSubSpan("some-subspan", SpanPurpose.LOCAL_ONLY);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearThreadState() {
+        Tracer.getInstance().unregisterFromThread();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        executorWithTracing.shutdownNow();
+    }
+
+    @Benchmark
+    public void wrapAndRunRunnableWithTracing(Blackhole blackhole) {
+        RunnableWithTracing runnableWithTracing = new RunnableWithTracing(NO_OP_RUNNABLE);
+        runnableWithTracing.run();
+        blackhole.consume(runnableWithTracing);
+    }
+
+    @Benchmark
+    public Object executorServiceWithTracingSubmitAndGet() throws ExecutionException, InterruptedException {
+        return executorWithTracing.submit(NO_OP_RUNNABLE).get();
+    }
+
+}
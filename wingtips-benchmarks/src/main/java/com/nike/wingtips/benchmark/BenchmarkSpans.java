@@ -0,0 +1,43 @@
+package com.nike.wingtips.benchmark;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.Span.TimestampedAnnotation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared fixtures for the benchmarks, so that serialization, parsing, and exporter benchmarks all operate on the same
+ * representative span shape.
+ */
+final class BenchmarkSpans {
+
+    private BenchmarkSpans() {
+        // Do nothing
+    }
+
+    /**
+     * @return A completed span that looks like a typical server-side HTTP request span: a parent, a user ID, a
+     * handful of HTTP tags (one of which requires JSON escaping), and a couple of timestamped annotations.
+     */
+    static Span completedSpanWithTagsAndAnnotations() {
+        long startTimeEpochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        return Span.newBuilder("GET /api/v1/orders/{orderId}", SpanPurpose.SERVER)
+                   .withParentSpanId("a1b2c3d4e5f60718")
+                   .withUserId("some-user-id")
+                   .withSpanStartTimeEpochMicros(startTimeEpochMicros)
+                   .withDurationNanos(TimeUnit.MILLISECONDS.toNanos(42))
+                   .withTag("http.method", "GET")
+                   .withTag("http.path", "/api/v1/orders/12345")
+                   .withTag("http.url", "https://example.com/api/v1/orders/12345?expand=\"items\"")
+                   .withTag("http.route", "/api/v1/orders/{orderId}")
+                   .withTag("http.status_code", "200")
+                   .withTimestampedAnnotation(
+                       TimestampedAnnotation.forEpochMicros(startTimeEpochMicros + 10, "wr.start")
+                   )
+                   .withTimestampedAnnotation(
+                       TimestampedAnnotation.forEpochMicros(startTimeEpochMicros + 41000, "wr.finish")
+                   )
+                   .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.nike.wingtips.benchmark;
+
+import com.nike.wingtips.TraceAndSpanIdGenerator;
+import com.nike.wingtips.idgeneration.IdGenerationStrategy;
+import com.nike.wingtips.idgeneration.SecureRandomIdGenerationStrategy;
+import com.nike.wingtips.idgeneration.ThreadLocalRandomIdGenerationStrategy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link IdGenerationStrategy} implementations when called through {@link TraceAndSpanIdGenerator}. Run
+ * it at several thread counts (the default for {@link WingtipsBenchmarkRunner}) to see how each strategy scales - the
+ * shared {@link SecureRandomIdGenerationStrategy} contends on a single lock while {@link
+ * ThreadLocalRandomIdGenerationStrategy} does not.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGenerationStrategyBenchmark {
+
+    @Param({"THREAD_LOCAL_RANDOM", "SECURE_RANDOM"})
+    public String strategy;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        TraceAndSpanIdGenerator.setIdGenerationStrategy(createStrategy(strategy));
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        TraceAndSpanIdGenerator.setIdGenerationStrategy(ThreadLocalRandomIdGenerationStrategy.getDefaultInstance());
+    }
+
+    private static IdGenerationStrategy createStrategy(String strategyName) {
+        switch (strategyName) {
+            case "THREAD_LOCAL_RANDOM":
+                return ThreadLocalRandomIdGenerationStrategy.getDefaultInstance();
+            case "SECURE_RANDOM":
+                return new SecureRandomIdGenerationStrategy();
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategyName);
+        }
+    }
+
+    @Benchmark
+    public long generate64BitRandomLong() {
+        return TraceAndSpanIdGenerator.generate64BitRandomLong();
+    }
+
+    @Benchmark
+    public String generateId() {
+        return TraceAndSpanIdGenerator.generateId();
+    }
+
+}
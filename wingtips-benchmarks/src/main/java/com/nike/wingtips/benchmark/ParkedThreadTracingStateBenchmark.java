@@ -0,0 +1,204 @@
+package com.nike.wingtips.benchmark;
+
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.Tracer;
+import com.nike.wingtips.Tracer.LoggerMdcSyncMode;
+import com.nike.wingtips.contextstorage.ThreadLocalTracingContextStorage;
+import com.nike.wingtips.virtualthreads.ScopedTracingContextStorage;
+import com.nike.wingtips.virtualthreads.ThreadFactoryWithTracing;
+import com.nike.wingtips.virtualthreads.VirtualThreads;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how much memory the tracing state of parked thread-per-task threads keeps alive, for each {@link
+ * com.nike.wingtips.contextstorage.TracingContextStorage} backend the wingtips-virtual-threads module supports. Each
+ * benchmark call starts a thread (a virtual thread if the JVM supports them, otherwise a platform thread) from a traced
+ * caller via {@link ThreadFactoryWithTracing}. The thread's task starts a sub-span and then parks until the end of
+ * the iteration, the way a request's virtual thread parks while waiting on I/O. {@code NO_TRACING} starts the same
+ * threads from a plain factory, without any tracing, as the baseline.
+ *
+ * <p>Two numbers come out of this:
+ * <ul>
+ *     <li>
+ *         The JMH GC profiler's {@code gc.alloc.rate.norm} (enabled by default by {@link WingtipsBenchmarkRunner}) is
+ *         the bytes allocated to start the threads, including everything that's garbage by the time they park.
+ *     </li>
+ *     <li>
+ *         Once all {@link #PARKED_THREADS_PER_ITERATION} threads of an iteration are parked, the heap in use (after
+ *         a GC) is compared to the heap in use before the iteration and reported as the {@code retained.heap.norm}
+ *         secondary result via the {@link RetainedHeapProfiler}, which {@link WingtipsBenchmarkRunner} also enables
+ *         by default. Subtract the {@code NO_TRACING} number to get the retained tracing overhead. This is
+ *         heap only - a platform thread's stack is native memory, but a virtual thread's stack is on the heap, so
+ *         compare runs on the same JVM.
+ *     </li>
+ * </ul>
+ *
+ * <p>Both are per JMH operation, which in this single shot benchmark is a batch of {@link
+ * #PARKED_THREADS_PER_ITERATION} thread starts - divide them by {@link #PARKED_THREADS_PER_ITERATION} to get the bytes
+ * per parked thread.
+ *
+ * <p>Every benchmark thread starts {@link #PARKED_THREADS_PER_ITERATION} threads per iteration, and they're all
+ * parked at the same time. On JVMs without virtual threads those are platform threads, so run this with {@code -t 1}
+ * there rather than the default 1/4/16 thread sweep.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, batchSize = ParkedThreadTracingStateBenchmark.PARKED_THREADS_PER_ITERATION)
+@Measurement(iterations = 5, batchSize = ParkedThreadTracingStateBenchmark.PARKED_THREADS_PER_ITERATION)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParkedThreadTracingStateBenchmark {
+
+    public static final int PARKED_THREADS_PER_ITERATION = 1000;
+
+    public enum Backend {
+        NO_TRACING, THREAD_LOCAL, SCOPED
+    }
+
+    @Param({"NO_TRACING", "THREAD_LOCAL", "SCOPED"})
+    public Backend backend;
+
+    @Param({"EAGER", "LAZY"})
+    public LoggerMdcSyncMode mdcSyncMode;
+
+    private ThreadFactory threadFactory;
+    private Runnable parkingTask;
+
+    private Queue<Thread> parkedThreads;
+    private volatile CountDownLatch releaseParkedThreads;
+    private volatile Semaphore parkedThreadCount;
+    private long heapUsedBeforeIteration;
+
+    /**
+     * The benchmark threads' own tracing state, so the threads they start have something to inherit.
+     */
+    @State(Scope.Thread)
+    public static class TracedCaller {
+        @Setup(Level.Trial)
+        public void startRequestSpan(ParkedThreadTracingStateBenchmark benchmark) {
+            if (benchmark.backend != Backend.NO_TRACING) {
+                Tracer.getInstance().startRequestWithRootSpan("GET /some/path");
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void clearThreadState() {
+            Tracer.getInstance().unregisterFromThread();
+            MDC.clear();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Tracer tracer = Tracer.getInstance();
+        tracer.setLoggerMdcSyncMode(mdcSyncMode);
+        tracer.setTracingContextStorage(
+            (backend == Backend.SCOPED)
+            ? ScopedTracingContextStorage.getDefaultInstance()
+            : ThreadLocalTracingContextStorage.getDefaultInstance()
+        );
+
+        ThreadFactory plainThreadFactory = (VirtualThreads.isSupported())
+                                           ? VirtualThreads.newVirtualThreadFactory("benchmark-parked-")
+                                           : Executors.defaultThreadFactory();
+        threadFactory = (backend == Backend.NO_TRACING)
+                        ? plainThreadFactory
+                        : ThreadFactoryWithTracing.withTracing(plainThreadFactory);
+
+        final boolean traced = (backend != Backend.NO_TRACING);
+        parkingTask = new Runnable() {
+            @Override
+            public void run() {
+                if (traced) {
+                    Tracer.getInstance().startSubSpan("parked-task", SpanPurpose.LOCAL_ONLY);
+                }
+                parkedThreadCount.release();
+                awaitRelease();
+                if (traced) {
+                    Tracer.getInstance().completeSubSpan();
+                }
+            }
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        Tracer tracer = Tracer.getInstance();
+        tracer.setTracingContextStorage(ThreadLocalTracingContextStorage.getDefaultInstance());
+        tracer.setLoggerMdcSyncMode(LoggerMdcSyncMode.EAGER);
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() {
+        parkedThreads = new ConcurrentLinkedQueue<>();
+        releaseParkedThreads = new CountDownLatch(1);
+        parkedThreadCount = new Semaphore(0);
+        heapUsedBeforeIteration = heapUsedAfterGc();
+    }
+
+    @TearDown(Level.Iteration)
+    public void measureRetainedHeapAndReleaseThreads() throws InterruptedException {
+        int numThreads = parkedThreads.size();
+        parkedThreadCount.acquire(numThreads);
+        // Each benchmark thread did one JMH operation (a batch of PARKED_THREADS_PER_ITERATION calls) this iteration.
+        RetainedHeapProfiler.recordRetainedHeap(
+            heapUsedAfterGc() - heapUsedBeforeIteration, numThreads / PARKED_THREADS_PER_ITERATION
+        );
+
+        releaseParkedThreads.countDown();
+        for (Thread thread : parkedThreads) {
+            thread.join();
+        }
+        parkedThreads.clear();
+    }
+
+    @Benchmark
+    public Thread startThreadThatParks(TracedCaller tracedCaller) {
+        Thread thread = threadFactory.newThread(parkingTask);
+        thread.start();
+        parkedThreads.add(thread);
+        return thread;
+    }
+
+    private void awaitRelease() {
+        try {
+            releaseParkedThreads.await();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long heapUsedAfterGc() {
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoryBean.getHeapMemoryUsage().getUsed();
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.nike.wingtips.benchmark;
+
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.Tracer;
+import com.nike.wingtips.spring.webflux.reactor.WingtipsReactorContextPropagation;
+import com.nike.wingtips.util.TracingState;
+import com.nike.wingtips.util.asynchelperwrapper.ScheduledExecutorServiceWithTracing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import static com.nike.wingtips.spring.webflux.WingtipsSpringWebfluxUtils.subscriberContextWithTracingInfo;
+
+/**
+ * Compares the two ways of propagating tracing state through Project Reactor pipelines: decorating the schedulers'
+ * executor services with {@link ScheduledExecutorServiceWithTracing} (what {@code WingtipsReactorInitializer} does by
+ * default), and the subscriber {@code Context} based {@link WingtipsReactorContextPropagation} hook. {@code NONE} is the
+ * untraced baseline.
+ *
+ * <p>Each benchmark assembles and blocks on a small pipeline from a traced caller, the same way a request handler
+ * would: a source, a {@code publishOn(...)} hop to a scheduler (when {@link #hopThreads} is true), then {@link
+ * #operatorsAfterHop} synchronous operators. The hook's costs are at assembly/subscription time and per signal, while
+ * the decorator's are per scheduled task, so the pipeline shape matters - {@link #emitMultipleValues} switches between a
+ * {@link Mono} and a 16 element {@link Flux}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReactorTracingPropagationBenchmark {
+
+    private static final String SCHEDULER_DECORATOR_KEY = "ReactorTracingPropagationBenchmark";
+
+    public enum Propagation {
+        NONE, SCHEDULER_DECORATOR, CONTEXT_HOOK
+    }
+
+    @Param({"NONE", "SCHEDULER_DECORATOR", "CONTEXT_HOOK"})
+    public Propagation propagation;
+
+    @Param({"true", "false"})
+    public boolean hopThreads;
+
+    @Param({"2", "8"})
+    public int operatorsAfterHop;
+
+    @Param({"false", "true"})
+    public boolean emitMultipleValues;
+
+    private Scheduler scheduler;
+    private TracingState tracingState;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // The hooks only affect schedulers created and operators assembled after they're registered.
+        if (propagation == Propagation.SCHEDULER_DECORATOR) {
+            Schedulers.addExecutorServiceDecorator(
+                SCHEDULER_DECORATOR_KEY,
+                (scheduler, schedulerService) -> new ScheduledExecutorServiceWithTracing(schedulerService)
+            );
+        }
+        else if (propagation == Propagation.CONTEXT_HOOK) {
+            WingtipsReactorContextPropagation.registerHook();
+        }
+
+        // One single-threaded scheduler per benchmark thread so the hop isn't dominated by queue contention.
+        scheduler = Schedulers.newSingle("benchmark-reactor");
+    }
+
+    @Setup(Level.Iteration)
+    public void startRequestSpan() {
+        Tracer tracer = Tracer.getInstance();
+        tracer.startRequestWithRootSpan("GET /some/path");
+        tracer.startSubSpan("some-subspan", SpanPurpose.LOCAL_ONLY);
+        tracingState = TracingState.getCurrentThreadTracingState();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearThreadState() {
+        Tracer.getInstance().unregisterFromThread();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        scheduler.dispose();
+        Schedulers.removeExecutorServiceDecorator(SCHEDULER_DECORATOR_KEY);
+        WingtipsReactorContextPropagation.removeHook();
+    }
+
+    @Benchmark
+    public Object assembleAndBlock() {
+        Flux<Integer> flux = (emitMultipleValues) ? Flux.range(0, 16) : Mono.just(42).flux();
+        if (hopThreads) {
+            flux = flux.publishOn(scheduler);
+        }
+
+        for (int i = 0; i < operatorsAfterHop; i++) {
+            flux = (i % 2 == 0) ? flux.map(v -> v + 1) : flux.filter(v -> v >= 0);
+        }
+
+        Mono<Long> result = flux.count();
+        if (propagation == Propagation.CONTEXT_HOOK) {
+            result = result.contextWrite(c -> subscriberContextWithTracingInfo(c, tracingState));
+        }
+
+        return result.block();
+    }
+
+}
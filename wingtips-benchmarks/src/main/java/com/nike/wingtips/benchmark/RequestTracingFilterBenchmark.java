@@ -0,0 +1,98 @@
+package com.nike.wingtips.benchmark;
+
+import com.nike.wingtips.TraceHeaders;
+import com.nike.wingtips.servlet.RequestTracingFilter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Benchmarks the per-request work done by {@link RequestTracingFilter}: span creation from the incoming headers,
+ * request/response tagging and span naming, response header propagation, and span completion and logging. The filter
+ * chain is a no-op so only the tracing overhead is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestTracingFilterBenchmark {
+
+    private static final FilterChain NO_OP_FILTER_CHAIN = new FilterChain() {
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) {
+            // Do nothing
+        }
+    };
+
+    /**
+     * Whether the incoming request carries B3 tracing headers from an upstream caller (so the filter creates a child
+     * span) or not (so the filter creates a new root span).
+     */
+    @Param({"true", "false"})
+    public boolean withIncomingTracingHeaders;
+
+    private ExposedRequestTracingFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setup() throws ServletException {
+        filter = new ExposedRequestTracingFilter();
+        filter.init(new MockFilterConfig());
+
+        request = new MockHttpServletRequest("GET", "/api/v1/orders/12345");
+        request.setQueryString("expand=items");
+        if (withIncomingTracingHeaders) {
+            request.addHeader(TraceHeaders.TRACE_ID, "0a1b2c3d4e5f6071");
+            request.addHeader(TraceHeaders.SPAN_ID, "8192a3b4c5d6e7f8");
+            request.addHeader(TraceHeaders.TRACE_SAMPLED, "1");
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse doFilterInternal() throws ServletException, IOException {
+        filter.doFilterInternal(request, response, NO_OP_FILTER_CHAIN);
+        return response;
+    }
+
+    /**
+     * Exposes the protected {@link RequestTracingFilter#doFilterInternal(HttpServletRequest, HttpServletResponse,
+     * FilterChain)} so the benchmark can bypass the once-per-request attribute check in {@link
+     * RequestTracingFilter#doFilter(ServletRequest, ServletResponse, FilterChain)} and reuse the same mock request.
+     */
+    static class ExposedRequestTracingFilter extends RequestTracingFilter {
+        @Override
+        public void doFilterInternal(HttpServletRequest request,
+                                     HttpServletResponse response,
+                                     FilterChain filterChain) throws ServletException, IOException {
+            super.doFilterInternal(request, response, filterChain);
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.nike.wingtips.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * A JMH profiler that reports the retained heap measured by a benchmark as a secondary result, so it shows up in the
+ * JMH results (and JSON/CSV output, and the {@link WingtipsBenchmarkRunner} summary) next to the GC profiler's
+ * allocation numbers. JMH has no built-in way to measure memory that stays reachable, so the benchmark measures it
+ * itself (e.g. in an {@code @TearDown(Level.Iteration)} method, while the objects it wants to measure are still
+ * alive) and hands the result to {@link #recordRetainedHeap(long, long)}. Iterations that don't record anything don't
+ * get a result, so this is harmless for other benchmarks.
+ *
+ * <p>{@link WingtipsBenchmarkRunner} enables this by default. When running through plain JMH instead, pass
+ * {@code -prof com.nike.wingtips.benchmark.RetainedHeapProfiler}.
+ */
+public class RetainedHeapProfiler implements InternalProfiler {
+
+    /**
+     * The label of the secondary result this profiler reports: retained heap bytes per benchmark operation.
+     */
+    public static final String RETAINED_HEAP_NORM_LABEL = "retained.heap.norm";
+
+    private static volatile Double retainedBytesPerOpForCurrentIteration;
+
+    /**
+     * Records the retained heap for the current iteration. Call this at most once per iteration.
+     *
+     * @param retainedBytes The heap bytes that were still reachable because of the iteration's operations.
+     * @param numOps The number of operations that retained those bytes - the result is reported per operation.
+     */
+    public static void recordRetainedHeap(long retainedBytes, long numOps) {
+        retainedBytesPerOpForCurrentIteration = ((double) retainedBytes) / Math.max(numOps, 1);
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        retainedBytesPerOpForCurrentIteration = null;
+    }
+
+    @Override
+    public Collection<ScalarResult> afterIteration(BenchmarkParams benchmarkParams,
+                                                   IterationParams iterationParams,
+                                                   IterationResult result) {
+        Double retainedBytesPerOp = retainedBytesPerOpForCurrentIteration;
+        retainedBytesPerOpForCurrentIteration = null;
+        if (retainedBytesPerOp == null) {
+            return Collections.emptyList();
+        }
+
+        return Collections.singletonList(
+            new ScalarResult(RETAINED_HEAP_NORM_LABEL, retainedBytesPerOp, "B/op", AggregationPolicy.AVG)
+        );
+    }
+
+    @Override
+    public String getDescription() {
+        return "Retained heap per operation, as measured and recorded by the benchmark itself";
+    }
+}
@@ -0,0 +1,91 @@
+package com.nike.wingtips.benchmark;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.util.parser.SpanDeserializer;
+import com.nike.wingtips.util.parser.SpanFieldVisitor;
+import com.nike.wingtips.util.parser.SpanParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks parsing serialized spans back into {@link Span} objects via {@link SpanParser#fromJSON(String)} and
+ * {@link SpanParser#fromKeyValueString(String)}, plus the {@link SpanDeserializer} UTF-8 and visitor variants.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpanParserBenchmark {
+
+    private String spanJson;
+    private String spanKeyValueString;
+    private byte[] spanJsonUtf8;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Span span = BenchmarkSpans.completedSpanWithTagsAndAnnotations();
+        spanJson = span.toJSON();
+        spanKeyValueString = span.toKeyValueString();
+        spanJsonUtf8 = spanJson.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Span spanFromJson() {
+        return SpanParser.fromJSON(spanJson);
+    }
+
+    @Benchmark
+    public Span spanFromKeyValueString() {
+        return SpanParser.fromKeyValueString(spanKeyValueString);
+    }
+
+    @Benchmark
+    public Span spanFromJsonUtf8Bytes() {
+        return SpanDeserializer.fromJsonUtf8(spanJsonUtf8, 0, spanJsonUtf8.length);
+    }
+
+    @Benchmark
+    public long traceIdSpanIdAndDurationFromJsonViaVisitor() {
+        TraceIdSpanIdAndDurationVisitor visitor = new TraceIdSpanIdAndDurationVisitor();
+        SpanDeserializer.visitJson(spanJson, visitor);
+        return visitor.traceId.length() + visitor.spanId.length() + visitor.durationNanos;
+    }
+
+    private static class TraceIdSpanIdAndDurationVisitor extends SpanFieldVisitor {
+        private String traceId;
+        private String spanId;
+        private long durationNanos;
+
+        @Override
+        @SuppressWarnings("StringEquality")
+        public boolean visitField(String fieldName, CharSequence value) {
+            if (fieldName == SpanParser.TRACE_ID_FIELD) {
+                traceId = value.toString();
+            }
+            else if (fieldName == SpanParser.SPAN_ID_FIELD) {
+                spanId = value.toString();
+            }
+            else if (fieldName == SpanParser.DURATION_NANOS_FIELD) {
+                durationNanos = SpanDeserializer.parseLong(value);
+                // Duration is the last field we care about, so there's no need to parse the tags or annotations.
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.nike.wingtips.benchmark;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.util.parser.SpanParser;
+import com.nike.wingtips.util.parser.SpanSerializer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks serializing a completed, tagged, annotated {@link Span} to JSON and key/value format. {@link
+ * Span#toJSON()} and {@link Span#toKeyValueString()} cache their result, so the uncached {@link SpanParser} methods
+ * they delegate to are what get measured here. The {@link SpanSerializer} benchmarks write into a buffer that is
+ * reused across invocations, which is the allocation-free path for callers that don't need a {@link String}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpanSerializationBenchmark {
+
+    private Span span;
+    private StringBuilder reusableStringBuilder;
+    private ByteBuffer reusableByteBuffer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        span = BenchmarkSpans.completedSpanWithTagsAndAnnotations();
+        reusableStringBuilder = new StringBuilder(1024);
+        reusableByteBuffer = ByteBuffer.allocate(4096);
+    }
+
+    @Benchmark
+    public String spanToJson() {
+        return SpanParser.convertSpanToJSON(span);
+    }
+
+    @Benchmark
+    public String spanToKeyValueString() {
+        return SpanParser.convertSpanToKeyValueFormat(span);
+    }
+
+    @Benchmark
+    public StringBuilder spanAppendJsonToReusableStringBuilder() {
+        reusableStringBuilder.setLength(0);
+        return SpanSerializer.appendJson(span, reusableStringBuilder);
+    }
+
+    @Benchmark
+    public StringBuilder spanAppendKeyValueToReusableStringBuilder() {
+        reusableStringBuilder.setLength(0);
+        return SpanSerializer.appendKeyValue(span, reusableStringBuilder);
+    }
+
+    @Benchmark
+    public ByteBuffer spanWriteJsonUtf8ToReusableByteBuffer() {
+        reusableByteBuffer.clear();
+        SpanSerializer.writeJsonUtf8(span, reusableByteBuffer);
+        return reusableByteBuffer;
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.nike.wingtips.benchmark;
+
+import com.nike.wingtips.TraceAndSpanIdGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks trace/span ID generation via {@link TraceAndSpanIdGenerator}, both the raw 64-bit random long and the
+ * full lowercase hex ID string.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraceAndSpanIdGeneratorBenchmark {
+
+    @Benchmark
+    public String generateId() {
+        return TraceAndSpanIdGenerator.generateId();
+    }
+
+    @Benchmark
+    public long generate64BitRandomLong() {
+        return TraceAndSpanIdGenerator.generate64BitRandomLong();
+    }
+
+}
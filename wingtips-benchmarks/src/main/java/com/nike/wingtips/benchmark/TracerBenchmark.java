@@ -0,0 +1,94 @@
+package com.nike.wingtips.benchmark;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.Tracer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link Tracer} span lifecycle hot paths: starting and completing request spans (both root and child
+ * of an upstream caller's span), and starting and completing subspans inside an already-running request.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TracerBenchmark {
+
+    private final Tracer tracer = Tracer.getInstance();
+    private Span upstreamParentSpan;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        upstreamParentSpan = Span.newBuilder("upstream-span", SpanPurpose.CLIENT).build();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearThreadState() {
+        tracer.unregisterFromThread();
+    }
+
+    @Benchmark
+    public Span startAndCompleteRootRequestSpan() {
+        Span span = tracer.startRequestWithRootSpan("GET /some/path");
+        tracer.completeRequestSpan();
+        return span;
+    }
+
+    @Benchmark
+    public Span startAndCompleteChildRequestSpan() {
+        Span span = tracer.startRequestWithChildSpan(upstreamParentSpan, "GET /some/path");
+        tracer.completeRequestSpan();
+        return span;
+    }
+
+    @Benchmark
+    public Span startAndCompleteRequestSpanWithSubspan() {
+        tracer.startRequestWithRootSpan("GET /some/path");
+        Span subspan = tracer.startSubSpan("downstream-call", SpanPurpose.CLIENT);
+        tracer.completeSubSpan();
+        tracer.completeRequestSpan();
+        return subspan;
+    }
+
+    /**
+     * Keeps a request span open for the whole iteration so only the subspan start/complete cost is measured.
+     */
+    @State(Scope.Thread)
+    public static class OpenRequestSpanState {
+
+        @Setup(Level.Iteration)
+        public void startRequestSpan() {
+            Tracer.getInstance().startRequestWithRootSpan("GET /some/path");
+        }
+
+        @TearDown(Level.Iteration)
+        public void completeRequestSpan() {
+            Tracer.getInstance().completeRequestSpan();
+        }
+    }
+
+    @Benchmark
+    public Span startAndCompleteSubspan(OpenRequestSpanState requestSpanState) {
+        Span subspan = tracer.startSubSpan("downstream-call", SpanPurpose.CLIENT);
+        tracer.completeSubSpan();
+        return subspan;
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.nike.wingtips.benchmark;
+
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.Tracer;
+import com.nike.wingtips.util.asynchelperwrapper.RunnableWithTracing;
+import com.nike.wingtips.virtualthreads.InheritedTracingState;
+import com.nike.wingtips.virtualthreads.ThreadFactoryWithTracing;
+import com.nike.wingtips.virtualthreads.ThreadPerTaskExecutorWithTracing;
+import com.nike.wingtips.virtualthreads.VirtualThreads;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the cost of handing tracing state to thread-per-task work, comparing the {@link RunnableWithTracing}
+ * wrapper against the {@link InheritedTracingState} binding used by the wingtips-virtual-threads module, both with and
+ * without a traced submitting thread. The thread-per-task benchmarks start (and join) a new thread for every task - a
+ * virtual thread if the JVM supports them, otherwise a platform thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VirtualThreadTracingBenchmark {
+
+    private static final Runnable NO_OP_RUNNABLE = new Runnable() {
+        @Override
+        public void run() {
+            // Do nothing
+        }
+    };
+
+    @Param({"true", "false"})
+    public boolean traced;
+
+    private ThreadFactory plainThreadFactory;
+    private ThreadFactoryWithTracing threadFactoryWithTracing;
+    private ThreadPerTaskExecutorWithTracing threadPerTaskExecutorWithTracing;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        plainThreadFactory = (VirtualThreads.isSupported())
+                             ? VirtualThreads.newVirtualThreadFactory("benchmark-virtual-")
+                             : Executors.defaultThreadFactory();
+        threadFactoryWithTracing = ThreadFactoryWithTracing.withTracing(plainThreadFactory);
+        threadPerTaskExecutorWithTracing = new ThreadPerTaskExecutorWithTracing(plainThreadFactory);
+    }
+
+    @Setup(Level.Iteration)
+    public void startRequestSpan() {
+        if (traced) {
+            Tracer tracer = Tracer.getInstance();
+            tracer.startRequestWithRootSpan("GET /some/path");
+            tracer.startSubSpan("some-subspan", SpanPurpose.LOCAL_ONLY);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearThreadState() {
+        Tracer.getInstance().unregisterFromThread();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        threadPerTaskExecutorWithTracing.shutdownNow();
+    }
+
+    @Benchmark
+    public Object wrapAndRunRunnableWithTracing() {
+        RunnableWithTracing runnableWithTracing = new RunnableWithTracing(NO_OP_RUNNABLE);
+        runnableWithTracing.run();
+        return runnableWithTracing;
+    }
+
+    @Benchmark
+    public Object captureAndRunInheritedTracingState() {
+        InheritedTracingState state = InheritedTracingState.captureCurrentThreadState();
+        state.run(NO_OP_RUNNABLE);
+        return state;
+    }
+
+    @Benchmark
+    public Thread newThreadPerTaskWithRunnableWithTracing() throws InterruptedException {
+        Thread thread = plainThreadFactory.newThread(new RunnableWithTracing(NO_OP_RUNNABLE));
+        thread.start();
+        thread.join();
+        return thread;
+    }
+
+    @Benchmark
+    public Thread newThreadPerTaskWithThreadFactoryWithTracing() throws InterruptedException {
+        Thread thread = threadFactoryWithTracing.newThread(NO_OP_RUNNABLE);
+        thread.start();
+        thread.join();
+        return thread;
+    }
+
+    @Benchmark
+    public Object threadPerTaskExecutorWithTracingSubmitAndGet() throws ExecutionException, InterruptedException {
+        return threadPerTaskExecutorWithTracing.submit(NO_OP_RUNNABLE).get();
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.nike.wingtips.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Entry point for running the Wingtips JMH benchmarks. Accepts the standard JMH command line options (benchmark
+ * include regexes, {@code -wi}, {@code -i}, {@code -f}, etc), and by default runs every selected benchmark at each of
+ * {@link #DEFAULT_THREAD_COUNTS} threads with the {@link GCProfiler} enabled so that allocation rates are reported
+ * alongside throughput. The {@link RetainedHeapProfiler} is also enabled, for benchmarks that measure retained heap.
+ * Pass {@code -t} to run at a single specific thread count instead.
+ *
+ * <p>After all runs finish a combined summary is printed with ops/sec, normalized allocation (bytes/op), and retained
+ * heap (bytes/op, when the benchmark measures it) for each benchmark and thread count, which makes it easy to compare
+ * results across changes.
+ */
+public final class WingtipsBenchmarkRunner {
+
+    static final List<Integer> DEFAULT_THREAD_COUNTS = Collections.unmodifiableList(Arrays.asList(1, 4, 16));
+
+    private static final String GC_PROFILER_NAME = "gc";
+    private static final String GC_ALLOC_RATE_NORM_SUFFIX = "gc.alloc.rate.norm";
+
+    private WingtipsBenchmarkRunner() {
+        // Do nothing
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+        List<Integer> threadCounts = (commandLineOptions.getThreads().hasValue())
+                                     ? Collections.singletonList(commandLineOptions.getThreads().get())
+                                     : DEFAULT_THREAD_COUNTS;
+
+        List<RunResult> allResults = new ArrayList<>();
+        for (int threads : threadCounts) {
+            ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions).threads(threads);
+            if (!isGcProfilerRequested(commandLineOptions.getProfilers())) {
+                options.addProfiler(GCProfiler.class);
+            }
+            if (!isRetainedHeapProfilerRequested(commandLineOptions.getProfilers())) {
+                options.addProfiler(RetainedHeapProfiler.class);
+            }
+
+            allResults.addAll(new Runner(options.build()).run());
+        }
+
+        printSummary(allResults);
+    }
+
+    private static boolean isGcProfilerRequested(List<ProfilerConfig> profilers) {
+        for (ProfilerConfig profiler : profilers) {
+            if (GC_PROFILER_NAME.equals(profiler.getKlass())
+                || GCProfiler.class.getName().equals(profiler.getKlass())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRetainedHeapProfilerRequested(List<ProfilerConfig> profilers) {
+        for (ProfilerConfig profiler : profilers) {
+            if (RetainedHeapProfiler.class.getName().equals(profiler.getKlass())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void printSummary(List<RunResult> results) {
+        String rowFormat = "%-85s %8s %18s %18s %18s%n";
+        System.out.println();
+        System.out.println("=== WINGTIPS BENCHMARK SUMMARY ===");
+        System.out.printf(rowFormat, "Benchmark", "Threads", "Score (ops/s)", "Alloc (B/op)", "Retained (B/op)");
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            Result<?> primaryResult = result.getPrimaryResult();
+            System.out.printf(
+                rowFormat,
+                describeBenchmark(params),
+                params.getThreads(),
+                String.format("%.1f", primaryResult.getScore()),
+                describeSecondaryResult(result, GC_ALLOC_RATE_NORM_SUFFIX),
+                describeSecondaryResult(result, RetainedHeapProfiler.RETAINED_HEAP_NORM_LABEL)
+            );
+        }
+        System.out.println();
+    }
+
+    private static String describeBenchmark(BenchmarkParams params) {
+        String benchmarkName = params.getBenchmark();
+        String packagePrefix = WingtipsBenchmarkRunner.class.getPackage().getName() + ".";
+        if (benchmarkName.startsWith(packagePrefix)) {
+            benchmarkName = benchmarkName.substring(packagePrefix.length());
+        }
+
+        StringBuilder sb = new StringBuilder(benchmarkName);
+        for (String paramKey : params.getParamsKeys()) {
+            sb.append(" [").append(paramKey).append('=').append(params.getParam(paramKey)).append(']');
+        }
+        return sb.toString();
+    }
+
+    private static String describeSecondaryResult(RunResult result, String labelSuffix) {
+        for (String resultLabel : result.getSecondaryResults().keySet()) {
+            if (resultLabel.endsWith(labelSuffix)) {
+                Result<?> secondaryResult = result.getSecondaryResults().get(resultLabel);
+                return String.format("%.1f", secondaryResult.getScore());
+            }
+        }
+        return "n/a";
+    }
+}
@@ -0,0 +1,68 @@
+package com.nike.wingtips.benchmark;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.zipkin2.util.WingtipsToZipkinSpanConverterDefaultImpl;
+import com.nike.wingtips.zipkin2.util.WingtipsToZipkinSpanEncoder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import zipkin2.Endpoint;
+import zipkin2.codec.Encoding;
+import zipkin2.codec.SpanBytesEncoder;
+
+/**
+ * Compares getting Zipkin-ready bytes for a completed Wingtips {@link Span} via the existing path (convert with
+ * {@link WingtipsToZipkinSpanConverterDefaultImpl}, then encode the {@link zipkin2.Span} with Zipkin's {@link
+ * SpanBytesEncoder}, which is what {@link zipkin2.reporter.AsyncReporter} does) against encoding directly with {@link
+ * WingtipsToZipkinSpanEncoder}. Both produce the same bytes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ZipkinSpanEncodingBenchmark {
+
+    @Param({"JSON", "PROTO3"})
+    public Encoding encoding;
+
+    private Span span;
+    private Endpoint endpoint;
+    private WingtipsToZipkinSpanConverterDefaultImpl converter;
+    private SpanBytesEncoder zipkinSpanBytesEncoder;
+    private WingtipsToZipkinSpanEncoder directEncoder;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        span = BenchmarkSpans.completedSpanWithTagsAndAnnotations();
+        endpoint = Endpoint.newBuilder().serviceName("benchmark-service").ip("10.1.2.3").port(8080).build();
+        converter = new WingtipsToZipkinSpanConverterDefaultImpl();
+        zipkinSpanBytesEncoder = (encoding == Encoding.JSON) ? SpanBytesEncoder.JSON_V2 : SpanBytesEncoder.PROTO3;
+        directEncoder = new WingtipsToZipkinSpanEncoder(encoding, endpoint, converter);
+    }
+
+    @Benchmark
+    public byte[] convertToZipkinSpanThenEncode() {
+        return zipkinSpanBytesEncoder.encode(converter.convertWingtipsSpanToZipkinSpan(span, endpoint));
+    }
+
+    @Benchmark
+    public byte[] encodeDirectly() {
+        return directEncoder.encode(span);
+    }
+
+}
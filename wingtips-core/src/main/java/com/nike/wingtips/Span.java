@@ -1,6 +1,7 @@
 package com.nike.wingtips;
 
 import com.nike.wingtips.http.HttpRequestTracingUtils;
+import com.nike.wingtips.util.CompactTagMap;
 import com.nike.wingtips.util.TracerManagedSpanStatus;
 import com.nike.wingtips.util.parser.SpanParser;
 
@@ -12,12 +13,11 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * Represents some logical "unit of work" that is part of the larger distributed trace. A given request's trace tree is made up of all the spans with the same {@link #traceId}
@@ -56,27 +56,51 @@ import java.util.concurrent.atomic.AtomicBoolean;
 @SuppressWarnings("WeakerAccess")
 public class Span implements Closeable, Serializable {
 
-    private final String traceId;
-    private final String spanId;
-    private final String parentSpanId;
+    private static final byte NUMERIC_TRACE_ID_FLAG = 1;
+    private static final byte NUMERIC_SPAN_ID_FLAG = 1 << 1;
+    private static final byte NUMERIC_PARENT_SPAN_ID_FLAG = 1 << 2;
+
+    private static final int LIFECYCLE_ACTIVE = 0;
+    private static final int LIFECYCLE_COMPLETED = 1;
+    private static final int LIFECYCLE_RECYCLED = 2;
+    private static final AtomicIntegerFieldUpdater<Span> LIFECYCLE_STATE_UPDATER =
+        AtomicIntegerFieldUpdater.newUpdater(Span.class, "lifecycleState");
+
+    // The trace/span/parent IDs may be carried as primitive longs (see hasNumericTraceId(), etc). When they are, these
+    //      String fields start out null and the lowerhex representation is rendered lazily (and then cached) the first
+    //      time it's requested, e.g. via getTraceId() or when the span is logged.
+    private String traceId;
+    private String spanId;
+    private String parentSpanId;
+    private final long traceIdHigh;
+    private final long traceIdLow;
+    private final long spanIdAsLong;
+    private final long parentSpanIdAsLong;
+    private final byte numericIdFlags;
     private String spanName;
     private final boolean sampleable;
     private final String userId;
     private final SpanPurpose spanPurpose;
     private final long spanStartTimeEpochMicros;
     private final long spanStartTimeNanos;
-    // The default initial capacity (16) and load factor (0.75) is enough space to handle the ZipkinHttpTagStrategy
-    //      tags plus a few extra without any internal rehashing of the map as tags are added.
-    //      This seems about right for most use cases, so we'll leave the default settings.
-    private final Map<String,String> tags = new LinkedHashMap<>();
-    private final Map<String,String> unmodifiableTags = Collections.unmodifiableMap(tags);
+    // See isPropagationOnly() - only ever true for spans that are not sampleable.
+    private final boolean propagationOnly;
+    // The tags map and annotations list (and their unmodifiable views) are allocated lazily the first time something
+    //      is added, since many spans (e.g. unsampled or short local sub-spans) never get any.
+    // CompactTagMap keeps the tags in insertion order in flat arrays, which is much lighter than a LinkedHashMap for
+    //      the handful of tags a span usually has. Its default capacity is enough to handle the ZipkinHttpTagStrategy
+    //      tags plus a couple extra without growing.
+    private CompactTagMap tags;
+    private Map<String,String> unmodifiableTags;
     // The default initial capacity (10) seems ok for the annotations list.
-    private final List<TimestampedAnnotation> annotations = new ArrayList<>();
-    private final List<TimestampedAnnotation> unmodifiableAnnotations = Collections.unmodifiableList(annotations);
+    private List<TimestampedAnnotation> annotations;
+    private List<TimestampedAnnotation> unmodifiableAnnotations;
 
     private Long durationNanos;
-    // Used to prevent two threads from trying to close the span at the same time.
-    private final AtomicBoolean completedFlag = new AtomicBoolean(false);
+    // Used to prevent two threads from trying to close the span at the same time, and to make sure a completed span's
+    //      tags map and annotations list are only handed back to the SpanRecycler pool once. See the LIFECYCLE_*
+    //      constants.
+    private volatile int lifecycleState = LIFECYCLE_ACTIVE;
 
     private String cachedJsonRepresentation;
     private String cachedKeyValueRepresentation;
@@ -126,10 +150,28 @@ public class Span implements Closeable, Serializable {
                 SpanPurpose spanPurpose, long spanStartTimeEpochMicros, Long spanStartTimeNanos, Long durationNanos,
                 Map<String,String> tags, List<TimestampedAnnotation> annotations
     ) {
-        if (traceId == null)
+        this(
+            traceId, 0L, 0L, parentSpanId, 0L, spanId, 0L, (byte) 0, spanName, sampleable, userId, spanPurpose,
+            spanStartTimeEpochMicros, spanStartTimeNanos, durationNanos, tags, annotations, false
+        );
+    }
+
+    /**
+     * The real constructor - supports IDs in String form, numeric form, or both. When an ID's numeric flag is set in
+     * {@code numericIdFlags} then its String argument is optional, but if non-null it must be the lowerhex rendering
+     * of the numeric form (it's treated as a pre-rendered cache, e.g. when a child span shares its parent's trace ID).
+     */
+    private Span(String traceId, long traceIdHigh, long traceIdLow,
+                 String parentSpanId, long parentSpanIdAsLong,
+                 String spanId, long spanIdAsLong,
+                 byte numericIdFlags, String spanName, boolean sampleable, String userId,
+                 SpanPurpose spanPurpose, long spanStartTimeEpochMicros, Long spanStartTimeNanos, Long durationNanos,
+                 Map<String,String> tags, List<TimestampedAnnotation> annotations, boolean propagationOnly
+    ) {
+        if (traceId == null && (numericIdFlags & NUMERIC_TRACE_ID_FLAG) == 0)
             throw new IllegalArgumentException("traceId cannot be null");
 
-        if (spanId == null)
+        if (spanId == null && (numericIdFlags & NUMERIC_SPAN_ID_FLAG) == 0)
             throw new IllegalArgumentException("spanId cannot be null");
 
         if (spanName == null)
@@ -138,8 +180,14 @@ public class Span implements Closeable, Serializable {
         this.traceId = traceId;
         this.spanId = spanId;
         this.parentSpanId = parentSpanId;
+        this.traceIdHigh = traceIdHigh;
+        this.traceIdLow = traceIdLow;
+        this.spanIdAsLong = spanIdAsLong;
+        this.parentSpanIdAsLong = parentSpanIdAsLong;
+        this.numericIdFlags = numericIdFlags;
         this.spanName = spanName;
         this.sampleable = sampleable;
+        this.propagationOnly = propagationOnly && !sampleable;
         this.userId = userId;
         this.spanStartTimeEpochMicros = spanStartTimeEpochMicros;
         if (spanStartTimeNanos == null) {
@@ -158,12 +206,12 @@ public class Span implements Closeable, Serializable {
 
         this.spanPurpose = spanPurpose;
         
-        if(tags != null) {
-            this.tags.putAll(tags);
+        if (tags != null && !tags.isEmpty()) {
+            initTags().putAll(tags);
         }
 
-        if (annotations != null) {
-            this.annotations.addAll(annotations);
+        if (annotations != null && !annotations.isEmpty()) {
+            initAnnotations().addAll(annotations);
         }
     }
 
@@ -216,24 +264,22 @@ public class Span implements Closeable, Serializable {
         long childStartTimeEpochMicros =
             this.spanStartTimeEpochMicros + TimeUnit.NANOSECONDS.toMicros(nanosSinceParentStart);
 
-        String parentSpanIdForChild = this.getSpanId();
-        boolean addBadParentIdIndicatorTag = false;
-        if (HttpRequestTracingUtils.hasInvalidSpanIdBecauseCallerDidNotSendOne(this)) {
-            parentSpanIdForChild = null;
-            addBadParentIdIndicatorTag = true;
-        }
+        boolean addBadParentIdIndicatorTag = HttpRequestTracingUtils.hasInvalidSpanIdBecauseCallerDidNotSendOne(this);
 
+        // The child's span ID is left unset so that build() generates a new random numeric one.
         Builder childBuilder = Span.newBuilder(spanName, spanPurpose)
-                   .withTraceId(this.getTraceId())
+                   .withTraceIdFrom(this)
                    .withSampleable(this.isSampleable())
+                   .withPropagationOnly(this.isPropagationOnly())
                    .withUserId(this.getUserId())
-                   .withParentSpanId(parentSpanIdForChild)
-                   .withSpanId(TraceAndSpanIdGenerator.generateId())
                    .withSpanStartTimeEpochMicros(childStartTimeEpochMicros)
                    .withSpanStartTimeNanos(currentNanoTime)
                    .withDurationNanos(null);
 
-        if (addBadParentIdIndicatorTag) {
+        if (!addBadParentIdIndicatorTag) {
+            childBuilder.withParentSpanIdFromSpanIdOf(this);
+        }
+        else {
             childBuilder.withTag(
                 HttpRequestTracingUtils.CHILD_OF_SPAN_FROM_HEADERS_WHERE_CALLER_DID_NOT_SEND_SPAN_ID_TAG_KEY,
                 "true"
@@ -264,13 +310,23 @@ public class Span implements Closeable, Serializable {
         builder.traceId = copy.traceId;
         builder.spanId = copy.spanId;
         builder.parentSpanId = copy.parentSpanId;
+        builder.traceIdHigh = copy.traceIdHigh;
+        builder.traceIdLow = copy.traceIdLow;
+        builder.spanIdAsLong = copy.spanIdAsLong;
+        builder.parentSpanIdAsLong = copy.parentSpanIdAsLong;
+        builder.numericIdFlags = copy.numericIdFlags;
         builder.sampleable = copy.sampleable;
+        builder.propagationOnly = copy.propagationOnly;
         builder.userId = copy.userId;
         builder.spanStartTimeEpochMicros = copy.spanStartTimeEpochMicros;
         builder.spanStartTimeNanos = copy.spanStartTimeNanos;
         builder.durationNanos = copy.durationNanos;
-        builder.tags = new LinkedHashMap<>(copy.tags);
-        builder.annotations = new ArrayList<>(copy.annotations);
+        if (copy.tags != null) {
+            builder.tags = new CompactTagMap(copy.tags);
+        }
+        if (copy.annotations != null) {
+            builder.annotations = new ArrayList<>(copy.annotations);
+        }
         return builder;
     }
 
@@ -278,10 +334,21 @@ public class Span implements Closeable, Serializable {
      * @return The ID associated with the overall distributed trace - a.k.a. the trace tree ID. All spans in a distributed trace will share the same trace ID.
      *          Don't confuse this with {@link #getSpanId()}, which is the ID for an individual span of work as part of the larger distributed trace. This will never
      *          be null. NOTE: By convention this will likely be a 16 character lowercase hex-encoded 64-bit long-integer value
-     *          (see {@link TraceAndSpanIdGenerator#generateId()} for details).
+     *          (see {@link TraceAndSpanIdGenerator#generateId()} for details), or 32 characters for a 128-bit trace ID.
+     *
+     *          <p>If this span carries its trace ID in numeric form (see {@link #hasNumericTraceId()}) then the lowerhex string is rendered the first
+     *          time this method is called and cached after that.
      */
     public String getTraceId() {
-        return traceId;
+        String result = traceId;
+        if (result == null) {
+            // Only possible when the trace ID is numeric - render the lowerhex form now that someone needs it.
+            result = (traceIdHigh == 0L)
+                     ? TraceAndSpanIdGenerator.longToUnsignedLowerHexString(traceIdLow)
+                     : TraceAndSpanIdGenerator.longsToUnsignedLowerHexString(traceIdHigh, traceIdLow);
+            traceId = result;
+        }
+        return result;
     }
 
     /**
@@ -289,9 +356,18 @@ public class Span implements Closeable, Serializable {
      *          distributed trace and is the same for all spans in a trace. Also don't confuse this with {@link #getParentSpanId()}, which is the ID of the span that spawned
      *          this span instance (the logical "parent" of this span). This will never be null. NOTE: By convention this will likely be a 16 character
      *          lowercase hex-encoded 64-bit long-integer value (see {@link TraceAndSpanIdGenerator#generateId()} for details).
+     *
+     *          <p>If this span carries its span ID in numeric form (see {@link #hasNumericSpanId()}) then the lowerhex string is rendered the first
+     *          time this method is called and cached after that.
      */
     public String getSpanId() {
-        return spanId;
+        String result = spanId;
+        if (result == null) {
+            // Only possible when the span ID is numeric - render the lowerhex form now that someone needs it.
+            result = TraceAndSpanIdGenerator.longToUnsignedLowerHexString(spanIdAsLong);
+            spanId = result;
+        }
+        return result;
     }
 
     /**
@@ -299,9 +375,85 @@ public class Span implements Closeable, Serializable {
      *          span is the "root span" for the distributed trace - the ultimate ancestor of all other spans in the trace tree.
      *          NOTE: By convention this will likely be a 16 character lowercase hex-encoded 64-bit long-integer value
      *          (see {@link TraceAndSpanIdGenerator#generateId()} for details).
+     *
+     *          <p>If this span carries its parent span ID in numeric form (see {@link #hasNumericParentSpanId()}) then the lowerhex string is rendered
+     *          the first time this method is called and cached after that.
      */
     public String getParentSpanId() {
-        return parentSpanId;
+        String result = parentSpanId;
+        if (result == null && hasNumericParentSpanId()) {
+            // The parent span ID is numeric - render the lowerhex form now that someone needs it.
+            result = TraceAndSpanIdGenerator.longToUnsignedLowerHexString(parentSpanIdAsLong);
+            parentSpanId = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return true if this span carries its trace ID as primitive longs (see {@link #getTraceIdHigh()} and {@link #getTraceIdLow()}), false if the
+     *          trace ID only exists in String form (e.g. it was received from a caller or deserialized). Spans generated by Wingtips get numeric IDs,
+     *          so exporters that need the numeric form can check this and skip parsing {@link #getTraceId()}.
+     */
+    public boolean hasNumericTraceId() {
+        return (numericIdFlags & NUMERIC_TRACE_ID_FLAG) != 0;
+    }
+
+    /**
+     * @return The upper 64 bits of this span's numeric trace ID, or 0 if the trace ID is a 64-bit ID. Throws an {@link IllegalStateException} if
+     *          {@link #hasNumericTraceId()} is false.
+     */
+    public long getTraceIdHigh() {
+        if (!hasNumericTraceId())
+            throw new IllegalStateException("This span does not have a numeric trace ID - check hasNumericTraceId() first");
+
+        return traceIdHigh;
+    }
+
+    /**
+     * @return The lower 64 bits of this span's numeric trace ID (the entire trace ID if it's a 64-bit ID). Throws an {@link IllegalStateException}
+     *          if {@link #hasNumericTraceId()} is false.
+     */
+    public long getTraceIdLow() {
+        if (!hasNumericTraceId())
+            throw new IllegalStateException("This span does not have a numeric trace ID - check hasNumericTraceId() first");
+
+        return traceIdLow;
+    }
+
+    /**
+     * @return true if this span carries its span ID as a primitive long (see {@link #getSpanIdAsLong()}), false if the span ID only exists in String
+     *          form.
+     */
+    public boolean hasNumericSpanId() {
+        return (numericIdFlags & NUMERIC_SPAN_ID_FLAG) != 0;
+    }
+
+    /**
+     * @return This span's numeric span ID. Throws an {@link IllegalStateException} if {@link #hasNumericSpanId()} is false.
+     */
+    public long getSpanIdAsLong() {
+        if (!hasNumericSpanId())
+            throw new IllegalStateException("This span does not have a numeric span ID - check hasNumericSpanId() first");
+
+        return spanIdAsLong;
+    }
+
+    /**
+     * @return true if this span has a parent span ID and carries it as a primitive long (see {@link #getParentSpanIdAsLong()}), false if there is
+     *          no parent span ID or it only exists in String form.
+     */
+    public boolean hasNumericParentSpanId() {
+        return (numericIdFlags & NUMERIC_PARENT_SPAN_ID_FLAG) != 0;
+    }
+
+    /**
+     * @return This span's numeric parent span ID. Throws an {@link IllegalStateException} if {@link #hasNumericParentSpanId()} is false.
+     */
+    public long getParentSpanIdAsLong() {
+        if (!hasNumericParentSpanId())
+            throw new IllegalStateException("This span does not have a numeric parent span ID - check hasNumericParentSpanId() first");
+
+        return parentSpanIdAsLong;
     }
 
     /**
@@ -341,6 +493,18 @@ public class Span implements Closeable, Serializable {
         return sampleable;
     }
 
+    /**
+     * @return True if this span is a lightweight propagation-only span, false otherwise. Propagation-only spans are
+     * never sampleable - they exist only to carry the trace/span IDs for things like outbound header propagation and
+     * logger MDC, so {@link #putTag(String, String)} and the {@code addTimestampedAnnotation...} methods are no-ops,
+     * and {@link Tracer} does not notify {@link com.nike.wingtips.lifecyclelistener.SpanLifecycleListener}s about
+     * them. Child spans inherit this value from their parent. See {@link Builder#withPropagationOnly(boolean)} and
+     * {@link Tracer#setPropagationOnlyUnsampledSpans(boolean)}.
+     */
+    public boolean isPropagationOnly() {
+        return propagationOnly;
+    }
+
     /**
      * @return The ID of the user logically associated with this span, or null if no such user ID exists or is appropriate.
      */
@@ -395,7 +559,8 @@ public class Span implements Closeable, Serializable {
      * completed, false if this span was previously completed (and therefore the call to this method did nothing).
      */
     /*package*/ boolean complete() {
-        boolean allowedToComplete = completedFlag.compareAndSet(false, true);
+        boolean allowedToComplete =
+            LIFECYCLE_STATE_UPDATER.compareAndSet(this, LIFECYCLE_ACTIVE, LIFECYCLE_COMPLETED);
         if (!allowedToComplete) {
             // This span was completed previously (or simultaneously by another thread, and that other thread won).
             //      So we're not allowed to complete the span since someone else already did it. Return false
@@ -410,6 +575,49 @@ public class Span implements Closeable, Serializable {
         return true;
     }
 
+    /**
+     * Hands this completed span's tags map and annotations list back to {@link SpanRecycler} so a later span can reuse
+     * them, and detaches them from this span. Afterward {@link #getTags()} and {@link #getTimestampedAnnotations()}
+     * return empty collections and any new tags or annotations are ignored, but the span itself is never reused, so
+     * anything still holding a reference to it (e.g. a {@link com.nike.wingtips.util.TracingState}) still sees a
+     * completed span. Only the first call for a completed span does anything, so a span that is completed by two
+     * threads at once can't hand its containers to the pool twice.
+     *
+     * <p>NOTE: This is intentionally package scoped - only {@link Tracer} decides when a span's containers are
+     * recycled.
+     *
+     * @return true if this span was completed and not yet recycled, and the call to this method recycled it, false
+     * otherwise.
+     */
+    /*package*/ boolean recycleTagsAndAnnotations() {
+        if (!LIFECYCLE_STATE_UPDATER.compareAndSet(this, LIFECYCLE_COMPLETED, LIFECYCLE_RECYCLED)) {
+            return false;
+        }
+
+        CompactTagMap releasedTags = tags;
+        List<TimestampedAnnotation> releasedAnnotations = annotations;
+        tags = null;
+        unmodifiableTags = null;
+        annotations = null;
+        unmodifiableAnnotations = null;
+
+        if (releasedTags != null) {
+            SpanRecycler.recycleTags(releasedTags);
+        }
+        if (releasedAnnotations != null) {
+            SpanRecycler.recycleAnnotations(releasedAnnotations);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if {@link #recycleTagsAndAnnotations()} has handed this span's tags map and annotations list back
+     * to {@link SpanRecycler}, in which case tags and annotations must no longer be added.
+     */
+    private boolean isRecycled() {
+        return lifecycleState == LIFECYCLE_RECYCLED;
+    }
+
     /**
      * @return true if {@link #complete()} has been called on this instance (representing a completed/finished/finalized span), false otherwise.
      */
@@ -443,7 +651,8 @@ public class Span implements Closeable, Serializable {
      * Any attempt to modify the returned map will result in a {@link UnsupportedOperationException}.
      */
     public Map<String,String> getTags() {
-        return unmodifiableTags;
+        Map<String,String> result = unmodifiableTags;
+        return (result == null) ? Collections.<String,String>emptyMap() : result;
     }
 
     /**
@@ -455,11 +664,18 @@ public class Span implements Closeable, Serializable {
      * want to take advantage of. Similarly, if you're integrating with a system that understands OpenTracing tags,
      * see {@link com.nike.wingtips.tags.KnownOpenTracingTags}.
      *
+     * <p>This method does nothing if this span {@link #isPropagationOnly()}, or if this span was completed and its
+     * tags were recycled (see {@link Tracer#setSpanRecyclingEnabled(boolean)}).
+     *
      * @param key The tag {@code key}.
      * @param value The tag {@code value} to be set.
      */
     public void putTag(String key, String value) {
-        tags.put(key, value);
+        if (propagationOnly || isRecycled()) {
+            return;
+        }
+
+        initTags().put(key, value);
         // This span's state changed, so clear the cached serialized representations.
         clearCachedDataDueToStateChange();
     }
@@ -471,6 +687,10 @@ public class Span implements Closeable, Serializable {
      * @param key The tag {@code key} to remove.
      */
     public void removeTag(String key) {
+        if (tags == null) {
+            return;
+        }
+
         tags.remove(key);
         // This span's state changed, so clear the cached serialized representations.
         clearCachedDataDueToStateChange();
@@ -481,7 +701,8 @@ public class Span implements Closeable, Serializable {
      * never be null. Any attempt to modify the returned list will result in a {@link UnsupportedOperationException}.
      */
     public List<TimestampedAnnotation> getTimestampedAnnotations() {
-        return unmodifiableAnnotations;
+        List<TimestampedAnnotation> result = unmodifiableAnnotations;
+        return (result == null) ? Collections.<TimestampedAnnotation>emptyList() : result;
     }
 
     /**
@@ -494,9 +715,15 @@ public class Span implements Closeable, Serializable {
      * TimestampedAnnotation#forEpochMicrosWithNanoOffset(long, long, String)}). This method should therefore be
      * used anytime you want to add an annotation to a Span with a timestamp of "right now".
      *
+     * <p>This method does nothing if this span {@link #isPropagationOnly()}.
+     *
      * @param value The desired {@link TimestampedAnnotation#getValue()} for the new annotation.
      */
     public void addTimestampedAnnotationForCurrentTime(String value) {
+        if (propagationOnly) {
+            return;
+        }
+
         addTimestampedAnnotation(
             TimestampedAnnotation.forEpochMicrosWithNanoOffset(
                 spanStartTimeEpochMicros,
@@ -509,14 +736,47 @@ public class Span implements Closeable, Serializable {
     /**
      * Adds the given {@link TimestampedAnnotation} to this Span's {@link #getTimestampedAnnotations()} list.
      *
+     * <p>This method does nothing if this span {@link #isPropagationOnly()}, or if this span was completed and its
+     * annotations were recycled (see {@link Tracer#setSpanRecyclingEnabled(boolean)}).
+     *
      * @param timestampedAnnotation The annotation to add to this Span.
      */
     public void addTimestampedAnnotation(TimestampedAnnotation timestampedAnnotation) {
-        this.annotations.add(timestampedAnnotation);
+        if (propagationOnly || isRecycled()) {
+            return;
+        }
+
+        initAnnotations().add(timestampedAnnotation);
         // This span's state changed, so clear the cached serialized representations.
         clearCachedDataDueToStateChange();
     }
 
+    private CompactTagMap initTags() {
+        CompactTagMap result = tags;
+        if (result == null) {
+            result = SpanRecycler.pollRecycledTags();
+            if (result == null) {
+                result = new CompactTagMap();
+            }
+            unmodifiableTags = result.unmodifiableView();
+            tags = result;
+        }
+        return result;
+    }
+
+    private List<TimestampedAnnotation> initAnnotations() {
+        List<TimestampedAnnotation> result = annotations;
+        if (result == null) {
+            result = SpanRecycler.pollRecycledAnnotations();
+            if (result == null) {
+                result = new ArrayList<>();
+            }
+            unmodifiableAnnotations = Collections.unmodifiableList(result);
+            annotations = result;
+        }
+        return result;
+    }
+
     /**
      * @return The JSON representation of this span. See {@link #toJSON()}.
      */
@@ -624,21 +884,21 @@ public class Span implements Closeable, Serializable {
         return sampleable == span.sampleable &&
                spanStartTimeEpochMicros == span.spanStartTimeEpochMicros &&
                spanPurpose == span.spanPurpose &&
-               Objects.equals(traceId, span.traceId) &&
-               Objects.equals(spanId, span.spanId) &&
-               Objects.equals(parentSpanId, span.parentSpanId) &&
+               Objects.equals(getTraceId(), span.getTraceId()) &&
+               Objects.equals(getSpanId(), span.getSpanId()) &&
+               Objects.equals(getParentSpanId(), span.getParentSpanId()) &&
                Objects.equals(spanName, span.spanName) &&
                Objects.equals(userId, span.userId) &&
                Objects.equals(durationNanos, span.durationNanos) &&
-               Objects.equals(tags, span.tags) &&
-               Objects.equals(annotations, span.annotations);
+               Objects.equals(getTags(), span.getTags()) &&
+               Objects.equals(getTimestampedAnnotations(), span.getTimestampedAnnotations());
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(
-            traceId, spanId, parentSpanId, spanName, sampleable, userId, spanPurpose, spanStartTimeEpochMicros,
-            durationNanos, tags, annotations
+            getTraceId(), getSpanId(), getParentSpanId(), spanName, sampleable, userId, spanPurpose, spanStartTimeEpochMicros,
+            durationNanos, getTags(), getTimestampedAnnotations()
         );
     }
 
@@ -846,8 +1106,14 @@ public class Span implements Closeable, Serializable {
         private String traceId;
         private String spanId;
         private String parentSpanId;
+        private long traceIdHigh;
+        private long traceIdLow;
+        private long spanIdAsLong;
+        private long parentSpanIdAsLong;
+        private byte numericIdFlags;
         private String spanName;
         private boolean sampleable = true;
+        private boolean propagationOnly;
         private String userId;
         private Long spanStartTimeEpochMicros;
         private Long spanStartTimeNanos;
@@ -866,13 +1132,57 @@ public class Span implements Closeable, Serializable {
          * Don't confuse this with {@link #withSpanId(String)}, which sets the ID for an individual span of work as part of the larger distributed trace.
          * <p/>
          * IMPORTANT NOTE: {@link Span}s are not allowed to have a null trace ID, so if this is null when {@link #build()} is called then the {@link Span} returned by
-         *                 {@link #build()} will have its trace ID defaulted to a new random ID using {@link TraceAndSpanIdGenerator#generateId()}.
+         *                 {@link #build()} will have its trace ID defaulted to a new random numeric ID using
+         *                 {@link TraceAndSpanIdGenerator#generate64BitRandomLong()}.
          *
          * @param traceId the {@code traceId} to set
          * @return a reference to this Builder
          */
         public Builder withTraceId(String traceId) {
             this.traceId = traceId;
+            this.traceIdHigh = 0L;
+            this.traceIdLow = 0L;
+            this.numericIdFlags &= ~NUMERIC_TRACE_ID_FLAG;
+            return this;
+        }
+
+        /**
+         * Sets a 64-bit trace ID in numeric form. The resulting span's {@link Span#getTraceId()} will be the 16 character lowerhex rendering of this
+         * value, generated lazily only if it's needed. This replaces any trace ID previously set via {@link #withTraceId(String)}.
+         *
+         * @param traceId the 64-bit numeric {@code traceId} to set
+         * @return a reference to this Builder
+         */
+        public Builder withTraceId(long traceId) {
+            return withTraceId(0L, traceId);
+        }
+
+        /**
+         * Sets a 128-bit trace ID in numeric form, as two longs. The resulting span's {@link Span#getTraceId()} will be the 32 character lowerhex
+         * rendering of this value (or 16 characters if {@code traceIdHigh} is 0), generated lazily only if it's needed. This replaces any trace ID
+         * previously set via {@link #withTraceId(String)}.
+         *
+         * @param traceIdHigh the upper 64 bits of the {@code traceId} to set - pass 0 for a 64-bit trace ID
+         * @param traceIdLow the lower 64 bits of the {@code traceId} to set
+         * @return a reference to this Builder
+         */
+        public Builder withTraceId(long traceIdHigh, long traceIdLow) {
+            this.traceId = null;
+            this.traceIdHigh = traceIdHigh;
+            this.traceIdLow = traceIdLow;
+            this.numericIdFlags |= NUMERIC_TRACE_ID_FLAG;
+            return this;
+        }
+
+        /**
+         * Copies the given span's trace ID, in whatever form(s) it currently has - numeric, String, or both - so no parsing or re-rendering is needed.
+         */
+        /*package*/ Builder withTraceIdFrom(Span span) {
+            this.traceId = span.traceId;
+            this.traceIdHigh = span.traceIdHigh;
+            this.traceIdLow = span.traceIdLow;
+            this.numericIdFlags = (byte) ((this.numericIdFlags & ~NUMERIC_TRACE_ID_FLAG)
+                                          | (span.numericIdFlags & NUMERIC_TRACE_ID_FLAG));
             return this;
         }
 
@@ -882,13 +1192,30 @@ public class Span implements Closeable, Serializable {
          * this span instance (the logical "parent" of this span).
          * <p/>
          * IMPORTANT NOTE: {@link Span}s are not allowed to have a null span ID, so if this is null when {@link #build()} is called then the {@link Span} returned by
-         *                 {@link #build()} will have its span ID defaulted to a new random ID using {@link TraceAndSpanIdGenerator#generateId()}.
+         *                 {@link #build()} will have its span ID defaulted to a new random numeric ID using
+         *                 {@link TraceAndSpanIdGenerator#generate64BitRandomLong()}.
          *
          * @param spanId the {@code spanId} to set
          * @return a reference to this Builder
          */
         public Builder withSpanId(String spanId) {
             this.spanId = spanId;
+            this.spanIdAsLong = 0L;
+            this.numericIdFlags &= ~NUMERIC_SPAN_ID_FLAG;
+            return this;
+        }
+
+        /**
+         * Sets the span ID in numeric form. The resulting span's {@link Span#getSpanId()} will be the 16 character lowerhex rendering of this value,
+         * generated lazily only if it's needed. This replaces any span ID previously set via {@link #withSpanId(String)}.
+         *
+         * @param spanId the numeric {@code spanId} to set
+         * @return a reference to this Builder
+         */
+        public Builder withSpanId(long spanId) {
+            this.spanId = null;
+            this.spanIdAsLong = spanId;
+            this.numericIdFlags |= NUMERIC_SPAN_ID_FLAG;
             return this;
         }
 
@@ -901,6 +1228,37 @@ public class Span implements Closeable, Serializable {
          */
         public Builder withParentSpanId(String parentSpanId) {
             this.parentSpanId = parentSpanId;
+            this.parentSpanIdAsLong = 0L;
+            this.numericIdFlags &= ~NUMERIC_PARENT_SPAN_ID_FLAG;
+            return this;
+        }
+
+        /**
+         * Sets the parent span ID in numeric form. The resulting span's {@link Span#getParentSpanId()} will be the 16 character lowerhex rendering of
+         * this value, generated lazily only if it's needed. This replaces any parent span ID previously set via {@link #withParentSpanId(String)}. If
+         * the span should not have a parent then call {@link #withParentSpanId(String)} with null instead.
+         *
+         * @param parentSpanId the numeric {@code parentSpanId} to set
+         * @return a reference to this Builder
+         */
+        public Builder withParentSpanId(long parentSpanId) {
+            this.parentSpanId = null;
+            this.parentSpanIdAsLong = parentSpanId;
+            this.numericIdFlags |= NUMERIC_PARENT_SPAN_ID_FLAG;
+            return this;
+        }
+
+        /**
+         * Sets the parent span ID to the given span's span ID, in whatever form(s) it currently has - numeric, String, or both - so no parsing or
+         * re-rendering is needed.
+         */
+        /*package*/ Builder withParentSpanIdFromSpanIdOf(Span span) {
+            this.parentSpanId = span.spanId;
+            this.parentSpanIdAsLong = span.spanIdAsLong;
+            this.numericIdFlags = (byte) ((this.numericIdFlags & ~NUMERIC_PARENT_SPAN_ID_FLAG)
+                                          | (((span.numericIdFlags & NUMERIC_SPAN_ID_FLAG) != 0)
+                                             ? NUMERIC_PARENT_SPAN_ID_FLAG
+                                             : 0));
             return this;
         }
 
@@ -927,6 +1285,18 @@ public class Span implements Closeable, Serializable {
             return this;
         }
 
+        /**
+         * Set this to true if the span should be a lightweight propagation-only span when it is not sampleable (see
+         * {@link Span#isPropagationOnly()}). This is ignored for sampleable spans, and defaults to false.
+         *
+         * @param propagationOnly the {@code propagationOnly} value to set
+         * @return a reference to this Builder
+         */
+        public Builder withPropagationOnly(boolean propagationOnly) {
+            this.propagationOnly = propagationOnly;
+            return this;
+        }
+
         /**
          * Sets the ID of the user logically associated with this span, or pass in null if no such user ID exists or is appropriate.
          *
@@ -1025,7 +1395,7 @@ public class Span implements Closeable, Serializable {
          */
         public Builder withTag(String key, String value) {
             if (this.tags == null) {
-                this.tags = new LinkedHashMap<>();
+                this.tags = new CompactTagMap();
             }
 
             this.tags.put(key, value);
@@ -1047,7 +1417,7 @@ public class Span implements Closeable, Serializable {
             }
 
             if (this.tags == null) {
-                this.tags = new LinkedHashMap<>(tags.size());
+                this.tags = new CompactTagMap(tags.size());
             }
 
             this.tags.putAll(tags);
@@ -1097,8 +1467,14 @@ public class Span implements Closeable, Serializable {
          * for those values when creating a new span, so if any of them are null when this method is called it is
          * assumed you are creating a new span and they will be set to the following:
          * <ul>
-         *     <li>{@code traceId} is defaulted to {@link TraceAndSpanIdGenerator#generateId()}.</li>
-         *     <li>{@code spanId} is defaulted to {@link TraceAndSpanIdGenerator#generateId()}.</li>
+         *     <li>
+         *         {@code traceId} is defaulted to a numeric {@link TraceAndSpanIdGenerator#generate64BitRandomLong()}, which is only rendered as a
+         *         lowerhex String if {@link Span#getTraceId()} is called.
+         *     </li>
+         *     <li>
+         *         {@code spanId} is defaulted to a numeric {@link TraceAndSpanIdGenerator#generate64BitRandomLong()}, which is only rendered as a
+         *         lowerhex String if {@link Span#getSpanId()} is called.
+         *     </li>
          *     <li>
          *         {@code spanStartTimeEpochMicros} is defaulted to {@link System#currentTimeMillis()} converted to
          *         microseconds.
@@ -1117,12 +1493,12 @@ public class Span implements Closeable, Serializable {
          * @return a {@link Span} built with parameters of this {@code Span.Builder}
          */
         public Span build() {
-            if (traceId == null) {
-                traceId = TraceAndSpanIdGenerator.generateId();
+            if (traceId == null && (numericIdFlags & NUMERIC_TRACE_ID_FLAG) == 0) {
+                withTraceId(TraceAndSpanIdGenerator.generate64BitRandomLong());
             }
 
-            if (spanId == null) {
-                spanId = TraceAndSpanIdGenerator.generateId();
+            if (spanId == null && (numericIdFlags & NUMERIC_SPAN_ID_FLAG) == 0) {
+                withSpanId(TraceAndSpanIdGenerator.generate64BitRandomLong());
             }
 
             if (spanStartTimeEpochMicros == null) {
@@ -1145,8 +1521,9 @@ public class Span implements Closeable, Serializable {
             }
 
             return new Span(
-                traceId, parentSpanId, spanId, spanName, sampleable, userId, spanPurpose, spanStartTimeEpochMicros,
-                spanStartTimeNanos, durationNanos, tags, annotations
+                traceId, traceIdHigh, traceIdLow, parentSpanId, parentSpanIdAsLong, spanId, spanIdAsLong,
+                numericIdFlags, spanName, sampleable, userId, spanPurpose, spanStartTimeEpochMicros,
+                spanStartTimeNanos, durationNanos, tags, annotations, propagationOnly
             );
         }
     }
@@ -0,0 +1,167 @@
+package com.nike.wingtips;
+
+import com.nike.wingtips.Span.TimestampedAnnotation;
+import com.nike.wingtips.util.CompactTagMap;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * The per-thread pools of span tags maps and annotations lists used when {@link
+ * Tracer#setSpanRecyclingEnabled(boolean)} is turned on. {@link Span#recycleTagsAndAnnotations()} hands a completed
+ * span's containers back via {@link #recycleTags(CompactTagMap)} and {@link #recycleAnnotations(List)}, and a span
+ * that gets its first tag or annotation reuses them via {@link #pollRecycledTags()} and {@link
+ * #pollRecycledAnnotations()} instead of allocating new ones. {@link Span} instances themselves are never reused, since
+ * they can be referenced from many places that Wingtips doesn't control (tracing state snapshots, Reactor contexts,
+ * wrappers, etc).
+ *
+ * <p>The pools are thread-local, so there is no contention between threads. Each thread keeps at most {@link
+ * #MAX_POOLED_CONTAINERS_PER_THREAD} of each kind of container - any more are left for the garbage collector.
+ * Turning recycling off empties every thread's pools.
+ *
+ * <p>NOTE: This is intentionally package scoped - only {@link Tracer} decides when a span's containers can be
+ * recycled.
+ */
+final class SpanRecycler {
+
+    /**
+     * The max number of tags maps (and separately, annotations lists) each thread keeps in its pool. A request rarely
+     * has more than a handful of spans on a thread's stack at once, so this comfortably covers nested sub-spans.
+     */
+    static final int MAX_POOLED_CONTAINERS_PER_THREAD = 16;
+
+    private static volatile boolean enabled = false;
+
+    // Every thread's pool, so turning recycling off can empty all of them. Weakly held so a pool is dropped once its
+    //      thread (and therefore its thread local) is gone.
+    private static final Set<ThreadPool> allThreadPools =
+        Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<ThreadPool, Boolean>()));
+
+    private static final ThreadLocal<ThreadPool> threadPool = new ThreadLocal<ThreadPool>() {
+        @Override
+        protected ThreadPool initialValue() {
+            ThreadPool result = new ThreadPool();
+            allThreadPools.add(result);
+            return result;
+        }
+    };
+
+    private SpanRecycler() {
+        // Do nothing
+    }
+
+    /**
+     * Turns recycling on or off. Turning it off also empties every thread's pools.
+     */
+    static void setEnabled(boolean enabled) {
+        SpanRecycler.enabled = enabled;
+        if (!enabled) {
+            synchronized (allThreadPools) {
+                for (ThreadPool pool : allThreadPools) {
+                    pool.containers = null;
+                }
+            }
+        }
+    }
+
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return An empty tags map from the calling thread's pool, or null if recycling is disabled or the pool is empty.
+     */
+    static CompactTagMap pollRecycledTags() {
+        if (!enabled) {
+            return null;
+        }
+
+        PooledContainers containers = threadPool.get().containers;
+        return (containers == null) ? null : containers.tags.pollFirst();
+    }
+
+    /**
+     * @return An empty annotations list from the calling thread's pool, or null if recycling is disabled or the pool
+     * is empty.
+     */
+    static List<TimestampedAnnotation> pollRecycledAnnotations() {
+        if (!enabled) {
+            return null;
+        }
+
+        PooledContainers containers = threadPool.get().containers;
+        return (containers == null) ? null : containers.annotations.pollFirst();
+    }
+
+    /**
+     * Clears the given tags map and adds it to the calling thread's pool, unless recycling is disabled or the pool is
+     * full. The caller must guarantee nothing else will use the map.
+     */
+    static void recycleTags(CompactTagMap tags) {
+        if (!enabled) {
+            return;
+        }
+
+        ArrayDeque<CompactTagMap> pool = threadPool.get().getOrCreateContainers().tags;
+        if (pool.size() < MAX_POOLED_CONTAINERS_PER_THREAD) {
+            tags.clear();
+            pool.offerFirst(tags);
+        }
+    }
+
+    /**
+     * Clears the given annotations list and adds it to the calling thread's pool, unless recycling is disabled or the
+     * pool is full. The caller must guarantee nothing else will use the list.
+     */
+    static void recycleAnnotations(List<TimestampedAnnotation> annotations) {
+        if (!enabled) {
+            return;
+        }
+
+        ArrayDeque<List<TimestampedAnnotation>> pool = threadPool.get().getOrCreateContainers().annotations;
+        if (pool.size() < MAX_POOLED_CONTAINERS_PER_THREAD) {
+            annotations.clear();
+            pool.offerFirst(annotations);
+        }
+    }
+
+    /**
+     * @return The number of tags maps in the calling thread's pool. Intended for testing.
+     */
+    static int pooledTagsCountForCurrentThread() {
+        PooledContainers containers = threadPool.get().containers;
+        return (containers == null) ? 0 : containers.tags.size();
+    }
+
+    /**
+     * @return The number of annotations lists in the calling thread's pool. Intended for testing.
+     */
+    static int pooledAnnotationsCountForCurrentThread() {
+        PooledContainers containers = threadPool.get().containers;
+        return (containers == null) ? 0 : containers.annotations.size();
+    }
+
+    private static final class ThreadPool {
+        // Only ever used by the owning thread, except that setEnabled(false) may null it out from any thread. The
+        //      owning thread just starts over with new containers if that happens.
+        volatile PooledContainers containers;
+
+        PooledContainers getOrCreateContainers() {
+            PooledContainers result = containers;
+            if (result == null) {
+                result = new PooledContainers();
+                containers = result;
+            }
+            return result;
+        }
+    }
+
+    private static final class PooledContainers {
+        final ArrayDeque<CompactTagMap> tags = new ArrayDeque<>(MAX_POOLED_CONTAINERS_PER_THREAD);
+        final ArrayDeque<List<TimestampedAnnotation>> annotations =
+            new ArrayDeque<>(MAX_POOLED_CONTAINERS_PER_THREAD);
+    }
+}
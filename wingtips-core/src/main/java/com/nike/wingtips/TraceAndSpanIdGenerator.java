@@ -1,10 +1,9 @@
 package com.nike.wingtips;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.nike.wingtips.idgeneration.IdGenerationStrategy;
+import com.nike.wingtips.idgeneration.SecureRandomIdGenerationStrategy;
+import com.nike.wingtips.idgeneration.ThreadLocalRandomIdGenerationStrategy;
 
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.util.Random;
 
 /**
@@ -16,19 +15,19 @@ import java.util.Random;
  * and unsigned hex encoding to conform to the ZipKin distributed tracing B3 implementation
  * (see <a href="http://zipkin.io/pages/instrumenting.html">http://zipkin.io/pages/instrumenting.html</a>).
  *
+ * <p>The random longs behind the IDs come from a pluggable {@link IdGenerationStrategy}. The default is {@link ThreadLocalRandomIdGenerationStrategy}, which
+ * is lock-free and allocation-free. If you need the older {@link java.security.SecureRandom} based behavior you can opt into it by calling
+ * {@link #setIdGenerationStrategy(IdGenerationStrategy)} with a {@link SecureRandomIdGenerationStrategy}.
+ *
  * @author Nic Munroe
  */
 public class TraceAndSpanIdGenerator {
 
-    private static final Logger logger = LoggerFactory.getLogger(TraceAndSpanIdGenerator.class);
-
     /**
-     * The random number generator this class will use to generate random numbers. Since this is used in {@link #generateId()} and we want those numbers to span the full
-     * set of 64 bit possibilities this should be a {@link SecureRandom} if at all possible (see {@link java.util.Random#nextLong()} for details on the default
-     * Random's limitations here). And since it will be used in a multithreaded and time sensitive environment it should not be a blocking {@link SecureRandom} instance
-     * (i.e. it should be a pseudorandom number generator, not a true random number generator which might need to block for entropy data).
+     * The strategy this class will use to generate random longs for {@link #generateId()} and {@link #generate64BitRandomLong()}. Since it will be used in a
+     * multithreaded and time sensitive environment it should not block or contend on a shared lock. Defaults to {@link ThreadLocalRandomIdGenerationStrategy}.
      */
-    private static final Random random = getRandomInstance("SHA1PRNG");
+    private static volatile IdGenerationStrategy idGenerationStrategy = ThreadLocalRandomIdGenerationStrategy.getDefaultInstance();
 
     /**
      * Intentionally private constructor to force all access via static methods.
@@ -56,10 +55,25 @@ public class TraceAndSpanIdGenerator {
      *          {@link java.util.Random#nextLong()}).
      */
     public static long generate64BitRandomLong() {
-        byte[] random8Bytes = new byte[8];
-        random.nextBytes(random8Bytes);
+        return idGenerationStrategy.generate64BitRandomLong();
+    }
+
+    /**
+     * Allows you to set the {@link IdGenerationStrategy} used to generate all trace and span IDs. This will throw an {@link IllegalArgumentException} if you
+     * pass in null.
+     */
+    public static void setIdGenerationStrategy(IdGenerationStrategy strategy) {
+        if (strategy == null)
+            throw new IllegalArgumentException("IdGenerationStrategy cannot be null");
+
+        idGenerationStrategy = strategy;
+    }
 
-        return convertBytesToLong(random8Bytes);
+    /**
+     * @return The {@link IdGenerationStrategy} currently used to generate all trace and span IDs. Defaults to {@link ThreadLocalRandomIdGenerationStrategy}.
+     */
+    public static IdGenerationStrategy getIdGenerationStrategy() {
+        return idGenerationStrategy;
     }
 
     /**
@@ -72,6 +86,17 @@ public class TraceAndSpanIdGenerator {
         return ZipkinHexHelpers.toLowerHex(primitiveLong);
     }
 
+    /**
+     * @param high The upper 64 bits of the 128-bit value that should be converted to an unsigned hex encoded string.
+     * @param low The lower 64 bits of the 128-bit value that should be converted to an unsigned hex encoded string.
+     * @return The given 128-bit value converted to an unsigned hex encoded string of length 32 (zeroes will be prepended as padding if necessary to
+     *          reach a string length of 32). You can convert back to the two Java long primitives by passing the result into
+     *          {@link #unsignedLowerHexStringToLong(String, int)} with an index of 0 for the high bits and 16 for the low bits.
+     */
+    public static String longsToUnsignedLowerHexString(long high, long low) {
+        return ZipkinHexHelpers.toLowerHex(high, low);
+    }
+
     /**
      * @param hexString The lowercase hexadecimal string representing an unsigned 64-bit long that you want to convert to a Java long primitive.
      * @return The Java long primitive represented by the given lowercase hex string. If the string isn't lowercase hexadecimal encoded then a
@@ -106,22 +131,10 @@ public class TraceAndSpanIdGenerator {
     }
 
     /**
-     * Tries to retrieve and return the {@link SecureRandom} with the given implementation using {@link SecureRandom#getInstance(String)}, and falls back to a
-     * {@code new Random(System.nanoTime())} if that instance could not be found.
+     * Delegates to {@link SecureRandomIdGenerationStrategy#getRandomInstance(String)}.
      */
     protected static Random getRandomInstance(String desiredSecureRandomImplementation) {
-        Random randomToUse;
-
-        try {
-            randomToUse = SecureRandom.getInstance(desiredSecureRandomImplementation);
-            randomToUse.setSeed(System.nanoTime());
-        } catch (NoSuchAlgorithmException e) {
-            logger.error("Unable to retrieve the {} SecureRandom instance. Defaulting to a new Random(System.nanoTime()) instead. NOTE: This means random longs will not cover " +
-                    "the full 64 bits of possible values! See the javadocs for Random.nextLong() for details. dtracer_error=true", desiredSecureRandomImplementation,  e);
-            randomToUse = new Random(System.nanoTime());
-        }
-
-        return randomToUse;
+        return SecureRandomIdGenerationStrategy.getRandomInstance(desiredSecureRandomImplementation);
     }
 
     /**
@@ -186,6 +199,14 @@ public class TraceAndSpanIdGenerator {
             return new String(data);
         }
 
+        /** Renders a 128-bit value as 32 lower-hex characters. */
+        static String toLowerHex(long high, long low) {
+            char[] data = new char[32];
+            writeHexLong(data, 0, high);
+            writeHexLong(data, 16, low);
+            return new String(data);
+        }
+
         /** Inspired by {@code okio.Buffer.writeLong} */
         static void writeHexLong(char[] data, int pos, long v) {
             writeHexByte(data, pos + 0,  (byte) ((v >>> 56L) & 0xff));
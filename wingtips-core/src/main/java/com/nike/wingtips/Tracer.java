@@ -1,10 +1,19 @@
 package com.nike.wingtips;
 
 import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.contextstorage.ThreadLocalTracingContextStorage;
+import com.nike.wingtips.contextstorage.TracingContextSlot;
+import com.nike.wingtips.contextstorage.TracingContextStorage;
 import com.nike.wingtips.http.HttpRequestTracingUtils;
+import com.nike.wingtips.lifecyclelistener.RecyclingSafeSpanLifecycleListener;
 import com.nike.wingtips.lifecyclelistener.SpanLifecycleListener;
+import com.nike.wingtips.sampling.RequestAwareRootSpanSamplingStrategy;
 import com.nike.wingtips.sampling.RootSpanSamplingStrategy;
 import com.nike.wingtips.sampling.SampleAllTheThingsStrategy;
+import com.nike.wingtips.sampling.TraceIdAwareRootSpanSamplingStrategy;
+import com.nike.wingtips.tags.HttpTagAndSpanNamingAdapter;
+import com.nike.wingtips.util.MdcUtils;
+import com.nike.wingtips.util.SpanStack;
 import com.nike.wingtips.util.TracerManagedSpanStatus;
 import com.nike.wingtips.util.TracingState;
 
@@ -19,7 +28,6 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -214,6 +222,29 @@ public class Tracer {
         }
     }
 
+    /**
+     * The options for how {@link Tracer} keeps the logger {@link MDC} in sync with the current span. To change the
+     * behavior call {@link #setLoggerMdcSyncMode(LoggerMdcSyncMode)}.
+     */
+    public enum LoggerMdcSyncMode {
+        /**
+         * The default. The {@link #getSpanFieldsForLoggerMdc()} fields are written to the {@link MDC} whenever the
+         * current span for a thread changes, so they're available to any logger pattern via {@code %X{traceId}}
+         * etc. Fields whose value is already in the MDC (e.g. the trace ID when a sub-span starts or completes) are
+         * not rewritten.
+         */
+        EAGER,
+        /**
+         * {@link Tracer} never writes to the {@link MDC}. Use this when your logging framework can read the tracing
+         * info from {@link Tracer#getCurrentSpan()} at log time instead (e.g. the {@code wingtips-logback} module's
+         * converter) - it avoids all MDC writes as spans start and complete, which adds up for services that trace
+         * every call but rarely log. WARNING: {@code %X{traceId}} etc will no longer work in logger patterns, and
+         * log messages handed off to another thread before being formatted (e.g. via an async appender) will not
+         * see the tracing info of the thread that logged them.
+         */
+        LAZY
+    }
+
     private static final String VALID_WINGTIPS_SPAN_LOGGER_NAME = "VALID_WINGTIPS_SPANS";
     private static final String INVALID_WINGTIPS_SPAN_LOGGER_NAME = "INVALID_WINGTIPS_SPANS";
 
@@ -221,11 +252,6 @@ public class Tracer {
     private static final Logger validSpanLogger = LoggerFactory.getLogger(VALID_WINGTIPS_SPAN_LOGGER_NAME);
     private static final Logger invalidSpanLogger = LoggerFactory.getLogger(INVALID_WINGTIPS_SPAN_LOGGER_NAME);
 
-    /**
-     * ThreadLocal that keeps track of the stack of {@link Span} objects associated with the thread. This is treated as a LIFO stack.
-     */
-    private static final ThreadLocal<Deque<Span>> currentSpanStackThreadLocal = new ThreadLocal<>();
-
     /**
      * The singleton instance for this class.
      */
@@ -245,6 +271,13 @@ public class Tracer {
      */
     private final List<SpanLifecycleListener> spanLifecycleListeners = new CopyOnWriteArrayList<>();
 
+    /**
+     * Whether there is at least one listener in {@link #spanLifecycleListeners} and every one of them is a {@link
+     * RecyclingSafeSpanLifecycleListener}. Recalculated whenever the listener list changes so {@link
+     * #recycleSpanTagsAndAnnotationsIfAllowed(Span)} doesn't have to iterate the listeners for every span.
+     */
+    private volatile boolean spanLifecycleListenersAllowRecycling = false;
+
     /**
      * The span representation that should be used when logging completed spans.
      */
@@ -259,6 +292,24 @@ public class Tracer {
     private Set<SpanFieldForLoggerMdc> cachedUnmodifiableSpanFieldsForLoggerMdc =
         Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(spanFieldsForLoggerMdc)));
 
+    /**
+     * Keeps track of the stack of {@link Span} objects associated with the current thread (see {@link
+     * TracingContextSlot}). The stack is treated as a LIFO stack. Defaults to {@link ThreadLocalTracingContextStorage}.
+     * Never allow this field to be set to null.
+     */
+    private TracingContextStorage tracingContextStorage = ThreadLocalTracingContextStorage.getDefaultInstance();
+
+    /**
+     * How the logger {@link MDC} is kept in sync with the current span. Never allow this field to be set to null.
+     */
+    private LoggerMdcSyncMode loggerMdcSyncMode = LoggerMdcSyncMode.EAGER;
+
+    /**
+     * Whether new request spans that are not sampleable should be created as lightweight propagation-only spans (see
+     * {@link Span#isPropagationOnly()}). Defaults to false.
+     */
+    private boolean propagationOnlyUnsampledSpans = false;
+
     private Tracer() { /* Intentionally private to enforce singleton pattern. */ }
 
     /**
@@ -271,16 +322,34 @@ public class Tracer {
     /**
      * The {@link Span} set as the "current" one for this thread.
      * <p/>
-     * NOTE: If {@link #currentSpanStackThreadLocal} is null or empty for this thread it will try to reconstitute the {@link Span} from the logging {@link org.slf4j.MDC}.
+     * NOTE: If {@link #tracingContextStorage} is null or empty for this thread it will try to reconstitute the {@link Span} from the logging {@link org.slf4j.MDC}.
      * This is useful in some situations, for example async request processing where the thread changes but the MDC is smart enough to transfer the span anyway.
      * In any case as a caller you don't have to care - you'll just get the {@link Span} appropriate for the caller, or null if one hasn't been set up yet.
      */
     public Span getCurrentSpan() {
-        Deque<Span> spanStack = currentSpanStackThreadLocal.get();
+        SpanStack spanStack = getCurrentSpanStack();
 
         return (spanStack == null) ? null : spanStack.peek();
     }
 
+    /**
+     * @return The span stack registered with the current thread, or null if there isn't one.
+     */
+    private SpanStack getCurrentSpanStack() {
+        TracingContextSlot slot = tracingContextStorage.getCurrentSlot();
+        return (slot == null) ? null : slot.getSpanStack();
+    }
+
+    /**
+     * Clears out the span stack registered with the current thread. The stack is kept as the thread's spare for reuse by the next request if possible.
+     */
+    private void clearCurrentSpanStack() {
+        TracingContextSlot slot = tracingContextStorage.getCurrentSlot();
+        if (slot != null) {
+            slot.recycleSpanStack();
+        }
+    }
+
     /**
      * Starts new span stack (i.e. new incoming request) without a parent span by creating a root span with the given span name.
      * If you have parent span info then you should call {@link #startRequestWithChildSpan(Span, String)} or
@@ -316,9 +385,31 @@ public class Tracer {
      * @return The new span (which is now also the current one that will be returned by {@link #getCurrentSpan()}).
      */
     public Span startRequestWithRootSpan(String spanName, String userId) {
-        boolean sampleable = isNextRootSpanSampleable();
-        String traceId = TraceAndSpanIdGenerator.generateId();
-        return doNewRequestSpan(traceId, null, spanName, sampleable, userId, SpanPurpose.SERVER);
+        return startRequestWithRootSpan(spanName, userId, null, null);
+    }
+
+    /**
+     * Similar to {@link #startRequestWithRootSpan(String, String)} but also takes in the incoming request and the {@link HttpTagAndSpanNamingAdapter}
+     * that knows how to inspect it. These are handed to the {@link #rootSpanSamplingStrategy} if it is a {@link RequestAwareRootSpanSamplingStrategy}
+     * so it can base its sampling decision on the request (e.g. never sample health checks), and are otherwise ignored.
+     * <p/>
+     * <b>WARNING:</b> This wipes out any existing spans on the span stack for this thread and starts fresh, therefore this should only be called at the request's
+     * entry point when it's expected that the span stack should be empty. If you need to start a child span in the middle of a request somewhere then you should call
+     * {@link #startSubSpan(String, SpanPurpose)} instead.
+     *
+     * @param spanName - The span name to use for the new span - should never be null.
+     * @param userId - The ID of the user that should be associated with the {@link Span} - can be null.
+     * @param request - The incoming request - can be null.
+     * @param adapter - The adapter for extracting info from the {@code request} - can be null.
+     * @return The new span (which is now also the current one that will be returned by {@link #getCurrentSpan()}).
+     */
+    public <REQ> Span startRequestWithRootSpan(
+        String spanName, String userId, @Nullable REQ request, @Nullable HttpTagAndSpanNamingAdapter<REQ, ?> adapter
+    ) {
+        if (spanName == null)
+            throw new IllegalArgumentException("spanName cannot be null");
+
+        return doNewRequestSpan(newRootSpanBuilder(spanName, SpanPurpose.SERVER, request, adapter).withUserId(userId));
     }
 
     /**
@@ -341,23 +432,24 @@ public class Tracer {
                             "If you don't have a parent span then you should call one of the startRequestWithRootSpan(...) methods instead.");
         }
 
-        String parentIdForChildSpan = parentSpan.getSpanId();
-        boolean addBadParentIdIndicatorTag = false;
-        if (HttpRequestTracingUtils.hasInvalidSpanIdBecauseCallerDidNotSendOne(parentSpan)) {
-            parentIdForChildSpan = null;
-            addBadParentIdIndicatorTag = true;
-        }
+        if (childSpanName == null)
+            throw new IllegalArgumentException("spanName cannot be null");
 
-        Span result = startRequestWithSpanInfo(
-            parentSpan.getTraceId(), parentIdForChildSpan, childSpanName, parentSpan.isSampleable(),
-            parentSpan.getUserId(), SpanPurpose.SERVER
-        );
+        // Copy the IDs straight from the parent so that any numeric IDs are carried over without rendering or parsing hex strings.
+        Span.Builder childSpanBuilder = Span
+            .newBuilder(childSpanName, SpanPurpose.SERVER)
+            .withTraceIdFrom(parentSpan)
+            .withSampleable(parentSpan.isSampleable())
+            .withUserId(parentSpan.getUserId());
 
-        if (addBadParentIdIndicatorTag) {
-            result.putTag(CHILD_OF_SPAN_FROM_HEADERS_WHERE_CALLER_DID_NOT_SEND_SPAN_ID_TAG_KEY, "true");
+        if (HttpRequestTracingUtils.hasInvalidSpanIdBecauseCallerDidNotSendOne(parentSpan)) {
+            childSpanBuilder.withTag(CHILD_OF_SPAN_FROM_HEADERS_WHERE_CALLER_DID_NOT_SEND_SPAN_ID_TAG_KEY, "true");
+        }
+        else {
+            childSpanBuilder.withParentSpanIdFromSpanIdOf(parentSpan);
         }
 
-        return result;
+        return doNewRequestSpan(childSpanBuilder);
     }
 
     /**
@@ -413,7 +505,7 @@ public class Tracer {
 
         Span childSpan = (parentSpan != null)
                 ? parentSpan.generateChildSpan(spanName, spanPurpose)
-                : Span.generateRootSpanForNewTrace(spanName, spanPurpose).withSampleable(isNextRootSpanSampleable()).build();
+                : newRootSpanBuilder(spanName, spanPurpose).withPropagationOnly(propagationOnlyUnsampledSpans).build();
 
         pushSpanOntoCurrentSpanStack(childSpan);
 
@@ -518,8 +610,10 @@ public class Tracer {
         // If the current span stack is empty, then we start a new overall request span. Otherwise we start a subspan.
         //      In either case, honor the passed-in spanPurpose.
         if (getCurrentSpanStackSize() == 0) {
-            boolean sampleable = isNextRootSpanSampleable();
-            return startRequestWithSpanInfo(null, null, spanName, sampleable, null, spanPurpose);
+            if (spanName == null)
+                throw new IllegalArgumentException("spanName cannot be null");
+
+            return doNewRequestSpan(newRootSpanBuilder(spanName, spanPurpose));
         }
         else {
             return startSubSpan(spanName, spanPurpose);
@@ -548,13 +642,29 @@ public class Tracer {
         if (newSpanName == null)
             throw new IllegalArgumentException("spanName cannot be null");
 
-        Span span = Span
-            .newBuilder(newSpanName, spanPurpose)
-            .withTraceId(traceId)
-            .withParentSpanId(parentSpanId)
-            .withSampleable(sampleable)
-            .withUserId(userId)
-            .build();
+        return doNewRequestSpan(
+            Span.newBuilder(newSpanName, spanPurpose)
+                .withTraceId(traceId)
+                .withParentSpanId(parentSpanId)
+                .withSampleable(sampleable)
+                .withUserId(userId)
+        );
+    }
+
+    /**
+     * Helper method that builds the span for a fresh request from the given builder, starts a new span stack with it, and notifies listeners.
+     * <p/>
+     * <b>WARNING:</b> This wipes out any existing spans on the span stack for this thread and starts fresh.
+     *
+     * @param spanBuilder The fully populated builder for the new request span.
+     * @return The new span (which is now also the current one that will be returned by {@link #getCurrentSpan()}).
+     */
+    protected Span doNewRequestSpan(Span.Builder spanBuilder) {
+        if (propagationOnlyUnsampledSpans) {
+            spanBuilder.withPropagationOnly(true);
+        }
+
+        Span span = spanBuilder.build();
 
         // Since this is a "starting from scratch/new request" call we clear out and restart the current span stack even if it already had something in it.
         startNewSpanStack(span);
@@ -566,14 +676,15 @@ public class Tracer {
     }
 
     /**
-     * Helper method that starts a new span stack for a fresh request and sets it on {@link #currentSpanStackThreadLocal}. Since this is assuming a fresh request it expects
-     * {@link #currentSpanStackThreadLocal} to have a clean/empty/null stack in it right now. If it has a non-empty stack then it will log an error and clear it out
+     * Helper method that starts a new span stack for a fresh request and sets it on {@link #tracingContextStorage}. Since this is assuming a fresh request it expects
+     * {@link #tracingContextStorage} to have a clean/empty/null stack in it right now. If it has a non-empty stack then it will log an error and clear it out
      * so that the given {@code firstEntry} argument is the only thing that will be on the stack after this method call. Delegates to {@link #pushSpanOntoCurrentSpanStack(Span)}
      * to push the {@code firstEntry} onto the clean stack so it can handle the MDC and debug logging, etc.
      */
     protected void startNewSpanStack(Span firstEntry) {
         // Log an error if we don't have a null/empty existing stack.
-        Deque<Span> existingStack = currentSpanStackThreadLocal.get();
+        TracingContextSlot slot = tracingContextStorage.getOrCreateCurrentSlot();
+        SpanStack existingStack = slot.getSpanStack();
         if (existingStack != null && !existingStack.isEmpty()) {
             boolean first = true;
             StringBuilder lostTraceIds = new StringBuilder();
@@ -591,7 +702,7 @@ public class Tracer {
 
         }
 
-        currentSpanStackThreadLocal.set(new LinkedList<Span>());
+        slot.setSpanStack(slot.takeSpareOrCreateNewSpanStack());
         pushSpanOntoCurrentSpanStack(firstEntry);
     }
 
@@ -610,14 +721,15 @@ public class Tracer {
     }
 
     /**
-     * Pushes the given span onto the {@link #currentSpanStackThreadLocal} stack. If the stack is null it will create a new one. Also pushes the span info into the logging
+     * Pushes the given span onto the {@link #tracingContextStorage} stack. If the stack is null it will create a new one. Also pushes the span info into the logging
      * {@link org.slf4j.MDC} so it is available there.
      */
     protected void pushSpanOntoCurrentSpanStack(Span pushMe) {
-        Deque<Span> currentStack = currentSpanStackThreadLocal.get();
+        TracingContextSlot slot = tracingContextStorage.getOrCreateCurrentSlot();
+        SpanStack currentStack = slot.getSpanStack();
         if (currentStack == null) {
-            currentStack = new LinkedList<>();
-            currentSpanStackThreadLocal.set(currentStack);
+            currentStack = slot.takeSpareOrCreateNewSpanStack();
+            slot.setSpanStack(currentStack);
         }
 
         currentStack.push(pushMe);
@@ -631,15 +743,15 @@ public class Tracer {
 
     /**
      * Completes the current span by calling {@link #completeAndLogSpan(Span, boolean)} on it, empties the MDC by calling{@link #unconfigureMDC()}, and clears out the
-     * {@link #currentSpanStackThreadLocal} stack.
+     * {@link #tracingContextStorage} stack.
      * <p/>
      * This should be called by the overall request when the request is done. At the point this method is called there should just be one span left on the
-     * {@link #currentSpanStackThreadLocal} stack - the overall request span. If there is more than 1 then that indicates a bug with the usage of this class where
+     * {@link #tracingContextStorage} stack - the overall request span. If there is more than 1 then that indicates a bug with the usage of this class where
      * a child span is created but not completed. If this error case is detected then and *all* spans will be logged/popped and an error message will be logged with
      * details on what went wrong.
      */
     public void completeRequestSpan() {
-        Deque<Span> currentSpanStack = currentSpanStackThreadLocal.get();
+        SpanStack currentSpanStack = getCurrentSpanStack();
         if (currentSpanStack != null) {
             // Keep track of data as we go in case we need to output an error (we should only have 1 span in the stack)
             int originalSize = currentSpanStack.size();
@@ -660,6 +772,7 @@ public class Tracer {
                 }
 
                 completeAndLogSpan(span, isBadSpan);
+                recycleSpanTagsAndAnnotationsIfAllowed(span);
             }
 
             // Output an error message if we had any bad spans.
@@ -674,7 +787,7 @@ public class Tracer {
             }
         }
 
-        currentSpanStackThreadLocal.remove();
+        clearCurrentSpanStack();
         unconfigureMDC();
     }
 
@@ -682,12 +795,12 @@ public class Tracer {
      * Completes the current child sub-span by calling {@link #completeAndLogSpan(Span, boolean)} on it and then {@link #configureMDC(Span)} on the sub-span's parent
      * (which becomes the new current span).
      * <p/>
-     * <b>WARNING:</b> This only works if there are at least 2 spans in the {@link #currentSpanStackThreadLocal} stack - one for the child sub-span and one for the parent span.
+     * <b>WARNING:</b> This only works if there are at least 2 spans in the {@link #tracingContextStorage} stack - one for the child sub-span and one for the parent span.
      * If you're trying to complete the overall request's span you should be calling {@link #completeRequestSpan()} instead. If there are 0 or 1 spans on the stack then
      * this method will log an error and do nothing.
      */
     public void completeSubSpan() {
-        Deque<Span> currentSpanStack = currentSpanStackThreadLocal.get();
+        SpanStack currentSpanStack = getCurrentSpanStack();
         if (currentSpanStack == null || currentSpanStack.size() < 2) {
             int stackSize = (currentSpanStack == null) ? 0 : currentSpanStack.size();
             classLogger.error(
@@ -702,6 +815,7 @@ public class Tracer {
         // We have at least two spans. Pop off the child sub-span and complete/log it.
         Span subSpan = currentSpanStack.pop();
         completeAndLogSpan(subSpan, false);
+        recycleSpanTagsAndAnnotationsIfAllowed(subSpan);
 
         // Now configure the MDC with the new current span.
         //noinspection ConstantConditions
@@ -735,7 +849,7 @@ public class Tracer {
         }
         else {
             // This is not the current span - find out if it's managed or unmanaged.
-            Deque<Span> currentSpanStack = currentSpanStackThreadLocal.get();
+            SpanStack currentSpanStack = getCurrentSpanStack();
             if (currentSpanStack != null && currentSpanStack.contains(span)) {
                 // It's on the stack, therefore it's managed. Now we just need to find out if it's the root span or not.
                 if (span.equals(currentSpanStack.peekLast())) {
@@ -890,19 +1004,46 @@ public class Tracer {
     }
 
     /**
-     * Sets the span variables on the MDC context.
+     * Hands the given span's tags map and annotations list back to the span recycling pool (see {@link
+     * Span#recycleTagsAndAnnotations()}) if {@link #isSpanRecyclingEnabled()} is true, at least one {@link
+     * SpanLifecycleListener} is registered and every registered listener is a {@link
+     * RecyclingSafeSpanLifecycleListener}, and the span is completed and hasn't already been recycled. Only call this
+     * for a span that was just completed and logged - see {@link #setSpanRecyclingEnabled(boolean)}.
+     */
+    protected void recycleSpanTagsAndAnnotationsIfAllowed(Span span) {
+        if (SpanRecycler.isEnabled() && spanLifecycleListenersAllowRecycling) {
+            span.recycleTagsAndAnnotations();
+        }
+    }
+
+    /**
+     * Sets the span variables on the MDC context. Does nothing if {@link #getLoggerMdcSyncMode()} is {@link
+     * LoggerMdcSyncMode#LAZY}.
      */
     protected void configureMDC(@NotNull Span span) {
+        if (this.loggerMdcSyncMode == LoggerMdcSyncMode.LAZY) {
+            return;
+        }
+
         for (SpanFieldForLoggerMdc mdcField : this.spanFieldsForLoggerMdc) {
-            MDC.put(mdcField.mdcKey, mdcField.getMdcValueForSpan(span));
+            String mdcValue = mdcField.getMdcValueForSpan(span);
+            // Skip the write if the MDC already has this value - MDC writes can be expensive (e.g. Logback's MDC is
+            //      copy-on-write), and some fields like trace ID usually don't change as sub-spans come and go.
+            if (mdcValue == null || !mdcValue.equals(MDC.get(mdcField.mdcKey))) {
+                MDC.put(mdcField.mdcKey, mdcValue);
+            }
         }
     }
 
 
     /**
-     * Removes the MDC parameters.
+     * Removes the MDC parameters. Does nothing if {@link #getLoggerMdcSyncMode()} is {@link LoggerMdcSyncMode#LAZY}.
      */
     protected void unconfigureMDC() {
+        if (this.loggerMdcSyncMode == LoggerMdcSyncMode.LAZY) {
+            return;
+        }
+
         for (SpanFieldForLoggerMdc mdcField : this.spanFieldsForLoggerMdc) {
             MDC.remove(mdcField.mdcKey);
         }
@@ -918,6 +1059,13 @@ public class Tracer {
         this.rootSpanSamplingStrategy = strategy;
     }
 
+    /**
+     * @return The {@link #rootSpanSamplingStrategy} used by this instance - never null.
+     */
+    public RootSpanSamplingStrategy getRootSpanSamplingStrategy() {
+        return rootSpanSamplingStrategy;
+    }
+
     /**
      * Delegates to {@link #rootSpanSamplingStrategy}'s {@link RootSpanSamplingStrategy#isNextRootSpanSampleable()} method to determine whether the next root span should be
      * sampled.
@@ -931,6 +1079,109 @@ public class Tracer {
         return rootSpanSamplingStrategy.isNextRootSpanSampleable();
     }
 
+    /**
+     * Creates a builder for the root span of a brand new trace, with its sampleable flag decided by {@link #rootSpanSamplingStrategy}. Equivalent to
+     * {@link #newRootSpanBuilder(String, SpanPurpose, Object, HttpTagAndSpanNamingAdapter)} with no request info.
+     *
+     * @param spanName The span name for the new root span.
+     * @param spanPurpose The {@link SpanPurpose} for the new root span.
+     * @return A builder for the new root span with its trace ID (if needed) and sampleable flag set.
+     */
+    protected Span.Builder newRootSpanBuilder(String spanName, SpanPurpose spanPurpose) {
+        return newRootSpanBuilder(spanName, spanPurpose, null, null);
+    }
+
+    /**
+     * Creates a builder for the root span of a brand new trace, with its sampleable flag decided by {@link #rootSpanSamplingStrategy}. If the strategy
+     * is a {@link TraceIdAwareRootSpanSamplingStrategy} then the new trace ID is generated up front (in numeric form, so it's still only rendered as
+     * a String if/when needed) and handed to the strategy so the decision is derived from the trace ID - along with the span name, span purpose, and
+     * request info if the strategy is a {@link RequestAwareRootSpanSamplingStrategy}. Otherwise the trace ID is left for the builder to generate and
+     * {@link #isNextRootSpanSampleable()} is used.
+     *
+     * @param spanName The span name for the new root span.
+     * @param spanPurpose The {@link SpanPurpose} for the new root span.
+     * @param request The request that caused the new root span to be started - may be null.
+     * @param adapter The adapter for extracting info from the {@code request} - may be null.
+     * @return A builder for the new root span with its trace ID (if needed) and sampleable flag set.
+     */
+    protected <REQ> Span.Builder newRootSpanBuilder(
+        String spanName, SpanPurpose spanPurpose, @Nullable REQ request, @Nullable HttpTagAndSpanNamingAdapter<REQ, ?> adapter
+    ) {
+        Span.Builder builder = Span.generateRootSpanForNewTrace(spanName, spanPurpose);
+        RootSpanSamplingStrategy strategy = rootSpanSamplingStrategy;
+        if (strategy instanceof TraceIdAwareRootSpanSamplingStrategy) {
+            long traceId = TraceAndSpanIdGenerator.generate64BitRandomLong();
+            boolean sampleable = (strategy instanceof RequestAwareRootSpanSamplingStrategy)
+                                 ? ((RequestAwareRootSpanSamplingStrategy) strategy).isRootSpanSampleable(
+                                     traceId, spanName, spanPurpose, request, adapter
+                                 )
+                                 : ((TraceIdAwareRootSpanSamplingStrategy) strategy).isRootSpanSampleable(traceId);
+            return builder.withTraceId(traceId).withSampleable(sampleable);
+        }
+
+        return builder.withSampleable(isNextRootSpanSampleable());
+    }
+
+    /**
+     * Sets whether the tags maps and annotations lists of completed spans should be recycled - i.e. detached from the
+     * completed span and handed back to a small per-thread pool, to be reused by the next span that gets tags or
+     * annotations on that thread, rather than left as garbage. This cuts down on the young-gen churn caused by
+     * tracing in high-throughput services. This defaults to false.
+     *
+     * <p>{@link Span} objects themselves are never reused, so anything still holding a reference to a completed span
+     * (e.g. a {@link TracingState} snapshot, a Reactor {@code Context}, or one of the {@code *WithTracing} wrappers in
+     * {@code com.nike.wingtips.util.asynchelperwrapper}) still sees that same completed span - it can't end up
+     * operating on some other request's span.
+     *
+     * <p>A span's tags and annotations are only recycled when the span is completed via {@link #completeRequestSpan()}
+     * or {@link #completeSubSpan()} (including via {@link Span#close()} on the current span), after all {@link
+     * SpanLifecycleListener}s have been notified and the span has been logged, and only if at least one listener is
+     * registered and every registered listener is a {@link RecyclingSafeSpanLifecycleListener}. Spans you complete
+     * some other way are never recycled. If no listeners are registered then nothing consumes completed spans except
+     * whoever still holds them, so nothing is recycled.
+     *
+     * <p><b>WARNING:</b> When this is turned on, a recycled span's {@link Span#getTags()} and {@link
+     * Span#getTimestampedAnnotations()} are empty after it has been completed (its logged representation is not
+     * affected), and tags or annotations added to it after that are ignored. Copy spans with {@code
+     * Span.newBuilder(span).build()} before they're completed if you need their tags or annotations afterward, and
+     * don't add tags or annotations to a span from one thread while another thread is completing it.
+     *
+     * <p>Turning this off empties every thread's pool.
+     */
+    public void setSpanRecyclingEnabled(boolean spanRecyclingEnabled) {
+        SpanRecycler.setEnabled(spanRecyclingEnabled);
+    }
+
+    /**
+     * @return true if the tags maps and annotations lists of completed spans are recycled, false otherwise. See
+     * {@link #setSpanRecyclingEnabled(boolean)} for details.
+     */
+    public boolean isSpanRecyclingEnabled() {
+        return SpanRecycler.isEnabled();
+    }
+
+    /**
+     * Sets whether new request spans that are not sampleable should be created as lightweight propagation-only spans.
+     * Propagation-only spans keep their trace and span IDs for header propagation and logger {@link MDC}, but adding
+     * tags or annotations to them does nothing, {@link com.nike.wingtips.tags.HttpTagAndSpanNamingStrategy} skips
+     * them, and {@link SpanLifecycleListener}s are not notified when they start or complete. Child sub-spans inherit
+     * the setting from their parent. See {@link Span#isPropagationOnly()} for details. This defaults to false.
+     *
+     * <p>NOTE: Since listeners don't see propagation-only spans, you should leave this off if you have a {@link
+     * SpanLifecycleListener} that needs to see unsampled spans (e.g. for metrics that count all requests).
+     */
+    public void setPropagationOnlyUnsampledSpans(boolean propagationOnlyUnsampledSpans) {
+        this.propagationOnlyUnsampledSpans = propagationOnlyUnsampledSpans;
+    }
+
+    /**
+     * @return true if new request spans that are not sampleable will be created as lightweight propagation-only spans,
+     * false otherwise. See {@link #setPropagationOnlyUnsampledSpans(boolean)} for details.
+     */
+    public boolean isPropagationOnlyUnsampledSpans() {
+        return propagationOnlyUnsampledSpans;
+    }
+
     /**
      * Adds the given listener to the {@link #spanLifecycleListeners} list using {@link java.util.List#add(Object)}. This method will do nothing if you pass in null.
      * <p/>
@@ -941,6 +1192,7 @@ public class Tracer {
     public void addSpanLifecycleListener(SpanLifecycleListener listener) {
         if (listener != null) {
             this.spanLifecycleListeners.add(listener);
+            updateSpanLifecycleListenersAllowRecycling();
         }
     }
 
@@ -956,6 +1208,7 @@ public class Tracer {
     public void addSpanLifecycleListenerFirst(SpanLifecycleListener listener) {
         if (listener != null) {
             this.spanLifecycleListeners.add(0, listener);
+            updateSpanLifecycleListenersAllowRecycling();
         }
     }
 
@@ -967,7 +1220,9 @@ public class Tracer {
         if (listener == null)
             return false;
 
-        return this.spanLifecycleListeners.remove(listener);
+        boolean removed = this.spanLifecycleListeners.remove(listener);
+        updateSpanLifecycleListenersAllowRecycling();
+        return removed;
     }
 
     /**
@@ -976,6 +1231,18 @@ public class Tracer {
      */
     public void removeAllSpanLifecycleListeners() {
         this.spanLifecycleListeners.clear();
+        updateSpanLifecycleListenersAllowRecycling();
+    }
+
+    private void updateSpanLifecycleListenersAllowRecycling() {
+        boolean allowRecycling = !spanLifecycleListeners.isEmpty();
+        for (SpanLifecycleListener listener : spanLifecycleListeners) {
+            if (!(listener instanceof RecyclingSafeSpanLifecycleListener)) {
+                allowRecycling = false;
+                break;
+            }
+        }
+        this.spanLifecycleListenersAllowRecycling = allowRecycling;
     }
 
     /**
@@ -1061,9 +1328,61 @@ public class Tracer {
     }
 
     /**
-     * Notifies all listeners that the given span was started using {@link SpanLifecycleListener#spanStarted(Span)}
+     * @return The current {@link LoggerMdcSyncMode}, which controls how the logger {@link MDC} is kept in sync with the
+     * current span. This will never return null. Defaults to {@link LoggerMdcSyncMode#EAGER}.
+     */
+    public LoggerMdcSyncMode getLoggerMdcSyncMode() {
+        return loggerMdcSyncMode;
+    }
+
+    /**
+     * Sets the {@link LoggerMdcSyncMode}, which controls how the logger {@link MDC} is kept in sync with the current
+     * span. This will throw an {@link IllegalArgumentException} if you pass in null.
+     *
+     * <p>NOTE: This should be set during application startup before any spans are started. Switching to {@link
+     * LoggerMdcSyncMode#LAZY} while threads have spans in progress will leave their existing MDC tracing info in place
+     * until those threads clear or replace their MDC.
+     */
+    public void setLoggerMdcSyncMode(LoggerMdcSyncMode loggerMdcSyncMode) {
+        if (loggerMdcSyncMode == null)
+            throw new IllegalArgumentException("loggerMdcSyncMode cannot be null");
+
+        this.loggerMdcSyncMode = loggerMdcSyncMode;
+    }
+
+    /**
+     * @return The {@link TracingContextStorage} that keeps track of the current span stack. This will never return
+     * null. Defaults to {@link ThreadLocalTracingContextStorage#getDefaultInstance()}.
+     */
+    public TracingContextStorage getTracingContextStorage() {
+        return tracingContextStorage;
+    }
+
+    /**
+     * Sets the {@link TracingContextStorage} that keeps track of the current span stack, allowing you to pick the
+     * lowest overhead storage for your runtime. This will throw an {@link IllegalArgumentException} if you pass in
+     * null.
+     *
+     * <p>NOTE: This should be set during application startup before any spans are started. Any span stacks held by the
+     * previous storage are not moved over to the new one, so threads with spans in progress when this is called would
+     * lose track of them.
+     */
+    public void setTracingContextStorage(TracingContextStorage tracingContextStorage) {
+        if (tracingContextStorage == null)
+            throw new IllegalArgumentException("tracingContextStorage cannot be null");
+
+        this.tracingContextStorage = tracingContextStorage;
+    }
+
+    /**
+     * Notifies all listeners that the given span was started using {@link SpanLifecycleListener#spanStarted(Span)},
+     * unless the span is {@link Span#isPropagationOnly()}, in which case this method does nothing.
      */
     protected void notifySpanStarted(Span span) {
+        if (span.isPropagationOnly()) {
+            return;
+        }
+
         for (SpanLifecycleListener tll : spanLifecycleListeners) {
             tll.spanStarted(span);
         }
@@ -1082,22 +1401,29 @@ public class Tracer {
     }
 
     /**
-     * Notifies all listeners that the given span was completed using {@link SpanLifecycleListener#spanCompleted(Span)}
+     * Notifies all listeners that the given span was completed using {@link SpanLifecycleListener#spanCompleted(Span)},
+     * unless the span is {@link Span#isPropagationOnly()}, in which case this method does nothing.
      */
     protected void notifySpanCompleted(Span span) {
+        if (span.isPropagationOnly()) {
+            return;
+        }
+
         for (SpanLifecycleListener tll : spanLifecycleListeners) {
             tll.spanCompleted(span);
         }
     }
 
     /**
-     * @return A *copy* of the current thread's tracing information. Since this creates copies of the span stack and MDC
-     * info it can have a noticeable performance impact if used too many times (i.e. tens or hundreds of times per
-     * request for high throughput services). NOTE: This is usually not needed unless you're doing asynchronous
-     * processing and need to pass tracing state across thread boundaries.
+     * @return A *copy* of the current thread's tracing information. The span stack is captured via {@link
+     * #getCurrentSpanStackCopy()} and the MDC info via {@link MdcUtils#getContextMapSnapshot()}, both of which share
+     * the current thread's underlying data rather than copying it when possible, so this is cheap enough to call
+     * every time you hop threads. The returned state will not change when this thread's tracing state changes later.
+     * NOTE: This is usually not needed unless you're doing asynchronous processing and need to pass tracing state
+     * across thread boundaries.
      */
     public TracingState getCurrentTracingStateCopy() {
-        return new TracingState(getCurrentSpanStackCopy(), MDC.getCopyOfContextMap());
+        return new TracingState(getCurrentSpanStackCopy(), MdcUtils.getContextMapSnapshot());
     }
 
     /**
@@ -1110,13 +1436,16 @@ public class Tracer {
      * store for later without interrupting current state).
      * <p/>
      * This method may return null or an empty stack, depending on its current state.
+     * <p/>
+     * The returned copy is a {@link SpanStack#snapshot()}, which shares its backing array copy-on-write style with the original, so this is an O(1)
+     * operation regardless of how many spans are on the stack.
      */
     public Deque<Span> getCurrentSpanStackCopy() {
-        Deque<Span> currentStack = currentSpanStackThreadLocal.get();
+        SpanStack currentStack = getCurrentSpanStack();
         if (currentStack == null)
             return null;
 
-        return new LinkedList<>(currentStack);
+        return currentStack.snapshot();
     }
 
     /**
@@ -1124,7 +1453,7 @@ public class Tracer {
      * cost of {@link #getCurrentSpanStackCopy()}.
      */
     public int getCurrentSpanStackSize() {
-        Deque<Span> currentStack = currentSpanStackThreadLocal.get();
+        SpanStack currentStack = getCurrentSpanStack();
         if (currentStack == null)
             return 0;
 
@@ -1146,8 +1475,13 @@ public class Tracer {
      * to a different request in the middle. In that case just use the normal start and complete span methods and ignore this method.
      */
     public Deque<Span> unregisterFromThread() {
-        Deque<Span> currentValue = currentSpanStackThreadLocal.get();
-        currentSpanStackThreadLocal.remove();
+        TracingContextSlot slot = tracingContextStorage.getCurrentSlot();
+        SpanStack currentValue = null;
+        if (slot != null) {
+            // The stack is handed to the caller, so it must not be reused by this thread - just detach it.
+            currentValue = slot.getSpanStack();
+            slot.setSpanStack(null);
+        }
         unconfigureMDC();
         return currentValue;
     }
@@ -1197,12 +1531,14 @@ public class Tracer {
      * on this thread then this method will mark them as invalid, complete them, and log an appropriate error message before registering the stack passed into this method.
      * <p/>
      * NOTE: A *copy* of the given stack is registered so that changes to the stack you pass in don't affect the stack stored here. This prevents a host of subtle annoying bugs.
+     * If the given stack is a {@link SpanStack} (e.g. it came from {@link #getCurrentSpanStackCopy()} or {@link #unregisterFromThread()}) then the copy is an O(1)
+     * {@link SpanStack#snapshot()}.
      * <p/>
      * <b>WARNING:</b> This method should NOT be called if you're in an environment where a single thread is guaranteed to process a request from start to finish without jumping
      * to a different request in the middle. In that case just use the normal start and complete span methods and ignore this method.
      */
     public void registerWithThread(Deque<Span> registerMe) {
-        Deque<Span> currentSpanStack = currentSpanStackThreadLocal.get();
+        SpanStack currentSpanStack = getCurrentSpanStack();
 
         // Do nothing if the passed-in stack is functionally identical to what we already have.
         if (!containsSameSpansInSameOrder(currentSpanStack, registerMe)) {
@@ -1236,8 +1572,10 @@ public class Tracer {
             }
 
             // At this point any errors have been handled and we can register the new stack. Make sure we register a copy so that changes to the original don't affect our stack.
-            registerMe = (registerMe == null) ? null : new LinkedList<>(registerMe);
-            currentSpanStackThreadLocal.set(registerMe);
+            //      The old stack is empty at this point, so it can be kept around for reuse.
+            TracingContextSlot slot = tracingContextStorage.getOrCreateCurrentSlot();
+            slot.recycleSpanStack();
+            slot.setSpanStack(SpanStack.copyOf(registerMe));
         }
 
         // Make sure we fix the MDC to the passed-in info.
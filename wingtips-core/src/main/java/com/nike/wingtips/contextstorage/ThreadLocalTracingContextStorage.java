@@ -0,0 +1,39 @@
+package com.nike.wingtips.contextstorage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The default {@link TracingContextStorage}, which keeps one {@link TracingContextSlot} per thread in a {@link
+ * ThreadLocal}. This works for every kind of thread, but costs a {@link ThreadLocal} map lookup for each access.
+ */
+public class ThreadLocalTracingContextStorage implements TracingContextStorage {
+
+    private static final ThreadLocalTracingContextStorage DEFAULT_INSTANCE = new ThreadLocalTracingContextStorage();
+
+    private final ThreadLocal<TracingContextSlot> slotThreadLocal = new ThreadLocal<>();
+
+    /**
+     * @return The default shared instance of this class - this is the storage {@link com.nike.wingtips.Tracer} uses
+     * unless told otherwise.
+     */
+    public static ThreadLocalTracingContextStorage getDefaultInstance() {
+        return DEFAULT_INSTANCE;
+    }
+
+    @Override
+    public @Nullable TracingContextSlot getCurrentSlot() {
+        return slotThreadLocal.get();
+    }
+
+    @Override
+    public @NotNull TracingContextSlot getOrCreateCurrentSlot() {
+        TracingContextSlot slot = slotThreadLocal.get();
+        if (slot == null) {
+            slot = new TracingContextSlot();
+            slotThreadLocal.set(slot);
+        }
+        return slot;
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.nike.wingtips.contextstorage;
+
+import com.nike.wingtips.util.SpanStack;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Holds the tracing state for a single context (normally a single thread) for a {@link TracingContextStorage}: the
+ * span stack currently registered with the context, plus a cleared-out spare stack left over from the context's last
+ * completed request. The spare is reused by the next request in the same context so that starting a request doesn't
+ * need to allocate a new stack or backing array.
+ *
+ * <p>A slot is not thread safe - it must only ever be used by the context it belongs to.
+ */
+public final class TracingContextSlot {
+
+    /**
+     * Span stacks with a backing array larger than this won't be kept around for reuse after a request completes, so
+     * that a thread which once handled a pathologically deep request doesn't hold on to a huge array forever.
+     */
+    public static final int MAX_REUSABLE_SPAN_STACK_CAPACITY = 64;
+
+    private SpanStack spanStack;
+    private SpanStack spare;
+
+    /**
+     * @return The span stack registered with this slot, or null if there isn't one.
+     */
+    public @Nullable SpanStack getSpanStack() {
+        return spanStack;
+    }
+
+    /**
+     * Registers the given span stack with this slot, replacing (but not recycling) any existing one.
+     *
+     * @param spanStack The span stack to register - may be null.
+     */
+    public void setSpanStack(@Nullable SpanStack spanStack) {
+        this.spanStack = spanStack;
+    }
+
+    /**
+     * @return The spare span stack if there is one (which is then no longer the spare), otherwise a new empty stack.
+     */
+    public @NotNull SpanStack takeSpareOrCreateNewSpanStack() {
+        SpanStack result = spare;
+        if (result == null)
+            return new SpanStack();
+
+        spare = null;
+        return result;
+    }
+
+    /**
+     * Clears out and unregisters the span stack registered with this slot, keeping it as the spare for reuse if it's
+     * not too big. Only call this if the stack has not been handed out to anyone else.
+     */
+    public void recycleSpanStack() {
+        SpanStack recycleMe = spanStack;
+        spanStack = null;
+        if (recycleMe != null) {
+            recycleMe.clear();
+            if (recycleMe.capacity() <= MAX_REUSABLE_SPAN_STACK_CAPACITY)
+                spare = recycleMe;
+        }
+    }
+
+}
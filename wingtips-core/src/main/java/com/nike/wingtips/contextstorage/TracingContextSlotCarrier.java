@@ -0,0 +1,21 @@
+package com.nike.wingtips.contextstorage;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Implemented by {@link Thread} subclasses that keep their own {@link TracingContextSlot} in a dedicated field (e.g.
+ * {@link TracingThread}), so that {@link TracingThreadContextStorage} can find the current thread's slot with a type
+ * check and a field read instead of a {@link ThreadLocal} lookup.
+ *
+ * <p>This is an interface rather than a base class so that threads which must extend some other class (e.g. Netty's
+ * {@code FastThreadLocalThread}) can implement it too.
+ */
+public interface TracingContextSlotCarrier {
+
+    /**
+     * @return The slot for this thread - never null, and always the same instance. This must only be called by the
+     * thread that owns the slot.
+     */
+    @NotNull TracingContextSlot getTracingContextSlot();
+
+}
@@ -0,0 +1,33 @@
+package com.nike.wingtips.contextstorage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Pluggable storage for {@link com.nike.wingtips.Tracer} that determines where the "current" tracing context lives -
+ * i.e. which {@link TracingContextSlot} (and therefore which span stack) belongs to the code that is currently
+ * executing. Call {@link com.nike.wingtips.Tracer#setTracingContextStorage(TracingContextStorage)} to tell the tracer
+ * to use a specific storage.
+ *
+ * <p>The default is {@link ThreadLocalTracingContextStorage}, which keeps one slot per thread in a {@link ThreadLocal}.
+ * Alternative implementations can use a cheaper lookup for the threads they know about (e.g. a field on a custom
+ * {@link Thread} subclass), and should fall back to another storage for any other threads.
+ *
+ * <p>NOTE: These methods are called on every {@link com.nike.wingtips.Tracer} operation, including {@link
+ * com.nike.wingtips.Tracer#getCurrentSpan()}, so implementations must be extremely lightweight. They must also always
+ * return the same slot for the same context, since the slot holds the context's span stack.
+ */
+public interface TracingContextStorage {
+
+    /**
+     * @return The slot for the current context, or null if one hasn't been created yet (see {@link
+     * #getOrCreateCurrentSlot()}).
+     */
+    @Nullable TracingContextSlot getCurrentSlot();
+
+    /**
+     * @return The slot for the current context, creating one if necessary - never null.
+     */
+    @NotNull TracingContextSlot getOrCreateCurrentSlot();
+
+}
@@ -0,0 +1,27 @@
+package com.nike.wingtips.contextstorage;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link Thread} that keeps its {@link TracingContextSlot} (and therefore its span stack) in a dedicated field, so
+ * that {@link TracingThreadContextStorage} can look it up without going through a {@link ThreadLocal}. See {@link
+ * TracingThreadFactory} for an easy way to create these.
+ */
+public class TracingThread extends Thread implements TracingContextSlotCarrier {
+
+    private final TracingContextSlot tracingContextSlot = new TracingContextSlot();
+
+    public TracingThread(Runnable target, String name) {
+        super(target, name);
+    }
+
+    public TracingThread(ThreadGroup group, Runnable target, String name) {
+        super(group, target, name);
+    }
+
+    @Override
+    public @NotNull TracingContextSlot getTracingContextSlot() {
+        return tracingContextSlot;
+    }
+
+}
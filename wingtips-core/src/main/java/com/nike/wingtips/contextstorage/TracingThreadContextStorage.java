@@ -0,0 +1,66 @@
+package com.nike.wingtips.contextstorage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link TracingContextStorage} for threads that carry their own {@link TracingContextSlot} (see {@link
+ * TracingContextSlotCarrier} and {@link TracingThread}). For those threads the slot is found with a type check and a
+ * field read, which is cheaper than the {@link ThreadLocal} map lookup done by {@link
+ * ThreadLocalTracingContextStorage}. That adds up on event loop threads (e.g. Netty or Project Reactor), where {@link
+ * com.nike.wingtips.Tracer} is called for every operator hop. Any other thread falls back to a delegate storage.
+ *
+ * <p>Threads only carry a slot if they were created that way, so install this with {@link
+ * com.nike.wingtips.Tracer#setTracingContextStorage(TracingContextStorage)} and create your event loop threads with a
+ * {@link TracingThreadFactory}.
+ */
+public class TracingThreadContextStorage implements TracingContextStorage {
+
+    private static final TracingThreadContextStorage DEFAULT_INSTANCE =
+        new TracingThreadContextStorage(ThreadLocalTracingContextStorage.getDefaultInstance());
+
+    protected final TracingContextStorage fallbackStorage;
+
+    /**
+     * @param fallbackStorage The storage to use for threads that don't carry their own slot - cannot be null.
+     */
+    public TracingThreadContextStorage(@NotNull TracingContextStorage fallbackStorage) {
+        //noinspection ConstantConditions
+        if (fallbackStorage == null) {
+            throw new IllegalArgumentException("fallbackStorage cannot be null");
+        }
+
+        this.fallbackStorage = fallbackStorage;
+    }
+
+    /**
+     * @return The default shared instance of this class, which falls back to {@link
+     * ThreadLocalTracingContextStorage#getDefaultInstance()} for threads that don't carry their own slot. Since that's
+     * also the {@link com.nike.wingtips.Tracer} default, switching to this instance doesn't lose track of the span
+     * stacks of any other threads.
+     */
+    public static TracingThreadContextStorage getDefaultInstance() {
+        return DEFAULT_INSTANCE;
+    }
+
+    @Override
+    public @Nullable TracingContextSlot getCurrentSlot() {
+        Thread currentThread = Thread.currentThread();
+        if (currentThread instanceof TracingContextSlotCarrier) {
+            return ((TracingContextSlotCarrier) currentThread).getTracingContextSlot();
+        }
+
+        return fallbackStorage.getCurrentSlot();
+    }
+
+    @Override
+    public @NotNull TracingContextSlot getOrCreateCurrentSlot() {
+        Thread currentThread = Thread.currentThread();
+        if (currentThread instanceof TracingContextSlotCarrier) {
+            return ((TracingContextSlotCarrier) currentThread).getTracingContextSlot();
+        }
+
+        return fallbackStorage.getOrCreateCurrentSlot();
+    }
+
+}
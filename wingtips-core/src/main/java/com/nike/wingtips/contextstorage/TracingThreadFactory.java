@@ -0,0 +1,168 @@
+package com.nike.wingtips.contextstorage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link ThreadFactory} that creates {@link TracingThread}s (see {@link TracingThreadContextStorage}). There are two
+ * ways to tell it how the new threads should be set up:
+ * <ul>
+ *     <li>
+ *         {@link #TracingThreadFactory(String, boolean, int, Thread.UncaughtExceptionHandler)} - the name prefix,
+ *         daemon status, priority, and uncaught exception handler are given up front. Threads are named {@code
+ *         [namePrefix]-[counter]}. This is the preferred option since each new thread is the only thread created.
+ *     </li>
+ *     <li>
+ *         {@link #TracingThreadFactory(ThreadFactory)} - the name, daemon status, priority, and uncaught exception
+ *         handler are copied from the thread a delegate factory creates. That thread is created only so its settings
+ *         can be copied, and is never started. This costs an extra {@link Thread} allocation (including a copy of
+ *         the creating thread's inheritable thread locals) per thread. And on Java 8, constructing a thread
+ *         permanently increments its {@link ThreadGroup}'s count of unstarted threads when it's never started, which
+ *         stops the group from ever being destroyed (daemon thread groups are never automatically destroyed, and
+ *         {@link ThreadGroup#destroy()} throws). That's harmless for the usual long-lived thread groups, but avoid
+ *         this option for delegates that put their threads in short-lived groups, or for pools that create threads
+ *         at a high rate.
+ *     </li>
+ * </ul>
+ *
+ * <p>Override {@link #createTracingThread(Runnable, String)} and/or {@link #createTracingThread(Thread, Runnable)} if
+ * you need the new threads to be some other subclass of {@link TracingThread}, e.g. to keep a marker interface the
+ * delegate's threads implement.
+ */
+@SuppressWarnings("WeakerAccess")
+public class TracingThreadFactory implements ThreadFactory {
+
+    protected final @Nullable ThreadFactory delegate;
+
+    protected final @Nullable String namePrefix;
+    protected final boolean daemon;
+    protected final int priority;
+    protected final @Nullable Thread.UncaughtExceptionHandler uncaughtExceptionHandler;
+    protected final AtomicLong threadCounter = new AtomicLong();
+
+    /**
+     * Creates a factory that copies the thread settings of the given delegate factory. See the class javadocs for
+     * the costs of this option compared to {@link #TracingThreadFactory(String, boolean, int,
+     * Thread.UncaughtExceptionHandler)}.
+     *
+     * @param delegate The factory whose thread settings should be copied - cannot be null.
+     */
+    public TracingThreadFactory(@NotNull ThreadFactory delegate) {
+        //noinspection ConstantConditions
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate cannot be null");
+        }
+
+        this.delegate = delegate;
+        this.namePrefix = null;
+        this.daemon = false;
+        this.priority = Thread.NORM_PRIORITY;
+        this.uncaughtExceptionHandler = null;
+    }
+
+    /**
+     * Creates a factory that uses the given thread settings.
+     *
+     * @param namePrefix The prefix for the thread names - cannot be null. Threads are named {@code
+     * [namePrefix]-[counter]}, where the counter starts at 1.
+     * @param daemon The daemon status for the threads.
+     * @param priority The priority for the threads - must be between {@link Thread#MIN_PRIORITY} and {@link
+     * Thread#MAX_PRIORITY} (inclusive).
+     * @param uncaughtExceptionHandler The uncaught exception handler for the threads - may be null, in which case
+     * the threads use their {@link ThreadGroup} (the normal {@link Thread} default).
+     */
+    public TracingThreadFactory(
+        @NotNull String namePrefix,
+        boolean daemon,
+        int priority,
+        @Nullable Thread.UncaughtExceptionHandler uncaughtExceptionHandler
+    ) {
+        //noinspection ConstantConditions
+        if (namePrefix == null) {
+            throw new IllegalArgumentException("namePrefix cannot be null");
+        }
+
+        if (priority < Thread.MIN_PRIORITY || priority > Thread.MAX_PRIORITY) {
+            throw new IllegalArgumentException(
+                "priority must be between " + Thread.MIN_PRIORITY + " and " + Thread.MAX_PRIORITY + " (inclusive)"
+            );
+        }
+
+        this.delegate = null;
+        this.namePrefix = namePrefix;
+        this.daemon = daemon;
+        this.priority = priority;
+        this.uncaughtExceptionHandler = uncaughtExceptionHandler;
+    }
+
+    /**
+     * @param delegate The factory to wrap - cannot be null.
+     * @return The given factory if it's already a {@link TracingThreadFactory}, otherwise a new {@link
+     * TracingThreadFactory} that copies the given factory's thread settings (see {@link
+     * #TracingThreadFactory(ThreadFactory)}).
+     */
+    public static @NotNull TracingThreadFactory withTracingThreads(@NotNull ThreadFactory delegate) {
+        if (delegate instanceof TracingThreadFactory) {
+            return (TracingThreadFactory) delegate;
+        }
+
+        return new TracingThreadFactory(delegate);
+    }
+
+    @Override
+    public Thread newThread(@NotNull Runnable r) {
+        if (delegate == null) {
+            return newThreadFromSettings(r);
+        }
+
+        Thread prototype = delegate.newThread(r);
+        if (prototype == null || prototype instanceof TracingContextSlotCarrier) {
+            // The delegate refused to create a thread, or already creates threads with their own slot.
+            return prototype;
+        }
+
+        Thread thread = createTracingThread(prototype, r);
+        thread.setDaemon(prototype.isDaemon());
+        thread.setPriority(prototype.getPriority());
+        thread.setUncaughtExceptionHandler(prototype.getUncaughtExceptionHandler());
+        return thread;
+    }
+
+    protected @NotNull Thread newThreadFromSettings(@NotNull Runnable r) {
+        Thread thread = createTracingThread(r, namePrefix + "-" + threadCounter.incrementAndGet());
+        thread.setDaemon(daemon);
+        thread.setPriority(priority);
+        if (uncaughtExceptionHandler != null) {
+            thread.setUncaughtExceptionHandler(uncaughtExceptionHandler);
+        }
+        return thread;
+    }
+
+    /**
+     * Used when this factory was created with explicit thread settings.
+     *
+     * @param r The task for the new thread.
+     * @param name The name for the new thread.
+     * @return A new {@link TracingThread} for the given task. The daemon status, priority, and uncaught exception
+     * handler are set after this returns.
+     */
+    protected @NotNull TracingThread createTracingThread(@NotNull Runnable r, @NotNull String name) {
+        return new TracingThread(r, name);
+    }
+
+    /**
+     * Used when this factory copies the thread settings of a delegate factory.
+     *
+     * @param prototype The (never started) thread created by the delegate factory.
+     * @param r The task for the new thread.
+     * @return A new {@link TracingThread} for the given task. The daemon status, priority, and uncaught exception
+     * handler are copied from the prototype after this returns.
+     */
+    protected @NotNull TracingThread createTracingThread(@NotNull Thread prototype, @NotNull Runnable r) {
+        return new TracingThread(prototype.getThreadGroup(), r, prototype.getName());
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.nike.wingtips.http.propagation;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.http.HttpObjectForPropagation;
+import com.nike.wingtips.http.HttpRequestTracingUtils;
+import com.nike.wingtips.http.RequestWithHeaders;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * A {@link PropagationCodec} for the classic multi-header B3 format - {@code X-B3-TraceId}, {@code X-B3-SpanId},
+ * {@code X-B3-ParentSpanId}, {@code X-B3-Sampled}, and Wingtips' own {@code X-B3-SpanName} (see {@link
+ * com.nike.wingtips.TraceHeaders}). This is the format Wingtips has always used, and is the default codec everywhere.
+ *
+ * <p>This simply delegates to {@link HttpRequestTracingUtils#fromRequestWithHeaders(RequestWithHeaders, List)} and
+ * {@link HttpRequestTracingUtils#propagateTracingHeaders(HttpObjectForPropagation, Span)}, so see those methods for
+ * the full details.
+ */
+public class B3MultiHeaderPropagationCodec extends PropagationCodec {
+
+    protected static final B3MultiHeaderPropagationCodec DEFAULT_INSTANCE = new B3MultiHeaderPropagationCodec();
+
+    /**
+     * @return A reusable, thread-safe, singleton instance of this class.
+     */
+    public static B3MultiHeaderPropagationCodec getDefaultInstance() {
+        return DEFAULT_INSTANCE;
+    }
+
+    @Override
+    public @Nullable Span extractSpan(
+        @Nullable RequestWithHeaders request,
+        @Nullable List<String> userIdHeaderKeys
+    ) {
+        return HttpRequestTracingUtils.fromRequestWithHeaders(request, userIdHeaderKeys);
+    }
+
+    @Override
+    public void injectTracingHeaders(
+        @Nullable HttpObjectForPropagation httpObjectForPropagation,
+        @Nullable Span span
+    ) {
+        HttpRequestTracingUtils.propagateTracingHeaders(httpObjectForPropagation, span);
+    }
+}
@@ -0,0 +1,177 @@
+package com.nike.wingtips.http.propagation;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.http.HttpObjectForPropagation;
+import com.nike.wingtips.http.HttpRequestTracingUtils;
+import com.nike.wingtips.http.RequestWithHeaders;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * A {@link PropagationCodec} for the <a href="https://github.com/openzipkin/b3-propagation#single-header">single
+ * header B3 format</a>: a single {@code b3} header with a value of {@code {TraceId}-{SpanId}-{SamplingState}-
+ * {ParentSpanId}}, where the sampling state and parent span ID are optional (but the parent span ID can only be sent
+ * along with a sampling state). The trace ID is 16 or 32 lowercase hex characters, the span IDs are 16 lowercase hex
+ * characters, and the sampling state is {@code 1} (sampled), {@code 0} (not sampled), or {@code d} (debug, which
+ * Wingtips treats as sampled).
+ *
+ * <p>The header is parsed in a single pass over its chars straight into the numeric trace/span IDs on the resulting
+ * {@link Span} (see {@link Span.Builder#withTraceId(long, long)}), without creating any substrings. Headers that
+ * don't match the format are ignored (i.e. {@link #extractSpan(RequestWithHeaders, List)} returns null), as are
+ * sampling-only headers like {@code b3: 0} since there's no trace to continue - a sampling decision on its own can't
+ * be carried by the parent span.
+ *
+ * <p>There's no span name in this format, so extracted spans are named {@link
+ * HttpRequestTracingUtils#UNSPECIFIED_SPAN_NAME}.
+ */
+public class B3SingleHeaderPropagationCodec extends PropagationCodec {
+
+    /**
+     * The name of the single B3 header.
+     */
+    public static final String B3_HEADER = "b3";
+
+    protected static final B3SingleHeaderPropagationCodec DEFAULT_INSTANCE = new B3SingleHeaderPropagationCodec();
+
+    /**
+     * @return A reusable, thread-safe, singleton instance of this class.
+     */
+    public static B3SingleHeaderPropagationCodec getDefaultInstance() {
+        return DEFAULT_INSTANCE;
+    }
+
+    @Override
+    public @Nullable Span extractSpan(
+        @Nullable RequestWithHeaders request,
+        @Nullable List<String> userIdHeaderKeys
+    ) {
+        if (request == null) {
+            return null;
+        }
+
+        String b3 = getHeaderWithAttributeAsBackup(request, B3_HEADER);
+        if (b3 == null) {
+            return null;
+        }
+
+        Span.Builder builder = parseB3(b3);
+        if (builder == null) {
+            return null;
+        }
+
+        return builder
+            .withUserId(HttpRequestTracingUtils.getUserIdFromRequestWithHeaders(request, userIdHeaderKeys))
+            .build();
+    }
+
+    /**
+     * Parses the given {@code b3} header value.
+     *
+     * @return A {@link Span.Builder} with the trace ID, span ID, parent span ID and sampleable flag from the given
+     * value, or null if the value is not a valid {@code b3} header value (or only carries a sampling state).
+     */
+    protected @Nullable Span.Builder parseB3(@NotNull String b3) {
+        int begin = 0;
+        int end = b3.length();
+        while (begin < end && b3.charAt(begin) <= ' ') {
+            begin++;
+        }
+        while (end > begin && b3.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        // Trace ID - 16 or 32 lowerhex chars, ending at the first dash.
+        long traceIdHigh = 0;
+        long traceIdLow = 0;
+        int pos = begin;
+        while (pos < end && b3.charAt(pos) != '-') {
+            int digit = lowerHexDigitValue(b3.charAt(pos));
+            if (digit < 0) {
+                return null;
+            }
+            traceIdHigh = (traceIdHigh << 4) | (traceIdLow >>> 60);
+            traceIdLow = (traceIdLow << 4) | digit;
+            pos++;
+        }
+        int traceIdLength = pos - begin;
+        if ((traceIdLength != 16 && traceIdLength != 32) || pos == end) {
+            // Wrong size, or a sampling-only header (or a trace ID without a span ID).
+            return null;
+        }
+
+        // Span ID - exactly 16 lowerhex chars.
+        int spanIdBegin = pos + 1;
+        int spanIdEnd = spanIdBegin + 16;
+        if (spanIdEnd > end || !isLowerHex(b3, spanIdBegin, spanIdEnd)) {
+            return null;
+        }
+        long spanId = parseLowerHex(b3, spanIdBegin, spanIdEnd);
+
+        boolean sampleable = true;
+        long parentSpanId = 0;
+        boolean hasParentSpanId = false;
+        if (spanIdEnd < end) {
+            // Sampling state - a single char.
+            if (b3.charAt(spanIdEnd) != '-' || spanIdEnd + 2 > end) {
+                return null;
+            }
+            char samplingState = b3.charAt(spanIdEnd + 1);
+            if (samplingState == '0') {
+                sampleable = false;
+            }
+            else if (samplingState != '1' && samplingState != 'd') {
+                return null;
+            }
+
+            int samplingStateEnd = spanIdEnd + 2;
+            if (samplingStateEnd < end) {
+                // Parent span ID - exactly 16 lowerhex chars, and then nothing else.
+                int parentBegin = samplingStateEnd + 1;
+                if (b3.charAt(samplingStateEnd) != '-'
+                    || parentBegin + 16 != end
+                    || !isLowerHex(b3, parentBegin, end)
+                ) {
+                    return null;
+                }
+                parentSpanId = parseLowerHex(b3, parentBegin, end);
+                hasParentSpanId = true;
+            }
+        }
+
+        Span.Builder builder = Span.newBuilder(HttpRequestTracingUtils.UNSPECIFIED_SPAN_NAME, SpanPurpose.CLIENT)
+                                   .withTraceId(traceIdHigh, traceIdLow)
+                                   .withSpanId(spanId)
+                                   .withSampleable(sampleable);
+        if (hasParentSpanId) {
+            builder.withParentSpanId(parentSpanId);
+        }
+        return builder;
+    }
+
+    @Override
+    public void injectTracingHeaders(
+        @Nullable HttpObjectForPropagation httpObjectForPropagation,
+        @Nullable Span span
+    ) {
+        if (span == null || httpObjectForPropagation == null) {
+            return;
+        }
+
+        // 32 (trace ID) + 1 + 16 (span ID) + 2 (sampling state) + 17 (parent span ID).
+        StringBuilder sb = new StringBuilder(68);
+        appendTraceId(sb, span);
+        sb.append('-');
+        appendSpanId(sb, span);
+        sb.append('-').append(span.isSampleable() ? '1' : '0');
+        if (span.hasNumericParentSpanId() || span.getParentSpanId() != null) {
+            sb.append('-');
+            appendParentSpanId(sb, span);
+        }
+
+        httpObjectForPropagation.setHeader(B3_HEADER, sb.toString());
+    }
+}
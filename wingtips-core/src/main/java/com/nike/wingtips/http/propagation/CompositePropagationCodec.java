@@ -0,0 +1,83 @@
+package com.nike.wingtips.http.propagation;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.http.HttpObjectForPropagation;
+import com.nike.wingtips.http.RequestWithHeaders;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link PropagationCodec} that combines several codecs. {@link #extractSpan(RequestWithHeaders, List)} returns the
+ * span from the first codec (in list order) that finds one, and {@link
+ * #injectTracingHeaders(HttpObjectForPropagation, Span)} writes the headers of every codec.
+ *
+ * <p>This is mainly useful while migrating services from one format to another - e.g. a composite of {@link
+ * W3CTraceContextPropagationCodec} and {@link B3MultiHeaderPropagationCodec} accepts either format from callers
+ * (preferring {@code traceparent} when both are sent), and sends both to downstream services so they keep working
+ * whichever format they understand.
+ */
+public class CompositePropagationCodec extends PropagationCodec {
+
+    protected final List<PropagationCodec> codecs;
+
+    /**
+     * @param codecs The codecs to combine, in priority order - cannot be null or empty, and cannot contain nulls.
+     */
+    public CompositePropagationCodec(@NotNull List<? extends PropagationCodec> codecs) {
+        //noinspection ConstantConditions
+        if (codecs == null || codecs.isEmpty()) {
+            throw new IllegalArgumentException("codecs cannot be null or empty");
+        }
+
+        if (codecs.contains(null)) {
+            throw new IllegalArgumentException("codecs cannot contain null");
+        }
+
+        this.codecs = Collections.unmodifiableList(new ArrayList<>(codecs));
+    }
+
+    /**
+     * @return The codecs this composite delegates to, in priority order.
+     */
+    public @NotNull List<PropagationCodec> getCodecs() {
+        return codecs;
+    }
+
+    @Override
+    public @Nullable Span extractSpan(
+        @Nullable RequestWithHeaders request,
+        @Nullable List<String> userIdHeaderKeys
+    ) {
+        if (request == null) {
+            return null;
+        }
+
+        for (int i = 0; i < codecs.size(); i++) {
+            Span span = codecs.get(i).extractSpan(request, userIdHeaderKeys);
+            if (span != null) {
+                return span;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void injectTracingHeaders(
+        @Nullable HttpObjectForPropagation httpObjectForPropagation,
+        @Nullable Span span
+    ) {
+        if (span == null || httpObjectForPropagation == null) {
+            return;
+        }
+
+        for (int i = 0; i < codecs.size(); i++) {
+            codecs.get(i).injectTracingHeaders(httpObjectForPropagation, span);
+        }
+    }
+}
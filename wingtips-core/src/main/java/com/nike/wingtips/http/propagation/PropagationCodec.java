@@ -0,0 +1,183 @@
+package com.nike.wingtips.http.propagation;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.http.HttpObjectForPropagation;
+import com.nike.wingtips.http.RequestWithHeaders;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Defines how tracing info travels between services over HTTP - which headers the caller's span is read from when a
+ * request comes in (see {@link #extractSpan(RequestWithHeaders, List)}), and which headers the current span is
+ * written to for outgoing requests (see {@link #injectTracingHeaders(HttpObjectForPropagation, Span)}).
+ *
+ * <p>Wingtips ships with these implementations:
+ * <ul>
+ *     <li>
+ *         {@link B3MultiHeaderPropagationCodec} - the classic {@code X-B3-*} headers (see {@link
+ *         com.nike.wingtips.TraceHeaders}). This is the default everywhere.
+ *     </li>
+ *     <li>{@link B3SingleHeaderPropagationCodec} - the single {@code b3} header.</li>
+ *     <li>{@link W3CTraceContextPropagationCodec} - the W3C Trace Context {@code traceparent} header.</li>
+ *     <li>
+ *         {@link CompositePropagationCodec} - combines several codecs, e.g. to accept any of the formats while
+ *         migrating a fleet of services from one format to another.
+ *     </li>
+ * </ul>
+ *
+ * {@link PropagationCodecFactory} can create any of these from a short name (e.g. from a config file).
+ *
+ * <p>Implementations must be thread safe.
+ */
+public abstract class PropagationCodec {
+
+    private static final char[] LOWER_HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Extracts the caller's span from the given request's headers. This is intended to be used by a server receiving
+     * a request, so like {@link
+     * com.nike.wingtips.http.HttpRequestTracingUtils#fromRequestWithHeaders(RequestWithHeaders, List)} the returned
+     * span has a {@link Span#getSpanPurpose()} of {@link Span.SpanPurpose#CLIENT}, and it's only meant to be the
+     * parent of the server's request span - it should *NOT* be completed or recorded.
+     *
+     * @param request The incoming request - if this is null then this method will return null.
+     * @param userIdHeaderKeys The header keys to search (in list order) for a user ID to set on the returned span -
+     * may be null or empty.
+     * @return A {@link Span} representing the caller's span, or null if the request is null or doesn't contain
+     * valid tracing headers for this codec.
+     */
+    public abstract @Nullable Span extractSpan(
+        @Nullable RequestWithHeaders request,
+        @Nullable List<String> userIdHeaderKeys
+    );
+
+    /**
+     * Sets this codec's tracing headers on the given {@link HttpObjectForPropagation} with values from the given
+     * {@link Span}. Does nothing if any of the given arguments are null.
+     *
+     * @param httpObjectForPropagation The {@link HttpObjectForPropagation} to set tracing headers on - may be null.
+     * @param span The {@link Span} to get the tracing info from - may be null.
+     */
+    public abstract void injectTracingHeaders(
+        @Nullable HttpObjectForPropagation httpObjectForPropagation,
+        @Nullable Span span
+    );
+
+    /**
+     * Returns the given header from {@link RequestWithHeaders#getHeader(String)}, falling back to {@link
+     * RequestWithHeaders#getAttribute(String)} if the header is missing or empty (the same lookup {@link
+     * com.nike.wingtips.http.HttpRequestTracingUtils} uses for the B3 headers). Unlike that lookup, the result is not
+     * trimmed - codecs that parse the value skip leading and trailing whitespace themselves rather than creating a
+     * trimmed copy.
+     */
+    protected static @Nullable String getHeaderWithAttributeAsBackup(
+        @NotNull RequestWithHeaders request,
+        @NotNull String headerName
+    ) {
+        String result = request.getHeader(headerName);
+        if (result != null && result.length() > 0) {
+            return result;
+        }
+
+        Object attribute = request.getAttribute(headerName);
+        return (attribute == null) ? result : attribute.toString();
+    }
+
+    /**
+     * @return The value of the given lowercase hex digit, or -1 if the given char is not a lowercase hex digit.
+     */
+    protected static int lowerHexDigitValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * @return true if every char in the given range is a lowercase hex digit (and the range is not empty), false
+     * otherwise.
+     */
+    protected static boolean isLowerHex(@NotNull CharSequence chars, int beginIndex, int endIndex) {
+        if (beginIndex >= endIndex) {
+            return false;
+        }
+
+        for (int i = beginIndex; i < endIndex; i++) {
+            if (lowerHexDigitValue(chars.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the given range of lowercase hex digits into a long without creating a substring. The range must have
+     * already been validated with {@link #isLowerHex(CharSequence, int, int)}, and only the last 16 digits matter
+     * (any higher bits are shifted out).
+     */
+    protected static long parseLowerHex(@NotNull CharSequence chars, int beginIndex, int endIndex) {
+        long result = 0;
+        for (int i = beginIndex; i < endIndex; i++) {
+            result = (result << 4) | lowerHexDigitValue(chars.charAt(i));
+        }
+        return result;
+    }
+
+    /**
+     * Appends the given value to the given {@link StringBuilder} as 16 lowercase hex digits.
+     */
+    protected static void appendLowerHex(@NotNull StringBuilder sb, long value) {
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            sb.append(LOWER_HEX_DIGITS[(int) ((value >>> shift) & 0xf)]);
+        }
+    }
+
+    /**
+     * Appends the given span's trace ID to the given {@link StringBuilder}. A numeric trace ID (see {@link
+     * Span#hasNumericTraceId()}) is written straight from its longs, so its {@link Span#getTraceId()} String never
+     * needs to be rendered.
+     */
+    protected static void appendTraceId(@NotNull StringBuilder sb, @NotNull Span span) {
+        if (span.hasNumericTraceId()) {
+            if (span.getTraceIdHigh() != 0) {
+                appendLowerHex(sb, span.getTraceIdHigh());
+            }
+            appendLowerHex(sb, span.getTraceIdLow());
+        }
+        else {
+            sb.append(span.getTraceId());
+        }
+    }
+
+    /**
+     * Appends the given span's span ID to the given {@link StringBuilder}, straight from {@link
+     * Span#getSpanIdAsLong()} if the span carries it in numeric form.
+     */
+    protected static void appendSpanId(@NotNull StringBuilder sb, @NotNull Span span) {
+        if (span.hasNumericSpanId()) {
+            appendLowerHex(sb, span.getSpanIdAsLong());
+        }
+        else {
+            sb.append(span.getSpanId());
+        }
+    }
+
+    /**
+     * Appends the given span's parent span ID to the given {@link StringBuilder}, straight from {@link
+     * Span#getParentSpanIdAsLong()} if the span carries it in numeric form. The span must have a parent span ID.
+     */
+    protected static void appendParentSpanId(@NotNull StringBuilder sb, @NotNull Span span) {
+        if (span.hasNumericParentSpanId()) {
+            appendLowerHex(sb, span.getParentSpanIdAsLong());
+        }
+        else {
+            sb.append(span.getParentSpanId());
+        }
+    }
+}
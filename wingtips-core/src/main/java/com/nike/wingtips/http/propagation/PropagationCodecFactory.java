@@ -0,0 +1,93 @@
+package com.nike.wingtips.http.propagation;
+
+import com.nike.internal.util.StringUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates {@link PropagationCodec} instances from simple configuration values, e.g. for wiring a codec up from a
+ * Servlet filter init param or a Spring Boot properties file. See {@link #createPropagationCodec(String)} for the
+ * supported codec names.
+ */
+public class PropagationCodecFactory {
+
+    // Intentionally protected - use the static methods.
+    protected PropagationCodecFactory() { }
+
+    /**
+     * Creates the {@link PropagationCodec} with the given name(s). The following short names are understood (case
+     * insensitive):
+     * <ul>
+     *     <li>
+     *         {@code B3} or {@code B3_MULTI} (or a null/blank {@code codecNames}) - {@link
+     *         B3MultiHeaderPropagationCodec}
+     *     </li>
+     *     <li>{@code B3_SINGLE} - {@link B3SingleHeaderPropagationCodec}</li>
+     *     <li>{@code W3C} - {@link W3CTraceContextPropagationCodec}</li>
+     * </ul>
+     *
+     * Any name that does not match one of those short names is assumed to be the fully qualified class name of a
+     * {@link PropagationCodec} with a default no-arg constructor.
+     *
+     * <p>You can pass a comma-delimited list of names (e.g. {@code "W3C,B3"}) to get a {@link
+     * CompositePropagationCodec} that reads the first format it finds (in list order) from incoming requests and
+     * writes all of the formats to outgoing requests.
+     *
+     * @param codecNames The short name or fully qualified class name of the codec, or a comma-delimited list of them
+     * - may be null.
+     * @return The {@link PropagationCodec} for the given name(s).
+     * @throws IllegalArgumentException if a name is not a short name and can't be instantiated as a {@link
+     * PropagationCodec}.
+     */
+    public static PropagationCodec createPropagationCodec(String codecNames) {
+        if (StringUtils.isBlank(codecNames)) {
+            return B3MultiHeaderPropagationCodec.getDefaultInstance();
+        }
+
+        List<PropagationCodec> codecs = new ArrayList<>();
+        for (String codecName : codecNames.split(",")) {
+            String trimmedCodecName = codecName.trim();
+            if (trimmedCodecName.length() > 0) {
+                codecs.add(createSinglePropagationCodec(trimmedCodecName));
+            }
+        }
+
+        if (codecs.isEmpty()) {
+            return B3MultiHeaderPropagationCodec.getDefaultInstance();
+        }
+
+        return (codecs.size() == 1) ? codecs.get(0) : new CompositePropagationCodec(codecs);
+    }
+
+    protected static PropagationCodec createSinglePropagationCodec(String codecName) {
+        if ("b3".equalsIgnoreCase(codecName) || "b3_multi".equalsIgnoreCase(codecName)) {
+            return B3MultiHeaderPropagationCodec.getDefaultInstance();
+        }
+
+        if ("b3_single".equalsIgnoreCase(codecName)) {
+            return B3SingleHeaderPropagationCodec.getDefaultInstance();
+        }
+
+        if ("w3c".equalsIgnoreCase(codecName)) {
+            return W3CTraceContextPropagationCodec.getDefaultInstance();
+        }
+
+        // At this point there was no short-name match. Try instantiating it by classname.
+        try {
+            return (PropagationCodec) Class.forName(codecName).getDeclaredConstructor().newInstance();
+        }
+        catch (InvocationTargetException ex) {
+            // The codec's constructor threw - report what it threw rather than the reflection wrapper.
+            throw new IllegalArgumentException(
+                "Unable to create a PropagationCodec from codecName: " + codecName, ex.getCause()
+            );
+        }
+        catch (Exception ex) {
+            throw new IllegalArgumentException(
+                "Unable to create a PropagationCodec from codecName: " + codecName, ex
+            );
+        }
+    }
+}
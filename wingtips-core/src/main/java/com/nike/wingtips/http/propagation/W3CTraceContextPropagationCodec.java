@@ -0,0 +1,225 @@
+package com.nike.wingtips.http.propagation;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.http.HttpObjectForPropagation;
+import com.nike.wingtips.http.HttpRequestTracingUtils;
+import com.nike.wingtips.http.RequestWithHeaders;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * A {@link PropagationCodec} for the <a href="https://www.w3.org/TR/trace-context/">W3C Trace Context</a> {@code
+ * traceparent} header: {@code {version}-{trace-id}-{parent-id}-{trace-flags}}, e.g. {@code
+ * 00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01}. The trace ID is 32 lowercase hex characters, the parent
+ * ID (the caller's span ID) is 16 lowercase hex characters, and the lowest bit of the trace flags is the sampled flag.
+ *
+ * <p>The header is parsed straight into the numeric trace/span IDs on the resulting {@link Span} (see {@link
+ * Span.Builder#withTraceId(long, long)}), without creating any substrings. Per the spec, headers with an unknown
+ * format are ignored (i.e. {@link #extractSpan(RequestWithHeaders, List)} returns null), as are all-zero trace or
+ * parent IDs. Versions above {@code 00} are accepted as long as they start with the version {@code 00} fields.
+ *
+ * <p>When injecting, 64-bit trace IDs are left-padded with zeros to 32 characters. Spans whose IDs are not lowercase
+ * hex (possible if a caller sent non-hex IDs in the B3 headers) can't be represented in this format, so no {@code
+ * traceparent} header is sent for them.
+ *
+ * <p>NOTE: The {@code tracestate} header is not propagated - Wingtips spans have nowhere to carry vendor-specific
+ * state from an incoming request to the outgoing calls made while handling it. Per the spec, downstream services then
+ * simply start with an empty {@code tracestate}. There's no span name in this format either, so extracted spans are
+ * named {@link HttpRequestTracingUtils#UNSPECIFIED_SPAN_NAME}.
+ */
+public class W3CTraceContextPropagationCodec extends PropagationCodec {
+
+    private static final Logger logger = LoggerFactory.getLogger(W3CTraceContextPropagationCodec.class);
+
+    /**
+     * The name of the W3C {@code traceparent} header.
+     */
+    public static final String TRACEPARENT_HEADER = "traceparent";
+    /**
+     * The name of the W3C {@code tracestate} header. Not used by this codec - see the class javadocs.
+     */
+    public static final String TRACESTATE_HEADER = "tracestate";
+
+    // "00-" + 32 + "-" + 16 + "-" + 2
+    protected static final int VERSION_00_TRACEPARENT_LENGTH = 55;
+    protected static final int TRACE_ID_BEGIN = 3;
+    protected static final int PARENT_ID_BEGIN = TRACE_ID_BEGIN + 33;
+    protected static final int TRACE_FLAGS_BEGIN = PARENT_ID_BEGIN + 17;
+    protected static final int SAMPLED_FLAG = 0x01;
+
+    protected static final W3CTraceContextPropagationCodec DEFAULT_INSTANCE = new W3CTraceContextPropagationCodec();
+
+    /**
+     * @return A reusable, thread-safe, singleton instance of this class.
+     */
+    public static W3CTraceContextPropagationCodec getDefaultInstance() {
+        return DEFAULT_INSTANCE;
+    }
+
+    @Override
+    public @Nullable Span extractSpan(
+        @Nullable RequestWithHeaders request,
+        @Nullable List<String> userIdHeaderKeys
+    ) {
+        if (request == null) {
+            return null;
+        }
+
+        String traceparent = getHeaderWithAttributeAsBackup(request, TRACEPARENT_HEADER);
+        if (traceparent == null) {
+            return null;
+        }
+
+        Span.Builder builder = parseTraceparent(traceparent);
+        if (builder == null) {
+            return null;
+        }
+
+        return builder
+            .withUserId(HttpRequestTracingUtils.getUserIdFromRequestWithHeaders(request, userIdHeaderKeys))
+            .build();
+    }
+
+    /**
+     * Parses the given {@code traceparent} header value.
+     *
+     * @return A {@link Span.Builder} with the trace ID, span ID and sampleable flag from the given value, or null if
+     * the value is not a valid {@code traceparent} header value.
+     */
+    protected @Nullable Span.Builder parseTraceparent(@NotNull String traceparent) {
+        int begin = 0;
+        int end = traceparent.length();
+        while (begin < end && traceparent.charAt(begin) <= ' ') {
+            begin++;
+        }
+        while (end > begin && traceparent.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        int length = end - begin;
+        if (length < VERSION_00_TRACEPARENT_LENGTH
+            || traceparent.charAt(begin + TRACE_ID_BEGIN - 1) != '-'
+            || traceparent.charAt(begin + PARENT_ID_BEGIN - 1) != '-'
+            || traceparent.charAt(begin + TRACE_FLAGS_BEGIN - 1) != '-'
+            || !isLowerHex(traceparent, begin, begin + TRACE_ID_BEGIN - 1)
+            || !isLowerHex(traceparent, begin + TRACE_ID_BEGIN, begin + PARENT_ID_BEGIN - 1)
+            || !isLowerHex(traceparent, begin + PARENT_ID_BEGIN, begin + TRACE_FLAGS_BEGIN - 1)
+            || !isLowerHex(traceparent, begin + TRACE_FLAGS_BEGIN, begin + VERSION_00_TRACEPARENT_LENGTH)
+        ) {
+            return null;
+        }
+
+        int version = (int) parseLowerHex(traceparent, begin, begin + 2);
+        if (version == 0xff
+            || (version == 0 && length != VERSION_00_TRACEPARENT_LENGTH)
+            || (length > VERSION_00_TRACEPARENT_LENGTH
+                && traceparent.charAt(begin + VERSION_00_TRACEPARENT_LENGTH) != '-')
+        ) {
+            // Version ff is forbidden, version 00 has no extra fields, and later versions must separate any extra
+            //      fields with a dash.
+            return null;
+        }
+
+        long traceIdHigh = parseLowerHex(traceparent, begin + TRACE_ID_BEGIN, begin + TRACE_ID_BEGIN + 16);
+        long traceIdLow = parseLowerHex(traceparent, begin + TRACE_ID_BEGIN + 16, begin + PARENT_ID_BEGIN - 1);
+        long parentId = parseLowerHex(traceparent, begin + PARENT_ID_BEGIN, begin + TRACE_FLAGS_BEGIN - 1);
+        int traceFlags = (int) parseLowerHex(
+            traceparent, begin + TRACE_FLAGS_BEGIN, begin + VERSION_00_TRACEPARENT_LENGTH
+        );
+
+        if ((traceIdHigh == 0 && traceIdLow == 0) || parentId == 0) {
+            return null;
+        }
+
+        return Span.newBuilder(HttpRequestTracingUtils.UNSPECIFIED_SPAN_NAME, SpanPurpose.CLIENT)
+                   .withTraceId(traceIdHigh, traceIdLow)
+                   .withSpanId(parentId)
+                   .withSampleable((traceFlags & SAMPLED_FLAG) != 0);
+    }
+
+    @Override
+    public void injectTracingHeaders(
+        @Nullable HttpObjectForPropagation httpObjectForPropagation,
+        @Nullable Span span
+    ) {
+        if (span == null || httpObjectForPropagation == null) {
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder(VERSION_00_TRACEPARENT_LENGTH);
+        sb.append("00-");
+        if (!appendPaddedTraceId(sb, span)) {
+            logger.debug("Unable to send a traceparent header - trace ID is not lowerhex: {}", span.getTraceId());
+            return;
+        }
+        sb.append('-');
+        if (!appendPaddedSpanId(sb, span)) {
+            logger.debug("Unable to send a traceparent header - span ID is not lowerhex: {}", span.getSpanId());
+            return;
+        }
+        sb.append(span.isSampleable() ? "-01" : "-00");
+
+        httpObjectForPropagation.setHeader(TRACEPARENT_HEADER, sb.toString());
+    }
+
+    /**
+     * Appends the given span's trace ID as 32 lowercase hex chars.
+     *
+     * @return false if the trace ID can't be represented in the {@code traceparent} format, true otherwise.
+     */
+    protected boolean appendPaddedTraceId(@NotNull StringBuilder sb, @NotNull Span span) {
+        if (span.hasNumericTraceId()) {
+            if (span.getTraceIdHigh() == 0 && span.getTraceIdLow() == 0) {
+                return false;
+            }
+            appendLowerHex(sb, span.getTraceIdHigh());
+            appendLowerHex(sb, span.getTraceIdLow());
+            return true;
+        }
+
+        return appendPaddedLowerHexId(sb, span.getTraceId(), 32);
+    }
+
+    /**
+     * Appends the given span's span ID as 16 lowercase hex chars.
+     *
+     * @return false if the span ID can't be represented in the {@code traceparent} format, true otherwise.
+     */
+    protected boolean appendPaddedSpanId(@NotNull StringBuilder sb, @NotNull Span span) {
+        if (span.hasNumericSpanId()) {
+            if (span.getSpanIdAsLong() == 0) {
+                return false;
+            }
+            appendLowerHex(sb, span.getSpanIdAsLong());
+            return true;
+        }
+
+        return appendPaddedLowerHexId(sb, span.getSpanId(), 16);
+    }
+
+    protected static boolean appendPaddedLowerHexId(@NotNull StringBuilder sb, @Nullable String id, int width) {
+        if (id == null || id.length() > width || !isLowerHex(id, 0, id.length())) {
+            return false;
+        }
+
+        boolean allZeros = true;
+        for (int i = 0; i < id.length() && allZeros; i++) {
+            allZeros = (id.charAt(i) == '0');
+        }
+        if (allZeros) {
+            return false;
+        }
+
+        for (int i = id.length(); i < width; i++) {
+            sb.append('0');
+        }
+        sb.append(id);
+        return true;
+    }
+}
@@ -0,0 +1,22 @@
+package com.nike.wingtips.idgeneration;
+
+/**
+ * Pluggable strategy for {@link com.nike.wingtips.TraceAndSpanIdGenerator} that produces the random 64-bit longs that
+ * trace and span IDs are built from. Call {@link
+ * com.nike.wingtips.TraceAndSpanIdGenerator#setIdGenerationStrategy(IdGenerationStrategy)} to tell the generator to use
+ * a specific strategy.
+ *
+ * <p>Implementations are called for every span that is started (often more than once per span), from many threads at
+ * once, so they must be thread safe and should avoid locking and allocation wherever possible.
+ *
+ * @see ThreadLocalRandomIdGenerationStrategy
+ * @see SecureRandomIdGenerationStrategy
+ */
+public interface IdGenerationStrategy {
+
+    /**
+     * @return A random long pulled from the full 64-bit random search space. This method must be thread safe.
+     */
+    long generate64BitRandomLong();
+
+}
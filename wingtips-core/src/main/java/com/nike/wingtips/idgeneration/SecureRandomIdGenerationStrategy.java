@@ -0,0 +1,102 @@
+package com.nike.wingtips.idgeneration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Random;
+
+/**
+ * An opt-in {@link IdGenerationStrategy} that pulls random bytes from a single shared {@link SecureRandom} instance
+ * ({@code SHA1PRNG} by default). This was the only ID generation behavior in older versions of Wingtips.
+ *
+ * <p>NOTE: Every call goes through the same {@link SecureRandom}, which synchronizes internally, so under heavy
+ * multithreaded load this strategy becomes a contention point. It also allocates a small byte array for every ID.
+ * Only use it if you specifically need {@link SecureRandom} - {@link ThreadLocalRandomIdGenerationStrategy} is the
+ * default and is recommended for most use cases.
+ */
+public class SecureRandomIdGenerationStrategy implements IdGenerationStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecureRandomIdGenerationStrategy.class);
+
+    /**
+     * The {@link SecureRandom} algorithm used by the default constructor.
+     */
+    public static final String DEFAULT_SECURE_RANDOM_ALGORITHM = "SHA1PRNG";
+
+    /**
+     * The random number generator this class will use to generate random numbers. Since we want the generated numbers
+     * to span the full set of 64 bit possibilities this should be a {@link SecureRandom} if at all possible (see {@link
+     * java.util.Random#nextLong()} for details on the default Random's limitations here). And since it will be used in
+     * a multithreaded and time sensitive environment it should not be a blocking {@link SecureRandom} instance (i.e. it
+     * should be a pseudorandom number generator, not a true random number generator which might need to block for
+     * entropy data).
+     */
+    protected final Random random;
+
+    /**
+     * Creates a new instance that uses the {@link #DEFAULT_SECURE_RANDOM_ALGORITHM} {@link SecureRandom}.
+     */
+    public SecureRandomIdGenerationStrategy() {
+        this(DEFAULT_SECURE_RANDOM_ALGORITHM);
+    }
+
+    /**
+     * Creates a new instance that uses the {@link SecureRandom} with the given algorithm. See {@link
+     * #getRandomInstance(String)} for what happens if the algorithm is not available.
+     *
+     * @param desiredSecureRandomImplementation The {@link SecureRandom} algorithm to use, e.g. {@code SHA1PRNG}.
+     */
+    public SecureRandomIdGenerationStrategy(String desiredSecureRandomImplementation) {
+        this(getRandomInstance(desiredSecureRandomImplementation));
+    }
+
+    /**
+     * Creates a new instance that uses the given {@link Random}. This will throw an {@link IllegalArgumentException}
+     * if you pass in null.
+     *
+     * @param random The {@link Random} to use - should be a non-blocking {@link SecureRandom} for full 64-bit IDs.
+     */
+    public SecureRandomIdGenerationStrategy(Random random) {
+        if (random == null) {
+            throw new IllegalArgumentException("random cannot be null");
+        }
+
+        this.random = random;
+    }
+
+    @Override
+    public long generate64BitRandomLong() {
+        byte[] random8Bytes = new byte[8];
+        random.nextBytes(random8Bytes);
+
+        // Implementation for this taken from java.util.UUID#UUID(byte[]).
+        long longVal = 0;
+        for (int i = 0; i < 8; i++) {
+            longVal = (longVal << 8) | (random8Bytes[i] & 0xff);
+        }
+
+        return longVal;
+    }
+
+    /**
+     * Tries to retrieve and return the {@link SecureRandom} with the given implementation using {@link
+     * SecureRandom#getInstance(String)}, and falls back to a {@code new Random(System.nanoTime())} if that instance
+     * could not be found.
+     */
+    public static Random getRandomInstance(String desiredSecureRandomImplementation) {
+        Random randomToUse;
+
+        try {
+            randomToUse = SecureRandom.getInstance(desiredSecureRandomImplementation);
+            randomToUse.setSeed(System.nanoTime());
+        } catch (NoSuchAlgorithmException e) {
+            logger.error("Unable to retrieve the {} SecureRandom instance. Defaulting to a new Random(System.nanoTime()) instead. NOTE: This means random longs will not cover " +
+                    "the full 64 bits of possible values! See the javadocs for Random.nextLong() for details. dtracer_error=true", desiredSecureRandomImplementation,  e);
+            randomToUse = new Random(System.nanoTime());
+        }
+
+        return randomToUse;
+    }
+}
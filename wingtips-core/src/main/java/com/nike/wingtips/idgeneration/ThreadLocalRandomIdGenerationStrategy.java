@@ -0,0 +1,34 @@
+package com.nike.wingtips.idgeneration;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The default {@link IdGenerationStrategy}. Uses {@link ThreadLocalRandom}, which keeps an independent generator per
+ * thread, so generating IDs never contends on a shared lock and never allocates no matter how many threads are
+ * starting spans at once.
+ *
+ * <p>On Java 8 and later {@link ThreadLocalRandom#nextLong()} produces values from the full 64-bit search space. On a
+ * Java 7 runtime {@link ThreadLocalRandom} inherits the 48-bit seed limitations of {@link java.util.Random#nextLong()},
+ * so if you're still running on Java 7 and need the full 64 bits you can opt into {@link
+ * SecureRandomIdGenerationStrategy} instead (at the cost of contention under load).
+ *
+ * <p>This class is stateless, so you can use the shared {@link #getDefaultInstance()} rather than creating new
+ * instances.
+ */
+public class ThreadLocalRandomIdGenerationStrategy implements IdGenerationStrategy {
+
+    private static final ThreadLocalRandomIdGenerationStrategy DEFAULT_INSTANCE =
+        new ThreadLocalRandomIdGenerationStrategy();
+
+    /**
+     * @return The shared default instance of this class.
+     */
+    public static ThreadLocalRandomIdGenerationStrategy getDefaultInstance() {
+        return DEFAULT_INSTANCE;
+    }
+
+    @Override
+    public long generate64BitRandomLong() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+}
@@ -0,0 +1,483 @@
+package com.nike.wingtips.lifecyclelistener;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.util.BoundedRingBuffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link SpanLifecycleListener} that moves the {@link #spanCompleted(Span)} work of other listeners (e.g. converting
+ * and sending spans to Zipkin) off of the application threads. Completed spans are put on a bounded, lock-free
+ * {@link BoundedRingBuffer} and a single dedicated daemon thread drains them in batches, handing each batch to every
+ * delegate listener in turn (delegates that implement {@link BatchSpanLifecycleListener} receive the whole batch in a
+ * single {@link BatchSpanLifecycleListener#spansCompleted(List)} call). Register this with {@link
+ * com.nike.wingtips.Tracer#addSpanLifecycleListener(SpanLifecycleListener)} <b>instead of</b> the delegate listeners:
+ *
+ * <pre>
+ *  Tracer.getInstance().addSpanLifecycleListener(
+ *      AsyncSpanLifecycleListener.newBuilder(new WingtipsToZipkinLifecycleListener(...))
+ *                                .withQueueCapacity(8192)
+ *                                .withOverflowPolicy(OverflowPolicy.DROP_NEWEST)
+ *                                .build()
+ *  );
+ * </pre>
+ *
+ * <p>{@link #spanStarted(Span)} and {@link #spanSampled(Span)} are passed through to the delegates synchronously on
+ * the calling thread - {@link Span} is mutable and those callbacks are expected to see the span as it was when the
+ * event occurred, and they're normally cheap anyway. Only {@link #spanCompleted(Span)} is dispatched asynchronously.
+ * Since the span has already been completed by then the delegates see exactly the same data they would have if they
+ * were called synchronously, just a little later and on a different thread. Delegates should therefore not rely on
+ * thread-local state like {@link com.nike.wingtips.Tracer#getCurrentSpan()} or the MDC in {@code spanCompleted}.
+ *
+ * <p>When the queue is full the configured {@link OverflowPolicy} decides what happens. Dropped spans are counted
+ * (see {@link #getDroppedSpanCount()}) along with delivered spans, delegate errors, and the current queue depth, so
+ * you can monitor whether the queue is sized properly for your traffic. Exceptions thrown by delegates are caught and
+ * logged so they can never kill the dispatcher thread.
+ *
+ * <p>Call {@link #shutdown(long, TimeUnit)} (or {@link #close()}) when your application shuts down to deliver any
+ * queued spans and stop the dispatcher thread.
+ */
+@SuppressWarnings("WeakerAccess")
+public class AsyncSpanLifecycleListener implements SpanLifecycleListener, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncSpanLifecycleListener.class);
+
+    /**
+     * The default value for {@link Builder#withQueueCapacity(int)}.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    /**
+     * The default value for {@link Builder#withMaxBatchSize(int)}.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 512;
+    /**
+     * The default value for {@link Builder#withOverflowPolicy(OverflowPolicy)}.
+     */
+    public static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.DROP_NEWEST;
+
+    /**
+     * The amount of time {@link #close()} will wait for queued spans to be delivered.
+     */
+    protected static final long DEFAULT_SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    // The dispatcher thread is woken up by producers when it's parked, so this is just a safety net.
+    protected static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    protected static final long BLOCKED_PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private static final AtomicInteger dispatcherThreadCounter = new AtomicInteger(0);
+
+    /**
+     * What to do with a completed span when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Drop the span that was just completed. The application thread is never delayed. This is the default.
+         */
+        DROP_NEWEST,
+        /**
+         * Evict the oldest queued span to make room for the span that was just completed. The application thread is
+         * never delayed (beyond a few extra atomic operations), and the most recent spans are favored.
+         */
+        DROP_OLDEST,
+        /**
+         * Make the application thread wait until there is room in the queue. No spans are dropped while the
+         * dispatcher is running, but a slow delegate can then slow down your application - only use this if
+         * losing spans is worse than added latency.
+         */
+        BLOCK
+    }
+
+    protected final List<SpanLifecycleListener> delegates;
+    protected final BoundedRingBuffer<Span> queue;
+    protected final int maxBatchSize;
+    protected final OverflowPolicy overflowPolicy;
+    protected final Thread dispatcherThread;
+
+    protected volatile boolean running = true;
+    protected volatile boolean dispatcherParked = false;
+    // Set by the dispatcher thread once it has delivered its last batch. Any span queued after that is never going to
+    //      be delivered, so whoever sees it afterward drops it (see dropAbandonedSpansIfDispatcherExited()).
+    protected volatile boolean dispatcherExited = false;
+
+    protected final AtomicLong droppedSpanCount = new AtomicLong(0);
+    protected final AtomicLong deliveredSpanCount = new AtomicLong(0);
+    protected final AtomicLong delegateErrorCount = new AtomicLong(0);
+
+    protected AsyncSpanLifecycleListener(Builder builder) {
+        if (builder.delegates.isEmpty()) {
+            throw new IllegalArgumentException("At least one delegate SpanLifecycleListener is required");
+        }
+
+        this.delegates = Collections.unmodifiableList(new ArrayList<>(builder.delegates));
+        this.queue = new BoundedRingBuffer<>(builder.queueCapacity);
+        this.maxBatchSize = builder.maxBatchSize;
+        this.overflowPolicy = builder.overflowPolicy;
+
+        this.dispatcherThread = new Thread(
+            new Runnable() {
+                @Override
+                public void run() {
+                    runDispatchLoop();
+                }
+            },
+            "wingtips-async-span-dispatcher-" + dispatcherThreadCounter.incrementAndGet()
+        );
+        this.dispatcherThread.setDaemon(true);
+    }
+
+    /**
+     * Starts the dispatcher thread. This is called by {@link Builder#build()} once the instance is fully constructed,
+     * rather than from the constructor, so the dispatcher thread never sees a partially constructed instance.
+     */
+    protected void startDispatcherThread() {
+        dispatcherThread.start();
+    }
+
+    /**
+     * @return A new {@link Builder} that will dispatch completed spans to the given delegate listeners.
+     */
+    public static Builder newBuilder(SpanLifecycleListener... delegates) {
+        return new Builder(Arrays.asList(delegates));
+    }
+
+    /**
+     * @return A new {@link Builder} that will dispatch completed spans to the given delegate listeners.
+     */
+    public static Builder newBuilder(List<? extends SpanLifecycleListener> delegates) {
+        return new Builder(delegates);
+    }
+
+    @Override
+    public void spanStarted(Span span) {
+        for (SpanLifecycleListener delegate : delegates) {
+            delegate.spanStarted(span);
+        }
+    }
+
+    @Override
+    public void spanSampled(Span span) {
+        for (SpanLifecycleListener delegate : delegates) {
+            delegate.spanSampled(span);
+        }
+    }
+
+    @Override
+    public void spanCompleted(Span span) {
+        if (!running) {
+            droppedSpanCount.incrementAndGet();
+            return;
+        }
+
+        if (queue.offer(span)) {
+            afterSpanQueued();
+            return;
+        }
+
+        handleOverflow(span);
+    }
+
+    /**
+     * Called after a span was successfully added to the queue. This wakes up the dispatcher thread if necessary, and
+     * drops the span if the dispatcher thread already delivered its last batch - the producer may have passed the
+     * {@link #running} check before {@link #shutdown(long, TimeUnit)} and then only added the span after the
+     * dispatcher's final drain.
+     */
+    protected void afterSpanQueued() {
+        wakeDispatcherIfParked();
+        dropAbandonedSpansIfDispatcherExited();
+    }
+
+    protected void dropAbandonedSpansIfDispatcherExited() {
+        if (!dispatcherExited) {
+            return;
+        }
+
+        while (queue.poll() != null) {
+            droppedSpanCount.incrementAndGet();
+        }
+    }
+
+    protected void handleOverflow(Span span) {
+        // Blocking on the dispatcher thread would deadlock (e.g. if a delegate completes a span of its own), so fall
+        //      back to dropping in that case.
+        OverflowPolicy policy = (overflowPolicy == OverflowPolicy.BLOCK && Thread.currentThread() == dispatcherThread)
+                                ? OverflowPolicy.DROP_NEWEST
+                                : overflowPolicy;
+
+        switch (policy) {
+            case DROP_OLDEST:
+                while (!queue.offer(span)) {
+                    if (queue.poll() != null) {
+                        droppedSpanCount.incrementAndGet();
+                    }
+                }
+                afterSpanQueued();
+                break;
+            case BLOCK:
+                while (!queue.offer(span)) {
+                    if (!running) {
+                        droppedSpanCount.incrementAndGet();
+                        return;
+                    }
+                    wakeDispatcherIfParked();
+                    LockSupport.parkNanos(this, BLOCKED_PRODUCER_PARK_NANOS);
+                }
+                afterSpanQueued();
+                break;
+            default:
+                droppedSpanCount.incrementAndGet();
+        }
+    }
+
+    protected void wakeDispatcherIfParked() {
+        if (dispatcherParked) {
+            LockSupport.unpark(dispatcherThread);
+        }
+    }
+
+    protected void runDispatchLoop() {
+        List<Span> batch = new ArrayList<>(Math.min(maxBatchSize, queue.capacity()));
+        while (true) {
+            if (queue.drainTo(batch, maxBatchSize) > 0) {
+                deliverBatch(batch);
+                batch.clear();
+                continue;
+            }
+
+            if (!running) {
+                // Everything queued before shutdown has been delivered. A producer that passed the running check
+                //      before shutdown may still add a span after this point, so flag that we're done before doing a
+                //      final sweep - either that producer sees the flag and drops its own span, or the sweep does.
+                dispatcherExited = true;
+                dropAbandonedSpansIfDispatcherExited();
+                return;
+            }
+
+            // Nothing to do - park until a producer wakes us up. The parked flag must be set before re-checking the
+            //      queue so that a producer offering a span concurrently either sees the flag or we see its span.
+            dispatcherParked = true;
+            if (queue.isEmpty() && running) {
+                LockSupport.parkNanos(this, MAX_IDLE_PARK_NANOS);
+            }
+            dispatcherParked = false;
+        }
+    }
+
+    protected void deliverBatch(List<Span> batch) {
+        List<Span> unmodifiableBatch = null;
+        for (SpanLifecycleListener delegate : delegates) {
+            if (delegate instanceof BatchSpanLifecycleListener) {
+                if (unmodifiableBatch == null) {
+                    unmodifiableBatch = Collections.unmodifiableList(batch);
+                }
+                try {
+                    ((BatchSpanLifecycleListener) delegate).spansCompleted(unmodifiableBatch);
+                }
+                catch (Throwable t) {
+                    delegateErrorCount.incrementAndGet();
+                    logger.warn(
+                        "A BatchSpanLifecycleListener threw an exception while being notified of a batch of completed "
+                        + "spans. The rest of the batch will be skipped for that listener. listener_class={}, "
+                        + "batch_size={}",
+                        delegate.getClass().getName(), batch.size(), t
+                    );
+                }
+                continue;
+            }
+
+            for (Span span : batch) {
+                try {
+                    delegate.spanCompleted(span);
+                }
+                catch (Throwable t) {
+                    delegateErrorCount.incrementAndGet();
+                    logger.warn(
+                        "A SpanLifecycleListener threw an exception while being notified of a completed span. "
+                        + "The span will be skipped for that listener. listener_class={}, trace_id={}, span_id={}",
+                        delegate.getClass().getName(), span.getTraceId(), span.getSpanId(), t
+                    );
+                }
+            }
+        }
+        deliveredSpanCount.addAndGet(batch.size());
+    }
+
+    /**
+     * Stops accepting new completed spans, waits up to the given amount of time for already-queued spans to be
+     * delivered to the delegates, and then lets the dispatcher thread exit. Completed spans received after this is
+     * called (including ones that race with this call and miss the dispatcher's last batch) are dropped and counted in
+     * {@link #getDroppedSpanCount()}. Calling this more than once is harmless.
+     *
+     * @return true if all queued spans were delivered within the given time, false otherwise.
+     */
+    public boolean shutdown(long timeout, TimeUnit timeUnit) {
+        running = false;
+        LockSupport.unpark(dispatcherThread);
+        if (Thread.currentThread() == dispatcherThread) {
+            return queue.isEmpty();
+        }
+
+        try {
+            dispatcherThread.join(Math.max(1, timeUnit.toMillis(timeout)));
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return !dispatcherThread.isAlive();
+    }
+
+    /**
+     * Calls {@link #shutdown(long, TimeUnit)} with a timeout of {@link #DEFAULT_SHUTDOWN_TIMEOUT_MILLIS}.
+     */
+    @Override
+    public void close() {
+        shutdown(DEFAULT_SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return true if this listener is still accepting completed spans (i.e. {@link #shutdown(long, TimeUnit)} has
+     * not been called).
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return The delegate listeners that completed spans are dispatched to.
+     */
+    public List<SpanLifecycleListener> getDelegates() {
+        return delegates;
+    }
+
+    /**
+     * @return The configured {@link OverflowPolicy}.
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @return The maximum number of completed spans the queue can hold.
+     */
+    public int getQueueCapacity() {
+        return queue.capacity();
+    }
+
+    /**
+     * @return The number of completed spans currently waiting in the queue to be dispatched.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return The total number of completed spans that were dropped because the queue was full or because this
+     * listener was shut down.
+     */
+    public long getDroppedSpanCount() {
+        return droppedSpanCount.get();
+    }
+
+    /**
+     * @return The total number of completed spans that have been dispatched to the delegates.
+     */
+    public long getDeliveredSpanCount() {
+        return deliveredSpanCount.get();
+    }
+
+    /**
+     * @return The total number of exceptions thrown by delegates while being notified of completed spans.
+     */
+    public long getDelegateErrorCount() {
+        return delegateErrorCount.get();
+    }
+
+    /**
+     * Builder for {@link AsyncSpanLifecycleListener}.
+     */
+    public static final class Builder {
+        private final List<SpanLifecycleListener> delegates = new ArrayList<>();
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+        private OverflowPolicy overflowPolicy = DEFAULT_OVERFLOW_POLICY;
+
+        private Builder(List<? extends SpanLifecycleListener> delegates) {
+            if (delegates == null) {
+                throw new IllegalArgumentException("delegates cannot be null");
+            }
+
+            for (SpanLifecycleListener delegate : delegates) {
+                if (delegate == null) {
+                    throw new IllegalArgumentException("delegates cannot contain null");
+                }
+                this.delegates.add(delegate);
+            }
+        }
+
+        /**
+         * Sets the maximum number of completed spans that can be waiting to be dispatched. This will be rounded up to
+         * the next power of two. Defaults to {@link #DEFAULT_QUEUE_CAPACITY}.
+         *
+         * @param queueCapacity the queue capacity - must be between 2 and 2^30.
+         * @return a reference to this Builder
+         */
+        public Builder withQueueCapacity(int queueCapacity) {
+            if (queueCapacity < 2 || queueCapacity > (1 << 30)) {
+                throw new IllegalArgumentException(
+                    "queueCapacity must be between 2 and 2^30 (inclusive). Received: " + queueCapacity
+                );
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of completed spans that will be handed to the delegates in one batch. Defaults to
+         * {@link #DEFAULT_MAX_BATCH_SIZE}.
+         *
+         * @param maxBatchSize the max batch size - must be greater than 0.
+         * @return a reference to this Builder
+         */
+        public Builder withMaxBatchSize(int maxBatchSize) {
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("maxBatchSize must be greater than 0. Received: " + maxBatchSize);
+            }
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets what happens to completed spans when the queue is full. Defaults to {@link #DEFAULT_OVERFLOW_POLICY}.
+         *
+         * @param overflowPolicy the overflow policy - cannot be null.
+         * @return a reference to this Builder
+         */
+        public Builder withOverflowPolicy(OverflowPolicy overflowPolicy) {
+            if (overflowPolicy == null) {
+                throw new IllegalArgumentException("overflowPolicy cannot be null");
+            }
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * @return A new {@link AsyncSpanLifecycleListener} with its dispatcher thread already started.
+         */
+        public AsyncSpanLifecycleListener build() {
+            AsyncSpanLifecycleListener listener = new AsyncSpanLifecycleListener(this);
+            listener.startDispatcherThread();
+            return listener;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.nike.wingtips.lifecyclelistener;
+
+import com.nike.wingtips.Span;
+
+import java.util.List;
+
+/**
+ * An extension of {@link SpanLifecycleListener} for listeners that can handle completed spans more efficiently in
+ * batches than one at a time, e.g. by converting and encoding a whole batch in one pass while reusing builders and
+ * buffers across spans.
+ *
+ * <p>{@link com.nike.wingtips.Tracer} completes spans one at a time on the thread that finished them, so it will only
+ * ever call {@link #spanCompleted(Span)}. Batches come from {@link AsyncSpanLifecycleListener}, which drains its queue
+ * on a background thread and will call {@link #spansCompleted(List)} instead of {@link #spanCompleted(Span)} for any
+ * delegate that implements this interface.
+ */
+public interface BatchSpanLifecycleListener extends SpanLifecycleListener {
+
+    /**
+     * This will be called with a batch of completed {@link Span}s (in completion order), whether or not they are
+     * sampled. The end result must be the same as calling {@link #spanCompleted(Span)} for each span in the batch, and
+     * an error handling one span should not prevent the rest of the batch from being handled.
+     *
+     * <p>The given list is owned by the caller - it is unmodifiable and is only valid for the duration of this call,
+     * so implementations must not hold on to it (holding on to the individual spans is fine).
+     */
+    void spansCompleted(List<Span> spans);
+
+}
@@ -0,0 +1,238 @@
+package com.nike.wingtips.lifecyclelistener;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.sampling.ProbabilisticSamplingStrategy;
+import com.nike.wingtips.tags.KnownZipkinTags;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The default {@link TailSamplingPolicy}. A trace is kept if any of its buffered spans:
+ * <ul>
+ *     <li>
+ *         has an {@link KnownZipkinTags#ERROR} tag (set by {@link com.nike.wingtips.tags.ZipkinHttpTagStrategy} and
+ *         {@link com.nike.wingtips.tags.OpenTracingHttpTagStrategy} when a request fails) - see
+ *         {@link Builder#withKeepErroredTraces(boolean)},
+ *     </li>
+ *     <li>
+ *         has an {@link KnownZipkinTags#HTTP_STATUS_CODE} tag that is greater than or equal to
+ *         {@link Builder#withMinStatusCodeToKeep(Integer)}, or
+ *     </li>
+ *     <li>took at least {@link Builder#withLatencyThreshold(long, TimeUnit)}.</li>
+ * </ul>
+ * Otherwise the trace is kept with the probability given by {@link Builder#withNormalTraceProbability(double)}. That
+ * decision is derived from the trace ID the same way {@link ProbabilisticSamplingStrategy} does it, so services
+ * configured with the same probability keep the same normal traces.
+ *
+ * <p>For example, this keeps every errored, 5xx, or slower-than-500ms trace and roughly 1% of everything else:
+ *
+ * <pre>
+ *  LatencyAndErrorTailSamplingPolicy.newBuilder()
+ *                                   .withLatencyThreshold(500, TimeUnit.MILLISECONDS)
+ *                                   .withNormalTraceProbability(0.01)
+ *                                   .build();
+ * </pre>
+ */
+@SuppressWarnings("WeakerAccess")
+public class LatencyAndErrorTailSamplingPolicy implements TailSamplingPolicy {
+
+    /**
+     * The default value for {@link Builder#withMinStatusCodeToKeep(Integer)}.
+     */
+    public static final int DEFAULT_MIN_STATUS_CODE_TO_KEEP = 500;
+
+    protected final long latencyThresholdNanos;
+    protected final boolean keepErroredTraces;
+    protected final Integer minStatusCodeToKeep;
+    protected final ProbabilisticSamplingStrategy normalTraceSampler;
+
+    protected LatencyAndErrorTailSamplingPolicy(Builder builder) {
+        this.latencyThresholdNanos = builder.latencyThresholdNanos;
+        this.keepErroredTraces = builder.keepErroredTraces;
+        this.minStatusCodeToKeep = builder.minStatusCodeToKeep;
+        this.normalTraceSampler = new ProbabilisticSamplingStrategy(builder.normalTraceProbability);
+    }
+
+    /**
+     * @return A new {@link Builder}. If you build it without changing anything you'll get a policy that keeps errored
+     * and 5xx traces and drops everything else.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public boolean shouldKeepTrace(@Nullable Span localRootSpan, @NotNull List<Span> spans) {
+        for (Span span : spans) {
+            if (isInterestingSpan(span)) {
+                return true;
+            }
+        }
+
+        return isNormalTraceSampled(spans.get(0).getTraceId());
+    }
+
+    /**
+     * @return true if the given span alone means its trace should be kept (i.e. it errored, has a status code at or
+     * above {@link #minStatusCodeToKeep}, or is slow), false otherwise.
+     */
+    protected boolean isInterestingSpan(Span span) {
+        Long durationNanos = span.getDurationNanos();
+        if (durationNanos != null && durationNanos >= latencyThresholdNanos) {
+            return true;
+        }
+
+        Map<String, String> tags = span.getTags();
+        if (tags.isEmpty()) {
+            return false;
+        }
+
+        if (keepErroredTraces && tags.containsKey(KnownZipkinTags.ERROR)) {
+            return true;
+        }
+
+        if (minStatusCodeToKeep != null) {
+            String statusCode = tags.get(KnownZipkinTags.HTTP_STATUS_CODE);
+            if (statusCode != null) {
+                try {
+                    return Integer.parseInt(statusCode.trim()) >= minStatusCodeToKeep;
+                }
+                catch (NumberFormatException ex) {
+                    // Not a number, so it can't be used to decide anything.
+                    return false;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return true if a trace with the given ID that has nothing interesting about it should be kept anyway.
+     */
+    protected boolean isNormalTraceSampled(String traceId) {
+        try {
+            return normalTraceSampler.isTraceSampleable(traceId);
+        }
+        catch (NumberFormatException ex) {
+            // The trace ID came from a caller that doesn't use lowerhex IDs - fall back to its hash code.
+            return normalTraceSampler.isRootSpanSampleable(traceId.hashCode());
+        }
+    }
+
+    /**
+     * @return The latency in nanoseconds at or above which a span causes its trace to be kept, or {@link
+     * Long#MAX_VALUE} if latency is not considered.
+     */
+    public long getLatencyThresholdNanos() {
+        return latencyThresholdNanos;
+    }
+
+    /**
+     * @return true if traces with an {@link KnownZipkinTags#ERROR} tagged span are always kept, false otherwise.
+     */
+    public boolean isKeepErroredTraces() {
+        return keepErroredTraces;
+    }
+
+    /**
+     * @return The HTTP status code at or above which a span causes its trace to be kept, or null if status codes are
+     * not considered.
+     */
+    public Integer getMinStatusCodeToKeep() {
+        return minStatusCodeToKeep;
+    }
+
+    /**
+     * @return The probability that a trace with nothing interesting about it will be kept.
+     */
+    public double getNormalTraceProbability() {
+        return normalTraceSampler.getProbability();
+    }
+
+    /**
+     * Builder for {@link LatencyAndErrorTailSamplingPolicy}.
+     */
+    public static final class Builder {
+        private long latencyThresholdNanos = Long.MAX_VALUE;
+        private boolean keepErroredTraces = true;
+        private Integer minStatusCodeToKeep = DEFAULT_MIN_STATUS_CODE_TO_KEEP;
+        private double normalTraceProbability = 0.0d;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets how long a span has to take for its trace to be kept. By default latency is not considered.
+         *
+         * @param latencyThreshold the latency threshold - must be greater than 0.
+         * @param timeUnit the unit of {@code latencyThreshold} - cannot be null.
+         * @return a reference to this Builder
+         */
+        public Builder withLatencyThreshold(long latencyThreshold, TimeUnit timeUnit) {
+            if (latencyThreshold <= 0) {
+                throw new IllegalArgumentException(
+                    "latencyThreshold must be greater than 0. Received: " + latencyThreshold
+                );
+            }
+            if (timeUnit == null) {
+                throw new IllegalArgumentException("timeUnit cannot be null");
+            }
+            this.latencyThresholdNanos = timeUnit.toNanos(latencyThreshold);
+            return this;
+        }
+
+        /**
+         * Sets whether traces containing a span with an {@link KnownZipkinTags#ERROR} tag are always kept. Defaults
+         * to true.
+         *
+         * @param keepErroredTraces the {@code keepErroredTraces} value to set
+         * @return a reference to this Builder
+         */
+        public Builder withKeepErroredTraces(boolean keepErroredTraces) {
+            this.keepErroredTraces = keepErroredTraces;
+            return this;
+        }
+
+        /**
+         * Sets the {@link KnownZipkinTags#HTTP_STATUS_CODE} at or above which a span causes its trace to be kept, or
+         * pass null to ignore status codes. Defaults to {@link #DEFAULT_MIN_STATUS_CODE_TO_KEEP}.
+         *
+         * @param minStatusCodeToKeep the minimum status code to keep, or null.
+         * @return a reference to this Builder
+         */
+        public Builder withMinStatusCodeToKeep(Integer minStatusCodeToKeep) {
+            this.minStatusCodeToKeep = minStatusCodeToKeep;
+            return this;
+        }
+
+        /**
+         * Sets the probability that a trace with nothing interesting about it is kept anyway. Defaults to 0.0.
+         *
+         * @param normalTraceProbability the probability - must be between 0.0 and 1.0 (inclusive).
+         * @return a reference to this Builder
+         */
+        public Builder withNormalTraceProbability(double normalTraceProbability) {
+            if (!(normalTraceProbability >= 0.0d && normalTraceProbability <= 1.0d)) {
+                throw new IllegalArgumentException(
+                    "normalTraceProbability must be between 0.0 and 1.0 (inclusive). Received: "
+                    + normalTraceProbability
+                );
+            }
+            this.normalTraceProbability = normalTraceProbability;
+            return this;
+        }
+
+        /**
+         * @return A new {@link LatencyAndErrorTailSamplingPolicy}.
+         */
+        public LatencyAndErrorTailSamplingPolicy build() {
+            return new LatencyAndErrorTailSamplingPolicy(this);
+        }
+    }
+}
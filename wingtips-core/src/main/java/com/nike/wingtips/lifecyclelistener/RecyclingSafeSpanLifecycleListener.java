@@ -0,0 +1,29 @@
+package com.nike.wingtips.lifecyclelistener;
+
+import com.nike.wingtips.Span;
+
+/**
+ * A marker interface for {@link SpanLifecycleListener}s that never hold a reference to a {@link Span} after a
+ * listener method returns. {@link com.nike.wingtips.Tracer#setSpanRecyclingEnabled(boolean)} only recycles a
+ * completed span's tags map and annotations list when at least one listener is registered and <b>every</b> registered
+ * listener implements this interface, since a recycled span's tags and annotations are emptied and the containers
+ * reused for a completely different span later.
+ *
+ * <p>Rules for implementations:
+ * <ul>
+ *     <li>
+ *         Don't store the {@link Span} (or its {@link Span#getTags()} / {@link Span#getTimestampedAnnotations()}
+ *         views) anywhere that outlives the listener call - fields, queues, other threads, etc. Reading the span's
+ *         values during the call and keeping those values (IDs, durations, counts, converted spans) is fine.
+ *     </li>
+ *     <li>
+ *         If you do need the span itself later (e.g. to process it asynchronously), make a copy during the call with
+ *         {@code Span.newBuilder(span).build()} and keep the copy instead.
+ *     </li>
+ * </ul>
+ *
+ * <p>Listeners that queue or buffer spans as-is (like {@link AsyncSpanLifecycleListener} and {@link
+ * TailSamplingSpanLifecycleListener}) don't implement this interface, so registering one of them turns recycling off.
+ */
+public interface RecyclingSafeSpanLifecycleListener extends SpanLifecycleListener {
+}
@@ -9,6 +9,7 @@ import com.nike.wingtips.Span;
  * IMPORTANT NOTE: Tracing can become a severe bottleneck for high throughput services if the implementation of any of these methods are expensive. If any of the work you
  *                 need to do in these methods takes more than a few nanoseconds and you have a high throughput service you may want to consider doing the work asynchronously.
  *                 If you do anything here make sure you profile your application with and without the {@link SpanLifecycleListener} enabled to see how it impacts performance.
+ *                 {@link AsyncSpanLifecycleListener} can be used to move the {@link #spanCompleted(Span)} work of other listeners onto a dedicated background thread.
  *
  * @author Nic Munroe
  */
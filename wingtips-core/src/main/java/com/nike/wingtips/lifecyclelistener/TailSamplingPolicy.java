@@ -0,0 +1,31 @@
+package com.nike.wingtips.lifecyclelistener;
+
+import com.nike.wingtips.Span;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Decides whether a buffered local trace should be kept (forwarded to the delegate listeners) or dropped by a {@link
+ * TailSamplingSpanLifecycleListener}. Unlike a {@link com.nike.wingtips.sampling.RootSpanSamplingStrategy}, which has
+ * to decide before the trace starts, this is called after the trace's spans have completed, so it can look at their
+ * durations and tags. See {@link LatencyAndErrorTailSamplingPolicy} for the default implementation.
+ *
+ * <p>Implementations are called on the application thread that completed the trace's local root span, so they should
+ * be fast and must be thread safe.
+ */
+public interface TailSamplingPolicy {
+
+    /**
+     * @param localRootSpan The first span of the trace that was started in this process (usually the overall request
+     * span), or null if the trace is being decided before that span completed (i.e. it was evicted from the buffer
+     * because the buffer was full, or it expired).
+     * @param spans The completed spans of the trace that were buffered, in completion order - this will never be empty
+     * and includes {@code localRootSpan} when it is non-null. The list is only valid for the duration of this call.
+     * @return true if the trace should be kept and forwarded to the delegate listeners, false if it should be dropped.
+     */
+    boolean shouldKeepTrace(@Nullable Span localRootSpan, @NotNull List<Span> spans);
+
+}
@@ -0,0 +1,667 @@
+package com.nike.wingtips.lifecyclelistener;
+
+import com.nike.wingtips.Span;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link SpanLifecycleListener} that does tail-based sampling in front of other listeners (e.g. {@code
+ * WingtipsToZipkinLifecycleListener}). Rather than deciding up front whether a trace is sampled, the completed spans
+ * of each local trace are buffered until the trace's local root span (the first span of the trace started in this
+ * process, usually the overall request span) completes. Then the {@link TailSamplingPolicy} looks at the whole trace
+ * and the spans are either all forwarded to the delegate listeners or all dropped. Register this with {@link
+ * com.nike.wingtips.Tracer#addSpanLifecycleListener(SpanLifecycleListener)} <b>instead of</b> the delegate listeners,
+ * and leave the root span sampling strategy sampling everything so the policy gets to see every trace:
+ *
+ * <pre>
+ *  Tracer.getInstance().addSpanLifecycleListener(
+ *      TailSamplingSpanLifecycleListener.newBuilder(new WingtipsToZipkinLifecycleListener(...))
+ *                                       .withPolicy(
+ *                                           LatencyAndErrorTailSamplingPolicy.newBuilder()
+ *                                                                            .withLatencyThreshold(500, MILLISECONDS)
+ *                                                                            .withNormalTraceProbability(0.01)
+ *                                                                            .build()
+ *                                       )
+ *                                       .build()
+ *  );
+ * </pre>
+ *
+ * <p>Memory use is bounded and eviction is predictable:
+ * <ul>
+ *     <li>
+ *         At most {@link Builder#withMaxBufferedTraces(int)} traces are buffered at once. When a new trace would go
+ *         over that limit the oldest buffered trace is decided immediately with whatever spans it has so far.
+ *     </li>
+ *     <li>
+ *         A trace whose local root span hasn't completed within {@link Builder#withTraceTimeout(long, TimeUnit)} of
+ *         when it started is decided the same way the next time this listener is called.
+ *     </li>
+ *     <li>
+ *         At most {@link Builder#withMaxSpansPerTrace(int)} spans are buffered per trace - any more are dropped.
+ *     </li>
+ * </ul>
+ * In all those cases the policy is called with a null local root span. A trace that is decided early before any of
+ * its spans completed has nothing for the policy to look at, so it's kept. Spans of a trace that complete after the
+ * trace was decided (e.g. from asynchronous work that outlived the request) follow the decision as long as it's still
+ * in the recent decisions cache, which holds roughly the most recent {@link Builder#withMaxBufferedTraces(int)}
+ * decisions (see {@link RecentDecisionCache}).
+ *
+ * <p>Only sampleable spans are buffered. Unsampled spans are passed straight through to the delegates, as are all
+ * {@link #spanStarted(Span)} and {@link #spanSampled(Span)} calls. Traces are decided and forwarded on the
+ * application thread that completed the local root span, so if the delegates are expensive wrap them in an {@link
+ * AsyncSpanLifecycleListener} and pass that in as the delegate.
+ */
+@SuppressWarnings("WeakerAccess")
+public class TailSamplingSpanLifecycleListener implements SpanLifecycleListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TailSamplingSpanLifecycleListener.class);
+
+    /**
+     * The default value for {@link Builder#withMaxBufferedTraces(int)}.
+     */
+    public static final int DEFAULT_MAX_BUFFERED_TRACES = 10_000;
+    /**
+     * The default value for {@link Builder#withMaxSpansPerTrace(int)}.
+     */
+    public static final int DEFAULT_MAX_SPANS_PER_TRACE = 1000;
+    /**
+     * The default value for {@link Builder#withTraceTimeout(long, TimeUnit)}, in milliseconds.
+     */
+    public static final long DEFAULT_TRACE_TIMEOUT_MILLIS = 30_000;
+
+    protected final List<SpanLifecycleListener> delegates;
+    protected final TailSamplingPolicy policy;
+    protected final int maxBufferedTraces;
+    protected final int maxSpansPerTrace;
+    protected final long traceTimeoutNanos;
+
+    protected final ConcurrentMap<String, TraceBuffer> buffers = new ConcurrentHashMap<>();
+    // The buffered traces in the order they were started, so the oldest can be found quickly for eviction and expiry.
+    //      Traces decided because their local root span completed are left in here (removing them would mean
+    //      scanning the queue) and skipped when they reach the head, or swept out by removeDecidedBuffersIfTooMany().
+    protected final ConcurrentLinkedQueue<TraceBuffer> buffersInStartOrder = new ConcurrentLinkedQueue<>();
+    protected final AtomicInteger bufferedTraceCount = new AtomicInteger(0);
+    // Roughly how many decided traces have been left in buffersInStartOrder since the last sweep.
+    protected final AtomicInteger decidedBuffersLeftInStartOrder = new AtomicInteger(0);
+    // The most recent keep/drop decisions, so spans that complete after their trace was decided can follow it.
+    protected final RecentDecisionCache recentDecisions;
+
+    protected final AtomicLong keptTraceCount = new AtomicLong(0);
+    protected final AtomicLong droppedTraceCount = new AtomicLong(0);
+    protected final AtomicLong evictedTraceCount = new AtomicLong(0);
+    protected final AtomicLong expiredTraceCount = new AtomicLong(0);
+    protected final AtomicLong overflowSpanCount = new AtomicLong(0);
+    protected final AtomicLong delegateErrorCount = new AtomicLong(0);
+
+    protected TailSamplingSpanLifecycleListener(Builder builder) {
+        if (builder.delegates.isEmpty()) {
+            throw new IllegalArgumentException("At least one delegate SpanLifecycleListener is required");
+        }
+
+        this.delegates = Collections.unmodifiableList(new ArrayList<>(builder.delegates));
+        this.policy = builder.policy;
+        this.maxBufferedTraces = builder.maxBufferedTraces;
+        this.maxSpansPerTrace = builder.maxSpansPerTrace;
+        this.traceTimeoutNanos = builder.traceTimeoutNanos;
+
+        this.recentDecisions = new RecentDecisionCache(builder.maxBufferedTraces);
+    }
+
+    /**
+     * @return A new {@link Builder} that will forward kept traces to the given delegate listeners.
+     */
+    public static Builder newBuilder(SpanLifecycleListener... delegates) {
+        return new Builder(Arrays.asList(delegates));
+    }
+
+    /**
+     * @return A new {@link Builder} that will forward kept traces to the given delegate listeners.
+     */
+    public static Builder newBuilder(List<? extends SpanLifecycleListener> delegates) {
+        return new Builder(delegates);
+    }
+
+    @Override
+    public void spanStarted(Span span) {
+        for (SpanLifecycleListener delegate : delegates) {
+            delegate.spanStarted(span);
+        }
+
+        if (!span.isSampleable()) {
+            return;
+        }
+
+        long now = nanoTime();
+        String traceId = span.getTraceId();
+        if (!buffers.containsKey(traceId) && recentDecisions.get(traceId) == null) {
+            TraceBuffer newBuffer = new TraceBuffer(traceId, span.getSpanId(), now);
+            if (buffers.putIfAbsent(traceId, newBuffer) == null) {
+                buffersInStartOrder.add(newBuffer);
+                bufferedTraceCount.incrementAndGet();
+                evictOldestTracesIfFull();
+            }
+        }
+
+        expireOldTraces(now);
+    }
+
+    @Override
+    public void spanSampled(Span span) {
+        for (SpanLifecycleListener delegate : delegates) {
+            delegate.spanSampled(span);
+        }
+    }
+
+    @Override
+    public void spanCompleted(Span span) {
+        if (!span.isSampleable()) {
+            forwardToDelegates(Collections.singletonList(span));
+            return;
+        }
+
+        String traceId = span.getTraceId();
+        TraceBuffer buffer = buffers.get(traceId);
+        if (buffer == null) {
+            Boolean decision = recentDecisions.get(traceId);
+            if (decision == null) {
+                // We never saw this trace start (e.g. this listener was registered mid-trace), so this span is all
+                //      there is to decide on.
+                buffer = new TraceBuffer(traceId, span.getSpanId(), nanoTime());
+                buffer.spans.add(span);
+                decideTrace(buffer, span);
+            }
+            else if (decision) {
+                forwardToDelegates(Collections.singletonList(span));
+            }
+            return;
+        }
+
+        boolean isLocalRootSpan = span.getSpanId().equals(buffer.localRootSpanId);
+        boolean forwardLateSpan = false;
+        synchronized (buffer) {
+            if (buffer.decided) {
+                // The trace was decided between us looking up the buffer and getting here. If the policy is still
+                //      running then decideTrace() will take care of the span once it knows the decision.
+                if (buffer.kept == null) {
+                    buffer.lateSpans.add(span);
+                }
+                else {
+                    forwardLateSpan = buffer.kept;
+                }
+            }
+            else if (buffer.spans.size() < maxSpansPerTrace) {
+                buffer.spans.add(span);
+            }
+            else {
+                overflowSpanCount.incrementAndGet();
+            }
+        }
+
+        if (forwardLateSpan) {
+            forwardToDelegates(Collections.singletonList(span));
+        }
+        else if (isLocalRootSpan && decideTrace(buffer, span)) {
+            removeDecidedBuffersIfTooMany();
+        }
+
+        expireOldTraces(nanoTime());
+    }
+
+    /**
+     * Decides every currently buffered trace right away (as if each had expired), e.g. before your application shuts
+     * down so buffered spans aren't lost.
+     */
+    public void flush() {
+        TraceBuffer oldest;
+        while ((oldest = buffersInStartOrder.poll()) != null) {
+            decideTrace(oldest, null);
+        }
+    }
+
+    protected void evictOldestTracesIfFull() {
+        while (bufferedTraceCount.get() > maxBufferedTraces) {
+            TraceBuffer oldest = buffersInStartOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+
+            if (decideTrace(oldest, null)) {
+                evictedTraceCount.incrementAndGet();
+            }
+        }
+    }
+
+    protected void expireOldTraces(long now) {
+        TraceBuffer oldest;
+        while ((oldest = buffersInStartOrder.peek()) != null) {
+            // Removing the head of the queue is cheap - remove(...) finds it right away.
+            if (oldest.decided) {
+                buffersInStartOrder.remove(oldest);
+                continue;
+            }
+
+            if ((now - oldest.startNanos) < traceTimeoutNanos) {
+                return;
+            }
+
+            if (buffersInStartOrder.remove(oldest) && decideTrace(oldest, null)) {
+                expiredTraceCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Called each time a trace is decided while its buffer is still in {@link #buffersInStartOrder}. Decided buffers
+     * normally leave the queue when they reach its head, but a long running trace at the head would hold up everything
+     * behind it, so once about {@link #maxBufferedTraces} decided buffers have piled up one caller sweeps them all out.
+     * That's a scan of the queue once every {@link #maxBufferedTraces} decisions rather than on every decision.
+     */
+    protected void removeDecidedBuffersIfTooMany() {
+        int decidedCount = decidedBuffersLeftInStartOrder.incrementAndGet();
+        if (decidedCount < maxBufferedTraces || !decidedBuffersLeftInStartOrder.compareAndSet(decidedCount, 0)) {
+            return;
+        }
+
+        Iterator<TraceBuffer> iterator = buffersInStartOrder.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().decided) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Runs the {@link #policy} against the given buffered trace and forwards its spans to the delegates if it's kept.
+     * Does nothing if the trace was already decided.
+     *
+     * @param buffer The trace to decide.
+     * @param localRootSpan The trace's completed local root span, or null if the trace is being decided early.
+     * @return true if this call decided the trace, false if it had already been decided.
+     */
+    protected boolean decideTrace(TraceBuffer buffer, Span localRootSpan) {
+        List<Span> spans;
+        synchronized (buffer) {
+            if (buffer.decided) {
+                return false;
+            }
+            buffer.decided = true;
+            spans = buffer.spans;
+            // The buffer may stay in buffersInStartOrder for a while, so it shouldn't hold on to the spans.
+            buffer.spans = Collections.emptyList();
+        }
+
+        if (buffers.remove(buffer.traceId, buffer)) {
+            bufferedTraceCount.decrementAndGet();
+        }
+
+        if (spans.isEmpty()) {
+            // Nothing completed yet so there's nothing for the policy to look at. Keep the trace, and record that so
+            //      the spans that complete later follow it rather than each being decided on its own. Spans that
+            //      raced in while the buffer was being removed are kept rather than lost.
+            List<Span> lateSpans;
+            synchronized (buffer) {
+                buffer.kept = true;
+                lateSpans = takeLateSpans(buffer);
+            }
+            recentDecisions.put(buffer.traceId, true);
+            forwardToDelegates(lateSpans);
+            return true;
+        }
+
+        boolean keep = true;
+        try {
+            keep = policy.shouldKeepTrace(localRootSpan, Collections.unmodifiableList(spans));
+        }
+        catch (Throwable t) {
+            // Better to send a trace we didn't need than lose one we did.
+            logger.warn(
+                "The TailSamplingPolicy threw an exception - the trace will be kept. policy_class={}, trace_id={}",
+                policy.getClass().getName(), buffer.traceId, t
+            );
+        }
+
+        List<Span> lateSpans;
+        synchronized (buffer) {
+            buffer.kept = keep;
+            lateSpans = takeLateSpans(buffer);
+        }
+        recentDecisions.put(buffer.traceId, keep);
+
+        if (keep) {
+            keptTraceCount.incrementAndGet();
+            forwardToDelegates(spans);
+            if (!lateSpans.isEmpty()) {
+                forwardToDelegates(lateSpans);
+            }
+        }
+        else {
+            droppedTraceCount.incrementAndGet();
+        }
+
+        return true;
+    }
+
+    // Must be called while holding the buffer's monitor, after its kept field is set (so no more late spans are added).
+    protected static List<Span> takeLateSpans(TraceBuffer buffer) {
+        List<Span> lateSpans = buffer.lateSpans;
+        buffer.lateSpans = Collections.emptyList();
+        return lateSpans;
+    }
+
+    protected void forwardToDelegates(List<Span> spans) {
+        List<Span> unmodifiableSpans = null;
+        for (SpanLifecycleListener delegate : delegates) {
+            if (delegate instanceof BatchSpanLifecycleListener && spans.size() > 1) {
+                if (unmodifiableSpans == null) {
+                    unmodifiableSpans = Collections.unmodifiableList(spans);
+                }
+                try {
+                    ((BatchSpanLifecycleListener) delegate).spansCompleted(unmodifiableSpans);
+                }
+                catch (Throwable t) {
+                    delegateErrorCount.incrementAndGet();
+                    logger.warn(
+                        "A BatchSpanLifecycleListener threw an exception while being notified of the completed spans "
+                        + "of a kept trace. The rest of the trace will be skipped for that listener. "
+                        + "listener_class={}, trace_id={}",
+                        delegate.getClass().getName(), spans.get(0).getTraceId(), t
+                    );
+                }
+                continue;
+            }
+
+            for (Span span : spans) {
+                try {
+                    delegate.spanCompleted(span);
+                }
+                catch (Throwable t) {
+                    delegateErrorCount.incrementAndGet();
+                    logger.warn(
+                        "A SpanLifecycleListener threw an exception while being notified of a completed span. "
+                        + "The span will be skipped for that listener. listener_class={}, trace_id={}, span_id={}",
+                        delegate.getClass().getName(), span.getTraceId(), span.getSpanId(), t
+                    );
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The current value of {@link System#nanoTime()}. Here so tests can control time.
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * @return The delegate listeners that kept traces are forwarded to.
+     */
+    public List<SpanLifecycleListener> getDelegates() {
+        return delegates;
+    }
+
+    /**
+     * @return The {@link TailSamplingPolicy} that decides which traces are kept.
+     */
+    public TailSamplingPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return The maximum number of traces that can be buffered at once.
+     */
+    public int getMaxBufferedTraces() {
+        return maxBufferedTraces;
+    }
+
+    /**
+     * @return The maximum number of spans that will be buffered for a single trace.
+     */
+    public int getMaxSpansPerTrace() {
+        return maxSpansPerTrace;
+    }
+
+    /**
+     * @return How long a trace can be buffered before it's decided without its local root span, in nanoseconds.
+     */
+    public long getTraceTimeoutNanos() {
+        return traceTimeoutNanos;
+    }
+
+    /**
+     * @return The number of traces currently buffered.
+     */
+    public int getBufferedTraceCount() {
+        return bufferedTraceCount.get();
+    }
+
+    /**
+     * @return The total number of traces that were kept and forwarded to the delegates.
+     */
+    public long getKeptTraceCount() {
+        return keptTraceCount.get();
+    }
+
+    /**
+     * @return The total number of traces that were dropped by the policy.
+     */
+    public long getDroppedTraceCount() {
+        return droppedTraceCount.get();
+    }
+
+    /**
+     * @return The total number of traces that were decided early because the buffer was full.
+     */
+    public long getEvictedTraceCount() {
+        return evictedTraceCount.get();
+    }
+
+    /**
+     * @return The total number of traces that were decided early because their local root span didn't complete
+     * within the trace timeout.
+     */
+    public long getExpiredTraceCount() {
+        return expiredTraceCount.get();
+    }
+
+    /**
+     * @return The total number of spans that were dropped because their trace already had the maximum number of
+     * spans buffered.
+     */
+    public long getOverflowSpanCount() {
+        return overflowSpanCount.get();
+    }
+
+    /**
+     * @return The total number of exceptions thrown by delegates while being notified of completed spans.
+     */
+    public long getDelegateErrorCount() {
+        return delegateErrorCount.get();
+    }
+
+    /**
+     * The completed spans of one local trace that are waiting for a keep/drop decision. The mutable fields are
+     * guarded by the instance's monitor. {@link #decided} is also volatile so it can be checked without the monitor
+     * when skipping decided buffers.
+     */
+    protected static class TraceBuffer {
+        protected final String traceId;
+        protected final String localRootSpanId;
+        protected final long startNanos;
+        protected List<Span> spans = new ArrayList<>();
+        // Spans that completed after the trace was decided but before the decision was known.
+        protected List<Span> lateSpans = new ArrayList<>(0);
+        protected volatile boolean decided;
+        protected Boolean kept;
+
+        protected TraceBuffer(String traceId, String localRootSpanId, long startNanos) {
+            this.traceId = traceId;
+            this.localRootSpanId = localRootSpanId;
+            this.startNanos = startNanos;
+        }
+    }
+
+    /**
+     * A fixed size, lock-free cache of recent keep/drop decisions. Each trace ID maps to a single slot, and a decision
+     * replaces whatever decision was in its slot before (like a direct-mapped CPU cache). There are at least twice as
+     * many slots as {@link #maxBufferedTraces}, so a decision normally survives about that many newer decisions, but
+     * an unlucky one can be replaced sooner. Looking up or recording a decision is a single array read or write, so
+     * threads completing spans never wait on each other.
+     */
+    protected static class RecentDecisionCache {
+        protected final AtomicReferenceArray<Decision> slots;
+        protected final int mask;
+
+        protected RecentDecisionCache(int minDecisionsToHold) {
+            int requestedSlots = (int) Math.min(2L * minDecisionsToHold, 1 << 30);
+            int highestOneBit = Integer.highestOneBit(requestedSlots);
+            int slotCount = (highestOneBit == requestedSlots) ? requestedSlots : highestOneBit << 1;
+            this.slots = new AtomicReferenceArray<>(slotCount);
+            this.mask = slotCount - 1;
+        }
+
+        /**
+         * @return The recorded decision for the given trace, or null if there isn't one (anymore).
+         */
+        public Boolean get(String traceId) {
+            Decision decision = slots.get(slotFor(traceId));
+            return (decision != null && decision.traceId.equals(traceId)) ? decision.keep : null;
+        }
+
+        public void put(String traceId, boolean keep) {
+            slots.set(slotFor(traceId), new Decision(traceId, keep));
+        }
+
+        protected int slotFor(String traceId) {
+            int hash = traceId.hashCode();
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+
+        protected int slotCount() {
+            return slots.length();
+        }
+    }
+
+    protected static final class Decision {
+        protected final String traceId;
+        protected final boolean keep;
+
+        protected Decision(String traceId, boolean keep) {
+            this.traceId = traceId;
+            this.keep = keep;
+        }
+    }
+
+    /**
+     * Builder for {@link TailSamplingSpanLifecycleListener}.
+     */
+    public static final class Builder {
+        private final List<SpanLifecycleListener> delegates = new ArrayList<>();
+        private TailSamplingPolicy policy = LatencyAndErrorTailSamplingPolicy.newBuilder().build();
+        private int maxBufferedTraces = DEFAULT_MAX_BUFFERED_TRACES;
+        private int maxSpansPerTrace = DEFAULT_MAX_SPANS_PER_TRACE;
+        private long traceTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_TRACE_TIMEOUT_MILLIS);
+
+        private Builder(List<? extends SpanLifecycleListener> delegates) {
+            if (delegates == null) {
+                throw new IllegalArgumentException("delegates cannot be null");
+            }
+
+            for (SpanLifecycleListener delegate : delegates) {
+                if (delegate == null) {
+                    throw new IllegalArgumentException("delegates cannot contain null");
+                }
+                this.delegates.add(delegate);
+            }
+        }
+
+        /**
+         * Sets the {@link TailSamplingPolicy} that decides which traces are kept. Defaults to a {@link
+         * LatencyAndErrorTailSamplingPolicy} with its default settings (keep errored and 5xx traces, drop the rest).
+         *
+         * @param policy the policy - cannot be null.
+         * @return a reference to this Builder
+         */
+        public Builder withPolicy(TailSamplingPolicy policy) {
+            if (policy == null) {
+                throw new IllegalArgumentException("policy cannot be null");
+            }
+            this.policy = policy;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of traces that can be buffered at once. Defaults to {@link
+         * #DEFAULT_MAX_BUFFERED_TRACES}.
+         *
+         * @param maxBufferedTraces the max number of buffered traces - must be greater than 0.
+         * @return a reference to this Builder
+         */
+        public Builder withMaxBufferedTraces(int maxBufferedTraces) {
+            if (maxBufferedTraces < 1) {
+                throw new IllegalArgumentException(
+                    "maxBufferedTraces must be greater than 0. Received: " + maxBufferedTraces
+                );
+            }
+            this.maxBufferedTraces = maxBufferedTraces;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of spans that will be buffered for a single trace. Defaults to {@link
+         * #DEFAULT_MAX_SPANS_PER_TRACE}.
+         *
+         * @param maxSpansPerTrace the max number of spans per trace - must be greater than 0.
+         * @return a reference to this Builder
+         */
+        public Builder withMaxSpansPerTrace(int maxSpansPerTrace) {
+            if (maxSpansPerTrace < 1) {
+                throw new IllegalArgumentException(
+                    "maxSpansPerTrace must be greater than 0. Received: " + maxSpansPerTrace
+                );
+            }
+            this.maxSpansPerTrace = maxSpansPerTrace;
+            return this;
+        }
+
+        /**
+         * Sets how long a trace can be buffered waiting for its local root span to complete before it's decided
+         * without it. Defaults to {@link #DEFAULT_TRACE_TIMEOUT_MILLIS} milliseconds.
+         *
+         * @param traceTimeout the trace timeout - must be greater than 0.
+         * @param timeUnit the unit of {@code traceTimeout} - cannot be null.
+         * @return a reference to this Builder
+         */
+        public Builder withTraceTimeout(long traceTimeout, TimeUnit timeUnit) {
+            if (traceTimeout <= 0) {
+                throw new IllegalArgumentException("traceTimeout must be greater than 0. Received: " + traceTimeout);
+            }
+            if (timeUnit == null) {
+                throw new IllegalArgumentException("timeUnit cannot be null");
+            }
+            this.traceTimeoutNanos = timeUnit.toNanos(traceTimeout);
+            return this;
+        }
+
+        /**
+         * @return A new {@link TailSamplingSpanLifecycleListener}.
+         */
+        public TailSamplingSpanLifecycleListener build() {
+            return new TailSamplingSpanLifecycleListener(this);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.nike.wingtips.metrics;
+
+import com.nike.wingtips.tags.KnownZipkinTags;
+
+/**
+ * The class of a span's {@link KnownZipkinTags#HTTP_STATUS_CODE} tag, used as one of the dimensions {@link
+ * SpanMetricsListener} aggregates by. Keeping the status class rather than the raw status code bounds the number of
+ * distinct metrics per span name.
+ */
+@SuppressWarnings("WeakerAccess")
+public enum HttpStatusClass {
+    /**
+     * The span had no status code tag, or it couldn't be parsed as a 1xx-5xx HTTP status code.
+     */
+    NONE("none"),
+    INFORMATIONAL("1xx"),
+    SUCCESS("2xx"),
+    REDIRECTION("3xx"),
+    CLIENT_ERROR("4xx"),
+    SERVER_ERROR("5xx");
+
+    private static final HttpStatusClass[] VALUES = values();
+
+    private final String tagValue;
+
+    HttpStatusClass(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    /**
+     * @return The short form of this status class (e.g. "2xx"), suitable for use as a metric tag value.
+     */
+    public String getTagValue() {
+        return tagValue;
+    }
+
+    /**
+     * Determines the status class of the given {@link KnownZipkinTags#HTTP_STATUS_CODE} tag value without parsing
+     * it into a number (and therefore without allocating). Leading and trailing whitespace is ignored.
+     *
+     * @param statusCodeTagValue The status code tag value - may be null.
+     * @return The status class of the given status code, or {@link #NONE} if it's null or not a three digit status
+     * code from 100 to 599.
+     */
+    public static HttpStatusClass fromStatusCodeTagValue(String statusCodeTagValue) {
+        if (statusCodeTagValue == null) {
+            return NONE;
+        }
+
+        int start = 0;
+        int end = statusCodeTagValue.length();
+        while (start < end && Character.isWhitespace(statusCodeTagValue.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(statusCodeTagValue.charAt(end - 1))) {
+            end--;
+        }
+
+        if (end - start != 3
+            || !isDigit(statusCodeTagValue.charAt(start + 1))
+            || !isDigit(statusCodeTagValue.charAt(start + 2))
+        ) {
+            return NONE;
+        }
+
+        int firstDigit = statusCodeTagValue.charAt(start) - '0';
+        if (firstDigit < 1 || firstDigit > 5) {
+            return NONE;
+        }
+
+        return VALUES[firstDigit];
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,229 @@
+package com.nike.wingtips.metrics;
+
+import com.nike.wingtips.util.StripedCounter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size, lock-free latency histogram with HDR-style log-linear buckets. Values are recorded in microseconds:
+ * every power of two range is split into {@link #SUB_BUCKETS_PER_POWER_OF_TWO} equal sub-buckets, so any recorded
+ * value is reported with a relative error of at most 12.5%. Values from 0 microseconds up to {@link
+ * #MAX_TRACKABLE_MICROS} (about 76 hours) get their own bucket - anything larger is counted in the last bucket.
+ *
+ * <p>{@link #recordNanos(long)} is a single atomic increment on a pre-allocated {@link AtomicLongArray} and never
+ * allocates. Latencies tend to cluster in a few buckets, so the buckets are striped like a {@link StripedCounter}:
+ * each stripe is a full set of buckets, each thread increments the stripe picked by its thread ID, and stripes are
+ * padded a cache line apart. Snapshots add the stripes together. Each stripe costs about 2.3KB, so the default number
+ * of stripes is the number of available processors rounded up to a power of two, capped at {@link
+ * #MAX_DEFAULT_NUM_STRIPES}.
+ */
+@SuppressWarnings("WeakerAccess")
+public class LatencyHistogram {
+
+    protected static final int SUB_BUCKET_BITS = 3;
+    /**
+     * The number of sub-buckets each power of two range is divided into.
+     */
+    public static final int SUB_BUCKETS_PER_POWER_OF_TWO = 1 << SUB_BUCKET_BITS;
+    protected static final int MAX_EXPONENT = 37;
+    /**
+     * The largest value (in microseconds) that gets its own bucket.
+     */
+    public static final long MAX_TRACKABLE_MICROS = (1L << (MAX_EXPONENT + 1)) - 1;
+    /**
+     * The total number of buckets.
+     */
+    public static final int NUM_BUCKETS = bucketIndexForMicros(MAX_TRACKABLE_MICROS) + 1;
+
+    /**
+     * The largest number of stripes {@link #LatencyHistogram()} will use.
+     */
+    public static final int MAX_DEFAULT_NUM_STRIPES = 8;
+    protected static final int DEFAULT_NUM_STRIPES = defaultNumStripes(Runtime.getRuntime().availableProcessors());
+    // Each stripe is padded by a cache line so the last buckets of one stripe don't share a line with the first
+    //      buckets of the next.
+    protected static final int STRIPE_LENGTH = NUM_BUCKETS + StripedCounter.CELL_SPACING;
+
+    protected final int numStripes;
+    protected final AtomicLongArray buckets;
+
+    /**
+     * Creates a histogram with the default number of stripes (see the class javadocs).
+     */
+    public LatencyHistogram() {
+        this(DEFAULT_NUM_STRIPES);
+    }
+
+    /**
+     * @param numStripes The number of stripes to spread the bucket counts across - must be a positive power of two.
+     */
+    public LatencyHistogram(int numStripes) {
+        if (numStripes <= 0 || Integer.bitCount(numStripes) != 1) {
+            throw new IllegalArgumentException("numStripes must be a positive power of two. Received: " + numStripes);
+        }
+        this.numStripes = numStripes;
+        this.buckets = new AtomicLongArray(numStripes * STRIPE_LENGTH);
+    }
+
+    protected static int defaultNumStripes(int availableProcessors) {
+        int numStripes = 1;
+        while (numStripes < availableProcessors && numStripes < MAX_DEFAULT_NUM_STRIPES) {
+            numStripes <<= 1;
+        }
+        return numStripes;
+    }
+
+    /**
+     * Records the given duration. Negative durations are recorded as 0.
+     *
+     * @param durationNanos The duration to record, in nanoseconds.
+     */
+    public void recordNanos(long durationNanos) {
+        int stripeStart = StripedCounter.currentThreadStripe(numStripes) * STRIPE_LENGTH;
+        buckets.incrementAndGet(stripeStart + bucketIndexForMicros(TimeUnit.NANOSECONDS.toMicros(durationNanos)));
+    }
+
+    /**
+     * @return A point-in-time copy of this histogram's bucket counts.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[NUM_BUCKETS];
+        for (int stripe = 0; stripe < numStripes; stripe++) {
+            int stripeStart = stripe * STRIPE_LENGTH;
+            for (int i = 0; i < NUM_BUCKETS; i++) {
+                counts[i] += buckets.get(stripeStart + i);
+            }
+        }
+        return new Snapshot(counts);
+    }
+
+    /**
+     * @return A copy of this histogram's bucket counts, resetting each bucket to zero as it's copied. Values recorded
+     * concurrently are never lost - they end up in either this snapshot or the next one.
+     */
+    public Snapshot snapshotAndReset() {
+        long[] counts = new long[NUM_BUCKETS];
+        for (int stripe = 0; stripe < numStripes; stripe++) {
+            int stripeStart = stripe * STRIPE_LENGTH;
+            for (int i = 0; i < NUM_BUCKETS; i++) {
+                counts[i] += buckets.getAndSet(stripeStart + i, 0);
+            }
+        }
+        return new Snapshot(counts);
+    }
+
+    /**
+     * @return The index of the bucket that the given value (in microseconds) is counted in.
+     */
+    public static int bucketIndexForMicros(long micros) {
+        if (micros < SUB_BUCKETS_PER_POWER_OF_TWO) {
+            return (micros < 0) ? 0 : (int) micros;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return NUM_BUCKETS - 1;
+        }
+
+        int subBucket = (int) ((micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS_PER_POWER_OF_TWO - 1));
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /**
+     * @return The smallest value (in microseconds) that is counted in the bucket with the given index.
+     */
+    public static long bucketLowerBoundMicros(int bucketIndex) {
+        if (bucketIndex < SUB_BUCKETS_PER_POWER_OF_TWO) {
+            return bucketIndex;
+        }
+
+        int exponent = (bucketIndex >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        long subBucket = bucketIndex & (SUB_BUCKETS_PER_POWER_OF_TWO - 1);
+        return (SUB_BUCKETS_PER_POWER_OF_TWO + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * @return The largest value (in microseconds) that is counted in the bucket with the given index. The last bucket
+     * also holds every value above {@link #MAX_TRACKABLE_MICROS}, but this returns {@link #MAX_TRACKABLE_MICROS} for
+     * it.
+     */
+    public static long bucketUpperBoundMicros(int bucketIndex) {
+        return (bucketIndex >= NUM_BUCKETS - 1)
+               ? MAX_TRACKABLE_MICROS
+               : bucketLowerBoundMicros(bucketIndex + 1) - 1;
+    }
+
+    /**
+     * An immutable copy of a {@link LatencyHistogram}'s bucket counts.
+     */
+    public static class Snapshot {
+        protected final long[] bucketCounts;
+        protected final long totalCount;
+
+        protected Snapshot(long[] bucketCounts) {
+            this.bucketCounts = bucketCounts;
+            long total = 0;
+            for (long count : bucketCounts) {
+                total += count;
+            }
+            this.totalCount = total;
+        }
+
+        /**
+         * @return The number of values recorded in this snapshot.
+         */
+        public long getTotalCount() {
+            return totalCount;
+        }
+
+        /**
+         * @return The number of values counted in the bucket with the given index. See {@link
+         * #bucketLowerBoundMicros(int)} and {@link #bucketUpperBoundMicros(int)} for the range of the bucket.
+         */
+        public long getBucketCount(int bucketIndex) {
+            return bucketCounts[bucketIndex];
+        }
+
+        /**
+         * @param percentile The percentile to get - must be between 0.0 and 100.0 (inclusive).
+         * @return The value (in nanoseconds) at or below which the given percentage of the recorded values fall,
+         * reported as the upper bound of the bucket it lands in (so it's never lower than the real value), or 0 if
+         * nothing was recorded.
+         */
+        public long getValueAtPercentileNanos(double percentile) {
+            if (!(percentile >= 0.0d && percentile <= 100.0d)) {
+                throw new IllegalArgumentException(
+                    "percentile must be between 0.0 and 100.0 (inclusive). Received: " + percentile
+                );
+            }
+
+            if (totalCount == 0) {
+                return 0;
+            }
+
+            long targetRank = Math.max(1, (long) Math.ceil((percentile / 100.0d) * totalCount));
+            long seen = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                seen += bucketCounts[i];
+                if (seen >= targetRank) {
+                    return TimeUnit.MICROSECONDS.toNanos(bucketUpperBoundMicros(i));
+                }
+            }
+
+            return TimeUnit.MICROSECONDS.toNanos(MAX_TRACKABLE_MICROS);
+        }
+
+        /**
+         * @return The upper bound (in nanoseconds) of the highest non-empty bucket, or 0 if nothing was recorded.
+         */
+        public long getMaxValueNanos() {
+            for (int i = bucketCounts.length - 1; i >= 0; i--) {
+                if (bucketCounts[i] > 0) {
+                    return TimeUnit.MICROSECONDS.toNanos(bucketUpperBoundMicros(i));
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.nike.wingtips.metrics;
+
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.util.StripedCounter;
+
+/**
+ * The live request count, error count, total duration, and {@link LatencyHistogram} for one (span name, {@link
+ * SpanPurpose}, {@link HttpStatusClass}) combination tracked by {@link SpanMetricsListener}.
+ *
+ * <p>The counters are {@link StripedCounter}s and the histogram is striped the same way (see {@link
+ * LatencyHistogram}), so {@link #record(long, boolean)} doesn't allocate and concurrent threads rarely contend on the
+ * same cell. All values are cumulative since this object was created, which is what
+ * monitoring systems like Micrometer expect. {@link #snapshotAndReset()} reports deltas since the last call without
+ * touching the cumulative values, so both styles of reporting can be used side by side.
+ */
+@SuppressWarnings("WeakerAccess")
+public class SpanMetrics {
+
+    protected final String spanName;
+    protected final SpanPurpose spanPurpose;
+    protected final HttpStatusClass statusClass;
+
+    protected final StripedCounter requestCount = new StripedCounter();
+    protected final StripedCounter errorCount = new StripedCounter();
+    protected final StripedCounter totalDurationNanos = new StripedCounter();
+    protected final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+    // The cumulative values as of the last snapshotAndReset(). Guarded by this.
+    protected SpanMetricsSnapshot lastResetSnapshot;
+
+    public SpanMetrics(String spanName, SpanPurpose spanPurpose, HttpStatusClass statusClass) {
+        if (spanName == null) {
+            throw new IllegalArgumentException("spanName cannot be null");
+        }
+        if (spanPurpose == null) {
+            throw new IllegalArgumentException("spanPurpose cannot be null");
+        }
+        if (statusClass == null) {
+            throw new IllegalArgumentException("statusClass cannot be null");
+        }
+        this.spanName = spanName;
+        this.spanPurpose = spanPurpose;
+        this.statusClass = statusClass;
+        this.lastResetSnapshot = new SpanMetricsSnapshot(
+            spanName, spanPurpose, statusClass, 0, 0, 0, new LatencyHistogram().snapshot()
+        );
+    }
+
+    /**
+     * Records one completed span.
+     *
+     * @param durationNanos The duration of the span in nanoseconds.
+     * @param error Whether the span was an error.
+     */
+    public void record(long durationNanos, boolean error) {
+        requestCount.increment();
+        if (error) {
+            errorCount.increment();
+        }
+        totalDurationNanos.add(durationNanos);
+        latencyHistogram.recordNanos(durationNanos);
+    }
+
+    /**
+     * @return The span name these metrics are for.
+     */
+    public String getSpanName() {
+        return spanName;
+    }
+
+    /**
+     * @return The {@link SpanPurpose} these metrics are for.
+     */
+    public SpanPurpose getSpanPurpose() {
+        return spanPurpose;
+    }
+
+    /**
+     * @return The {@link HttpStatusClass} these metrics are for.
+     */
+    public HttpStatusClass getStatusClass() {
+        return statusClass;
+    }
+
+    /**
+     * @return The number of spans recorded since this object was created.
+     */
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    /**
+     * @return The number of errored spans recorded since this object was created.
+     */
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    /**
+     * @return The sum of the durations (in nanoseconds) of all spans recorded since this object was created.
+     */
+    public long getTotalDurationNanos() {
+        return totalDurationNanos.sum();
+    }
+
+    /**
+     * @return A snapshot of the cumulative values since this object was created. Each value is read atomically, but
+     * spans recorded while the snapshot is being taken may be reflected in some values and not others.
+     */
+    public SpanMetricsSnapshot snapshot() {
+        return new SpanMetricsSnapshot(
+            spanName, spanPurpose, statusClass,
+            getRequestCount(), getErrorCount(), getTotalDurationNanos(), latencyHistogram.snapshot()
+        );
+    }
+
+    /**
+     * @return A snapshot of the values recorded since the last time this method was called (or since this object was
+     * created if it has never been called). Spans recorded concurrently are never lost or double counted - they show
+     * up in either this snapshot or the next one. The cumulative values returned by the other getters are not
+     * affected.
+     */
+    public synchronized SpanMetricsSnapshot snapshotAndReset() {
+        SpanMetricsSnapshot current = snapshot();
+        SpanMetricsSnapshot delta = current.minus(lastResetSnapshot);
+        lastResetSnapshot = current;
+        return delta;
+    }
+}
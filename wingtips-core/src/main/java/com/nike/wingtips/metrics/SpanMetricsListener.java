@@ -0,0 +1,342 @@
+package com.nike.wingtips.metrics;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.lifecyclelistener.RecyclingSafeSpanLifecycleListener;
+import com.nike.wingtips.lifecyclelistener.SpanLifecycleListener;
+import com.nike.wingtips.tags.KnownZipkinTags;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link SpanLifecycleListener} that turns completed spans into RED (rate, errors, duration) metrics, so you don't
+ * need a separate metrics interceptor that duplicates what the Wingtips instrumentation already does. Spans are
+ * aggregated per (span name, {@link SpanPurpose}, {@link HttpStatusClass}) into a {@link SpanMetrics}, where:
+ * <ul>
+ *     <li>every completed span counts as a request,</li>
+ *     <li>a span counts as an error if it has a {@link KnownZipkinTags#ERROR} tag,</li>
+ *     <li>
+ *         the status class comes from the span's {@link KnownZipkinTags#HTTP_STATUS_CODE} tag (or is {@link
+ *         HttpStatusClass#NONE} if there isn't one), and
+ *     </li>
+ *     <li>the span's duration is added to a log-bucketed {@link LatencyHistogram}.</li>
+ * </ul>
+ *
+ * <p>{@link #spanCompleted(Span)} is called for every span whether or not it's sampled, so the metrics cover all
+ * traffic rather than just the sampled traces. Spans in propagation-only mode (see {@link
+ * com.nike.wingtips.Tracer#setPropagationOnlyUnsampledSpans(boolean)}) never reach lifecycle listeners and so are not
+ * counted. Recording a span for an already-seen key is lock-free and allocation-free.
+ *
+ * <p>Span names should be low-cardinality (e.g. {@code GET /foo/{id}} as generated by {@code
+ * HttpRequestTracingUtils.generateSafeSpanName(...)}, not {@code GET /foo/1234}). As a safety net, once {@link
+ * Builder#withMaxDistinctSpanNames(int)} distinct span names have been seen any further new names are aggregated
+ * under {@link #OVERFLOW_SPAN_NAME} instead of growing the metrics forever.
+ *
+ * <p>Read the metrics with {@link #snapshot()} (cumulative values) or {@link #snapshotAndReset()} (values since the
+ * last reset), or hook them up to a monitoring system via {@link #getAllSpanMetrics()} and {@link
+ * #addSpanMetricsCreatedCallback(SpanMetricsCreatedCallback)}. Register it like any other listener:
+ *
+ * <pre>
+ *  SpanMetricsListener spanMetrics = SpanMetricsListener.newBuilder().build();
+ *  Tracer.getInstance().addSpanLifecycleListener(spanMetrics);
+ * </pre>
+ */
+@SuppressWarnings("WeakerAccess")
+public class SpanMetricsListener implements RecyclingSafeSpanLifecycleListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpanMetricsListener.class);
+
+    /**
+     * The default value for {@link Builder#withMaxDistinctSpanNames(int)}.
+     */
+    public static final int DEFAULT_MAX_DISTINCT_SPAN_NAMES = 1000;
+
+    /**
+     * The span name that spans are aggregated under once {@link Builder#withMaxDistinctSpanNames(int)} is reached.
+     */
+    public static final String OVERFLOW_SPAN_NAME = "wingtips_other_span_names";
+
+    protected static final SpanPurpose[] SPAN_PURPOSES = SpanPurpose.values();
+    protected static final HttpStatusClass[] STATUS_CLASSES = HttpStatusClass.values();
+
+    protected final int maxDistinctSpanNames;
+
+    protected final ConcurrentMap<String, SpanNameMetrics> spanNameMetrics = new ConcurrentHashMap<>();
+    protected final AtomicInteger distinctSpanNameCount = new AtomicInteger(0);
+    protected final AtomicLong overflowedSpanCount = new AtomicLong(0);
+    protected final List<SpanMetricsCreatedCallback> spanMetricsCreatedCallbacks = new CopyOnWriteArrayList<>();
+
+    protected SpanMetricsListener(Builder builder) {
+        this.maxDistinctSpanNames = builder.maxDistinctSpanNames;
+    }
+
+    /**
+     * @return A new {@link Builder}.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public void spanStarted(Span span) {
+        // Nothing to do - metrics are recorded when the span completes.
+    }
+
+    @Override
+    public void spanSampled(Span span) {
+        // Nothing to do - metrics are recorded when the span completes.
+    }
+
+    @Override
+    public void spanCompleted(Span span) {
+        Long durationNanos = span.getDurationNanos();
+        if (durationNanos == null) {
+            // Not really completed, so there's nothing to record.
+            return;
+        }
+
+        Map<String, String> tags = span.getTags();
+        boolean error = tags.containsKey(KnownZipkinTags.ERROR);
+        HttpStatusClass statusClass = HttpStatusClass.fromStatusCodeTagValue(
+            tags.get(KnownZipkinTags.HTTP_STATUS_CODE)
+        );
+
+        getOrCreateSpanMetrics(span.getSpanName(), span.getSpanPurpose(), statusClass).record(durationNanos, error);
+    }
+
+    protected SpanMetrics getOrCreateSpanMetrics(String spanName, SpanPurpose spanPurpose, HttpStatusClass statusClass) {
+        SpanNameMetrics nameMetrics = getOrCreateSpanNameMetrics(spanName);
+        int slot = slotFor(spanPurpose, statusClass);
+
+        SpanMetrics metrics = nameMetrics.slots.get(slot);
+        if (metrics != null) {
+            return metrics;
+        }
+
+        SpanMetrics newMetrics = new SpanMetrics(nameMetrics.spanName, spanPurpose, statusClass);
+        if (nameMetrics.slots.compareAndSet(slot, null, newMetrics)) {
+            notifySpanMetricsCreated(newMetrics);
+            return newMetrics;
+        }
+
+        // Another thread beat us to it.
+        return nameMetrics.slots.get(slot);
+    }
+
+    protected SpanNameMetrics getOrCreateSpanNameMetrics(String spanName) {
+        if (spanName == null) {
+            spanName = "";
+        }
+
+        SpanNameMetrics nameMetrics = spanNameMetrics.get(spanName);
+        if (nameMetrics != null) {
+            return nameMetrics;
+        }
+
+        if (distinctSpanNameCount.incrementAndGet() > maxDistinctSpanNames) {
+            distinctSpanNameCount.decrementAndGet();
+            if (overflowedSpanCount.getAndIncrement() == 0) {
+                logger.warn(
+                    "SpanMetricsListener has seen its max of {} distinct span names. Any more new span names will be "
+                    + "aggregated under {} - make sure your span names don't contain IDs or other high-cardinality "
+                    + "values. First overflowed span name: {}",
+                    maxDistinctSpanNames, OVERFLOW_SPAN_NAME, spanName
+                );
+            }
+            return getOrCreateOverflowSpanNameMetrics();
+        }
+
+        SpanNameMetrics newNameMetrics = new SpanNameMetrics(spanName);
+        SpanNameMetrics existing = spanNameMetrics.putIfAbsent(spanName, newNameMetrics);
+        if (existing != null) {
+            // Another thread beat us to it, so this thread didn't actually add a new span name.
+            distinctSpanNameCount.decrementAndGet();
+            return existing;
+        }
+
+        return newNameMetrics;
+    }
+
+    protected SpanNameMetrics getOrCreateOverflowSpanNameMetrics() {
+        SpanNameMetrics overflow = spanNameMetrics.get(OVERFLOW_SPAN_NAME);
+        if (overflow == null) {
+            // The overflow name doesn't count against maxDistinctSpanNames.
+            SpanNameMetrics newOverflow = new SpanNameMetrics(OVERFLOW_SPAN_NAME);
+            overflow = spanNameMetrics.putIfAbsent(OVERFLOW_SPAN_NAME, newOverflow);
+            if (overflow == null) {
+                overflow = newOverflow;
+            }
+        }
+        return overflow;
+    }
+
+    protected static int slotFor(SpanPurpose spanPurpose, HttpStatusClass statusClass) {
+        if (spanPurpose == null) {
+            spanPurpose = SpanPurpose.UNKNOWN;
+        }
+        return spanPurpose.ordinal() * STATUS_CLASSES.length + statusClass.ordinal();
+    }
+
+    protected void notifySpanMetricsCreated(SpanMetrics metrics) {
+        for (SpanMetricsCreatedCallback callback : spanMetricsCreatedCallbacks) {
+            try {
+                callback.spanMetricsCreated(metrics);
+            }
+            catch (Throwable t) {
+                logger.warn("SpanMetricsCreatedCallback threw an exception. It will be ignored.", t);
+            }
+        }
+    }
+
+    /**
+     * Registers a callback that is called whenever a new {@link SpanMetrics} is created, i.e. the first time a span
+     * with a new (span name, {@link SpanPurpose}, {@link HttpStatusClass}) combination completes. The callback is
+     * called on the thread that completed the span, so it should be quick. It is not called for {@link SpanMetrics}
+     * that already exist - use {@link #getAllSpanMetrics()} for those.
+     *
+     * @param callback The callback to add - cannot be null.
+     */
+    public void addSpanMetricsCreatedCallback(SpanMetricsCreatedCallback callback) {
+        if (callback == null) {
+            throw new IllegalArgumentException("callback cannot be null");
+        }
+        spanMetricsCreatedCallbacks.add(callback);
+    }
+
+    /**
+     * @return The live {@link SpanMetrics} for every (span name, {@link SpanPurpose}, {@link HttpStatusClass})
+     * combination seen so far.
+     */
+    public List<SpanMetrics> getAllSpanMetrics() {
+        List<SpanMetrics> result = new ArrayList<>();
+        for (SpanNameMetrics nameMetrics : spanNameMetrics.values()) {
+            for (int i = 0; i < nameMetrics.slots.length(); i++) {
+                SpanMetrics metrics = nameMetrics.slots.get(i);
+                if (metrics != null) {
+                    result.add(metrics);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The live {@link SpanMetrics} for the given combination, or null if no matching span has completed yet.
+     */
+    public SpanMetrics getSpanMetrics(String spanName, SpanPurpose spanPurpose, HttpStatusClass statusClass) {
+        SpanNameMetrics nameMetrics = spanNameMetrics.get(spanName);
+        if (nameMetrics == null) {
+            return null;
+        }
+        return nameMetrics.slots.get(slotFor(spanPurpose, statusClass));
+    }
+
+    /**
+     * @return A snapshot of the cumulative values of every {@link SpanMetrics} - see {@link SpanMetrics#snapshot()}.
+     */
+    public List<SpanMetricsSnapshot> snapshot() {
+        List<SpanMetrics> allMetrics = getAllSpanMetrics();
+        List<SpanMetricsSnapshot> result = new ArrayList<>(allMetrics.size());
+        for (SpanMetrics metrics : allMetrics) {
+            result.add(metrics.snapshot());
+        }
+        return result;
+    }
+
+    /**
+     * @return A snapshot of the values recorded since the last call to this method for every {@link SpanMetrics} -
+     * see {@link SpanMetrics#snapshotAndReset()}. This does not affect {@link #snapshot()} or anything else reading
+     * the cumulative values (like a Micrometer registry).
+     */
+    public List<SpanMetricsSnapshot> snapshotAndReset() {
+        List<SpanMetrics> allMetrics = getAllSpanMetrics();
+        List<SpanMetricsSnapshot> result = new ArrayList<>(allMetrics.size());
+        for (SpanMetrics metrics : allMetrics) {
+            result.add(metrics.snapshotAndReset());
+        }
+        return result;
+    }
+
+    /**
+     * @return The max number of distinct span names that will be tracked before new names are aggregated under
+     * {@link #OVERFLOW_SPAN_NAME}.
+     */
+    public int getMaxDistinctSpanNames() {
+        return maxDistinctSpanNames;
+    }
+
+    /**
+     * @return The number of spans that were aggregated under {@link #OVERFLOW_SPAN_NAME} because {@link
+     * #getMaxDistinctSpanNames()} had been reached.
+     */
+    public long getOverflowedSpanCount() {
+        return overflowedSpanCount.get();
+    }
+
+    /**
+     * Called by {@link SpanMetricsListener} when a new {@link SpanMetrics} is created - see {@link
+     * #addSpanMetricsCreatedCallback(SpanMetricsCreatedCallback)}.
+     */
+    public interface SpanMetricsCreatedCallback {
+        void spanMetricsCreated(SpanMetrics spanMetrics);
+    }
+
+    /**
+     * The {@link SpanMetrics} for one span name, with one slot per ({@link SpanPurpose}, {@link HttpStatusClass})
+     * combination so a lookup by purpose and status class is just an array index.
+     */
+    protected static class SpanNameMetrics {
+        protected final String spanName;
+        protected final AtomicReferenceArray<SpanMetrics> slots =
+            new AtomicReferenceArray<>(SPAN_PURPOSES.length * STATUS_CLASSES.length);
+
+        protected SpanNameMetrics(String spanName) {
+            this.spanName = spanName;
+        }
+    }
+
+    /**
+     * Builder for {@link SpanMetricsListener}.
+     */
+    public static final class Builder {
+        private int maxDistinctSpanNames = DEFAULT_MAX_DISTINCT_SPAN_NAMES;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the max number of distinct span names that will be tracked. Spans with new names after that are
+         * aggregated under {@link #OVERFLOW_SPAN_NAME}. Defaults to {@link #DEFAULT_MAX_DISTINCT_SPAN_NAMES}.
+         *
+         * @param maxDistinctSpanNames the max number of span names - must be greater than 0.
+         * @return a reference to this Builder
+         */
+        public Builder withMaxDistinctSpanNames(int maxDistinctSpanNames) {
+            if (maxDistinctSpanNames <= 0) {
+                throw new IllegalArgumentException(
+                    "maxDistinctSpanNames must be greater than 0. Received: " + maxDistinctSpanNames
+                );
+            }
+            this.maxDistinctSpanNames = maxDistinctSpanNames;
+            return this;
+        }
+
+        /**
+         * @return A new {@link SpanMetricsListener}.
+         */
+        public SpanMetricsListener build() {
+            return new SpanMetricsListener(this);
+        }
+    }
+}
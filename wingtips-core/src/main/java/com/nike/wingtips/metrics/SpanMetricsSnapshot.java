@@ -0,0 +1,107 @@
+package com.nike.wingtips.metrics;
+
+import com.nike.wingtips.Span.SpanPurpose;
+
+/**
+ * An immutable copy of the values tracked by a {@link SpanMetrics} - see {@link SpanMetrics#snapshot()} and {@link
+ * SpanMetrics#snapshotAndReset()}.
+ */
+@SuppressWarnings("WeakerAccess")
+public class SpanMetricsSnapshot {
+
+    protected final String spanName;
+    protected final SpanPurpose spanPurpose;
+    protected final HttpStatusClass statusClass;
+    protected final long requestCount;
+    protected final long errorCount;
+    protected final long totalDurationNanos;
+    protected final LatencyHistogram.Snapshot latencyHistogram;
+
+    public SpanMetricsSnapshot(String spanName,
+                               SpanPurpose spanPurpose,
+                               HttpStatusClass statusClass,
+                               long requestCount,
+                               long errorCount,
+                               long totalDurationNanos,
+                               LatencyHistogram.Snapshot latencyHistogram) {
+        if (latencyHistogram == null) {
+            throw new IllegalArgumentException("latencyHistogram cannot be null");
+        }
+        this.spanName = spanName;
+        this.spanPurpose = spanPurpose;
+        this.statusClass = statusClass;
+        this.requestCount = requestCount;
+        this.errorCount = errorCount;
+        this.totalDurationNanos = totalDurationNanos;
+        this.latencyHistogram = latencyHistogram;
+    }
+
+    /**
+     * @return A snapshot of the difference between this snapshot and the given earlier one.
+     */
+    protected SpanMetricsSnapshot minus(SpanMetricsSnapshot earlier) {
+        long[] bucketCounts = new long[LatencyHistogram.NUM_BUCKETS];
+        for (int i = 0; i < bucketCounts.length; i++) {
+            bucketCounts[i] = latencyHistogram.getBucketCount(i) - earlier.latencyHistogram.getBucketCount(i);
+        }
+
+        return new SpanMetricsSnapshot(
+            spanName, spanPurpose, statusClass,
+            requestCount - earlier.requestCount,
+            errorCount - earlier.errorCount,
+            totalDurationNanos - earlier.totalDurationNanos,
+            new LatencyHistogram.Snapshot(bucketCounts)
+        );
+    }
+
+    public String getSpanName() {
+        return spanName;
+    }
+
+    public SpanPurpose getSpanPurpose() {
+        return spanPurpose;
+    }
+
+    public HttpStatusClass getStatusClass() {
+        return statusClass;
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getTotalDurationNanos() {
+        return totalDurationNanos;
+    }
+
+    /**
+     * @return The mean span duration in nanoseconds, or 0 if no spans were recorded.
+     */
+    public long getMeanDurationNanos() {
+        return (requestCount == 0) ? 0 : totalDurationNanos / requestCount;
+    }
+
+    /**
+     * @return The latency histogram - see {@link LatencyHistogram.Snapshot#getValueAtPercentileNanos(double)} for
+     * getting percentiles out of it.
+     */
+    public LatencyHistogram.Snapshot getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    @Override
+    public String toString() {
+        return "SpanMetricsSnapshot{" +
+               "spanName='" + spanName + '\'' +
+               ", spanPurpose=" + spanPurpose +
+               ", statusClass=" + statusClass +
+               ", requestCount=" + requestCount +
+               ", errorCount=" + errorCount +
+               ", totalDurationNanos=" + totalDurationNanos +
+               '}';
+    }
+}
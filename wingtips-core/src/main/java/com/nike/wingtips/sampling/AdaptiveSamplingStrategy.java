@@ -0,0 +1,199 @@
+package com.nike.wingtips.sampling;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.lifecyclelistener.RecyclingSafeSpanLifecycleListener;
+import com.nike.wingtips.lifecyclelistener.SpanLifecycleListener;
+import com.nike.wingtips.util.StripedCounter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link RootSpanSamplingStrategy} that continuously adjusts a trace ID based sampling probability (see {@link
+ * ProbabilisticSamplingStrategy}) so that the application emits roughly a target number of sampled spans per second.
+ * Unlike {@link RateLimitingSamplingStrategy} this accounts for the size of each trace - a service whose requests
+ * fan out into many child spans will sample proportionally fewer traces.
+ *
+ * <p>This class is also a {@link SpanLifecycleListener} that counts completed sampled spans. Register it with {@link
+ * com.nike.wingtips.Tracer#addSpanLifecycleListener(SpanLifecycleListener)} in addition to setting it as the root span
+ * sampling strategy - if it is not registered as a listener then it can only count sampled root spans and
+ * effectively targets root spans per second instead.
+ *
+ * <p>Counting is done in striped, cache line padded counters so that threads don't contend with each other, and the
+ * probability is recomputed at most once per adjustment interval by whichever thread wins a CAS on the interval
+ * deadline. Neither the sampling decision nor {@link #spanCompleted(Span)} allocate.
+ */
+public class AdaptiveSamplingStrategy
+    implements TraceIdAwareRootSpanSamplingStrategy, RecyclingSafeSpanLifecycleListener {
+
+    /**
+     * The default initial sampling probability, used until the first adjustment interval has elapsed.
+     */
+    public static final double DEFAULT_INITIAL_PROBABILITY = 1.0d;
+    /**
+     * How often the sampling probability is recomputed.
+     */
+    public static final long DEFAULT_ADJUSTMENT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /**
+     * The lowest probability this strategy will go down to, so it can still observe traffic and recover when the
+     * span rate drops.
+     */
+    protected static final double MIN_PROBABILITY = 0.000001d;
+    /**
+     * The maximum factor the probability may change by in a single adjustment, to damp oscillation.
+     */
+    protected static final double MAX_ADJUSTMENT_FACTOR = 2.0d;
+
+    protected final double targetSpansPerSecond;
+    protected final long adjustmentIntervalNanos;
+
+    protected volatile double probability;
+    protected volatile long boundary;
+
+    protected final AtomicLong nextAdjustmentNanos;
+    protected volatile long lastAdjustmentNanos;
+    protected final StripedCounter sampledRootSpanCounter = new StripedCounter();
+    protected final StripedCounter completedSampledSpanCounter = new StripedCounter();
+
+    /**
+     * Creates a new instance that starts out sampling with {@link #DEFAULT_INITIAL_PROBABILITY}.
+     *
+     * @param targetSpansPerSecond The number of sampled spans per second to aim for. Must be greater than 0.
+     */
+    public AdaptiveSamplingStrategy(double targetSpansPerSecond) {
+        this(targetSpansPerSecond, DEFAULT_INITIAL_PROBABILITY);
+    }
+
+    /**
+     * @param targetSpansPerSecond The number of sampled spans per second to aim for. Must be greater than 0.
+     * @param initialProbability The sampling probability to use until the first adjustment interval has elapsed.
+     * Must be between 0.0 and 1.0 (inclusive).
+     */
+    public AdaptiveSamplingStrategy(double targetSpansPerSecond, double initialProbability) {
+        this(targetSpansPerSecond, initialProbability, DEFAULT_ADJUSTMENT_INTERVAL_NANOS);
+    }
+
+    protected AdaptiveSamplingStrategy(double targetSpansPerSecond,
+                                       double initialProbability,
+                                       long adjustmentIntervalNanos) {
+        if (!(targetSpansPerSecond > 0)) {
+            throw new IllegalArgumentException(
+                "targetSpansPerSecond must be greater than 0. Was: " + targetSpansPerSecond
+            );
+        }
+        if (!(initialProbability >= 0.0d && initialProbability <= 1.0d)) {
+            throw new IllegalArgumentException(
+                "initialProbability must be between 0.0 and 1.0 (inclusive). Was: " + initialProbability
+            );
+        }
+        if (adjustmentIntervalNanos <= 0) {
+            throw new IllegalArgumentException(
+                "adjustmentIntervalNanos must be greater than 0. Was: " + adjustmentIntervalNanos
+            );
+        }
+
+        this.targetSpansPerSecond = targetSpansPerSecond;
+        this.adjustmentIntervalNanos = adjustmentIntervalNanos;
+        setProbability(initialProbability);
+        long now = nanoTime();
+        this.lastAdjustmentNanos = now;
+        this.nextAdjustmentNanos = new AtomicLong(now + adjustmentIntervalNanos);
+    }
+
+    /**
+     * @return The current {@link System#nanoTime()} - exposed for testing.
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    protected void setProbability(double newProbability) {
+        this.probability = newProbability;
+        this.boundary = ProbabilisticSamplingStrategy.boundaryFor(newProbability);
+    }
+
+    @Override
+    public boolean isNextRootSpanSampleable() {
+        return isRootSpanSampleable(ThreadLocalRandom.current().nextLong());
+    }
+
+    @Override
+    public boolean isRootSpanSampleable(long traceId) {
+        adjustProbabilityIfIntervalElapsed();
+
+        boolean sampled = ProbabilisticSamplingStrategy.isTraceIdWithinBoundary(traceId, boundary);
+        if (sampled) {
+            sampledRootSpanCounter.increment();
+        }
+        return sampled;
+    }
+
+    /**
+     * Recomputes the sampling probability if the current adjustment interval has elapsed. Only the thread that wins
+     * the CAS on {@link #nextAdjustmentNanos} does the work, everybody else just does a volatile read.
+     */
+    protected void adjustProbabilityIfIntervalElapsed() {
+        long now = nanoTime();
+        long deadline = nextAdjustmentNanos.get();
+        if (now - deadline < 0 || !nextAdjustmentNanos.compareAndSet(deadline, now + adjustmentIntervalNanos)) {
+            return;
+        }
+
+        long elapsedNanos = Math.max(1L, now - lastAdjustmentNanos);
+        lastAdjustmentNanos = now;
+        long sampledRootSpans = sampledRootSpanCounter.sumThenReset();
+        long completedSampledSpans = completedSampledSpanCounter.sumThenReset();
+        // Completed spans includes the sampled root spans once they finish, but if this isn't registered as a
+        //      listener (or the spans from this interval haven't finished yet) the root span count is all we have.
+        double observedSpansPerSecond = ((double) Math.max(sampledRootSpans, completedSampledSpans))
+                                        * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+
+        setProbability(calculateNewProbability(probability, observedSpansPerSecond));
+    }
+
+    /**
+     * @return The new sampling probability given the current one and the observed sampled span rate for the last
+     * interval.
+     */
+    protected double calculateNewProbability(double currentProbability, double observedSpansPerSecond) {
+        double factor = (observedSpansPerSecond <= 0)
+                        ? MAX_ADJUSTMENT_FACTOR
+                        : targetSpansPerSecond / observedSpansPerSecond;
+        factor = Math.min(MAX_ADJUSTMENT_FACTOR, Math.max(1 / MAX_ADJUSTMENT_FACTOR, factor));
+
+        double newProbability = Math.max(currentProbability, MIN_PROBABILITY) * factor;
+        return Math.min(1.0d, Math.max(MIN_PROBABILITY, newProbability));
+    }
+
+    @Override
+    public void spanStarted(Span span) {
+        // Do nothing.
+    }
+
+    @Override
+    public void spanSampled(Span span) {
+        // Do nothing.
+    }
+
+    @Override
+    public void spanCompleted(Span span) {
+        if (span.isSampleable()) {
+            completedSampledSpanCounter.increment();
+        }
+    }
+
+    /**
+     * @return The current sampling probability.
+     */
+    public double getProbability() {
+        return probability;
+    }
+
+    /**
+     * @return The number of sampled spans per second this strategy is aiming for.
+     */
+    public double getTargetSpansPerSecond() {
+        return targetSpansPerSecond;
+    }
+}
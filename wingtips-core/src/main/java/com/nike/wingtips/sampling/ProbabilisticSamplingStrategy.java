@@ -0,0 +1,94 @@
+package com.nike.wingtips.sampling;
+
+import com.nike.wingtips.TraceAndSpanIdGenerator;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link RootSpanSamplingStrategy} that samples a fixed percentage of traces. The decision is derived from the trace
+ * ID, so every system that uses this strategy with the same probability makes the same decision for a given trace.
+ * The comparison matches the one used by Zipkin's Brave {@code CountingSampler}/{@code BoundarySampler} family: a
+ * trace is sampled if the absolute value of the lower 64 bits of its trace ID is less than or equal to {@code
+ * Long.MAX_VALUE * probability}.
+ *
+ * <p>Sampling decisions only read an immutable field so they are allocation-free and never contend across threads.
+ */
+public class ProbabilisticSamplingStrategy implements TraceIdAwareRootSpanSamplingStrategy {
+
+    protected final double probability;
+    protected final long boundary;
+
+    /**
+     * @param probability The probability that a given trace will be sampled. Must be between 0.0 and 1.0 (inclusive).
+     */
+    public ProbabilisticSamplingStrategy(double probability) {
+        if (!(probability >= 0.0d && probability <= 1.0d)) {
+            throw new IllegalArgumentException("probability must be between 0.0 and 1.0 (inclusive). Was: " + probability);
+        }
+
+        this.probability = probability;
+        this.boundary = boundaryFor(probability);
+    }
+
+    /**
+     * @return The {@code traceId} boundary that corresponds to the given probability - see {@link
+     * #isTraceIdWithinBoundary(long, long)}.
+     */
+    protected static long boundaryFor(double probability) {
+        return (long) (Long.MAX_VALUE * probability);
+    }
+
+    /**
+     * @return true if the given trace ID falls within the given boundary (as computed by {@link
+     * #boundaryFor(double)}), false otherwise. A boundary of 0 never matches so that a probability of 0.0 never
+     * samples.
+     */
+    protected static boolean isTraceIdWithinBoundary(long traceId, long boundary) {
+        if (boundary == 0L) {
+            return false;
+        }
+        // Math.abs(Long.MIN_VALUE) is still negative, so treat it as the largest possible value.
+        long absTraceId = (traceId == Long.MIN_VALUE) ? Long.MAX_VALUE : Math.abs(traceId);
+        return absTraceId <= boundary;
+    }
+
+    /**
+     * Not deterministic since there's no trace ID to go on - uses a {@link ThreadLocalRandom} value instead. The
+     * {@link com.nike.wingtips.Tracer} calls {@link #isRootSpanSampleable(long)} rather than this method.
+     */
+    @Override
+    public boolean isNextRootSpanSampleable() {
+        return isRootSpanSampleable(ThreadLocalRandom.current().nextLong());
+    }
+
+    @Override
+    public boolean isRootSpanSampleable(long traceId) {
+        return isTraceIdWithinBoundary(traceId, boundary);
+    }
+
+    /**
+     * Makes the same decision as {@link #isRootSpanSampleable(long)} for the given lowerhex trace ID (16 or 32
+     * characters - only the lower 64 bits of a 128 bit trace ID are used). Useful for reproducing the decision
+     * elsewhere, e.g. in a service that receives an unsampled trace and wants to know what this strategy decided.
+     *
+     * @param traceId The lowerhex trace ID - must not be null.
+     * @return true if the trace with the given ID would be sampled by this strategy, false otherwise.
+     */
+    public boolean isTraceSampleable(String traceId) {
+        if (traceId == null) {
+            throw new IllegalArgumentException("traceId cannot be null");
+        }
+
+        long lower64Bits = (traceId.length() == 32)
+                           ? TraceAndSpanIdGenerator.unsignedLowerHexStringToLong(traceId, 16)
+                           : TraceAndSpanIdGenerator.unsignedLowerHexStringToLong(traceId);
+        return isRootSpanSampleable(lower64Bits);
+    }
+
+    /**
+     * @return The probability that a given trace will be sampled.
+     */
+    public double getProbability() {
+        return probability;
+    }
+}
@@ -0,0 +1,74 @@
+package com.nike.wingtips.sampling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link RootSpanSamplingStrategy} that samples at most a given number of new traces per second, regardless of how
+ * much traffic the application receives. This is useful for keeping tracing overhead and collector load bounded on
+ * very high throughput services while still sampling every trace on low throughput ones.
+ *
+ * <p>This is a lock-free token bucket with a capacity of one second's worth of traces, implemented as a generic cell
+ * rate algorithm: a single {@link AtomicLong} tracks the "theoretical arrival time" of the next trace, and each
+ * sampled trace pushes it forward by {@code 1s / tracesPerSecond}. Once the budget is used up the unsampled path is a
+ * single volatile read, so the strategy is allocation-free and threads only contend (via a CAS retry, never a lock)
+ * while there is budget left to hand out.
+ */
+public class RateLimitingSamplingStrategy implements RootSpanSamplingStrategy {
+
+    protected static final long ONE_SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    protected final int tracesPerSecond;
+    protected final long nanosPerTrace;
+    protected final AtomicLong theoreticalArrivalTimeNanos;
+
+    /**
+     * @param tracesPerSecond The maximum number of traces to sample per second. Must not be negative - zero means no
+     * traces will be sampled.
+     */
+    public RateLimitingSamplingStrategy(int tracesPerSecond) {
+        if (tracesPerSecond < 0) {
+            throw new IllegalArgumentException("tracesPerSecond cannot be negative. Was: " + tracesPerSecond);
+        }
+
+        this.tracesPerSecond = tracesPerSecond;
+        this.nanosPerTrace = (tracesPerSecond == 0) ? 0 : Math.max(1L, ONE_SECOND_NANOS / tracesPerSecond);
+        this.theoreticalArrivalTimeNanos = new AtomicLong(nanoTime());
+    }
+
+    /**
+     * @return The current {@link System#nanoTime()} - exposed for testing.
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public boolean isNextRootSpanSampleable() {
+        if (tracesPerSecond == 0) {
+            return false;
+        }
+
+        long now = nanoTime();
+        while (true) {
+            long currentTat = theoreticalArrivalTimeNanos.get();
+            // An idle bucket refills, but never beyond a full second's worth of traces.
+            long newTat = Math.max(currentTat, now) + nanosPerTrace;
+            if (newTat - now > ONE_SECOND_NANOS) {
+                // Bucket is empty - no write needed.
+                return false;
+            }
+
+            if (theoreticalArrivalTimeNanos.compareAndSet(currentTat, newTat)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return The maximum number of traces this strategy will sample per second.
+     */
+    public int getTracesPerSecond() {
+        return tracesPerSecond;
+    }
+}
@@ -0,0 +1,40 @@
+package com.nike.wingtips.sampling;
+
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.tags.HttpTagAndSpanNamingAdapter;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link TraceIdAwareRootSpanSamplingStrategy} that can also see what the new root span is for before deciding
+ * whether to sample it - the span name, the span purpose, and (when the root span is started for an incoming request)
+ * the request along with the {@link HttpTagAndSpanNamingAdapter} that knows how to extract things like the path and
+ * HTTP method from it. This lets you cheaply turn off or turn down sampling for high volume, low value requests like
+ * health checks or hot polling endpoints. See {@link RuleBasedSamplingStrategy} for a ready-made implementation.
+ *
+ * <p>The {@link com.nike.wingtips.Tracer} calls {@link #isRootSpanSampleable(long, String, SpanPurpose, Object,
+ * HttpTagAndSpanNamingAdapter)} for every new root span when its strategy implements this interface. Request info is
+ * only available if the root span was started via {@link
+ * com.nike.wingtips.Tracer#startRequestWithRootSpan(String, String, Object, HttpTagAndSpanNamingAdapter)}, which the
+ * Wingtips server request filters use.
+ */
+public interface RequestAwareRootSpanSamplingStrategy extends TraceIdAwareRootSpanSamplingStrategy {
+
+    /**
+     * @param traceId The (lower 64 bits of the) trace ID of the new root span.
+     * @param spanName The name of the new root span - may be null if unknown.
+     * @param spanPurpose The purpose of the new root span - may be null if unknown.
+     * @param request The request that caused the new root span to be started - may be null if the root span is not for
+     * a request (or the request wasn't made available).
+     * @param adapter The adapter for extracting info from the {@code request} - may be null.
+     * @param <REQ> The type of request.
+     * @return true if the new root span should be sampled, false otherwise. Implementations should not allocate or
+     * contend on a shared lock since this is called for every new trace.
+     */
+    <REQ> boolean isRootSpanSampleable(long traceId,
+                                       @Nullable String spanName,
+                                       @Nullable SpanPurpose spanPurpose,
+                                       @Nullable REQ request,
+                                       @Nullable HttpTagAndSpanNamingAdapter<REQ, ?> adapter);
+
+}
@@ -0,0 +1,93 @@
+package com.nike.wingtips.sampling;
+
+import com.nike.internal.util.StringUtils;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Creates {@link RootSpanSamplingStrategy} instances from simple configuration values, e.g. for wiring a strategy up
+ * from a Spring Boot properties file. See {@link #createRootSpanSamplingStrategy(String, Double, Integer, Double)}
+ * for the supported strategy names.
+ */
+public class RootSpanSamplingStrategyFactory {
+
+    // Intentionally protected - use the static methods.
+    protected RootSpanSamplingStrategyFactory() { }
+
+    /**
+     * Creates the {@link RootSpanSamplingStrategy} with the given name. The following short names are understood
+     * (case insensitive):
+     * <ul>
+     *     <li>{@code ALL} (or a null/blank {@code strategyName}) - {@link SampleAllTheThingsStrategy}</li>
+     *     <li>{@code PROBABILISTIC} - {@link ProbabilisticSamplingStrategy}, requires {@code probability}</li>
+     *     <li>{@code RATE_LIMITED} - {@link RateLimitingSamplingStrategy}, requires {@code tracesPerSecond}</li>
+     *     <li>
+     *         {@code ADAPTIVE} - {@link AdaptiveSamplingStrategy}, requires {@code targetSpansPerSecond} and uses
+     *         {@code probability} (if not null) as the initial probability
+     *     </li>
+     * </ul>
+     *
+     * If {@code strategyName} does not match any of those short names, then it is assumed to be the fully qualified
+     * class name of a {@link RootSpanSamplingStrategy} with a default no-arg constructor.
+     *
+     * <p>NOTE: Remember to also register the result with {@link
+     * com.nike.wingtips.Tracer#addSpanLifecycleListener(com.nike.wingtips.lifecyclelistener.SpanLifecycleListener)}
+     * if it is a {@link com.nike.wingtips.lifecyclelistener.SpanLifecycleListener} (e.g. {@link
+     * AdaptiveSamplingStrategy}).
+     *
+     * @param strategyName The short name or fully qualified class name of the strategy - may be null.
+     * @param probability The sampling probability for {@code PROBABILISTIC} and {@code ADAPTIVE} - may be null if
+     * not needed.
+     * @param tracesPerSecond The traces per second for {@code RATE_LIMITED} - may be null if not needed.
+     * @param targetSpansPerSecond The target spans per second for {@code ADAPTIVE} - may be null if not needed.
+     * @return The {@link RootSpanSamplingStrategy} for the given settings.
+     * @throws IllegalArgumentException if a value required by the named strategy is missing or invalid, or if
+     * {@code strategyName} is not a short name and can't be instantiated as a {@link RootSpanSamplingStrategy}.
+     */
+    public static RootSpanSamplingStrategy createRootSpanSamplingStrategy(String strategyName,
+                                                                          Double probability,
+                                                                          Integer tracesPerSecond,
+                                                                          Double targetSpansPerSecond) {
+        if (StringUtils.isBlank(strategyName) || "all".equalsIgnoreCase(strategyName)) {
+            return new SampleAllTheThingsStrategy();
+        }
+
+        if ("probabilistic".equalsIgnoreCase(strategyName)) {
+            return new ProbabilisticSamplingStrategy(requireValue(probability, "probability", strategyName));
+        }
+
+        if ("rate_limited".equalsIgnoreCase(strategyName)) {
+            return new RateLimitingSamplingStrategy(requireValue(tracesPerSecond, "tracesPerSecond", strategyName));
+        }
+
+        if ("adaptive".equalsIgnoreCase(strategyName)) {
+            double target = requireValue(targetSpansPerSecond, "targetSpansPerSecond", strategyName);
+            return (probability == null)
+                   ? new AdaptiveSamplingStrategy(target)
+                   : new AdaptiveSamplingStrategy(target, probability);
+        }
+
+        // At this point there was no short-name match. Try instantiating it by classname.
+        try {
+            return (RootSpanSamplingStrategy) Class.forName(strategyName).getDeclaredConstructor().newInstance();
+        }
+        catch (InvocationTargetException ex) {
+            // The strategy's constructor threw - report what it threw rather than the reflection wrapper.
+            throw new IllegalArgumentException(
+                "Unable to create a RootSpanSamplingStrategy from strategyName: " + strategyName, ex.getCause()
+            );
+        }
+        catch (Exception ex) {
+            throw new IllegalArgumentException(
+                "Unable to create a RootSpanSamplingStrategy from strategyName: " + strategyName, ex
+            );
+        }
+    }
+
+    protected static <T> T requireValue(T value, String valueName, String strategyName) {
+        if (value == null) {
+            throw new IllegalArgumentException(valueName + " is required for the " + strategyName + " strategy");
+        }
+        return value;
+    }
+}
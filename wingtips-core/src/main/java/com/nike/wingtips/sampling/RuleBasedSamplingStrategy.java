@@ -0,0 +1,250 @@
+package com.nike.wingtips.sampling;
+
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.tags.HttpTagAndSpanNamingAdapter;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A {@link RequestAwareRootSpanSamplingStrategy} that picks a sampling strategy per request based on the request's
+ * HTTP method and path prefix. Rules are checked in the order they were added and the first match wins - if no rule
+ * matches (or the root span isn't for a request) then the fallback strategy is used. For example:
+ *
+ * <pre>
+ *      Tracer.getInstance().setRootSpanSamplingStrategy(
+ *          RuleBasedSamplingStrategy.newBuilder()
+ *              .addProbabilityRule(null, "/healthcheck", 0.0)
+ *              .addRateLimitedRule("GET", "/api/poll", 5)
+ *              .withFallbackStrategy(new ProbabilisticSamplingStrategy(0.5))
+ *              .build()
+ *      );
+ * </pre>
+ *
+ * Rules are compiled into an array of simple prefix/equality matchers when {@link Builder#build()} is called, so a
+ * sampling decision is a short loop of {@link String#startsWith(String)} checks with no allocation or locking. The
+ * request's HTTP method and path are only extracted from the request if at least one rule needs them.
+ */
+public class RuleBasedSamplingStrategy implements RequestAwareRootSpanSamplingStrategy {
+
+    protected final @NotNull SamplingRule[] rules;
+    protected final @NotNull RootSpanSamplingStrategy fallbackStrategy;
+    protected final boolean anyRuleNeedsHttpMethod;
+    protected final boolean anyRuleNeedsPath;
+
+    protected RuleBasedSamplingStrategy(@NotNull Builder builder) {
+        this.rules = builder.rules.toArray(new SamplingRule[0]);
+        this.fallbackStrategy = (builder.fallbackStrategy == null)
+                                ? new SampleAllTheThingsStrategy()
+                                : builder.fallbackStrategy;
+        boolean needsHttpMethod = false;
+        boolean needsPath = false;
+        for (SamplingRule rule : rules) {
+            needsHttpMethod |= (rule.httpMethod != null);
+            needsPath |= (rule.pathPrefix != null);
+        }
+        this.anyRuleNeedsHttpMethod = needsHttpMethod;
+        this.anyRuleNeedsPath = needsPath;
+    }
+
+    /**
+     * @return A new {@link Builder} with no rules that falls back to {@link SampleAllTheThingsStrategy}.
+     */
+    public static @NotNull Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public boolean isNextRootSpanSampleable() {
+        return isRootSpanSampleable(ThreadLocalRandom.current().nextLong());
+    }
+
+    @Override
+    public boolean isRootSpanSampleable(long traceId) {
+        return isRootSpanSampleable(traceId, null, null, null, null);
+    }
+
+    @Override
+    public <REQ> boolean isRootSpanSampleable(long traceId,
+                                              @Nullable String spanName,
+                                              @Nullable SpanPurpose spanPurpose,
+                                              @Nullable REQ request,
+                                              @Nullable HttpTagAndSpanNamingAdapter<REQ, ?> adapter) {
+        String httpMethod = null;
+        String path = null;
+        if (request != null && adapter != null) {
+            if (anyRuleNeedsHttpMethod) {
+                httpMethod = adapter.getRequestHttpMethod(request);
+            }
+            if (anyRuleNeedsPath) {
+                path = adapter.getRequestPath(request);
+            }
+        }
+
+        for (SamplingRule rule : rules) {
+            if (rule.matches(httpMethod, path)) {
+                return delegateSamplingDecision(rule.strategy, traceId, spanName, spanPurpose, request, adapter);
+            }
+        }
+
+        return delegateSamplingDecision(fallbackStrategy, traceId, spanName, spanPurpose, request, adapter);
+    }
+
+    /**
+     * Asks the given strategy for a sampling decision, passing along as much of the given info as the strategy can
+     * accept.
+     */
+    protected <REQ> boolean delegateSamplingDecision(@NotNull RootSpanSamplingStrategy strategy,
+                                                     long traceId,
+                                                     @Nullable String spanName,
+                                                     @Nullable SpanPurpose spanPurpose,
+                                                     @Nullable REQ request,
+                                                     @Nullable HttpTagAndSpanNamingAdapter<REQ, ?> adapter) {
+        if (strategy instanceof RequestAwareRootSpanSamplingStrategy) {
+            return ((RequestAwareRootSpanSamplingStrategy) strategy).isRootSpanSampleable(
+                traceId, spanName, spanPurpose, request, adapter
+            );
+        }
+
+        if (strategy instanceof TraceIdAwareRootSpanSamplingStrategy) {
+            return ((TraceIdAwareRootSpanSamplingStrategy) strategy).isRootSpanSampleable(traceId);
+        }
+
+        return strategy.isNextRootSpanSampleable();
+    }
+
+    /**
+     * @return The rules this strategy checks, in the order they are checked.
+     */
+    public @NotNull List<SamplingRule> getRules() {
+        return new ArrayList<>(Arrays.asList(rules));
+    }
+
+    /**
+     * @return The strategy used when no rule matches.
+     */
+    public @NotNull RootSpanSamplingStrategy getFallbackStrategy() {
+        return fallbackStrategy;
+    }
+
+    /**
+     * A single immutable HTTP method + path prefix rule and the strategy to use for requests that match it.
+     */
+    public static class SamplingRule {
+        protected final @Nullable String httpMethod;
+        protected final @Nullable String pathPrefix;
+        protected final @NotNull RootSpanSamplingStrategy strategy;
+
+        /**
+         * @param httpMethod The HTTP method to match (case insensitive) - null matches any method.
+         * @param pathPrefix The path prefix to match (case sensitive) - null matches any path.
+         * @param strategy The strategy to use for requests that match this rule - cannot be null.
+         */
+        public SamplingRule(@Nullable String httpMethod,
+                            @Nullable String pathPrefix,
+                            @NotNull RootSpanSamplingStrategy strategy) {
+            //noinspection ConstantConditions
+            if (strategy == null) {
+                throw new IllegalArgumentException("strategy cannot be null");
+            }
+
+            this.httpMethod = (httpMethod == null) ? null : httpMethod.toUpperCase(Locale.US);
+            this.pathPrefix = pathPrefix;
+            this.strategy = strategy;
+        }
+
+        /**
+         * @return true if this rule matches the given HTTP method and path, false otherwise. A rule that specifies a
+         * method or path prefix never matches a null method or path.
+         */
+        public boolean matches(@Nullable String requestHttpMethod, @Nullable String requestPath) {
+            if (httpMethod != null && !httpMethod.equalsIgnoreCase(requestHttpMethod)) {
+                return false;
+            }
+
+            return pathPrefix == null || (requestPath != null && requestPath.startsWith(pathPrefix));
+        }
+
+        public @Nullable String getHttpMethod() {
+            return httpMethod;
+        }
+
+        public @Nullable String getPathPrefix() {
+            return pathPrefix;
+        }
+
+        public @NotNull RootSpanSamplingStrategy getStrategy() {
+            return strategy;
+        }
+    }
+
+    /**
+     * Builder for {@link RuleBasedSamplingStrategy}.
+     */
+    public static class Builder {
+        protected final List<SamplingRule> rules = new ArrayList<>();
+        protected @Nullable RootSpanSamplingStrategy fallbackStrategy;
+
+        protected Builder() {
+        }
+
+        /**
+         * Adds a rule that uses the given strategy for matching requests.
+         *
+         * @param httpMethod The HTTP method to match (case insensitive) - null matches any method.
+         * @param pathPrefix The path prefix to match (case sensitive) - null matches any path.
+         * @param strategy The strategy to use for requests that match - cannot be null.
+         * @return This builder for chaining.
+         */
+        public @NotNull Builder addRule(@Nullable String httpMethod,
+                                        @Nullable String pathPrefix,
+                                        @NotNull RootSpanSamplingStrategy strategy) {
+            rules.add(new SamplingRule(httpMethod, pathPrefix, strategy));
+            return this;
+        }
+
+        /**
+         * Adds a rule that samples the given percentage of matching requests - see {@link
+         * ProbabilisticSamplingStrategy}. A probability of 0.0 turns sampling off for matching requests.
+         *
+         * @return This builder for chaining.
+         */
+        public @NotNull Builder addProbabilityRule(@Nullable String httpMethod,
+                                                   @Nullable String pathPrefix,
+                                                   double probability) {
+            return addRule(httpMethod, pathPrefix, new ProbabilisticSamplingStrategy(probability));
+        }
+
+        /**
+         * Adds a rule that samples at most the given number of matching requests per second - see {@link
+         * RateLimitingSamplingStrategy}. Each rule gets its own rate limit.
+         *
+         * @return This builder for chaining.
+         */
+        public @NotNull Builder addRateLimitedRule(@Nullable String httpMethod,
+                                                   @Nullable String pathPrefix,
+                                                   int tracesPerSecond) {
+            return addRule(httpMethod, pathPrefix, new RateLimitingSamplingStrategy(tracesPerSecond));
+        }
+
+        /**
+         * @param fallbackStrategy The strategy to use when no rule matches - if this is null then {@link
+         * SampleAllTheThingsStrategy} will be used.
+         * @return This builder for chaining.
+         */
+        public @NotNull Builder withFallbackStrategy(@Nullable RootSpanSamplingStrategy fallbackStrategy) {
+            this.fallbackStrategy = fallbackStrategy;
+            return this;
+        }
+
+        public @NotNull RuleBasedSamplingStrategy build() {
+            return new RuleBasedSamplingStrategy(this);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.nike.wingtips.sampling;
+
+/**
+ * A {@link RootSpanSamplingStrategy} that can base its decision on the trace ID of the new root span. When the {@link
+ * com.nike.wingtips.Tracer}'s strategy implements this interface the tracer generates the trace ID for a new root span
+ * up front and calls {@link #isRootSpanSampleable(long)} with it instead of {@link #isNextRootSpanSampleable()}. This
+ * allows strategies to make a deterministic decision that any other system seeing the same trace ID can reproduce.
+ */
+public interface TraceIdAwareRootSpanSamplingStrategy extends RootSpanSamplingStrategy {
+
+    /**
+     * @param traceId The (lower 64 bits of the) trace ID of the new root span, in the numeric form produced by {@link
+     * com.nike.wingtips.TraceAndSpanIdGenerator#generate64BitRandomLong()}.
+     * @return true if the root span with the given trace ID should be sampled, false otherwise. Implementations
+     * should not allocate or contend on a shared lock since this is called for every new trace.
+     */
+    boolean isRootSpanSampleable(long traceId);
+
+}
@@ -203,6 +203,8 @@ public abstract class HttpTagAndSpanNamingStrategy<REQ, RES> {
      * the behavior of this method then you should override {@link
      * #doHandleRequestTagging(Span, Object, HttpTagAndSpanNamingAdapter)}.
      *
+     * <p>This method does nothing if the span is {@link Span#isPropagationOnly()}, since such spans ignore tags anyway.
+     *
      * @param span The span to tag - should never be null.
      * @param request The incoming request - should never be null.
      * @param adapter The adapter to handle the incoming request - should never be null (use {@link NoOpHttpTagAdapter}
@@ -214,7 +216,7 @@ public abstract class HttpTagAndSpanNamingStrategy<REQ, RES> {
         @NotNull HttpTagAndSpanNamingAdapter<REQ, ?> adapter
     ) {
         //noinspection ConstantConditions
-        if (span == null || request == null || adapter == null) {
+        if (span == null || request == null || adapter == null || span.isPropagationOnly()) {
             return;
         }
 
@@ -257,6 +259,9 @@ public abstract class HttpTagAndSpanNamingStrategy<REQ, RES> {
      * error will be logged but will not propagate outside this method. Since this method is final, if you want to
      * override the behavior of this method then you should override the relevant delegate method(s).
      *
+     * <p>This method does nothing if the span is {@link Span#isPropagationOnly()} - such spans ignore tags and are
+     * never sampled, so there's no point in spending the effort to tag them or finalize their name.
+     *
      * @param span The span to tag - should never be null.
      * @param request The request object - this can be null if you don't have it anymore when this method is called,
      * however you should pass it if at all possible as it may be critical to determining the final span name.
@@ -275,7 +280,7 @@ public abstract class HttpTagAndSpanNamingStrategy<REQ, RES> {
         @NotNull HttpTagAndSpanNamingAdapter<REQ, RES> adapter
     ) {
         //noinspection ConstantConditions
-        if (span == null || adapter == null) {
+        if (span == null || adapter == null || span.isPropagationOnly()) {
             return;
         }
 
@@ -137,7 +137,7 @@ public class AsyncWingtipsHelperJava7 {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      *
      * @deprecated Please move to the Java 8 version of this class and method ({@code AsyncWingtipsHelper} or the static
      * {@code AsyncWingtipsHelperStatic}) whenever possible.
@@ -183,7 +183,7 @@ public class AsyncWingtipsHelperJava7 {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      *
      * @deprecated Please move to the Java 8 version of this class and method ({@code AsyncWingtipsHelper} or the static
      * {@code AsyncWingtipsHelperStatic}) whenever possible.
@@ -325,7 +325,7 @@ public class AsyncWingtipsHelperJava7 {
     ) {
         // Unregister the span stack so that if there's already a trace on the stack we don't get exceptions when
         //      registering the desired stack with the thread, and keep a copy of the results.
-        Map<String, String> callingThreadMdcContextMap = MDC.getCopyOfContextMap();
+        Map<String, String> callingThreadMdcContextMap = MdcUtils.getContextMapSnapshot();
         Deque<Span> callingThreadSpanStack = Tracer.getInstance().unregisterFromThread();
 
         // Now setup the span stack and MDC as desired
@@ -0,0 +1,170 @@
+package com.nike.wingtips.util;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free, multi-producer/multi-consumer FIFO queue backed by a fixed-size array (based on Dmitry
+ * Vyukov's bounded MPMC queue). Each slot carries a sequence number that tells producers and consumers whether it is
+ * ready to be written or read, so {@link #offer(Object)} and {@link #poll()} only need a single compare-and-set on
+ * the tail or head cursor respectively and never allocate. {@link #offer(Object)} fails fast rather than blocking
+ * when the buffer is full, leaving it up to the caller to decide what to do about it.
+ *
+ * <p>Multiple consumers are supported so that a producer can evict the oldest element to make room for a new one
+ * (see {@link #poll()}), but the typical usage is many producers and a single draining consumer thread.
+ *
+ * @param <E> The type of element held in this buffer.
+ */
+@SuppressWarnings("WeakerAccess")
+public class BoundedRingBuffer<E> {
+
+    protected final int capacity;
+    protected final int mask;
+    protected final AtomicReferenceArray<E> elements;
+    protected final AtomicLongArray sequences;
+    protected final AtomicLong tail = new AtomicLong();
+    protected final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param requestedCapacity The minimum capacity for this buffer. The actual capacity will be rounded up to the next
+     * power of two (see {@link #capacity()}). Must be between 2 and 2^30 (inclusive).
+     */
+    public BoundedRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException(
+                "requestedCapacity must be between 2 and 2^30 (inclusive). Received: " + requestedCapacity
+            );
+        }
+
+        this.capacity = roundUpToPowerOfTwo(requestedCapacity);
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    protected static int roundUpToPowerOfTwo(int value) {
+        int highestOneBit = Integer.highestOneBit(value);
+        return (highestOneBit == value) ? value : highestOneBit << 1;
+    }
+
+    /**
+     * Adds the given element to the tail of this buffer if there is room.
+     *
+     * @param element The element to add - cannot be null.
+     * @return true if the element was added, false if the buffer was full.
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element cannot be null");
+        }
+
+        long pos = tail.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                // The slot is free for this position - try to claim it.
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    elements.lazySet(index, element);
+                    // Publish the slot to consumers. This is a full volatile write (rather than a lazySet) so that a
+                    //      producer checking whether the consumer is parked after offering can't miss it.
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            }
+            else if (diff < 0) {
+                // The slot still holds an element from the previous lap - the buffer is full.
+                return false;
+            }
+            else {
+                // Another producer claimed this position first.
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the element at the head of this buffer.
+     *
+     * @return The element at the head of this buffer, or null if the buffer is empty.
+     */
+    public E poll() {
+        long pos = head.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                // The slot has been published for this position - try to claim it.
+                if (head.compareAndSet(pos, pos + 1)) {
+                    E element = elements.get(index);
+                    elements.lazySet(index, null);
+                    // Free the slot for the producer one lap ahead.
+                    sequences.lazySet(index, pos + capacity);
+                    return element;
+                }
+                pos = head.get();
+            }
+            else if (diff < 0) {
+                // Nothing has been published at this position yet - the buffer is empty.
+                return null;
+            }
+            else {
+                // Another consumer claimed this position first.
+                pos = head.get();
+            }
+        }
+    }
+
+    /**
+     * Removes up to {@code maxElements} elements from the head of this buffer and adds them to the given collection.
+     *
+     * @return The number of elements drained.
+     */
+    public int drainTo(Collection<? super E> collection, int maxElements) {
+        int drained = 0;
+        while (drained < maxElements) {
+            E element = poll();
+            if (element == null) {
+                break;
+            }
+            collection.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * @return The number of elements currently in this buffer. This is a point-in-time estimate when producers or
+     * consumers are concurrently active.
+     */
+    public int size() {
+        // Read head first so the difference can't go negative due to a concurrent poll between the two reads.
+        long currentHead = head.get();
+        long currentTail = tail.get();
+        long size = currentTail - currentHead;
+        if (size < 0) {
+            return 0;
+        }
+        return (int) Math.min(size, capacity);
+    }
+
+    /**
+     * @return true if this buffer currently has no elements.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return The maximum number of elements this buffer can hold.
+     */
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,549 @@
+package com.nike.wingtips.util;
+
+import com.nike.wingtips.tags.KnownOpenTracingTags;
+import com.nike.wingtips.tags.KnownZipkinTags;
+import com.nike.wingtips.tags.WingtipsTags;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An insertion-ordered {@code Map<String, String>} built for span tags. A span usually has somewhere between a
+ * handful and a dozen tags, and for that size a {@link java.util.LinkedHashMap} spends most of its memory on per-entry
+ * node objects and an oversized hash table. This map instead stores keys and values in two parallel arrays (in
+ * insertion order) and finds keys with a linear scan. Only once it grows past {@link #HASH_INDEX_THRESHOLD} entries
+ * does it build an open-addressing hash index over those arrays.
+ *
+ * <p>Lookups compare keys by identity before falling back to {@link String#equals(Object)}. Keys that match one of
+ * the constants in {@link KnownZipkinTags}, {@link KnownOpenTracingTags}, or {@link WingtipsTags} are stored as that
+ * constant, so the usual lookups by constant (e.g. {@code tags.get(KnownZipkinTags.HTTP_STATUS_CODE)}) are satisfied
+ * by a reference comparison even when the tag was added with a key from somewhere else (e.g. a deserialized span).
+ *
+ * <p>Like {@link java.util.LinkedHashMap}, null keys and values are allowed, replacing the value for an existing key
+ * keeps its original position, and iterators are fail-fast. Removing an entry shifts the later entries down, which is
+ * O(n) - that's fine for tags since they're rarely removed.
+ *
+ * <p>Use {@link #keyAt(int)} and {@link #valueAt(int)} to walk the entries without allocating an iterator or
+ * {@link Map.Entry} objects, and {@link #unmodifiableView()} to hand out a read-only view that still supports that.
+ *
+ * <p>This class is not thread safe.
+ */
+@SuppressWarnings("WeakerAccess")
+public class CompactTagMap extends AbstractMap<String, String> implements Serializable {
+
+    /**
+     * The number of entries a map created with the default constructor has room for before it needs to grow its
+     * arrays. Enough for the tags {@link com.nike.wingtips.tags.ZipkinHttpTagStrategy} adds plus a couple extra.
+     */
+    public static final int DEFAULT_INITIAL_CAPACITY = 8;
+    /**
+     * The number of entries above which lookups go through a hash index rather than a linear scan.
+     */
+    public static final int HASH_INDEX_THRESHOLD = 16;
+
+    private static final String[] EMPTY_ARRAY = new String[0];
+    private static final Map<String, String> KNOWN_TAG_KEYS = new HashMap<>();
+
+    static {
+        String[] knownTagKeys = {
+            KnownZipkinTags.ERROR, KnownZipkinTags.HTTP_HOST, KnownZipkinTags.HTTP_METHOD, KnownZipkinTags.HTTP_PATH,
+            KnownZipkinTags.HTTP_ROUTE, KnownZipkinTags.HTTP_URL, KnownZipkinTags.HTTP_STATUS_CODE,
+            KnownZipkinTags.HTTP_REQUEST_SIZE, KnownZipkinTags.HTTP_RESPONSE_SIZE,
+            KnownOpenTracingTags.SERVICE, KnownOpenTracingTags.HTTP_URL, KnownOpenTracingTags.HTTP_STATUS,
+            KnownOpenTracingTags.HTTP_METHOD, KnownOpenTracingTags.PEER_HOST_IPV4, KnownOpenTracingTags.PEER_HOST_IPV6,
+            KnownOpenTracingTags.PEER_SERVICE, KnownOpenTracingTags.PEER_HOSTNAME, KnownOpenTracingTags.PEER_PORT,
+            KnownOpenTracingTags.SAMPLING_PRIORITY, KnownOpenTracingTags.SPAN_KIND, KnownOpenTracingTags.COMPONENT,
+            KnownOpenTracingTags.ERROR, KnownOpenTracingTags.DB_TYPE, KnownOpenTracingTags.DB_INSTANCE,
+            KnownOpenTracingTags.DB_USER, KnownOpenTracingTags.DB_STATEMENT,
+            KnownOpenTracingTags.MESSAGE_BUS_DESTINATION,
+            WingtipsTags.SPAN_HANDLER
+        };
+        for (String key : knownTagKeys) {
+            KNOWN_TAG_KEYS.put(key, key);
+        }
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    protected String[] keys;
+    protected String[] values;
+    protected int size;
+    // Open-addressing (linear probing) table holding (index into keys/values + 1), with 0 marking an empty slot. Only
+    //      non-null while size > HASH_INDEX_THRESHOLD.
+    protected int[] hashIndex;
+    protected transient int modCount;
+
+    /**
+     * Creates an empty map with room for {@link #DEFAULT_INITIAL_CAPACITY} entries.
+     */
+    public CompactTagMap() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map with room for the given number of entries before it needs to grow.
+     *
+     * @param initialCapacity The number of entries to make room for - cannot be negative.
+     */
+    public CompactTagMap(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity cannot be negative. Received: " + initialCapacity);
+        }
+
+        this.keys = (initialCapacity == 0) ? EMPTY_ARRAY : new String[initialCapacity];
+        this.values = (initialCapacity == 0) ? EMPTY_ARRAY : new String[initialCapacity];
+    }
+
+    /**
+     * Creates a map containing the entries of the given map, in the given map's iteration order.
+     *
+     * @param other The map to copy - cannot be null.
+     */
+    public CompactTagMap(Map<? extends String, ? extends String> other) {
+        this(other.size());
+        putAll(other);
+    }
+
+    /**
+     * @return The canonical {@link KnownZipkinTags}/{@link KnownOpenTracingTags}/{@link WingtipsTags} constant equal
+     * to the given key, or the given key itself if it doesn't match any of them.
+     */
+    public static String canonicalTagKey(String key) {
+        if (key == null) {
+            return null;
+        }
+
+        String known = KNOWN_TAG_KEYS.get(key);
+        return (known == null) ? key : known;
+    }
+
+    /**
+     * @param index The position of the entry, between 0 (inclusive) and {@link #size()} (exclusive).
+     * @return The key of the entry at the given insertion-order position.
+     */
+    public String keyAt(int index) {
+        checkIndex(index);
+        return keys[index];
+    }
+
+    /**
+     * @param index The position of the entry, between 0 (inclusive) and {@link #size()} (exclusive).
+     * @return The value of the entry at the given insertion-order position.
+     */
+    public String valueAt(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    /**
+     * @return A read-only view of this map. Changes to this map show up in the view, and any attempt to modify the
+     * view results in an {@link UnsupportedOperationException}.
+     */
+    public UnmodifiableView unmodifiableView() {
+        return new UnmodifiableView(this);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        int index = indexOf(key);
+        return (index < 0) ? null : values[index];
+    }
+
+    @Override
+    public String put(String key, String value) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            String oldValue = values[index];
+            values[index] = value;
+            return oldValue;
+        }
+
+        ensureCapacity(size + 1);
+        keys[size] = canonicalTagKey(key);
+        values[size] = value;
+        size++;
+        modCount++;
+
+        if (hashIndex != null) {
+            if (size * 2 > hashIndex.length) {
+                rebuildHashIndex();
+            }
+            else {
+                addToHashIndex(size - 1);
+            }
+        }
+        else if (size > HASH_INDEX_THRESHOLD) {
+            rebuildHashIndex();
+        }
+
+        return null;
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends String> m) {
+        ensureCapacity(size + m.size());
+        for (Map.Entry<? extends String, ? extends String> entry : m.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public String remove(Object key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+
+        String oldValue = values[index];
+        removeAt(index);
+        return oldValue;
+    }
+
+    /**
+     * Removes all entries, but keeps the arrays that have already been allocated so the map can be refilled without
+     * allocating.
+     */
+    @Override
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        hashIndex = null;
+        modCount++;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return new EntrySet(false);
+    }
+
+    protected void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    protected int indexOf(Object key) {
+        if (key != null && !(key instanceof String)) {
+            return -1;
+        }
+
+        if (hashIndex != null) {
+            int mask = hashIndex.length - 1;
+            for (int slot = hashSlot(key, mask); hashIndex[slot] != 0; slot = (slot + 1) & mask) {
+                int index = hashIndex[slot] - 1;
+                String candidate = keys[index];
+                if (candidate == key || (key != null && key.equals(candidate))) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        // Tag keys are almost always string constants, so try a cheap reference comparison against every key before
+        //      paying for any equals() calls.
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+
+        if (key != null) {
+            for (int i = 0; i < size; i++) {
+                if (key.equals(keys[i])) {
+                    return i;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    protected void removeAt(int index) {
+        int numToShift = size - index - 1;
+        if (numToShift > 0) {
+            System.arraycopy(keys, index + 1, keys, index, numToShift);
+            System.arraycopy(values, index + 1, values, index, numToShift);
+        }
+        size--;
+        keys[size] = null;
+        values[size] = null;
+        modCount++;
+
+        // Every index after the removed one moved, so the hash index needs to be rebuilt (or dropped if we're back
+        //      under the threshold).
+        if (hashIndex != null) {
+            if (size > HASH_INDEX_THRESHOLD) {
+                rebuildHashIndex();
+            }
+            else {
+                hashIndex = null;
+            }
+        }
+    }
+
+    protected void ensureCapacity(int minCapacity) {
+        if (minCapacity <= keys.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(minCapacity, Math.max(DEFAULT_INITIAL_CAPACITY, keys.length * 2));
+        keys = Arrays.copyOf(keys, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+    }
+
+    protected void rebuildHashIndex() {
+        // Keep the table at most half full so probe sequences stay short.
+        int tableSize = Integer.highestOneBit(Math.max(size, 1) * 4 - 1);
+        hashIndex = new int[tableSize];
+        for (int i = 0; i < size; i++) {
+            addToHashIndex(i);
+        }
+    }
+
+    protected void addToHashIndex(int index) {
+        int mask = hashIndex.length - 1;
+        int slot = hashSlot(keys[index], mask);
+        while (hashIndex[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        hashIndex[slot] = index + 1;
+    }
+
+    protected static int hashSlot(Object key, int mask) {
+        if (key == null) {
+            return 0;
+        }
+
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * A read-only view of a {@link CompactTagMap} (see {@link CompactTagMap#unmodifiableView()}). Exposes {@link
+     * #keyAt(int)} and {@link #valueAt(int)} so that read-only consumers (e.g. span serializers) can also walk the
+     * entries without allocating.
+     */
+    public static class UnmodifiableView extends AbstractMap<String, String> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        protected final CompactTagMap delegate;
+
+        protected UnmodifiableView(CompactTagMap delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * @see CompactTagMap#keyAt(int)
+         */
+        public String keyAt(int index) {
+            return delegate.keyAt(index);
+        }
+
+        /**
+         * @see CompactTagMap#valueAt(int)
+         */
+        public String valueAt(int index) {
+            return delegate.valueAt(index);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return delegate.size == 0;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return delegate.containsKey(key);
+        }
+
+        @Override
+        public String get(Object key) {
+            return delegate.get(key);
+        }
+
+        @Override
+        public String put(String key, String value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putAll(Map<? extends String, ? extends String> m) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String remove(Object key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            return delegate.new EntrySet(true);
+        }
+    }
+
+    protected class EntrySet extends AbstractSet<Map.Entry<String, String>> {
+
+        protected final boolean readOnly;
+
+        protected EntrySet(boolean readOnly) {
+            this.readOnly = readOnly;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            if (readOnly) {
+                throw new UnsupportedOperationException();
+            }
+            CompactTagMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, String>> iterator() {
+            return new Iterator<Map.Entry<String, String>>() {
+                private int nextIndex = 0;
+                private int lastReturnedIndex = -1;
+                private int expectedModCount = modCount;
+
+                @Override
+                public boolean hasNext() {
+                    return nextIndex < size;
+                }
+
+                @Override
+                public Map.Entry<String, String> next() {
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    if (nextIndex >= size) {
+                        throw new NoSuchElementException();
+                    }
+
+                    lastReturnedIndex = nextIndex++;
+                    return new Entry(lastReturnedIndex, readOnly);
+                }
+
+                @Override
+                public void remove() {
+                    if (readOnly) {
+                        throw new UnsupportedOperationException();
+                    }
+                    if (lastReturnedIndex < 0) {
+                        throw new IllegalStateException();
+                    }
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+
+                    removeAt(lastReturnedIndex);
+                    nextIndex = lastReturnedIndex;
+                    lastReturnedIndex = -1;
+                    expectedModCount = modCount;
+                }
+            };
+        }
+    }
+
+    protected class Entry implements Map.Entry<String, String> {
+
+        protected final String key;
+        protected final int index;
+        protected final boolean readOnly;
+
+        protected Entry(int index, boolean readOnly) {
+            this.key = keys[index];
+            this.index = index;
+            this.readOnly = readOnly;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public String getValue() {
+            return values[index];
+        }
+
+        @Override
+        public String setValue(String value) {
+            if (readOnly) {
+                throw new UnsupportedOperationException();
+            }
+
+            String oldValue = values[index];
+            values[index] = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            return eq(getKey(), other.getKey()) && eq(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            String value = getValue();
+            return ((key == null) ? 0 : key.hashCode()) ^ ((value == null) ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+
+        private boolean eq(Object a, Object b) {
+            return (a == null) ? (b == null) : a.equals(b);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.nike.wingtips.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.slf4j.spi.MDCAdapter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Helpers for working with the SLF4J {@link MDC} when passing tracing state across threads.
+ *
+ * <p>The main reason this class exists is {@link #getContextMapSnapshot()}, which lets Wingtips capture the current
+ * thread's MDC info without copying it when the logging framework allows it. Logback's {@code LogbackMDCAdapter}
+ * treats its per-thread backing map as copy-on-write - once the map has been handed out via its {@code
+ * getPropertyMap()} method the adapter will never mutate it again, and instead makes a fresh copy on the next MDC
+ * write. So for Logback we can hand out a read-only view of that map in O(1) time, and only threads that actually
+ * change their MDC afterwards pay for a copy. For any other MDC adapter we fall back to {@link
+ * MDC#getCopyOfContextMap()}.
+ */
+@SuppressWarnings("WeakerAccess")
+public class MdcUtils {
+
+    private static final Logger logger = LoggerFactory.getLogger(MdcUtils.class);
+
+    protected static final String LOGBACK_MDC_ADAPTER_CLASS_NAME = "ch.qos.logback.classic.util.LogbackMDCAdapter";
+
+    private static final MDCAdapter COPY_ON_WRITE_MDC_ADAPTER;
+    private static final MethodHandle COPY_ON_WRITE_MDC_ADAPTER_GET_PROPERTY_MAP;
+
+    static {
+        MDCAdapter adapter = null;
+        MethodHandle getPropertyMapHandle = null;
+        try {
+            MDCAdapter currentAdapter = MDC.getMDCAdapter();
+            // Only trust the exact Logback class - a subclass could have changed the copy-on-write behavior.
+            if (currentAdapter != null && LOGBACK_MDC_ADAPTER_CLASS_NAME.equals(currentAdapter.getClass().getName())) {
+                getPropertyMapHandle = MethodHandles
+                    .publicLookup()
+                    .findVirtual(currentAdapter.getClass(), "getPropertyMap", MethodType.methodType(Map.class))
+                    .asType(MethodType.methodType(Map.class, MDCAdapter.class));
+                adapter = currentAdapter;
+            }
+        }
+        catch (Throwable t) {
+            logger.debug(
+                "Unable to set up zero-copy MDC snapshots - MDC.getCopyOfContextMap() will be used instead.", t
+            );
+            adapter = null;
+            getPropertyMapHandle = null;
+        }
+
+        COPY_ON_WRITE_MDC_ADAPTER = adapter;
+        COPY_ON_WRITE_MDC_ADAPTER_GET_PROPERTY_MAP = getPropertyMapHandle;
+    }
+
+    // Intentionally protected - use the static methods.
+    protected MdcUtils() { /* do nothing */ }
+
+    /**
+     * @return A snapshot of the current thread's {@link MDC} context map that will not change when the thread's MDC
+     * is changed later, or null if the MDC has no context map (the same as {@link MDC#getCopyOfContextMap()}). The
+     * returned map is read-only. When the logging framework's MDC is copy-on-write (Logback) this is an O(1)
+     * operation that shares the MDC's current backing map rather than copying it, otherwise this delegates to {@link
+     * MDC#getCopyOfContextMap()}.
+     */
+    public static Map<String, String> getContextMapSnapshot() {
+        if (COPY_ON_WRITE_MDC_ADAPTER != null && COPY_ON_WRITE_MDC_ADAPTER == MDC.getMDCAdapter()) {
+            try {
+                @SuppressWarnings("unchecked")
+                Map<String, String> propertyMap =
+                    (Map<String, String>) COPY_ON_WRITE_MDC_ADAPTER_GET_PROPERTY_MAP.invokeExact(
+                        COPY_ON_WRITE_MDC_ADAPTER
+                    );
+
+                return (propertyMap == null) ? null : Collections.unmodifiableMap(propertyMap);
+            }
+            catch (Throwable t) {
+                // Should never happen, but if it does then the fallback below still gives the correct result.
+                logger.debug("Unable to get zero-copy MDC snapshot - falling back to MDC.getCopyOfContextMap().", t);
+            }
+        }
+
+        return MDC.getCopyOfContextMap();
+    }
+}
@@ -0,0 +1,470 @@
+package com.nike.wingtips.util;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Tracer;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An array-backed {@link Deque} of {@link Span}s that is purpose-built for {@link Tracer}'s per-thread span stack.
+ * It behaves like the {@link java.util.LinkedList} Tracer used to use (including being a {@link java.util.List}, so
+ * it's equal to any list containing the same spans in the same order) - the "first" element (index 0) is the top of
+ * the stack (the current span), {@link #push(Span)}/{@link #pop()}/{@link #peek()} work on the top of the stack,
+ * iteration goes from the top of the stack to the bottom (the root span), and null elements are allowed - but with two
+ * important differences:
+ * <ul>
+ *     <li>
+ *         Pushing a span doesn't allocate a node - spans are stored in an array that only grows when it runs out of
+ *         room, and {@link Tracer} reuses the same instance per thread across requests.
+ *     </li>
+ *     <li>
+ *         {@link #snapshot()} gives you an independent copy of the stack in O(1) time by sharing the backing array
+ *         copy-on-write style. Neither the original nor the snapshot will write to a shared array - the first
+ *         mutation that needs to write copies the array first, and popping the top span just shrinks the stack
+ *         without touching the array at all. This is what makes {@link Tracer#getCurrentSpanStackCopy()}, {@link
+ *         Tracer#registerWithThread(Deque)}, and {@link TracingState} hand-offs between threads cheap.
+ *     </li>
+ * </ul>
+ *
+ * <p>Like {@link java.util.LinkedList} this class is not thread safe - a given instance should only be used by one
+ * thread at a time. Snapshots are separate instances, so it's fine to hand a snapshot to another thread while the
+ * original keeps being used on the current thread.
+ */
+@SuppressWarnings("WeakerAccess")
+public class SpanStack extends AbstractList<Span> implements Deque<Span> {
+
+    private static final Span[] EMPTY_ELEMENTS = new Span[0];
+    protected static final int DEFAULT_INITIAL_CAPACITY = 8;
+
+    // The bottom of the stack (the root span) is at index 0, and the top of the stack (the current span) is at
+    //      index size - 1, so push and pop don't need to shift anything.
+    private Span[] elements;
+    private int size;
+    // True when the elements array might be referenced by another SpanStack (see snapshot()), in which case it must
+    //      be copied before this instance can write to it.
+    private boolean shared;
+
+    /**
+     * Creates a new empty stack. The backing array isn't allocated until the first span is added.
+     */
+    public SpanStack() {
+        this(EMPTY_ELEMENTS, 0, false);
+    }
+
+    private SpanStack(Span[] elements, int size, boolean shared) {
+        this.elements = elements;
+        this.size = size;
+        this.shared = shared;
+    }
+
+    /**
+     * @param spans The spans to copy, in {@link Deque} iteration order (i.e. the first span is the top of the stack
+     * and the last span is the bottom of the stack, which is what you get from iterating over a {@link Deque} that
+     * had spans {@link Deque#push(Object)}ed onto it). Can be null.
+     * @return A new {@link SpanStack} containing the given spans, or null if the given collection is null. If the
+     * given collection is itself a {@link SpanStack} then this returns an O(1) {@link #snapshot()} of it.
+     */
+    public static SpanStack copyOf(Collection<Span> spans) {
+        if (spans == null) {
+            return null;
+        }
+
+        if (spans instanceof SpanStack) {
+            return ((SpanStack) spans).snapshot();
+        }
+
+        Object[] spansTopToBottom = spans.toArray();
+        int numSpans = spansTopToBottom.length;
+        Span[] elements = new Span[Math.max(numSpans, DEFAULT_INITIAL_CAPACITY)];
+        for (int i = 0; i < numSpans; i++) {
+            elements[numSpans - 1 - i] = (Span) spansTopToBottom[i];
+        }
+
+        return new SpanStack(elements, numSpans, false);
+    }
+
+    /**
+     * @return An independent copy of this stack, created in O(1) time by sharing the backing array. Changes to this
+     * stack will not affect the returned copy and vice versa.
+     */
+    public SpanStack snapshot() {
+        if (size == 0) {
+            return new SpanStack();
+        }
+
+        shared = true;
+        return new SpanStack(elements, size, true);
+    }
+
+    /**
+     * @return The number of spans this stack can hold before it needs to grow its backing array.
+     */
+    public int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Makes sure the backing array is owned exclusively by this instance and can hold at least {@code minCapacity}
+     * spans, copying (and growing if necessary) the array if either of those isn't already true.
+     */
+    private void ensureWritableCapacity(int minCapacity) {
+        int currentCapacity = elements.length;
+        if (!shared && minCapacity <= currentCapacity) {
+            return;
+        }
+
+        int newCapacity = currentCapacity;
+        if (minCapacity > currentCapacity) {
+            newCapacity = Math.max(Math.max(DEFAULT_INITIAL_CAPACITY, currentCapacity * 2), minCapacity);
+        }
+
+        // Only copy the live slots - a shared array may still hold spans above our size that we popped without
+        //      clearing (see removeTop()), and we don't want to keep those alive.
+        Span[] newElements = new Span[newCapacity];
+        System.arraycopy(elements, 0, newElements, 0, size);
+        elements = newElements;
+        shared = false;
+    }
+
+    private int indexOfTop() {
+        return size - 1;
+    }
+
+    private Span removeTop() {
+        modCount++;
+        int topIndex = indexOfTop();
+        Span top = elements[topIndex];
+        // Don't write to a shared array - the other stack(s) sharing it might still need the slot, and it will be
+        //      copied (without this slot) if we need to write to it later anyway.
+        if (!shared) {
+            elements[topIndex] = null;
+        }
+        size = topIndex;
+        return top;
+    }
+
+    private Span removeAtIndex(int index) {
+        modCount++;
+        ensureWritableCapacity(size);
+        Span removed = elements[index];
+        int numToShift = size - index - 1;
+        if (numToShift > 0) {
+            System.arraycopy(elements, index + 1, elements, index, numToShift);
+        }
+        elements[--size] = null;
+        return removed;
+    }
+
+    private static boolean spansEqual(Object o, Span span) {
+        return (o == null) ? span == null : o.equals(span);
+    }
+
+    @Override
+    public void addFirst(Span span) {
+        modCount++;
+        ensureWritableCapacity(size + 1);
+        elements[size++] = span;
+    }
+
+    @Override
+    public void addLast(Span span) {
+        addAtIndex(0, span);
+    }
+
+    private void addAtIndex(int index, Span span) {
+        modCount++;
+        ensureWritableCapacity(size + 1);
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = span;
+        size++;
+    }
+
+    /**
+     * Converts a {@link java.util.List} index (0 is the top of the stack) to an index into {@link #elements} (0 is the
+     * bottom of the stack).
+     */
+    private int toArrayIndex(int listIndex) {
+        return indexOfTop() - listIndex;
+    }
+
+    private void checkListIndex(int listIndex, int upperBoundInclusive) {
+        if (listIndex < 0 || listIndex > upperBoundInclusive) {
+            throw new IndexOutOfBoundsException("Index: " + listIndex + ", Size: " + size);
+        }
+    }
+
+    /**
+     * @param index The position of the desired span counting down from the top of the stack, i.e. 0 is the current
+     * span and {@code size() - 1} is the root span.
+     * @return The span at the given position.
+     */
+    @Override
+    public Span get(int index) {
+        checkListIndex(index, indexOfTop());
+        return elements[toArrayIndex(index)];
+    }
+
+    @Override
+    public Span set(int index, Span span) {
+        checkListIndex(index, indexOfTop());
+        ensureWritableCapacity(size);
+        int arrayIndex = toArrayIndex(index);
+        Span previous = elements[arrayIndex];
+        elements[arrayIndex] = span;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Span span) {
+        checkListIndex(index, size);
+        // List index 0 is the top of the stack, which is array index size, and list index size is array index 0.
+        addAtIndex(size - index, span);
+    }
+
+    @Override
+    public Span remove(int index) {
+        checkListIndex(index, indexOfTop());
+        if (index == 0) {
+            return removeTop();
+        }
+
+        return removeAtIndex(toArrayIndex(index));
+    }
+
+    @Override
+    public boolean offerFirst(Span span) {
+        addFirst(span);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(Span span) {
+        addLast(span);
+        return true;
+    }
+
+    @Override
+    public Span removeFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        return removeTop();
+    }
+
+    @Override
+    public Span removeLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        return removeAtIndex(0);
+    }
+
+    @Override
+    public Span pollFirst() {
+        return (size == 0) ? null : removeTop();
+    }
+
+    @Override
+    public Span pollLast() {
+        return (size == 0) ? null : removeAtIndex(0);
+    }
+
+    @Override
+    public Span getFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        return elements[indexOfTop()];
+    }
+
+    @Override
+    public Span getLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        return elements[0];
+    }
+
+    @Override
+    public Span peekFirst() {
+        return (size == 0) ? null : elements[indexOfTop()];
+    }
+
+    @Override
+    public Span peekLast() {
+        return (size == 0) ? null : elements[0];
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        for (int i = indexOfTop(); i >= 0; i--) {
+            if (spansEqual(o, elements[i])) {
+                removeAtIndex(i);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        for (int i = 0; i < size; i++) {
+            if (spansEqual(o, elements[i])) {
+                removeAtIndex(i);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean add(Span span) {
+        addLast(span);
+        return true;
+    }
+
+    @Override
+    public boolean offer(Span span) {
+        return offerLast(span);
+    }
+
+    @Override
+    public Span remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public Span poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public Span element() {
+        return getFirst();
+    }
+
+    @Override
+    public Span peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public void push(Span span) {
+        addFirst(span);
+    }
+
+    @Override
+    public Span pop() {
+        return removeFirst();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return removeFirstOccurrence(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        for (int i = indexOfTop(); i >= 0; i--) {
+            if (spansEqual(o, elements[i])) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all spans from this stack. The backing array is kept for reuse unless it's shared with a snapshot.
+     */
+    @Override
+    public void clear() {
+        modCount++;
+        if (shared) {
+            elements = EMPTY_ELEMENTS;
+            shared = false;
+        }
+        else {
+            Arrays.fill(elements, 0, size, null);
+        }
+        size = 0;
+    }
+
+    /**
+     * @return An iterator that goes from the top of the stack (the current span) to the bottom (the root span).
+     */
+    @Override
+    public Iterator<Span> iterator() {
+        return new SpanStackIterator(false);
+    }
+
+    /**
+     * @return An iterator that goes from the bottom of the stack (the root span) to the top (the current span).
+     */
+    @Override
+    public Iterator<Span> descendingIterator() {
+        return new SpanStackIterator(true);
+    }
+
+    private class SpanStackIterator implements Iterator<Span> {
+        private final boolean bottomToTop;
+        private int nextIndex;
+        private int lastReturnedIndex = -1;
+
+        SpanStackIterator(boolean bottomToTop) {
+            this.bottomToTop = bottomToTop;
+            this.nextIndex = (bottomToTop) ? 0 : indexOfTop();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return (bottomToTop) ? nextIndex < size : nextIndex >= 0;
+        }
+
+        @Override
+        public Span next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            lastReturnedIndex = nextIndex;
+            nextIndex += (bottomToTop) ? 1 : -1;
+            return elements[lastReturnedIndex];
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturnedIndex < 0) {
+                throw new IllegalStateException();
+            }
+
+            removeAtIndex(lastReturnedIndex);
+            if (bottomToTop) {
+                // Everything above the removed span shifted down by one.
+                nextIndex--;
+            }
+            lastReturnedIndex = -1;
+        }
+    }
+}
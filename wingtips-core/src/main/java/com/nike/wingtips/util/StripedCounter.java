@@ -0,0 +1,73 @@
+package com.nike.wingtips.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A minimal striped counter (Java 7 has no {@code LongAdder}). Each thread updates the cell picked by its thread ID,
+ * and cells are spaced a cache line apart to avoid false sharing between them, so concurrent threads rarely contend
+ * on the same cell. Updates never allocate.
+ *
+ * <p>Reads ({@link #sum()} and {@link #sumThenReset()}) visit every cell, so they're more expensive than updates and
+ * are not atomic with respect to concurrent updates - an update made during a read is reflected in either that read
+ * or a later one, but never lost.
+ */
+@SuppressWarnings("WeakerAccess")
+public class StripedCounter {
+
+    /**
+     * The number of cells. Must be a power of two.
+     */
+    public static final int NUM_CELLS = 16;
+    /**
+     * The distance (in longs) between cells - 8 longs == 64 bytes, a typical cache line.
+     */
+    public static final int CELL_SPACING = 8;
+
+    protected final AtomicLongArray cells = new AtomicLongArray(NUM_CELLS * CELL_SPACING);
+
+    /**
+     * @return The index of the current thread's stripe, between 0 (inclusive) and the given stripe count
+     * (exclusive). The given stripe count must be a power of two.
+     */
+    public static int currentThreadStripe(int numStripes) {
+        return (int) (Thread.currentThread().getId() & (numStripes - 1));
+    }
+
+    /**
+     * Adds one to this counter.
+     */
+    public void increment() {
+        cells.incrementAndGet(currentThreadStripe(NUM_CELLS) * CELL_SPACING);
+    }
+
+    /**
+     * Adds the given value to this counter.
+     *
+     * @param delta The value to add.
+     */
+    public void add(long delta) {
+        cells.addAndGet(currentThreadStripe(NUM_CELLS) * CELL_SPACING, delta);
+    }
+
+    /**
+     * @return The current total of this counter.
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < NUM_CELLS; i++) {
+            sum += cells.get(i * CELL_SPACING);
+        }
+        return sum;
+    }
+
+    /**
+     * @return The current total of this counter, resetting each cell to zero as it's read.
+     */
+    public long sumThenReset() {
+        long sum = 0;
+        for (int i = 0; i < NUM_CELLS; i++) {
+            sum += cells.getAndSet(i * CELL_SPACING, 0);
+        }
+        return sum;
+    }
+}
@@ -45,10 +45,10 @@ public class TracingState extends Pair<Deque<Span>, Map<String, String>> {
 
     /**
      * @return A *copy* of the current thread's tracing information - retrieved by calling {@link
-     * Tracer#getCurrentTracingStateCopy()}. Since this creates copies of the span stack and MDC info it can be
-     * have a noticeable performance impact if used too many times (i.e. tens or hundreds of times per request for high
-     * throughput services). NOTE: This is usually not needed unless you're doing asynchronous processing and need to
-     * pass tracing state across thread boundaries.
+     * Tracer#getCurrentTracingStateCopy()}. The span stack copy is a cheap O(1) {@link SpanStack#snapshot()}, but the
+     * MDC info is still copied, so this can have a noticeable performance impact if used too many times (i.e. tens or
+     * hundreds of times per request for high throughput services). NOTE: This is usually not needed unless you're
+     * doing asynchronous processing and need to pass tracing state across thread boundaries.
      */
     public static TracingState getCurrentThreadTracingState() {
         return Tracer.getInstance().getCurrentTracingStateCopy();
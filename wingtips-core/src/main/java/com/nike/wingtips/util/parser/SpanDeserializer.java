@@ -0,0 +1,1000 @@
+package com.nike.wingtips.util.parser;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.Span.TimestampedAnnotation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.nike.wingtips.util.parser.SpanParser.ANNOTATIONS_LIST_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.ANNOTATION_SUBOBJECT_TIMESTAMP_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.ANNOTATION_SUBOBJECT_VALUE_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.DURATION_NANOS_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.KEY_VALUE_TAG_PREFIX;
+import static com.nike.wingtips.util.parser.SpanParser.KEY_VALUE_TIMESTAMPED_ANNOTATION_PREFIX;
+import static com.nike.wingtips.util.parser.SpanParser.PARENT_SPAN_ID_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.SAMPLEABLE_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.SPAN_ID_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.SPAN_NAME_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.SPAN_PURPOSE_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.START_TIME_EPOCH_MICROS_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.TAGS_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.TRACE_ID_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.USER_ID_FIELD;
+
+/**
+ * Single-pass parser for the JSON and key/value {@link Span} representations described in {@link SpanParser} - the
+ * counterpart to {@link SpanSerializer}. {@link SpanParser#fromJSON(String)} and {@link
+ * SpanParser#fromKeyValueString(String)} delegate here, but this class can also parse directly from any {@link
+ * CharSequence} (e.g. a {@link StringBuilder} or a {@link java.nio.CharBuffer}) or from UTF-8 bytes in a {@code
+ * byte[]} or {@link ByteBuffer} slice, so log-processing pipelines don't need to decode their input into a {@link
+ * String} first.
+ *
+ * <p>The input is scanned in place: well-known field names are matched against the {@link SpanParser} field-name
+ * constants without creating a {@link String} for the key, and values are only unescaped if they actually contain a
+ * backslash. If you don't need a full {@link Span} then use the visitor methods (e.g. {@link
+ * #visitJson(CharSequence, SpanFieldVisitor)}), which hand each field to a {@link SpanFieldVisitor} as a view over
+ * the input and let you stop as soon as you have what you need. For example, pulling out the trace ID, span ID, and
+ * duration only requires allocating the two ID strings.
+ *
+ * <p><b>WARNING:</b> Like {@link SpanParser}, this assumes the input originally came from {@link SpanSerializer} (or
+ * {@link SpanParser#convertSpanToJSON(Span)} / {@link SpanParser#convertSpanToKeyValueFormat(Span)}). It is not a
+ * general purpose JSON parser - for example it doesn't allow whitespace between tokens.
+ */
+@SuppressWarnings("WeakerAccess")
+public class SpanDeserializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpanDeserializer.class);
+
+    /**
+     * The well-known span field names. Keys in the input matching one of these are reported using the constant
+     * itself rather than a new {@link String}.
+     */
+    protected static final String[] KNOWN_FIELD_NAMES = {
+        TRACE_ID_FIELD, PARENT_SPAN_ID_FIELD, SPAN_ID_FIELD, SPAN_NAME_FIELD, SAMPLEABLE_FIELD, USER_ID_FIELD,
+        SPAN_PURPOSE_FIELD, START_TIME_EPOCH_MICROS_FIELD, DURATION_NANOS_FIELD, TAGS_FIELD, ANNOTATIONS_LIST_FIELD
+    };
+
+    private static final SpanPurpose[] SPAN_PURPOSE_VALUES = SpanPurpose.values();
+
+    // Intentionally protected - use the static methods.
+    protected SpanDeserializer() { /* do nothing */ }
+
+    /**
+     * @return The {@link Span} represented by the given JSON (see {@link SpanParser#fromJSON(String)}), or null if
+     * the given JSON is null or a proper span could not be deserialized from it.
+     */
+    public static Span fromJson(CharSequence json) {
+        if (json == null) {
+            return null;
+        }
+
+        return parseSpan(new CharSequenceInput(json), true);
+    }
+
+    /**
+     * @return The {@link Span} represented by the UTF-8 JSON in the given slice of the given byte array, or null if
+     * the given array is null or a proper span could not be deserialized from it.
+     */
+    public static Span fromJsonUtf8(byte[] utf8Json, int offset, int length) {
+        if (utf8Json == null) {
+            return null;
+        }
+
+        return parseSpan(new ByteArrayInput(utf8Json, offset, length), true);
+    }
+
+    /**
+     * @return The {@link Span} represented by the UTF-8 JSON between the given buffer's position and limit, or null
+     * if the given buffer is null or a proper span could not be deserialized from it. The buffer's position is not
+     * changed.
+     */
+    public static Span fromJsonUtf8(ByteBuffer utf8Json) {
+        if (utf8Json == null) {
+            return null;
+        }
+
+        return parseSpan(inputFor(utf8Json), true);
+    }
+
+    /**
+     * @return The {@link Span} represented by the given key/value string (see {@link
+     * SpanParser#fromKeyValueString(String)}), or null if the given string is null or a proper span could not be
+     * deserialized from it.
+     */
+    public static Span fromKeyValueString(CharSequence keyValueStr) {
+        if (keyValueStr == null) {
+            return null;
+        }
+
+        return parseSpan(new CharSequenceInput(keyValueStr), false);
+    }
+
+    /**
+     * @return The {@link Span} represented by the UTF-8 key/value string in the given slice of the given byte array,
+     * or null if the given array is null or a proper span could not be deserialized from it.
+     */
+    public static Span fromKeyValueStringUtf8(byte[] utf8KeyValueStr, int offset, int length) {
+        if (utf8KeyValueStr == null) {
+            return null;
+        }
+
+        return parseSpan(new ByteArrayInput(utf8KeyValueStr, offset, length), false);
+    }
+
+    /**
+     * @return The {@link Span} represented by the UTF-8 key/value string between the given buffer's position and
+     * limit, or null if the given buffer is null or a proper span could not be deserialized from it. The buffer's
+     * position is not changed.
+     */
+    public static Span fromKeyValueStringUtf8(ByteBuffer utf8KeyValueStr) {
+        if (utf8KeyValueStr == null) {
+            return null;
+        }
+
+        return parseSpan(inputFor(utf8KeyValueStr), false);
+    }
+
+    /**
+     * Parses the given JSON, calling the given visitor for each span field, tag, and annotation in the order they
+     * appear, until the visitor asks to stop or the input is exhausted.
+     *
+     * @return true if the input was parsed successfully (or the visitor stopped parsing before anything malformed
+     * was found), false if the input was null or malformed. Exceptions thrown by the visitor are propagated.
+     */
+    public static boolean visitJson(CharSequence json, SpanFieldVisitor visitor) {
+        return json != null && visit(new CharSequenceInput(json), visitor, true);
+    }
+
+    /**
+     * The UTF-8 {@code byte[]} version of {@link #visitJson(CharSequence, SpanFieldVisitor)}.
+     */
+    public static boolean visitJsonUtf8(byte[] utf8Json, int offset, int length, SpanFieldVisitor visitor) {
+        return utf8Json != null && visit(new ByteArrayInput(utf8Json, offset, length), visitor, true);
+    }
+
+    /**
+     * The UTF-8 {@link ByteBuffer} version of {@link #visitJson(CharSequence, SpanFieldVisitor)}. Parses the bytes
+     * between the buffer's position and limit, without changing the buffer's position.
+     */
+    public static boolean visitJsonUtf8(ByteBuffer utf8Json, SpanFieldVisitor visitor) {
+        return utf8Json != null && visit(inputFor(utf8Json), visitor, true);
+    }
+
+    /**
+     * The key/value format version of {@link #visitJson(CharSequence, SpanFieldVisitor)}.
+     */
+    public static boolean visitKeyValueString(CharSequence keyValueStr, SpanFieldVisitor visitor) {
+        return keyValueStr != null && visit(new CharSequenceInput(keyValueStr), visitor, false);
+    }
+
+    /**
+     * The UTF-8 {@code byte[]} version of {@link #visitKeyValueString(CharSequence, SpanFieldVisitor)}.
+     */
+    public static boolean visitKeyValueStringUtf8(
+        byte[] utf8KeyValueStr, int offset, int length, SpanFieldVisitor visitor
+    ) {
+        return utf8KeyValueStr != null && visit(new ByteArrayInput(utf8KeyValueStr, offset, length), visitor, false);
+    }
+
+    /**
+     * The UTF-8 {@link ByteBuffer} version of {@link #visitKeyValueString(CharSequence, SpanFieldVisitor)}. Parses
+     * the bytes between the buffer's position and limit, without changing the buffer's position.
+     */
+    public static boolean visitKeyValueStringUtf8(ByteBuffer utf8KeyValueStr, SpanFieldVisitor visitor) {
+        return utf8KeyValueStr != null && visit(inputFor(utf8KeyValueStr), visitor, false);
+    }
+
+    /**
+     * Parses the given value as a signed decimal {@code long} without creating a {@link String} in the common case.
+     * Behaves exactly like {@link Long#parseLong(String)}, which is used as a fallback for anything that isn't a
+     * plain run of ASCII digits short enough to be guaranteed not to overflow.
+     *
+     * @throws NumberFormatException if the value cannot be parsed.
+     */
+    public static long parseLong(CharSequence value) {
+        int length = value.length();
+        // Any run of up to 18 digits fits in a long, so there's no need for overflow checks in the fast path.
+        if (length == 0 || length > 18) {
+            return Long.parseLong(value.toString());
+        }
+
+        int i = 0;
+        boolean negative = false;
+        char firstChar = value.charAt(0);
+        if (firstChar == '-' || firstChar == '+') {
+            negative = (firstChar == '-');
+            i = 1;
+            if (length == 1) {
+                return Long.parseLong(value.toString());
+            }
+        }
+
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.parseLong(value.toString());
+            }
+            result = (result * 10) + digit;
+        }
+
+        return (negative) ? -result : result;
+    }
+
+    /**
+     * @return true if the given value is null or is the literal text {@code null}, which is how null span fields are
+     * serialized.
+     */
+    public static boolean isNullValue(CharSequence value) {
+        return value == null
+               || (value.length() == 4
+                   && value.charAt(0) == 'n'
+                   && value.charAt(1) == 'u'
+                   && value.charAt(2) == 'l'
+                   && value.charAt(3) == 'l');
+    }
+
+    protected static Span parseSpan(SpanInput input, boolean isJson) {
+        try {
+            SpanBuildingVisitor spanBuilder = new SpanBuildingVisitor();
+            read(input, spanBuilder, isJson);
+            return spanBuilder.buildSpan();
+        }
+        catch (Exception e) {
+            if (isJson) {
+                logger.error("Error extracting Span from JSON. Defaulting to null. bad_span_json={}", input, e);
+            }
+            else {
+                logger.error(
+                    "Error extracting Span from key/value string. Defaulting to null. bad_span_key_value_string={}",
+                    input, e
+                );
+            }
+            return null;
+        }
+    }
+
+    protected static boolean visit(SpanInput input, SpanFieldVisitor visitor, boolean isJson) {
+        if (visitor == null) {
+            throw new IllegalArgumentException("visitor cannot be null");
+        }
+
+        try {
+            read(input, visitor, isJson);
+            return true;
+        }
+        catch (MalformedSpanException e) {
+            return false;
+        }
+    }
+
+    protected static void read(SpanInput input, SpanFieldVisitor visitor, boolean isJson) {
+        Reader reader = new Reader(input, visitor);
+        if (isJson) {
+            reader.readJson();
+        }
+        else {
+            reader.readKeyValueString();
+        }
+    }
+
+    protected static SpanInput inputFor(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return new ByteArrayInput(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+
+        return new ByteBufferInput(buffer);
+    }
+
+    /**
+     * Thrown internally when the input is not a properly serialized span. Stack traces are not captured since bad
+     * input is an expected (and potentially frequent) occurrence in log-processing pipelines.
+     */
+    protected static class MalformedSpanException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public MalformedSpanException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * The recursive descent parser for both formats. Tracks the current position in the input and whether the
+     * visitor has asked to stop.
+     */
+    private static final class Reader {
+
+        private static final int TOP_LEVEL_CONTEXT = 0;
+        private static final int TAGS_CONTEXT = 1;
+        private static final int ANNOTATION_CONTEXT = 2;
+        private static final int IGNORED_CONTEXT = 3;
+
+        private final SpanInput input;
+        private final SpanFieldVisitor visitor;
+        private final int length;
+        private InputSlice slice;
+        private int pos;
+        private boolean stopped;
+
+        // Describes the most recently scanned key or string value.
+        private boolean scannedBackslash;
+        private boolean scannedNonAscii;
+
+        // The pieces of the JSON annotation object currently being parsed.
+        private int annotationTimestampStart;
+        private int annotationTimestampEnd;
+        private int annotationValueStart;
+        private int annotationValueEnd;
+        private boolean annotationValueBackslash;
+        private boolean annotationValueNonAscii;
+
+        private Reader(SpanInput input, SpanFieldVisitor visitor) {
+            this.input = input;
+            this.visitor = visitor;
+            this.length = input.length();
+        }
+
+        private void readJson() {
+            readJsonObject(TOP_LEVEL_CONTEXT);
+        }
+
+        private void readJsonObject(int context) {
+            expect('{');
+            if (context == ANNOTATION_CONTEXT) {
+                annotationTimestampStart = -1;
+                annotationValueStart = -1;
+            }
+
+            if (peek() == '}') {
+                pos++;
+                finishJsonObject(context);
+                return;
+            }
+
+            while (true) {
+                expect('\"');
+                int keyStart = pos;
+                int keyEnd = scanString();
+                boolean keyBackslash = scannedBackslash;
+                boolean keyNonAscii = scannedNonAscii;
+                pos = keyEnd + 1;
+                expect(':');
+
+                int c = peek();
+                if (c == '\"') {
+                    pos++;
+                    int valueStart = pos;
+                    int valueEnd = scanString();
+                    pos = valueEnd + 1;
+                    handleJsonStringValue(context, keyStart, keyEnd, keyBackslash, keyNonAscii, valueStart, valueEnd);
+                }
+                else if (c == '{') {
+                    boolean isTags = context == TOP_LEVEL_CONTEXT && regionEquals(keyStart, keyEnd, TAGS_FIELD);
+                    readJsonObject((isTags) ? TAGS_CONTEXT : IGNORED_CONTEXT);
+                }
+                else if (c == '[') {
+                    boolean isAnnotations =
+                        context == TOP_LEVEL_CONTEXT && regionEquals(keyStart, keyEnd, ANNOTATIONS_LIST_FIELD);
+                    readJsonArray((isAnnotations) ? ANNOTATION_CONTEXT : IGNORED_CONTEXT);
+                }
+                else {
+                    throw malformed("Expected '\"', '{', or '[' for value-start", pos);
+                }
+
+                if (stopped) {
+                    return;
+                }
+
+                c = next();
+                if (c == '}') {
+                    finishJsonObject(context);
+                    return;
+                }
+                if (c != ',') {
+                    throw malformed("Expected '}' or ',' after value-end", pos - 1);
+                }
+            }
+        }
+
+        private void readJsonArray(int elementContext) {
+            expect('[');
+            while (true) {
+                if (peek() != '{') {
+                    throw malformed("Expected '{' for JSON array element", pos);
+                }
+
+                readJsonObject(elementContext);
+                if (stopped) {
+                    return;
+                }
+
+                int c = next();
+                if (c == ']') {
+                    return;
+                }
+                if (c != ',') {
+                    throw malformed("Expected ']' or ',' after JSON array element", pos - 1);
+                }
+            }
+        }
+
+        private void handleJsonStringValue(
+            int context, int keyStart, int keyEnd, boolean keyBackslash, boolean keyNonAscii,
+            int valueStart, int valueEnd
+        ) {
+            boolean valueBackslash = scannedBackslash;
+            boolean valueNonAscii = scannedNonAscii;
+            if (context == TOP_LEVEL_CONTEXT) {
+                String fieldName = jsonFieldName(keyStart, keyEnd, keyBackslash, keyNonAscii);
+                CharSequence value = value(valueStart, valueEnd, valueBackslash, valueNonAscii);
+                stopped = !visitor.visitField(fieldName, value);
+            }
+            else if (context == TAGS_CONTEXT) {
+                String tagKey = string(keyStart, keyEnd, keyBackslash, keyNonAscii);
+                CharSequence tagValue = value(valueStart, valueEnd, valueBackslash, valueNonAscii);
+                stopped = !visitor.visitTag(tagKey, tagValue);
+            }
+            else if (context == ANNOTATION_CONTEXT) {
+                if (regionEquals(keyStart, keyEnd, ANNOTATION_SUBOBJECT_TIMESTAMP_FIELD)) {
+                    annotationTimestampStart = valueStart;
+                    annotationTimestampEnd = valueEnd;
+                }
+                else if (regionEquals(keyStart, keyEnd, ANNOTATION_SUBOBJECT_VALUE_FIELD)) {
+                    annotationValueStart = valueStart;
+                    annotationValueEnd = valueEnd;
+                    annotationValueBackslash = valueBackslash;
+                    annotationValueNonAscii = valueNonAscii;
+                }
+            }
+            // Else it's in an object we don't care about, so ignore it.
+        }
+
+        private void finishJsonObject(int context) {
+            if (context != ANNOTATION_CONTEXT) {
+                return;
+            }
+
+            if (annotationTimestampStart < 0) {
+                throw malformed("Annotation is missing its " + ANNOTATION_SUBOBJECT_TIMESTAMP_FIELD, pos - 1);
+            }
+
+            long timestamp = parseLongField(annotationTimestampStart, annotationTimestampEnd);
+            CharSequence value = (annotationValueStart < 0)
+                                 ? null
+                                 : value(annotationValueStart, annotationValueEnd, annotationValueBackslash,
+                                         annotationValueNonAscii);
+            stopped = !visitor.visitAnnotation(timestamp, value);
+        }
+
+        private void readKeyValueString() {
+            if (length == 0) {
+                throw malformed("Key/value string is empty", 0);
+            }
+
+            while (true) {
+                int keyStart = pos;
+                int keyEnd = scanKey();
+                boolean keyBackslash = scannedBackslash;
+                boolean keyNonAscii = scannedNonAscii;
+                pos = keyEnd + 1;
+                expect('\"');
+                int valueStart = pos;
+                int valueEnd = scanString();
+                pos = valueEnd + 1;
+                handleKeyValuePair(keyStart, keyEnd, keyBackslash, keyNonAscii, valueStart, valueEnd);
+
+                if (stopped || pos == length) {
+                    return;
+                }
+
+                expect(',');
+            }
+        }
+
+        private void handleKeyValuePair(
+            int keyStart, int keyEnd, boolean keyBackslash, boolean keyNonAscii, int valueStart, int valueEnd
+        ) {
+            boolean valueBackslash = scannedBackslash;
+            boolean valueNonAscii = scannedNonAscii;
+            if (regionStartsWith(keyStart, keyEnd, KEY_VALUE_TAG_PREFIX)) {
+                String tagKey = input.substring(keyStart + KEY_VALUE_TAG_PREFIX.length(), keyEnd, keyNonAscii);
+                if (keyBackslash) {
+                    tagKey = SpanParser.unescapeTagKeyForKeyValueFormatDeserialization(tagKey);
+                }
+                CharSequence tagValue = value(valueStart, valueEnd, valueBackslash, valueNonAscii);
+                stopped = !visitor.visitTag(tagKey, tagValue);
+            }
+            else if (regionStartsWith(keyStart, keyEnd, KEY_VALUE_TIMESTAMPED_ANNOTATION_PREFIX)) {
+                long timestamp = parseLongField(keyStart + KEY_VALUE_TIMESTAMPED_ANNOTATION_PREFIX.length(), keyEnd);
+                CharSequence value = value(valueStart, valueEnd, valueBackslash, valueNonAscii);
+                stopped = !visitor.visitAnnotation(timestamp, value);
+            }
+            else {
+                // Span field keys are not unescaped in the key/value format.
+                String fieldName = knownFieldName(keyStart, keyEnd);
+                if (fieldName == null) {
+                    fieldName = input.substring(keyStart, keyEnd, keyNonAscii);
+                }
+                CharSequence value = value(valueStart, valueEnd, valueBackslash, valueNonAscii);
+                stopped = !visitor.visitField(fieldName, value);
+            }
+        }
+
+        /**
+         * Scans a quoted string starting at {@link #pos} (just after the open quotes).
+         *
+         * @return The index of the closing (unescaped) quotes.
+         */
+        private int scanString() {
+            boolean backslash = false;
+            boolean nonAscii = false;
+            int i = pos;
+            while (i < length) {
+                int c = input.charAt(i);
+                if (c == '\"') {
+                    scannedBackslash = backslash;
+                    scannedNonAscii = nonAscii;
+                    return i;
+                }
+
+                if (c == '\\') {
+                    // Skip the escaped character - it can't be the end of the string.
+                    backslash = true;
+                    i++;
+                    if (i < length && input.charAt(i) >= 0x80) {
+                        nonAscii = true;
+                    }
+                }
+                else if (c >= 0x80) {
+                    nonAscii = true;
+                }
+                i++;
+            }
+
+            throw malformed("Input ended before closing quotes '\"' could be found", i);
+        }
+
+        /**
+         * Scans a key/value format key starting at {@link #pos}.
+         *
+         * @return The index of the equals '=' char that ends the key.
+         */
+        private int scanKey() {
+            boolean backslash = false;
+            boolean nonAscii = false;
+            for (int i = pos; i < length; i++) {
+                int c = input.charAt(i);
+                if (c == '=') {
+                    scannedBackslash = backslash;
+                    scannedNonAscii = nonAscii;
+                    return i;
+                }
+
+                if (c == '\\') {
+                    backslash = true;
+                }
+                else if (c >= 0x80) {
+                    nonAscii = true;
+                }
+            }
+
+            throw malformed("Input ended before key/value delimiter '=' could be found", length);
+        }
+
+        private String jsonFieldName(int start, int end, boolean backslash, boolean nonAscii) {
+            if (!backslash) {
+                String knownFieldName = knownFieldName(start, end);
+                if (knownFieldName != null) {
+                    return knownFieldName;
+                }
+                return input.substring(start, end, nonAscii);
+            }
+
+            String fieldName = string(start, end, true, nonAscii);
+            for (String knownFieldName : KNOWN_FIELD_NAMES) {
+                if (knownFieldName.equals(fieldName)) {
+                    return knownFieldName;
+                }
+            }
+            return fieldName;
+        }
+
+        private String knownFieldName(int start, int end) {
+            for (String knownFieldName : KNOWN_FIELD_NAMES) {
+                if (regionEquals(start, end, knownFieldName)) {
+                    return knownFieldName;
+                }
+            }
+            return null;
+        }
+
+        private String string(int start, int end, boolean backslash, boolean nonAscii) {
+            String str = input.substring(start, end, nonAscii);
+            return (backslash) ? SpanParser.unescapeJson(str) : str;
+        }
+
+        private CharSequence value(int start, int end, boolean backslash, boolean nonAscii) {
+            if (backslash || (nonAscii && !input.supportsNonAsciiViews())) {
+                return string(start, end, backslash, nonAscii);
+            }
+
+            return slice(start, end);
+        }
+
+        private InputSlice slice(int start, int end) {
+            if (slice == null) {
+                slice = new InputSlice(input);
+            }
+            return slice.reset(start, end);
+        }
+
+        private long parseLongField(int start, int end) {
+            try {
+                return parseLong(slice(start, end));
+            }
+            catch (NumberFormatException e) {
+                throw malformed("Unable to parse long value: " + e.getMessage(), start);
+            }
+        }
+
+        private boolean regionEquals(int start, int end, String expected) {
+            return (end - start) == expected.length() && regionStartsWith(start, end, expected);
+        }
+
+        private boolean regionStartsWith(int start, int end, String prefix) {
+            int prefixLength = prefix.length();
+            if ((end - start) < prefixLength) {
+                return false;
+            }
+
+            for (int i = 0; i < prefixLength; i++) {
+                if (input.charAt(start + i) != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int peek() {
+            if (pos >= length) {
+                throw malformed("Input ended unexpectedly", pos);
+            }
+            return input.charAt(pos);
+        }
+
+        private int next() {
+            int c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char expected) {
+            int c = next();
+            if (c != expected) {
+                throw malformed("Expected '" + expected + "' but found '" + (char) c + "'", pos - 1);
+            }
+        }
+
+        private MalformedSpanException malformed(String message, int index) {
+            return new MalformedSpanException("Span parsing error: " + message + " at index " + index);
+        }
+    }
+
+    /**
+     * Builds a {@link Span} from the visited fields, following the same rules as {@link
+     * SpanParser#fromKeyValueMap(Map, Map, List)}.
+     */
+    protected static class SpanBuildingVisitor extends SpanFieldVisitor {
+        protected String traceId;
+        protected String spanId;
+        protected String parentSpanId;
+        protected String spanName;
+        protected Boolean sampleable;
+        protected String userId;
+        protected Long startTimeEpochMicros;
+        protected Long durationNanos;
+        protected SpanPurpose spanPurpose;
+        protected Map<String, String> tags;
+        protected List<TimestampedAnnotation> annotations;
+
+        @Override
+        @SuppressWarnings("StringEquality")
+        public boolean visitField(String fieldName, CharSequence value) {
+            // Known field names are always the SpanParser constants, so identity comparison is safe here.
+            if (fieldName == TRACE_ID_FIELD) {
+                traceId = nullSafeString(value);
+            }
+            else if (fieldName == SPAN_ID_FIELD) {
+                spanId = nullSafeString(value);
+            }
+            else if (fieldName == PARENT_SPAN_ID_FIELD) {
+                parentSpanId = nullSafeString(value);
+            }
+            else if (fieldName == SPAN_NAME_FIELD) {
+                spanName = nullSafeString(value);
+            }
+            else if (fieldName == SAMPLEABLE_FIELD) {
+                sampleable = (isNullValue(value)) ? null : Boolean.valueOf(isTrue(value));
+            }
+            else if (fieldName == USER_ID_FIELD) {
+                userId = nullSafeString(value);
+            }
+            else if (fieldName == START_TIME_EPOCH_MICROS_FIELD) {
+                startTimeEpochMicros = (isNullValue(value)) ? null : Long.valueOf(parseLong(value));
+            }
+            else if (fieldName == DURATION_NANOS_FIELD) {
+                durationNanos = (isNullValue(value)) ? null : Long.valueOf(parseLong(value));
+            }
+            else if (fieldName == SPAN_PURPOSE_FIELD) {
+                spanPurpose = (isNullValue(value)) ? null : parseSpanPurpose(value);
+            }
+
+            return true;
+        }
+
+        @Override
+        public boolean visitTag(String tagKey, CharSequence tagValue) {
+            if (tags == null) {
+                tags = new LinkedHashMap<>();
+            }
+            tags.put(tagKey, tagValue.toString());
+            return true;
+        }
+
+        @Override
+        public boolean visitAnnotation(long timestampEpochMicros, CharSequence annotationValue) {
+            if (annotations == null) {
+                annotations = new ArrayList<>();
+            }
+            String value = (annotationValue == null) ? null : annotationValue.toString();
+            annotations.add(TimestampedAnnotation.forEpochMicros(timestampEpochMicros, value));
+            return true;
+        }
+
+        public Span buildSpan() {
+            if (sampleable == null) {
+                throw new IllegalStateException("Unable to parse " + SAMPLEABLE_FIELD + " from serialized Span");
+            }
+            if (startTimeEpochMicros == null) {
+                throw new IllegalStateException(
+                    "Unable to parse " + START_TIME_EPOCH_MICROS_FIELD + " from serialized Span"
+                );
+            }
+
+            return new Span(
+                traceId, parentSpanId, spanId, spanName, sampleable, userId, spanPurpose, startTimeEpochMicros,
+                null, durationNanos, tags, annotations
+            );
+        }
+
+        protected static String nullSafeString(CharSequence value) {
+            return (isNullValue(value)) ? null : value.toString();
+        }
+
+        protected static boolean isTrue(CharSequence value) {
+            // Same rules as Boolean.parseBoolean(String): "true", ignoring case.
+            return value.length() == 4
+                   && Character.toLowerCase(value.charAt(0)) == 't'
+                   && Character.toLowerCase(value.charAt(1)) == 'r'
+                   && Character.toLowerCase(value.charAt(2)) == 'u'
+                   && Character.toLowerCase(value.charAt(3)) == 'e';
+        }
+
+        protected static SpanPurpose parseSpanPurpose(CharSequence value) {
+            for (SpanPurpose spanPurpose : SPAN_PURPOSE_VALUES) {
+                if (contentEquals(spanPurpose.name(), value)) {
+                    return spanPurpose;
+                }
+            }
+
+            logger.warn("Unable to parse \"{}\" to a SpanPurpose enum.", value);
+            return null;
+        }
+
+        private static boolean contentEquals(String str, CharSequence value) {
+            int length = str.length();
+            if (value.length() != length) {
+                return false;
+            }
+
+            for (int i = 0; i < length; i++) {
+                if (str.charAt(i) != value.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The input being parsed. For UTF-8 input {@link #charAt(int)} returns the unsigned byte value - all the
+     * structural characters in a serialized span are ASCII, and no byte of a multi-byte UTF-8 sequence can be mistaken
+     * for one, so the input can be scanned byte-by-byte and only decoded when a {@link String} is needed.
+     */
+    protected abstract static class SpanInput {
+        protected abstract int length();
+
+        protected abstract int charAt(int index);
+
+        /**
+         * @return The given region as a {@link String}. For UTF-8 input {@code containsNonAscii} must be true if the
+         * region contains any non-ASCII bytes.
+         */
+        protected abstract String substring(int start, int end, boolean containsNonAscii);
+
+        /**
+         * @return true if {@link #charAt(int)} returns real chars even when the input is not ASCII, i.e. a {@link
+         * InputSlice} view can be used for any region.
+         */
+        protected abstract boolean supportsNonAsciiViews();
+
+        @Override
+        public String toString() {
+            return substring(0, length(), true);
+        }
+    }
+
+    protected static class CharSequenceInput extends SpanInput {
+        private final CharSequence chars;
+
+        public CharSequenceInput(CharSequence chars) {
+            this.chars = chars;
+        }
+
+        @Override
+        protected int length() {
+            return chars.length();
+        }
+
+        @Override
+        protected int charAt(int index) {
+            return chars.charAt(index);
+        }
+
+        @Override
+        protected String substring(int start, int end, boolean containsNonAscii) {
+            return chars.subSequence(start, end).toString();
+        }
+
+        @Override
+        protected boolean supportsNonAsciiViews() {
+            return true;
+        }
+    }
+
+    protected static class ByteArrayInput extends SpanInput {
+        private final byte[] bytes;
+        private final int offset;
+        private final int length;
+
+        public ByteArrayInput(byte[] bytes, int offset, int length) {
+            if (offset < 0 || length < 0 || offset > bytes.length - length) {
+                throw new IndexOutOfBoundsException(
+                    "offset=" + offset + ", length=" + length + ", array_length=" + bytes.length
+                );
+            }
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        protected int length() {
+            return length;
+        }
+
+        @Override
+        protected int charAt(int index) {
+            return bytes[offset + index] & 0xFF;
+        }
+
+        @Override
+        protected String substring(int start, int end, boolean containsNonAscii) {
+            return new String(bytes, offset + start, end - start, charsetFor(containsNonAscii));
+        }
+
+        @Override
+        protected boolean supportsNonAsciiViews() {
+            return false;
+        }
+    }
+
+    protected static class ByteBufferInput extends SpanInput {
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int length;
+
+        public ByteBufferInput(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.offset = buffer.position();
+            this.length = buffer.remaining();
+        }
+
+        @Override
+        protected int length() {
+            return length;
+        }
+
+        @Override
+        protected int charAt(int index) {
+            return buffer.get(offset + index) & 0xFF;
+        }
+
+        @Override
+        protected String substring(int start, int end, boolean containsNonAscii) {
+            byte[] bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(offset + start + i);
+            }
+            return new String(bytes, charsetFor(containsNonAscii));
+        }
+
+        @Override
+        protected boolean supportsNonAsciiViews() {
+            return false;
+        }
+    }
+
+    protected static Charset charsetFor(boolean containsNonAscii) {
+        // ISO-8859-1 decodes ASCII identically to UTF-8, but the JDK can do it as a straight copy.
+        return (containsNonAscii) ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+    }
+
+    /**
+     * A reusable {@link CharSequence} view over a region of a {@link SpanInput}. Only used for regions that need no
+     * unescaping or decoding.
+     */
+    protected static final class InputSlice implements CharSequence {
+        private final SpanInput input;
+        private int start;
+        private int end;
+
+        public InputSlice(SpanInput input) {
+            this.input = input;
+        }
+
+        protected InputSlice reset(int start, int end) {
+            this.start = start;
+            this.end = end;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length()) {
+                throw new IndexOutOfBoundsException("index=" + index + ", length=" + length());
+            }
+            return (char) input.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int subStart, int subEnd) {
+            if (subStart < 0 || subEnd > length() || subStart > subEnd) {
+                throw new IndexOutOfBoundsException(
+                    "start=" + subStart + ", end=" + subEnd + ", length=" + length()
+                );
+            }
+            return input.substring(start + subStart, start + subEnd, false);
+        }
+
+        @Override
+        public String toString() {
+            return input.substring(start, end, false);
+        }
+    }
+}
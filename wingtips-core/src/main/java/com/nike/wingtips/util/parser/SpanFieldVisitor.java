@@ -0,0 +1,58 @@
+package com.nike.wingtips.util.parser;
+
+import com.nike.wingtips.Span;
+
+/**
+ * Callback for the visitor-style parsing methods in {@link SpanDeserializer} (e.g. {@link
+ * SpanDeserializer#visitJson(CharSequence, SpanFieldVisitor)}). These let you pull just the fields you care about out
+ * of a serialized span (e.g. trace ID, span ID, and duration) without building a full {@link Span} object or
+ * allocating strings for the fields you don't need.
+ *
+ * <p>Every method does nothing and returns true by default, so you only need to override the ones you're interested
+ * in. Return false from any method to stop parsing immediately - the rest of the serialized span will not be looked
+ * at (or validated).
+ *
+ * <p><b>IMPORTANT:</b> The {@link CharSequence} values passed to these methods may be views over the input that are
+ * reused for the next callback. They are only valid for the duration of the method call - if you need to hold onto a
+ * value then call {@link CharSequence#toString()} on it. Values are already JSON-unescaped, and null span fields will
+ * show up as the literal text {@code null} (see {@link SpanDeserializer#isNullValue(CharSequence)}). {@link
+ * SpanDeserializer#parseLong(CharSequence)} can be used to parse numeric fields without creating a {@link String}.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public abstract class SpanFieldVisitor {
+
+    /**
+     * Called for each top-level span field, in the order they appear in the serialized span.
+     *
+     * @param fieldName The name of the field. For the standard span fields this will be the exact same instance as
+     * the matching {@link SpanParser} field-name constant (e.g. {@link SpanParser#TRACE_ID_FIELD}), so you can
+     * compare with {@code ==}.
+     * @param value The field's value.
+     * @return true to continue parsing, false to stop.
+     */
+    public boolean visitField(String fieldName, CharSequence value) {
+        return true;
+    }
+
+    /**
+     * Called for each {@link Span#getTags()} entry, in the order they appear in the serialized span.
+     *
+     * @param tagKey The tag key.
+     * @param tagValue The tag value.
+     * @return true to continue parsing, false to stop.
+     */
+    public boolean visitTag(String tagKey, CharSequence tagValue) {
+        return true;
+    }
+
+    /**
+     * Called for each {@link Span#getTimestampedAnnotations()} entry, in the order they appear in the serialized span.
+     *
+     * @param timestampEpochMicros The annotation's timestamp in epoch microseconds.
+     * @param annotationValue The annotation's value - this may be null if the serialized annotation had no value.
+     * @return true to continue parsing, false to stop.
+     */
+    public boolean visitAnnotation(long timestampEpochMicros, CharSequence annotationValue) {
+        return true;
+    }
+}
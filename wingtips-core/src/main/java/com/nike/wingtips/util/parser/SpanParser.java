@@ -109,71 +109,12 @@ public class SpanParser {
      *
      * <p>NOTE: You should call {@link Span#toJSON()} directly instead of this method, as that {@link Span#toJSON()}
      * instance method caches the result. This can have significant performance impact in some scenarios.
+     *
+     * <p>This delegates to {@link SpanSerializer#toJson(Span)}. If you want to write the JSON into your own buffer
+     * rather than getting a new {@link String}, use {@link SpanSerializer} directly.
      */
     public static String convertSpanToJSON(Span span) {
-        StringBuilder builder = new StringBuilder();
-
-        builder.append("{\"").append(TRACE_ID_FIELD).append("\":\"").append(escapeJson(span.getTraceId())).append('\"');
-        builder.append(",\"").append(PARENT_SPAN_ID_FIELD).append("\":\"").append(escapeJson(span.getParentSpanId())).append('\"');
-        builder.append(",\"").append(SPAN_ID_FIELD).append("\":\"").append(escapeJson(span.getSpanId())).append('\"');
-        builder.append(",\"").append(SPAN_NAME_FIELD).append("\":\"").append(escapeJson(span.getSpanName())).append('\"');
-        builder.append(",\"").append(SAMPLEABLE_FIELD).append("\":\"").append(span.isSampleable()).append('\"');
-        builder.append(",\"").append(USER_ID_FIELD).append("\":\"").append(escapeJson(span.getUserId())).append('\"');
-        builder.append(",\"").append(SPAN_PURPOSE_FIELD).append("\":\"").append(span.getSpanPurpose().name()).append('\"');
-        builder.append(",\"").append(START_TIME_EPOCH_MICROS_FIELD).append("\":\"").append(span.getSpanStartTimeEpochMicros()).append('\"');
-
-        if (span.isCompleted()) {
-            builder.append(",\"").append(DURATION_NANOS_FIELD).append("\":\"").append(span.getDurationNanos()).append('\"');
-        }
-
-        if(!span.getTags().isEmpty()) {
-            // Create nested json for the tags.
-            builder.append(",\"").append(TAGS_FIELD).append("\":{");
-
-            boolean first = true;
-            for (Map.Entry<String, String> tagEntry : span.getTags().entrySet()) {
-                if (!first) {
-                    builder.append(',');
-                }
-
-                String escapedKey = escapeJson(tagEntry.getKey());
-                String escapedValue = escapeJson(tagEntry.getValue());
-
-                builder.append('\"').append(escapedKey).append("\":\"").append(escapedValue).append('\"');
-
-                first = false;
-            }
-
-            builder.append("}");
-        }
-
-        if (!span.getTimestampedAnnotations().isEmpty()) {
-            // Create JSON array for the annotations.
-            builder.append(",\"").append(ANNOTATIONS_LIST_FIELD).append("\":[");
-
-            boolean first = true;
-            for (TimestampedAnnotation annotation : span.getTimestampedAnnotations()) {
-                if (!first) {
-                    builder.append(',');
-                }
-
-                String escapedValue = escapeJson(annotation.getValue());
-
-                builder.append("{\"").append(ANNOTATION_SUBOBJECT_TIMESTAMP_FIELD)
-                       .append("\":\"").append(annotation.getTimestampEpochMicros()).append('\"');
-
-                builder.append(",\"").append(ANNOTATION_SUBOBJECT_VALUE_FIELD)
-                       .append("\":\"").append(escapedValue).append("\"}");
-
-                first = false;
-            }
-
-            builder.append("]");
-        }
-
-        builder.append("}");
-
-        return builder.toString();
+        return SpanSerializer.toJson(span);
     }
 
     /**
@@ -185,24 +126,13 @@ public class SpanParser {
      * to accomplish deserialization efficiently without needing to pull in a third-party dependency like Jackson.
      * If you try to use this method on a JSON string that didn't come from {@link #convertSpanToJSON(Span)},
      * then it will likely fail.
+     *
+     * <p>This delegates to {@link SpanDeserializer#fromJson(CharSequence)}. If your JSON is in some other {@link
+     * CharSequence} or in UTF-8 bytes, or you only need a few fields rather than a full {@link Span}, use {@link
+     * SpanDeserializer} directly.
      */
     public static Span fromJSON(String json) {
-        try {
-            JsonDeserializationResult mainResult = deserializeJsonObject(json, 0);
-            Map<String, String> mainMap = mainResult.levelOneKeyValuePairs;
-
-            JsonDeserializationResult tagsResult = mainResult.subObjects.get(TAGS_FIELD);
-            Map<String, String> tagsMap = (tagsResult == null) ? null : tagsResult.levelOneKeyValuePairs;
-
-            List<TimestampedAnnotation> annotationsList = convertToTimestampedAnnotationsList(
-                mainResult.arrays.get(ANNOTATIONS_LIST_FIELD)
-            );
-
-            return fromKeyValueMap(mainMap, tagsMap, annotationsList);
-        } catch (Exception e) {
-            logger.error("Error extracting Span from JSON. Defaulting to null. bad_span_json={}", json, e);
-            return null;
-        }
+        return SpanDeserializer.fromJson(json);
     }
 
     protected static List<TimestampedAnnotation> convertToTimestampedAnnotationsList(
@@ -485,42 +415,12 @@ public class SpanParser {
      * <p>NOTE: You should call {@link Span#toKeyValueString()} directly instead of this method, as that {@link
      * Span#toKeyValueString()} instance method caches the result. This can have significant performance impact in some
      * scenarios.
+     *
+     * <p>This delegates to {@link SpanSerializer#toKeyValueString(Span)}. If you want to write the key/value string
+     * into your own buffer rather than getting a new {@link String}, use {@link SpanSerializer} directly.
      */
     public static String convertSpanToKeyValueFormat(Span span) {
-        StringBuilder builder = new StringBuilder();
-
-        builder.append(TRACE_ID_FIELD).append("=\"").append(escapeJson(span.getTraceId())).append('\"');
-        builder.append(",").append(PARENT_SPAN_ID_FIELD).append("=\"").append(escapeJson(span.getParentSpanId())).append('\"');
-        builder.append(",").append(SPAN_ID_FIELD).append("=\"").append(escapeJson(span.getSpanId())).append('\"');
-        builder.append(",").append(SPAN_NAME_FIELD).append("=\"").append(escapeJson(span.getSpanName())).append('\"');
-        builder.append(",").append(SAMPLEABLE_FIELD).append("=\"").append(span.isSampleable()).append('\"');
-        builder.append(",").append(USER_ID_FIELD).append("=\"").append(escapeJson(span.getUserId())).append('\"');
-        builder.append(",").append(SPAN_PURPOSE_FIELD).append("=\"").append(span.getSpanPurpose().name()).append('\"');
-        builder.append(",").append(START_TIME_EPOCH_MICROS_FIELD).append("=\"").append(span.getSpanStartTimeEpochMicros()).append('\"');
-
-        // Only output duration if the span is completed.
-        if (span.isCompleted()) {
-            builder.append(",").append(DURATION_NANOS_FIELD).append("=\"").append(span.getDurationNanos()).append('\"');
-        }
-
-        // Output tags if we have any.
-        for (Map.Entry<String, String> tagEntry : span.getTags().entrySet()) {
-            String sanitizedTagKey = escapeTagKeyForKeyValueFormatSerialization(tagEntry.getKey());
-
-            String escapedTagValue = escapeJson(tagEntry.getValue());
-            builder.append(",").append(KEY_VALUE_TAG_PREFIX).append(sanitizedTagKey)
-                   .append("=\"").append(escapedTagValue).append('\"');
-        }
-
-        // Output timestamped annotations if we have any.
-        for (TimestampedAnnotation annotation : span.getTimestampedAnnotations()) {
-            String escapedAnnotationValue = escapeJson(annotation.getValue());
-            builder.append(",").append(KEY_VALUE_TIMESTAMPED_ANNOTATION_PREFIX)
-                   .append(annotation.getTimestampEpochMicros())
-                   .append("=\"").append(escapedAnnotationValue).append('\"');
-        }
-
-        return builder.toString();
+        return SpanSerializer.toKeyValueString(span);
     }
 
     protected static String escapeTagKeyForKeyValueFormatSerialization(String key) {
@@ -568,129 +468,13 @@ public class SpanParser {
      * about syntactically-correct-but-annoying-to-deal-with whitespace, not have to use a third party utility, etc.
      * If you try to use this method on a string that didn't come from {@link #convertSpanToKeyValueFormat(Span)},
      * then it will likely fail.
+     *
+     * <p>This delegates to {@link SpanDeserializer#fromKeyValueString(CharSequence)}. If your key/value string is in
+     * some other {@link CharSequence} or in UTF-8 bytes, or you only need a few fields rather than a full {@link Span},
+     * use {@link SpanDeserializer} directly.
      */
     public static Span fromKeyValueString(String keyValueStr) {
-        try {
-            Map<String, String> spanFieldsMap = new LinkedHashMap<>();
-            Map<String, String> tagsMap = new LinkedHashMap<>();
-            List<TimestampedAnnotation> annotationsList = new ArrayList<>();
-
-            int i = 0;
-            int strLen = keyValueStr.length();
-            int extractKeyStartIndex = 0;
-            int extractKeyEndIndex = 0;
-            int extractValueStartIndex = 0;
-            int numPrecedingBackslashes = 0;
-            // The very first character should be the start of the first key, so we'll jump straight into
-            //      extracting the key.
-            ParsingState state = ParsingState.EXTRACTING_KEY;
-            while (i < strLen) {
-                char c = keyValueStr.charAt(i);
-                if (state == ParsingState.EXTRACTING_KEY) {
-                    // Keep going until we find an equals character.
-                    if (c == '=') {
-                        // We found the end of the key. Mark it.
-                        extractKeyEndIndex = i;
-
-                        // Switch state to looking for the value.
-                        state = ParsingState.EXPECT_VALUE_START_CHAR;
-                    }
-                }
-                else if (state == ParsingState.EXPECT_VALUE_START_CHAR) {
-                    // We expect this to be a quotes character.
-                    if (c == '\"') {
-                        // Found the quotes. The next character will be the first character of the value.
-                        extractValueStartIndex = i + 1;
-
-                        // Switch state to extracting value.
-                        state = ParsingState.EXTRACTING_VALUE;
-                    }
-                    else {
-                        throw new IllegalStateException(
-                            "Span parsing error: Expected but did not find quotes '\"' character for value-start at "
-                            + "index " + i
-                        );
-                    }
-                }
-                else if (state == ParsingState.EXTRACTING_VALUE) {
-                    if (isUnescapedQuotes(c, numPrecedingBackslashes)) {
-                        // We found the end of the value (a non-escaped quotes). Extract key and value, and put them in
-                        //      the appropriate map.
-                        String key = keyValueStr.substring(extractKeyStartIndex, extractKeyEndIndex);
-                        String value = keyValueStr.substring(extractValueStartIndex, i);
-                        value = unescapeJson(value);
-
-                        boolean isTag = key.startsWith(KEY_VALUE_TAG_PREFIX);
-                        boolean isAnnotation = false;
-                        if (isTag) {
-                            String keyNoTagPrefix = key.substring(KEY_VALUE_TAG_PREFIX.length());
-                            key = unescapeTagKeyForKeyValueFormatDeserialization(keyNoTagPrefix);
-                        }
-                        else {
-                            isAnnotation = key.startsWith(KEY_VALUE_TIMESTAMPED_ANNOTATION_PREFIX);
-                            if (isAnnotation) {
-                                key = key.substring(KEY_VALUE_TIMESTAMPED_ANNOTATION_PREFIX.length());
-                            }
-                        }
-
-                        if (isTag) {
-                            tagsMap.put(key, value);
-                        }
-                        else if (isAnnotation) {
-                            long timestamp = Long.parseLong(key);
-                            annotationsList.add(TimestampedAnnotation.forEpochMicros(timestamp, value));
-                        }
-                        else {
-                            spanFieldsMap.put(key, value);
-                        }
-
-                        // Switch state to looking for the next key.
-                        state = ParsingState.EXPECT_COMMA_BEFORE_NEW_KEY;
-                    }
-                }
-                else if (state == ParsingState.EXPECT_COMMA_BEFORE_NEW_KEY) {
-                    // We expect this to be a comma character.
-                    if (c == ',') {
-                        // Found the comma. The next character should be the first character of the key.
-                        extractKeyStartIndex = i + 1;
-
-                        // Switch state to extracting the key.
-                        state = ParsingState.EXTRACTING_KEY;
-                    }
-                    else {
-                        throw new IllegalStateException(
-                            "Span parsing error: Expected but did not find comma ',' character after value-end at "
-                            + "index " + i
-                        );
-                    }
-                }
-                else {
-                    // Should never happen.
-                    throw new IllegalStateException("Unhandled state: " + state);
-                }
-
-                if (c == '\\') {
-                    numPrecedingBackslashes++;
-                }
-                else {
-                    numPrecedingBackslashes = 0;
-                }
-                
-                i++;
-            }
-
-            if (state != ParsingState.EXPECT_COMMA_BEFORE_NEW_KEY) {
-                throw new IllegalStateException(
-                    "Span parsing error: key/value string did not end after finding a value. Instead ended in state: "
-                    + state.name()
-                );
-            }
-
-            return fromKeyValueMap(spanFieldsMap, tagsMap, annotationsList);
-        } catch (Exception e) {
-            logger.error("Error extracting Span from key/value string. Defaulting to null. bad_span_key_value_string={}", keyValueStr, e);
-            return null;
-        }
+        return SpanDeserializer.fromKeyValueString(keyValueStr);
     }
 
     protected static Span fromKeyValueMap(
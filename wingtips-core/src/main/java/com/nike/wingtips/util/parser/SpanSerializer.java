@@ -0,0 +1,491 @@
+package com.nike.wingtips.util.parser;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.TimestampedAnnotation;
+import com.nike.wingtips.util.CompactTagMap;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static com.nike.wingtips.util.parser.SpanParser.ANNOTATIONS_LIST_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.ANNOTATION_SUBOBJECT_TIMESTAMP_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.ANNOTATION_SUBOBJECT_VALUE_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.DURATION_NANOS_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.ESCAPED_COMMA_CHAR;
+import static com.nike.wingtips.util.parser.SpanParser.ESCAPED_EQUALS_SIGN;
+import static com.nike.wingtips.util.parser.SpanParser.ESCAPED_SPACE_CHAR;
+import static com.nike.wingtips.util.parser.SpanParser.JSON_ESCAPE_CHAR_MAPPINGS;
+import static com.nike.wingtips.util.parser.SpanParser.KEY_VALUE_TAG_PREFIX;
+import static com.nike.wingtips.util.parser.SpanParser.KEY_VALUE_TIMESTAMPED_ANNOTATION_PREFIX;
+import static com.nike.wingtips.util.parser.SpanParser.PARENT_SPAN_ID_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.SAMPLEABLE_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.SPAN_ID_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.SPAN_NAME_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.SPAN_PURPOSE_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.START_TIME_EPOCH_MICROS_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.TAGS_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.TRACE_ID_FIELD;
+import static com.nike.wingtips.util.parser.SpanParser.USER_ID_FIELD;
+
+/**
+ * Streaming serializer for the JSON and key/value {@link Span} representations described in {@link SpanParser}. The
+ * output is identical to {@link SpanParser#convertSpanToJSON(Span)} and {@link
+ * SpanParser#convertSpanToKeyValueFormat(Span)} (which delegate here), but rather than building a new {@link String}
+ * each time it writes directly into a caller-supplied {@link StringBuilder}, {@link Appendable}, or UTF-8 {@link
+ * ByteBuffer}. Values are JSON-escaped inline as they're written, with a fast path that appends the whole value at
+ * once when it contains nothing that needs escaping, so no intermediate strings are created along the way.
+ *
+ * <p>When a {@link String} is needed in the end (e.g. for logging), {@link #toJson(Span)} and {@link
+ * #toKeyValueString(Span)} build it in a reusable per-thread buffer so the only allocation is the final string.
+ */
+@SuppressWarnings("WeakerAccess")
+public class SpanSerializer {
+
+    /**
+     * The initial capacity of the per-thread reusable buffer - large enough for a typical span with a handful of tags.
+     */
+    protected static final int REUSABLE_BUFFER_INITIAL_CAPACITY = 1024;
+
+    /**
+     * Per-thread reusable buffers that have grown larger than this (i.e. after serializing a pathologically large
+     * span) are discarded rather than kept around, so a thread doesn't hold on to a huge buffer forever.
+     */
+    protected static final int REUSABLE_BUFFER_MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> reusableBuffer = new ThreadLocal<>();
+
+    // Intentionally protected - use the static methods.
+    protected SpanSerializer() { /* do nothing */ }
+
+    /**
+     * @return The JSON representation of the given span (see {@link SpanParser#convertSpanToJSON(Span)}), built using a
+     * reusable per-thread buffer.
+     */
+    public static String toJson(Span span) {
+        StringBuilder sb = acquireReusableBuffer();
+        try {
+            return appendJson(span, sb).toString();
+        }
+        finally {
+            releaseReusableBuffer(sb);
+        }
+    }
+
+    /**
+     * @return The key/value representation of the given span (see {@link SpanParser#convertSpanToKeyValueFormat(Span)}),
+     * built using a reusable per-thread buffer.
+     */
+    public static String toKeyValueString(Span span) {
+        StringBuilder sb = acquireReusableBuffer();
+        try {
+            return appendKeyValue(span, sb).toString();
+        }
+        finally {
+            releaseReusableBuffer(sb);
+        }
+    }
+
+    /**
+     * Writes the JSON representation of the given span (see {@link SpanParser#convertSpanToJSON(Span)}) to the given
+     * {@link Appendable}. If the {@link Appendable} is a {@link StringBuilder} then this is the same as {@link
+     * #appendJson(Span, StringBuilder)}, otherwise the span is serialized into a reusable per-thread buffer and then
+     * appended in a single call.
+     */
+    public static void writeJson(Span span, Appendable out) throws IOException {
+        if (out instanceof StringBuilder) {
+            appendJson(span, (StringBuilder) out);
+            return;
+        }
+
+        StringBuilder sb = acquireReusableBuffer();
+        try {
+            out.append(appendJson(span, sb));
+        }
+        finally {
+            releaseReusableBuffer(sb);
+        }
+    }
+
+    /**
+     * Writes the key/value representation of the given span (see {@link
+     * SpanParser#convertSpanToKeyValueFormat(Span)}) to the given {@link Appendable}. If the {@link Appendable} is a
+     * {@link StringBuilder} then this is the same as {@link #appendKeyValue(Span, StringBuilder)}, otherwise the span
+     * is serialized into a reusable per-thread buffer and then appended in a single call.
+     */
+    public static void writeKeyValue(Span span, Appendable out) throws IOException {
+        if (out instanceof StringBuilder) {
+            appendKeyValue(span, (StringBuilder) out);
+            return;
+        }
+
+        StringBuilder sb = acquireReusableBuffer();
+        try {
+            out.append(appendKeyValue(span, sb));
+        }
+        finally {
+            releaseReusableBuffer(sb);
+        }
+    }
+
+    /**
+     * Writes the UTF-8 encoded JSON representation of the given span (see {@link SpanParser#convertSpanToJSON(Span)})
+     * into the given {@link ByteBuffer}, starting at its current position. On success the buffer's position is
+     * advanced past the written bytes. If the buffer doesn't have enough room then a {@link BufferOverflowException}
+     * is thrown and nothing is written.
+     */
+    public static void writeJsonUtf8(Span span, ByteBuffer out) {
+        StringBuilder sb = acquireReusableBuffer();
+        try {
+            encodeUtf8(appendJson(span, sb), out);
+        }
+        finally {
+            releaseReusableBuffer(sb);
+        }
+    }
+
+    /**
+     * Writes the UTF-8 encoded key/value representation of the given span (see {@link
+     * SpanParser#convertSpanToKeyValueFormat(Span)}) into the given {@link ByteBuffer}, starting at its current
+     * position. On success the buffer's position is advanced past the written bytes. If the buffer doesn't have
+     * enough room then a {@link BufferOverflowException} is thrown and nothing is written.
+     */
+    public static void writeKeyValueUtf8(Span span, ByteBuffer out) {
+        StringBuilder sb = acquireReusableBuffer();
+        try {
+            encodeUtf8(appendKeyValue(span, sb), out);
+        }
+        finally {
+            releaseReusableBuffer(sb);
+        }
+    }
+
+    /**
+     * Appends the JSON representation of the given span (see {@link SpanParser#convertSpanToJSON(Span)}) to the given
+     * {@link StringBuilder}.
+     *
+     * @return The given {@link StringBuilder}, for chaining.
+     */
+    public static StringBuilder appendJson(Span span, StringBuilder sb) {
+        sb.append("{\"").append(TRACE_ID_FIELD).append("\":\"");
+        appendEscapedJson(span.getTraceId(), sb);
+        sb.append("\",\"").append(PARENT_SPAN_ID_FIELD).append("\":\"");
+        appendEscapedJson(span.getParentSpanId(), sb);
+        sb.append("\",\"").append(SPAN_ID_FIELD).append("\":\"");
+        appendEscapedJson(span.getSpanId(), sb);
+        sb.append("\",\"").append(SPAN_NAME_FIELD).append("\":\"");
+        appendEscapedJson(span.getSpanName(), sb);
+        sb.append("\",\"").append(SAMPLEABLE_FIELD).append("\":\"").append(span.isSampleable());
+        sb.append("\",\"").append(USER_ID_FIELD).append("\":\"");
+        appendEscapedJson(span.getUserId(), sb);
+        sb.append("\",\"").append(SPAN_PURPOSE_FIELD).append("\":\"").append(span.getSpanPurpose().name());
+        sb.append("\",\"").append(START_TIME_EPOCH_MICROS_FIELD).append("\":\"")
+          .append(span.getSpanStartTimeEpochMicros()).append('\"');
+
+        Long durationNanos = span.getDurationNanos();
+        if (durationNanos != null) {
+            sb.append(",\"").append(DURATION_NANOS_FIELD).append("\":\"").append(durationNanos.longValue()).append('\"');
+        }
+
+        Map<String, String> tags = span.getTags();
+        if (!tags.isEmpty()) {
+            // Create nested json for the tags.
+            sb.append(",\"").append(TAGS_FIELD).append("\":{");
+
+            if (tags instanceof CompactTagMap.UnmodifiableView) {
+                // Walk the tags by index so we don't allocate an iterator and entry objects for every span.
+                CompactTagMap.UnmodifiableView compactTags = (CompactTagMap.UnmodifiableView) tags;
+                for (int i = 0; i < compactTags.size(); i++) {
+                    if (i > 0) {
+                        sb.append(',');
+                    }
+                    appendJsonTag(compactTags.keyAt(i), compactTags.valueAt(i), sb);
+                }
+            }
+            else {
+                boolean first = true;
+                for (Map.Entry<String, String> tagEntry : tags.entrySet()) {
+                    if (!first) {
+                        sb.append(',');
+                    }
+                    appendJsonTag(tagEntry.getKey(), tagEntry.getValue(), sb);
+                    first = false;
+                }
+            }
+
+            sb.append('}');
+        }
+
+        if (!span.getTimestampedAnnotations().isEmpty()) {
+            // Create JSON array for the annotations.
+            sb.append(",\"").append(ANNOTATIONS_LIST_FIELD).append("\":[");
+
+            boolean first = true;
+            for (TimestampedAnnotation annotation : span.getTimestampedAnnotations()) {
+                if (!first) {
+                    sb.append(',');
+                }
+
+                sb.append("{\"").append(ANNOTATION_SUBOBJECT_TIMESTAMP_FIELD)
+                  .append("\":\"").append(annotation.getTimestampEpochMicros());
+                sb.append("\",\"").append(ANNOTATION_SUBOBJECT_VALUE_FIELD).append("\":\"");
+                appendEscapedJson(annotation.getValue(), sb);
+                sb.append("\"}");
+
+                first = false;
+            }
+
+            sb.append(']');
+        }
+
+        sb.append('}');
+
+        return sb;
+    }
+
+    /**
+     * Appends the key/value representation of the given span (see {@link
+     * SpanParser#convertSpanToKeyValueFormat(Span)}) to the given {@link StringBuilder}.
+     *
+     * @return The given {@link StringBuilder}, for chaining.
+     */
+    public static StringBuilder appendKeyValue(Span span, StringBuilder sb) {
+        sb.append(TRACE_ID_FIELD).append("=\"");
+        appendEscapedJson(span.getTraceId(), sb);
+        sb.append("\",").append(PARENT_SPAN_ID_FIELD).append("=\"");
+        appendEscapedJson(span.getParentSpanId(), sb);
+        sb.append("\",").append(SPAN_ID_FIELD).append("=\"");
+        appendEscapedJson(span.getSpanId(), sb);
+        sb.append("\",").append(SPAN_NAME_FIELD).append("=\"");
+        appendEscapedJson(span.getSpanName(), sb);
+        sb.append("\",").append(SAMPLEABLE_FIELD).append("=\"").append(span.isSampleable());
+        sb.append("\",").append(USER_ID_FIELD).append("=\"");
+        appendEscapedJson(span.getUserId(), sb);
+        sb.append("\",").append(SPAN_PURPOSE_FIELD).append("=\"").append(span.getSpanPurpose().name());
+        sb.append("\",").append(START_TIME_EPOCH_MICROS_FIELD).append("=\"")
+          .append(span.getSpanStartTimeEpochMicros()).append('\"');
+
+        // Only output duration if the span is completed.
+        Long durationNanos = span.getDurationNanos();
+        if (durationNanos != null) {
+            sb.append(',').append(DURATION_NANOS_FIELD).append("=\"").append(durationNanos.longValue()).append('\"');
+        }
+
+        // Output tags if we have any.
+        Map<String, String> tags = span.getTags();
+        if (tags instanceof CompactTagMap.UnmodifiableView) {
+            // Walk the tags by index so we don't allocate an iterator and entry objects for every span.
+            CompactTagMap.UnmodifiableView compactTags = (CompactTagMap.UnmodifiableView) tags;
+            for (int i = 0; i < compactTags.size(); i++) {
+                appendKeyValueTag(compactTags.keyAt(i), compactTags.valueAt(i), sb);
+            }
+        }
+        else {
+            for (Map.Entry<String, String> tagEntry : tags.entrySet()) {
+                appendKeyValueTag(tagEntry.getKey(), tagEntry.getValue(), sb);
+            }
+        }
+
+        // Output timestamped annotations if we have any.
+        for (TimestampedAnnotation annotation : span.getTimestampedAnnotations()) {
+            sb.append(',').append(KEY_VALUE_TIMESTAMPED_ANNOTATION_PREFIX)
+              .append(annotation.getTimestampEpochMicros())
+              .append("=\"");
+            appendEscapedJson(annotation.getValue(), sb);
+            sb.append('\"');
+        }
+
+        return sb;
+    }
+
+    protected static void appendJsonTag(String key, String value, StringBuilder sb) {
+        sb.append('\"');
+        appendEscapedJson(key, sb);
+        sb.append("\":\"");
+        appendEscapedJson(value, sb);
+        sb.append('\"');
+    }
+
+    protected static void appendKeyValueTag(String key, String value, StringBuilder sb) {
+        sb.append(',').append(KEY_VALUE_TAG_PREFIX);
+        appendEscapedTagKeyForKeyValueFormat(key, sb);
+        sb.append("=\"");
+        appendEscapedJson(value, sb);
+        sb.append('\"');
+    }
+
+    /**
+     * Appends the given value to the given {@link StringBuilder}, escaped the same way as {@link
+     * SpanParser#escapeJson(String)} would escape it, but without creating an intermediate escaped {@link String}.
+     * A null value is appended as {@code null} (the same as {@link StringBuilder#append(String)}).
+     *
+     * @return The given {@link StringBuilder}, for chaining.
+     */
+    public static StringBuilder appendEscapedJson(String value, StringBuilder sb) {
+        if (value == null) {
+            return sb.append((String) null);
+        }
+
+        int len = value.length();
+        int runStart = 0;
+        for (int i = 0; i < len; i++) {
+            char c = value.charAt(i);
+            if (SpanParser.needsJsonEscaping(c)) {
+                sb.append(value, runStart, i).append(JSON_ESCAPE_CHAR_MAPPINGS[c]);
+                runStart = i + 1;
+            }
+        }
+
+        if (runStart == 0) {
+            // Fast path - nothing needed escaping.
+            return sb.append(value);
+        }
+
+        return sb.append(value, runStart, len);
+    }
+
+    /**
+     * Appends the given tag key to the given {@link StringBuilder}, escaped the same way as {@link
+     * SpanParser#escapeTagKeyForKeyValueFormatSerialization(String)} would escape it, but without creating any
+     * intermediate strings.
+     */
+    protected static void appendEscapedTagKeyForKeyValueFormat(String key, StringBuilder sb) {
+        if (key == null) {
+            sb.append((String) null);
+            return;
+        }
+
+        int len = key.length();
+        int runStart = 0;
+        for (int i = 0; i < len; i++) {
+            char c = key.charAt(i);
+            String escaped;
+            if (SpanParser.needsJsonEscaping(c)) {
+                escaped = JSON_ESCAPE_CHAR_MAPPINGS[c];
+            }
+            else if (c == '=') {
+                escaped = ESCAPED_EQUALS_SIGN;
+            }
+            else if (c == ' ') {
+                escaped = ESCAPED_SPACE_CHAR;
+            }
+            else if (c == ',') {
+                escaped = ESCAPED_COMMA_CHAR;
+            }
+            else {
+                continue;
+            }
+
+            sb.append(key, runStart, i).append(escaped);
+            runStart = i + 1;
+        }
+
+        sb.append(key, runStart, len);
+    }
+
+    /**
+     * UTF-8 encodes the given chars into the given buffer. Unpaired surrogates are encoded as {@code '?'}, the same as
+     * {@link String#getBytes(java.nio.charset.Charset)}. Throws {@link BufferOverflowException} without writing
+     * anything if the buffer doesn't have enough room.
+     */
+    protected static void encodeUtf8(CharSequence chars, ByteBuffer out) {
+        int len = chars.length();
+        if (utf8Length(chars) > out.remaining()) {
+            throw new BufferOverflowException();
+        }
+
+        for (int i = 0; i < len; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            }
+            else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+            else if (Character.isSurrogate(c)) {
+                char next;
+                if (Character.isHighSurrogate(c)
+                    && i + 1 < len
+                    && Character.isLowSurrogate(next = chars.charAt(i + 1))
+                ) {
+                    int codePoint = Character.toCodePoint(c, next);
+                    out.put((byte) (0xF0 | (codePoint >> 18)));
+                    out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    out.put((byte) (0x80 | (codePoint & 0x3F)));
+                    i++;
+                }
+                else {
+                    out.put((byte) '?');
+                }
+            }
+            else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * @return The number of bytes {@link #encodeUtf8(CharSequence, ByteBuffer)} will write for the given chars.
+     */
+    protected static int utf8Length(CharSequence chars) {
+        int len = chars.length();
+        int result = 0;
+        for (int i = 0; i < len; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                result++;
+            }
+            else if (c < 0x800) {
+                result += 2;
+            }
+            else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                    result += 4;
+                    i++;
+                }
+                else {
+                    result++;
+                }
+            }
+            else {
+                result += 3;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return The current thread's reusable buffer, emptied and ready for use. If the buffer is already in use further
+     * up the call stack (e.g. an {@link Appendable} that itself serializes spans) then a new buffer is returned
+     * instead. Always pass the result to {@link #releaseReusableBuffer(StringBuilder)} when done.
+     */
+    protected static StringBuilder acquireReusableBuffer() {
+        StringBuilder sb = reusableBuffer.get();
+        if (sb == null) {
+            return new StringBuilder(REUSABLE_BUFFER_INITIAL_CAPACITY);
+        }
+
+        // Mark it as in use.
+        reusableBuffer.set(null);
+        return sb;
+    }
+
+    /**
+     * Makes the given buffer available for reuse by the current thread, unless it has grown larger than {@link
+     * #REUSABLE_BUFFER_MAX_RETAINED_CAPACITY}.
+     */
+    protected static void releaseReusableBuffer(StringBuilder sb) {
+        if (sb.capacity() > REUSABLE_BUFFER_MAX_RETAINED_CAPACITY) {
+            return;
+        }
+
+        sb.setLength(0);
+        reusableBuffer.set(sb);
+    }
+}
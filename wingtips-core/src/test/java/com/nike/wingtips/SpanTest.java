@@ -14,6 +14,7 @@ import com.tngtech.java.junit.dataprovider.DataProvider;
 import com.tngtech.java.junit.dataprovider.DataProviderRunner;
 
 import org.apache.commons.lang.SerializationUtils;
+import org.assertj.core.data.MapEntry;
 import org.assertj.core.data.Offset;
 import org.junit.After;
 import org.junit.Before;
@@ -91,6 +92,7 @@ public class SpanTest {
     private void resetTracing() {
         MDC.clear();
         Tracer.getInstance().unregisterFromThread();
+        Tracer.getInstance().setSpanRecyclingEnabled(false);
     }
 
     private Span createFilledOutSpan(boolean completed) {
@@ -907,6 +909,143 @@ public class SpanTest {
         assertThat(span.getSpanStartTimeEpochMicros()).isBetween(beforeEpochMicros, afterEpochMicros);
     }
 
+    @Test
+    public void builder_build_generates_numeric_ids_that_are_rendered_lazily() {
+        // when
+        Span span = Span.newBuilder("stuff", SpanPurpose.LOCAL_ONLY).build();
+
+        // then
+        assertThat(span.hasNumericTraceId()).isTrue();
+        assertThat(span.hasNumericSpanId()).isTrue();
+        assertThat(span.hasNumericParentSpanId()).isFalse();
+        assertThat(Whitebox.getInternalState(span, "traceId")).isNull();
+        assertThat(Whitebox.getInternalState(span, "spanId")).isNull();
+
+        String traceIdStr = span.getTraceId();
+        assertThat(traceIdStr)
+            .isEqualTo(TraceAndSpanIdGenerator.longToUnsignedLowerHexString(span.getTraceIdLow()))
+            .isSameAs(span.getTraceId());
+        assertThat(span.getTraceIdHigh()).isEqualTo(0L);
+        assertThat(span.getSpanId())
+            .isEqualTo(TraceAndSpanIdGenerator.longToUnsignedLowerHexString(span.getSpanIdAsLong()))
+            .isSameAs(span.getSpanId());
+        assertThat(span.getParentSpanId()).isNull();
+    }
+
+    @Test
+    public void builder_numeric_id_setters_work_as_expected() {
+        // given
+        long traceIdHigh = 0x463ac35c9f6413adL;
+        long traceIdLow = 0x48485a3953bb6124L;
+        long spanIdAsLong = -1L;
+        long parentSpanIdAsLong = 42L;
+
+        // when
+        Span span = Span
+            .newBuilder("stuff", SpanPurpose.LOCAL_ONLY)
+            .withTraceId(traceIdHigh, traceIdLow)
+            .withSpanId(spanIdAsLong)
+            .withParentSpanId(parentSpanIdAsLong)
+            .build();
+
+        // then
+        assertThat(span.getTraceIdHigh()).isEqualTo(traceIdHigh);
+        assertThat(span.getTraceIdLow()).isEqualTo(traceIdLow);
+        assertThat(span.getSpanIdAsLong()).isEqualTo(spanIdAsLong);
+        assertThat(span.getParentSpanIdAsLong()).isEqualTo(parentSpanIdAsLong);
+        assertThat(span.getTraceId()).isEqualTo("463ac35c9f6413ad48485a3953bb6124");
+        assertThat(span.getSpanId()).isEqualTo("ffffffffffffffff");
+        assertThat(span.getParentSpanId()).isEqualTo("000000000000002a");
+    }
+
+    @Test
+    public void builder_string_id_setters_replace_previously_set_numeric_ids_and_vice_versa() {
+        // when
+        Span stringIdSpan = Span
+            .newBuilder("stuff", SpanPurpose.LOCAL_ONLY)
+            .withTraceId(42L)
+            .withSpanId(42L)
+            .withParentSpanId(42L)
+            .withTraceId(traceId)
+            .withSpanId(spanId)
+            .withParentSpanId(parentSpanId)
+            .build();
+        Span numericIdSpan = Span
+            .newBuilder(stringIdSpan)
+            .withTraceId(1L)
+            .withSpanId(2L)
+            .withParentSpanId(3L)
+            .build();
+
+        // then
+        assertThat(stringIdSpan.hasNumericTraceId()).isFalse();
+        assertThat(stringIdSpan.hasNumericSpanId()).isFalse();
+        assertThat(stringIdSpan.hasNumericParentSpanId()).isFalse();
+        assertThat(stringIdSpan.getTraceId()).isEqualTo(traceId);
+        assertThat(stringIdSpan.getSpanId()).isEqualTo(spanId);
+        assertThat(stringIdSpan.getParentSpanId()).isEqualTo(parentSpanId);
+
+        assertThat(numericIdSpan.getTraceId()).isEqualTo("0000000000000001");
+        assertThat(numericIdSpan.getSpanId()).isEqualTo("0000000000000002");
+        assertThat(numericIdSpan.getParentSpanId()).isEqualTo("0000000000000003");
+    }
+
+    @Test
+    public void numeric_id_getters_throw_IllegalStateException_if_ids_are_not_numeric() {
+        // given
+        Span span = new Span(
+            traceId, null, spanId, spanName, true, userId, spanPurpose, 42, null, null, null, null
+        );
+
+        // expect
+        assertThat(catchThrowable(span::getTraceIdHigh)).isInstanceOf(IllegalStateException.class);
+        assertThat(catchThrowable(span::getTraceIdLow)).isInstanceOf(IllegalStateException.class);
+        assertThat(catchThrowable(span::getSpanIdAsLong)).isInstanceOf(IllegalStateException.class);
+        assertThat(catchThrowable(span::getParentSpanIdAsLong)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void generateChildSpan_carries_numeric_parent_ids_over_to_child() {
+        // given
+        Span parent = Span.newBuilder("parent", SpanPurpose.SERVER).withTraceId(7L, 8L).build();
+
+        // when
+        Span child = parent.generateChildSpan("child", SpanPurpose.LOCAL_ONLY);
+
+        // then
+        assertThat(child.hasNumericTraceId()).isTrue();
+        assertThat(child.getTraceIdHigh()).isEqualTo(7L);
+        assertThat(child.getTraceIdLow()).isEqualTo(8L);
+        assertThat(child.getParentSpanIdAsLong()).isEqualTo(parent.getSpanIdAsLong());
+        assertThat(child.hasNumericSpanId()).isTrue();
+        assertThat(child.getSpanIdAsLong()).isNotEqualTo(parent.getSpanIdAsLong());
+        assertThat(child.getTraceId()).isEqualTo(parent.getTraceId());
+        assertThat(child.getParentSpanId()).isEqualTo(parent.getSpanId());
+    }
+
+    @Test
+    public void equals_returns_true_and_hashCode_same_for_numeric_and_string_forms_of_the_same_ids() {
+        // given
+        Span numericSpan = Span
+            .newBuilder(spanName, spanPurpose)
+            .withTraceId(42L)
+            .withSpanId(43L)
+            .withParentSpanId(44L)
+            .withSpanStartTimeEpochMicros(4242L)
+            .withSpanStartTimeNanos(4343L)
+            .build();
+        Span stringSpan = Span
+            .newBuilder(numericSpan)
+            .withTraceId(numericSpan.getTraceId())
+            .withSpanId(numericSpan.getSpanId())
+            .withParentSpanId(numericSpan.getParentSpanId())
+            .build();
+
+        // expect
+        assertThat(numericSpan.equals(stringSpan)).isTrue();
+        assertThat(numericSpan.hashCode()).isEqualTo(stringSpan.hashCode());
+    }
+
     @Test
     public void close_completes_the_span_as_expected_overall_request_span() {
         // given
@@ -1395,6 +1534,154 @@ public class SpanTest {
         assertThat(ex3).isInstanceOf(UnsupportedOperationException.class);
     }
 
+    @Test
+    public void tags_and_annotations_are_not_allocated_until_they_are_needed() {
+        // given
+        Span span = Span.newBuilder("foo", SpanPurpose.CLIENT).build();
+
+        // expect
+        assertThat(Whitebox.getInternalState(span, "tags")).isNull();
+        assertThat(Whitebox.getInternalState(span, "annotations")).isNull();
+        assertThat(span.getTags()).isEmpty();
+        assertThat(span.getTimestampedAnnotations()).isEmpty();
+        assertThat(span).isEqualTo(Span.newBuilder(span).withTags(Collections.emptyMap()).build());
+        assertThat(span.hashCode())
+            .isEqualTo(Span.newBuilder(span).withTags(Collections.emptyMap()).build().hashCode());
+
+        // and when
+        span.removeTag("doesNotExist");
+        span.putTag("fooTag", "bar");
+        span.addTimestampedAnnotationForCurrentTime("someAnnotation");
+
+        // then
+        assertThat(span.getTags()).containsOnly(MapEntry.entry("fooTag", "bar"));
+        assertThat(span.getTimestampedAnnotations()).hasSize(1);
+        assertThat(Span.newBuilder(span).build()).isEqualTo(span);
+    }
+
+    @DataProvider(value = {
+        "true   |   false   |   true",
+        "true   |   true    |   false",
+        "false  |   false   |   false",
+        "false  |   true    |   false"
+    }, splitBy = "\\|")
+    @Test
+    public void propagationOnly_is_only_honored_for_unsampled_spans(
+        boolean propagationOnly, boolean sampleable, boolean expectedResult
+    ) {
+        // when
+        Span span = Span.newBuilder("foo", SpanPurpose.CLIENT)
+                        .withSampleable(sampleable)
+                        .withPropagationOnly(propagationOnly)
+                        .build();
+
+        // then
+        assertThat(span.isPropagationOnly()).isEqualTo(expectedResult);
+        assertThat(Span.newBuilder(span).build().isPropagationOnly()).isEqualTo(expectedResult);
+        assertThat(span.generateChildSpan("child", SpanPurpose.LOCAL_ONLY).isPropagationOnly())
+            .isEqualTo(expectedResult);
+    }
+
+    @Test
+    public void propagation_only_span_ignores_tags_and_annotations() {
+        // given
+        Span span = Span.newBuilder("foo", SpanPurpose.CLIENT)
+                        .withSampleable(false)
+                        .withPropagationOnly(true)
+                        .build();
+        String cachedJson = span.toJSON();
+
+        // when
+        span.putTag("fooTag", "bar");
+        span.addTimestampedAnnotationForCurrentTime("someAnnotation");
+        span.addTimestampedAnnotation(TimestampedAnnotation.forCurrentTime("otherAnnotation"));
+
+        // then
+        assertThat(span.getTags()).isEmpty();
+        assertThat(span.getTimestampedAnnotations()).isEmpty();
+        assertThat(Whitebox.getInternalState(span, "tags")).isNull();
+        assertThat(Whitebox.getInternalState(span, "annotations")).isNull();
+        assertThat(span.toJSON()).isSameAs(cachedJson);
+    }
+
+    @Test
+    public void recycleTagsAndAnnotations_only_succeeds_once_for_a_completed_span() {
+        // given
+        Span span = Span.newBuilder("foo", SpanPurpose.LOCAL_ONLY).build();
+
+        // expect
+        assertThat(span.recycleTagsAndAnnotations()).isFalse();
+        assertThat(span.complete()).isTrue();
+        assertThat(span.recycleTagsAndAnnotations()).isTrue();
+        assertThat(span.recycleTagsAndAnnotations()).isFalse();
+        assertThat(span.complete()).isFalse();
+        assertThat(span.isCompleted()).isTrue();
+    }
+
+    @Test
+    public void recycleTagsAndAnnotations_detaches_containers_and_hands_them_to_a_new_span() {
+        // given
+        Tracer.getInstance().setSpanRecyclingEnabled(true);
+        Span oldSpan = Span.newBuilder("old", SpanPurpose.SERVER)
+                           .withTag("oldTag", "oldValue")
+                           .build();
+        oldSpan.addTimestampedAnnotationForCurrentTime("oldAnnotation");
+        Object oldTagsMap = Whitebox.getInternalState(oldSpan, "tags");
+        Object oldAnnotationsList = Whitebox.getInternalState(oldSpan, "annotations");
+        String oldJson = oldSpan.toJSON();
+        oldSpan.complete();
+        oldJson = oldSpan.toJSON();
+
+        // when
+        boolean result = oldSpan.recycleTagsAndAnnotations();
+
+        // then
+        assertThat(result).isTrue();
+        assertThat(oldSpan.getTags()).isEmpty();
+        assertThat(oldSpan.getTimestampedAnnotations()).isEmpty();
+        assertThat(oldSpan.getSpanName()).isEqualTo("old");
+        assertThat(oldSpan.isCompleted()).isTrue();
+        assertThat(oldSpan.toJSON()).isSameAs(oldJson);
+        assertThat(SpanRecycler.pooledTagsCountForCurrentThread()).isEqualTo(1);
+        assertThat(SpanRecycler.pooledAnnotationsCountForCurrentThread()).isEqualTo(1);
+
+        // and when
+        Span newSpan = Span.newBuilder("new", SpanPurpose.CLIENT)
+                           .withTag("newTag", "newValue")
+                           .build();
+        newSpan.addTimestampedAnnotationForCurrentTime("newAnnotation");
+
+        // then
+        assertThat(newSpan).isNotSameAs(oldSpan);
+        assertThat(Whitebox.getInternalState(newSpan, "tags")).isSameAs(oldTagsMap);
+        assertThat(Whitebox.getInternalState(newSpan, "annotations")).isSameAs(oldAnnotationsList);
+        assertThat(newSpan.getTags()).containsOnly(MapEntry.entry("newTag", "newValue"));
+        assertThat(newSpan.getTimestampedAnnotations()).hasSize(1);
+        assertThat(newSpan.getTimestampedAnnotations().get(0).getValue()).isEqualTo("newAnnotation");
+        assertThat(oldSpan.getTags()).isEmpty();
+        assertThat(SpanRecycler.pooledTagsCountForCurrentThread()).isZero();
+        assertThat(SpanRecycler.pooledAnnotationsCountForCurrentThread()).isZero();
+    }
+
+    @Test
+    public void tags_and_annotations_added_after_recycling_are_ignored() {
+        // given
+        Tracer.getInstance().setSpanRecyclingEnabled(true);
+        Span span = Span.newBuilder("foo", SpanPurpose.LOCAL_ONLY).withTag("foo", "bar").build();
+        span.complete();
+        span.recycleTagsAndAnnotations();
+
+        // when
+        span.putTag("late", "tag");
+        span.addTimestampedAnnotationForCurrentTime("lateAnnotation");
+        span.removeTag("foo");
+
+        // then
+        assertThat(span.getTags()).isEmpty();
+        assertThat(span.getTimestampedAnnotations()).isEmpty();
+        assertThat(SpanRecycler.pooledTagsCountForCurrentThread()).isEqualTo(1);
+    }
+
     private void setCachedSerializedSpanStrings(Span span, String cachedJson, String cachedKeyValueStr) {
         Whitebox.setInternalState(span, "cachedJsonRepresentation", cachedJson);
         Whitebox.setInternalState(span, "cachedKeyValueRepresentation", cachedKeyValueStr);
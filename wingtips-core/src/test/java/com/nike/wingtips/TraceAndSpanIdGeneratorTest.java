@@ -1,9 +1,13 @@
 package com.nike.wingtips;
 
+import com.nike.wingtips.idgeneration.IdGenerationStrategy;
+import com.nike.wingtips.idgeneration.SecureRandomIdGenerationStrategy;
+import com.nike.wingtips.idgeneration.ThreadLocalRandomIdGenerationStrategy;
 import com.tngtech.java.junit.dataprovider.DataProvider;
 import com.tngtech.java.junit.dataprovider.DataProviderRunner;
 
 import org.assertj.core.api.ThrowableAssert;
+import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -30,6 +34,11 @@ import static org.assertj.core.api.Assertions.fail;
 @RunWith(DataProviderRunner.class)
 public class TraceAndSpanIdGeneratorTest {
 
+    @After
+    public void afterMethod() {
+        TraceAndSpanIdGenerator.setIdGenerationStrategy(ThreadLocalRandomIdGenerationStrategy.getDefaultInstance());
+    }
+
     @Test
     public void constructor_is_private() throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
         Constructor<TraceAndSpanIdGenerator> defaultConstructor = TraceAndSpanIdGenerator.class.getDeclaredConstructor();
@@ -203,6 +212,67 @@ public class TraceAndSpanIdGeneratorTest {
         assertThat(randomLongs.size()).isEqualTo(numAttempts);
     }
 
+    @Test
+    public void id_generation_strategy_defaults_to_ThreadLocalRandomIdGenerationStrategy() {
+        // expect
+        assertThat(TraceAndSpanIdGenerator.getIdGenerationStrategy())
+            .isSameAs(ThreadLocalRandomIdGenerationStrategy.getDefaultInstance());
+    }
+
+    @Test
+    public void generateId_and_generate64BitRandomLong_use_the_configured_IdGenerationStrategy() {
+        // given
+        final long fixedLong = 4160251624339L;
+        IdGenerationStrategy fixedStrategy = new IdGenerationStrategy() {
+            @Override
+            public long generate64BitRandomLong() {
+                return fixedLong;
+            }
+        };
+        TraceAndSpanIdGenerator.setIdGenerationStrategy(fixedStrategy);
+
+        // when
+        long randomLong = TraceAndSpanIdGenerator.generate64BitRandomLong();
+        String id = TraceAndSpanIdGenerator.generateId();
+
+        // then
+        assertThat(TraceAndSpanIdGenerator.getIdGenerationStrategy()).isSameAs(fixedStrategy);
+        assertThat(randomLong).isEqualTo(fixedLong);
+        assertThat(id).isEqualTo("000003c8a251fb93");
+    }
+
+    @Test
+    public void generate64BitRandomLong_should_not_generate_duplicate_ids_when_using_SecureRandomIdGenerationStrategy() {
+        // given
+        TraceAndSpanIdGenerator.setIdGenerationStrategy(new SecureRandomIdGenerationStrategy());
+        Set<Long> randomLongs = new HashSet<>();
+        int numAttempts = 100000;
+
+        // when
+        for (int i = 0; i < numAttempts; i++) {
+            randomLongs.add(TraceAndSpanIdGenerator.generate64BitRandomLong());
+        }
+
+        // then
+        assertThat(randomLongs.size()).isEqualTo(numAttempts);
+    }
+
+    @Test
+    public void setIdGenerationStrategy_throws_IllegalArgumentException_if_passed_null() {
+        // when
+        Throwable ex = catchThrowable(new ThrowableAssert.ThrowingCallable() {
+            @Override
+            public void call() {
+                TraceAndSpanIdGenerator.setIdGenerationStrategy(null);
+            }
+        });
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+        assertThat(TraceAndSpanIdGenerator.getIdGenerationStrategy())
+            .isSameAs(ThreadLocalRandomIdGenerationStrategy.getDefaultInstance());
+    }
+
     @DataProvider(value = {
         "0000000000000000   |   0",
         "0000000000000001   |   1",
@@ -229,6 +299,28 @@ public class TraceAndSpanIdGeneratorTest {
         assertThat(calculatedPrimitiveValue).isEqualTo(actualSignedPrimitive);
     }
 
+    @DataProvider(value = {
+        "463ac35c9f6413ad48485a3953bb6124   |   463ac35c9f6413ad   |   48485a3953bb6124",
+        "0000000000000000000003c8a251fb93   |   0000000000000000   |   000003c8a251fb93",
+        "ffffffffffffffff0000000000000001   |   ffffffffffffffff   |   0000000000000001",
+    }, splitBy = "\\|")
+    @Test
+    public void longsToUnsignedLowerHexString_works_as_expected_for_known_values(
+        String expected128BitHex, String highHex, String lowHex
+    ) {
+        // given
+        long high = TraceAndSpanIdGenerator.unsignedLowerHexStringToLong(highHex);
+        long low = TraceAndSpanIdGenerator.unsignedLowerHexStringToLong(lowHex);
+
+        // when
+        String result = TraceAndSpanIdGenerator.longsToUnsignedLowerHexString(high, low);
+
+        // then
+        assertThat(result).isEqualTo(expected128BitHex);
+        assertThat(TraceAndSpanIdGenerator.unsignedLowerHexStringToLong(result, 0)).isEqualTo(high);
+        assertThat(TraceAndSpanIdGenerator.unsignedLowerHexStringToLong(result, 16)).isEqualTo(low);
+    }
+
     @DataProvider(value = {
         "                                      ", // less than 16 chars
         "123e4567-e89b-12d3-a456-426655440000  ", // UUID format (hyphens and also >32 chars)
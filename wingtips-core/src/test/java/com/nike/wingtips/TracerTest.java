@@ -1,11 +1,20 @@
 package com.nike.wingtips;
 
 import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.Tracer.LoggerMdcSyncMode;
 import com.nike.wingtips.Tracer.SpanFieldForLoggerMdc;
+import com.nike.wingtips.contextstorage.ThreadLocalTracingContextStorage;
+import com.nike.wingtips.contextstorage.TracingContextSlot;
+import com.nike.wingtips.contextstorage.TracingContextStorage;
 import com.nike.wingtips.lifecyclelistener.SpanLifecycleListener;
+import com.nike.wingtips.metrics.SpanMetricsListener;
+import com.nike.wingtips.sampling.RequestAwareRootSpanSamplingStrategy;
 import com.nike.wingtips.sampling.RootSpanSamplingStrategy;
 import com.nike.wingtips.sampling.SampleAllTheThingsStrategy;
+import com.nike.wingtips.sampling.TraceIdAwareRootSpanSamplingStrategy;
+import com.nike.wingtips.tags.HttpTagAndSpanNamingAdapter;
 import com.nike.wingtips.testutil.Whitebox;
+import com.nike.wingtips.util.SpanStack;
 import com.nike.wingtips.util.TracerManagedSpanStatus;
 import com.nike.wingtips.util.TracingState;
 import com.nike.wingtips.util.parser.SpanParser;
@@ -14,6 +23,7 @@ import com.tngtech.java.junit.dataprovider.DataProvider;
 import com.tngtech.java.junit.dataprovider.DataProviderRunner;
 import com.tngtech.java.junit.dataprovider.UseDataProvider;
 
+import org.assertj.core.data.MapEntry;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -21,7 +31,6 @@ import org.junit.runner.RunWith;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
-import java.lang.reflect.Field;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -34,23 +43,30 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
 
 import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.assertj.core.api.Fail.fail;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 /**
  * Tests the functionality of {@link Tracer}
@@ -64,6 +80,10 @@ public class TracerTest {
         Tracer.getInstance().removeAllSpanLifecycleListeners();
         Tracer.getInstance().setSpanLoggingRepresentation(Tracer.SpanLoggingRepresentation.JSON);
         Tracer.getInstance().setSpanFieldsForLoggerMdc(singleton(SpanFieldForLoggerMdc.TRACE_ID));
+        Tracer.getInstance().setLoggerMdcSyncMode(LoggerMdcSyncMode.EAGER);
+        Tracer.getInstance().setPropagationOnlyUnsampledSpans(false);
+        Tracer.getInstance().setSpanRecyclingEnabled(false);
+        Tracer.getInstance().setTracingContextStorage(ThreadLocalTracingContextStorage.getDefaultInstance());
     }
 
     @Before
@@ -76,20 +96,13 @@ public class TracerTest {
         resetTracer();
     }
 
-    private ThreadLocal<Deque<Span>> getSpanStackThreadLocal() {
-        try {
-            Field stackThreadLocalField = Tracer.class.getDeclaredField("currentSpanStackThreadLocal");
-            stackThreadLocalField.setAccessible(true);
-            //noinspection unchecked
-            return ((ThreadLocal<Deque<Span>>) stackThreadLocalField.get(Tracer.getInstance()));
-        }
-        catch (Exception ex) {
-            throw new IllegalStateException("Couldn't do necessary reflection on Tracer", ex);
-        }
+    private Deque<Span> getSpanStackFromTracer() {
+        TracingContextSlot slot = Tracer.getInstance().getTracingContextStorage().getCurrentSlot();
+        return (slot == null) ? null : slot.getSpanStack();
     }
 
-    private Deque<Span> getSpanStackFromTracer() {
-        return getSpanStackThreadLocal().get();
+    private void setSpanStackOnTracer(SpanStack spanStack) {
+        Tracer.getInstance().getTracingContextStorage().getOrCreateCurrentSlot().setSpanStack(spanStack);
     }
 
     private int getSpanStackSize() {
@@ -270,6 +283,24 @@ public class TracerTest {
         assertThat(span.getSpanName()).isEqualTo("childspan");
     }
 
+    @Test
+    public void startRequestWithChildSpan_carries_numeric_ids_from_parent_over_to_child() {
+        // given
+        Span parentSpan = Span.generateRootSpanForNewTrace("parentspan", SpanPurpose.CLIENT).build();
+        assertThat(parentSpan.hasNumericTraceId()).isTrue();
+        assertThat(parentSpan.hasNumericSpanId()).isTrue();
+
+        // when
+        Span span = Tracer.getInstance().startRequestWithChildSpan(parentSpan, "childspan");
+
+        // then
+        assertThat(span.hasNumericTraceId()).isTrue();
+        assertThat(span.getTraceIdLow()).isEqualTo(parentSpan.getTraceIdLow());
+        assertThat(span.hasNumericParentSpanId()).isTrue();
+        assertThat(span.getParentSpanIdAsLong()).isEqualTo(parentSpan.getSpanIdAsLong());
+        assertThat(span.hasNumericSpanId()).isTrue();
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void startRequestWithChildSpan_throws_IllegalArgumentException_if_passed_null_parent() {
         // expect
@@ -522,17 +553,17 @@ public class TracerTest {
 
         return new Object[][] {
                 { null },
-                { new LinkedList<>() },
-                { new LinkedList<>(singleton(rootSpan)) },
-                { new LinkedList<>(Arrays.asList(rootSpan, childSpan)) }
+                { new SpanStack() },
+                { SpanStack.copyOf(singleton(rootSpan)) },
+                { SpanStack.copyOf(Arrays.asList(rootSpan, childSpan)) }
         };
     }
 
     @Test
     @UseDataProvider("spanStackDataProvider")
-    public void starting_a_request_should_reset_span_stack_no_matter_what_the_span_stack_already_looked_like(Deque<Span> stackToUse) {
+    public void starting_a_request_should_reset_span_stack_no_matter_what_the_span_stack_already_looked_like(SpanStack stackToUse) {
         // given
-        getSpanStackThreadLocal().set(stackToUse);
+        setSpanStackOnTracer(stackToUse);
         assertThat(getSpanStackFromTracer()).isSameAs(stackToUse);
         String newRequestSpanName = UUID.randomUUID().toString();
 
@@ -546,6 +577,55 @@ public class TracerTest {
         assertThat(Tracer.getInstance().getCurrentSpan().getSpanName()).isEqualTo(newRequestSpanName);
     }
 
+    @Test
+    public void span_stack_is_reused_by_the_next_request_on_the_same_thread() {
+        // given
+        Tracer.getInstance().startRequestWithRootSpan("firstRequest");
+        Deque<Span> firstRequestStack = getSpanStackFromTracer();
+        Tracer.getInstance().completeRequestSpan();
+        assertThat(getSpanStackFromTracer()).isNull();
+
+        // when
+        Span secondRequestSpan = Tracer.getInstance().startRequestWithRootSpan("secondRequest");
+
+        // then
+        assertThat(getSpanStackFromTracer()).isSameAs(firstRequestStack);
+        assertThat(getSpanStackFromTracer()).containsExactly(secondRequestSpan);
+    }
+
+    @Test
+    public void span_stack_handed_out_by_unregisterFromThread_is_not_reused() {
+        // given
+        Span firstRequestSpan = Tracer.getInstance().startRequestWithRootSpan("firstRequest");
+        Deque<Span> unregisteredStack = Tracer.getInstance().unregisterFromThread();
+
+        // when
+        Tracer.getInstance().startRequestWithRootSpan("secondRequest");
+        Tracer.getInstance().completeRequestSpan();
+        Tracer.getInstance().startRequestWithRootSpan("thirdRequest");
+
+        // then
+        assertThat(getSpanStackFromTracer()).isNotSameAs(unregisteredStack);
+        assertThat(unregisteredStack).containsExactly(firstRequestSpan);
+    }
+
+    @Test
+    public void getCurrentSpanStackCopy_is_not_affected_by_later_changes_to_the_span_stack() {
+        // given
+        Span rootSpan = Tracer.getInstance().startRequestWithRootSpan("root");
+        Span subspan = Tracer.getInstance().startSubSpan("subspan", SpanPurpose.LOCAL_ONLY);
+
+        // when
+        Deque<Span> copy = Tracer.getInstance().getCurrentSpanStackCopy();
+        Tracer.getInstance().completeSubSpan();
+        Span otherSubspan = Tracer.getInstance().startSubSpan("otherSubspan", SpanPurpose.LOCAL_ONLY);
+
+        // then
+        assertThat(copy).isInstanceOf(SpanStack.class);
+        assertThat(copy).containsExactly(subspan, rootSpan);
+        assertThat(getSpanStackFromTracer()).containsExactly(otherSubspan, rootSpan);
+    }
+
     @Test
     public void getMdcValueForSpan_works_as_expected() {
         for (SpanFieldForLoggerMdc fieldForMdc : SpanFieldForLoggerMdc.values()) {
@@ -667,6 +747,137 @@ public class TracerTest {
         assertThat(MDC.get(miscUnrelatedMdcPropKey)).isEqualTo(miscUnrelatedMdcPropValue);
     }
 
+    @Test
+    public void configureMDC_does_not_rewrite_MDC_values_that_have_not_changed() {
+        // given
+        Span parent = Span.newBuilder("parent", SpanPurpose.LOCAL_ONLY).build();
+        Span child = parent.generateChildSpan("child", SpanPurpose.LOCAL_ONLY);
+        Tracer.getInstance().configureMDC(parent);
+
+        // Logback's MDC is copy-on-write - grabbing its backing map forces the next MDC write to make a new map, so
+        //      we can tell whether any MDC write happened by comparing map instances.
+        LogbackMDCAdapter logbackMdcAdapter = (LogbackMDCAdapter) MDC.getMDCAdapter();
+        Map<String, String> mdcMapBeforeChild = logbackMdcAdapter.getPropertyMap();
+
+        // when
+        Tracer.getInstance().configureMDC(child);
+
+        // then
+        assertThat(logbackMdcAdapter.getPropertyMap()).isSameAs(mdcMapBeforeChild);
+        assertThat(MDC.get(SpanFieldForLoggerMdc.TRACE_ID.mdcKey)).isEqualTo(child.getTraceId());
+
+        // and when
+        Tracer.getInstance().setSpanFieldsForLoggerMdc(SpanFieldForLoggerMdc.TRACE_ID, SpanFieldForLoggerMdc.SPAN_ID);
+        Tracer.getInstance().configureMDC(child);
+
+        // then
+        assertThat(logbackMdcAdapter.getPropertyMap()).isNotSameAs(mdcMapBeforeChild);
+        assertThat(MDC.get(SpanFieldForLoggerMdc.SPAN_ID.mdcKey)).isEqualTo(child.getSpanId());
+    }
+
+    @Test
+    public void loggerMdcSyncMode_defaults_to_EAGER() {
+        // expect
+        assertThat(Tracer.getInstance().getLoggerMdcSyncMode()).isEqualTo(LoggerMdcSyncMode.EAGER);
+    }
+
+    @Test
+    public void setLoggerMdcSyncMode_throws_IllegalArgumentException_if_passed_null() {
+        // when
+        Throwable ex = catchThrowable(() -> Tracer.getInstance().setLoggerMdcSyncMode(null));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+        assertThat(Tracer.getInstance().getLoggerMdcSyncMode()).isEqualTo(LoggerMdcSyncMode.EAGER);
+    }
+
+    @Test
+    public void LAZY_loggerMdcSyncMode_never_touches_the_MDC() {
+        // given
+        Tracer tracer = Tracer.getInstance();
+        tracer.setSpanFieldsForLoggerMdc(SpanFieldForLoggerMdc.values());
+        tracer.setLoggerMdcSyncMode(LoggerMdcSyncMode.LAZY);
+        MDC.clear();
+        MDC.put(SpanFieldForLoggerMdc.TRACE_ID.mdcKey, "unrelated-traceId");
+
+        // when
+        Span rootSpan = tracer.startRequestWithRootSpan("root");
+        Span subspan = tracer.startSubSpan("subspan", SpanPurpose.LOCAL_ONLY);
+
+        // then
+        assertThat(tracer.getCurrentSpan()).isSameAs(subspan);
+        assertThat(MDC.getCopyOfContextMap())
+            .containsOnlyKeys(SpanFieldForLoggerMdc.TRACE_ID.mdcKey)
+            .containsEntry(SpanFieldForLoggerMdc.TRACE_ID.mdcKey, "unrelated-traceId");
+
+        // and when
+        tracer.completeSubSpan();
+
+        // then
+        assertThat(tracer.getCurrentSpan()).isSameAs(rootSpan);
+        assertThat(MDC.get(SpanFieldForLoggerMdc.TRACE_ID.mdcKey)).isEqualTo("unrelated-traceId");
+
+        // and when
+        tracer.completeRequestSpan();
+
+        // then
+        assertThat(tracer.getCurrentSpan()).isNull();
+        assertThat(MDC.get(SpanFieldForLoggerMdc.TRACE_ID.mdcKey)).isEqualTo("unrelated-traceId");
+        MDC.clear();
+    }
+
+    @Test
+    public void setTracingContextStorage_throws_IllegalArgumentException_if_passed_null() {
+        // when
+        Throwable ex = catchThrowable(() -> Tracer.getInstance().setTracingContextStorage(null));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void tracingContextStorage_defaults_to_ThreadLocalTracingContextStorage() {
+        // expect
+        assertThat(Tracer.getInstance().getTracingContextStorage())
+            .isSameAs(ThreadLocalTracingContextStorage.getDefaultInstance());
+    }
+
+    @Test
+    public void tracer_keeps_span_stack_in_custom_TracingContextStorage() {
+        // given
+        Tracer tracer = Tracer.getInstance();
+        final TracingContextSlot customSlot = new TracingContextSlot();
+        TracingContextStorage customStorage = new TracingContextStorage() {
+            @Override
+            public TracingContextSlot getCurrentSlot() {
+                return customSlot;
+            }
+
+            @Override
+            public TracingContextSlot getOrCreateCurrentSlot() {
+                return customSlot;
+            }
+        };
+        tracer.setTracingContextStorage(customStorage);
+
+        // when
+        Span rootSpan = tracer.startRequestWithRootSpan("root");
+        Span subspan = tracer.startSubSpan("subspan", SpanPurpose.LOCAL_ONLY);
+
+        // then
+        assertThat(tracer.getTracingContextStorage()).isSameAs(customStorage);
+        assertThat(customSlot.getSpanStack()).containsExactly(subspan, rootSpan);
+        assertThat(tracer.getCurrentSpan()).isSameAs(subspan);
+
+        // and when
+        tracer.completeSubSpan();
+        tracer.completeRequestSpan();
+
+        // then
+        assertThat(customSlot.getSpanStack()).isNull();
+        assertThat(tracer.getCurrentSpan()).isNull();
+    }
+
     @Test
     public void getCurrentSpan_should_return_current_span() {
         // given
@@ -873,6 +1084,404 @@ public class TracerTest {
         verify(mockStrategy).isNextRootSpanSampleable();
     }
 
+    private enum RootSpanStartScenario {
+        START_REQUEST_WITH_ROOT_SPAN {
+            @Override
+            Span startRootSpan() {
+                return Tracer.getInstance().startRequestWithRootSpan("foo");
+            }
+        },
+        START_SUB_SPAN_WITH_EMPTY_STACK {
+            @Override
+            Span startRootSpan() {
+                return Tracer.getInstance().startSubSpan("foo", SpanPurpose.LOCAL_ONLY);
+            }
+        },
+        START_SPAN_IN_CURRENT_CONTEXT_WITH_EMPTY_STACK {
+            @Override
+            Span startRootSpan() {
+                return Tracer.getInstance().startSpanInCurrentContext("foo", SpanPurpose.LOCAL_ONLY);
+            }
+        };
+
+        abstract Span startRootSpan();
+    }
+
+    @DataProvider(value = {
+        "START_REQUEST_WITH_ROOT_SPAN                       |   true",
+        "START_REQUEST_WITH_ROOT_SPAN                       |   false",
+        "START_SUB_SPAN_WITH_EMPTY_STACK                    |   true",
+        "START_SUB_SPAN_WITH_EMPTY_STACK                    |   false",
+        "START_SPAN_IN_CURRENT_CONTEXT_WITH_EMPTY_STACK     |   true",
+        "START_SPAN_IN_CURRENT_CONTEXT_WITH_EMPTY_STACK     |   false"
+    }, splitBy = "\\|")
+    @Test
+    public void root_spans_use_trace_id_for_TraceIdAwareRootSpanSamplingStrategy(
+        RootSpanStartScenario scenario, boolean strategyResult
+    ) {
+        // given
+        TraceIdAwareRootSpanSamplingStrategy strategyMock = mock(TraceIdAwareRootSpanSamplingStrategy.class);
+        doReturn(strategyResult).when(strategyMock).isRootSpanSampleable(anyLong());
+        Tracer.getInstance().setRootSpanSamplingStrategy(strategyMock);
+
+        // when
+        Span result = scenario.startRootSpan();
+
+        // then
+        assertThat(result.getParentSpanId()).isNull();
+        assertThat(result.isSampleable()).isEqualTo(strategyResult);
+        verify(strategyMock).isRootSpanSampleable(TraceAndSpanIdGenerator.unsignedLowerHexStringToLong(result.getTraceId()));
+        verify(strategyMock, never()).isNextRootSpanSampleable();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void startRequestWithRootSpan_passes_request_info_to_RequestAwareRootSpanSamplingStrategy() {
+        // given
+        RequestAwareRootSpanSamplingStrategy strategyMock = mock(RequestAwareRootSpanSamplingStrategy.class);
+        Tracer.getInstance().setRootSpanSamplingStrategy(strategyMock);
+        Object request = new Object();
+        HttpTagAndSpanNamingAdapter<Object, Object> adapterMock = mock(HttpTagAndSpanNamingAdapter.class);
+
+        // when
+        Span result = Tracer.getInstance().startRequestWithRootSpan("foo", "someUser", request, adapterMock);
+
+        // then
+        assertThat(result.getUserId()).isEqualTo("someUser");
+        assertThat(result.isSampleable()).isFalse();
+        verify(strategyMock).isRootSpanSampleable(
+            TraceAndSpanIdGenerator.unsignedLowerHexStringToLong(result.getTraceId()), "foo", SpanPurpose.SERVER,
+            request, adapterMock
+        );
+        verifyNoMoreInteractions(strategyMock);
+    }
+
+    @Test
+    public void startSubSpan_with_empty_stack_passes_span_name_and_purpose_to_RequestAwareRootSpanSamplingStrategy() {
+        // given
+        RequestAwareRootSpanSamplingStrategy strategyMock = mock(RequestAwareRootSpanSamplingStrategy.class);
+        Tracer.getInstance().setRootSpanSamplingStrategy(strategyMock);
+
+        // when
+        Span result = Tracer.getInstance().startSubSpan("foo", SpanPurpose.CLIENT);
+
+        // then
+        verify(strategyMock).isRootSpanSampleable(
+            TraceAndSpanIdGenerator.unsignedLowerHexStringToLong(result.getTraceId()), "foo", SpanPurpose.CLIENT,
+            null, null
+        );
+        verifyNoMoreInteractions(strategyMock);
+    }
+
+    @Test
+    public void startRequestWithRootSpan_with_request_info_throws_IllegalArgumentException_for_null_span_name() {
+        // when
+        Throwable ex = catchThrowable(() -> Tracer.getInstance().startRequestWithRootSpan(null, null, null, null));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DataProvider(value = {
+        "START_REQUEST_WITH_ROOT_SPAN",
+        "START_SUB_SPAN_WITH_EMPTY_STACK",
+        "START_SPAN_IN_CURRENT_CONTEXT_WITH_EMPTY_STACK"
+    })
+    @Test
+    public void root_spans_use_isNextRootSpanSampleable_for_plain_RootSpanSamplingStrategy(
+        RootSpanStartScenario scenario
+    ) {
+        // given
+        RootSpanSamplingStrategy strategyMock = mock(RootSpanSamplingStrategy.class);
+        doReturn(false).when(strategyMock).isNextRootSpanSampleable();
+        Tracer.getInstance().setRootSpanSamplingStrategy(strategyMock);
+
+        // when
+        Span result = scenario.startRootSpan();
+
+        // then
+        assertThat(result.isSampleable()).isFalse();
+        verify(strategyMock).isNextRootSpanSampleable();
+    }
+
+    @Test
+    public void spanRecyclingEnabled_defaults_to_false_and_can_be_changed() {
+        // expect
+        assertThat(Tracer.getInstance().isSpanRecyclingEnabled()).isFalse();
+
+        // when
+        Tracer.getInstance().setSpanRecyclingEnabled(true);
+
+        // then
+        assertThat(Tracer.getInstance().isSpanRecyclingEnabled()).isTrue();
+    }
+
+    @Test
+    public void completed_request_span_tags_are_reused_by_the_next_span_when_recycling_is_enabled() {
+        // given
+        Tracer.getInstance().setSpanRecyclingEnabled(true);
+        Tracer.getInstance().addSpanLifecycleListener(SpanMetricsListener.newBuilder().build());
+        Span firstSpan = Tracer.getInstance().startRequestWithRootSpan("first");
+        firstSpan.putTag("foo", "bar");
+        Object firstSpanTagsMap = Whitebox.getInternalState(firstSpan, "tags");
+        Tracer.getInstance().completeRequestSpan();
+
+        // when
+        Span secondSpan = Tracer.getInstance().startRequestWithRootSpan("second");
+        secondSpan.putTag("baz", "bat");
+
+        // then
+        assertThat(secondSpan).isNotSameAs(firstSpan);
+        assertThat(Whitebox.getInternalState(secondSpan, "tags")).isSameAs(firstSpanTagsMap);
+        assertThat(secondSpan.getTags()).containsOnly(MapEntry.entry("baz", "bat"));
+        assertThat(firstSpan.isCompleted()).isTrue();
+        assertThat(firstSpan.getSpanName()).isEqualTo("first");
+        assertThat(firstSpan.getTags()).isEmpty();
+    }
+
+    @Test
+    public void completed_sub_span_tags_are_reused_by_the_next_sub_span_when_recycling_is_enabled() {
+        // given
+        Tracer.getInstance().setSpanRecyclingEnabled(true);
+        Tracer.getInstance().addSpanLifecycleListener(SpanMetricsListener.newBuilder().build());
+        Span rootSpan = Tracer.getInstance().startRequestWithRootSpan("root");
+        Span firstSubSpan = Tracer.getInstance().startSubSpan("first", SpanPurpose.LOCAL_ONLY);
+        firstSubSpan.putTag("foo", "bar");
+        Object firstSubSpanTagsMap = Whitebox.getInternalState(firstSubSpan, "tags");
+        Tracer.getInstance().completeSubSpan();
+
+        // when
+        Span secondSubSpan = Tracer.getInstance().startSubSpan("second", SpanPurpose.CLIENT);
+        secondSubSpan.putTag("baz", "bat");
+
+        // then
+        assertThat(secondSubSpan).isNotSameAs(firstSubSpan);
+        assertThat(Whitebox.getInternalState(secondSubSpan, "tags")).isSameAs(firstSubSpanTagsMap);
+        assertThat(secondSubSpan.getParentSpanId()).isEqualTo(rootSpan.getSpanId());
+        assertThat(firstSubSpan.isCompleted()).isTrue();
+        assertThat(Tracer.getInstance().getCurrentSpan()).isSameAs(secondSubSpan);
+    }
+
+    @Test
+    public void tracing_state_snapshot_still_sees_its_own_completed_span_after_recycling() {
+        // given
+        Tracer.getInstance().setSpanRecyclingEnabled(true);
+        Tracer.getInstance().addSpanLifecycleListener(SpanMetricsListener.newBuilder().build());
+        Span firstSpan = Tracer.getInstance().startRequestWithRootSpan("first");
+        TracingState firstSpanState = TracingState.getCurrentThreadTracingState();
+        Tracer.getInstance().completeRequestSpan();
+        Span otherRequestSpan = Tracer.getInstance().startRequestWithRootSpan("other");
+        otherRequestSpan.putTag("foo", "bar");
+        TracingState otherRequestState = TracingState.getCurrentThreadTracingState();
+        Tracer.getInstance().unregisterFromThread();
+
+        // when
+        Tracer.getInstance().registerWithThread(firstSpanState.spanStack);
+        Span currentSpanFromSnapshot = Tracer.getInstance().getCurrentSpan();
+        Tracer.getInstance().completeRequestSpan();
+
+        // then
+        assertThat(currentSpanFromSnapshot).isSameAs(firstSpan);
+        assertThat(currentSpanFromSnapshot.isCompleted()).isTrue();
+        assertThat(otherRequestSpan.isCompleted()).isFalse();
+        assertThat(otherRequestSpan.getTags()).containsOnly(MapEntry.entry("foo", "bar"));
+        assertThat(otherRequestState.spanStack.peek()).isSameAs(otherRequestSpan);
+    }
+
+    @Test
+    public void span_tags_are_not_recycled_when_recycling_is_disabled() {
+        // given
+        Tracer.getInstance().addSpanLifecycleListener(SpanMetricsListener.newBuilder().build());
+        Span firstSpan = Tracer.getInstance().startRequestWithRootSpan("first");
+        firstSpan.putTag("foo", "bar");
+        Tracer.getInstance().completeRequestSpan();
+
+        // then
+        assertThat(firstSpan.isCompleted()).isTrue();
+        assertThat(firstSpan.getTags()).containsOnly(MapEntry.entry("foo", "bar"));
+        assertThat(SpanRecycler.pooledTagsCountForCurrentThread()).isZero();
+    }
+
+    @Test
+    public void span_tags_are_not_recycled_when_no_listeners_are_registered() {
+        // given
+        Tracer.getInstance().setSpanRecyclingEnabled(true);
+        Span firstSpan = Tracer.getInstance().startRequestWithRootSpan("first");
+        firstSpan.putTag("foo", "bar");
+
+        // when
+        Tracer.getInstance().completeRequestSpan();
+
+        // then
+        assertThat(firstSpan.getTags()).containsOnly(MapEntry.entry("foo", "bar"));
+        assertThat(SpanRecycler.pooledTagsCountForCurrentThread()).isZero();
+    }
+
+    @Test
+    public void span_tags_are_only_recycled_when_all_listeners_are_recycling_safe() {
+        // given
+        Tracer.getInstance().setSpanRecyclingEnabled(true);
+        SpanLifecycleListener unsafeListener = mock(SpanLifecycleListener.class);
+        Tracer.getInstance().addSpanLifecycleListener(SpanMetricsListener.newBuilder().build());
+        Tracer.getInstance().addSpanLifecycleListenerFirst(unsafeListener);
+
+        // when
+        Span firstSpan = Tracer.getInstance().startRequestWithRootSpan("first");
+        firstSpan.putTag("foo", "bar");
+        Tracer.getInstance().completeRequestSpan();
+
+        // then
+        assertThat(firstSpan.getTags()).containsOnly(MapEntry.entry("foo", "bar"));
+        verify(unsafeListener).spanCompleted(firstSpan);
+
+        // and when
+        Tracer.getInstance().removeSpanLifecycleListener(unsafeListener);
+        Span secondSpan = Tracer.getInstance().startRequestWithRootSpan("second");
+        secondSpan.putTag("foo", "bar");
+        Tracer.getInstance().completeRequestSpan();
+
+        // then
+        assertThat(secondSpan.getTags()).isEmpty();
+        assertThat(SpanRecycler.pooledTagsCountForCurrentThread()).isEqualTo(1);
+    }
+
+    @Test
+    public void spans_completed_outside_the_span_stack_are_not_recycled() {
+        // given
+        Tracer.getInstance().setSpanRecyclingEnabled(true);
+        Tracer.getInstance().addSpanLifecycleListener(SpanMetricsListener.newBuilder().build());
+        Span unmanagedSpan = Span.newBuilder("unmanaged", SpanPurpose.LOCAL_ONLY).withTag("foo", "bar").build();
+
+        // when
+        unmanagedSpan.close();
+
+        // then
+        assertThat(unmanagedSpan.isCompleted()).isTrue();
+        assertThat(unmanagedSpan.getTags()).containsOnly(MapEntry.entry("foo", "bar"));
+        assertThat(SpanRecycler.pooledTagsCountForCurrentThread()).isZero();
+    }
+
+    @Test
+    public void span_recycling_pool_is_capped_per_thread_and_emptied_for_every_thread_when_disabled()
+        throws InterruptedException {
+        // given
+        Tracer.getInstance().setSpanRecyclingEnabled(true);
+        Tracer.getInstance().addSpanLifecycleListener(SpanMetricsListener.newBuilder().build());
+        Tracer.getInstance().startRequestWithRootSpan("root");
+        int numSubSpans = SpanRecycler.MAX_POOLED_CONTAINERS_PER_THREAD + 5;
+        for (int i = 0; i < numSubSpans; i++) {
+            Tracer.getInstance().startSubSpan("sub-" + i, SpanPurpose.LOCAL_ONLY).putTag("foo", "bar");
+        }
+        Tracer.getInstance().completeRequestSpan();
+        assertThat(SpanRecycler.pooledTagsCountForCurrentThread())
+            .isEqualTo(SpanRecycler.MAX_POOLED_CONTAINERS_PER_THREAD);
+
+        CountDownLatch otherThreadPooledLatch = new CountDownLatch(1);
+        CountDownLatch disabledLatch = new CountDownLatch(1);
+        AtomicInteger otherThreadPoolSizeAfterDisable = new AtomicInteger(-1);
+        Thread otherThread = new Thread(() -> {
+            Tracer.getInstance().startRequestWithRootSpan("otherThreadRoot").putTag("foo", "bar");
+            Tracer.getInstance().completeRequestSpan();
+            otherThreadPooledLatch.countDown();
+            try {
+                disabledLatch.await();
+            }
+            catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            otherThreadPoolSizeAfterDisable.set(SpanRecycler.pooledTagsCountForCurrentThread());
+        });
+        otherThread.start();
+        otherThreadPooledLatch.await();
+
+        // when
+        Tracer.getInstance().setSpanRecyclingEnabled(false);
+        disabledLatch.countDown();
+        otherThread.join();
+
+        // then
+        assertThat(SpanRecycler.pooledTagsCountForCurrentThread()).isZero();
+        assertThat(otherThreadPoolSizeAfterDisable.get()).isZero();
+    }
+
+    @Test
+    public void propagationOnlyUnsampledSpans_defaults_to_false_and_can_be_changed() {
+        // expect
+        assertThat(Tracer.getInstance().isPropagationOnlyUnsampledSpans()).isFalse();
+
+        // when
+        Tracer.getInstance().setPropagationOnlyUnsampledSpans(true);
+
+        // then
+        assertThat(Tracer.getInstance().isPropagationOnlyUnsampledSpans()).isTrue();
+    }
+
+    @DataProvider(value = {
+        "START_REQUEST_WITH_ROOT_SPAN                       |   true    |   true",
+        "START_REQUEST_WITH_ROOT_SPAN                       |   true    |   false",
+        "START_REQUEST_WITH_ROOT_SPAN                       |   false   |   true",
+        "START_REQUEST_WITH_ROOT_SPAN                       |   false   |   false",
+        "START_SUB_SPAN_WITH_EMPTY_STACK                    |   true    |   false",
+        "START_SUB_SPAN_WITH_EMPTY_STACK                    |   false   |   false",
+        "START_SPAN_IN_CURRENT_CONTEXT_WITH_EMPTY_STACK     |   true    |   false",
+        "START_SPAN_IN_CURRENT_CONTEXT_WITH_EMPTY_STACK     |   false   |   false"
+    }, splitBy = "\\|")
+    @Test
+    public void unsampled_root_spans_and_their_children_are_propagation_only_when_enabled(
+        RootSpanStartScenario scenario, boolean propagationOnlyEnabled, boolean sampled
+    ) {
+        // given
+        Tracer.getInstance().setPropagationOnlyUnsampledSpans(propagationOnlyEnabled);
+        Tracer.getInstance().setRootSpanSamplingStrategy(() -> sampled);
+        boolean expectPropagationOnly = propagationOnlyEnabled && !sampled;
+
+        // when
+        Span rootSpan = scenario.startRootSpan();
+        Span subSpan = Tracer.getInstance().startSubSpan("bar", SpanPurpose.LOCAL_ONLY);
+
+        // then
+        assertThat(rootSpan.isPropagationOnly()).isEqualTo(expectPropagationOnly);
+        assertThat(subSpan.isPropagationOnly()).isEqualTo(expectPropagationOnly);
+        assertThat(subSpan.getTraceId()).isEqualTo(rootSpan.getTraceId());
+        assertThat(subSpan.getParentSpanId()).isEqualTo(rootSpan.getSpanId());
+        assertThat(MDC.get(SpanFieldForLoggerMdc.TRACE_ID.mdcKey)).isEqualTo(rootSpan.getTraceId());
+    }
+
+    @Test
+    public void startRequestWithChildSpan_creates_propagation_only_span_for_unsampled_parent_when_enabled() {
+        // given
+        Tracer.getInstance().setPropagationOnlyUnsampledSpans(true);
+        Span parentSpan = Span.newBuilder("parent", SpanPurpose.CLIENT).withSampleable(false).build();
+
+        // when
+        Span result = Tracer.getInstance().startRequestWithChildSpan(parentSpan, "child");
+
+        // then
+        assertThat(result.isPropagationOnly()).isTrue();
+        assertThat(result.getTraceId()).isEqualTo(parentSpan.getTraceId());
+        assertThat(result.getParentSpanId()).isEqualTo(parentSpan.getSpanId());
+    }
+
+    @Test
+    public void propagation_only_spans_do_not_notify_span_lifecycle_listeners() {
+        // given
+        SpanLifecycleListener listener = mock(SpanLifecycleListener.class);
+        Tracer.getInstance().addSpanLifecycleListener(listener);
+        Tracer.getInstance().setPropagationOnlyUnsampledSpans(true);
+        Tracer.getInstance().setRootSpanSamplingStrategy(() -> false);
+
+        // when
+        Span rootSpan = Tracer.getInstance().startRequestWithRootSpan("foo");
+        Tracer.getInstance().startSubSpan("bar", SpanPurpose.LOCAL_ONLY);
+        Tracer.getInstance().completeSubSpan();
+        Tracer.getInstance().completeRequestSpan();
+
+        // then
+        assertThat(rootSpan.isPropagationOnly()).isTrue();
+        assertThat(rootSpan.isCompleted()).isTrue();
+        verifyZeroInteractions(listener);
+    }
+
     @Test
     public void addSpanLifecycleListener_should_work_as_advertised() {
         // given
@@ -1330,7 +1939,7 @@ public class TracerTest {
         assertThat(tracer.getCurrentSpan()).isEqualTo(subspan);
 
         // a *copy* of the stack we passed in should have been registered, and modifying the original stack should not affect Tracer's stack
-        Deque<Span> spanStack = getSpanStackThreadLocal().get();
+        Deque<Span> spanStack = getSpanStackFromTracer();
         assertThat(Tracer.getInstance().containsSameSpansInSameOrder(spanStack, newSpanStack)).isTrue();
         assertThat(spanStack).isNotSameAs(newSpanStack);
 
@@ -1342,7 +1951,7 @@ public class TracerTest {
     @Test
     public void registerWithThread_should_work_as_advertised_if_existing_stack_is_empty() {
         // given
-        getSpanStackThreadLocal().set(new LinkedList<>());
+        setSpanStackOnTracer(new SpanStack());
         Tracer tracer = Tracer.getInstance();
 
         Deque<Span> newSpanStack = new LinkedList<>();
@@ -1362,7 +1971,7 @@ public class TracerTest {
         assertThat(tracer.getCurrentSpan()).isEqualTo(subspan);
 
         // a *copy* of the stack we passed in should have been registered, and modifying the original stack should not affect Tracer's stack
-        Deque<Span> spanStack = getSpanStackThreadLocal().get();
+        Deque<Span> spanStack = getSpanStackFromTracer();
         assertThat(Tracer.getInstance().containsSameSpansInSameOrder(spanStack, newSpanStack)).isTrue();
         assertThat(spanStack).isNotSameAs(newSpanStack);
 
@@ -1391,7 +2000,7 @@ public class TracerTest {
         // then
         assertThat(MDC.get(SpanFieldForLoggerMdc.TRACE_ID.mdcKey)).isEqualTo(subspan.getTraceId());
 
-        Deque<Span> spanStack = getSpanStackThreadLocal().get();
+        Deque<Span> spanStack = getSpanStackFromTracer();
         assertThat(spanStack).isEqualTo(newSpanStack);
     }
 
@@ -1404,11 +2013,11 @@ public class TracerTest {
         assertThat(MDC.get(SpanFieldForLoggerMdc.TRACE_ID.mdcKey)).isEqualTo(subspan.getTraceId());
 
         // when
-        Deque<Span> spanStack = getSpanStackThreadLocal().get();
+        Deque<Span> spanStack = getSpanStackFromTracer();
         tracer.registerWithThread(spanStack);
 
         // then
-        assertThat(getSpanStackThreadLocal().get()).isEqualTo(spanStack);
+        assertThat(getSpanStackFromTracer()).isEqualTo(spanStack);
         assertThat(MDC.get(SpanFieldForLoggerMdc.TRACE_ID.mdcKey)).isEqualTo(subspan.getTraceId());
     }
 
@@ -1421,11 +2030,11 @@ public class TracerTest {
         assertThat(MDC.get(SpanFieldForLoggerMdc.TRACE_ID.mdcKey)).isEqualTo(subspan.getTraceId());
 
         // when
-        Deque<Span> spanStack = getSpanStackThreadLocal().get();
+        Deque<Span> spanStack = getSpanStackFromTracer();
         tracer.registerWithThread(new LinkedList<>(spanStack));
 
         // then
-        assertThat(getSpanStackThreadLocal().get()).isEqualTo(spanStack);
+        assertThat(getSpanStackFromTracer()).isEqualTo(spanStack);
         assertThat(MDC.get(SpanFieldForLoggerMdc.TRACE_ID.mdcKey)).isEqualTo(subspan.getTraceId());
     }
 
@@ -1441,7 +2050,7 @@ public class TracerTest {
         tracer.registerWithThread(null);
 
         // then
-        assertThat(getSpanStackThreadLocal().get()).isNull();
+        assertThat(getSpanStackFromTracer()).isNull();
         assertThat(MDC.get(SpanFieldForLoggerMdc.TRACE_ID.mdcKey)).isNull();
     }
 
@@ -1458,7 +2067,7 @@ public class TracerTest {
         tracer.registerWithThread(emptyStack);
 
         // then
-        assertThat(getSpanStackThreadLocal().get()).isEqualTo(emptyStack);
+        assertThat(getSpanStackFromTracer()).isEqualTo(emptyStack);
         assertThat(MDC.get(SpanFieldForLoggerMdc.TRACE_ID.mdcKey)).isNull();
     }
 
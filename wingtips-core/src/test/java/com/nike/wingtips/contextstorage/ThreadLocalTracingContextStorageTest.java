@@ -0,0 +1,45 @@
+package com.nike.wingtips.contextstorage;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the functionality of {@link ThreadLocalTracingContextStorage}.
+ */
+public class ThreadLocalTracingContextStorageTest {
+
+    @Test
+    public void getDefaultInstance_returns_singleton() {
+        // expect
+        assertThat(ThreadLocalTracingContextStorage.getDefaultInstance())
+            .isSameAs(ThreadLocalTracingContextStorage.getDefaultInstance());
+    }
+
+    @Test
+    public void slots_are_created_lazily_and_kept_per_thread() throws Exception {
+        // given
+        ThreadLocalTracingContextStorage storage = new ThreadLocalTracingContextStorage();
+        ExecutorService otherThread = Executors.newSingleThreadExecutor();
+
+        try {
+            // expect
+            assertThat(storage.getCurrentSlot()).isNull();
+
+            // when
+            TracingContextSlot slot = storage.getOrCreateCurrentSlot();
+
+            // then
+            assertThat(storage.getCurrentSlot()).isSameAs(slot);
+            assertThat(storage.getOrCreateCurrentSlot()).isSameAs(slot);
+            assertThat(otherThread.submit(storage::getCurrentSlot).get()).isNull();
+            assertThat(otherThread.submit(storage::getOrCreateCurrentSlot).get()).isNotSameAs(slot);
+        }
+        finally {
+            otherThread.shutdown();
+        }
+    }
+}
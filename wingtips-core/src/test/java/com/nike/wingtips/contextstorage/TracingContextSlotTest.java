@@ -0,0 +1,50 @@
+package com.nike.wingtips.contextstorage;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.util.SpanStack;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the functionality of {@link TracingContextSlot}.
+ */
+public class TracingContextSlotTest {
+
+    @Test
+    public void recycleSpanStack_clears_and_unregisters_stack_and_keeps_it_as_the_spare() {
+        // given
+        TracingContextSlot slot = new TracingContextSlot();
+        SpanStack stack = slot.takeSpareOrCreateNewSpanStack();
+        stack.push(Span.generateRootSpanForNewTrace("foo", Span.SpanPurpose.LOCAL_ONLY).build());
+        slot.setSpanStack(stack);
+
+        // when
+        slot.recycleSpanStack();
+
+        // then
+        assertThat(slot.getSpanStack()).isNull();
+        assertThat(stack).isEmpty();
+        assertThat(slot.takeSpareOrCreateNewSpanStack()).isSameAs(stack);
+        assertThat(slot.takeSpareOrCreateNewSpanStack()).isNotSameAs(stack);
+    }
+
+    @Test
+    public void recycleSpanStack_does_not_keep_oversized_stacks() {
+        // given
+        TracingContextSlot slot = new TracingContextSlot();
+        SpanStack stack = new SpanStack();
+        for (int i = 0; i <= TracingContextSlot.MAX_REUSABLE_SPAN_STACK_CAPACITY; i++) {
+            stack.push(Span.generateRootSpanForNewTrace("foo-" + i, Span.SpanPurpose.LOCAL_ONLY).build());
+        }
+        slot.setSpanStack(stack);
+
+        // when
+        slot.recycleSpanStack();
+
+        // then
+        assertThat(stack.capacity()).isGreaterThan(TracingContextSlot.MAX_REUSABLE_SPAN_STACK_CAPACITY);
+        assertThat(slot.takeSpareOrCreateNewSpanStack()).isNotSameAs(stack);
+    }
+}
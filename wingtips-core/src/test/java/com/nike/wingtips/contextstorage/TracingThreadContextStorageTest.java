@@ -0,0 +1,181 @@
+package com.nike.wingtips.contextstorage;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Tracer;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+/**
+ * Tests the functionality of {@link TracingThreadContextStorage}, {@link TracingThread}, and {@link
+ * TracingThreadFactory}.
+ */
+public class TracingThreadContextStorageTest {
+
+    @After
+    public void afterMethod() {
+        Tracer.getInstance().setTracingContextStorage(ThreadLocalTracingContextStorage.getDefaultInstance());
+        Tracer.getInstance().unregisterFromThread();
+        MDC.clear();
+    }
+
+    @Test
+    public void constructor_throws_IllegalArgumentException_if_fallbackStorage_is_null() {
+        // when
+        Throwable ex = catchThrowable(() -> new TracingThreadContextStorage(null));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void uses_fallback_storage_for_normal_threads() {
+        // given
+        TracingContextStorage fallbackMock = mock(TracingContextStorage.class);
+        TracingThreadContextStorage storage = new TracingThreadContextStorage(fallbackMock);
+
+        // when
+        storage.getCurrentSlot();
+        storage.getOrCreateCurrentSlot();
+
+        // then
+        verify(fallbackMock).getCurrentSlot();
+        verify(fallbackMock).getOrCreateCurrentSlot();
+    }
+
+    @Test
+    public void uses_thread_field_for_tracing_threads() throws InterruptedException {
+        // given
+        TracingContextStorage fallbackMock = mock(TracingContextStorage.class);
+        TracingThreadContextStorage storage = new TracingThreadContextStorage(fallbackMock);
+        List<TracingContextSlot> slots = Collections.synchronizedList(new ArrayList<>());
+        TracingThread thread = new TracingThread(() -> {
+            slots.add(storage.getCurrentSlot());
+            slots.add(storage.getOrCreateCurrentSlot());
+        }, "foo");
+
+        // when
+        thread.start();
+        thread.join();
+
+        // then
+        assertThat(slots).containsExactly(thread.getTracingContextSlot(), thread.getTracingContextSlot());
+        verifyZeroInteractions(fallbackMock);
+    }
+
+    @Test
+    public void tracer_works_normally_on_tracing_threads() throws InterruptedException {
+        // given
+        Tracer.getInstance().setTracingContextStorage(TracingThreadContextStorage.getDefaultInstance());
+        List<Span> spansSeen = Collections.synchronizedList(new ArrayList<>());
+        TracingThread thread = new TracingThread(() -> {
+            Span rootSpan = Tracer.getInstance().startRequestWithRootSpan("root");
+            spansSeen.add(Tracer.getInstance().getCurrentSpan());
+            Tracer.getInstance().completeRequestSpan();
+            spansSeen.add(rootSpan);
+            spansSeen.add(Tracer.getInstance().getCurrentSpan());
+        }, "foo");
+
+        // when
+        thread.start();
+        thread.join();
+
+        // then
+        assertThat(spansSeen.get(0)).isSameAs(spansSeen.get(1));
+        assertThat(spansSeen.get(2)).isNull();
+        assertThat(thread.getTracingContextSlot().getSpanStack()).isNull();
+    }
+
+    @Test
+    public void TracingThreadFactory_copies_delegate_thread_settings() {
+        // given
+        Thread.UncaughtExceptionHandler handler = mock(Thread.UncaughtExceptionHandler.class);
+        ThreadFactory delegate = r -> {
+            Thread thread = new Thread(r, "some-name");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.setUncaughtExceptionHandler(handler);
+            return thread;
+        };
+        Runnable runnable = () -> { };
+
+        // when
+        Thread result = TracingThreadFactory.withTracingThreads(delegate).newThread(runnable);
+
+        // then
+        assertThat(result).isInstanceOf(TracingThread.class);
+        assertThat(result.getName()).isEqualTo("some-name");
+        assertThat(result.isDaemon()).isTrue();
+        assertThat(result.getPriority()).isEqualTo(Thread.MIN_PRIORITY);
+        assertThat(result.getUncaughtExceptionHandler()).isSameAs(handler);
+    }
+
+    @Test
+    public void TracingThreadFactory_does_not_double_wrap() {
+        // given
+        TracingThreadFactory factory = new TracingThreadFactory(Executors.defaultThreadFactory());
+
+        // expect
+        assertThat(TracingThreadFactory.withTracingThreads(factory)).isSameAs(factory);
+        assertThat(catchThrowable(() -> new TracingThreadFactory(null)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void TracingThreadFactory_uses_given_settings_when_created_without_delegate() {
+        // given
+        Thread.UncaughtExceptionHandler handler = mock(Thread.UncaughtExceptionHandler.class);
+        TracingThreadFactory factory = new TracingThreadFactory("some-prefix", true, Thread.MAX_PRIORITY, handler);
+        Runnable runnable = () -> { };
+
+        // when
+        Thread first = factory.newThread(runnable);
+        Thread second = factory.newThread(runnable);
+
+        // then
+        assertThat(first).isInstanceOf(TracingThread.class);
+        assertThat(first.getName()).isEqualTo("some-prefix-1");
+        assertThat(second.getName()).isEqualTo("some-prefix-2");
+        assertThat(first.isDaemon()).isTrue();
+        assertThat(first.getPriority()).isEqualTo(Thread.MAX_PRIORITY);
+        assertThat(first.getUncaughtExceptionHandler()).isSameAs(handler);
+        assertThat(factory.delegate).isNull();
+    }
+
+    @Test
+    public void TracingThreadFactory_leaves_uncaught_exception_handler_default_when_none_is_given() {
+        // given
+        TracingThreadFactory factory = new TracingThreadFactory("some-prefix", false, Thread.NORM_PRIORITY, null);
+
+        // when
+        Thread result = factory.newThread(() -> { });
+
+        // then
+        assertThat(result.isDaemon()).isFalse();
+        assertThat(result.getUncaughtExceptionHandler()).isSameAs(result.getThreadGroup());
+    }
+
+    @Test
+    public void TracingThreadFactory_settings_constructor_throws_IllegalArgumentException_for_invalid_args() {
+        // expect
+        assertThat(catchThrowable(() -> new TracingThreadFactory(null, true, Thread.NORM_PRIORITY, null)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> new TracingThreadFactory("foo", true, Thread.MIN_PRIORITY - 1, null)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> new TracingThreadFactory("foo", true, Thread.MAX_PRIORITY + 1, null)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
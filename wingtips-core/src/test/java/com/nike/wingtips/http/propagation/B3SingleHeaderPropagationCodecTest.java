@@ -0,0 +1,199 @@
+package com.nike.wingtips.http.propagation;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.http.HttpObjectForPropagation;
+import com.nike.wingtips.http.HttpRequestTracingUtils;
+import com.nike.wingtips.http.RequestWithHeaders;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import static com.nike.wingtips.http.propagation.B3SingleHeaderPropagationCodec.B3_HEADER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+/**
+ * Tests the functionality of {@link B3SingleHeaderPropagationCodec}.
+ */
+@RunWith(DataProviderRunner.class)
+public class B3SingleHeaderPropagationCodecTest {
+
+    private B3SingleHeaderPropagationCodec codec;
+    private RequestWithHeaders requestMock;
+    private HttpObjectForPropagation httpObjectForPropagationMock;
+
+    @Before
+    public void beforeMethod() {
+        codec = B3SingleHeaderPropagationCodec.getDefaultInstance();
+        requestMock = mock(RequestWithHeaders.class);
+        httpObjectForPropagationMock = mock(HttpObjectForPropagation.class);
+    }
+
+    @Test
+    public void getDefaultInstance_returns_singleton() {
+        // expect
+        assertThat(B3SingleHeaderPropagationCodec.getDefaultInstance())
+            .isSameAs(B3SingleHeaderPropagationCodec.DEFAULT_INSTANCE);
+    }
+
+    @DataProvider(value = {
+        "80f198ee56343ba864fe8b2a57d3eff7-e457b5a2e4d86bd1-1-05e3ac9a4f6e3b90   |   80f198ee56343ba864fe8b2a57d3eff7    |   e457b5a2e4d86bd1    |   05e3ac9a4f6e3b90    |   true",
+        "80f198ee56343ba864fe8b2a57d3eff7-e457b5a2e4d86bd1-0-05e3ac9a4f6e3b90   |   80f198ee56343ba864fe8b2a57d3eff7    |   e457b5a2e4d86bd1    |   05e3ac9a4f6e3b90    |   false",
+        "80f198ee56343ba864fe8b2a57d3eff7-e457b5a2e4d86bd1-d                    |   80f198ee56343ba864fe8b2a57d3eff7    |   e457b5a2e4d86bd1    |   null                |   true",
+        "64fe8b2a57d3eff7-e457b5a2e4d86bd1-0                                    |   64fe8b2a57d3eff7                    |   e457b5a2e4d86bd1    |   null                |   false",
+        "64fe8b2a57d3eff7-e457b5a2e4d86bd1                                      |   64fe8b2a57d3eff7                    |   e457b5a2e4d86bd1    |   null                |   true",
+    }, splitBy = "\\|")
+    @Test
+    public void extractSpan_parses_valid_b3_header(
+        String b3,
+        String expectedTraceId,
+        String expectedSpanId,
+        String expectedParentSpanId,
+        boolean expectedSampleable
+    ) {
+        // given
+        doReturn(b3).when(requestMock).getHeader(B3_HEADER);
+
+        // when
+        Span result = codec.extractSpan(requestMock, null);
+
+        // then
+        assertThat(result).isNotNull();
+        assertThat(result.getTraceId()).isEqualTo(expectedTraceId);
+        assertThat(result.getSpanId()).isEqualTo(expectedSpanId);
+        assertThat(result.getParentSpanId()).isEqualTo(expectedParentSpanId);
+        assertThat(result.isSampleable()).isEqualTo(expectedSampleable);
+        assertThat(result.getSpanName()).isEqualTo(HttpRequestTracingUtils.UNSPECIFIED_SPAN_NAME);
+        assertThat(result.getSpanPurpose()).isEqualTo(SpanPurpose.CLIENT);
+    }
+
+    @Test
+    public void extractSpan_ignores_surrounding_whitespace_and_uses_user_id_header() {
+        // given
+        doReturn(" 64fe8b2a57d3eff7-e457b5a2e4d86bd1-1  ").when(requestMock).getHeader(B3_HEADER);
+        doReturn("someUser").when(requestMock).getHeader("userid");
+
+        // when
+        Span result = codec.extractSpan(requestMock, Collections.singletonList("userid"));
+
+        // then
+        assertThat(result).isNotNull();
+        assertThat(result.getSpanId()).isEqualTo("e457b5a2e4d86bd1");
+        assertThat(result.getUserId()).isEqualTo("someUser");
+    }
+
+    @DataProvider(value = {
+        "0",
+        "1",
+        "d",
+        "garbage",
+        "64fe8b2a57d3eff7",
+        "64fe8b2a57d3eff7-",
+        "64fe8b2a57d3eff7-e457b5a2e4d86bd",
+        "64fe8b2a57d3eff7-e457b5a2e4d86bd1-",
+        "64fe8b2a57d3eff7-e457b5a2e4d86bd1-x",
+        "64fe8b2a57d3eff7-e457b5a2e4d86bd1-10",
+        "64fe8b2a57d3eff7-e457b5a2e4d86bd1-1-",
+        "64fe8b2a57d3eff7-e457b5a2e4d86bd1-1-05e3ac9a4f6e3b9",
+        "64fe8b2a57d3eff7-e457b5a2e4d86bd1-1-05e3ac9a4f6e3b900",
+        "64FE8B2A57D3EFF7-e457b5a2e4d86bd1-1",
+        "4fe8b2a57d3eff7-e457b5a2e4d86bd1-1",
+        "64fe8b2a57d3eff7-e457b5a2e4d86bd1e457b5a2e4d86bd1-1",
+    }, splitBy = "\\|")
+    @Test
+    public void extractSpan_returns_null_for_invalid_b3_header(String b3) {
+        // given
+        doReturn(b3).when(requestMock).getHeader(B3_HEADER);
+
+        // when
+        Span result = codec.extractSpan(requestMock, null);
+
+        // then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    public void extractSpan_returns_null_when_header_is_missing_or_request_is_null() {
+        // expect
+        assertThat(codec.extractSpan(requestMock, null)).isNull();
+        assertThat(codec.extractSpan(null, null)).isNull();
+    }
+
+    @DataProvider(value = {
+        "true   |   true    |   80f198ee56343ba864fe8b2a57d3eff7-e457b5a2e4d86bd1-1-05e3ac9a4f6e3b90",
+        "false  |   true    |   80f198ee56343ba864fe8b2a57d3eff7-e457b5a2e4d86bd1-0-05e3ac9a4f6e3b90",
+        "true   |   false   |   80f198ee56343ba864fe8b2a57d3eff7-e457b5a2e4d86bd1-1",
+        "false  |   false   |   80f198ee56343ba864fe8b2a57d3eff7-e457b5a2e4d86bd1-0",
+    }, splitBy = "\\|")
+    @Test
+    public void injectTracingHeaders_writes_b3_header_for_numeric_ids(
+        boolean sampleable, boolean hasParent, String expectedHeaderValue
+    ) {
+        // given
+        Span.Builder builder = Span.newBuilder("foo", SpanPurpose.CLIENT)
+                                   .withTraceId(0x80f198ee56343ba8L, 0x64fe8b2a57d3eff7L)
+                                   .withSpanId(0xe457b5a2e4d86bd1L)
+                                   .withSampleable(sampleable);
+        if (hasParent) {
+            builder.withParentSpanId(0x05e3ac9a4f6e3b90L);
+        }
+
+        // when
+        codec.injectTracingHeaders(httpObjectForPropagationMock, builder.build());
+
+        // then
+        verify(httpObjectForPropagationMock).setHeader(B3_HEADER, expectedHeaderValue);
+    }
+
+    @Test
+    public void injectTracingHeaders_writes_b3_header_for_string_ids() {
+        // given
+        Span span = Span.newBuilder("foo", SpanPurpose.CLIENT)
+                        .withTraceId("64fe8b2a57d3eff7")
+                        .withSpanId("e457b5a2e4d86bd1")
+                        .withParentSpanId("05e3ac9a4f6e3b90")
+                        .build();
+
+        // when
+        codec.injectTracingHeaders(httpObjectForPropagationMock, span);
+
+        // then
+        verify(httpObjectForPropagationMock).setHeader(
+            B3_HEADER, "64fe8b2a57d3eff7-e457b5a2e4d86bd1-1-05e3ac9a4f6e3b90"
+        );
+    }
+
+    @Test
+    public void injectTracingHeaders_does_nothing_when_span_is_null() {
+        // when
+        codec.injectTracingHeaders(httpObjectForPropagationMock, null);
+        codec.injectTracingHeaders(null, Span.generateRootSpanForNewTrace("foo", SpanPurpose.CLIENT).build());
+
+        // then
+        verifyZeroInteractions(httpObjectForPropagationMock);
+    }
+
+    @Test
+    public void extract_and_inject_round_trip() {
+        // given
+        String b3 = "80f198ee56343ba864fe8b2a57d3eff7-e457b5a2e4d86bd1-0-05e3ac9a4f6e3b90";
+        doReturn(b3).when(requestMock).getHeader(B3_HEADER);
+        Span extracted = codec.extractSpan(requestMock, null);
+
+        // when
+        codec.injectTracingHeaders(httpObjectForPropagationMock, extracted);
+
+        // then
+        verify(httpObjectForPropagationMock).setHeader(B3_HEADER, b3);
+    }
+}
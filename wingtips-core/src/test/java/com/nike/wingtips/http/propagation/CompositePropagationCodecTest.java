@@ -0,0 +1,150 @@
+package com.nike.wingtips.http.propagation;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.TraceHeaders;
+import com.nike.wingtips.http.HttpObjectForPropagation;
+import com.nike.wingtips.http.RequestWithHeaders;
+
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.nike.wingtips.http.propagation.B3SingleHeaderPropagationCodec.B3_HEADER;
+import static com.nike.wingtips.http.propagation.W3CTraceContextPropagationCodec.TRACEPARENT_HEADER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests the functionality of {@link CompositePropagationCodec}.
+ */
+@RunWith(DataProviderRunner.class)
+public class CompositePropagationCodecTest {
+
+    private CompositePropagationCodec codec;
+    private RequestWithHeaders requestMock;
+    private HttpObjectForPropagation httpObjectForPropagationMock;
+
+    @Before
+    public void beforeMethod() {
+        codec = new CompositePropagationCodec(Arrays.asList(
+            W3CTraceContextPropagationCodec.getDefaultInstance(),
+            B3MultiHeaderPropagationCodec.getDefaultInstance()
+        ));
+        requestMock = mock(RequestWithHeaders.class);
+        httpObjectForPropagationMock = mock(HttpObjectForPropagation.class);
+    }
+
+    @Test
+    public void constructor_throws_IllegalArgumentException_for_null_or_empty_codecs() {
+        // when
+        Throwable nullEx = catchThrowable(() -> new CompositePropagationCodec(null));
+        Throwable emptyEx = catchThrowable(() -> new CompositePropagationCodec(Collections.emptyList()));
+        Throwable containsNullEx = catchThrowable(
+            () -> new CompositePropagationCodec(Arrays.asList(B3MultiHeaderPropagationCodec.getDefaultInstance(), null))
+        );
+
+        // then
+        assertThat(nullEx).isInstanceOf(IllegalArgumentException.class);
+        assertThat(emptyEx).isInstanceOf(IllegalArgumentException.class);
+        assertThat(containsNullEx).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void getCodecs_returns_unmodifiable_copy_in_priority_order() {
+        // when
+        List<PropagationCodec> result = codec.getCodecs();
+
+        // then
+        assertThat(result).containsExactly(
+            W3CTraceContextPropagationCodec.getDefaultInstance(),
+            B3MultiHeaderPropagationCodec.getDefaultInstance()
+        );
+        Throwable ex = catchThrowable(() -> result.add(B3SingleHeaderPropagationCodec.getDefaultInstance()));
+        assertThat(ex).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void extractSpan_prefers_earlier_codecs() {
+        // given
+        doReturn("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01")
+            .when(requestMock).getHeader(TRACEPARENT_HEADER);
+        doReturn("1111111111111111").when(requestMock).getHeader(TraceHeaders.TRACE_ID);
+        doReturn("2222222222222222").when(requestMock).getHeader(TraceHeaders.SPAN_ID);
+
+        // when
+        Span result = codec.extractSpan(requestMock, null);
+
+        // then
+        assertThat(result).isNotNull();
+        assertThat(result.getTraceId()).isEqualTo("4bf92f3577b34da6a3ce929d0e0e4736");
+    }
+
+    @Test
+    public void extractSpan_falls_back_to_later_codecs() {
+        // given
+        doReturn("1111111111111111").when(requestMock).getHeader(TraceHeaders.TRACE_ID);
+        doReturn("2222222222222222").when(requestMock).getHeader(TraceHeaders.SPAN_ID);
+
+        // when
+        Span result = codec.extractSpan(requestMock, null);
+
+        // then
+        assertThat(result).isNotNull();
+        assertThat(result.getTraceId()).isEqualTo("1111111111111111");
+        assertThat(result.getSpanId()).isEqualTo("2222222222222222");
+    }
+
+    @Test
+    public void extractSpan_returns_null_when_no_codec_finds_a_span() {
+        // expect
+        assertThat(codec.extractSpan(requestMock, null)).isNull();
+        assertThat(codec.extractSpan(null, null)).isNull();
+    }
+
+    @Test
+    public void injectTracingHeaders_writes_headers_for_all_codecs() {
+        // given
+        CompositePropagationCodec allCodecs = new CompositePropagationCodec(Arrays.asList(
+            W3CTraceContextPropagationCodec.getDefaultInstance(),
+            B3SingleHeaderPropagationCodec.getDefaultInstance(),
+            B3MultiHeaderPropagationCodec.getDefaultInstance()
+        ));
+        Span span = Span.newBuilder("foo", SpanPurpose.CLIENT)
+                        .withTraceId("64fe8b2a57d3eff7")
+                        .withSpanId("e457b5a2e4d86bd1")
+                        .build();
+
+        // when
+        allCodecs.injectTracingHeaders(httpObjectForPropagationMock, span);
+
+        // then
+        verify(httpObjectForPropagationMock).setHeader(
+            TRACEPARENT_HEADER, "00-000000000000000064fe8b2a57d3eff7-e457b5a2e4d86bd1-01"
+        );
+        verify(httpObjectForPropagationMock).setHeader(B3_HEADER, "64fe8b2a57d3eff7-e457b5a2e4d86bd1-1");
+        verify(httpObjectForPropagationMock).setHeader(TraceHeaders.TRACE_ID, "64fe8b2a57d3eff7");
+        verify(httpObjectForPropagationMock).setHeader(TraceHeaders.SPAN_ID, "e457b5a2e4d86bd1");
+        verify(httpObjectForPropagationMock).setHeader(TraceHeaders.TRACE_SAMPLED, "1");
+    }
+
+    @Test
+    public void injectTracingHeaders_does_nothing_for_null_span() {
+        // when
+        codec.injectTracingHeaders(httpObjectForPropagationMock, null);
+
+        // then
+        verify(httpObjectForPropagationMock, never()).setHeader(anyString(), anyString());
+    }
+}
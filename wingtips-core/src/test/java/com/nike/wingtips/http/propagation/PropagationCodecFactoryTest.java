@@ -0,0 +1,93 @@
+package com.nike.wingtips.http.propagation;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.nike.wingtips.http.propagation.PropagationCodecFactory.createPropagationCodec;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link PropagationCodecFactory}.
+ */
+@RunWith(DataProviderRunner.class)
+public class PropagationCodecFactoryTest {
+
+    @DataProvider(value = {
+        "null",
+        "",
+        "  ",
+        " , ",
+        "b3",
+        "B3",
+        "B3_MULTI"
+    }, splitBy = "\\|")
+    @Test
+    public void createPropagationCodec_returns_B3MultiHeaderPropagationCodec_for_blank_or_b3(String names) {
+        // expect
+        assertThat(createPropagationCodec(names)).isSameAs(B3MultiHeaderPropagationCodec.getDefaultInstance());
+    }
+
+    @Test
+    public void createPropagationCodec_creates_short_name_codecs() {
+        // expect
+        assertThat(createPropagationCodec("b3_single")).isSameAs(B3SingleHeaderPropagationCodec.getDefaultInstance());
+        assertThat(createPropagationCodec(" W3C ")).isSameAs(W3CTraceContextPropagationCodec.getDefaultInstance());
+    }
+
+    @Test
+    public void createPropagationCodec_instantiates_fully_qualified_class_names() {
+        // expect
+        assertThat(createPropagationCodec(B3SingleHeaderPropagationCodec.class.getName()))
+            .isInstanceOf(B3SingleHeaderPropagationCodec.class);
+    }
+
+    @Test
+    public void createPropagationCodec_creates_composite_for_comma_delimited_names() {
+        // when
+        PropagationCodec result = createPropagationCodec("W3C, B3_SINGLE,,B3");
+
+        // then
+        assertThat(result).isInstanceOf(CompositePropagationCodec.class);
+        assertThat(((CompositePropagationCodec) result).getCodecs()).containsExactly(
+            W3CTraceContextPropagationCodec.getDefaultInstance(),
+            B3SingleHeaderPropagationCodec.getDefaultInstance(),
+            B3MultiHeaderPropagationCodec.getDefaultInstance()
+        );
+    }
+
+    @DataProvider(value = {
+        "com.nike.wingtips.http.propagation.DoesNotExist",
+        "java.lang.Object",
+        "W3C,nope"
+    }, splitBy = "\\|")
+    @Test
+    public void createPropagationCodec_throws_IllegalArgumentException_for_unknown_names(String names) {
+        // when
+        Throwable ex = catchThrowable(() -> createPropagationCodec(names));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void createPropagationCodec_throws_IllegalArgumentException_with_the_constructor_exception_as_cause() {
+        // when
+        Throwable ex = catchThrowable(() -> createPropagationCodec(ThrowingConstructorCodec.class.getName()));
+
+        // then
+        assertThat(ex)
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasCauseExactlyInstanceOf(IllegalStateException.class);
+        assertThat(ex.getCause()).hasMessage("intentional test exception");
+    }
+
+    public static class ThrowingConstructorCodec {
+        public ThrowingConstructorCodec() {
+            throw new IllegalStateException("intentional test exception");
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.nike.wingtips.http.propagation;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.http.HttpObjectForPropagation;
+import com.nike.wingtips.http.HttpRequestTracingUtils;
+import com.nike.wingtips.http.RequestWithHeaders;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import static com.nike.wingtips.http.propagation.W3CTraceContextPropagationCodec.TRACEPARENT_HEADER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests the functionality of {@link W3CTraceContextPropagationCodec}.
+ */
+@RunWith(DataProviderRunner.class)
+public class W3CTraceContextPropagationCodecTest {
+
+    private W3CTraceContextPropagationCodec codec;
+    private RequestWithHeaders requestMock;
+    private HttpObjectForPropagation httpObjectForPropagationMock;
+
+    @Before
+    public void beforeMethod() {
+        codec = W3CTraceContextPropagationCodec.getDefaultInstance();
+        requestMock = mock(RequestWithHeaders.class);
+        httpObjectForPropagationMock = mock(HttpObjectForPropagation.class);
+    }
+
+    @Test
+    public void getDefaultInstance_returns_singleton() {
+        // expect
+        assertThat(W3CTraceContextPropagationCodec.getDefaultInstance())
+            .isSameAs(W3CTraceContextPropagationCodec.DEFAULT_INSTANCE);
+    }
+
+    @DataProvider(value = {
+        "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01    |   4bf92f3577b34da6a3ce929d0e0e4736    |   00f067aa0ba902b7    |   true",
+        "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00    |   4bf92f3577b34da6a3ce929d0e0e4736    |   00f067aa0ba902b7    |   false",
+        "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-03    |   4bf92f3577b34da6a3ce929d0e0e4736    |   00f067aa0ba902b7    |   true",
+        "00-00000000000000000000000000000001-0000000000000001-01    |   0000000000000001                    |   0000000000000001    |   true",
+        "01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-ab |   4bf92f3577b34da6a3ce929d0e0e4736    |   00f067aa0ba902b7    |   true",
+    }, splitBy = "\\|")
+    @Test
+    public void extractSpan_parses_valid_traceparent(
+        String traceparent, String expectedTraceId, String expectedSpanId, boolean expectedSampleable
+    ) {
+        // given
+        doReturn(traceparent).when(requestMock).getHeader(TRACEPARENT_HEADER);
+
+        // when
+        Span result = codec.extractSpan(requestMock, null);
+
+        // then
+        assertThat(result).isNotNull();
+        assertThat(result.getTraceId()).isEqualTo(expectedTraceId);
+        assertThat(result.getSpanId()).isEqualTo(expectedSpanId);
+        assertThat(result.getParentSpanId()).isNull();
+        assertThat(result.isSampleable()).isEqualTo(expectedSampleable);
+        assertThat(result.getSpanName()).isEqualTo(HttpRequestTracingUtils.UNSPECIFIED_SPAN_NAME);
+        assertThat(result.getSpanPurpose()).isEqualTo(SpanPurpose.CLIENT);
+    }
+
+    @Test
+    public void extractSpan_ignores_surrounding_whitespace_and_uses_user_id_header() {
+        // given
+        doReturn("  00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01 ")
+            .when(requestMock).getHeader(TRACEPARENT_HEADER);
+        doReturn("someUser").when(requestMock).getHeader("userid");
+
+        // when
+        Span result = codec.extractSpan(requestMock, Collections.singletonList("userid"));
+
+        // then
+        assertThat(result).isNotNull();
+        assertThat(result.getTraceId()).isEqualTo("4bf92f3577b34da6a3ce929d0e0e4736");
+        assertThat(result.getUserId()).isEqualTo("someUser");
+    }
+
+    @Test
+    public void extractSpan_uses_request_attribute_when_header_is_missing() {
+        // given
+        doReturn("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01")
+            .when(requestMock).getAttribute(TRACEPARENT_HEADER);
+
+        // when
+        Span result = codec.extractSpan(requestMock, null);
+
+        // then
+        assertThat(result).isNotNull();
+        assertThat(result.getSpanId()).isEqualTo("00f067aa0ba902b7");
+    }
+
+    @DataProvider(value = {
+        "garbage",
+        "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7",
+        "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-",
+        "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-ab",
+        "00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01",
+        "00-4bf92f3577b34da6a3ce929d0e0e473x-00f067aa0ba902b7-01",
+        "00-4bf92f3577b34da6a3ce929d0e0e4736_00f067aa0ba902b7-01",
+        "00-00000000000000000000000000000000-00f067aa0ba902b7-01",
+        "00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01",
+        "ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+        "01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01ab",
+        "0x-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+    }, splitBy = "\\|")
+    @Test
+    public void extractSpan_returns_null_for_invalid_traceparent(String traceparent) {
+        // given
+        doReturn(traceparent).when(requestMock).getHeader(TRACEPARENT_HEADER);
+
+        // when
+        Span result = codec.extractSpan(requestMock, null);
+
+        // then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    public void extractSpan_returns_null_when_header_is_missing_or_request_is_null() {
+        // expect
+        assertThat(codec.extractSpan(requestMock, null)).isNull();
+        assertThat(codec.extractSpan(null, null)).isNull();
+    }
+
+    @DataProvider(value = {
+        "true   |   01",
+        "false  |   00"
+    }, splitBy = "\\|")
+    @Test
+    public void injectTracingHeaders_writes_traceparent_for_numeric_ids(boolean sampleable, String expectedFlags) {
+        // given
+        Span span = Span.newBuilder("foo", SpanPurpose.CLIENT)
+                        .withTraceId(0x4bf92f3577b34da6L, 0xa3ce929d0e0e4736L)
+                        .withSpanId(0x00f067aa0ba902b7L)
+                        .withSampleable(sampleable)
+                        .build();
+
+        // when
+        codec.injectTracingHeaders(httpObjectForPropagationMock, span);
+
+        // then
+        verify(httpObjectForPropagationMock).setHeader(
+            TRACEPARENT_HEADER, "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-" + expectedFlags
+        );
+    }
+
+    @Test
+    public void injectTracingHeaders_pads_64_bit_trace_ids() {
+        // given
+        Span span = Span.newBuilder("foo", SpanPurpose.CLIENT)
+                        .withTraceId("a3ce929d0e0e4736")
+                        .withSpanId("00f067aa0ba902b7")
+                        .build();
+
+        // when
+        codec.injectTracingHeaders(httpObjectForPropagationMock, span);
+
+        // then
+        verify(httpObjectForPropagationMock).setHeader(
+            TRACEPARENT_HEADER, "00-0000000000000000a3ce929d0e0e4736-00f067aa0ba902b7-01"
+        );
+    }
+
+    @DataProvider(value = {
+        "not-hex            |   00f067aa0ba902b7",
+        "A3CE929D0E0E4736   |   00f067aa0ba902b7",
+        "0000000000000000   |   00f067aa0ba902b7",
+        "a3ce929d0e0e4736   |   not-hex",
+        "a3ce929d0e0e4736   |   00f067aa0ba902b7aa",
+    }, splitBy = "\\|")
+    @Test
+    public void injectTracingHeaders_does_nothing_for_ids_that_cannot_be_represented(String traceId, String spanId) {
+        // given
+        Span span = Span.newBuilder("foo", SpanPurpose.CLIENT).withTraceId(traceId).withSpanId(spanId).build();
+
+        // when
+        codec.injectTracingHeaders(httpObjectForPropagationMock, span);
+
+        // then
+        verify(httpObjectForPropagationMock, never()).setHeader(anyString(), anyString());
+    }
+
+    @Test
+    public void extract_and_inject_round_trip() {
+        // given
+        String traceparent = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+        doReturn(traceparent).when(requestMock).getHeader(TRACEPARENT_HEADER);
+        Span extracted = codec.extractSpan(requestMock, null);
+
+        // when
+        codec.injectTracingHeaders(httpObjectForPropagationMock, extracted);
+
+        // then
+        verify(httpObjectForPropagationMock).setHeader(TRACEPARENT_HEADER, traceparent);
+    }
+}
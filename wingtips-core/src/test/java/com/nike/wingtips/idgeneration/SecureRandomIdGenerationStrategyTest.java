@@ -0,0 +1,72 @@
+package com.nike.wingtips.idgeneration;
+
+import org.assertj.core.api.ThrowableAssert;
+import org.junit.Test;
+
+import java.security.SecureRandom;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link SecureRandomIdGenerationStrategy}
+ */
+public class SecureRandomIdGenerationStrategyTest {
+
+    @Test
+    public void default_constructor_uses_SHA1PRNG_SecureRandom() {
+        // when
+        SecureRandomIdGenerationStrategy strategy = new SecureRandomIdGenerationStrategy();
+
+        // then
+        assertThat(strategy.random).isInstanceOf(SecureRandom.class);
+        assertThat(((SecureRandom) strategy.random).getAlgorithm())
+            .isEqualTo(SecureRandomIdGenerationStrategy.DEFAULT_SECURE_RANDOM_ALGORITHM)
+            .isEqualTo("SHA1PRNG");
+    }
+
+    @Test
+    public void algorithm_constructor_falls_back_to_normal_Random_if_algorithm_is_not_available() {
+        // when
+        SecureRandomIdGenerationStrategy strategy = new SecureRandomIdGenerationStrategy("QuantumDoohickey");
+
+        // then
+        assertThat(strategy.random).isNotNull();
+        assertThat(strategy.random).isNotInstanceOf(SecureRandom.class);
+    }
+
+    @Test
+    public void random_constructor_throws_IllegalArgumentException_if_passed_null() {
+        // when
+        Throwable ex = catchThrowable(new ThrowableAssert.ThrowingCallable() {
+            @Override
+            public void call() {
+                new SecureRandomIdGenerationStrategy((Random) null);
+            }
+        });
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void generate64BitRandomLong_converts_the_random_bytes_to_a_big_endian_long() {
+        // given
+        Random fixedBytesRandom = new Random() {
+            @Override
+            public void nextBytes(byte[] bytes) {
+                for (int i = 0; i < bytes.length; i++) {
+                    bytes[i] = (byte) (0xf0 + i);
+                }
+            }
+        };
+        SecureRandomIdGenerationStrategy strategy = new SecureRandomIdGenerationStrategy(fixedBytesRandom);
+
+        // when
+        long result = strategy.generate64BitRandomLong();
+
+        // then
+        assertThat(result).isEqualTo(0xf0f1f2f3f4f5f6f7L);
+    }
+}
@@ -0,0 +1,83 @@
+package com.nike.wingtips.idgeneration;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the functionality of {@link ThreadLocalRandomIdGenerationStrategy}
+ */
+public class ThreadLocalRandomIdGenerationStrategyTest {
+
+    @Test
+    public void getDefaultInstance_returns_the_same_instance_every_time() {
+        // expect
+        assertThat(ThreadLocalRandomIdGenerationStrategy.getDefaultInstance())
+            .isNotNull()
+            .isSameAs(ThreadLocalRandomIdGenerationStrategy.getDefaultInstance());
+    }
+
+    @Test
+    public void generate64BitRandomLong_should_not_generate_duplicates_across_many_threads() throws Exception {
+        // given
+        final ThreadLocalRandomIdGenerationStrategy strategy = new ThreadLocalRandomIdGenerationStrategy();
+        final int numThreads = 8;
+        final int numAttemptsPerThread = 100000;
+        final Set<Long> randomLongs = Collections.synchronizedSet(new HashSet<Long>());
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        try {
+            for (int t = 0; t < numThreads; t++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int i = 0; i < numAttemptsPerThread; i++) {
+                            randomLongs.add(strategy.generate64BitRandomLong());
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        // then
+        assertThat(randomLongs).hasSize(numThreads * numAttemptsPerThread);
+    }
+
+    @Test
+    public void generate64BitRandomLong_produces_values_with_the_high_bit_set_and_unset() {
+        // given
+        ThreadLocalRandomIdGenerationStrategy strategy = new ThreadLocalRandomIdGenerationStrategy();
+        boolean sawNegative = false;
+        boolean sawPositive = false;
+
+        // when
+        for (int i = 0; i < 1000 && !(sawNegative && sawPositive); i++) {
+            long value = strategy.generate64BitRandomLong();
+            sawNegative |= value < 0;
+            sawPositive |= value > 0;
+        }
+
+        // then
+        assertThat(sawNegative).isTrue();
+        assertThat(sawPositive).isTrue();
+    }
+}
@@ -0,0 +1,454 @@
+package com.nike.wingtips.lifecyclelistener;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.Tracer;
+import com.nike.wingtips.lifecyclelistener.AsyncSpanLifecycleListener.OverflowPolicy;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.nike.wingtips.TestSpanCompleter.completeSpan;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link AsyncSpanLifecycleListener}.
+ */
+@RunWith(DataProviderRunner.class)
+public class AsyncSpanLifecycleListenerTest {
+
+    private final List<AsyncSpanLifecycleListener> listenersToShutdown = new ArrayList<>();
+
+    private void resetTracing() {
+        MDC.clear();
+        Tracer.getInstance().unregisterFromThread();
+        Tracer.getInstance().removeAllSpanLifecycleListeners();
+    }
+
+    @Before
+    public void beforeMethod() {
+        resetTracing();
+    }
+
+    @After
+    public void afterMethod() {
+        for (AsyncSpanLifecycleListener listener : listenersToShutdown) {
+            listener.shutdown(5, TimeUnit.SECONDS);
+        }
+        resetTracing();
+    }
+
+    private AsyncSpanLifecycleListener track(AsyncSpanLifecycleListener listener) {
+        listenersToShutdown.add(listener);
+        return listener;
+    }
+
+    private Span span(String name) {
+        Span span = Span.newBuilder(name, SpanPurpose.LOCAL_ONLY).build();
+        completeSpan(span);
+        return span;
+    }
+
+    private static class RecordingListener implements SpanLifecycleListener {
+        final List<Span> started = Collections.synchronizedList(new ArrayList<Span>());
+        final List<Span> sampled = Collections.synchronizedList(new ArrayList<Span>());
+        final List<Span> completed = Collections.synchronizedList(new ArrayList<Span>());
+        final List<Thread> completedThreads = Collections.synchronizedList(new ArrayList<Thread>());
+
+        @Override
+        public void spanStarted(Span span) {
+            started.add(span);
+        }
+
+        @Override
+        public void spanSampled(Span span) {
+            sampled.add(span);
+        }
+
+        @Override
+        public void spanCompleted(Span span) {
+            completedThreads.add(Thread.currentThread());
+            completed.add(span);
+        }
+    }
+
+    /**
+     * A listener that blocks the dispatcher thread on the first completed span until {@link #release} is counted
+     * down, so tests can fill the queue.
+     */
+    private static class StallingListener extends RecordingListener {
+        final CountDownLatch stalled = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void spanCompleted(Span span) {
+            stalled.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            super.spanCompleted(span);
+        }
+    }
+
+    @Test
+    public void builder_uses_defaults() {
+        // when
+        AsyncSpanLifecycleListener listener = track(
+            AsyncSpanLifecycleListener.newBuilder(new RecordingListener()).build()
+        );
+
+        // then
+        assertThat(listener.getQueueCapacity()).isEqualTo(AsyncSpanLifecycleListener.DEFAULT_QUEUE_CAPACITY);
+        assertThat(listener.maxBatchSize).isEqualTo(AsyncSpanLifecycleListener.DEFAULT_MAX_BATCH_SIZE);
+        assertThat(listener.getOverflowPolicy()).isEqualTo(AsyncSpanLifecycleListener.DEFAULT_OVERFLOW_POLICY);
+        assertThat(listener.isRunning()).isTrue();
+        assertThat(listener.dispatcherThread.isDaemon()).isTrue();
+        assertThat(listener.dispatcherThread.getName()).startsWith("wingtips-async-span-dispatcher-");
+    }
+
+    @Test
+    public void builder_validates_arguments() {
+        // given
+        AsyncSpanLifecycleListener.Builder builder = AsyncSpanLifecycleListener.newBuilder(new RecordingListener());
+
+        // expect
+        assertThat(catchThrowable(() -> AsyncSpanLifecycleListener.newBuilder((List<SpanLifecycleListener>) null)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> AsyncSpanLifecycleListener.newBuilder(new RecordingListener(), null)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> AsyncSpanLifecycleListener.newBuilder().build()))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> builder.withQueueCapacity(1))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> builder.withMaxBatchSize(0))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> builder.withOverflowPolicy(null)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void spanStarted_and_spanSampled_are_passed_through_synchronously() {
+        // given
+        RecordingListener delegate1 = new RecordingListener();
+        RecordingListener delegate2 = new RecordingListener();
+        AsyncSpanLifecycleListener listener = track(
+            AsyncSpanLifecycleListener.newBuilder(delegate1, delegate2).build()
+        );
+        Span span = span("foo");
+
+        // when
+        listener.spanStarted(span);
+        listener.spanSampled(span);
+
+        // then
+        for (RecordingListener delegate : Arrays.asList(delegate1, delegate2)) {
+            assertThat(delegate.started).containsExactly(span);
+            assertThat(delegate.sampled).containsExactly(span);
+        }
+    }
+
+    @Test
+    public void spanCompleted_is_dispatched_to_all_delegates_in_order_on_the_dispatcher_thread() {
+        // given
+        RecordingListener delegate1 = new RecordingListener();
+        RecordingListener delegate2 = new RecordingListener();
+        AsyncSpanLifecycleListener listener = track(
+            AsyncSpanLifecycleListener.newBuilder(delegate1, delegate2).withMaxBatchSize(3).build()
+        );
+        List<Span> spans = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            spans.add(span("span-" + i));
+        }
+
+        // when
+        for (Span span : spans) {
+            listener.spanCompleted(span);
+        }
+        boolean drained = listener.shutdown(5, TimeUnit.SECONDS);
+
+        // then
+        assertThat(drained).isTrue();
+        for (RecordingListener delegate : Arrays.asList(delegate1, delegate2)) {
+            assertThat(delegate.completed).containsExactlyElementsOf(spans);
+            assertThat(delegate.completedThreads).containsOnly(listener.dispatcherThread);
+        }
+        assertThat(listener.getDeliveredSpanCount()).isEqualTo(10);
+        assertThat(listener.getDroppedSpanCount()).isEqualTo(0);
+        assertThat(listener.getQueueDepth()).isEqualTo(0);
+    }
+
+    @DataProvider(value = {
+        "DROP_NEWEST",
+        "DROP_OLDEST"
+    })
+    @Test
+    public void overflow_policy_drops_and_counts_spans_when_queue_is_full(OverflowPolicy overflowPolicy)
+        throws InterruptedException {
+        // given
+        StallingListener delegate = new StallingListener();
+        AsyncSpanLifecycleListener listener = track(
+            AsyncSpanLifecycleListener.newBuilder(delegate)
+                                      .withQueueCapacity(2)
+                                      .withOverflowPolicy(overflowPolicy)
+                                      .build()
+        );
+        Span first = span("first");
+        listener.spanCompleted(first);
+        assertThat(delegate.stalled.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Span> overflowSpans = Arrays.asList(span("a"), span("b"), span("c"), span("d"));
+
+        // when
+        for (Span span : overflowSpans) {
+            listener.spanCompleted(span);
+        }
+
+        // then
+        assertThat(listener.getQueueDepth()).isEqualTo(2);
+        assertThat(listener.getDroppedSpanCount()).isEqualTo(2);
+
+        // and when
+        delegate.release.countDown();
+        assertThat(listener.shutdown(5, TimeUnit.SECONDS)).isTrue();
+
+        // then
+        List<Span> expectedDelivered = (overflowPolicy == OverflowPolicy.DROP_NEWEST)
+                                       ? Arrays.asList(first, overflowSpans.get(0), overflowSpans.get(1))
+                                       : Arrays.asList(first, overflowSpans.get(2), overflowSpans.get(3));
+        assertThat(delegate.completed).containsExactlyElementsOf(expectedDelivered);
+        assertThat(listener.getDeliveredSpanCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void BLOCK_overflow_policy_makes_producer_wait_for_room_and_drops_nothing() throws Exception {
+        // given
+        final StallingListener delegate = new StallingListener();
+        final AsyncSpanLifecycleListener listener = track(
+            AsyncSpanLifecycleListener.newBuilder(delegate)
+                                      .withQueueCapacity(2)
+                                      .withOverflowPolicy(OverflowPolicy.BLOCK)
+                                      .build()
+        );
+        listener.spanCompleted(span("first"));
+        assertThat(delegate.stalled.await(5, TimeUnit.SECONDS)).isTrue();
+        listener.spanCompleted(span("a"));
+        listener.spanCompleted(span("b"));
+        final AtomicBoolean producerFinished = new AtomicBoolean(false);
+        Thread producer = new Thread(() -> {
+            listener.spanCompleted(span("c"));
+            producerFinished.set(true);
+        });
+
+        // when
+        producer.start();
+        Thread.sleep(100);
+
+        // then
+        assertThat(producerFinished.get()).isFalse();
+
+        // and when
+        delegate.release.countDown();
+        producer.join(5000);
+
+        // then
+        assertThat(producerFinished.get()).isTrue();
+        assertThat(listener.shutdown(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(delegate.completed).hasSize(4);
+        assertThat(listener.getDroppedSpanCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void delegate_exceptions_are_counted_and_do_not_affect_other_delegates_or_spans() {
+        // given
+        SpanLifecycleListener explodingDelegate = new RecordingListener() {
+            @Override
+            public void spanCompleted(Span span) {
+                throw new RuntimeException("intentional test exception");
+            }
+        };
+        RecordingListener normalDelegate = new RecordingListener();
+        AsyncSpanLifecycleListener listener = track(
+            AsyncSpanLifecycleListener.newBuilder(explodingDelegate, normalDelegate).build()
+        );
+        Span span1 = span("span1");
+        Span span2 = span("span2");
+
+        // when
+        listener.spanCompleted(span1);
+        listener.spanCompleted(span2);
+        listener.shutdown(5, TimeUnit.SECONDS);
+
+        // then
+        assertThat(normalDelegate.completed).containsExactly(span1, span2);
+        assertThat(listener.getDelegateErrorCount()).isEqualTo(2);
+        assertThat(listener.getDeliveredSpanCount()).isEqualTo(2);
+    }
+
+    private static class RecordingBatchListener extends RecordingListener implements BatchSpanLifecycleListener {
+        final List<List<Span>> batches = Collections.synchronizedList(new ArrayList<List<Span>>());
+
+        @Override
+        public void spansCompleted(List<Span> spans) {
+            batches.add(new ArrayList<>(spans));
+            for (Span span : spans) {
+                spanCompleted(span);
+            }
+        }
+    }
+
+    @Test
+    public void batch_aware_delegates_receive_whole_batches_via_spansCompleted() throws Exception {
+        // given
+        RecordingBatchListener batchDelegate = new RecordingBatchListener();
+        RecordingListener singleDelegate = new RecordingListener();
+        StallingListener stallingDelegate = new StallingListener();
+        AsyncSpanLifecycleListener listener = track(
+            AsyncSpanLifecycleListener.newBuilder(stallingDelegate, batchDelegate, singleDelegate)
+                                      .withMaxBatchSize(3)
+                                      .build()
+        );
+        // Stall the dispatcher on a first span so the rest queue up and get drained as full batches.
+        Span firstSpan = span("first");
+        listener.spanCompleted(firstSpan);
+        List<Span> spans = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            spans.add(span("span-" + i));
+        }
+
+        // when
+        assertThat(stallingDelegate.stalled.await(5, TimeUnit.SECONDS)).isTrue();
+        for (Span span : spans) {
+            listener.spanCompleted(span);
+        }
+        stallingDelegate.release.countDown();
+        listener.shutdown(5, TimeUnit.SECONDS);
+
+        // then
+        List<Span> allSpans = new ArrayList<>();
+        allSpans.add(firstSpan);
+        allSpans.addAll(spans);
+        assertThat(batchDelegate.batches).containsExactly(
+            Collections.singletonList(firstSpan), spans.subList(0, 3), spans.subList(3, 6)
+        );
+        assertThat(batchDelegate.completed).containsExactlyElementsOf(allSpans);
+        assertThat(batchDelegate.completedThreads).containsOnly(listener.dispatcherThread);
+        assertThat(singleDelegate.completed).containsExactlyElementsOf(allSpans);
+        assertThat(listener.getDeliveredSpanCount()).isEqualTo(7);
+    }
+
+    @Test
+    public void batch_aware_delegate_exceptions_are_counted_once_per_batch_and_do_not_affect_other_delegates() {
+        // given
+        final List<List<Span>> receivedBatches = new ArrayList<>();
+        BatchSpanLifecycleListener explodingBatchDelegate = new RecordingBatchListener() {
+            @Override
+            public void spansCompleted(List<Span> spans) {
+                receivedBatches.add(spans);
+                throw new RuntimeException("intentional test exception");
+            }
+        };
+        RecordingListener normalDelegate = new RecordingListener();
+        AsyncSpanLifecycleListener listener = track(
+            AsyncSpanLifecycleListener.newBuilder(explodingBatchDelegate, normalDelegate).build()
+        );
+        Span span1 = span("span1");
+
+        // when
+        listener.spanCompleted(span1);
+        listener.shutdown(5, TimeUnit.SECONDS);
+
+        // then
+        assertThat(normalDelegate.completed).containsExactly(span1);
+        assertThat(listener.getDelegateErrorCount()).isEqualTo(1);
+        assertThat(receivedBatches).hasSize(1);
+        Throwable ex = catchThrowable(() -> receivedBatches.get(0).add(span1));
+        assertThat(ex).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void spans_completed_after_shutdown_are_dropped() {
+        // given
+        RecordingListener delegate = new RecordingListener();
+        AsyncSpanLifecycleListener listener = track(AsyncSpanLifecycleListener.newBuilder(delegate).build());
+        listener.close();
+
+        // when
+        listener.spanCompleted(span("foo"));
+
+        // then
+        assertThat(listener.isRunning()).isFalse();
+        assertThat(listener.dispatcherThread.isAlive()).isFalse();
+        assertThat(listener.getDroppedSpanCount()).isEqualTo(1);
+        assertThat(delegate.completed).isEmpty();
+        // Shutting down again is harmless.
+        assertThat(listener.shutdown(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void span_queued_by_a_producer_that_raced_with_shutdown_is_dropped_instead_of_stranded() {
+        // given
+        RecordingListener delegate = new RecordingListener();
+        AsyncSpanLifecycleListener listener = track(AsyncSpanLifecycleListener.newBuilder(delegate).build());
+        listener.close();
+        assertThat(listener.dispatcherExited).isTrue();
+
+        // when
+        // Simulate a producer that passed the running check before shutdown, but only got its span into the queue
+        //      after the dispatcher thread's final drain.
+        assertThat(listener.queue.offer(span("late"))).isTrue();
+        listener.afterSpanQueued();
+
+        // then
+        assertThat(listener.getQueueDepth()).isZero();
+        assertThat(listener.getDroppedSpanCount()).isEqualTo(1);
+        assertThat(listener.getDeliveredSpanCount()).isZero();
+        assertThat(delegate.completed).isEmpty();
+    }
+
+    @Test
+    public void constructor_does_not_start_the_dispatcher_thread_but_build_does() {
+        // given
+        AsyncSpanLifecycleListener.Builder builder = AsyncSpanLifecycleListener.newBuilder(new RecordingListener());
+
+        // when
+        AsyncSpanLifecycleListener notStarted = new AsyncSpanLifecycleListener(builder);
+        AsyncSpanLifecycleListener built = track(builder.build());
+
+        // then
+        assertThat(notStarted.dispatcherThread.getState()).isEqualTo(Thread.State.NEW);
+        assertThat(built.dispatcherThread.isAlive()).isTrue();
+    }
+
+    @Test
+    public void works_when_registered_with_Tracer() {
+        // given
+        RecordingListener delegate = new RecordingListener();
+        AsyncSpanLifecycleListener listener = track(AsyncSpanLifecycleListener.newBuilder(delegate).build());
+        Tracer.getInstance().addSpanLifecycleListener(listener);
+
+        // when
+        Span span = Tracer.getInstance().startRequestWithRootSpan("root");
+        Tracer.getInstance().completeRequestSpan();
+        listener.shutdown(5, TimeUnit.SECONDS);
+
+        // then
+        assertThat(delegate.started).containsExactly(span);
+        assertThat(delegate.completed).containsExactly(span);
+        assertThat(delegate.completed.get(0).isCompleted()).isTrue();
+    }
+}
@@ -0,0 +1,156 @@
+package com.nike.wingtips.lifecyclelistener;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.sampling.ProbabilisticSamplingStrategy;
+import com.nike.wingtips.tags.KnownZipkinTags;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link LatencyAndErrorTailSamplingPolicy}.
+ */
+@RunWith(DataProviderRunner.class)
+public class LatencyAndErrorTailSamplingPolicyTest {
+
+    private Span span(long durationMillis, String tagKey, String tagValue) {
+        Span.Builder builder = Span.newBuilder("foo", SpanPurpose.SERVER)
+                                   .withDurationNanos(TimeUnit.MILLISECONDS.toNanos(durationMillis));
+        if (tagKey != null) {
+            builder.withTag(tagKey, tagValue);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void builder_uses_defaults() {
+        // when
+        LatencyAndErrorTailSamplingPolicy policy = LatencyAndErrorTailSamplingPolicy.newBuilder().build();
+
+        // then
+        assertThat(policy.getLatencyThresholdNanos()).isEqualTo(Long.MAX_VALUE);
+        assertThat(policy.isKeepErroredTraces()).isTrue();
+        assertThat(policy.getMinStatusCodeToKeep())
+            .isEqualTo(LatencyAndErrorTailSamplingPolicy.DEFAULT_MIN_STATUS_CODE_TO_KEEP);
+        assertThat(policy.getNormalTraceProbability()).isEqualTo(0.0d);
+    }
+
+    @Test
+    public void builder_validates_arguments() {
+        // given
+        LatencyAndErrorTailSamplingPolicy.Builder builder = LatencyAndErrorTailSamplingPolicy.newBuilder();
+
+        // expect
+        assertThat(catchThrowable(() -> builder.withLatencyThreshold(0, TimeUnit.SECONDS)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> builder.withLatencyThreshold(1, null)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> builder.withNormalTraceProbability(-0.1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> builder.withNormalTraceProbability(1.1)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DataProvider(value = {
+        // Latency
+        "499    |   null                |   null    |   false",
+        "500    |   null                |   null    |   true",
+        // Error tag
+        "1      |   error               |   true    |   true",
+        "1      |   error               |   ''      |   true",
+        // Status code tag
+        "1      |   http.status_code    |   200     |   false",
+        "1      |   http.status_code    |   499     |   false",
+        "1      |   http.status_code    |   500     |   true",
+        "1      |   http.status_code    |   503     |   true",
+        "1      |   http.status_code    |   garbage |   false",
+        // Other tags don't matter
+        "1      |   foo                 |   bar     |   false"
+    }, splitBy = "\\|")
+    @Test
+    public void shouldKeepTrace_keeps_slow_errored_and_server_error_traces(
+        long durationMillis, String tagKey, String tagValue, boolean expectedResult
+    ) {
+        // given
+        LatencyAndErrorTailSamplingPolicy policy = LatencyAndErrorTailSamplingPolicy
+            .newBuilder()
+            .withLatencyThreshold(500, TimeUnit.MILLISECONDS)
+            .build();
+        Span interestingSpan = span(durationMillis, tagKey, tagValue);
+        Span boringSpan = span(1, null, null);
+
+        // expect
+        assertThat(policy.shouldKeepTrace(boringSpan, Arrays.asList(interestingSpan, boringSpan)))
+            .isEqualTo(expectedResult);
+        assertThat(policy.shouldKeepTrace(null, Collections.singletonList(interestingSpan)))
+            .isEqualTo(expectedResult);
+    }
+
+    @Test
+    public void shouldKeepTrace_ignores_errors_and_status_codes_when_turned_off() {
+        // given
+        LatencyAndErrorTailSamplingPolicy policy = LatencyAndErrorTailSamplingPolicy
+            .newBuilder()
+            .withKeepErroredTraces(false)
+            .withMinStatusCodeToKeep(null)
+            .build();
+        Span span = Span.newBuilder("foo", SpanPurpose.SERVER)
+                        .withTag(KnownZipkinTags.ERROR, "true")
+                        .withTag(KnownZipkinTags.HTTP_STATUS_CODE, "500")
+                        .withDurationNanos(TimeUnit.HOURS.toNanos(1))
+                        .build();
+
+        // expect
+        assertThat(policy.shouldKeepTrace(span, Collections.singletonList(span))).isFalse();
+    }
+
+    @DataProvider(value = {
+        "0.0",
+        "0.01",
+        "0.5",
+        "1.0"
+    })
+    @Test
+    public void shouldKeepTrace_keeps_normal_traces_with_the_same_decision_as_ProbabilisticSamplingStrategy(
+        double probability
+    ) {
+        // given
+        LatencyAndErrorTailSamplingPolicy policy = LatencyAndErrorTailSamplingPolicy
+            .newBuilder()
+            .withNormalTraceProbability(probability)
+            .build();
+        ProbabilisticSamplingStrategy strategy = new ProbabilisticSamplingStrategy(probability);
+
+        for (int i = 0; i < 1000; i++) {
+            Span span = span(1, null, null);
+
+            // expect
+            assertThat(policy.shouldKeepTrace(span, Collections.singletonList(span)))
+                .isEqualTo(strategy.isTraceSampleable(span.getTraceId()));
+        }
+    }
+
+    @Test
+    public void shouldKeepTrace_handles_trace_ids_that_are_not_lowerhex() {
+        // given
+        LatencyAndErrorTailSamplingPolicy policy = LatencyAndErrorTailSamplingPolicy
+            .newBuilder()
+            .withNormalTraceProbability(1.0)
+            .build();
+        Span span = Span.newBuilder("foo", SpanPurpose.SERVER).withTraceId("not-a-hex-trace-id").build();
+
+        // expect
+        assertThat(policy.shouldKeepTrace(span, Collections.singletonList(span))).isTrue();
+    }
+}
@@ -0,0 +1,574 @@
+package com.nike.wingtips.lifecyclelistener;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.Tracer;
+import com.nike.wingtips.tags.KnownZipkinTags;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link TailSamplingSpanLifecycleListener}.
+ */
+public class TailSamplingSpanLifecycleListenerTest {
+
+    private final AtomicLong currentNanos = new AtomicLong(0);
+    private RecordingListener delegate;
+
+    private void resetTracing() {
+        MDC.clear();
+        Tracer.getInstance().unregisterFromThread();
+        Tracer.getInstance().removeAllSpanLifecycleListeners();
+    }
+
+    @Before
+    public void beforeMethod() {
+        resetTracing();
+        delegate = new RecordingListener();
+    }
+
+    @After
+    public void afterMethod() {
+        resetTracing();
+    }
+
+    private static class RecordingListener implements SpanLifecycleListener {
+        final List<Span> started = new ArrayList<>();
+        final List<Span> sampled = new ArrayList<>();
+        final List<Span> completed = new ArrayList<>();
+
+        @Override
+        public void spanStarted(Span span) {
+            started.add(span);
+        }
+
+        @Override
+        public void spanSampled(Span span) {
+            sampled.add(span);
+        }
+
+        @Override
+        public void spanCompleted(Span span) {
+            completed.add(span);
+        }
+    }
+
+    private static class RecordingBatchListener extends RecordingListener implements BatchSpanLifecycleListener {
+        final List<List<Span>> batches = new ArrayList<>();
+
+        @Override
+        public void spansCompleted(List<Span> spans) {
+            batches.add(new ArrayList<>(spans));
+        }
+    }
+
+    private TailSamplingSpanLifecycleListener.Builder builder(SpanLifecycleListener... delegates) {
+        return TailSamplingSpanLifecycleListener.newBuilder(delegates);
+    }
+
+    // A listener whose clock is controlled by currentNanos.
+    private TailSamplingSpanLifecycleListener listenerWithFakeClock(TailSamplingSpanLifecycleListener.Builder builder) {
+        return new TailSamplingSpanLifecycleListener(builder) {
+            @Override
+            protected long nanoTime() {
+                return currentNanos.get();
+            }
+        };
+    }
+
+    private Span rootSpan() {
+        return Span.newBuilder("root", SpanPurpose.SERVER).withDurationNanos(1000L).build();
+    }
+
+    private Span childSpan(Span parent, boolean errored) {
+        Span.Builder builder = Span.newBuilder(parent.generateChildSpan("child", SpanPurpose.CLIENT))
+                                   .withDurationNanos(1000L);
+        if (errored) {
+            builder.withTag(KnownZipkinTags.ERROR, "boom");
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void builder_uses_defaults() {
+        // when
+        TailSamplingSpanLifecycleListener listener = builder(delegate).build();
+
+        // then
+        assertThat(listener.getDelegates()).containsExactly(delegate);
+        assertThat(listener.getPolicy()).isInstanceOf(LatencyAndErrorTailSamplingPolicy.class);
+        assertThat(listener.getMaxBufferedTraces())
+            .isEqualTo(TailSamplingSpanLifecycleListener.DEFAULT_MAX_BUFFERED_TRACES);
+        assertThat(listener.getMaxSpansPerTrace())
+            .isEqualTo(TailSamplingSpanLifecycleListener.DEFAULT_MAX_SPANS_PER_TRACE);
+        assertThat(listener.getTraceTimeoutNanos())
+            .isEqualTo(TimeUnit.MILLISECONDS.toNanos(TailSamplingSpanLifecycleListener.DEFAULT_TRACE_TIMEOUT_MILLIS));
+        assertThat(listener.getBufferedTraceCount()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("ConstantConditions")
+    public void builder_validates_arguments() {
+        // given
+        TailSamplingSpanLifecycleListener.Builder builder = builder(delegate);
+
+        // expect
+        assertThat(catchThrowable(
+            () -> TailSamplingSpanLifecycleListener.newBuilder((List<SpanLifecycleListener>) null)
+        )).isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> builder(delegate, null))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> builder().build())).isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> builder.withPolicy(null))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> builder.withMaxBufferedTraces(0)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> builder.withMaxSpansPerTrace(0))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> builder.withTraceTimeout(0, TimeUnit.SECONDS)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> builder.withTraceTimeout(1, null)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void spanStarted_and_spanSampled_are_passed_through() {
+        // given
+        TailSamplingSpanLifecycleListener listener = builder(delegate).build();
+        Span span = rootSpan();
+
+        // when
+        listener.spanStarted(span);
+        listener.spanSampled(span);
+
+        // then
+        assertThat(delegate.started).containsExactly(span);
+        assertThat(delegate.sampled).containsExactly(span);
+        assertThat(delegate.completed).isEmpty();
+        assertThat(listener.getBufferedTraceCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void interesting_trace_is_forwarded_in_full_when_local_root_span_completes() {
+        // given
+        TailSamplingSpanLifecycleListener listener = builder(delegate).build();
+        Span root = rootSpan();
+        Span child = childSpan(root, true);
+        Span otherChild = childSpan(root, false);
+        listener.spanStarted(root);
+        listener.spanStarted(child);
+        listener.spanStarted(otherChild);
+
+        // when
+        listener.spanCompleted(child);
+        listener.spanCompleted(otherChild);
+
+        // then
+        assertThat(delegate.completed).isEmpty();
+
+        // and when
+        listener.spanCompleted(root);
+
+        // then
+        assertThat(delegate.completed).containsExactly(child, otherChild, root);
+        assertThat(listener.getKeptTraceCount()).isEqualTo(1);
+        assertThat(listener.getDroppedTraceCount()).isZero();
+        assertThat(listener.getBufferedTraceCount()).isZero();
+    }
+
+    @Test
+    public void uninteresting_trace_is_dropped_when_local_root_span_completes() {
+        // given
+        TailSamplingSpanLifecycleListener listener = builder(delegate).build();
+        Span root = rootSpan();
+        Span child = childSpan(root, false);
+        listener.spanStarted(root);
+        listener.spanStarted(child);
+
+        // when
+        listener.spanCompleted(child);
+        listener.spanCompleted(root);
+
+        // then
+        assertThat(delegate.completed).isEmpty();
+        assertThat(listener.getDroppedTraceCount()).isEqualTo(1);
+        assertThat(listener.getBufferedTraceCount()).isZero();
+    }
+
+    @Test
+    public void spans_completed_after_their_trace_was_decided_follow_the_decision() {
+        // given
+        TailSamplingSpanLifecycleListener listener = builder(delegate).build();
+        Span keptRoot = rootSpan();
+        Span keptLateChild = childSpan(keptRoot, false);
+        Span droppedRoot = rootSpan();
+        Span droppedLateChild = childSpan(droppedRoot, false);
+        for (Span span : new Span[]{keptRoot, keptLateChild, droppedRoot, droppedLateChild}) {
+            listener.spanStarted(span);
+        }
+        listener.spanCompleted(childSpan(keptRoot, true));
+        listener.spanCompleted(keptRoot);
+        listener.spanCompleted(droppedRoot);
+        delegate.completed.clear();
+
+        // when
+        listener.spanCompleted(keptLateChild);
+        listener.spanCompleted(droppedLateChild);
+
+        // then
+        assertThat(delegate.completed).containsExactly(keptLateChild);
+        assertThat(listener.getBufferedTraceCount()).isZero();
+    }
+
+    @Test
+    public void unsampled_spans_are_passed_straight_through_and_never_buffered() {
+        // given
+        TailSamplingSpanLifecycleListener listener = builder(delegate).build();
+        Span unsampled = Span.newBuilder("foo", SpanPurpose.SERVER).withSampleable(false).build();
+
+        // when
+        listener.spanStarted(unsampled);
+        listener.spanCompleted(unsampled);
+
+        // then
+        assertThat(delegate.completed).containsExactly(unsampled);
+        assertThat(listener.getBufferedTraceCount()).isZero();
+        assertThat(listener.getKeptTraceCount()).isZero();
+    }
+
+    @Test
+    public void span_for_a_trace_that_was_never_seen_starting_is_decided_on_its_own() {
+        // given
+        TailSamplingSpanLifecycleListener listener = builder(delegate).build();
+        Span root = rootSpan();
+        Span erroredChild = childSpan(root, true);
+
+        // when
+        listener.spanCompleted(erroredChild);
+
+        // then
+        assertThat(delegate.completed).containsExactly(erroredChild);
+        assertThat(listener.getKeptTraceCount()).isEqualTo(1);
+        assertThat(listener.getBufferedTraceCount()).isZero();
+    }
+
+    @Test
+    public void oldest_trace_is_decided_early_when_the_buffer_is_full() {
+        // given
+        TailSamplingSpanLifecycleListener listener = builder(delegate).withMaxBufferedTraces(2).build();
+        Span firstRoot = rootSpan();
+        Span firstErroredChild = childSpan(firstRoot, true);
+        Span secondRoot = rootSpan();
+        listener.spanStarted(firstRoot);
+        listener.spanStarted(firstErroredChild);
+        listener.spanCompleted(firstErroredChild);
+        listener.spanStarted(secondRoot);
+
+        // when
+        listener.spanStarted(rootSpan());
+
+        // then
+        assertThat(delegate.completed).containsExactly(firstErroredChild);
+        assertThat(listener.getEvictedTraceCount()).isEqualTo(1);
+        assertThat(listener.getBufferedTraceCount()).isEqualTo(2);
+
+        // and when
+        listener.spanCompleted(firstRoot);
+
+        // then
+        assertThat(delegate.completed).containsExactly(firstErroredChild, firstRoot);
+    }
+
+    @Test
+    public void trace_is_decided_early_when_its_local_root_span_does_not_complete_in_time() {
+        // given
+        TailSamplingSpanLifecycleListener listener = listenerWithFakeClock(
+            builder(delegate).withTraceTimeout(10, TimeUnit.SECONDS)
+        );
+        Span root = rootSpan();
+        Span erroredChild = childSpan(root, true);
+        listener.spanStarted(root);
+        listener.spanStarted(erroredChild);
+        listener.spanCompleted(erroredChild);
+        currentNanos.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        listener.spanStarted(rootSpan());
+
+        // expect
+        assertThat(delegate.completed).isEmpty();
+        assertThat(listener.getBufferedTraceCount()).isEqualTo(2);
+
+        // and when
+        currentNanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        listener.spanStarted(rootSpan());
+
+        // then
+        assertThat(delegate.completed).containsExactly(erroredChild);
+        assertThat(listener.getExpiredTraceCount()).isEqualTo(1);
+        assertThat(listener.getBufferedTraceCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void spans_beyond_maxSpansPerTrace_are_dropped_and_counted() {
+        // given
+        TailSamplingSpanLifecycleListener listener = builder(delegate).withMaxSpansPerTrace(2).build();
+        Span root = rootSpan();
+        Span erroredChild = childSpan(root, true);
+        Span otherChild = childSpan(root, false);
+        listener.spanStarted(root);
+
+        // when
+        listener.spanCompleted(erroredChild);
+        listener.spanCompleted(otherChild);
+        listener.spanCompleted(root);
+
+        // then
+        assertThat(delegate.completed).containsExactly(erroredChild, otherChild);
+        assertThat(listener.getOverflowSpanCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void trace_is_kept_if_policy_throws_exception() {
+        // given
+        TailSamplingSpanLifecycleListener listener = builder(delegate).withPolicy((localRootSpan, spans) -> {
+            throw new RuntimeException("intentional test exception");
+        }).build();
+        Span root = rootSpan();
+        listener.spanStarted(root);
+
+        // when
+        listener.spanCompleted(root);
+
+        // then
+        assertThat(delegate.completed).containsExactly(root);
+        assertThat(listener.getKeptTraceCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void policy_is_given_the_local_root_span_and_all_buffered_spans() {
+        // given
+        List<Object> policyArgs = new ArrayList<>();
+        TailSamplingSpanLifecycleListener listener = builder(delegate).withPolicy((localRootSpan, spans) -> {
+            policyArgs.add(localRootSpan);
+            policyArgs.add(new ArrayList<>(spans));
+            return false;
+        }).build();
+        Span root = rootSpan();
+        Span child = childSpan(root, false);
+        listener.spanStarted(root);
+        listener.spanStarted(child);
+
+        // when
+        listener.spanCompleted(child);
+        listener.spanCompleted(root);
+
+        // then
+        assertThat(policyArgs).containsExactly(root, asList(child, root));
+    }
+
+    @Test
+    public void batch_aware_delegates_receive_a_kept_trace_in_one_call_and_errors_are_counted() {
+        // given
+        RecordingBatchListener batchDelegate = new RecordingBatchListener();
+        SpanLifecycleListener explodingDelegate = new RecordingListener() {
+            @Override
+            public void spanCompleted(Span span) {
+                throw new RuntimeException("intentional test exception");
+            }
+        };
+        TailSamplingSpanLifecycleListener listener = builder(explodingDelegate, batchDelegate, delegate).build();
+        Span root = rootSpan();
+        Span erroredChild = childSpan(root, true);
+        listener.spanStarted(root);
+
+        // when
+        listener.spanCompleted(erroredChild);
+        listener.spanCompleted(root);
+
+        // then
+        assertThat(batchDelegate.batches).containsExactly(asList(erroredChild, root));
+        assertThat(batchDelegate.completed).isEmpty();
+        assertThat(delegate.completed).containsExactly(erroredChild, root);
+        assertThat(listener.getDelegateErrorCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void flush_decides_all_buffered_traces() {
+        // given
+        TailSamplingSpanLifecycleListener listener = builder(delegate).build();
+        Span root = rootSpan();
+        Span erroredChild = childSpan(root, true);
+        listener.spanStarted(root);
+        listener.spanCompleted(erroredChild);
+        listener.spanStarted(rootSpan());
+
+        // when
+        listener.flush();
+
+        // then
+        assertThat(delegate.completed).containsExactly(erroredChild);
+        assertThat(listener.getBufferedTraceCount()).isZero();
+        assertThat(listener.getKeptTraceCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void trace_decided_early_before_any_span_completed_is_kept_and_its_later_spans_follow_that_decision() {
+        // given
+        List<Span> localRootSpansGivenToPolicy = new ArrayList<>();
+        TailSamplingSpanLifecycleListener listener = builder(delegate).withMaxBufferedTraces(1).withPolicy(
+            (localRootSpan, spans) -> {
+                localRootSpansGivenToPolicy.add(localRootSpan);
+                return false;
+            }
+        ).build();
+        Span root = rootSpan();
+        Span child = childSpan(root, false);
+        listener.spanStarted(root);
+        listener.spanStarted(rootSpan());
+        assertThat(listener.getEvictedTraceCount()).isEqualTo(1);
+
+        // when
+        listener.spanStarted(child);
+        listener.spanCompleted(child);
+        listener.spanCompleted(root);
+
+        // then
+        assertThat(delegate.completed).containsExactly(child, root);
+        assertThat(localRootSpansGivenToPolicy).isEmpty();
+        assertThat(listener.getBufferedTraceCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void traces_completing_out_of_start_order_are_skipped_when_they_reach_the_head_of_the_queue() {
+        // given
+        TailSamplingSpanLifecycleListener listener = listenerWithFakeClock(
+            builder(delegate).withTraceTimeout(10, TimeUnit.SECONDS)
+        );
+        Span slowRoot = rootSpan();
+        Span slowErroredChild = childSpan(slowRoot, true);
+        Span fastRoot = rootSpan();
+        listener.spanStarted(slowRoot);
+        listener.spanStarted(fastRoot);
+        listener.spanCompleted(slowErroredChild);
+        listener.spanCompleted(fastRoot);
+
+        // expect
+        assertThat(listener.getDroppedTraceCount()).isEqualTo(1);
+        assertThat(listener.buffersInStartOrder).hasSize(2);
+
+        // and when
+        currentNanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        listener.spanStarted(rootSpan());
+
+        // then
+        assertThat(delegate.completed).containsExactly(slowErroredChild);
+        assertThat(listener.getExpiredTraceCount()).isEqualTo(1);
+        assertThat(listener.getDroppedTraceCount()).isEqualTo(1);
+        assertThat(listener.buffersInStartOrder).hasSize(1);
+    }
+
+    @Test
+    public void decided_traces_stuck_behind_a_long_running_trace_are_swept_out_of_the_queue() {
+        // given
+        int maxBufferedTraces = 4;
+        TailSamplingSpanLifecycleListener listener = builder(delegate).withMaxBufferedTraces(maxBufferedTraces).build();
+        listener.spanStarted(rootSpan());
+
+        // when
+        for (int i = 0; i < maxBufferedTraces; i++) {
+            Span root = rootSpan();
+            listener.spanStarted(root);
+            listener.spanCompleted(root);
+        }
+
+        // then
+        assertThat(listener.getDroppedTraceCount()).isEqualTo(maxBufferedTraces);
+        assertThat(listener.getBufferedTraceCount()).isEqualTo(1);
+        assertThat(listener.buffersInStartOrder).hasSize(1);
+    }
+
+    @Test
+    public void decided_trace_buffer_does_not_hold_on_to_its_spans() {
+        // given
+        TailSamplingSpanLifecycleListener listener = builder(delegate).build();
+        listener.spanStarted(rootSpan());
+        Span root = rootSpan();
+        listener.spanStarted(root);
+        listener.spanCompleted(childSpan(root, false));
+
+        // when
+        listener.spanCompleted(root);
+
+        // then
+        assertThat(listener.buffersInStartOrder).hasSize(2);
+        TailSamplingSpanLifecycleListener.TraceBuffer decidedBuffer =
+            new ArrayList<>(listener.buffersInStartOrder).get(1);
+        assertThat(decidedBuffer.decided).isTrue();
+        assertThat(decidedBuffer.spans).isEmpty();
+        assertThat(decidedBuffer.lateSpans).isEmpty();
+    }
+
+    @Test
+    public void recent_decision_cache_has_at_least_twice_as_many_slots_as_max_buffered_traces() {
+        // expect
+        assertThat(new TailSamplingSpanLifecycleListener.RecentDecisionCache(1).slotCount()).isEqualTo(2);
+        assertThat(new TailSamplingSpanLifecycleListener.RecentDecisionCache(3).slotCount()).isEqualTo(8);
+        assertThat(new TailSamplingSpanLifecycleListener.RecentDecisionCache(4).slotCount()).isEqualTo(8);
+    }
+
+    @Test
+    public void recent_decision_cache_only_returns_decisions_for_the_trace_that_was_asked_about() {
+        // given
+        TailSamplingSpanLifecycleListener.RecentDecisionCache cache =
+            new TailSamplingSpanLifecycleListener.RecentDecisionCache(1);
+        // "Aa" and "BB" have the same hash code, so they share a slot.
+        cache.put("Aa", true);
+
+        // expect
+        assertThat(cache.get("Aa")).isTrue();
+        assertThat(cache.get("BB")).isNull();
+
+        // and when
+        cache.put("BB", false);
+
+        // then
+        assertThat(cache.get("BB")).isFalse();
+        assertThat(cache.get("Aa")).isNull();
+    }
+
+    @Test
+    public void works_when_registered_with_Tracer() {
+        // given
+        Tracer.getInstance().addSpanLifecycleListener(builder(delegate).build());
+
+        // when
+        Span keptRoot = Tracer.getInstance().startRequestWithRootSpan("kept");
+        Span keptChild = Tracer.getInstance().startSubSpan("child", SpanPurpose.CLIENT);
+        keptChild.putTag(KnownZipkinTags.HTTP_STATUS_CODE, "503");
+        Tracer.getInstance().completeSubSpan();
+        Tracer.getInstance().completeRequestSpan();
+
+        Tracer.getInstance().startRequestWithRootSpan("dropped");
+        Tracer.getInstance().startSubSpan("child", SpanPurpose.CLIENT);
+        Tracer.getInstance().completeSubSpan();
+        Tracer.getInstance().completeRequestSpan();
+
+        // then
+        assertThat(delegate.completed).containsExactly(keptChild, keptRoot);
+        assertThat(delegate.started).hasSize(4);
+    }
+
+    private static List<Span> asList(Span... spans) {
+        List<Span> result = new ArrayList<>();
+        Collections.addAll(result, spans);
+        return result;
+    }
+}
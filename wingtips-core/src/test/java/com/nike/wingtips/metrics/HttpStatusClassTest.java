@@ -0,0 +1,58 @@
+package com.nike.wingtips.metrics;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the functionality of {@link HttpStatusClass}.
+ */
+@RunWith(DataProviderRunner.class)
+public class HttpStatusClassTest {
+
+    @DataProvider(value = {
+        "null       |   NONE",
+        "''         |   NONE",
+        "100        |   INFORMATIONAL",
+        "200        |   SUCCESS",
+        "302        |   REDIRECTION",
+        "404        |   CLIENT_ERROR",
+        "599        |   SERVER_ERROR",
+        "099        |   NONE",
+        "600        |   NONE",
+        "20         |   NONE",
+        "2000       |   NONE",
+        "2x0        |   NONE",
+        "garbage    |   NONE"
+    }, splitBy = "\\|")
+    @Test
+    public void fromStatusCodeTagValue_works_as_expected(String tagValue, HttpStatusClass expected) {
+        // expect
+        assertThat(HttpStatusClass.fromStatusCodeTagValue(tagValue)).isEqualTo(expected);
+    }
+
+    @Test
+    public void fromStatusCodeTagValue_ignores_surrounding_whitespace() {
+        // expect
+        assertThat(HttpStatusClass.fromStatusCodeTagValue(" 204\t")).isEqualTo(HttpStatusClass.SUCCESS);
+        assertThat(HttpStatusClass.fromStatusCodeTagValue("   ")).isEqualTo(HttpStatusClass.NONE);
+    }
+
+    @DataProvider(value = {
+        "NONE           |   none",
+        "INFORMATIONAL  |   1xx",
+        "SUCCESS        |   2xx",
+        "REDIRECTION    |   3xx",
+        "CLIENT_ERROR   |   4xx",
+        "SERVER_ERROR   |   5xx"
+    }, splitBy = "\\|")
+    @Test
+    public void getTagValue_works_as_expected(HttpStatusClass statusClass, String expected) {
+        // expect
+        assertThat(statusClass.getTagValue()).isEqualTo(expected);
+    }
+}
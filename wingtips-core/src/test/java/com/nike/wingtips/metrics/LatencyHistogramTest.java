@@ -0,0 +1,251 @@
+package com.nike.wingtips.metrics;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link LatencyHistogram}.
+ */
+@RunWith(DataProviderRunner.class)
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucket_boundaries_are_contiguous_and_consistent_with_bucketIndexForMicros() {
+        long expectedLowerBound = 0;
+        for (int i = 0; i < LatencyHistogram.NUM_BUCKETS; i++) {
+            // given
+            long lowerBound = LatencyHistogram.bucketLowerBoundMicros(i);
+            long upperBound = LatencyHistogram.bucketUpperBoundMicros(i);
+
+            // expect
+            assertThat(lowerBound).isEqualTo(expectedLowerBound);
+            assertThat(upperBound).isGreaterThanOrEqualTo(lowerBound);
+            assertThat(LatencyHistogram.bucketIndexForMicros(lowerBound)).isEqualTo(i);
+            assertThat(LatencyHistogram.bucketIndexForMicros(upperBound)).isEqualTo(i);
+            expectedLowerBound = upperBound + 1;
+        }
+        assertThat(expectedLowerBound - 1).isEqualTo(LatencyHistogram.MAX_TRACKABLE_MICROS);
+    }
+
+    @DataProvider(value = {
+        "-5                 |   0",
+        "0                  |   0",
+        "7                  |   7",
+        "8                  |   8",
+        "15                 |   15",
+        "16                 |   16",
+        "17                 |   16",
+        "1000000            |   -1",
+        "9223372036854775807|   -1"
+    }, splitBy = "\\|")
+    @Test
+    public void bucketIndexForMicros_works_as_expected(long micros, int expectedIndex) {
+        // given
+        int expected = (expectedIndex == -1) ? bucketIndexByLinearSearch(micros) : expectedIndex;
+
+        // expect
+        assertThat(LatencyHistogram.bucketIndexForMicros(micros)).isEqualTo(expected);
+    }
+
+    private int bucketIndexByLinearSearch(long micros) {
+        for (int i = 0; i < LatencyHistogram.NUM_BUCKETS; i++) {
+            if (micros <= LatencyHistogram.bucketUpperBoundMicros(i)) {
+                return i;
+            }
+        }
+        return LatencyHistogram.NUM_BUCKETS - 1;
+    }
+
+    @Test
+    public void bucket_relative_error_is_at_most_one_eighth() {
+        for (int i = LatencyHistogram.SUB_BUCKETS_PER_POWER_OF_TWO; i < LatencyHistogram.NUM_BUCKETS; i++) {
+            // given
+            double lowerBound = LatencyHistogram.bucketLowerBoundMicros(i);
+            double width = LatencyHistogram.bucketUpperBoundMicros(i) - lowerBound + 1;
+
+            // expect
+            assertThat(width / lowerBound).isLessThanOrEqualTo(0.125d);
+        }
+    }
+
+    @Test
+    public void percentiles_are_reported_as_bucket_upper_bounds() {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        // when
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        // then
+        assertThat(snapshot.getTotalCount()).isEqualTo(100);
+        long p50 = snapshot.getValueAtPercentileNanos(50);
+        long p99 = snapshot.getValueAtPercentileNanos(99);
+        long max = snapshot.getMaxValueNanos();
+        assertThat(p50).isBetween(TimeUnit.MILLISECONDS.toNanos(50), (long) (TimeUnit.MILLISECONDS.toNanos(50) * 1.125));
+        assertThat(p99).isBetween(TimeUnit.MILLISECONDS.toNanos(99), (long) (TimeUnit.MILLISECONDS.toNanos(99) * 1.125));
+        assertThat(max).isBetween(TimeUnit.MILLISECONDS.toNanos(100), (long) (TimeUnit.MILLISECONDS.toNanos(100) * 1.125));
+        assertThat(snapshot.getValueAtPercentileNanos(0)).isEqualTo(snapshot.getValueAtPercentileNanos(1));
+        assertThat(snapshot.getValueAtPercentileNanos(100)).isEqualTo(max);
+    }
+
+    @Test
+    public void empty_snapshot_reports_zeros() {
+        // when
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+        // then
+        assertThat(snapshot.getTotalCount()).isZero();
+        assertThat(snapshot.getValueAtPercentileNanos(99)).isZero();
+        assertThat(snapshot.getMaxValueNanos()).isZero();
+    }
+
+    @DataProvider(value = {
+        "-0.1",
+        "100.1",
+        "NaN"
+    })
+    @Test
+    public void getValueAtPercentileNanos_throws_IllegalArgumentException_for_invalid_percentile(double percentile) {
+        // when
+        Throwable ex = catchThrowable(() -> new LatencyHistogram().snapshot().getValueAtPercentileNanos(percentile));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void huge_values_are_counted_in_the_last_bucket() {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // when
+        histogram.recordNanos(Long.MAX_VALUE);
+
+        // then
+        assertThat(histogram.snapshot().getBucketCount(LatencyHistogram.NUM_BUCKETS - 1)).isEqualTo(1);
+    }
+
+    @Test
+    public void snapshotAndReset_resets_the_histogram() {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(42_000);
+        histogram.recordNanos(42_000);
+
+        // when
+        LatencyHistogram.Snapshot first = histogram.snapshotAndReset();
+        LatencyHistogram.Snapshot second = histogram.snapshotAndReset();
+
+        // then
+        assertThat(first.getTotalCount()).isEqualTo(2);
+        assertThat(first.getBucketCount(LatencyHistogram.bucketIndexForMicros(42))).isEqualTo(2);
+        assertThat(second.getTotalCount()).isZero();
+    }
+
+    @Test
+    public void recordNanos_does_not_lose_values_under_concurrency() throws InterruptedException {
+        // given
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final int numThreads = 8;
+        final int valuesPerThread = 10_000;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    startLatch.await();
+                }
+                catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                for (int i = 0; i < valuesPerThread; i++) {
+                    histogram.recordNanos(i * 1000L);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        // when
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // then
+        assertThat(histogram.snapshot().getTotalCount()).isEqualTo(numThreads * valuesPerThread);
+    }
+
+    @DataProvider(value = {
+        "0",
+        "-1",
+        "3",
+        "6"
+    })
+    @Test
+    public void constructor_throws_IllegalArgumentException_when_numStripes_is_not_a_positive_power_of_two(
+        int numStripes
+    ) {
+        // when
+        Throwable ex = catchThrowable(() -> new LatencyHistogram(numStripes));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DataProvider(value = {
+        "1  |   1",
+        "2  |   2",
+        "3  |   4",
+        "6  |   8",
+        "8  |   8",
+        "64 |   8"
+    }, splitBy = "\\|")
+    @Test
+    public void defaultNumStripes_rounds_up_to_a_power_of_two_and_caps_it(int availableProcessors, int expected) {
+        // expect
+        assertThat(LatencyHistogram.defaultNumStripes(availableProcessors)).isEqualTo(expected);
+        assertThat(new LatencyHistogram().numStripes).isBetween(1, LatencyHistogram.MAX_DEFAULT_NUM_STRIPES);
+    }
+
+    @Test
+    public void snapshots_add_together_the_counts_from_every_stripe() throws InterruptedException {
+        // given
+        final LatencyHistogram histogram = new LatencyHistogram(4);
+        int numThreads = 4;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            Thread thread = new Thread(() -> histogram.recordNanos(42_000));
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.start();
+            thread.join();
+        }
+        histogram.recordNanos(42_000);
+        int expectedBucket = LatencyHistogram.bucketIndexForMicros(42);
+
+        // when
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        LatencyHistogram.Snapshot resetSnapshot = histogram.snapshotAndReset();
+
+        // then
+        assertThat(snapshot.getBucketCount(expectedBucket)).isEqualTo(numThreads + 1);
+        assertThat(resetSnapshot.getBucketCount(expectedBucket)).isEqualTo(numThreads + 1);
+        assertThat(histogram.snapshot().getTotalCount()).isZero();
+    }
+}
@@ -0,0 +1,291 @@
+package com.nike.wingtips.metrics;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.Tracer;
+import com.nike.wingtips.metrics.SpanMetricsListener.SpanMetricsCreatedCallback;
+import com.nike.wingtips.tags.KnownZipkinTags;
+
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link SpanMetricsListener}, {@link SpanMetrics}, and {@link SpanMetricsSnapshot}.
+ */
+@RunWith(DataProviderRunner.class)
+public class SpanMetricsListenerTest {
+
+    private SpanMetricsListener listener;
+
+    @Before
+    public void beforeMethod() {
+        resetTracer();
+        listener = SpanMetricsListener.newBuilder().build();
+    }
+
+    @After
+    public void afterMethod() {
+        resetTracer();
+    }
+
+    private void resetTracer() {
+        Tracer.getInstance().completeRequestSpan();
+        Tracer.getInstance().removeAllSpanLifecycleListeners();
+    }
+
+    private Span completedSpan(String name, SpanPurpose purpose, long durationMillis, String statusCode, boolean error) {
+        Span.Builder builder = Span.newBuilder(name, purpose)
+                                   .withDurationNanos(TimeUnit.MILLISECONDS.toNanos(durationMillis));
+        if (statusCode != null) {
+            builder.withTag(KnownZipkinTags.HTTP_STATUS_CODE, statusCode);
+        }
+        if (error) {
+            builder.withTag(KnownZipkinTags.ERROR, "true");
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void builder_uses_defaults() {
+        // expect
+        assertThat(listener.getMaxDistinctSpanNames())
+            .isEqualTo(SpanMetricsListener.DEFAULT_MAX_DISTINCT_SPAN_NAMES);
+        assertThat(listener.getAllSpanMetrics()).isEmpty();
+        assertThat(listener.getOverflowedSpanCount()).isZero();
+    }
+
+    @Test
+    public void builder_validates_arguments() {
+        // expect
+        assertThat(catchThrowable(() -> SpanMetricsListener.newBuilder().withMaxDistinctSpanNames(0)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> listener.addSpanMetricsCreatedCallback(null)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void spanCompleted_aggregates_by_name_purpose_and_status_class() {
+        // when
+        listener.spanCompleted(completedSpan("GET /foo/{id}", SpanPurpose.SERVER, 10, "200", false));
+        listener.spanCompleted(completedSpan("GET /foo/{id}", SpanPurpose.SERVER, 30, "201", false));
+        listener.spanCompleted(completedSpan("GET /foo/{id}", SpanPurpose.SERVER, 50, "500", true));
+        listener.spanCompleted(completedSpan("GET /foo/{id}", SpanPurpose.CLIENT, 5, "200", false));
+        listener.spanCompleted(completedSpan("localWork", SpanPurpose.LOCAL_ONLY, 1, null, true));
+
+        // then
+        assertThat(listener.getAllSpanMetrics()).hasSize(4);
+
+        SpanMetrics serverSuccess = listener.getSpanMetrics(
+            "GET /foo/{id}", SpanPurpose.SERVER, HttpStatusClass.SUCCESS
+        );
+        assertThat(serverSuccess.getSpanName()).isEqualTo("GET /foo/{id}");
+        assertThat(serverSuccess.getSpanPurpose()).isEqualTo(SpanPurpose.SERVER);
+        assertThat(serverSuccess.getStatusClass()).isEqualTo(HttpStatusClass.SUCCESS);
+        assertThat(serverSuccess.getRequestCount()).isEqualTo(2);
+        assertThat(serverSuccess.getErrorCount()).isZero();
+        assertThat(serverSuccess.getTotalDurationNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(40));
+
+        SpanMetrics serverError = listener.getSpanMetrics(
+            "GET /foo/{id}", SpanPurpose.SERVER, HttpStatusClass.SERVER_ERROR
+        );
+        assertThat(serverError.getRequestCount()).isEqualTo(1);
+        assertThat(serverError.getErrorCount()).isEqualTo(1);
+
+        assertThat(
+            listener.getSpanMetrics("GET /foo/{id}", SpanPurpose.CLIENT, HttpStatusClass.SUCCESS).getRequestCount()
+        ).isEqualTo(1);
+
+        SpanMetrics local = listener.getSpanMetrics("localWork", SpanPurpose.LOCAL_ONLY, HttpStatusClass.NONE);
+        assertThat(local.getRequestCount()).isEqualTo(1);
+        assertThat(local.getErrorCount()).isEqualTo(1);
+
+        assertThat(listener.getSpanMetrics("nope", SpanPurpose.SERVER, HttpStatusClass.SUCCESS)).isNull();
+        assertThat(listener.getSpanMetrics("localWork", SpanPurpose.SERVER, HttpStatusClass.SUCCESS)).isNull();
+    }
+
+    @Test
+    public void spanCompleted_ignores_spans_that_are_not_completed() {
+        // given
+        Span span = Span.newBuilder("foo", SpanPurpose.SERVER).build();
+
+        // when
+        listener.spanStarted(span);
+        listener.spanSampled(span);
+        listener.spanCompleted(span);
+
+        // then
+        assertThat(listener.getAllSpanMetrics()).isEmpty();
+    }
+
+    @Test
+    public void new_span_names_overflow_once_max_distinct_span_names_is_reached() {
+        // given
+        listener = SpanMetricsListener.newBuilder().withMaxDistinctSpanNames(2).build();
+
+        // when
+        listener.spanCompleted(completedSpan("a", SpanPurpose.SERVER, 1, "200", false));
+        listener.spanCompleted(completedSpan("b", SpanPurpose.SERVER, 1, "200", false));
+        listener.spanCompleted(completedSpan("c", SpanPurpose.SERVER, 1, "200", false));
+        listener.spanCompleted(completedSpan("d", SpanPurpose.SERVER, 1, "200", false));
+        listener.spanCompleted(completedSpan("a", SpanPurpose.SERVER, 1, "200", false));
+
+        // then
+        assertThat(listener.getSpanMetrics("a", SpanPurpose.SERVER, HttpStatusClass.SUCCESS).getRequestCount())
+            .isEqualTo(2);
+        assertThat(listener.getSpanMetrics("c", SpanPurpose.SERVER, HttpStatusClass.SUCCESS)).isNull();
+        assertThat(
+            listener.getSpanMetrics(SpanMetricsListener.OVERFLOW_SPAN_NAME, SpanPurpose.SERVER, HttpStatusClass.SUCCESS)
+                    .getRequestCount()
+        ).isEqualTo(2);
+        assertThat(listener.getOverflowedSpanCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void snapshot_returns_cumulative_values_and_snapshotAndReset_returns_deltas() {
+        // given
+        listener.spanCompleted(completedSpan("foo", SpanPurpose.SERVER, 10, "200", false));
+        listener.spanCompleted(completedSpan("foo", SpanPurpose.SERVER, 20, "200", true));
+
+        // when
+        List<SpanMetricsSnapshot> firstReset = listener.snapshotAndReset();
+        listener.spanCompleted(completedSpan("foo", SpanPurpose.SERVER, 30, "200", false));
+        List<SpanMetricsSnapshot> secondReset = listener.snapshotAndReset();
+        List<SpanMetricsSnapshot> thirdReset = listener.snapshotAndReset();
+        List<SpanMetricsSnapshot> cumulative = listener.snapshot();
+
+        // then
+        assertThat(firstReset).hasSize(1);
+        SpanMetricsSnapshot first = firstReset.get(0);
+        assertThat(first.getSpanName()).isEqualTo("foo");
+        assertThat(first.getSpanPurpose()).isEqualTo(SpanPurpose.SERVER);
+        assertThat(first.getStatusClass()).isEqualTo(HttpStatusClass.SUCCESS);
+        assertThat(first.getRequestCount()).isEqualTo(2);
+        assertThat(first.getErrorCount()).isEqualTo(1);
+        assertThat(first.getTotalDurationNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(30));
+        assertThat(first.getMeanDurationNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(15));
+        assertThat(first.getLatencyHistogram().getTotalCount()).isEqualTo(2);
+
+        SpanMetricsSnapshot second = secondReset.get(0);
+        assertThat(second.getRequestCount()).isEqualTo(1);
+        assertThat(second.getErrorCount()).isZero();
+        assertThat(second.getLatencyHistogram().getTotalCount()).isEqualTo(1);
+        assertThat(second.getLatencyHistogram().getValueAtPercentileNanos(50))
+            .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(30));
+
+        SpanMetricsSnapshot third = thirdReset.get(0);
+        assertThat(third.getRequestCount()).isZero();
+        assertThat(third.getMeanDurationNanos()).isZero();
+        assertThat(third.getLatencyHistogram().getTotalCount()).isZero();
+
+        SpanMetricsSnapshot total = cumulative.get(0);
+        assertThat(total.getRequestCount()).isEqualTo(3);
+        assertThat(total.getErrorCount()).isEqualTo(1);
+        assertThat(total.getTotalDurationNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(60));
+        assertThat(total.getLatencyHistogram().getTotalCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void callbacks_are_notified_once_per_new_SpanMetrics_and_exceptions_are_ignored() {
+        // given
+        List<SpanMetrics> created = new ArrayList<>();
+        listener.addSpanMetricsCreatedCallback(spanMetrics -> {
+            throw new RuntimeException("intentional test exception");
+        });
+        listener.addSpanMetricsCreatedCallback(created::add);
+
+        // when
+        listener.spanCompleted(completedSpan("foo", SpanPurpose.SERVER, 1, "200", false));
+        listener.spanCompleted(completedSpan("foo", SpanPurpose.SERVER, 1, "204", false));
+        listener.spanCompleted(completedSpan("foo", SpanPurpose.SERVER, 1, "404", false));
+
+        // then
+        assertThat(created).hasSize(2);
+        assertThat(created.get(0).getStatusClass()).isEqualTo(HttpStatusClass.SUCCESS);
+        assertThat(created.get(1).getStatusClass()).isEqualTo(HttpStatusClass.CLIENT_ERROR);
+        assertThat(created.get(0).getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void works_as_a_Tracer_lifecycle_listener() {
+        // given
+        Tracer.getInstance().addSpanLifecycleListener(listener);
+
+        // when
+        Span span = Tracer.getInstance().startRequestWithRootSpan("root");
+        span.putTag(KnownZipkinTags.HTTP_STATUS_CODE, "503");
+        Tracer.getInstance().completeRequestSpan();
+
+        // then
+        SpanMetrics metrics = listener.getSpanMetrics("root", SpanPurpose.SERVER, HttpStatusClass.SERVER_ERROR);
+        assertThat(metrics.getRequestCount()).isEqualTo(1);
+        assertThat(metrics.getTotalDurationNanos()).isEqualTo(span.getDurationNanos());
+    }
+
+    @Test
+    public void spanCompleted_does_not_lose_counts_under_concurrency() throws InterruptedException {
+        // given
+        final int numThreads = 8;
+        final int spansPerThread = 5_000;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final List<SpanMetrics> created = new ArrayList<>();
+        listener.addSpanMetricsCreatedCallback(spanMetrics -> {
+            synchronized (created) {
+                created.add(spanMetrics);
+            }
+        });
+        final Span okSpan = completedSpan("foo", SpanPurpose.SERVER, 1, "200", false);
+        final Span errorSpan = completedSpan("foo", SpanPurpose.SERVER, 1, "200", true);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    startLatch.await();
+                }
+                catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                for (int i = 0; i < spansPerThread; i++) {
+                    listener.spanCompleted((i % 2 == 0) ? okSpan : errorSpan);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        // when
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // then
+        SpanMetrics metrics = listener.getSpanMetrics("foo", SpanPurpose.SERVER, HttpStatusClass.SUCCESS);
+        assertThat(created).containsExactly(metrics);
+        assertThat(metrics.getRequestCount()).isEqualTo(numThreads * spansPerThread);
+        assertThat(metrics.getErrorCount()).isEqualTo(numThreads * spansPerThread / 2);
+        assertThat(metrics.snapshot().getLatencyHistogram().getTotalCount()).isEqualTo(numThreads * spansPerThread);
+    }
+
+    @Test
+    public void SpanMetrics_constructor_validates_arguments() {
+        // expect
+        assertThat(catchThrowable(() -> new SpanMetrics(null, SpanPurpose.SERVER, HttpStatusClass.NONE)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> new SpanMetrics("foo", null, HttpStatusClass.NONE)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> new SpanMetrics("foo", SpanPurpose.SERVER, null)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,172 @@
+package com.nike.wingtips.sampling;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.TraceAndSpanIdGenerator;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+/**
+ * Tests the functionality of {@link AdaptiveSamplingStrategy}.
+ */
+@RunWith(DataProviderRunner.class)
+public class AdaptiveSamplingStrategyTest {
+
+    private static final long INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static AdaptiveSamplingStrategy strategyWithClock(double targetSpansPerSecond,
+                                                              double initialProbability,
+                                                              AtomicLong clock) {
+        return new AdaptiveSamplingStrategy(targetSpansPerSecond, initialProbability, INTERVAL_NANOS) {
+            @Override
+            protected long nanoTime() {
+                return clock.get();
+            }
+        };
+    }
+
+    private static int simulateRootSpans(AdaptiveSamplingStrategy strategy, int numRootSpans, int spansPerTrace) {
+        int sampled = 0;
+        for (int i = 0; i < numRootSpans; i++) {
+            if (strategy.isRootSpanSampleable(TraceAndSpanIdGenerator.generate64BitRandomLong())) {
+                sampled++;
+                for (int j = 0; j < spansPerTrace; j++) {
+                    strategy.spanCompleted(Span.newBuilder("foo", null).withSampleable(true).build());
+                }
+            }
+        }
+        return sampled;
+    }
+
+    @Test
+    public void probability_converges_on_target_spans_per_second() {
+        // given
+        AtomicLong clock = new AtomicLong(0);
+        AdaptiveSamplingStrategy strategy = strategyWithClock(100, 1.0d, clock);
+
+        // when 10k root spans per second, each with 5 spans, for 20 seconds
+        int sampledInLastInterval = 0;
+        for (int second = 0; second < 20; second++) {
+            sampledInLastInterval = simulateRootSpans(strategy, 10_000, 5);
+            clock.addAndGet(INTERVAL_NANOS);
+        }
+
+        // then the strategy settles on sampling ~20 traces (100 spans) per second
+        assertThat(strategy.getProbability()).isBetween(0.0008d, 0.005d);
+        assertThat(sampledInLastInterval * 5).isBetween(25, 300);
+        assertThat(strategy.getTargetSpansPerSecond()).isEqualTo(100d);
+    }
+
+    @Test
+    public void probability_does_not_change_before_interval_elapses() {
+        // given
+        AtomicLong clock = new AtomicLong(0);
+        AdaptiveSamplingStrategy strategy = strategyWithClock(1, 1.0d, clock);
+
+        // when
+        simulateRootSpans(strategy, 1000, 1);
+        clock.addAndGet(INTERVAL_NANOS - 1);
+        simulateRootSpans(strategy, 1000, 1);
+
+        // then
+        assertThat(strategy.getProbability()).isEqualTo(1.0d);
+    }
+
+    @Test
+    public void probability_changes_by_at_most_the_max_factor_per_interval_and_recovers_when_traffic_drops() {
+        // given
+        AtomicLong clock = new AtomicLong(0);
+        AdaptiveSamplingStrategy strategy = strategyWithClock(1, 1.0d, clock);
+
+        // when
+        simulateRootSpans(strategy, 1000, 1);
+        clock.addAndGet(INTERVAL_NANOS);
+        // Long.MAX_VALUE is only sampled at probability 1.0, so these calls trigger adjustments without adding to
+        //      the sampled span count.
+        strategy.isRootSpanSampleable(Long.MAX_VALUE);
+
+        // then
+        assertThat(strategy.getProbability()).isEqualTo(0.5d);
+
+        // and when no traffic is sampled for a few intervals
+        for (int i = 0; i < 3; i++) {
+            clock.addAndGet(INTERVAL_NANOS);
+            strategy.isRootSpanSampleable(Long.MAX_VALUE);
+        }
+
+        // then
+        assertThat(strategy.getProbability()).isEqualTo(1.0d);
+    }
+
+    @Test
+    public void probability_never_drops_to_zero() {
+        // given
+        AtomicLong clock = new AtomicLong(0);
+        AdaptiveSamplingStrategy strategy = strategyWithClock(1, 0.0d, clock);
+
+        // when
+        clock.addAndGet(INTERVAL_NANOS);
+        strategy.isRootSpanSampleable(0);
+
+        // then
+        assertThat(strategy.getProbability()).isGreaterThan(0.0d);
+    }
+
+    @Test
+    public void spanCompleted_only_counts_sampled_spans_and_other_listener_methods_do_nothing() {
+        // given
+        AdaptiveSamplingStrategy strategy = new AdaptiveSamplingStrategy(10);
+        Span spanMock = mock(Span.class);
+
+        // when
+        strategy.spanStarted(spanMock);
+        strategy.spanSampled(spanMock);
+        strategy.spanCompleted(Span.newBuilder("foo", null).withSampleable(false).build());
+        strategy.spanCompleted(Span.newBuilder("foo", null).withSampleable(true).build());
+
+        // then
+        verifyZeroInteractions(spanMock);
+        assertThat(strategy.completedSampledSpanCounter.sum()).isEqualTo(1);
+        assertThat(strategy.getProbability()).isEqualTo(AdaptiveSamplingStrategy.DEFAULT_INITIAL_PROBABILITY);
+    }
+
+    @Test
+    public void isNextRootSpanSampleable_uses_current_probability() {
+        // given
+        AdaptiveSamplingStrategy strategy = new AdaptiveSamplingStrategy(10, 1.0d);
+
+        // expect
+        for (int i = 0; i < 100; i++) {
+            assertThat(strategy.isNextRootSpanSampleable()).isTrue();
+        }
+    }
+
+    @DataProvider(value = {
+        "0      |   0.5     |   1",
+        "-1     |   0.5     |   1",
+        "10     |   -0.1    |   1",
+        "10     |   1.1     |   1",
+        "10     |   0.5     |   0"
+    }, splitBy = "\\|")
+    @Test
+    public void constructor_throws_IllegalArgumentException_for_invalid_args(
+        double target, double initialProbability, long intervalNanos
+    ) {
+        // when
+        Throwable ex = catchThrowable(() -> new AdaptiveSamplingStrategy(target, initialProbability, intervalNanos));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+}
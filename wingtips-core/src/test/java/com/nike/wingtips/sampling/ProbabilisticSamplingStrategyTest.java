@@ -0,0 +1,138 @@
+package com.nike.wingtips.sampling;
+
+import com.nike.wingtips.TraceAndSpanIdGenerator;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests the functionality of {@link ProbabilisticSamplingStrategy}.
+ */
+@RunWith(DataProviderRunner.class)
+public class ProbabilisticSamplingStrategyTest {
+
+    @DataProvider(value = {
+        "0.0",
+        "0.01",
+        "0.25",
+        "0.5",
+        "0.9",
+        "1.0"
+    })
+    @Test
+    public void isRootSpanSampleable_samples_the_expected_percentage_of_random_trace_ids(double probability) {
+        // given
+        ProbabilisticSamplingStrategy strategy = new ProbabilisticSamplingStrategy(probability);
+        int numTraces = 100_000;
+        int numSampled = 0;
+
+        // when
+        for (int i = 0; i < numTraces; i++) {
+            if (strategy.isRootSpanSampleable(TraceAndSpanIdGenerator.generate64BitRandomLong())) {
+                numSampled++;
+            }
+        }
+
+        // then
+        assertThat((double) numSampled / numTraces).isCloseTo(probability, within(0.01d));
+        assertThat(strategy.getProbability()).isEqualTo(probability);
+    }
+
+    @Test
+    public void isRootSpanSampleable_is_deterministic_for_a_given_trace_id() {
+        // given
+        ProbabilisticSamplingStrategy strategy = new ProbabilisticSamplingStrategy(0.5d);
+        ProbabilisticSamplingStrategy otherStrategy = new ProbabilisticSamplingStrategy(0.5d);
+
+        for (int i = 0; i < 1000; i++) {
+            long traceId = TraceAndSpanIdGenerator.generate64BitRandomLong();
+
+            // when
+            boolean result = strategy.isRootSpanSampleable(traceId);
+
+            // then
+            assertThat(strategy.isRootSpanSampleable(traceId)).isEqualTo(result);
+            assertThat(otherStrategy.isRootSpanSampleable(traceId)).isEqualTo(result);
+        }
+    }
+
+    @DataProvider(value = {
+        "0      |   0.5     |   true",
+        "1      |   0.0     |   false",
+        "-1     |   0.5     |   true",
+        "9223372036854775807    |   1.0     |   true",
+        "9223372036854775807    |   0.99    |   false",
+        "-9223372036854775808   |   1.0     |   true",
+        "-9223372036854775808   |   0.99    |   false"
+    }, splitBy = "\\|")
+    @Test
+    public void isRootSpanSampleable_handles_edge_case_trace_ids(long traceId, double probability, boolean expected) {
+        // given
+        ProbabilisticSamplingStrategy strategy = new ProbabilisticSamplingStrategy(probability);
+
+        // expect
+        assertThat(strategy.isRootSpanSampleable(traceId)).isEqualTo(expected);
+    }
+
+    @Test
+    public void isTraceSampleable_matches_isRootSpanSampleable_for_64_and_128_bit_trace_ids() {
+        // given
+        ProbabilisticSamplingStrategy strategy = new ProbabilisticSamplingStrategy(0.5d);
+
+        for (int i = 0; i < 1000; i++) {
+            long traceId = TraceAndSpanIdGenerator.generate64BitRandomLong();
+            String traceIdHex = TraceAndSpanIdGenerator.longToUnsignedLowerHexString(traceId);
+            String traceId128Hex = TraceAndSpanIdGenerator.generateId() + traceIdHex;
+            boolean expected = strategy.isRootSpanSampleable(traceId);
+
+            // expect
+            assertThat(strategy.isTraceSampleable(traceIdHex)).isEqualTo(expected);
+            assertThat(strategy.isTraceSampleable(traceId128Hex)).isEqualTo(expected);
+        }
+    }
+
+    @DataProvider(value = {
+        "0.0    |   false",
+        "1.0    |   true"
+    }, splitBy = "\\|")
+    @Test
+    public void isNextRootSpanSampleable_works_for_extreme_probabilities(double probability, boolean expected) {
+        // given
+        ProbabilisticSamplingStrategy strategy = new ProbabilisticSamplingStrategy(probability);
+
+        for (int i = 0; i < 100; i++) {
+            // expect
+            assertThat(strategy.isNextRootSpanSampleable()).isEqualTo(expected);
+        }
+    }
+
+    @DataProvider(value = {
+        "-0.01",
+        "1.01",
+        "NaN"
+    })
+    @Test
+    public void constructor_throws_IllegalArgumentException_for_invalid_probability(double probability) {
+        // when
+        Throwable ex = catchThrowable(() -> new ProbabilisticSamplingStrategy(probability));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void isTraceSampleable_throws_IllegalArgumentException_for_null_trace_id() {
+        // when
+        Throwable ex = catchThrowable(() -> new ProbabilisticSamplingStrategy(0.5d).isTraceSampleable(null));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,121 @@
+package com.nike.wingtips.sampling;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link RateLimitingSamplingStrategy}.
+ */
+public class RateLimitingSamplingStrategyTest {
+
+    private static RateLimitingSamplingStrategy strategyWithClock(int tracesPerSecond, AtomicLong clock) {
+        return new RateLimitingSamplingStrategy(tracesPerSecond) {
+            @Override
+            protected long nanoTime() {
+                return clock.get();
+            }
+        };
+    }
+
+    private static int countSampled(RootSpanSamplingStrategy strategy, int attempts) {
+        int sampled = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (strategy.isNextRootSpanSampleable()) {
+                sampled++;
+            }
+        }
+        return sampled;
+    }
+
+    @Test
+    public void isNextRootSpanSampleable_allows_a_burst_of_one_second_worth_of_traces_then_refills_over_time() {
+        // given
+        AtomicLong clock = new AtomicLong(TimeUnit.DAYS.toNanos(1));
+        RateLimitingSamplingStrategy strategy = strategyWithClock(10, clock);
+
+        // expect
+        assertThat(countSampled(strategy, 100)).isEqualTo(10);
+
+        // and when
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+        // then
+        assertThat(countSampled(strategy, 100)).isEqualTo(5);
+
+        // and when an idle period longer than a second passes
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        // then the bucket is full again, but no fuller
+        assertThat(countSampled(strategy, 100)).isEqualTo(10);
+        assertThat(strategy.getTracesPerSecond()).isEqualTo(10);
+    }
+
+    @Test
+    public void isNextRootSpanSampleable_works_for_one_trace_per_second() {
+        // given
+        AtomicLong clock = new AtomicLong(0);
+        RateLimitingSamplingStrategy strategy = strategyWithClock(1, clock);
+
+        // expect
+        assertThat(countSampled(strategy, 10)).isEqualTo(1);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertThat(countSampled(strategy, 10)).isEqualTo(0);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertThat(countSampled(strategy, 10)).isEqualTo(1);
+    }
+
+    @Test
+    public void isNextRootSpanSampleable_never_samples_when_rate_is_zero() {
+        // given
+        RateLimitingSamplingStrategy strategy = new RateLimitingSamplingStrategy(0);
+
+        // expect
+        assertThat(countSampled(strategy, 100)).isZero();
+    }
+
+    @Test
+    public void isNextRootSpanSampleable_never_exceeds_budget_under_concurrency() throws Exception {
+        // given
+        AtomicLong clock = new AtomicLong(0);
+        RateLimitingSamplingStrategy strategy = strategyWithClock(1000, clock);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        try {
+            // when
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit((Callable<Integer>) () -> countSampled(strategy, 10_000)));
+            }
+            int totalSampled = 0;
+            for (Future<Integer> future : futures) {
+                totalSampled += future.get();
+            }
+
+            // then
+            assertThat(totalSampled).isEqualTo(1000);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void constructor_throws_IllegalArgumentException_for_negative_rate() {
+        // when
+        Throwable ex = catchThrowable(() -> new RateLimitingSamplingStrategy(-1));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,93 @@
+package com.nike.wingtips.sampling;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.nike.wingtips.sampling.RootSpanSamplingStrategyFactory.createRootSpanSamplingStrategy;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link RootSpanSamplingStrategyFactory}.
+ */
+@RunWith(DataProviderRunner.class)
+public class RootSpanSamplingStrategyFactoryTest {
+
+    @DataProvider(value = {
+        "null",
+        "",
+        "  ",
+        "all",
+        "ALL"
+    })
+    @Test
+    public void createRootSpanSamplingStrategy_returns_SampleAllTheThingsStrategy_for_blank_or_all(String name) {
+        // expect
+        assertThat(createRootSpanSamplingStrategy(name, null, null, null))
+            .isInstanceOf(SampleAllTheThingsStrategy.class);
+    }
+
+    @Test
+    public void createRootSpanSamplingStrategy_creates_configured_short_name_strategies() {
+        // when
+        RootSpanSamplingStrategy probabilistic = createRootSpanSamplingStrategy("PROBABILISTIC", 0.25d, null, null);
+        RootSpanSamplingStrategy rateLimited = createRootSpanSamplingStrategy("rate_limited", null, 42, null);
+        RootSpanSamplingStrategy adaptive = createRootSpanSamplingStrategy("Adaptive", null, null, 100d);
+        RootSpanSamplingStrategy adaptiveWithProbability =
+            createRootSpanSamplingStrategy("ADAPTIVE", 0.1d, null, 100d);
+
+        // then
+        assertThat(((ProbabilisticSamplingStrategy) probabilistic).getProbability()).isEqualTo(0.25d);
+        assertThat(((RateLimitingSamplingStrategy) rateLimited).getTracesPerSecond()).isEqualTo(42);
+        assertThat(((AdaptiveSamplingStrategy) adaptive).getTargetSpansPerSecond()).isEqualTo(100d);
+        assertThat(((AdaptiveSamplingStrategy) adaptive).getProbability())
+            .isEqualTo(AdaptiveSamplingStrategy.DEFAULT_INITIAL_PROBABILITY);
+        assertThat(((AdaptiveSamplingStrategy) adaptiveWithProbability).getProbability()).isEqualTo(0.1d);
+    }
+
+    @Test
+    public void createRootSpanSamplingStrategy_instantiates_fully_qualified_class_names() {
+        // expect
+        assertThat(createRootSpanSamplingStrategy(SampleAllTheThingsStrategy.class.getName(), null, null, null))
+            .isInstanceOf(SampleAllTheThingsStrategy.class);
+    }
+
+    @DataProvider(value = {
+        "PROBABILISTIC",
+        "RATE_LIMITED",
+        "ADAPTIVE",
+        "com.nike.wingtips.sampling.DoesNotExist",
+        "java.lang.Object"
+    })
+    @Test
+    public void createRootSpanSamplingStrategy_throws_IllegalArgumentException_for_missing_values_or_bad_class(
+        String name
+    ) {
+        // when
+        Throwable ex = catchThrowable(() -> createRootSpanSamplingStrategy(name, null, null, null));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void createRootSpanSamplingStrategy_throws_IllegalArgumentException_with_the_constructor_exception_as_cause() {
+        // when
+        Throwable ex = catchThrowable(() -> createRootSpanSamplingStrategy(ThrowingConstructorStrategy.class.getName(), null, null, null));
+
+        // then
+        assertThat(ex)
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasCauseExactlyInstanceOf(IllegalStateException.class);
+        assertThat(ex.getCause()).hasMessage("intentional test exception");
+    }
+
+    public static class ThrowingConstructorStrategy {
+        public ThrowingConstructorStrategy() {
+            throw new IllegalStateException("intentional test exception");
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.nike.wingtips.sampling;
+
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.sampling.RuleBasedSamplingStrategy.SamplingRule;
+import com.nike.wingtips.tags.HttpTagAndSpanNamingAdapter;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests the functionality of {@link RuleBasedSamplingStrategy}.
+ */
+@RunWith(DataProviderRunner.class)
+public class RuleBasedSamplingStrategyTest {
+
+    private Object request;
+    private HttpTagAndSpanNamingAdapter<Object, Object> adapterMock;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void beforeMethod() {
+        request = new Object();
+        adapterMock = mock(HttpTagAndSpanNamingAdapter.class);
+    }
+
+    private boolean isSampleable(RuleBasedSamplingStrategy strategy, String httpMethod, String path) {
+        doReturn(httpMethod).when(adapterMock).getRequestHttpMethod(request);
+        doReturn(path).when(adapterMock).getRequestPath(request);
+        return strategy.isRootSpanSampleable(42L, "someSpan", SpanPurpose.SERVER, request, adapterMock);
+    }
+
+    @DataProvider(value = {
+        "GET    |   /healthcheck        |   false",
+        "get    |   /healthcheck/deep   |   false",
+        "HEAD   |   /healthcheck        |   false",
+        "POST   |   /healthcheck        |   true",
+        "GET    |   /api/poll           |   false",
+        "POST   |   /api/poll           |   false",
+        "GET    |   /api/other          |   true",
+        "GET    |   null                |   true",
+        "null   |   /healthcheck        |   true",
+        "null   |   /api/poll           |   false"
+    }, splitBy = "\\|")
+    @Test
+    public void first_matching_rule_wins_and_fallback_is_used_when_nothing_matches(
+        String httpMethod, String path, boolean expected
+    ) {
+        // given
+        RuleBasedSamplingStrategy strategy = RuleBasedSamplingStrategy
+            .newBuilder()
+            .addProbabilityRule("GET", "/healthcheck", 0.0d)
+            .addProbabilityRule("head", "/healthcheck", 0.0d)
+            .addProbabilityRule(null, "/api/poll", 0.0d)
+            .build();
+
+        // expect
+        assertThat(isSampleable(strategy, httpMethod, path)).isEqualTo(expected);
+    }
+
+    @Test
+    public void rule_with_no_method_or_path_matches_everything_including_non_request_root_spans() {
+        // given
+        RuleBasedSamplingStrategy strategy = RuleBasedSamplingStrategy
+            .newBuilder()
+            .addProbabilityRule(null, null, 0.0d)
+            .build();
+
+        // expect
+        assertThat(isSampleable(strategy, "GET", "/foo")).isFalse();
+        assertThat(strategy.isRootSpanSampleable(42L)).isFalse();
+        assertThat(strategy.isNextRootSpanSampleable()).isFalse();
+    }
+
+    @Test
+    public void rules_requiring_method_or_path_do_not_match_root_spans_without_request_info() {
+        // given
+        RootSpanSamplingStrategy fallbackMock = mock(RootSpanSamplingStrategy.class);
+        doReturn(true).when(fallbackMock).isNextRootSpanSampleable();
+        RuleBasedSamplingStrategy strategy = RuleBasedSamplingStrategy
+            .newBuilder()
+            .addProbabilityRule("GET", null, 0.0d)
+            .addProbabilityRule(null, "/", 0.0d)
+            .withFallbackStrategy(fallbackMock)
+            .build();
+
+        // expect
+        assertThat(strategy.isRootSpanSampleable(42L, "someSpan", SpanPurpose.LOCAL_ONLY, null, null)).isTrue();
+        assertThat(strategy.isRootSpanSampleable(42L)).isTrue();
+        assertThat(strategy.getFallbackStrategy()).isSameAs(fallbackMock);
+    }
+
+    @Test
+    public void request_info_is_only_extracted_when_a_rule_needs_it() {
+        // given
+        RuleBasedSamplingStrategy pathOnlyStrategy = RuleBasedSamplingStrategy
+            .newBuilder()
+            .addProbabilityRule(null, "/healthcheck", 0.0d)
+            .build();
+
+        // when
+        pathOnlyStrategy.isRootSpanSampleable(42L, "someSpan", SpanPurpose.SERVER, request, adapterMock);
+
+        // then
+        verify(adapterMock).getRequestPath(request);
+        verify(adapterMock, never()).getRequestHttpMethod(any());
+    }
+
+    @Test
+    public void delegates_to_rule_and_fallback_strategies_with_as_much_info_as_they_accept() {
+        // given
+        RequestAwareRootSpanSamplingStrategy requestAwareMock = mock(RequestAwareRootSpanSamplingStrategy.class);
+        TraceIdAwareRootSpanSamplingStrategy traceIdAwareMock = mock(TraceIdAwareRootSpanSamplingStrategy.class);
+        RuleBasedSamplingStrategy strategy = RuleBasedSamplingStrategy
+            .newBuilder()
+            .addRule(null, "/request-aware", requestAwareMock)
+            .withFallbackStrategy(traceIdAwareMock)
+            .build();
+
+        // when
+        isSampleable(strategy, "GET", "/request-aware");
+        isSampleable(strategy, "GET", "/other");
+
+        // then
+        verify(requestAwareMock).isRootSpanSampleable(42L, "someSpan", SpanPurpose.SERVER, request, adapterMock);
+        verify(traceIdAwareMock).isRootSpanSampleable(42L);
+    }
+
+    @Test
+    public void addRateLimitedRule_creates_rate_limited_rule() {
+        // given
+        RuleBasedSamplingStrategy strategy = RuleBasedSamplingStrategy
+            .newBuilder()
+            .addRateLimitedRule("get", "/api/poll", 2)
+            .build();
+
+        // when
+        int sampled = 0;
+        for (int i = 0; i < 100; i++) {
+            if (isSampleable(strategy, "GET", "/api/poll")) {
+                sampled++;
+            }
+        }
+
+        // then
+        assertThat(sampled).isEqualTo(2);
+        SamplingRule rule = strategy.getRules().get(0);
+        assertThat(rule.getHttpMethod()).isEqualTo("GET");
+        assertThat(rule.getPathPrefix()).isEqualTo("/api/poll");
+        assertThat(rule.getStrategy()).isInstanceOf(RateLimitingSamplingStrategy.class);
+    }
+
+    @Test
+    public void default_fallback_is_SampleAllTheThingsStrategy() {
+        // expect
+        assertThat(RuleBasedSamplingStrategy.newBuilder().build().getFallbackStrategy())
+            .isInstanceOf(SampleAllTheThingsStrategy.class);
+    }
+
+    @Test
+    public void SamplingRule_constructor_throws_IllegalArgumentException_for_null_strategy() {
+        // when
+        Throwable ex = catchThrowable(() -> new SamplingRule("GET", "/foo", null));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -148,7 +148,9 @@ public class HttpTagAndSpanNamingStrategyTest {
         // then
         verify(implSpy).doHandleRequestTagging(spanMock, requestObjectMock, adapterMock);
         verifyNoMoreInteractions(implSpy);
-        verifyZeroInteractions(spanMock, requestObjectMock, adapterMock);
+        verify(spanMock).isPropagationOnly();
+        verifyNoMoreInteractions(spanMock);
+        verifyZeroInteractions(requestObjectMock, adapterMock);
     }
 
     @DataProvider(value = {
@@ -192,7 +194,22 @@ public class HttpTagAndSpanNamingStrategyTest {
         // then
         verify(implSpy).doHandleRequestTagging(spanMock, requestObjectMock, adapterMock);
         verifyNoMoreInteractions(implSpy);
-        verifyZeroInteractions(spanMock, requestObjectMock, adapterMock);
+        verify(spanMock).isPropagationOnly();
+        verifyNoMoreInteractions(spanMock);
+        verifyZeroInteractions(requestObjectMock, adapterMock);
+    }
+
+    @Test
+    public void handleRequestTagging_does_nothing_for_propagation_only_span() {
+        // given
+        doReturn(true).when(spanMock).isPropagationOnly();
+
+        // when
+        implSpy.handleRequestTagging(spanMock, requestObjectMock, adapterMock);
+
+        // then
+        verifyZeroInteractions(implSpy);
+        verifyZeroInteractions(requestObjectMock, adapterMock);
     }
 
     @Test
@@ -224,7 +241,9 @@ public class HttpTagAndSpanNamingStrategyTest {
             spanMock, requestObjectMock, responseObjectMock, errorMock, adapterMock
         );
         verifyNoMoreInteractions(implSpy);
-        verifyZeroInteractions(spanMock, requestObjectMock, responseObjectMock, errorMock, adapterMock);
+        verify(spanMock).isPropagationOnly();
+        verifyNoMoreInteractions(spanMock);
+        verifyZeroInteractions(requestObjectMock, responseObjectMock, errorMock, adapterMock);
     }
 
     @DataProvider(value = {
@@ -256,6 +275,21 @@ public class HttpTagAndSpanNamingStrategyTest {
         verifyZeroInteractions(requestObjectMock, responseObjectMock, errorMock);
     }
 
+    @Test
+    public void handleResponseTaggingAndFinalSpanName_does_nothing_for_propagation_only_span() {
+        // given
+        doReturn(true).when(spanMock).isPropagationOnly();
+
+        // when
+        implSpy.handleResponseTaggingAndFinalSpanName(
+            spanMock, requestObjectMock, responseObjectMock, errorMock, adapterMock
+        );
+
+        // then
+        verifyZeroInteractions(implSpy);
+        verifyZeroInteractions(requestObjectMock, responseObjectMock, errorMock, adapterMock);
+    }
+
     @Test
     public void handleResponseTaggingAndFinalSpanName_executes_other_two_delegates_when_doHandleResponseAndErrorTagging_throws_exception() {
         // given
@@ -286,7 +320,9 @@ public class HttpTagAndSpanNamingStrategyTest {
             spanMock, requestObjectMock, responseObjectMock, errorMock, adapterMock
         );
         verifyNoMoreInteractions(implSpy);
-        verifyZeroInteractions(spanMock, requestObjectMock, responseObjectMock, errorMock, adapterMock);
+        verify(spanMock).isPropagationOnly();
+        verifyNoMoreInteractions(spanMock);
+        verifyZeroInteractions(requestObjectMock, responseObjectMock, errorMock, adapterMock);
     }
 
     @Test
@@ -319,7 +355,9 @@ public class HttpTagAndSpanNamingStrategyTest {
             spanMock, requestObjectMock, responseObjectMock, errorMock, adapterMock
         );
         verifyNoMoreInteractions(implSpy);
-        verifyZeroInteractions(spanMock, requestObjectMock, responseObjectMock, errorMock, adapterMock);
+        verify(spanMock).isPropagationOnly();
+        verifyNoMoreInteractions(spanMock);
+        verifyZeroInteractions(requestObjectMock, responseObjectMock, errorMock, adapterMock);
     }
 
     @Test
@@ -352,7 +390,9 @@ public class HttpTagAndSpanNamingStrategyTest {
             spanMock, requestObjectMock, responseObjectMock, errorMock, adapterMock
         );
         verifyNoMoreInteractions(implSpy);
-        verifyZeroInteractions(spanMock, requestObjectMock, responseObjectMock, errorMock, adapterMock);
+        verify(spanMock).isPropagationOnly();
+        verifyNoMoreInteractions(spanMock);
+        verifyZeroInteractions(requestObjectMock, responseObjectMock, errorMock, adapterMock);
     }
 
     @Test
@@ -0,0 +1,177 @@
+package com.nike.wingtips.util;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link BoundedRingBuffer}.
+ */
+@RunWith(DataProviderRunner.class)
+public class BoundedRingBufferTest {
+
+    @DataProvider(value = {
+        "2          |   2",
+        "3          |   4",
+        "4          |   4",
+        "1000       |   1024",
+        "1073741824 |   1073741824"
+    }, splitBy = "\\|")
+    @Test
+    public void constructor_rounds_capacity_up_to_power_of_two(int requestedCapacity, int expectedCapacity) {
+        // expect
+        assertThat(BoundedRingBuffer.roundUpToPowerOfTwo(requestedCapacity)).isEqualTo(expectedCapacity);
+        if (requestedCapacity <= 1024) {
+            assertThat(new BoundedRingBuffer<String>(requestedCapacity).capacity()).isEqualTo(expectedCapacity);
+        }
+    }
+
+    @DataProvider(value = {
+        "-1",
+        "0",
+        "1",
+        "1073741825"
+    })
+    @Test
+    public void constructor_throws_IllegalArgumentException_for_bad_capacity(int requestedCapacity) {
+        // when
+        Throwable ex = catchThrowable(() -> new BoundedRingBuffer<String>(requestedCapacity));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void offer_throws_NullPointerException_for_null_element() {
+        // when
+        Throwable ex = catchThrowable(() -> new BoundedRingBuffer<String>(2).offer(null));
+
+        // then
+        assertThat(ex).isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    public void buffer_is_FIFO_rejects_offers_when_full_and_wraps_around() {
+        // given
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        List<Integer> polled = new ArrayList<>();
+
+        // when
+        for (int lap = 0; lap < 3; lap++) {
+            for (int i = 0; i < 4; i++) {
+                assertThat(buffer.offer((lap * 4) + i)).isTrue();
+            }
+            assertThat(buffer.offer(-1)).isFalse();
+            assertThat(buffer.size()).isEqualTo(4);
+
+            Integer element;
+            while ((element = buffer.poll()) != null) {
+                polled.add(element);
+            }
+            assertThat(buffer.isEmpty()).isTrue();
+        }
+
+        // then
+        assertThat(polled).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    public void drainTo_drains_up_to_max_elements() {
+        // given
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(8);
+        for (int i = 0; i < 5; i++) {
+            buffer.offer(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+
+        // when
+        int firstDrainCount = buffer.drainTo(drained, 3);
+        int secondDrainCount = buffer.drainTo(drained, 3);
+
+        // then
+        assertThat(firstDrainCount).isEqualTo(3);
+        assertThat(secondDrainCount).isEqualTo(2);
+        assertThat(drained).containsExactly(0, 1, 2, 3, 4);
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void concurrent_producers_and_consumers_see_every_element_exactly_once() throws Exception {
+        // given
+        final int numProducers = 4;
+        final int numConsumers = 2;
+        final int elementsPerProducer = 20000;
+        final BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(64);
+        final Set<Integer> consumed = Collections.synchronizedSet(new HashSet<Integer>());
+        final AtomicInteger duplicates = new AtomicInteger(0);
+        final AtomicInteger remainingToConsume = new AtomicInteger(numProducers * elementsPerProducer);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(numProducers + numConsumers);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int p = 0; p < numProducers; p++) {
+                final int producerNum = p;
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    for (int i = 0; i < elementsPerProducer; i++) {
+                        Integer element = (producerNum * elementsPerProducer) + i;
+                        while (!buffer.offer(element)) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int c = 0; c < numConsumers; c++) {
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    while (remainingToConsume.get() > 0) {
+                        Integer element = buffer.poll();
+                        if (element == null) {
+                            Thread.yield();
+                            continue;
+                        }
+                        if (!consumed.add(element)) {
+                            duplicates.incrementAndGet();
+                        }
+                        remainingToConsume.decrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            // when
+            startLatch.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        // then
+        assertThat(duplicates.get()).isEqualTo(0);
+        assertThat(consumed).hasSize(numProducers * elementsPerProducer);
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+}
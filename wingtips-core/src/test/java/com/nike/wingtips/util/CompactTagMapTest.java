@@ -0,0 +1,256 @@
+package com.nike.wingtips.util;
+
+import com.nike.wingtips.tags.KnownZipkinTags;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link CompactTagMap}.
+ */
+@RunWith(DataProviderRunner.class)
+public class CompactTagMapTest {
+
+    @Test
+    public void constructor_throws_IllegalArgumentException_for_negative_capacity() {
+        // when
+        Throwable ex = catchThrowable(() -> new CompactTagMap(-1));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DataProvider(value = {
+        "0",
+        "5",
+        "16",
+        "17",
+        "100"
+    })
+    @Test
+    public void behaves_like_LinkedHashMap_for_random_operations(int numDistinctKeys) {
+        // given
+        CompactTagMap map = new CompactTagMap(0);
+        Map<String, String> expected = new LinkedHashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 5000; i++) {
+            // Use new String instances so lookups can't get by on reference equality alone.
+            String key = (numDistinctKeys == 0) ? null : new String("key-" + random.nextInt(numDistinctKeys));
+            String value = (random.nextInt(10) == 0) ? null : "value-" + i;
+
+            // when
+            int op = random.nextInt(10);
+            if (op < 6) {
+                assertThat(map.put(key, value)).isEqualTo(expected.put(key, value));
+            }
+            else if (op < 9) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            }
+            else if (random.nextInt(20) == 0) {
+                map.clear();
+                expected.clear();
+            }
+
+            // then
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+            assertThat(map.containsKey(key)).isEqualTo(expected.containsKey(key));
+            assertThat(map.size()).isEqualTo(expected.size());
+        }
+
+        assertThat(map).isEqualTo(expected);
+        assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(new ArrayList<>(map.entrySet())).isEqualTo(new ArrayList<>(expected.entrySet()));
+    }
+
+    @Test
+    public void keeps_insertion_order_and_position_of_replaced_keys() {
+        // given
+        CompactTagMap map = new CompactTagMap();
+
+        // when
+        map.put("c", "1");
+        map.put("a", "2");
+        map.put("b", "3");
+        map.put("a", "4");
+        map.remove("c");
+        map.put("c", "5");
+
+        // then
+        assertThat(new ArrayList<>(map.keySet())).containsExactly("a", "b", "c");
+        assertThat(new ArrayList<>(map.values())).containsExactly("4", "3", "5");
+        for (int i = 0; i < map.size(); i++) {
+            assertThat(map.get(map.keyAt(i))).isEqualTo(map.valueAt(i));
+        }
+    }
+
+    @Test
+    public void switches_to_hash_index_above_threshold_and_back_below_it() {
+        // given
+        CompactTagMap map = new CompactTagMap();
+        for (int i = 0; i < CompactTagMap.HASH_INDEX_THRESHOLD; i++) {
+            map.put("key-" + i, "value-" + i);
+        }
+        assertThat(map.hashIndex).isNull();
+
+        // when
+        map.put("one-too-many", "foo");
+
+        // then
+        assertThat(map.hashIndex).isNotNull();
+        for (int i = 0; i < CompactTagMap.HASH_INDEX_THRESHOLD; i++) {
+            assertThat(map.get(new String("key-" + i))).isEqualTo("value-" + i);
+        }
+        assertThat(map.get("one-too-many")).isEqualTo("foo");
+
+        // and when
+        map.remove("key-0");
+
+        // then
+        assertThat(map.hashIndex).isNull();
+        assertThat(map.get("key-0")).isNull();
+        assertThat(map.get("one-too-many")).isEqualTo("foo");
+    }
+
+    @Test
+    public void put_stores_the_known_tag_constant_as_the_key() {
+        // given
+        CompactTagMap map = new CompactTagMap();
+        String equalButNotSameKey = new String(KnownZipkinTags.HTTP_STATUS_CODE);
+
+        // when
+        map.put(equalButNotSameKey, "200");
+
+        // then
+        assertThat(map.keyAt(0)).isSameAs(KnownZipkinTags.HTTP_STATUS_CODE);
+        assertThat(map.get(KnownZipkinTags.HTTP_STATUS_CODE)).isEqualTo("200");
+        assertThat(CompactTagMap.canonicalTagKey("not-a-known-tag")).isEqualTo("not-a-known-tag");
+        assertThat(CompactTagMap.canonicalTagKey(null)).isNull();
+    }
+
+    @Test
+    public void clear_keeps_the_allocated_arrays() {
+        // given
+        CompactTagMap map = new CompactTagMap();
+        map.put("foo", "bar");
+        String[] keysArray = map.keys;
+
+        // when
+        map.clear();
+
+        // then
+        assertThat(map).isEmpty();
+        assertThat(map.keys).isSameAs(keysArray);
+        assertThat(keysArray[0]).isNull();
+    }
+
+    @Test
+    public void entry_iterator_supports_remove_and_setValue_and_is_fail_fast() {
+        // given
+        CompactTagMap map = new CompactTagMap();
+        map.put("a", "1");
+        map.put("b", "2");
+        map.put("c", "3");
+
+        // when
+        Iterator<Map.Entry<String, String>> iterator = map.entrySet().iterator();
+        iterator.next().setValue("changed");
+        iterator.next();
+        iterator.remove();
+        List<String> remainingKeys = new ArrayList<>();
+        while (iterator.hasNext()) {
+            remainingKeys.add(iterator.next().getKey());
+        }
+
+        // then
+        assertThat(remainingKeys).containsExactly("c");
+        assertThat(map).containsExactly(entry("a", "changed"), entry("c", "3"));
+
+        // and when
+        Iterator<Map.Entry<String, String>> staleIterator = map.entrySet().iterator();
+        map.put("d", "4");
+        Throwable ex = catchThrowable(staleIterator::next);
+
+        // then
+        assertThat(ex).isInstanceOf(ConcurrentModificationException.class);
+    }
+
+    @Test
+    public void unmodifiableView_reflects_changes_but_cannot_be_modified() {
+        // given
+        CompactTagMap map = new CompactTagMap();
+        CompactTagMap.UnmodifiableView view = map.unmodifiableView();
+
+        // when
+        map.put("foo", "bar");
+
+        // then
+        assertThat(view).isEqualTo(map);
+        assertThat(view.keyAt(0)).isEqualTo("foo");
+        assertThat(view.valueAt(0)).isEqualTo("bar");
+        assertThat(catchThrowable(() -> view.put("a", "b"))).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(catchThrowable(() -> view.remove("foo"))).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(catchThrowable(view::clear)).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(catchThrowable(() -> view.entrySet().iterator().next().setValue("blah")))
+            .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(catchThrowable(() -> view.keySet().remove("foo")))
+            .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(map.get("foo")).isEqualTo("bar");
+    }
+
+    @Test
+    public void keyAt_and_valueAt_throw_IndexOutOfBoundsException_for_bad_index() {
+        // given
+        CompactTagMap map = new CompactTagMap();
+        map.put("foo", "bar");
+
+        // expect
+        assertThat(catchThrowable(() -> map.keyAt(1))).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThat(catchThrowable(() -> map.valueAt(-1))).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void is_serializable() throws Exception {
+        // given
+        CompactTagMap map = new CompactTagMap();
+        for (int i = 0; i < 20; i++) {
+            map.put("key-" + i, "value-" + i);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // when
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(map);
+        }
+        Object deserialized;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = in.readObject();
+        }
+
+        // then
+        assertThat(deserialized).isInstanceOf(CompactTagMap.class).isEqualTo(map);
+        assertThat(((CompactTagMap) deserialized).get("key-19")).isEqualTo("value-19");
+    }
+
+    private static Map.Entry<String, String> entry(String key, String value) {
+        return new java.util.AbstractMap.SimpleImmutableEntry<>(key, value);
+    }
+}
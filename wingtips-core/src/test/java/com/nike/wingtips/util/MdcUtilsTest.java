@@ -0,0 +1,143 @@
+package com.nike.wingtips.util;
+
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.MDC;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link MdcUtils}.
+ */
+@RunWith(DataProviderRunner.class)
+public class MdcUtilsTest {
+
+    @Before
+    public void beforeMethod() {
+        MDC.clear();
+    }
+
+    @After
+    public void afterMethod() {
+        MDC.clear();
+    }
+
+    @Test
+    public void code_coverage_hoops() {
+        // jump!
+        new MdcUtils();
+    }
+
+    @Test
+    public void getContextMapSnapshot_returns_null_when_MDC_has_no_context_map() {
+        // expect
+        assertThat(MdcUtils.getContextMapSnapshot()).isNull();
+    }
+
+    @Test
+    public void getContextMapSnapshot_returns_current_MDC_info() {
+        // given
+        MDC.put("foo", "bar");
+        MDC.put("baz", "bat");
+        Map<String, String> expected = new HashMap<>();
+        expected.put("foo", "bar");
+        expected.put("baz", "bat");
+
+        // when
+        Map<String, String> result = MdcUtils.getContextMapSnapshot();
+
+        // then
+        assertThat(result).isEqualTo(expected);
+        assertThat(result).isEqualTo(MDC.getCopyOfContextMap());
+    }
+
+    @Test
+    public void getContextMapSnapshot_is_not_affected_by_later_MDC_changes() {
+        // given
+        MDC.put("foo", "bar");
+        MDC.put("baz", "bat");
+        Map<String, String> expectedSnapshot = MDC.getCopyOfContextMap();
+        Map<String, String> snapshot = MdcUtils.getContextMapSnapshot();
+
+        // when
+        MDC.put("foo", "notbar");
+        MDC.put("newkey", "newvalue");
+        MDC.remove("baz");
+
+        // then
+        assertThat(snapshot).isEqualTo(expectedSnapshot);
+        assertThat(MDC.get("foo")).isEqualTo("notbar");
+
+        // and when
+        Map<String, String> secondSnapshot = MdcUtils.getContextMapSnapshot();
+        MDC.clear();
+        MDC.put("afterclear", "stuff");
+
+        // then
+        assertThat(snapshot).isEqualTo(expectedSnapshot);
+        assertThat(secondSnapshot).containsOnlyKeys("foo", "newkey");
+        assertThat(secondSnapshot.get("foo")).isEqualTo("notbar");
+    }
+
+    @Test
+    public void getContextMapSnapshot_is_not_affected_by_MDC_setContextMap() {
+        // given
+        MDC.put("foo", "bar");
+        Map<String, String> snapshot = MdcUtils.getContextMapSnapshot();
+        Map<String, String> newContextMap = new HashMap<>();
+        newContextMap.put("some", "othervalue");
+
+        // when
+        MDC.setContextMap(newContextMap);
+        MDC.put("foo", "notbar");
+
+        // then
+        assertThat(snapshot).containsOnlyKeys("foo");
+        assertThat(snapshot.get("foo")).isEqualTo("bar");
+    }
+
+    @Test
+    public void getContextMapSnapshot_returns_unmodifiable_map() {
+        // given
+        MDC.put("foo", "bar");
+        Map<String, String> snapshot = MdcUtils.getContextMapSnapshot();
+
+        // when
+        Throwable ex = catchThrowable(() -> snapshot.put("foo", "notbar"));
+
+        // then
+        assertThat(ex).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(MDC.get("foo")).isEqualTo("bar");
+    }
+
+    @Test
+    public void getContextMapSnapshot_can_be_used_to_restore_MDC_on_another_thread() throws InterruptedException {
+        // given
+        MDC.put("foo", "bar");
+        final Map<String, String> snapshot = MdcUtils.getContextMapSnapshot();
+        final Map<String, String> seenOnOtherThread = new HashMap<>();
+
+        // when
+        Thread thread = new Thread(() -> {
+            MDC.setContextMap(snapshot);
+            MDC.put("otherthread", "true");
+            seenOnOtherThread.putAll(MDC.getCopyOfContextMap());
+            MDC.clear();
+        });
+        thread.start();
+        thread.join();
+
+        // then
+        assertThat(seenOnOtherThread).containsOnlyKeys("foo", "otherthread");
+        assertThat(snapshot).containsOnlyKeys("foo");
+        assertThat(MDC.getCopyOfContextMap()).containsOnlyKeys("foo");
+    }
+}
@@ -0,0 +1,265 @@
+package com.nike.wingtips.util;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.testutil.Whitebox;
+
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link SpanStack}.
+ */
+@RunWith(DataProviderRunner.class)
+public class SpanStackTest {
+
+    private Span span(String name) {
+        return Span.newBuilder(name, SpanPurpose.LOCAL_ONLY).build();
+    }
+
+    private SpanStack stackOf(Span... spansBottomToTop) {
+        SpanStack stack = new SpanStack();
+        for (Span span : spansBottomToTop) {
+            stack.push(span);
+        }
+        return stack;
+    }
+
+    @Test
+    public void stack_behaves_like_LinkedList_for_the_Deque_operations_Tracer_uses() {
+        // given
+        Span root = span("root");
+        Span child = span("child");
+        Span grandchild = span("grandchild");
+        SpanStack stack = new SpanStack();
+        Deque<Span> linkedList = new LinkedList<>();
+
+        // when
+        for (Span span : Arrays.asList(root, child, grandchild)) {
+            stack.push(span);
+            linkedList.push(span);
+        }
+
+        // then
+        assertThat(stack).containsExactlyElementsOf(linkedList);
+        assertThat(stack).isEqualTo(linkedList);
+        assertThat(linkedList).isEqualTo(stack);
+        assertThat(stack.hashCode()).isEqualTo(linkedList.hashCode());
+        assertThat(stack.peek()).isSameAs(grandchild);
+        assertThat(stack.peekLast()).isSameAs(root);
+        assertThat(stack.size()).isEqualTo(3);
+        assertThat(stack.contains(child)).isTrue();
+        assertThat(stack.toString()).isEqualTo(linkedList.toString());
+
+        assertThat(stack.pop()).isSameAs(grandchild);
+        assertThat(stack.pop()).isSameAs(child);
+        assertThat(stack.pop()).isSameAs(root);
+        assertThat(stack.isEmpty()).isTrue();
+        assertThat(stack.peek()).isNull();
+        assertThat(stack.poll()).isNull();
+        assertThat(catchThrowable(stack::pop)).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    public void addLast_and_removeLast_work_on_the_bottom_of_the_stack() {
+        // given
+        Span root = span("root");
+        Span child = span("child");
+        Span newBottom = span("newBottom");
+        SpanStack stack = stackOf(root, child);
+
+        // when
+        stack.addLast(newBottom);
+
+        // then
+        assertThat(stack).containsExactly(child, root, newBottom);
+        assertThat(stack.removeLast()).isSameAs(newBottom);
+        assertThat(stack).containsExactly(child, root);
+    }
+
+    @Test
+    public void List_index_operations_count_down_from_the_top_of_the_stack() {
+        // given
+        Span root = span("root");
+        Span child = span("child");
+        Span inserted = span("inserted");
+        SpanStack stack = stackOf(root, child);
+
+        // when
+        stack.add(1, inserted);
+
+        // then
+        assertThat(stack.get(0)).isSameAs(child);
+        assertThat(stack.get(1)).isSameAs(inserted);
+        assertThat(stack.get(2)).isSameAs(root);
+        assertThat(stack.remove(1)).isSameAs(inserted);
+        assertThat(stack.set(0, inserted)).isSameAs(child);
+        assertThat(stack).containsExactly(inserted, root);
+        assertThat(catchThrowable(() -> stack.get(2))).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void iterators_support_remove() {
+        // given
+        Span root = span("root");
+        Span child = span("child");
+        Span grandchild = span("grandchild");
+        SpanStack stack = stackOf(root, child, grandchild);
+        SpanStack stack2 = stackOf(root, child, grandchild);
+
+        // when
+        Iterator<Span> topToBottom = stack.iterator();
+        topToBottom.next();
+        topToBottom.next();
+        topToBottom.remove();
+        List<Span> remainingFromTopToBottom = new ArrayList<>();
+        topToBottom.forEachRemaining(remainingFromTopToBottom::add);
+
+        Iterator<Span> bottomToTop = stack2.descendingIterator();
+        bottomToTop.next();
+        bottomToTop.remove();
+        List<Span> remainingFromBottomToTop = new ArrayList<>();
+        bottomToTop.forEachRemaining(remainingFromBottomToTop::add);
+
+        // then
+        assertThat(stack).containsExactly(grandchild, root);
+        assertThat(remainingFromTopToBottom).containsExactly(root);
+        assertThat(stack2).containsExactly(grandchild, child);
+        assertThat(remainingFromBottomToTop).containsExactly(child, grandchild);
+    }
+
+    @Test
+    public void snapshot_shares_backing_array_until_one_side_writes() {
+        // given
+        Span root = span("root");
+        Span child = span("child");
+        SpanStack original = stackOf(root, child);
+        Object originalArray = Whitebox.getInternalState(original, "elements");
+
+        // when
+        SpanStack snapshot = original.snapshot();
+
+        // then
+        assertThat(Whitebox.getInternalState(snapshot, "elements")).isSameAs(originalArray);
+        assertThat(snapshot).containsExactly(child, root);
+
+        // and when
+        Span originalNewChild = span("originalNewChild");
+        original.push(originalNewChild);
+        Span snapshotPopped = snapshot.pop();
+
+        // then
+        assertThat(Whitebox.getInternalState(original, "elements")).isNotSameAs(originalArray);
+        assertThat(original).containsExactly(originalNewChild, child, root);
+        assertThat(snapshotPopped).isSameAs(child);
+        assertThat(snapshot).containsExactly(root);
+
+        // and when
+        Span snapshotNewChild = span("snapshotNewChild");
+        snapshot.push(snapshotNewChild);
+
+        // then
+        assertThat(snapshot).containsExactly(snapshotNewChild, root);
+        assertThat(original).containsExactly(originalNewChild, child, root);
+    }
+
+    @Test
+    public void pop_on_shared_stack_does_not_affect_the_other_stack() {
+        // given
+        Span root = span("root");
+        Span child = span("child");
+        SpanStack original = stackOf(root, child);
+        SpanStack snapshot = original.snapshot();
+
+        // when
+        original.pop();
+        original.pop();
+
+        // then
+        assertThat(original).isEmpty();
+        assertThat(snapshot).containsExactly(child, root);
+    }
+
+    @Test
+    public void clear_keeps_unshared_backing_array_for_reuse_but_drops_shared_one() {
+        // given
+        SpanStack unshared = stackOf(span("root"), span("child"));
+        Object unsharedArray = Whitebox.getInternalState(unshared, "elements");
+        SpanStack shared = stackOf(span("root"), span("child"));
+        SpanStack sharedSnapshot = shared.snapshot();
+
+        // when
+        unshared.clear();
+        shared.clear();
+
+        // then
+        assertThat(unshared).isEmpty();
+        assertThat(Whitebox.getInternalState(unshared, "elements")).isSameAs(unsharedArray);
+        assertThat((Span[]) unsharedArray).containsOnlyNulls();
+        assertThat(shared).isEmpty();
+        assertThat(sharedSnapshot).hasSize(2);
+    }
+
+    @Test
+    public void stack_grows_beyond_initial_capacity() {
+        // given
+        SpanStack stack = new SpanStack();
+        List<Span> pushed = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < SpanStack.DEFAULT_INITIAL_CAPACITY * 3; i++) {
+            Span span = span("span-" + i);
+            pushed.add(0, span);
+            stack.push(span);
+        }
+
+        // then
+        assertThat(stack).containsExactlyElementsOf(pushed);
+        assertThat(stack.capacity()).isGreaterThanOrEqualTo(pushed.size());
+    }
+
+    @Test
+    public void copyOf_preserves_Deque_iteration_order() {
+        // given
+        Span root = span("root");
+        Span child = span("child");
+        Deque<Span> linkedList = new LinkedList<>();
+        linkedList.push(root);
+        linkedList.push(child);
+
+        // when
+        SpanStack copy = SpanStack.copyOf(linkedList);
+
+        // then
+        assertThat(copy).containsExactly(child, root);
+        assertThat(copy.peek()).isSameAs(child);
+        assertThat(SpanStack.copyOf(null)).isNull();
+    }
+
+    @Test
+    public void copyOf_a_SpanStack_returns_snapshot() {
+        // given
+        SpanStack original = stackOf(span("root"));
+
+        // when
+        SpanStack copy = SpanStack.copyOf(original);
+
+        // then
+        assertThat(copy).isNotSameAs(original).isEqualTo(original);
+        assertThat(Whitebox.getInternalState(copy, "elements"))
+            .isSameAs(Whitebox.getInternalState(original, "elements"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.nike.wingtips.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the functionality of {@link StripedCounter}.
+ */
+public class StripedCounterTest {
+
+    @Test
+    public void increment_and_add_are_reflected_in_sum() {
+        // given
+        StripedCounter counter = new StripedCounter();
+
+        // when
+        counter.increment();
+        counter.increment();
+        counter.add(40);
+        counter.add(-2);
+
+        // then
+        assertThat(counter.sum()).isEqualTo(40);
+        assertThat(counter.sum()).isEqualTo(40);
+    }
+
+    @Test
+    public void sumThenReset_returns_sum_and_resets_counter() {
+        // given
+        StripedCounter counter = new StripedCounter();
+        counter.add(42);
+
+        // when
+        long first = counter.sumThenReset();
+        long second = counter.sumThenReset();
+
+        // then
+        assertThat(first).isEqualTo(42);
+        assertThat(second).isZero();
+        assertThat(counter.sum()).isZero();
+    }
+
+    @Test
+    public void currentThreadStripe_stays_within_the_given_number_of_stripes() {
+        // expect
+        assertThat(StripedCounter.currentThreadStripe(1)).isZero();
+        assertThat(StripedCounter.currentThreadStripe(StripedCounter.NUM_CELLS))
+            .isEqualTo((int) (Thread.currentThread().getId() % StripedCounter.NUM_CELLS));
+    }
+
+    @Test
+    public void updates_are_not_lost_under_concurrency() throws InterruptedException {
+        // given
+        final StripedCounter counter = new StripedCounter();
+        final int numThreads = 8;
+        final int incrementsPerThread = 10_000;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    startLatch.await();
+                }
+                catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                for (int i = 0; i < incrementsPerThread; i++) {
+                    counter.increment();
+                    counter.add(2);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        // when
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // then
+        assertThat(counter.sum()).isEqualTo(3L * numThreads * incrementsPerThread);
+    }
+}
@@ -0,0 +1,476 @@
+package com.nike.wingtips.util.parser;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.Span.TimestampedAnnotation;
+import com.nike.wingtips.util.parser.SpanDeserializer.InputSlice;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+import com.tngtech.java.junit.dataprovider.UseDataProvider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.nike.wingtips.SpanTest.verifySpanDeepEquals;
+import static com.nike.wingtips.TestSpanCompleter.completeSpan;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link SpanDeserializer}. The exact JSON and key/value formats (including bad input
+ * handling) are covered by {@link SpanParserTest}, since {@link SpanParser} delegates to {@link SpanDeserializer}.
+ */
+@RunWith(DataProviderRunner.class)
+public class SpanDeserializerTest {
+
+    private enum InputType {
+        STRING,
+        STRING_BUILDER,
+        BYTE_ARRAY_SLICE,
+        HEAP_BYTE_BUFFER,
+        DIRECT_BYTE_BUFFER,
+        READ_ONLY_BYTE_BUFFER;
+
+        Span fromJson(String json) {
+            return parse(json, true);
+        }
+
+        Span fromKeyValueString(String keyValueStr) {
+            return parse(keyValueStr, false);
+        }
+
+        boolean visitJson(String json, SpanFieldVisitor visitor) {
+            return visit(json, true, visitor);
+        }
+
+        private Span parse(String input, boolean isJson) {
+            switch (this) {
+                case STRING:
+                    return (isJson)
+                           ? SpanDeserializer.fromJson(input)
+                           : SpanDeserializer.fromKeyValueString(input);
+                case STRING_BUILDER:
+                    return (isJson)
+                           ? SpanDeserializer.fromJson(new StringBuilder(input))
+                           : SpanDeserializer.fromKeyValueString(new StringBuilder(input));
+                case BYTE_ARRAY_SLICE:
+                    byte[] bytes = surroundedUtf8Bytes(input);
+                    return (isJson)
+                           ? SpanDeserializer.fromJsonUtf8(bytes, 3, bytes.length - 6)
+                           : SpanDeserializer.fromKeyValueStringUtf8(bytes, 3, bytes.length - 6);
+                default:
+                    ByteBuffer buffer = byteBuffer(input);
+                    Span result = (isJson)
+                                  ? SpanDeserializer.fromJsonUtf8(buffer)
+                                  : SpanDeserializer.fromKeyValueStringUtf8(buffer);
+                    assertThat(buffer.position()).isEqualTo(3);
+                    return result;
+            }
+        }
+
+        private boolean visit(String input, boolean isJson, SpanFieldVisitor visitor) {
+            switch (this) {
+                case STRING:
+                    return (isJson)
+                           ? SpanDeserializer.visitJson(input, visitor)
+                           : SpanDeserializer.visitKeyValueString(input, visitor);
+                case STRING_BUILDER:
+                    return (isJson)
+                           ? SpanDeserializer.visitJson(new StringBuilder(input), visitor)
+                           : SpanDeserializer.visitKeyValueString(new StringBuilder(input), visitor);
+                case BYTE_ARRAY_SLICE:
+                    byte[] bytes = surroundedUtf8Bytes(input);
+                    return (isJson)
+                           ? SpanDeserializer.visitJsonUtf8(bytes, 3, bytes.length - 6, visitor)
+                           : SpanDeserializer.visitKeyValueStringUtf8(bytes, 3, bytes.length - 6, visitor);
+                default:
+                    ByteBuffer buffer = byteBuffer(input);
+                    return (isJson)
+                           ? SpanDeserializer.visitJsonUtf8(buffer, visitor)
+                           : SpanDeserializer.visitKeyValueStringUtf8(buffer, visitor);
+            }
+        }
+
+        private static byte[] surroundedUtf8Bytes(String input) {
+            return ("xyz" + input + "xyz").getBytes(StandardCharsets.UTF_8);
+        }
+
+        private ByteBuffer byteBuffer(String input) {
+            byte[] bytes = surroundedUtf8Bytes(input);
+            ByteBuffer buffer = (this == DIRECT_BYTE_BUFFER)
+                                ? ByteBuffer.allocateDirect(bytes.length)
+                                : ByteBuffer.allocate(bytes.length);
+            buffer.put(bytes);
+            buffer.position(3);
+            buffer.limit(bytes.length - 3);
+            return (this == READ_ONLY_BYTE_BUFFER) ? buffer.asReadOnlyBuffer() : buffer;
+        }
+    }
+
+    private static class RecordingVisitor extends SpanFieldVisitor {
+        final List<String> events = new ArrayList<>();
+        final List<Object> valueTypes = new ArrayList<>();
+        String stopAfterFieldName;
+
+        @Override
+        public boolean visitField(String fieldName, CharSequence value) {
+            events.add("field:" + fieldName + "=" + value);
+            valueTypes.add(value.getClass());
+            return !fieldName.equals(stopAfterFieldName);
+        }
+
+        @Override
+        public boolean visitTag(String tagKey, CharSequence tagValue) {
+            events.add("tag:" + tagKey + "=" + tagValue);
+            return true;
+        }
+
+        @Override
+        public boolean visitAnnotation(long timestampEpochMicros, CharSequence annotationValue) {
+            events.add("annotation:" + timestampEpochMicros + "=" + annotationValue);
+            return true;
+        }
+    }
+
+    private Span spanWithTagsAndAnnotations(String textValue, boolean completed) {
+        Span span = Span.newBuilder("span-" + textValue, SpanPurpose.CLIENT)
+                        .withParentSpanId("parent-" + textValue)
+                        .withUserId("user-" + textValue)
+                        .withTag("plainTag", "plainValue")
+                        .withTag("key= with, stuff\"\n" + textValue, "value-" + textValue)
+                        .withTimestampedAnnotation(TimestampedAnnotation.forEpochMicros(42, "annot-" + textValue))
+                        .withTimestampedAnnotation(TimestampedAnnotation.forEpochMicros(43, "plainAnnotation"))
+                        .build();
+        if (completed) {
+            completeSpan(span);
+        }
+        return span;
+    }
+
+    @Test
+    public void code_coverage_hoops() {
+        // jump!
+        new SpanDeserializer();
+    }
+
+    @DataProvider
+    public static Object[][] inputTypeAndTextValueDataProvider() {
+        String[] textValues = {
+            "plain ascii",
+            "quote\" backslash\\ newline\n tab\t ctrl\u0001",
+            "two byte \u00e9\u00f1 three byte \u4e2d\u6587 four byte \ud83d\ude00"
+        };
+        List<Object[]> result = new ArrayList<>();
+        for (InputType inputType : InputType.values()) {
+            for (String textValue : textValues) {
+                for (boolean completed : new boolean[]{ true, false }) {
+                    result.add(new Object[]{ inputType, textValue, completed });
+                }
+            }
+        }
+        return result.toArray(new Object[0][]);
+    }
+
+    @UseDataProvider("inputTypeAndTextValueDataProvider")
+    @Test
+    public void all_input_types_round_trip_json_and_key_value_formats(
+        InputType inputType, String textValue, boolean completed
+    ) {
+        // given
+        Span span = spanWithTagsAndAnnotations(textValue, completed);
+
+        // when
+        Span fromJson = inputType.fromJson(span.toJSON());
+        Span fromKeyValue = inputType.fromKeyValueString(span.toKeyValueString());
+
+        // then
+        verifySpanDeepEquals(fromJson, span, true);
+        verifySpanDeepEquals(fromKeyValue, span, true);
+    }
+
+    @DataProvider
+    public static Object[][] inputTypeAndGarbageDataProvider() {
+        String[][] garbageInputs = {
+            { "", "" },
+            { "{", "traceId" },
+            { "{\"traceId\":x}", "traceId=x" },
+            { "{\"traceId\":\"abc\"", "traceId=\"abc\"," },
+            { "{\"traceId\":\"abc\"}", "traceId=\"abc\"" },
+            { "{\"annotations\":[{\"value\":\"foo\"}]}", "ts_annot_notANumber=\"foo\"" }
+        };
+        List<Object[]> result = new ArrayList<>();
+        for (InputType inputType : InputType.values()) {
+            for (String[] garbage : garbageInputs) {
+                result.add(new Object[]{ inputType, garbage[0], garbage[1] });
+            }
+        }
+        return result.toArray(new Object[0][]);
+    }
+
+    @UseDataProvider("inputTypeAndGarbageDataProvider")
+    @Test
+    public void all_input_types_return_null_for_garbage(
+        InputType inputType, String garbageJson, String garbageKeyValue
+    ) {
+        // expect
+        assertThat(inputType.fromJson(garbageJson)).isNull();
+        assertThat(inputType.fromKeyValueString(garbageKeyValue)).isNull();
+    }
+
+    @Test
+    public void null_input_returns_null_or_false() {
+        // given
+        RecordingVisitor visitor = new RecordingVisitor();
+
+        // expect
+        assertThat(SpanDeserializer.fromJson(null)).isNull();
+        assertThat(SpanDeserializer.fromJsonUtf8(null, 0, 0)).isNull();
+        assertThat(SpanDeserializer.fromJsonUtf8(null)).isNull();
+        assertThat(SpanDeserializer.fromKeyValueString(null)).isNull();
+        assertThat(SpanDeserializer.fromKeyValueStringUtf8(null, 0, 0)).isNull();
+        assertThat(SpanDeserializer.fromKeyValueStringUtf8(null)).isNull();
+        assertThat(SpanDeserializer.visitJson(null, visitor)).isFalse();
+        assertThat(SpanDeserializer.visitJsonUtf8(null, 0, 0, visitor)).isFalse();
+        assertThat(SpanDeserializer.visitJsonUtf8(null, visitor)).isFalse();
+        assertThat(SpanDeserializer.visitKeyValueString(null, visitor)).isFalse();
+        assertThat(SpanDeserializer.visitKeyValueStringUtf8(null, 0, 0, visitor)).isFalse();
+        assertThat(SpanDeserializer.visitKeyValueStringUtf8(null, visitor)).isFalse();
+        assertThat(visitor.events).isEmpty();
+    }
+
+    @Test
+    public void visit_throws_IllegalArgumentException_if_visitor_is_null() {
+        // when
+        Throwable ex = catchThrowable(() -> SpanDeserializer.visitJson("{}", null));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void byte_array_methods_throw_IndexOutOfBoundsException_for_bad_slice() {
+        // when
+        Throwable ex = catchThrowable(() -> SpanDeserializer.fromJsonUtf8(new byte[10], 5, 6));
+
+        // then
+        assertThat(ex).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @DataProvider(value = {
+        "STRING",
+        "STRING_BUILDER",
+        "BYTE_ARRAY_SLICE",
+        "HEAP_BYTE_BUFFER",
+        "DIRECT_BYTE_BUFFER",
+        "READ_ONLY_BYTE_BUFFER"
+    })
+    @Test
+    public void visitor_can_extract_ids_and_duration_and_stop_early_with_interned_field_names(InputType inputType) {
+        // given
+        Span span = spanWithTagsAndAnnotations("foo", true);
+        final List<String> fieldNamesSeen = new ArrayList<>();
+        final String[] extracted = new String[3];
+        SpanFieldVisitor visitor = new SpanFieldVisitor() {
+            @Override
+            public boolean visitField(String fieldName, CharSequence value) {
+                fieldNamesSeen.add(fieldName);
+                if (fieldName == SpanParser.TRACE_ID_FIELD) {
+                    extracted[0] = value.toString();
+                }
+                else if (fieldName == SpanParser.SPAN_ID_FIELD) {
+                    extracted[1] = value.toString();
+                }
+                else if (fieldName == SpanParser.DURATION_NANOS_FIELD) {
+                    extracted[2] = String.valueOf(SpanDeserializer.parseLong(value));
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public boolean visitTag(String tagKey, CharSequence tagValue) {
+                throw new AssertionError("Parsing should have stopped before the tags");
+            }
+        };
+
+        // when
+        boolean result = inputType.visitJson(span.toJSON(), visitor);
+
+        // then
+        assertThat(result).isTrue();
+        assertThat(extracted).containsExactly(
+            span.getTraceId(), span.getSpanId(), String.valueOf(span.getDurationNanos())
+        );
+        assertThat(fieldNamesSeen.get(fieldNamesSeen.size() - 1)).isSameAs(SpanParser.DURATION_NANOS_FIELD);
+    }
+
+    @Test
+    public void visitJson_reports_fields_tags_and_annotations_in_order_and_ignores_unknown_nested_values() {
+        // given
+        String json = "{\"traceId\":\"t1\",\"custom\\\"Field\":\"a\\\\z\",\"nested\":{\"x\":\"y\"},"
+                      + "\"list\":[{\"x\":\"y\"}],\"tags\":{\"k1\":\"v1\",\"k\\\"2\":\"v\\\"2\"},"
+                      + "\"annotations\":[{\"timestampEpochMicros\":\"7\",\"value\":\"a1\"},"
+                      + "{\"timestampEpochMicros\":\"8\"}],\"spanId\":\"s1\"}";
+        RecordingVisitor visitor = new RecordingVisitor();
+
+        // when
+        boolean result = SpanDeserializer.visitJson(json, visitor);
+
+        // then
+        assertThat(result).isTrue();
+        assertThat(visitor.events).containsExactly(
+            "field:traceId=t1",
+            "field:custom\"Field=a\\z",
+            "tag:k1=v1",
+            "tag:k\"2=v\"2",
+            "annotation:7=a1",
+            "annotation:8=null",
+            "field:spanId=s1"
+        );
+        // Values without escapes are views over the input, values with escapes had to be unescaped into a String.
+        assertThat(visitor.valueTypes).containsExactly(InputSlice.class, String.class, InputSlice.class);
+    }
+
+    @Test
+    public void visitKeyValueString_reports_fields_tags_and_annotations_in_order() {
+        // given
+        Span span = Span.newBuilder("someSpan", SpanPurpose.SERVER)
+                        .withTag("tag key", "tagValue")
+                        .withTimestampedAnnotation(TimestampedAnnotation.forEpochMicros(42, "annot"))
+                        .build();
+        RecordingVisitor visitor = new RecordingVisitor();
+
+        // when
+        boolean result = SpanDeserializer.visitKeyValueString(span.toKeyValueString(), visitor);
+
+        // then
+        assertThat(result).isTrue();
+        assertThat(visitor.events).contains(
+            "field:traceId=" + span.getTraceId(),
+            "field:parentSpanId=null",
+            "field:spanName=someSpan",
+            "tag:tag key=tagValue",
+            "annotation:42=annot"
+        );
+        assertThat(visitor.events.indexOf("tag:tag key=tagValue"))
+            .isLessThan(visitor.events.indexOf("annotation:42=annot"));
+    }
+
+    @DataProvider(value = {
+        "true",
+        "false"
+    })
+    @Test
+    public void visit_returns_false_for_malformed_input_but_true_if_visitor_stopped_before_it(boolean stopEarly) {
+        // given
+        String json = "{\"traceId\":\"t1\",\"spanId\":\"s1\"garbage";
+        RecordingVisitor visitor = new RecordingVisitor();
+        if (stopEarly) {
+            visitor.stopAfterFieldName = SpanParser.TRACE_ID_FIELD;
+        }
+
+        // when
+        boolean result = SpanDeserializer.visitJson(json, visitor);
+
+        // then
+        assertThat(result).isEqualTo(stopEarly);
+        assertThat(visitor.events.get(0)).isEqualTo("field:traceId=t1");
+    }
+
+    @Test
+    public void exceptions_thrown_by_visitor_are_propagated() {
+        // given
+        final IllegalStateException visitorEx = new IllegalStateException("intentional test exception");
+        SpanFieldVisitor visitor = new SpanFieldVisitor() {
+            @Override
+            public boolean visitField(String fieldName, CharSequence value) {
+                throw visitorEx;
+            }
+        };
+
+        // when
+        Throwable ex = catchThrowable(() -> SpanDeserializer.visitJson("{\"traceId\":\"t1\"}", visitor));
+
+        // then
+        assertThat(ex).isSameAs(visitorEx);
+    }
+
+    @Test
+    public void InputSlice_behaves_like_a_CharSequence() {
+        // given
+        final List<CharSequence> views = new ArrayList<>();
+        final List<String> copies = new ArrayList<>();
+        SpanDeserializer.visitJson("{\"traceId\":\"abcdef\"}", new SpanFieldVisitor() {
+            @Override
+            public boolean visitField(String fieldName, CharSequence value) {
+                views.add(value);
+                copies.add(value.subSequence(1, 4).toString());
+                return true;
+            }
+        });
+        CharSequence view = views.get(0);
+
+        // expect
+        assertThat(view).isInstanceOf(InputSlice.class);
+        assertThat(view.length()).isEqualTo(6);
+        assertThat(view.charAt(5)).isEqualTo('f');
+        assertThat(view.toString()).isEqualTo("abcdef");
+        assertThat(copies).containsExactly("bcd");
+        assertThat(catchThrowable(() -> view.charAt(6))).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThat(catchThrowable(() -> view.subSequence(4, 2))).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @DataProvider(value = {
+        "0",
+        "42",
+        "-42",
+        "+42",
+        "123456789012345678",
+        "9223372036854775807",
+        "-9223372036854775808"
+    })
+    @Test
+    public void parseLong_matches_Long_parseLong_for_valid_input(String value) {
+        // expect
+        assertThat(SpanDeserializer.parseLong(value)).isEqualTo(Long.parseLong(value));
+        assertThat(SpanDeserializer.parseLong(new StringBuilder(value))).isEqualTo(Long.parseLong(value));
+    }
+
+    @DataProvider(value = {
+        "",
+        "-",
+        "+",
+        "abc",
+        "12a",
+        "1.5",
+        "9223372036854775808"
+    }, trimValues = false)
+    @Test
+    public void parseLong_throws_NumberFormatException_for_invalid_input(String value) {
+        // when
+        Throwable ex = catchThrowable(() -> SpanDeserializer.parseLong(value));
+
+        // then
+        assertThat(ex).isInstanceOf(NumberFormatException.class);
+    }
+
+    @DataProvider(value = {
+        "null   |   true",
+        "NULL   |   false",
+        "nul    |   false",
+        "nulls  |   false",
+        "foo    |   false"
+    }, splitBy = "\\|")
+    @Test
+    public void isNullValue_works_as_expected(String value, boolean expected) {
+        // expect
+        assertThat(SpanDeserializer.isNullValue(value)).isEqualTo(expected);
+        assertThat(SpanDeserializer.isNullValue(null)).isTrue();
+    }
+}
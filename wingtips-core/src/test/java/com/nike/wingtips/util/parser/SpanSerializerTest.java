@@ -0,0 +1,287 @@
+package com.nike.wingtips.util.parser;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.Span.TimestampedAnnotation;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static com.nike.wingtips.SpanTest.verifySpanDeepEquals;
+import static com.nike.wingtips.TestSpanCompleter.completeSpan;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link SpanSerializer}. The exact JSON and key/value formats are covered by {@link
+ * SpanParserTest}, since {@link SpanParser} delegates to {@link SpanSerializer}.
+ */
+@RunWith(DataProviderRunner.class)
+public class SpanSerializerTest {
+
+    private static final String STRING_THAT_NEEDS_ESCAPING = "quote\" backslash\\ newline\n tab\t ctrl\u0001 done";
+    private static final String TAG_KEY_THAT_NEEDS_ESCAPING = "key= with, stuff\"\n";
+
+    private Span spanWithTagsAndAnnotations(String textValue, boolean completed) {
+        Span span = Span.newBuilder("span-" + textValue, SpanPurpose.CLIENT)
+                        .withParentSpanId("parent-" + textValue)
+                        .withUserId("user-" + textValue)
+                        .withTag("plainTag", "plainValue")
+                        .withTag(TAG_KEY_THAT_NEEDS_ESCAPING, "value-" + textValue)
+                        .withTimestampedAnnotation(TimestampedAnnotation.forEpochMicros(42, "annot-" + textValue))
+                        .build();
+        if (completed) {
+            completeSpan(span);
+        }
+        return span;
+    }
+
+    @Test
+    public void code_coverage_hoops() {
+        // jump!
+        new SpanSerializer();
+    }
+
+    @DataProvider(value = {
+        "true",
+        "false"
+    })
+    @Test
+    public void all_output_targets_produce_same_result_and_round_trip(boolean completed) throws IOException {
+        // given
+        Span span = spanWithTagsAndAnnotations(STRING_THAT_NEEDS_ESCAPING, completed);
+        String expectedJson = SpanSerializer.toJson(span);
+        String expectedKeyValue = SpanSerializer.toKeyValueString(span);
+
+        StringBuilder jsonSb = new StringBuilder("prefix:");
+        StringBuilder keyValueSb = new StringBuilder("prefix:");
+        StringWriter jsonWriter = new StringWriter();
+        StringWriter keyValueWriter = new StringWriter();
+        StringBuilder jsonSbViaAppendable = new StringBuilder();
+
+        // when
+        SpanSerializer.appendJson(span, jsonSb);
+        SpanSerializer.appendKeyValue(span, keyValueSb);
+        SpanSerializer.writeJson(span, jsonWriter);
+        SpanSerializer.writeKeyValue(span, keyValueWriter);
+        SpanSerializer.writeJson(span, (Appendable) jsonSbViaAppendable);
+
+        // then
+        assertThat(jsonSb.toString()).isEqualTo("prefix:" + expectedJson);
+        assertThat(keyValueSb.toString()).isEqualTo("prefix:" + expectedKeyValue);
+        assertThat(jsonWriter.toString()).isEqualTo(expectedJson);
+        assertThat(keyValueWriter.toString()).isEqualTo(expectedKeyValue);
+        assertThat(jsonSbViaAppendable.toString()).isEqualTo(expectedJson);
+
+        verifySpanDeepEquals(SpanParser.fromJSON(expectedJson), span, true);
+        verifySpanDeepEquals(SpanParser.fromKeyValueString(expectedKeyValue), span, true);
+    }
+
+    @DataProvider(value = {
+        "",
+        "plain ascii",
+        "quote\" backslash\\ newline\n tab\t ctrl\u0001 del\u007F",
+        "\"leading and trailing\\",
+        "unicode \u00e9\u4e2d\u6587"
+    }, splitBy = "\\|", trimValues = false)
+    @Test
+    public void appendEscapedJson_matches_escapeJson(String value) {
+        // given
+        StringBuilder sb = new StringBuilder();
+
+        // when
+        SpanSerializer.appendEscapedJson(value, sb);
+
+        // then
+        assertThat(sb.toString()).isEqualTo(SpanParser.escapeJson(value));
+    }
+
+    @Test
+    public void appendEscapedJson_appends_null_for_null_value() {
+        // expect
+        assertThat(SpanSerializer.appendEscapedJson(null, new StringBuilder()).toString()).isEqualTo("null");
+    }
+
+    @DataProvider(value = {
+        "plainkey",
+        "key=with=equals",
+        "key with spaces",
+        "key,with,commas",
+        "key\"with\\json\nescapes= and, everything"
+    }, splitBy = "\\|", trimValues = false)
+    @Test
+    public void appendEscapedTagKeyForKeyValueFormat_matches_escapeTagKeyForKeyValueFormatSerialization(String key) {
+        // given
+        StringBuilder sb = new StringBuilder();
+
+        // when
+        SpanSerializer.appendEscapedTagKeyForKeyValueFormat(key, sb);
+
+        // then
+        assertThat(sb.toString()).isEqualTo(SpanParser.escapeTagKeyForKeyValueFormatSerialization(key));
+    }
+
+    @DataProvider(value = {
+        "plain ascii",
+        "two byte \u00e9\u00f1",
+        "three byte \u4e2d\u6587",
+        "four byte \ud83d\ude00 emoji"
+    }, splitBy = "\\|")
+    @Test
+    public void writeJsonUtf8_and_writeKeyValueUtf8_write_UTF8_bytes(String textValue) {
+        // given
+        Span span = spanWithTagsAndAnnotations(textValue, true);
+        byte[] expectedJsonBytes = span.toJSON().getBytes(StandardCharsets.UTF_8);
+        byte[] expectedKeyValueBytes = span.toKeyValueString().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        buffer.put((byte) 'x');
+
+        // when
+        SpanSerializer.writeJsonUtf8(span, buffer);
+        int jsonEndPosition = buffer.position();
+        SpanSerializer.writeKeyValueUtf8(span, buffer);
+
+        // then
+        byte[] bytes = Arrays.copyOf(buffer.array(), buffer.position());
+        assertThat(bytes[0]).isEqualTo((byte) 'x');
+        assertThat(Arrays.copyOfRange(bytes, 1, jsonEndPosition)).isEqualTo(expectedJsonBytes);
+        assertThat(Arrays.copyOfRange(bytes, jsonEndPosition, bytes.length)).isEqualTo(expectedKeyValueBytes);
+    }
+
+    @DataProvider(value = {
+        "lone high \ud83d surrogate",
+        "lone low \ude00 surrogate",
+        "trailing high surrogate \ud83d"
+    }, splitBy = "\\|")
+    @Test
+    public void encodeUtf8_matches_String_getBytes_for_unpaired_surrogates(String value) {
+        // given
+        byte[] expected = value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+
+        // when
+        SpanSerializer.encodeUtf8(value, buffer);
+
+        // then
+        assertThat(buffer.position()).isEqualTo(expected.length);
+        assertThat(buffer.array()).isEqualTo(expected);
+        assertThat(SpanSerializer.utf8Length(value)).isEqualTo(expected.length);
+    }
+
+    @Test
+    public void writeJsonUtf8_throws_BufferOverflowException_and_writes_nothing_if_buffer_too_small() {
+        // given
+        Span span = spanWithTagsAndAnnotations("foo", true);
+        int jsonLength = span.toJSON().getBytes(StandardCharsets.UTF_8).length;
+        ByteBuffer buffer = ByteBuffer.allocate(jsonLength - 1);
+
+        // when
+        Throwable ex = catchThrowable(() -> SpanSerializer.writeJsonUtf8(span, buffer));
+
+        // then
+        assertThat(ex).isInstanceOf(BufferOverflowException.class);
+        assertThat(buffer.position()).isEqualTo(0);
+    }
+
+    @Test
+    public void reusable_buffer_is_reused_per_thread() {
+        // given
+        Span span = spanWithTagsAndAnnotations("foo", true);
+        SpanSerializer.toJson(span);
+        Object bufferAfterFirstCall = getReusableBufferThreadLocal().get();
+
+        // when
+        String json = SpanSerializer.toJson(span);
+        String keyValue = SpanSerializer.toKeyValueString(span);
+
+        // then
+        assertThat(bufferAfterFirstCall).isNotNull();
+        assertThat(getReusableBufferThreadLocal().get()).isSameAs(bufferAfterFirstCall);
+        assertThat(((StringBuilder) bufferAfterFirstCall).length()).isEqualTo(0);
+        assertThat(json).isEqualTo(span.toJSON());
+        assertThat(keyValue).isEqualTo(span.toKeyValueString());
+    }
+
+    @Test
+    public void reusable_buffer_is_discarded_if_it_grows_too_large() {
+        // given
+        StringBuilder hugeValue = new StringBuilder();
+        while (hugeValue.length() <= SpanSerializer.REUSABLE_BUFFER_MAX_RETAINED_CAPACITY) {
+            hugeValue.append("0123456789");
+        }
+        Span hugeSpan = spanWithTagsAndAnnotations(hugeValue.toString(), true);
+        SpanSerializer.toJson(spanWithTagsAndAnnotations("foo", true));
+        Object normalBuffer = getReusableBufferThreadLocal().get();
+
+        // when
+        String json = SpanSerializer.toJson(hugeSpan);
+
+        // then
+        assertThat(normalBuffer).isNotNull();
+        assertThat(json).startsWith("{").endsWith("}").contains(hugeValue);
+        assertThat(getReusableBufferThreadLocal().get()).isNull();
+
+        // and when
+        SpanSerializer.toJson(spanWithTagsAndAnnotations("foo", true));
+
+        // then
+        StringBuilder newBuffer = getReusableBufferThreadLocal().get();
+        assertThat(newBuffer).isNotNull().isNotSameAs(normalBuffer);
+        assertThat(newBuffer.capacity()).isLessThanOrEqualTo(SpanSerializer.REUSABLE_BUFFER_MAX_RETAINED_CAPACITY);
+    }
+
+    @Test
+    public void nested_use_of_reusable_buffer_does_not_corrupt_output() throws IOException {
+        // given
+        final Span outerSpan = spanWithTagsAndAnnotations("outer", true);
+        final Span innerSpan = spanWithTagsAndAnnotations("inner", true);
+        final StringBuilder collected = new StringBuilder();
+        Appendable appendableThatSerializesAnotherSpan = new Appendable() {
+            @Override
+            public Appendable append(CharSequence csq) {
+                // Serializing a span while the outer serialization still holds the thread's buffer.
+                collected.append(SpanSerializer.toJson(innerSpan)).append('|').append(csq);
+                return this;
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) {
+                return append(csq.subSequence(start, end));
+            }
+
+            @Override
+            public Appendable append(char c) {
+                return append(String.valueOf(c));
+            }
+        };
+
+        // when
+        SpanSerializer.writeJson(outerSpan, appendableThatSerializesAnotherSpan);
+
+        // then
+        assertThat(collected.toString()).isEqualTo(innerSpan.toJSON() + "|" + outerSpan.toJSON());
+    }
+
+    private ThreadLocal<StringBuilder> getReusableBufferThreadLocal() {
+        try {
+            Field reusableBufferField = SpanSerializer.class.getDeclaredField("reusableBuffer");
+            reusableBufferField.setAccessible(true);
+            //noinspection unchecked
+            return (ThreadLocal<StringBuilder>) reusableBufferField.get(null);
+        }
+        catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
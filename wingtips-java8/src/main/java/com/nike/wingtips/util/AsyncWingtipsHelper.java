@@ -146,7 +146,7 @@ public interface AsyncWingtipsHelper {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     @SuppressWarnings("deprecation")
     default Runnable runnableWithTracing(Runnable runnable) {
@@ -185,7 +185,7 @@ public interface AsyncWingtipsHelper {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     @SuppressWarnings("deprecation")
     default <U> Callable<U> callableWithTracing(Callable<U> callable) {
@@ -224,7 +224,7 @@ public interface AsyncWingtipsHelper {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     default <U> Supplier<U> supplierWithTracing(Supplier<U> supplier) {
         return new SupplierWithTracing<>(supplier);
@@ -258,7 +258,7 @@ public interface AsyncWingtipsHelper {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     default <T, U> Function<T, U> functionWithTracing(Function<T, U> fn) {
         return new FunctionWithTracing<>(fn);
@@ -292,7 +292,7 @@ public interface AsyncWingtipsHelper {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     default <T, U, R> BiFunction<T, U, R> biFunctionWithTracing(BiFunction<T, U, R> fn) {
         return new BiFunctionWithTracing<>(fn);
@@ -328,7 +328,7 @@ public interface AsyncWingtipsHelper {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     default <T> Consumer<T> consumerWithTracing(Consumer<T> consumer) {
         return new ConsumerWithTracing<>(consumer);
@@ -362,7 +362,7 @@ public interface AsyncWingtipsHelper {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     default <T, U> BiConsumer<T, U> biConsumerWithTracing(BiConsumer<T, U> biConsumer) {
         return new BiConsumerWithTracing<>(biConsumer);
@@ -398,7 +398,7 @@ public interface AsyncWingtipsHelper {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     default <T> Predicate<T> predicateWithTracing(Predicate<T> predicate) {
         return new PredicateWithTracing<>(predicate);
@@ -432,7 +432,7 @@ public interface AsyncWingtipsHelper {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     default <T, U> BiPredicate<T, U> biPredicateWithTracing(BiPredicate<T, U> biPredicate) {
         return new BiPredicateWithTracing<>(biPredicate);
@@ -152,7 +152,7 @@ public class AsyncWingtipsHelperStatic {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     public static Runnable runnableWithTracing(Runnable runnable) {
         return DEFAULT_IMPL.runnableWithTracing(runnable);
@@ -186,7 +186,7 @@ public class AsyncWingtipsHelperStatic {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     public static <U> Callable<U> callableWithTracing(Callable<U> callable) {
         return DEFAULT_IMPL.callableWithTracing(callable);
@@ -220,7 +220,7 @@ public class AsyncWingtipsHelperStatic {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     public static <U> Supplier<U> supplierWithTracing(Supplier<U> supplier) {
         return DEFAULT_IMPL.supplierWithTracing(supplier);
@@ -254,7 +254,7 @@ public class AsyncWingtipsHelperStatic {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     public static <T, U> Function<T, U> functionWithTracing(Function<T, U> fn) {
         return DEFAULT_IMPL.functionWithTracing(fn);
@@ -290,7 +290,7 @@ public class AsyncWingtipsHelperStatic {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     public static <T, U, R> BiFunction<T, U, R> biFunctionWithTracing(BiFunction<T, U, R> fn) {
         return DEFAULT_IMPL.biFunctionWithTracing(fn);
@@ -326,7 +326,7 @@ public class AsyncWingtipsHelperStatic {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     public static <T> Consumer<T> consumerWithTracing(Consumer<T> consumer) {
         return DEFAULT_IMPL.consumerWithTracing(consumer);
@@ -360,7 +360,7 @@ public class AsyncWingtipsHelperStatic {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     public static <T, U> BiConsumer<T, U> biConsumerWithTracing(BiConsumer<T, U> biConsumer) {
         return DEFAULT_IMPL.biConsumerWithTracing(biConsumer);
@@ -396,7 +396,7 @@ public class AsyncWingtipsHelperStatic {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     public static <T> Predicate<T> predicateWithTracing(Predicate<T> predicate) {
         return DEFAULT_IMPL.predicateWithTracing(predicate);
@@ -430,7 +430,7 @@ public class AsyncWingtipsHelperStatic {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     public static <T, U> BiPredicate<T, U> biPredicateWithTracing(BiPredicate<T, U> biPredicate) {
         return DEFAULT_IMPL.biPredicateWithTracing(biPredicate);
@@ -3,10 +3,9 @@ package com.nike.wingtips.util.asynchelperwrapper;
 import com.nike.internal.util.Pair;
 import com.nike.wingtips.Span;
 import com.nike.wingtips.Tracer;
+import com.nike.wingtips.util.MdcUtils;
 import com.nike.wingtips.util.TracingState;
 
-import org.slf4j.MDC;
-
 import java.util.Deque;
 import java.util.Map;
 import java.util.function.BiFunction;
@@ -27,7 +26,7 @@ public class BiFunctionWithTracing<T, U, R> implements BiFunction<T, U, R> {
 
     /**
      * Constructor that extracts the current tracing and MDC information from the current thread using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}, and forwards the information to
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}, and forwards the information to
      * the {@link BiFunctionWithTracing#BiFunctionWithTracing(BiFunction, Deque, Map)}
      * constructor. That tracing and MDC information will be associated with the thread when the given operation is
      * executed.
@@ -36,7 +35,7 @@ public class BiFunctionWithTracing<T, U, R> implements BiFunction<T, U, R> {
      * null for the operation).
      */
     public BiFunctionWithTracing(BiFunction<T, U, R> origBiFunction) {
-        this(origBiFunction, Tracer.getInstance().getCurrentSpanStackCopy(), MDC.getCopyOfContextMap());
+        this(origBiFunction, Tracer.getInstance().getCurrentSpanStackCopy(), MdcUtils.getContextMapSnapshot());
     }
 
     /**
@@ -87,8 +86,8 @@ public class BiFunctionWithTracing<T, U, R> implements BiFunction<T, U, R> {
      * Equivalent to calling {@code new BiFunctionWithTracing(origBiFunction)} - this allows you to do a static method
      * import for cleaner looking code in some cases. This method ultimately extracts the current tracing and MDC
      * information from the current thread using {@link Tracer#getCurrentSpanStackCopy()} and {@link
-     * MDC#getCopyOfContextMap()}. That tracing and MDC information will be associated with the thread when the given
-     * operation is executed.
+     * MdcUtils#getContextMapSnapshot()}. That tracing and MDC information will be associated with the thread when the
+     * given operation is executed.
      *
      * <p>The operation you pass in cannot be null (an {@link IllegalArgumentException} will be thrown if you pass in
      * null for the operation).
@@ -2,6 +2,7 @@ package com.nike.wingtips.lightstep;
 
 import com.nike.wingtips.Span;
 import com.nike.wingtips.TraceAndSpanIdGenerator;
+import com.nike.wingtips.lifecyclelistener.BatchSpanLifecycleListener;
 import com.nike.wingtips.lifecyclelistener.SpanLifecycleListener;
 
 import com.lightstep.tracer.jre.JRETracer;
@@ -13,6 +14,7 @@ import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -35,7 +37,7 @@ import static java.util.Objects.requireNonNull;
  */
 
 @SuppressWarnings("WeakerAccess")
-public class WingtipsToLightStepLifecycleListener implements SpanLifecycleListener {
+public class WingtipsToLightStepLifecycleListener implements BatchSpanLifecycleListener {
 
     // we borrowed the logging and exception log rate limiting from the Zipkin plugin.
     private final Logger lightStepToWingtipsLogger =
@@ -105,6 +107,29 @@ public class WingtipsToLightStepLifecycleListener implements SpanLifecycleListen
 
     @Override
     public void spanCompleted(Span wingtipsSpan) {
+        handleCompletedSpan(wingtipsSpan, null);
+    }
+
+    /**
+     * Converts and sends the given batch of spans in one pass. The end result is the same as calling {@link
+     * #spanCompleted(Span)} for each span. LightStep {@link SpanBuilder}s can't be reused once they've been started,
+     * so what's shared across the batch is the sanitized trace ID - spans in a batch frequently belong to the same
+     * trace, so a trace ID that needs sanitizing (potentially a SHA-256 hash) is only sanitized once for each run of
+     * spans from the same trace rather than once per span.
+     */
+    @Override
+    public void spansCompleted(List<Span> wingtipsSpans) {
+        SanitizedIdCache traceIdCache = new SanitizedIdCache();
+        for (Span wingtipsSpan : wingtipsSpans) {
+            handleCompletedSpan(wingtipsSpan, traceIdCache);
+        }
+    }
+
+    /**
+     * @param wingtipsSpan The completed span to convert and send to LightStep.
+     * @param traceIdCache The cache of the most recently sanitized trace ID, or null if there is no batch in progress.
+     */
+    protected void handleCompletedSpan(Span wingtipsSpan, SanitizedIdCache traceIdCache) {
         if (!shouldReportCompletedSpan(wingtipsSpan)) {
             return;
         }
@@ -119,10 +144,17 @@ public class WingtipsToLightStepLifecycleListener implements SpanLifecycleListen
             long stopTimeMicros = startTimeMicros + durationMicros;
 
             // Sanitize the wingtips trace/span/parent IDs if necessary. This guarantees we can convert them to
-            //      longs as required by LightStep.
-            String wtSanitizedSpanId = sanitizeIdIfNecessary(wingtipsSpan.getSpanId(), false);
-            String wtSanitizedTraceId = sanitizeIdIfNecessary(wingtipsSpan.getTraceId(), true);
-            String wtSanitizedParentId = sanitizeIdIfNecessary(wingtipsSpan.getParentSpanId(), false);
+            //      longs as required by LightStep. IDs that the wingtips span already carries in numeric form were
+            //      generated by Wingtips, so they're always valid and we can skip sanitizing and parsing them.
+            String wtSanitizedSpanId = (wingtipsSpan.hasNumericSpanId())
+                                       ? null
+                                       : sanitizeIdIfNecessary(wingtipsSpan.getSpanId(), false);
+            String wtSanitizedTraceId = (wingtipsSpan.hasNumericTraceId())
+                                        ? null
+                                        : sanitizeTraceIdIfNecessary(wingtipsSpan.getTraceId(), traceIdCache);
+            String wtSanitizedParentId = (wingtipsSpan.hasNumericParentSpanId())
+                                         ? null
+                                         : sanitizeIdIfNecessary(wingtipsSpan.getParentSpanId(), false);
 
             // Handle the common SpanBuilder settings.
             SpanBuilder lsSpanBuilder = (SpanBuilder) (
@@ -137,13 +169,20 @@ public class WingtipsToLightStepLifecycleListener implements SpanLifecycleListen
 
             // Force the LightStep span to have a Trace ID and Span ID matching the Wingtips span.
             //      NOTE: LightStep requires Ids to be longs, so we convert the sanitized wingtips trace/span IDs.
-            long lsSpanId = TraceAndSpanIdGenerator.unsignedLowerHexStringToLong(wtSanitizedSpanId);
-            long lsTraceId = TraceAndSpanIdGenerator.unsignedLowerHexStringToLong(wtSanitizedTraceId);
+            //      For 128-bit trace IDs only the lower 64 bits are used.
+            long lsSpanId = (wingtipsSpan.hasNumericSpanId())
+                            ? wingtipsSpan.getSpanIdAsLong()
+                            : TraceAndSpanIdGenerator.unsignedLowerHexStringToLong(wtSanitizedSpanId);
+            long lsTraceId = (wingtipsSpan.hasNumericTraceId())
+                             ? wingtipsSpan.getTraceIdLow()
+                             : TraceAndSpanIdGenerator.unsignedLowerHexStringToLong(wtSanitizedTraceId);
             lsSpanBuilder.withTraceIdAndSpanId(lsTraceId, lsSpanId);
 
             // Handle the parent ID / parent context SpanBuilder settings.
             if (wingtipsSpan.getParentSpanId() != null) {
-                long lsParentId = TraceAndSpanIdGenerator.unsignedLowerHexStringToLong(wtSanitizedParentId);
+                long lsParentId = (wingtipsSpan.hasNumericParentSpanId())
+                                  ? wingtipsSpan.getParentSpanIdAsLong()
+                                  : TraceAndSpanIdGenerator.unsignedLowerHexStringToLong(wtSanitizedParentId);
 
                 SpanContext lsSpanContext = new SpanContext(lsTraceId, lsParentId);
 
@@ -163,11 +202,11 @@ public class WingtipsToLightStepLifecycleListener implements SpanLifecycleListen
 
             // Add some custom boolean tags if any of the IDs had to be sanitized. The raw unsanitized ID will be
             //      available via the wingtips.*_id tags.
-            if (!wtSanitizedSpanId.equals(wingtipsSpan.getSpanId())) {
+            if (wtSanitizedSpanId != null && !wtSanitizedSpanId.equals(wingtipsSpan.getSpanId())) {
                 lsSpan.setTag("wingtips.span_id.invalid", true);
                 wingtipsSpan.putTag("sanitized_span_id", wtSanitizedSpanId);
             }
-            if (!wtSanitizedTraceId.equals(wingtipsSpan.getTraceId())) {
+            if (wtSanitizedTraceId != null && !wtSanitizedTraceId.equals(wingtipsSpan.getTraceId())) {
                 lsSpan.setTag("wingtips.trace_id.invalid", true);
                 wingtipsSpan.putTag("sanitized_trace_id", wtSanitizedTraceId);
             }
@@ -203,6 +242,30 @@ public class WingtipsToLightStepLifecycleListener implements SpanLifecycleListen
         }
     }
 
+    protected String sanitizeTraceIdIfNecessary(String originalTraceId, SanitizedIdCache traceIdCache) {
+        if (traceIdCache == null) {
+            return sanitizeIdIfNecessary(originalTraceId, true);
+        }
+
+        if (originalTraceId != null && originalTraceId.equals(traceIdCache.originalId)) {
+            return traceIdCache.sanitizedId;
+        }
+
+        String sanitizedTraceId = sanitizeIdIfNecessary(originalTraceId, true);
+        traceIdCache.originalId = originalTraceId;
+        traceIdCache.sanitizedId = sanitizedTraceId;
+        return sanitizedTraceId;
+    }
+
+    /**
+     * Remembers the last original-to-sanitized ID mapping seen while handling a batch of spans. Not thread-safe - a
+     * new instance is used for each batch.
+     */
+    protected static class SanitizedIdCache {
+        protected String originalId;
+        protected String sanitizedId;
+    }
+
     // TODO: The sanitization logic is a copy/paste from WingtipsToZipkinSpanConverterDefaultImpl. We should figure out
     //       a way to share the code. We could move it to wingtips-core, but this uses DigestUtils, and we don't want
     //       to add that dependency to wingtips-core.
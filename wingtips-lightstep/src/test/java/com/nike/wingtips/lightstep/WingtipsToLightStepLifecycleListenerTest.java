@@ -37,6 +37,8 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -334,6 +336,65 @@ public class WingtipsToLightStepLifecycleListenerTest {
         verifyNoInteractions(jreTracerMock, lsSpanBuilderMock);
     }
 
+    @Test
+    public void spansCompleted_converts_every_sampleable_span_and_keeps_going_past_failures() {
+        // given
+        Span notSampleableSpanMock = mock(Span.class);
+        doReturn(false).when(notSampleableSpanMock).isSampleable();
+        Span badSpan = Span.newBuilder("badSpan", Span.SpanPurpose.CLIENT).build();
+        badSpan.close();
+        Span goodSpan1 = Span.newBuilder("goodSpan1", Span.SpanPurpose.CLIENT).build();
+        goodSpan1.close();
+        Span goodSpan2 = Span.newBuilder("goodSpan2", Span.SpanPurpose.SERVER).build();
+        goodSpan2.close();
+        doThrow(new RuntimeException("intentional test exception")).when(jreTracerMock).buildSpan("badSpan");
+
+        // when
+        Throwable ex = catchThrowable(() -> listener.spansCompleted(
+            Arrays.asList(goodSpan1, notSampleableSpanMock, badSpan, goodSpan2)
+        ));
+
+        // then
+        assertThat(ex).isNull();
+        verify(jreTracerMock).buildSpan("goodSpan1");
+        verify(jreTracerMock).buildSpan("badSpan");
+        verify(jreTracerMock).buildSpan("goodSpan2");
+        verifyNoMoreInteractions(jreTracerMock);
+        verify(otSpanMock, times(2)).finish(anyLong());
+    }
+
+    @Test
+    public void spansCompleted_sanitizes_a_shared_trace_id_once_per_run_of_spans_from_the_same_trace() {
+        // given
+        WingtipsToLightStepLifecycleListener listenerSpy = spy(listener);
+        String badTraceId = "notahexstring";
+        List<Span> spans = Arrays.asList(
+            Span.newBuilder("span1", Span.SpanPurpose.CLIENT).withTraceId(badTraceId).build(),
+            Span.newBuilder("span2", Span.SpanPurpose.CLIENT).withTraceId(badTraceId).build(),
+            Span.newBuilder("span3", Span.SpanPurpose.CLIENT).withTraceId(badTraceId).build()
+        );
+        spans.forEach(Span::close);
+
+        // when
+        listenerSpy.spansCompleted(spans);
+
+        // then
+        verify(listenerSpy, times(1)).sanitizeIdIfNecessary(badTraceId, true);
+        String expectedSanitizedTraceId = IdSanitizationScenario.NOT_HEX_STRING.expectedSanitizedResultForTraceId;
+        spans.forEach(
+            span -> assertThat(span.getTags().get("sanitized_trace_id")).isEqualTo(expectedSanitizedTraceId)
+        );
+    }
+
+    @Test
+    public void sanitizeTraceIdIfNecessary_does_not_cache_when_passed_null_cache() {
+        // when
+        String result = listener.sanitizeTraceIdIfNecessary(IdSanitizationScenario.NOT_HEX_STRING.originalId, null);
+
+        // then
+        assertThat(result).isEqualTo(IdSanitizationScenario.NOT_HEX_STRING.expectedSanitizedResultForTraceId);
+    }
+
     private enum IdSanitizationScenario {
         NOT_HEX_STRING(
             "notahexstring",
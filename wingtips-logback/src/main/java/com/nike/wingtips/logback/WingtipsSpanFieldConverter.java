@@ -0,0 +1,94 @@
+package com.nike.wingtips.logback;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Tracer;
+import com.nike.wingtips.Tracer.LoggerMdcSyncMode;
+import com.nike.wingtips.Tracer.SpanFieldForLoggerMdc;
+
+import java.util.Map;
+
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * A Logback {@link ClassicConverter} that outputs a field from the current thread's {@link Tracer#getCurrentSpan()}
+ * when a log message is formatted, rather than reading it from the MDC. This lets you use {@link
+ * LoggerMdcSyncMode#LAZY} so {@link Tracer} never has to write to the MDC as spans start and complete, while still
+ * getting tracing info in your log messages.
+ *
+ * <p>Register it with a {@code conversionRule} in your logback config and then use the conversion word in your
+ * pattern. The option specifies the span field and defaults to trace ID if omitted. It can be either the {@link
+ * SpanFieldForLoggerMdc#mdcKey} (e.g. {@code traceId}, {@code spanId}, {@code parentSpanId}, or {@code spanJson}), or
+ * the {@link SpanFieldForLoggerMdc} enum name (e.g. {@code TRACE_ID}). For example:
+ *
+ * <pre>
+ *  &lt;conversionRule conversionWord="wingtips"
+ *                  converterClass="com.nike.wingtips.logback.WingtipsSpanFieldConverter" /&gt;
+ *
+ *  &lt;pattern&gt;traceId=%wingtips{traceId} spanId=%wingtips{spanId} %date %-5level [%thread] %logger - %m%n&lt;/pattern&gt;
+ * </pre>
+ *
+ * <p>If the thread formatting the log message has no current span then the value is taken from the log event's MDC
+ * instead (so this converter also works with the default {@link LoggerMdcSyncMode#EAGER} mode in that case), and
+ * if that's missing too then an empty string is output. NOTE: The current span is looked up on the thread that
+ * <b>formats</b> the log message. If your appenders format log messages on a different thread than the one that
+ * logged them (e.g. Logback's {@code AsyncAppender}) then you need to stick with {@link LoggerMdcSyncMode#EAGER} so
+ * the tracing info travels with the log event's MDC.
+ */
+@SuppressWarnings("WeakerAccess")
+public class WingtipsSpanFieldConverter extends ClassicConverter {
+
+    protected SpanFieldForLoggerMdc spanField = SpanFieldForLoggerMdc.TRACE_ID;
+
+    @Override
+    public void start() {
+        String option = getFirstOption();
+        if (option != null) {
+            SpanFieldForLoggerMdc parsedSpanField = parseSpanField(option);
+            if (parsedSpanField == null) {
+                addError(
+                    "Unrecognized Wingtips span field option: \"" + option + "\". Falling back to "
+                    + SpanFieldForLoggerMdc.TRACE_ID.mdcKey + ". Valid options are the mdcKey or the name of any "
+                    + "Tracer.SpanFieldForLoggerMdc enum value, e.g. traceId, spanId, parentSpanId, or spanJson."
+                );
+            }
+            else {
+                spanField = parsedSpanField;
+            }
+        }
+
+        super.start();
+    }
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        String value;
+
+        Span currentSpan = Tracer.getInstance().getCurrentSpan();
+        if (currentSpan != null) {
+            value = spanField.getMdcValueForSpan(currentSpan);
+        }
+        else {
+            Map<String, String> eventMdc = event.getMDCPropertyMap();
+            value = (eventMdc == null) ? null : eventMdc.get(spanField.mdcKey);
+        }
+
+        return (value == null) ? "" : value;
+    }
+
+    /**
+     * @param option The converter option to parse - either a {@link SpanFieldForLoggerMdc#mdcKey} or a {@link
+     * SpanFieldForLoggerMdc} enum name (case insensitive).
+     * @return The {@link SpanFieldForLoggerMdc} matching the given option, or null if there is no match.
+     */
+    protected static SpanFieldForLoggerMdc parseSpanField(String option) {
+        String trimmedOption = option.trim();
+        for (SpanFieldForLoggerMdc field : SpanFieldForLoggerMdc.values()) {
+            if (field.mdcKey.equalsIgnoreCase(trimmedOption) || field.name().equalsIgnoreCase(trimmedOption)) {
+                return field;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,179 @@
+package com.nike.wingtips.logback;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.Tracer;
+import com.nike.wingtips.Tracer.LoggerMdcSyncMode;
+import com.nike.wingtips.Tracer.SpanFieldForLoggerMdc;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.MDC;
+
+import java.util.Collections;
+import java.util.Map;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests the functionality of {@link WingtipsSpanFieldConverter}.
+ */
+@RunWith(DataProviderRunner.class)
+public class WingtipsSpanFieldConverterTest {
+
+    private ILoggingEvent eventMock;
+
+    private void resetTracing() {
+        MDC.clear();
+        Tracer.getInstance().unregisterFromThread();
+        Tracer.getInstance().setLoggerMdcSyncMode(LoggerMdcSyncMode.EAGER);
+    }
+
+    @Before
+    public void beforeMethod() {
+        resetTracing();
+        eventMock = mock(ILoggingEvent.class);
+    }
+
+    @After
+    public void afterMethod() {
+        resetTracing();
+    }
+
+    private WingtipsSpanFieldConverter startedConverter(String option) {
+        WingtipsSpanFieldConverter converter = new WingtipsSpanFieldConverter();
+        converter.setContext(new LoggerContext());
+        if (option != null) {
+            converter.setOptionList(Collections.singletonList(option));
+        }
+        converter.start();
+        return converter;
+    }
+
+    @DataProvider(value = {
+        "null               |   TRACE_ID",
+        "traceId            |   TRACE_ID",
+        "TRACE_ID           |   TRACE_ID",
+        "spanId             |   SPAN_ID",
+        "span_id            |   SPAN_ID",
+        "parentSpanId       |   PARENT_SPAN_ID",
+        "spanJson           |   FULL_SPAN_JSON",
+        "FULL_SPAN_JSON     |   FULL_SPAN_JSON",
+        "notAValidField     |   TRACE_ID"
+    }, splitBy = "\\|")
+    @Test
+    public void start_parses_span_field_option(String option, SpanFieldForLoggerMdc expectedField) {
+        // when
+        WingtipsSpanFieldConverter converter = startedConverter(option);
+
+        // then
+        assertThat(converter.spanField).isEqualTo(expectedField);
+        assertThat(converter.isStarted()).isTrue();
+    }
+
+    @DataProvider(value = {
+        "TRACE_ID",
+        "SPAN_ID",
+        "PARENT_SPAN_ID",
+        "FULL_SPAN_JSON"
+    })
+    @Test
+    public void convert_uses_current_span_when_one_exists(SpanFieldForLoggerMdc spanField) {
+        // given
+        Tracer.getInstance().setLoggerMdcSyncMode(LoggerMdcSyncMode.LAZY);
+        Tracer.getInstance().startRequestWithRootSpan("root");
+        Span subspan = Tracer.getInstance().startSubSpan("subspan", SpanPurpose.LOCAL_ONLY);
+        doReturn(Collections.singletonMap(spanField.mdcKey, "valueFromMdc")).when(eventMock).getMDCPropertyMap();
+        WingtipsSpanFieldConverter converter = startedConverter(spanField.mdcKey);
+
+        // when
+        String result = converter.convert(eventMock);
+
+        // then
+        assertThat(result).isEqualTo(spanField.getMdcValueForSpan(subspan));
+        assertThat(MDC.getCopyOfContextMap()).isNullOrEmpty();
+    }
+
+    @Test
+    public void convert_returns_empty_string_when_current_span_field_is_null() {
+        // given
+        Tracer.getInstance().startRequestWithRootSpan("root");
+        WingtipsSpanFieldConverter converter = startedConverter("parentSpanId");
+
+        // when
+        String result = converter.convert(eventMock);
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void convert_falls_back_to_event_MDC_when_there_is_no_current_span() {
+        // given
+        doReturn(Collections.singletonMap("spanId", "valueFromMdc")).when(eventMock).getMDCPropertyMap();
+        WingtipsSpanFieldConverter converter = startedConverter("spanId");
+
+        // when
+        String result = converter.convert(eventMock);
+
+        // then
+        assertThat(result).isEqualTo("valueFromMdc");
+    }
+
+    @DataProvider(value = {
+        "true",
+        "false"
+    })
+    @Test
+    public void convert_returns_empty_string_when_there_is_no_current_span_or_MDC_value(boolean eventMdcIsNull) {
+        // given
+        Map<String, String> eventMdc = (eventMdcIsNull) ? null : Collections.<String, String>emptyMap();
+        doReturn(eventMdc).when(eventMock).getMDCPropertyMap();
+        WingtipsSpanFieldConverter converter = startedConverter(null);
+
+        // when
+        String result = converter.convert(eventMock);
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    public void converter_works_when_registered_in_a_PatternLayout() {
+        // given
+        LoggerContext loggerContext = new LoggerContext();
+        PatternLayout layout = new PatternLayout();
+        layout.setContext(loggerContext);
+        layout.getInstanceConverterMap().put("wingtips", WingtipsSpanFieldConverter.class.getName());
+        layout.setPattern("traceId=%wingtips{traceId} spanId=%wingtips{spanId} - %m");
+        layout.start();
+
+        Tracer.getInstance().setLoggerMdcSyncMode(LoggerMdcSyncMode.LAZY);
+        Span span = Tracer.getInstance().startRequestWithRootSpan("root");
+
+        Logger logger = loggerContext.getLogger("foo");
+        LoggingEvent event = new LoggingEvent(
+            Logger.class.getName(), logger, Level.INFO, "hello", null, null
+        );
+
+        // when
+        String result = layout.doLayout(event);
+
+        // then
+        assertThat(result).isEqualTo("traceId=" + span.getTraceId() + " spanId=" + span.getSpanId() + " - hello");
+    }
+}
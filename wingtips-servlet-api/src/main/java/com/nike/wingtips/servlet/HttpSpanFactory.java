@@ -6,6 +6,7 @@ import com.nike.wingtips.Span.SpanPurpose;
 import com.nike.wingtips.TraceAndSpanIdGenerator;
 import com.nike.wingtips.TraceHeaders;
 import com.nike.wingtips.http.HttpRequestTracingUtils;
+import com.nike.wingtips.http.propagation.PropagationCodec;
 import com.nike.wingtips.tags.KnownZipkinTags;
 
 import org.jetbrains.annotations.NotNull;
@@ -69,6 +70,28 @@ public class HttpSpanFactory {
         return HttpRequestTracingUtils.fromRequestWithHeaders(new RequestWithHeadersServletAdapter(servletRequest), userIdHeaderKeys);
     }
 
+    /**
+     * Same as {@link #fromHttpServletRequest(HttpServletRequest, List)}, except the caller's tracing info is read
+     * from the request headers using the given {@link PropagationCodec} rather than always from the B3 multi-header
+     * set.
+     *
+     * @param servletRequest The incoming request that may have {@link Span} information embedded in the headers. If
+     * this argument is null then this method will return null.
+     * @param userIdHeaderKeys The list of header keys that will be used to search the request headers for a user ID
+     * - see {@link #fromHttpServletRequest(HttpServletRequest, List)} for details. May be null.
+     * @param propagationCodec The {@link PropagationCodec} to read the headers with - cannot be null.
+     * @return A {@link Span} representing the tracing data stored in the given request's headers, or null if the
+     * request is null or doesn't contain the headers needed by the given {@link PropagationCodec}.
+     */
+    public static Span fromHttpServletRequest(HttpServletRequest servletRequest,
+                                              List<String> userIdHeaderKeys,
+                                              PropagationCodec propagationCodec) {
+        if (servletRequest == null)
+            return null;
+
+        return propagationCodec.extractSpan(new RequestWithHeadersServletAdapter(servletRequest), userIdHeaderKeys);
+    }
+
     /**
      * Attempts to pull a valid ID for the user making the request.
      *
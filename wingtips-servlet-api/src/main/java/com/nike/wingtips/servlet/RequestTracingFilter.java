@@ -4,6 +4,9 @@ import com.nike.internal.util.StringUtils;
 import com.nike.wingtips.Span;
 import com.nike.wingtips.TraceHeaders;
 import com.nike.wingtips.Tracer;
+import com.nike.wingtips.http.propagation.B3MultiHeaderPropagationCodec;
+import com.nike.wingtips.http.propagation.PropagationCodec;
+import com.nike.wingtips.http.propagation.PropagationCodecFactory;
 import com.nike.wingtips.servlet.tag.ServletRequestTagAdapter;
 import com.nike.wingtips.tags.HttpTagAndSpanNamingAdapter;
 import com.nike.wingtips.tags.HttpTagAndSpanNamingStrategy;
@@ -42,6 +45,9 @@ import static com.nike.wingtips.util.AsyncWingtipsHelperJava7.unlinkTracingFromC
  * via the {@link #TAG_AND_SPAN_NAMING_STRATEGY_INIT_PARAM_NAME} and {@link
  * #TAG_AND_SPAN_NAMING_ADAPTER_INIT_PARAM_NAME} init params.
  *
+ * <p>The headers that the caller's tracing info is read from (B3 multi-header by default) are controlled by the
+ * {@link PropagationCodec} specified via the {@link #PROPAGATION_CODEC_INIT_PARAM_NAME} init param.
+ *
  * <p>NOTE: You can override {@link #getUserIdHeaderKeys()} if your service is expecting user ID header(s) and you can't
  * (or don't want to) set up those headers via the {@link #USER_ID_HEADER_KEYS_LIST_INIT_PARAM_NAME} init parameter.
  * Similarly, you can override {@link #initializeTagAndNamingStrategy(FilterConfig)} and/or {@link
@@ -116,6 +122,18 @@ public class RequestTracingFilter implements Filter {
     public static final String TAG_AND_SPAN_NAMING_ADAPTER_INIT_PARAM_NAME =
         "server-side-span-tag-and-naming-adapter";
 
+    /**
+     * The param name for the {@link PropagationCodec} that should be used by this filter to read the caller's tracing
+     * info from the incoming request headers. {@link #initializePropagationCodec(FilterConfig)} is used to interpret
+     * the value of this init param - see {@link PropagationCodecFactory#createPropagationCodec(String)} for the
+     * supported values (e.g. {@code B3}, {@code B3_SINGLE}, {@code W3C}, a comma-delimited list like {@code W3C,B3},
+     * or a fully qualified class name).
+     *
+     * <p>If left unspecified, then {@link #getDefaultPropagationCodec()} is used (defaults to
+     * {@link B3MultiHeaderPropagationCodec}).
+     */
+    public static final String PROPAGATION_CODEC_INIT_PARAM_NAME = "propagation-codec";
+
     protected ServletRuntime servletRuntime;
     protected List<String> userIdHeaderKeysFromInitParam;
 
@@ -131,12 +149,18 @@ public class RequestTracingFilter implements Filter {
      */
     protected HttpTagAndSpanNamingAdapter<HttpServletRequest, HttpServletResponse> tagAndNamingAdapter;
 
+    /**
+     * This {@link PropagationCodec} is used to read the caller's tracing info from the incoming request headers.
+     */
+    protected PropagationCodec propagationCodec = getDefaultPropagationCodec();
+
     @Override
     @SuppressWarnings("RedundantThrows")
     public void init(FilterConfig filterConfig) throws ServletException {
         this.userIdHeaderKeysFromInitParam = initializeUserIdHeaderKeys(filterConfig);
         this.tagAndNamingStrategy = initializeTagAndNamingStrategy(filterConfig);
         this.tagAndNamingAdapter = initializeTagAndNamingAdapter(filterConfig);
+        this.propagationCodec = initializePropagationCodec(filterConfig);
     }
 
     @Override
@@ -237,14 +261,17 @@ public class RequestTracingFilter implements Filter {
     /**
      * @param request The incoming request.
      * @return A new {@link Span} for the overall request. This inspects the incoming request's headers to determine
-     * if it should continue an existing trace with a child span, or whether a brand new trace needs to be started.
+     * if it should continue an existing trace with a child span, or whether a brand new trace needs to be started
+     * (using {@link #propagationCodec} to read the headers).
      * {@link #getInitialSpanName(HttpServletRequest, HttpTagAndSpanNamingStrategy, HttpTagAndSpanNamingAdapter)}
      * is used to generate the initial span name.
      */
     protected Span createNewSpanForRequest(HttpServletRequest request) {
         // See if there's trace info in the incoming request's headers. If so it becomes the parent trace.
         Tracer tracer = Tracer.getInstance();
-        final Span parentSpan = HttpSpanFactory.fromHttpServletRequest(request, getUserIdHeaderKeys());
+        final Span parentSpan = HttpSpanFactory.fromHttpServletRequest(
+            request, getUserIdHeaderKeys(), propagationCodec
+        );
         Span newSpan;
 
         if (parentSpan != null) {
@@ -255,9 +282,12 @@ public class RequestTracingFilter implements Filter {
             );
         }
         else {
+            // The request and adapter are passed along so request-aware sampling strategies can see the request.
             newSpan = tracer.startRequestWithRootSpan(
                 getInitialSpanName(request, tagAndNamingStrategy, tagAndNamingAdapter),
-                HttpSpanFactory.getUserIdFromHttpServletRequest(request, getUserIdHeaderKeys())
+                HttpSpanFactory.getUserIdFromHttpServletRequest(request, getUserIdHeaderKeys()),
+                request,
+                tagAndNamingAdapter
             );
             logger.debug("Parent span not found, starting a new span {}", newSpan);
         }
@@ -477,6 +507,30 @@ public class RequestTracingFilter implements Filter {
         }
     }
 
+    /**
+     * @param filterConfig The {@link FilterConfig} for initializing this Servlet filter.
+     * @return The {@link PropagationCodec} that should be used by this instance, created via {@link
+     * PropagationCodecFactory#createPropagationCodec(String)} from the {@link #PROPAGATION_CODEC_INIT_PARAM_NAME}
+     * init param. Uses {@link #getDefaultPropagationCodec()} as a last resort if the init param can't be turned into
+     * a codec.
+     */
+    protected PropagationCodec initializePropagationCodec(FilterConfig filterConfig) {
+        String propagationCodecString = filterConfig.getInitParameter(PROPAGATION_CODEC_INIT_PARAM_NAME);
+        if (StringUtils.isBlank(propagationCodecString)) {
+            return getDefaultPropagationCodec();
+        }
+
+        try {
+            return PropagationCodecFactory.createPropagationCodec(propagationCodecString);
+        } catch(Throwable t) {
+            logger.warn(
+                "Unable to match propagation codec " + propagationCodecString + ". Using default B3 multi-header codec",
+                t
+            );
+            return getDefaultPropagationCodec();
+        }
+    }
+
     /**
      * Uses the given {@code strategyName} to determine and generate the {@link HttpTagAndSpanNamingStrategy} that
      * should be used by this instance. This method looks for the following short names first:
@@ -597,4 +651,12 @@ public class RequestTracingFilter implements Filter {
         return ServletRequestTagAdapter.getDefaultInstance();
     }
 
+    /**
+     * @return {@link B3MultiHeaderPropagationCodec#getDefaultInstance()} (i.e. by default the caller's tracing info is
+     * read from the classic {@code X-B3-*} headers).
+     */
+    protected PropagationCodec getDefaultPropagationCodec() {
+        return B3MultiHeaderPropagationCodec.getDefaultInstance();
+    }
+
 }
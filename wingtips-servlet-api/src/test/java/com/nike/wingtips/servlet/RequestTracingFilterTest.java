@@ -6,6 +6,12 @@ import com.nike.wingtips.Span.SpanPurpose;
 import com.nike.wingtips.TraceAndSpanIdGenerator;
 import com.nike.wingtips.TraceHeaders;
 import com.nike.wingtips.Tracer;
+import com.nike.wingtips.http.propagation.B3MultiHeaderPropagationCodec;
+import com.nike.wingtips.http.propagation.CompositePropagationCodec;
+import com.nike.wingtips.http.propagation.PropagationCodec;
+import com.nike.wingtips.http.propagation.W3CTraceContextPropagationCodec;
+import com.nike.wingtips.sampling.RootSpanSamplingStrategy;
+import com.nike.wingtips.sampling.RuleBasedSamplingStrategy;
 import com.nike.wingtips.servlet.tag.ServletRequestTagAdapter;
 import com.nike.wingtips.tags.HttpTagAndSpanNamingAdapter;
 import com.nike.wingtips.tags.HttpTagAndSpanNamingStrategy;
@@ -50,6 +56,7 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import static com.nike.wingtips.servlet.RequestTracingFilter.PROPAGATION_CODEC_INIT_PARAM_NAME;
 import static com.nike.wingtips.servlet.RequestTracingFilter.TAG_AND_SPAN_NAMING_ADAPTER_INIT_PARAM_NAME;
 import static com.nike.wingtips.servlet.RequestTracingFilter.TAG_AND_SPAN_NAMING_STRATEGY_INIT_PARAM_NAME;
 import static com.nike.wingtips.servlet.ServletRuntime.ASYNC_LISTENER_CLASSNAME;
@@ -192,6 +199,8 @@ public class RequestTracingFilterTest {
         doReturn(expectedUserIdHeaderKeys).when(filterSpy).initializeUserIdHeaderKeys(any(FilterConfig.class));
         doReturn(tagAndNamingStrategy).when(filterSpy).initializeTagAndNamingStrategy(any(FilterConfig.class));
         doReturn(tagAndNamingAdapterMock).when(filterSpy).initializeTagAndNamingAdapter(any(FilterConfig.class));
+        PropagationCodec propagationCodecMock = mock(PropagationCodec.class);
+        doReturn(propagationCodecMock).when(filterSpy).initializePropagationCodec(any(FilterConfig.class));
 
         // when
         filterSpy.init(filterConfigMock);
@@ -201,14 +210,60 @@ public class RequestTracingFilterTest {
 
         assertThat(filterSpy.tagAndNamingStrategy).isSameAs(tagAndNamingStrategy);
         assertThat(filterSpy.tagAndNamingAdapter).isSameAs(tagAndNamingAdapterMock);
+        assertThat(filterSpy.propagationCodec).isSameAs(propagationCodecMock);
 
         verify(filterSpy).init(filterConfigMock);
         verify(filterSpy).initializeUserIdHeaderKeys(filterConfigMock);
         verify(filterSpy).initializeTagAndNamingStrategy(filterConfigMock);
         verify(filterSpy).initializeTagAndNamingAdapter(filterConfigMock);
+        verify(filterSpy).initializePropagationCodec(filterConfigMock);
         verifyNoMoreInteractions(filterSpy);
     }
 
+    @DataProvider(value = {
+        "null",
+        "",
+        " \t ",
+        "B3",
+        "not.a.real.Codec"
+    })
+    @Test
+    public void initializePropagationCodec_returns_default_codec_for_blank_b3_or_invalid_init_param(
+        String initParamValue
+    ) {
+        // given
+        RequestTracingFilter filter = new RequestTracingFilter();
+        doReturn(initParamValue).when(filterConfigMock).getInitParameter(PROPAGATION_CODEC_INIT_PARAM_NAME);
+
+        // when
+        PropagationCodec result = filter.initializePropagationCodec(filterConfigMock);
+
+        // then
+        assertThat(result).isSameAs(B3MultiHeaderPropagationCodec.getDefaultInstance());
+    }
+
+    @Test
+    public void initializePropagationCodec_uses_PropagationCodecFactory_for_init_param() {
+        // given
+        RequestTracingFilter filter = new RequestTracingFilter();
+        doReturn("W3C").when(filterConfigMock).getInitParameter(PROPAGATION_CODEC_INIT_PARAM_NAME);
+        RequestTracingFilter compositeFilter = new RequestTracingFilter();
+        FilterConfig compositeFilterConfigMock = mock(FilterConfig.class);
+        doReturn("W3C,B3").when(compositeFilterConfigMock).getInitParameter(PROPAGATION_CODEC_INIT_PARAM_NAME);
+
+        // when
+        PropagationCodec result = filter.initializePropagationCodec(filterConfigMock);
+        PropagationCodec compositeResult = compositeFilter.initializePropagationCodec(compositeFilterConfigMock);
+
+        // then
+        assertThat(result).isSameAs(W3CTraceContextPropagationCodec.getDefaultInstance());
+        assertThat(compositeResult).isInstanceOf(CompositePropagationCodec.class);
+        assertThat(((CompositePropagationCodec) compositeResult).getCodecs()).containsExactly(
+            W3CTraceContextPropagationCodec.getDefaultInstance(),
+            B3MultiHeaderPropagationCodec.getDefaultInstance()
+        );
+    }
+
     @DataProvider
     public static Object[][] userIdHeaderKeysInitParamDataProvider() {
 
@@ -1394,4 +1449,35 @@ public class RequestTracingFilterTest {
             return null;
         }
     }
+
+    @DataProvider(value = {
+        "GET    |   /healthcheck        |   false",
+        "get    |   /healthcheck/deep   |   false",
+        "POST   |   /healthcheck        |   true",
+        "GET    |   /api/foo            |   true"
+    }, splitBy = "\\|")
+    @Test
+    public void createNewSpanForRequest_lets_RequestAwareRootSpanSamplingStrategy_see_the_request(
+        String httpMethod, String path, boolean expectedSampleable
+    ) {
+        // given
+        RootSpanSamplingStrategy originalStrategy = Tracer.getInstance().getRootSpanSamplingStrategy();
+        Tracer.getInstance().setRootSpanSamplingStrategy(
+            RuleBasedSamplingStrategy.newBuilder().addProbabilityRule("GET", "/healthcheck", 0.0d).build()
+        );
+        doReturn(httpMethod).when(tagAndNamingAdapterMock).getRequestHttpMethod(requestMock);
+        doReturn(path).when(tagAndNamingAdapterMock).getRequestPath(requestMock);
+
+        try {
+            // when
+            Span result = getBasicFilter().createNewSpanForRequest(requestMock);
+
+            // then
+            assertThat(result.getParentSpanId()).isNull();
+            assertThat(result.isSampleable()).isEqualTo(expectedSampleable);
+        }
+        finally {
+            Tracer.getInstance().setRootSpanSamplingStrategy(originalStrategy);
+        }
+    }
 }
@@ -1,6 +1,9 @@
 package com.nike.wingtips.springboot;
 
 import com.nike.wingtips.Tracer;
+import com.nike.wingtips.lifecyclelistener.SpanLifecycleListener;
+import com.nike.wingtips.metrics.SpanMetricsListener;
+import com.nike.wingtips.sampling.RootSpanSamplingStrategy;
 import com.nike.wingtips.servlet.RequestTracingFilter;
 import com.nike.wingtips.tags.ZipkinHttpTagStrategy;
 
@@ -52,6 +55,9 @@ import javax.servlet.ServletResponse;
  * please see {@code WingtipsWithZipkinSpringBootConfiguration} from the {@code wingtips-zipkin2-spring-boot} Wingtips
  * module.
  *
+ * <p>If {@link WingtipsSpringBootProperties#isSpanMetricsEnabled()} is true then a {@link SpanMetricsListener} is
+ * registered with {@link Tracer} and exposed as a bean.
+ *
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
  * @author Nic Munroe
  */
@@ -76,6 +82,8 @@ public class WingtipsSpringBootConfiguration {
     @SuppressWarnings("WeakerAccess")
     protected WingtipsSpringBootProperties wingtipsProperties;
 
+    protected SpanMetricsListener spanMetricsListener;
+
     @Autowired
     public WingtipsSpringBootConfiguration(WingtipsSpringBootProperties wingtipsProperties) {
         this.wingtipsProperties = wingtipsProperties;
@@ -83,6 +91,29 @@ public class WingtipsSpringBootConfiguration {
         if (wingtipsProperties.getSpanLoggingFormat() != null) {
             Tracer.getInstance().setSpanLoggingRepresentation(wingtipsProperties.getSpanLoggingFormat());
         }
+        // Set the root span sampling strategy if specified in the wingtips properties.
+        RootSpanSamplingStrategy samplingStrategy = wingtipsProperties.generateRootSpanSamplingStrategy();
+        if (samplingStrategy != null) {
+            Tracer.getInstance().setRootSpanSamplingStrategy(samplingStrategy);
+            // Some strategies (e.g. the adaptive one) need to see completed spans.
+            if (samplingStrategy instanceof SpanLifecycleListener) {
+                Tracer.getInstance().addSpanLifecycleListener((SpanLifecycleListener) samplingStrategy);
+            }
+        }
+        // Aggregate completed spans into RED metrics if desired.
+        if (wingtipsProperties.isSpanMetricsEnabled()) {
+            spanMetricsListener = SpanMetricsListener.newBuilder().build();
+            Tracer.getInstance().addSpanLifecycleListener(spanMetricsListener);
+        }
+    }
+
+    /**
+     * @return The {@link SpanMetricsListener} that was registered with {@link Tracer}, or null (essentially a no-op
+     * for Spring) if {@link WingtipsSpringBootProperties#isSpanMetricsEnabled()} is false.
+     */
+    @Bean
+    public SpanMetricsListener wingtipsSpanMetricsListener() {
+        return spanMetricsListener;
     }
 
     /**
@@ -131,6 +162,14 @@ public class WingtipsSpringBootConfiguration {
             );
         }
 
+        // Add the propagation codec init param if specified in the wingtips properties.
+        if (wingtipsProperties.getPropagationCodec() != null) {
+            frb.addInitParameter(
+                RequestTracingFilter.PROPAGATION_CODEC_INIT_PARAM_NAME,
+                wingtipsProperties.getPropagationCodec()
+            );
+        }
+
         // Set the order so that the tracing filter is registered first
         frb.setOrder(Ordered.HIGHEST_PRECEDENCE);
         return frb;
@@ -1,6 +1,8 @@
 package com.nike.wingtips.springboot;
 
 import com.nike.wingtips.Tracer;
+import com.nike.wingtips.sampling.RootSpanSamplingStrategy;
+import com.nike.wingtips.sampling.RootSpanSamplingStrategyFactory;
 import com.nike.wingtips.servlet.RequestTracingFilter;
 import com.nike.wingtips.tags.OpenTracingHttpTagStrategy;
 import com.nike.wingtips.tags.ZipkinHttpTagStrategy;
@@ -48,6 +50,41 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  *         however you can pass in a fully qualified class name for this property if you have a custom impl you want
  *         to use.
  *     </li>
+ *     <li>
+ *         wingtips.root-span-sampling-strategy - Determines which new traces are sampled by setting the {@link
+ *         RootSpanSamplingStrategy} on {@link Tracer}. If missing then the sampling
+ *         strategy will not be changed (defaults to sampling every trace). The following short names are understood,
+ *         otherwise the value is treated as the fully qualified class name of a custom strategy with a no-arg
+ *         constructor:
+ *         <ul>
+ *             <li>{@code ALL} - {@link com.nike.wingtips.sampling.SampleAllTheThingsStrategy}</li>
+ *             <li>
+ *                 {@code PROBABILISTIC} - {@link com.nike.wingtips.sampling.ProbabilisticSamplingStrategy}, samples
+ *                 a trace ID derived percentage of traces set by {@code wingtips.sampling-probability}
+ *             </li>
+ *             <li>
+ *                 {@code RATE_LIMITED} - {@link com.nike.wingtips.sampling.RateLimitingSamplingStrategy}, samples at
+ *                 most {@code wingtips.sampling-traces-per-second} traces per second
+ *             </li>
+ *             <li>
+ *                 {@code ADAPTIVE} - {@link com.nike.wingtips.sampling.AdaptiveSamplingStrategy}, adjusts its
+ *                 probability to emit roughly {@code wingtips.sampling-target-spans-per-second} sampled spans per
+ *                 second, starting from {@code wingtips.sampling-probability} if specified
+ *             </li>
+ *         </ul>
+ *     </li>
+ *     <li>
+ *         wingtips.propagation-codec - Determines which tracing headers {@link RequestTracingFilter} reads from
+ *         incoming requests. See {@link RequestTracingFilter#PROPAGATION_CODEC_INIT_PARAM_NAME} and {@link
+ *         com.nike.wingtips.http.propagation.PropagationCodecFactory#createPropagationCodec(String)} for the
+ *         understood values (e.g. {@code B3}, {@code B3_SINGLE}, {@code W3C}, or a comma-delimited list like {@code
+ *         W3C,B3}). If missing then the B3 multi-header format is used.
+ *     </li>
+ *     <li>
+ *         wingtips.span-metrics-enabled - Registers a {@link com.nike.wingtips.metrics.SpanMetricsListener} with
+ *         {@link Tracer} that aggregates completed spans into per-span-name request, error, and latency metrics, and
+ *         exposes it as a bean so you can read or report its snapshots. This is disabled by default.
+ *     </li>
  * </ul>
  *
  * <p>For example you could set the following properties in your {@code application.properties}:
@@ -57,6 +94,10 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  *     wingtips.span-logging-format=KEY_VALUE
  *     wingtips.server-side-span-tagging-strategy=ZIPKIN
  *     wingtips.server-side-span-tagging-adapter=com.nike.wingtips.servlet.tag.ServletRequestTagAdapter
+ *     wingtips.root-span-sampling-strategy=PROBABILISTIC
+ *     wingtips.sampling-probability=0.1
+ *     wingtips.propagation-codec=W3C,B3
+ *     wingtips.span-metrics-enabled=true
  * </pre>
  *
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
@@ -70,6 +111,12 @@ public class WingtipsSpringBootProperties {
     private Tracer.SpanLoggingRepresentation spanLoggingFormat;
     private String serverSideSpanTaggingStrategy;
     private String serverSideSpanTaggingAdapter;
+    private String rootSpanSamplingStrategy;
+    private Double samplingProbability;
+    private Integer samplingTracesPerSecond;
+    private Double samplingTargetSpansPerSecond;
+    private String propagationCodec;
+    private boolean spanMetricsEnabled = false;
 
     public boolean isWingtipsDisabled() {
         return wingtipsDisabled;
@@ -110,4 +157,67 @@ public class WingtipsSpringBootProperties {
     public void setServerSideSpanTaggingAdapter(String serverSideSpanTaggingAdapter) {
         this.serverSideSpanTaggingAdapter = serverSideSpanTaggingAdapter;
     }
+
+    public String getRootSpanSamplingStrategy() {
+        return rootSpanSamplingStrategy;
+    }
+
+    public void setRootSpanSamplingStrategy(String rootSpanSamplingStrategy) {
+        this.rootSpanSamplingStrategy = rootSpanSamplingStrategy;
+    }
+
+    public Double getSamplingProbability() {
+        return samplingProbability;
+    }
+
+    public void setSamplingProbability(Double samplingProbability) {
+        this.samplingProbability = samplingProbability;
+    }
+
+    public Integer getSamplingTracesPerSecond() {
+        return samplingTracesPerSecond;
+    }
+
+    public void setSamplingTracesPerSecond(Integer samplingTracesPerSecond) {
+        this.samplingTracesPerSecond = samplingTracesPerSecond;
+    }
+
+    public Double getSamplingTargetSpansPerSecond() {
+        return samplingTargetSpansPerSecond;
+    }
+
+    public void setSamplingTargetSpansPerSecond(Double samplingTargetSpansPerSecond) {
+        this.samplingTargetSpansPerSecond = samplingTargetSpansPerSecond;
+    }
+
+    public String getPropagationCodec() {
+        return propagationCodec;
+    }
+
+    public void setPropagationCodec(String propagationCodec) {
+        this.propagationCodec = propagationCodec;
+    }
+
+    public boolean isSpanMetricsEnabled() {
+        return spanMetricsEnabled;
+    }
+
+    public void setSpanMetricsEnabled(boolean spanMetricsEnabled) {
+        this.spanMetricsEnabled = spanMetricsEnabled;
+    }
+
+    /**
+     * @return The {@link RootSpanSamplingStrategy} described by the {@code wingtips.root-span-sampling-strategy}
+     * and {@code wingtips.sampling-*} properties, or null if {@code wingtips.root-span-sampling-strategy} is not
+     * set. See {@link RootSpanSamplingStrategyFactory#createRootSpanSamplingStrategy(String, Double, Integer, Double)}.
+     */
+    public RootSpanSamplingStrategy generateRootSpanSamplingStrategy() {
+        if (rootSpanSamplingStrategy == null) {
+            return null;
+        }
+
+        return RootSpanSamplingStrategyFactory.createRootSpanSamplingStrategy(
+            rootSpanSamplingStrategy, samplingProbability, samplingTracesPerSecond, samplingTargetSpansPerSecond
+        );
+    }
 }
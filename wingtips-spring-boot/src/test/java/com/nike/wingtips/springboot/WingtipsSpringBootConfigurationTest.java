@@ -2,6 +2,10 @@ package com.nike.wingtips.springboot;
 
 import com.nike.wingtips.Tracer;
 import com.nike.wingtips.Tracer.SpanLoggingRepresentation;
+import com.nike.wingtips.lifecyclelistener.SpanLifecycleListener;
+import com.nike.wingtips.metrics.SpanMetricsListener;
+import com.nike.wingtips.sampling.AdaptiveSamplingStrategy;
+import com.nike.wingtips.sampling.RootSpanSamplingStrategy;
 import com.nike.wingtips.servlet.RequestTracingFilter;
 import com.nike.wingtips.springboot.WingtipsSpringBootConfiguration.DoNothingServletFilter;
 import com.nike.wingtips.springboot.componenttest.componentscanonly.ComponentTestMainWithComponentScanOnly;
@@ -87,6 +91,71 @@ public class WingtipsSpringBootConfigurationTest {
         assertThat(Tracer.getInstance().getSpanLoggingRepresentation()).isEqualTo(expectedSpanLoggingFormat);
     }
 
+    @Test
+    public void constructor_sets_root_span_sampling_strategy_and_registers_it_as_listener_if_needed() {
+        // given
+        RootSpanSamplingStrategy originalStrategy = Tracer.getInstance().getRootSpanSamplingStrategy();
+        WingtipsSpringBootProperties props = new WingtipsSpringBootProperties();
+        props.setRootSpanSamplingStrategy("ADAPTIVE");
+        props.setSamplingTargetSpansPerSecond(100d);
+
+        try {
+            // when
+            new WingtipsSpringBootConfiguration(props);
+
+            // then
+            RootSpanSamplingStrategy strategy = Tracer.getInstance().getRootSpanSamplingStrategy();
+            assertThat(strategy).isInstanceOf(AdaptiveSamplingStrategy.class);
+            assertThat(((AdaptiveSamplingStrategy) strategy).getTargetSpansPerSecond()).isEqualTo(100d);
+            assertThat(Tracer.getInstance().getSpanLifecycleListeners()).contains((SpanLifecycleListener) strategy);
+        }
+        finally {
+            Tracer.getInstance().setRootSpanSamplingStrategy(originalStrategy);
+            Tracer.getInstance().removeAllSpanLifecycleListeners();
+        }
+    }
+
+    @Test
+    public void constructor_does_not_change_root_span_sampling_strategy_if_prop_is_not_set() {
+        // given
+        RootSpanSamplingStrategy originalStrategy = Tracer.getInstance().getRootSpanSamplingStrategy();
+
+        // when
+        new WingtipsSpringBootConfiguration(new WingtipsSpringBootProperties());
+
+        // then
+        assertThat(Tracer.getInstance().getRootSpanSamplingStrategy()).isSameAs(originalStrategy);
+    }
+
+    @Test
+    public void constructor_registers_SpanMetricsListener_if_span_metrics_are_enabled() {
+        // given
+        WingtipsSpringBootProperties props = new WingtipsSpringBootProperties();
+        props.setSpanMetricsEnabled(true);
+
+        try {
+            // when
+            WingtipsSpringBootConfiguration conf = new WingtipsSpringBootConfiguration(props);
+
+            // then
+            SpanMetricsListener listener = conf.wingtipsSpanMetricsListener();
+            assertThat(listener).isNotNull();
+            assertThat(Tracer.getInstance().getSpanLifecycleListeners()).contains(listener);
+        }
+        finally {
+            Tracer.getInstance().removeAllSpanLifecycleListeners();
+        }
+    }
+
+    @Test
+    public void wingtipsSpanMetricsListener_returns_null_if_span_metrics_are_disabled() {
+        // when
+        WingtipsSpringBootConfiguration conf = new WingtipsSpringBootConfiguration(new WingtipsSpringBootProperties());
+
+        // then
+        assertThat(conf.wingtipsSpanMetricsListener()).isNull();
+    }
+
     private enum PropertiesScenario {
         USER_ID_HEADER_KEYS_PROP_IS_SET(nonNullUserIdHeaderKeysProp(), null, null),
         TAG_AND_NAMING_STRATEGY_PROP_IS_SET(null, nonNullStrategyProp(), null),
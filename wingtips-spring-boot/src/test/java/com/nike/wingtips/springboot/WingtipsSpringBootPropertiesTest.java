@@ -1,6 +1,7 @@
 package com.nike.wingtips.springboot;
 
 import com.nike.wingtips.Tracer.SpanLoggingRepresentation;
+import com.nike.wingtips.sampling.RootSpanSamplingStrategy;
 
 import com.tngtech.java.junit.dataprovider.DataProvider;
 import com.tngtech.java.junit.dataprovider.DataProviderRunner;
@@ -92,6 +93,69 @@ public class WingtipsSpringBootPropertiesTest {
             props.setServerSideSpanTaggingAdapter(null);
             assertThat(props.getServerSideSpanTaggingAdapter()).isNull();
         }
+
+        // root span sampling getters/setters
+        {
+            String strategyValue = UUID.randomUUID().toString();
+            props.setRootSpanSamplingStrategy(strategyValue);
+            props.setSamplingProbability(0.42d);
+            props.setSamplingTracesPerSecond(42);
+            props.setSamplingTargetSpansPerSecond(4242d);
+            assertThat(props.getRootSpanSamplingStrategy()).isEqualTo(strategyValue);
+            assertThat(props.getSamplingProbability()).isEqualTo(0.42d);
+            assertThat(props.getSamplingTracesPerSecond()).isEqualTo(42);
+            assertThat(props.getSamplingTargetSpansPerSecond()).isEqualTo(4242d);
+
+            props.setRootSpanSamplingStrategy(null);
+            props.setSamplingProbability(null);
+            props.setSamplingTracesPerSecond(null);
+            props.setSamplingTargetSpansPerSecond(null);
+            assertThat(props.getRootSpanSamplingStrategy()).isNull();
+            assertThat(props.getSamplingProbability()).isNull();
+            assertThat(props.getSamplingTracesPerSecond()).isNull();
+            assertThat(props.getSamplingTargetSpansPerSecond()).isNull();
+        }
+
+        // spanMetricsEnabled getter/setter
+        {
+            assertThat(props.isSpanMetricsEnabled()).isFalse();
+            props.setSpanMetricsEnabled(true);
+            assertThat(props.isSpanMetricsEnabled()).isTrue();
+            props.setSpanMetricsEnabled(false);
+            assertThat(props.isSpanMetricsEnabled()).isFalse();
+        }
+    }
+
+    @Test
+    public void generateRootSpanSamplingStrategy_returns_null_if_strategy_prop_is_not_set() {
+        // given
+        props.setSamplingProbability(0.5d);
+
+        // expect
+        assertThat(props.generateRootSpanSamplingStrategy()).isNull();
+    }
+
+    @DataProvider(value = {
+        "ALL            |   com.nike.wingtips.sampling.SampleAllTheThingsStrategy",
+        "probabilistic  |   com.nike.wingtips.sampling.ProbabilisticSamplingStrategy",
+        "RATE_LIMITED   |   com.nike.wingtips.sampling.RateLimitingSamplingStrategy",
+        "ADAPTIVE       |   com.nike.wingtips.sampling.AdaptiveSamplingStrategy"
+    }, splitBy = "\\|")
+    @Test
+    public void generateRootSpanSamplingStrategy_creates_strategy_from_props(
+        String strategyName, String expectedClassName
+    ) {
+        // given
+        props.setRootSpanSamplingStrategy(strategyName);
+        props.setSamplingProbability(0.25d);
+        props.setSamplingTracesPerSecond(10);
+        props.setSamplingTargetSpansPerSecond(100d);
+
+        // when
+        RootSpanSamplingStrategy result = props.generateRootSpanSamplingStrategy();
+
+        // then
+        assertThat(result.getClass().getName()).isEqualTo(expectedClassName);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,180 @@
+package com.nike.wingtips.springboot2.webflux;
+
+import com.nike.wingtips.contextstorage.TracingContextSlot;
+import com.nike.wingtips.contextstorage.TracingContextSlotCarrier;
+import com.nike.wingtips.contextstorage.TracingThreadContextStorage;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+
+import java.util.concurrent.ThreadFactory;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * A Spring Boot {@link NettyServerCustomizer} that runs the Reactor Netty HTTP server on an event loop group whose
+ * threads carry their own {@link TracingContextSlot}, so {@link TracingThreadContextStorage} can find their span
+ * stacks without a {@link ThreadLocal} lookup. The threads are still Netty {@link FastThreadLocalThread}s, so Netty's
+ * own fast thread locals keep working too.
+ *
+ * <p>The server is given {@link LoopResources} rather than a fixed event loop group, so Reactor Netty's usual native
+ * transport preference ({@link LoopResources#DEFAULT_NATIVE}, i.e. the {@code reactor.netty.native} system property)
+ * still applies: when native transport is preferred and available the event loop group uses epoll (Linux) or kqueue
+ * (macOS/BSD), otherwise NIO. The native transports are looked up by reflection just like Reactor Netty does, so they
+ * only need to be on the runtime classpath. Either way the event loop group has {@link
+ * LoopResources#DEFAULT_IO_WORKER_COUNT} threads (the same count Reactor Netty uses by default), is created the first
+ * time it's needed, and is shut down when the Spring application context is closed.
+ *
+ * <p>{@link WingtipsSpringBoot2WebfluxConfiguration} exposes one of these as a bean when {@link
+ * WingtipsSpringBoot2WebfluxProperties#isTracingThreadsEnabled()} is true.
+ */
+public class TracingThreadNettyServerCustomizer implements NettyServerCustomizer, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(TracingThreadNettyServerCustomizer.class);
+
+    /**
+     * The prefix for the names of the event loop threads. It's followed by the transport name ({@code nio}, {@code
+     * epoll}, or {@code kqueue}) and a counter.
+     */
+    public static final String EVENT_LOOP_THREAD_NAME_PREFIX = "wingtips-reactor-http";
+
+    protected static final String EPOLL_CLASS_NAME = "io.netty.channel.epoll.Epoll";
+    protected static final String EPOLL_EVENT_LOOP_GROUP_CLASS_NAME = "io.netty.channel.epoll.EpollEventLoopGroup";
+    protected static final String KQUEUE_CLASS_NAME = "io.netty.channel.kqueue.KQueue";
+    protected static final String KQUEUE_EVENT_LOOP_GROUP_CLASS_NAME =
+        "io.netty.channel.kqueue.KQueueEventLoopGroup";
+
+    protected final LoopResources loopResources = this::getOrCreateEventLoopGroup;
+
+    protected EventLoopGroup nioEventLoopGroup;
+    protected EventLoopGroup nativeEventLoopGroup;
+    protected boolean nativeEventLoopGroupUnavailable;
+
+    @Override
+    public HttpServer apply(HttpServer httpServer) {
+        return httpServer.runOn(loopResources);
+    }
+
+    /**
+     * @param preferNative Whether a native transport event loop group should be used if one is available.
+     * @return The native transport event loop group if {@code preferNative} is true and a native transport is
+     * available, otherwise the NIO event loop group. Each of these is only created once.
+     */
+    protected synchronized EventLoopGroup getOrCreateEventLoopGroup(boolean preferNative) {
+        if (preferNative && !nativeEventLoopGroupUnavailable) {
+            if (nativeEventLoopGroup == null) {
+                nativeEventLoopGroup = createNativeEventLoopGroup();
+                nativeEventLoopGroupUnavailable = (nativeEventLoopGroup == null);
+            }
+
+            if (nativeEventLoopGroup != null) {
+                return nativeEventLoopGroup;
+            }
+        }
+
+        if (nioEventLoopGroup == null) {
+            nioEventLoopGroup = new NioEventLoopGroup(
+                LoopResources.DEFAULT_IO_WORKER_COUNT,
+                new TracingFastThreadLocalThreadFactory(EVENT_LOOP_THREAD_NAME_PREFIX + "-nio")
+            );
+        }
+        return nioEventLoopGroup;
+    }
+
+    /**
+     * @return A new epoll event loop group if epoll is available, otherwise a new kqueue event loop group if kqueue
+     * is available, otherwise null.
+     */
+    protected EventLoopGroup createNativeEventLoopGroup() {
+        EventLoopGroup result = createNativeEventLoopGroupIfAvailable(
+            EPOLL_CLASS_NAME, EPOLL_EVENT_LOOP_GROUP_CLASS_NAME, "epoll"
+        );
+        if (result == null) {
+            result = createNativeEventLoopGroupIfAvailable(
+                KQUEUE_CLASS_NAME, KQUEUE_EVENT_LOOP_GROUP_CLASS_NAME, "kqueue"
+            );
+        }
+        return result;
+    }
+
+    protected EventLoopGroup createNativeEventLoopGroupIfAvailable(
+        String transportClassName, String eventLoopGroupClassName, String transportName
+    ) {
+        try {
+            Class<?> transportClass = Class.forName(transportClassName);
+            if (!((Boolean) transportClass.getMethod("isAvailable").invoke(null))) {
+                return null;
+            }
+
+            return (EventLoopGroup) Class
+                .forName(eventLoopGroupClassName)
+                .getConstructor(int.class, ThreadFactory.class)
+                .newInstance(
+                    LoopResources.DEFAULT_IO_WORKER_COUNT,
+                    new TracingFastThreadLocalThreadFactory(EVENT_LOOP_THREAD_NAME_PREFIX + "-" + transportName)
+                );
+        }
+        catch (ClassNotFoundException ex) {
+            // Not on the classpath.
+            return null;
+        }
+        catch (Exception ex) {
+            logger.warn(
+                "Unable to create a {} event loop group - falling back to another transport.", transportName, ex
+            );
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (nioEventLoopGroup != null) {
+            nioEventLoopGroup.shutdownGracefully();
+        }
+
+        if (nativeEventLoopGroup != null) {
+            nativeEventLoopGroup.shutdownGracefully();
+        }
+    }
+
+    /**
+     * A Netty {@link DefaultThreadFactory} that creates daemon {@link TracingFastThreadLocalThread}s.
+     */
+    protected static class TracingFastThreadLocalThreadFactory extends DefaultThreadFactory {
+
+        protected TracingFastThreadLocalThreadFactory(String poolName) {
+            super(poolName, true);
+        }
+
+        @Override
+        protected Thread newThread(Runnable r, String name) {
+            return new TracingFastThreadLocalThread(threadGroup, r, name);
+        }
+    }
+
+    /**
+     * A Netty {@link FastThreadLocalThread} that carries its own {@link TracingContextSlot}.
+     */
+    protected static class TracingFastThreadLocalThread extends FastThreadLocalThread
+        implements TracingContextSlotCarrier {
+
+        private final TracingContextSlot tracingContextSlot = new TracingContextSlot();
+
+        protected TracingFastThreadLocalThread(ThreadGroup group, Runnable target, String name) {
+            super(group, target, name);
+        }
+
+        @Override
+        public @NotNull TracingContextSlot getTracingContextSlot() {
+            return tracingContextSlot;
+        }
+    }
+}
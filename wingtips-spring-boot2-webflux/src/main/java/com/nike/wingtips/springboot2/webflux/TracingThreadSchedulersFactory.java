@@ -0,0 +1,140 @@
+package com.nike.wingtips.springboot2.webflux;
+
+import com.nike.wingtips.contextstorage.TracingContextSlotCarrier;
+import com.nike.wingtips.contextstorage.TracingThread;
+import com.nike.wingtips.contextstorage.TracingThreadContextStorage;
+import com.nike.wingtips.contextstorage.TracingThreadFactory;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+import reactor.core.scheduler.NonBlocking;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * A Project Reactor {@link Schedulers.Factory} that makes every {@link Scheduler} created through {@link Schedulers}
+ * run on {@link TracingThread}s, so {@link TracingThreadContextStorage} can find their span stacks without a {@link
+ * ThreadLocal} lookup. The schedulers themselves are the normal Reactor ones - only their thread factories are
+ * wrapped. Threads for non-blocking schedulers (e.g. {@link Schedulers#parallel()}) still implement {@link
+ * NonBlocking}, so {@link Schedulers#isInNonBlockingThread()} and Reactor's blocking call detection keep working.
+ *
+ * <p>Reactor's own thread factories expose their thread name prefix and act as their threads' uncaught exception
+ * handler, so for those the remaining settings (daemon status, priority, and whether the threads are {@link
+ * NonBlocking}) are read from a single never-started thread when the scheduler is created, and after that the
+ * {@link TracingThread}s are created directly - see {@link TracingThreadFactory} for why that's better than copying
+ * the settings of a throwaway thread for every new thread. Any other thread factory falls back to {@link
+ * TracingThreadFactory#TracingThreadFactory(ThreadFactory)}.
+ *
+ * <p>Install this at application startup via {@link Schedulers#setFactory(Schedulers.Factory)}, which also disposes
+ * any cached schedulers so they get recreated with this factory. {@link WingtipsSpringBoot2WebfluxConfiguration} does
+ * this for you when {@link WingtipsSpringBoot2WebfluxProperties#isTracingThreadsEnabled()} is true.
+ */
+@SuppressWarnings("deprecation")
+public class TracingThreadSchedulersFactory implements Schedulers.Factory {
+
+    protected static final Runnable NO_OP_RUNNABLE = () -> {
+        // Do nothing - only used for threads that are never started.
+    };
+
+    @Override
+    public Scheduler newElastic(int ttlSeconds, ThreadFactory threadFactory) {
+        return Schedulers.Factory.super.newElastic(ttlSeconds, withTracingThreads(threadFactory));
+    }
+
+    @Override
+    public Scheduler newBoundedElastic(
+        int threadCap, int queuedTaskCap, ThreadFactory threadFactory, int ttlSeconds
+    ) {
+        return Schedulers.Factory.super.newBoundedElastic(
+            threadCap, queuedTaskCap, withTracingThreads(threadFactory), ttlSeconds
+        );
+    }
+
+    @Override
+    public Scheduler newParallel(int parallelism, ThreadFactory threadFactory) {
+        return Schedulers.Factory.super.newParallel(parallelism, withTracingThreads(threadFactory));
+    }
+
+    @Override
+    public Scheduler newSingle(ThreadFactory threadFactory) {
+        return Schedulers.Factory.super.newSingle(withTracingThreads(threadFactory));
+    }
+
+    protected ThreadFactory withTracingThreads(ThreadFactory threadFactory) {
+        if (threadFactory instanceof TracingThreadFactory) {
+            return threadFactory;
+        }
+
+        if (threadFactory instanceof Supplier && threadFactory instanceof Thread.UncaughtExceptionHandler) {
+            // A Reactor thread factory. Its threads' names are [prefix]-[counter] where the prefix is what it
+            // supplies, and it's the uncaught exception handler of its threads.
+            Thread settingsProbe = threadFactory.newThread(NO_OP_RUNNABLE);
+            if (settingsProbe != null && !(settingsProbe instanceof TracingContextSlotCarrier)) {
+                return new ReactorTracingThreadFactory(
+                    String.valueOf(((Supplier<?>) threadFactory).get()),
+                    settingsProbe.isDaemon(),
+                    settingsProbe.getPriority(),
+                    (Thread.UncaughtExceptionHandler) threadFactory,
+                    settingsProbe instanceof NonBlocking
+                );
+            }
+        }
+
+        return new ReactorTracingThreadFactory(threadFactory);
+    }
+
+    /**
+     * A {@link TracingThreadFactory} that keeps Reactor's {@link NonBlocking} marker on the threads it creates.
+     */
+    protected static class ReactorTracingThreadFactory extends TracingThreadFactory {
+
+        protected final boolean nonBlocking;
+
+        protected ReactorTracingThreadFactory(ThreadFactory delegate) {
+            super(delegate);
+            this.nonBlocking = false;
+        }
+
+        protected ReactorTracingThreadFactory(
+            String namePrefix,
+            boolean daemon,
+            int priority,
+            Thread.UncaughtExceptionHandler uncaughtExceptionHandler,
+            boolean nonBlocking
+        ) {
+            super(namePrefix, daemon, priority, uncaughtExceptionHandler);
+            this.nonBlocking = nonBlocking;
+        }
+
+        @Override
+        protected @NotNull TracingThread createTracingThread(@NotNull Runnable r, @NotNull String name) {
+            if (nonBlocking) {
+                return new NonBlockingTracingThread(null, r, name);
+            }
+
+            return super.createTracingThread(r, name);
+        }
+
+        @Override
+        protected @NotNull TracingThread createTracingThread(@NotNull Thread prototype, @NotNull Runnable r) {
+            if (prototype instanceof NonBlocking) {
+                return new NonBlockingTracingThread(prototype.getThreadGroup(), r, prototype.getName());
+            }
+
+            return super.createTracingThread(prototype, r);
+        }
+    }
+
+    /**
+     * A {@link TracingThread} for Reactor's non-blocking schedulers.
+     */
+    protected static class NonBlockingTracingThread extends TracingThread implements NonBlocking {
+
+        protected NonBlockingTracingThread(ThreadGroup group, Runnable target, String name) {
+            super(group, target, name);
+        }
+    }
+}
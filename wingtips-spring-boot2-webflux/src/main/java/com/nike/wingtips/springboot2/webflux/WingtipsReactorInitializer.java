@@ -1,5 +1,6 @@
 package com.nike.wingtips.springboot2.webflux;
 
+import com.nike.wingtips.spring.webflux.reactor.WingtipsReactorContextPropagation;
 import com.nike.wingtips.util.asynchelperwrapper.ScheduledExecutorServiceWithTracing;
 
 import org.springframework.boot.context.event.ApplicationReadyEvent;
@@ -22,6 +23,14 @@ import reactor.core.scheduler.Schedulers;
  * <p>To remove this hook (i.e. during unit testing), you can call {@link
  * Schedulers#removeExecutorServiceDecorator(String)} and pass it {@link #WINGTIPS_SCHEDULER_KEY}.
  *
+ * <p>Alternatively, if you construct this class with the {@code contextPropagationEnabled} argument set to true, then
+ * {@link WingtipsReactorContextPropagation#registerHook()} is called instead of decorating the executor services. That
+ * propagates the tracing state stored in the Mono/Flux subscriber {@link reactor.util.context.Context} (which {@link
+ * com.nike.wingtips.spring.webflux.server.WingtipsSpringWebfluxWebFilter} sets up for each request) rather than the
+ * tracing state of whatever thread scheduled a task. That costs more than the executor service decorator (see {@link
+ * WingtipsReactorContextPropagation}), so only use it if you need the tracing state to follow the subscription. To
+ * remove that hook you can call {@link WingtipsReactorContextPropagation#removeHook()}.
+ *
  * <p>NOTE: The hook registration will only occur if you constructed this class with the {@code enabled} boolean
  * argument set to true. Otherwise this class will do nothing. This {@code enabled} boolean allows for this class'
  * functionality to be turned on or off easily via application properties.
@@ -38,6 +47,7 @@ public class WingtipsReactorInitializer implements ApplicationListener<Applicati
     public static final String WINGTIPS_SCHEDULER_KEY = "WINGTIPS_PROJECT_REACTOR_INTEGRATION_SCHEDULER";
 
     private final boolean enabled;
+    private final boolean contextPropagationEnabled;
 
     /**
      * @param enabled Pass true to have this class add the Wingtips {@link ScheduledExecutorServiceWithTracing}
@@ -45,7 +55,19 @@ public class WingtipsReactorInitializer implements ApplicationListener<Applicati
      * this class to be a no-op.
      */
     public WingtipsReactorInitializer(boolean enabled) {
+        this(enabled, false);
+    }
+
+    /**
+     * @param enabled Pass true to have this class add a Wingtips Project Reactor hook when Spring Boot starts up,
+     * false to prevent any hook from being added. In other words, false will cause this class to be a no-op.
+     * @param contextPropagationEnabled Pass true to have the hook be {@link
+     * WingtipsReactorContextPropagation#registerHook()}, false to have the hook be the {@link
+     * ScheduledExecutorServiceWithTracing} executor service decorator. Ignored if {@code enabled} is false.
+     */
+    public WingtipsReactorInitializer(boolean enabled, boolean contextPropagationEnabled) {
         this.enabled = enabled;
+        this.contextPropagationEnabled = contextPropagationEnabled;
     }
 
     /**
@@ -56,7 +78,14 @@ public class WingtipsReactorInitializer implements ApplicationListener<Applicati
      */
     @Override
     public void onApplicationEvent(ApplicationReadyEvent event) {
-        if (enabled) {
+        if (!enabled) {
+            return;
+        }
+
+        if (contextPropagationEnabled) {
+            WingtipsReactorContextPropagation.registerHook();
+        }
+        else {
             Schedulers.addExecutorServiceDecorator(
                     WINGTIPS_SCHEDULER_KEY,
                     (scheduler, schedulerService) -> new ScheduledExecutorServiceWithTracing(schedulerService)
@@ -71,4 +100,12 @@ public class WingtipsReactorInitializer implements ApplicationListener<Applicati
     public boolean isEnabled() {
         return enabled;
     }
+
+    /**
+     * @return true if this initializer registers the subscriber {@link reactor.util.context.Context} based hook (see
+     * {@link WingtipsReactorContextPropagation}) rather than the executor service decorator when it's enabled.
+     */
+    public boolean isContextPropagationEnabled() {
+        return contextPropagationEnabled;
+    }
 }
@@ -0,0 +1,88 @@
+package com.nike.wingtips.springboot2.webflux;
+
+import com.nike.wingtips.metrics.SpanMetrics;
+import com.nike.wingtips.metrics.SpanMetricsListener;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * A Micrometer {@link MeterBinder} that exposes the RED metrics collected by a {@link SpanMetricsListener}. For each
+ * (span name, span purpose, status class) combination seen by the listener the following meters are registered,
+ * tagged with {@code span_name}, {@code span_purpose}, and {@code status_class}:
+ * <ul>
+ *     <li>{@code wingtips.span.requests} - a function counter of completed spans</li>
+ *     <li>{@code wingtips.span.errors} - a function counter of completed spans that had an error tag</li>
+ *     <li>{@code wingtips.span.duration} - a function timer of completed span durations</li>
+ * </ul>
+ * The meters read the listener's cumulative values on demand, so there's no extra work when spans complete. Meters
+ * for combinations the listener sees after binding are registered as they show up.
+ */
+@SuppressWarnings("WeakerAccess")
+public class WingtipsSpanMetricsMeterBinder implements MeterBinder {
+
+    public static final String REQUESTS_METER_NAME = "wingtips.span.requests";
+    public static final String ERRORS_METER_NAME = "wingtips.span.errors";
+    public static final String DURATION_METER_NAME = "wingtips.span.duration";
+
+    public static final String SPAN_NAME_TAG = "span_name";
+    public static final String SPAN_PURPOSE_TAG = "span_purpose";
+    public static final String STATUS_CLASS_TAG = "status_class";
+
+    protected final SpanMetricsListener spanMetricsListener;
+
+    public WingtipsSpanMetricsMeterBinder(@NotNull SpanMetricsListener spanMetricsListener) {
+        //noinspection ConstantConditions
+        if (spanMetricsListener == null) {
+            throw new IllegalArgumentException("spanMetricsListener cannot be null");
+        }
+        this.spanMetricsListener = spanMetricsListener;
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        // Register the callback first so nothing created while we're registering the existing metrics is missed.
+        //      Micrometer ignores duplicate registrations, so it doesn't matter if something gets registered twice.
+        spanMetricsListener.addSpanMetricsCreatedCallback(metrics -> registerMeters(registry, metrics));
+        for (SpanMetrics metrics : spanMetricsListener.getAllSpanMetrics()) {
+            registerMeters(registry, metrics);
+        }
+    }
+
+    protected void registerMeters(MeterRegistry registry, SpanMetrics metrics) {
+        Tags tags = Tags.of(
+            SPAN_NAME_TAG, metrics.getSpanName(),
+            SPAN_PURPOSE_TAG, metrics.getSpanPurpose().name(),
+            STATUS_CLASS_TAG, metrics.getStatusClass().getTagValue()
+        );
+
+        FunctionCounter.builder(REQUESTS_METER_NAME, metrics, SpanMetrics::getRequestCount)
+                       .description("The number of completed Wingtips spans")
+                       .tags(tags)
+                       .register(registry);
+
+        FunctionCounter.builder(ERRORS_METER_NAME, metrics, SpanMetrics::getErrorCount)
+                       .description("The number of completed Wingtips spans that had an error tag")
+                       .tags(tags)
+                       .register(registry);
+
+        FunctionTimer.builder(
+                         DURATION_METER_NAME, metrics,
+                         SpanMetrics::getRequestCount, SpanMetrics::getTotalDurationNanos, TimeUnit.NANOSECONDS
+                     )
+                     .description("The duration of completed Wingtips spans")
+                     .tags(tags)
+                     .register(registry);
+    }
+
+    public SpanMetricsListener getSpanMetricsListener() {
+        return spanMetricsListener;
+    }
+}
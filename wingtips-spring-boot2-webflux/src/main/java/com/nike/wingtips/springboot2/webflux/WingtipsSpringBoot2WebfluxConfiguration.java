@@ -2,6 +2,12 @@ package com.nike.wingtips.springboot2.webflux;
 
 import com.nike.internal.util.StringUtils;
 import com.nike.wingtips.Tracer;
+import com.nike.wingtips.contextstorage.TracingThreadContextStorage;
+import com.nike.wingtips.http.propagation.PropagationCodec;
+import com.nike.wingtips.http.propagation.PropagationCodecFactory;
+import com.nike.wingtips.lifecyclelistener.SpanLifecycleListener;
+import com.nike.wingtips.metrics.SpanMetricsListener;
+import com.nike.wingtips.sampling.RootSpanSamplingStrategy;
 import com.nike.wingtips.spring.webflux.server.WingtipsSpringWebfluxWebFilter;
 import com.nike.wingtips.tags.HttpTagAndSpanNamingAdapter;
 import com.nike.wingtips.tags.HttpTagAndSpanNamingStrategy;
@@ -12,7 +18,9 @@ import com.nike.wingtips.tags.ZipkinHttpTagStrategy;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -25,6 +33,8 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import reactor.core.scheduler.Schedulers;
+
 /**
  * Wingtips Spring Boot 2 WebFlux configuration - this class enables Wingtips tracing on incoming requests by exposing
  * a {@link WingtipsSpringWebfluxWebFilter} as a {@link Bean}, and provides a few other Wingtips configuration
@@ -58,6 +68,16 @@ import java.util.stream.Stream;
  * Zipkin server, please see {@code WingtipsWithZipkinSpringBoot2WebfluxConfiguration} from the
  * {@code wingtips-zipkin2-spring-boot2-webflux} Wingtips module.
  *
+ * <p>If {@link WingtipsSpringBoot2WebfluxProperties#isSpanMetricsEnabled()} is true then a {@link
+ * SpanMetricsListener} is registered with {@link Tracer} and exposed as a bean, and if Micrometer is on the classpath
+ * a {@link WingtipsSpanMetricsMeterBinder} is exposed as well so the span metrics show up in your {@code
+ * MeterRegistry}.
+ *
+ * <p>If {@link WingtipsSpringBoot2WebfluxProperties#isTracingThreadsEnabled()} is true then {@link Tracer} is
+ * switched to {@link TracingThreadContextStorage}, Reactor's schedulers are created with a {@link
+ * TracingThreadSchedulersFactory}, and a {@link TracingThreadNettyServerCustomizer} is exposed as a bean so the
+ * Reactor Netty server's event loop threads get the same treatment.
+ *
  * @author Nic Munroe
  */
 @Configuration
@@ -79,6 +99,7 @@ public class WingtipsSpringBoot2WebfluxConfiguration {
     protected WingtipsSpringWebfluxWebFilter customSpringWebfluxWebFilter;
 
     protected WingtipsSpringBoot2WebfluxProperties wingtipsProperties;
+    protected SpanMetricsListener spanMetricsListener;
 
     @Autowired
     public WingtipsSpringBoot2WebfluxConfiguration(WingtipsSpringBoot2WebfluxProperties wingtipsProperties) {
@@ -87,6 +108,26 @@ public class WingtipsSpringBoot2WebfluxConfiguration {
         if (wingtipsProperties.getSpanLoggingFormat() != null) {
             Tracer.getInstance().setSpanLoggingRepresentation(wingtipsProperties.getSpanLoggingFormat());
         }
+        // Set the root span sampling strategy if specified in the wingtips properties.
+        RootSpanSamplingStrategy samplingStrategy = wingtipsProperties.generateRootSpanSamplingStrategy();
+        if (samplingStrategy != null) {
+            Tracer.getInstance().setRootSpanSamplingStrategy(samplingStrategy);
+            // Some strategies (e.g. the adaptive one) need to see completed spans.
+            if (samplingStrategy instanceof SpanLifecycleListener) {
+                Tracer.getInstance().addSpanLifecycleListener((SpanLifecycleListener) samplingStrategy);
+            }
+        }
+        // Aggregate completed spans into RED metrics if desired.
+        if (wingtipsProperties.isSpanMetricsEnabled()) {
+            spanMetricsListener = SpanMetricsListener.newBuilder().build();
+            Tracer.getInstance().addSpanLifecycleListener(spanMetricsListener);
+        }
+        // Keep span stacks in dedicated thread fields on Reactor's scheduler threads if desired. This must happen
+        //      before the schedulers start doing work, since setting the factory disposes any cached schedulers.
+        if (wingtipsProperties.isTracingThreadsEnabled()) {
+            Tracer.getInstance().setTracingContextStorage(TracingThreadContextStorage.getDefaultInstance());
+            Schedulers.setFactory(new TracingThreadSchedulersFactory());
+        }
     }
 
     /**
@@ -131,6 +172,7 @@ public class WingtipsSpringBoot2WebfluxConfiguration {
             .withUserIdHeaderKeys(extractUserIdHeaderKeysAsList(wingtipsProperties))
             .withTagAndNamingStrategy(extractTagAndNamingStrategy(wingtipsProperties))
             .withTagAndNamingAdapter(extractTagAndNamingAdapter(wingtipsProperties))
+            .withPropagationCodec(extractPropagationCodec(wingtipsProperties))
             .build();
     }
 
@@ -142,11 +184,75 @@ public class WingtipsSpringBoot2WebfluxConfiguration {
      *
      * <p>NOTE: The {@link WingtipsSpringBoot2WebfluxProperties#isReactorEnabled()} property will control whether
      * this hook actually registers itself or not, so you can enable or disable this integration from your
-     * application properties.
+     * application properties. The {@link WingtipsSpringBoot2WebfluxProperties#isReactorContextPropagationEnabled()}
+     * property will switch the hook to the subscriber {@link reactor.util.context.Context} based one (see {@link
+     * WingtipsReactorInitializer}).
      */
     @Bean
     public WingtipsReactorInitializer reactorInitializer() {
-        return new WingtipsReactorInitializer(wingtipsProperties.isReactorEnabled());
+        return new WingtipsReactorInitializer(
+            wingtipsProperties.isReactorEnabled(),
+            wingtipsProperties.isReactorContextPropagationEnabled()
+        );
+    }
+
+    /**
+     * @return The {@link SpanMetricsListener} that was registered with {@link Tracer}, or null (essentially a no-op
+     * for Spring) if {@link WingtipsSpringBoot2WebfluxProperties#isSpanMetricsEnabled()} is false.
+     */
+    @Bean
+    public SpanMetricsListener wingtipsSpanMetricsListener() {
+        return spanMetricsListener;
+    }
+
+    /**
+     * Runs the Reactor Netty HTTP server on tracing-aware event loop threads. This is only processed when Reactor
+     * Netty is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "reactor.netty.http.server.HttpServer")
+    public static class WingtipsTracingThreadNettyConfiguration {
+
+        /**
+         * @return A {@link TracingThreadNettyServerCustomizer}, or null (essentially a no-op for Spring) if {@link
+         * WingtipsSpringBoot2WebfluxProperties#isTracingThreadsEnabled()} is false.
+         */
+        @Bean
+        @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+        public TracingThreadNettyServerCustomizer wingtipsTracingThreadNettyServerCustomizer(
+            WingtipsSpringBoot2WebfluxProperties wingtipsProperties
+        ) {
+            if (!wingtipsProperties.isTracingThreadsEnabled()) {
+                return null;
+            }
+
+            return new TracingThreadNettyServerCustomizer();
+        }
+    }
+
+    /**
+     * Exposes the {@link #wingtipsSpanMetricsListener()} metrics to Micrometer. This is only processed when
+     * Micrometer is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    public static class WingtipsSpanMetricsMicrometerConfiguration {
+
+        /**
+         * @return A {@link WingtipsSpanMetricsMeterBinder} for the {@link SpanMetricsListener} bean, or null
+         * (essentially a no-op for Spring) if there isn't one.
+         */
+        @Bean
+        public WingtipsSpanMetricsMeterBinder wingtipsSpanMetricsMeterBinder(
+            ObjectProvider<SpanMetricsListener> spanMetricsListener
+        ) {
+            SpanMetricsListener listener = spanMetricsListener.getIfAvailable();
+            if (listener == null) {
+                return null;
+            }
+
+            return new WingtipsSpanMetricsMeterBinder(listener);
+        }
     }
 
     protected @Nullable List<String> extractUserIdHeaderKeysAsList(WingtipsSpringBoot2WebfluxProperties props) {
@@ -224,4 +330,23 @@ public class WingtipsSpringBoot2WebfluxConfiguration {
             return null;
         }
     }
+
+    protected @Nullable PropagationCodec extractPropagationCodec(WingtipsSpringBoot2WebfluxProperties props) {
+        String codecNames = props.getPropagationCodec();
+
+        if (StringUtils.isBlank(codecNames)) {
+            // Nothing specified, so return null to use the default.
+            return null;
+        }
+
+        try {
+            return PropagationCodecFactory.createPropagationCodec(codecNames);
+        }
+        catch (Exception ex) {
+            // Couldn't create the codec. Return null so the default gets used.
+            logger.warn("Unable to match propagation codec \"{}\". Using the default codec (B3 multi-header)",
+                        codecNames, ex);
+            return null;
+        }
+    }
 }
@@ -1,6 +1,8 @@
 package com.nike.wingtips.springboot2.webflux;
 
 import com.nike.wingtips.Tracer;
+import com.nike.wingtips.sampling.RootSpanSamplingStrategy;
+import com.nike.wingtips.sampling.RootSpanSamplingStrategyFactory;
 import com.nike.wingtips.spring.webflux.server.SpringWebfluxServerRequestTagAdapter;
 import com.nike.wingtips.spring.webflux.server.WingtipsSpringWebfluxWebFilter;
 import com.nike.wingtips.tags.OpenTracingHttpTagStrategy;
@@ -57,6 +59,57 @@ import java.util.List;
  *         Mono/Flux async boundaries, based on the tracing state of the thread at the time of Mono/Flux subscription.
  *         This is disabled by default.
  *     </li>
+ *     <li>
+ *         wingtips.reactor-context-propagation-enabled - When {@code wingtips.reactor-enabled} is true, propagates
+ *         the tracing state stored in the Mono/Flux subscriber {@link reactor.util.context.Context} (via {@link
+ *         com.nike.wingtips.spring.webflux.reactor.WingtipsReactorContextPropagation}) instead of decorating every
+ *         Project Reactor scheduler's executor service. The tracing state then follows the subscription rather than
+ *         whatever thread scheduled a task, but this costs more than the executor service decorator, so only enable it
+ *         if you need that. This is disabled by default.
+ *     </li>
+ *     <li>
+ *         wingtips.root-span-sampling-strategy - Determines which new traces are sampled by setting the {@link
+ *         RootSpanSamplingStrategy} on {@link Tracer}. If missing then the sampling
+ *         strategy will not be changed (defaults to sampling every trace). The following short names are understood,
+ *         otherwise the value is treated as the fully qualified class name of a custom strategy with a no-arg
+ *         constructor:
+ *         <ul>
+ *             <li>{@code ALL} - {@link com.nike.wingtips.sampling.SampleAllTheThingsStrategy}</li>
+ *             <li>
+ *                 {@code PROBABILISTIC} - {@link com.nike.wingtips.sampling.ProbabilisticSamplingStrategy}, samples
+ *                 a trace ID derived percentage of traces set by {@code wingtips.sampling-probability}
+ *             </li>
+ *             <li>
+ *                 {@code RATE_LIMITED} - {@link com.nike.wingtips.sampling.RateLimitingSamplingStrategy}, samples at
+ *                 most {@code wingtips.sampling-traces-per-second} traces per second
+ *             </li>
+ *             <li>
+ *                 {@code ADAPTIVE} - {@link com.nike.wingtips.sampling.AdaptiveSamplingStrategy}, adjusts its
+ *                 probability to emit roughly {@code wingtips.sampling-target-spans-per-second} sampled spans per
+ *                 second, starting from {@code wingtips.sampling-probability} if specified
+ *             </li>
+ *         </ul>
+ *     </li>
+ *     <li>
+ *         wingtips.propagation-codec - Determines which tracing headers {@link WingtipsSpringWebfluxWebFilter} reads
+ *         from incoming requests. See {@link
+ *         com.nike.wingtips.http.propagation.PropagationCodecFactory#createPropagationCodec(String)} for the
+ *         understood values (e.g. {@code B3}, {@code B3_SINGLE}, {@code W3C}, or a comma-delimited list like {@code
+ *         W3C,B3}). If missing then the B3 multi-header format is used.
+ *     </li>
+ *     <li>
+ *         wingtips.span-metrics-enabled - Registers a {@link com.nike.wingtips.metrics.SpanMetricsListener} with
+ *         {@link Tracer} that aggregates completed spans into per-span-name request, error, and latency metrics, and
+ *         exposes it as a bean. If Micrometer is on the classpath the metrics are also bound to your {@code
+ *         MeterRegistry} via {@link WingtipsSpanMetricsMeterBinder}. This is disabled by default.
+ *     </li>
+ *     <li>
+ *         wingtips.tracing-threads-enabled - Runs Project Reactor's schedulers (via {@link
+ *         TracingThreadSchedulersFactory}) and the Reactor Netty HTTP server's event loop (via {@link
+ *         TracingThreadNettyServerCustomizer}) on threads that keep their span stack in a dedicated field, and
+ *         switches {@link Tracer} to {@link com.nike.wingtips.contextstorage.TracingThreadContextStorage} so those
+ *         threads skip the {@link ThreadLocal} lookup. This is disabled by default.
+ *     </li>
  * </ul>
  *
  * <p>For example you could set the following properties in your {@code application.properties}:
@@ -67,6 +120,12 @@ import java.util.List;
  *     wingtips.server-side-span-tagging-strategy=ZIPKIN
  *     wingtips.server-side-span-tagging-adapter=com.nike.wingtips.spring.webflux.server.SpringWebfluxServerRequestTagAdapter
  *     wingtips.reactor-enabled=false
+ *     wingtips.reactor-context-propagation-enabled=false
+ *     wingtips.root-span-sampling-strategy=PROBABILISTIC
+ *     wingtips.sampling-probability=0.1
+ *     wingtips.propagation-codec=W3C,B3
+ *     wingtips.span-metrics-enabled=true
+ *     wingtips.tracing-threads-enabled=true
  * </pre>
  *
  * @author Nic Munroe
@@ -78,7 +137,15 @@ public class WingtipsSpringBoot2WebfluxProperties {
     private Tracer.SpanLoggingRepresentation spanLoggingFormat;
     private String serverSideSpanTaggingStrategy;
     private String serverSideSpanTaggingAdapter;
+    private String rootSpanSamplingStrategy;
+    private Double samplingProbability;
+    private Integer samplingTracesPerSecond;
+    private Double samplingTargetSpansPerSecond;
+    private String propagationCodec;
     private boolean reactorEnabled = false;
+    private boolean reactorContextPropagationEnabled = false;
+    private boolean spanMetricsEnabled = false;
+    private boolean tracingThreadsEnabled = false;
 
     public boolean isWingtipsDisabled() {
         return wingtipsDisabled;
@@ -127,4 +194,83 @@ public class WingtipsSpringBoot2WebfluxProperties {
     public void setReactorEnabled(boolean reactorEnabled) {
         this.reactorEnabled = reactorEnabled;
     }
+
+    public boolean isReactorContextPropagationEnabled() {
+        return reactorContextPropagationEnabled;
+    }
+
+    public void setReactorContextPropagationEnabled(boolean reactorContextPropagationEnabled) {
+        this.reactorContextPropagationEnabled = reactorContextPropagationEnabled;
+    }
+
+    public String getRootSpanSamplingStrategy() {
+        return rootSpanSamplingStrategy;
+    }
+
+    public void setRootSpanSamplingStrategy(String rootSpanSamplingStrategy) {
+        this.rootSpanSamplingStrategy = rootSpanSamplingStrategy;
+    }
+
+    public Double getSamplingProbability() {
+        return samplingProbability;
+    }
+
+    public void setSamplingProbability(Double samplingProbability) {
+        this.samplingProbability = samplingProbability;
+    }
+
+    public Integer getSamplingTracesPerSecond() {
+        return samplingTracesPerSecond;
+    }
+
+    public void setSamplingTracesPerSecond(Integer samplingTracesPerSecond) {
+        this.samplingTracesPerSecond = samplingTracesPerSecond;
+    }
+
+    public Double getSamplingTargetSpansPerSecond() {
+        return samplingTargetSpansPerSecond;
+    }
+
+    public void setSamplingTargetSpansPerSecond(Double samplingTargetSpansPerSecond) {
+        this.samplingTargetSpansPerSecond = samplingTargetSpansPerSecond;
+    }
+
+    public String getPropagationCodec() {
+        return propagationCodec;
+    }
+
+    public void setPropagationCodec(String propagationCodec) {
+        this.propagationCodec = propagationCodec;
+    }
+
+    public boolean isSpanMetricsEnabled() {
+        return spanMetricsEnabled;
+    }
+
+    public void setSpanMetricsEnabled(boolean spanMetricsEnabled) {
+        this.spanMetricsEnabled = spanMetricsEnabled;
+    }
+
+    public boolean isTracingThreadsEnabled() {
+        return tracingThreadsEnabled;
+    }
+
+    public void setTracingThreadsEnabled(boolean tracingThreadsEnabled) {
+        this.tracingThreadsEnabled = tracingThreadsEnabled;
+    }
+
+    /**
+     * @return The {@link RootSpanSamplingStrategy} described by the {@code wingtips.root-span-sampling-strategy}
+     * and {@code wingtips.sampling-*} properties, or null if {@code wingtips.root-span-sampling-strategy} is not
+     * set. See {@link RootSpanSamplingStrategyFactory#createRootSpanSamplingStrategy(String, Double, Integer, Double)}.
+     */
+    public RootSpanSamplingStrategy generateRootSpanSamplingStrategy() {
+        if (rootSpanSamplingStrategy == null) {
+            return null;
+        }
+
+        return RootSpanSamplingStrategyFactory.createRootSpanSamplingStrategy(
+            rootSpanSamplingStrategy, samplingProbability, samplingTracesPerSecond, samplingTargetSpansPerSecond
+        );
+    }
 }
@@ -0,0 +1,152 @@
+package com.nike.wingtips.springboot2.webflux;
+
+import com.nike.wingtips.contextstorage.TracingContextSlotCarrier;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import reactor.netty.http.server.HttpServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the functionality of {@link TracingThreadNettyServerCustomizer}.
+ */
+@RunWith(DataProviderRunner.class)
+public class TracingThreadNettyServerCustomizerTest {
+
+    private TracingThreadNettyServerCustomizer customizer;
+
+    @Before
+    public void beforeMethod() {
+        customizer = new TracingThreadNettyServerCustomizer();
+    }
+
+    @After
+    public void afterMethod() {
+        customizer.destroy();
+    }
+
+    @Test
+    public void apply_returns_server_configured_to_run_on_the_customizers_loop_resources() {
+        // given
+        HttpServer origServer = HttpServer.create();
+
+        // when
+        HttpServer result = customizer.apply(origServer);
+
+        // then
+        assertThat(result).isNotNull().isNotSameAs(origServer);
+        assertThat(result.configuration().loopResources()).isSameAs(customizer.loopResources);
+    }
+
+    @Test
+    public void loop_resources_return_the_customizers_event_loop_groups() {
+        // expect
+        assertThat(customizer.loopResources.onServer(false)).isSameAs(customizer.getOrCreateEventLoopGroup(false));
+        assertThat(customizer.loopResources.onServer(true)).isSameAs(customizer.getOrCreateEventLoopGroup(true));
+    }
+
+    @Test
+    public void getOrCreateEventLoopGroup_uses_nio_when_native_transport_is_not_preferred() {
+        // when
+        EventLoopGroup result = customizer.getOrCreateEventLoopGroup(false);
+
+        // then
+        assertThat(result).isInstanceOf(NioEventLoopGroup.class);
+        assertThat(customizer.getOrCreateEventLoopGroup(false)).isSameAs(result);
+        assertThat(customizer.nativeEventLoopGroup).isNull();
+    }
+
+    @Test
+    public void getOrCreateEventLoopGroup_uses_native_transport_when_preferred_and_available() {
+        // when
+        EventLoopGroup result = customizer.getOrCreateEventLoopGroup(true);
+
+        // then
+        if (Epoll.isAvailable()) {
+            assertThat(result).isInstanceOf(EpollEventLoopGroup.class);
+            assertThat(customizer.nativeEventLoopGroup).isSameAs(result);
+        }
+        else {
+            // Kqueue isn't on the test classpath, so we get NIO when epoll isn't available.
+            assertThat(result).isInstanceOf(NioEventLoopGroup.class);
+            assertThat(customizer.nativeEventLoopGroupUnavailable).isTrue();
+        }
+        assertThat(customizer.getOrCreateEventLoopGroup(true)).isSameAs(result);
+    }
+
+    @Test
+    public void createNativeEventLoopGroupIfAvailable_returns_null_when_transport_is_not_on_classpath() {
+        // expect
+        assertThat(
+            customizer.createNativeEventLoopGroupIfAvailable(
+                "does.not.Exist", "does.not.ExistEventLoopGroup", "doesNotExist"
+            )
+        ).isNull();
+    }
+
+    @Test
+    public void createNativeEventLoopGroupIfAvailable_returns_null_when_event_loop_group_cannot_be_created() {
+        // expect
+        assertThat(
+            customizer.createNativeEventLoopGroupIfAvailable(
+                Epoll.class.getName(), "does.not.ExistEventLoopGroup", "doesNotExist"
+            )
+        ).isNull();
+    }
+
+    @DataProvider(value = {
+        "true",
+        "false"
+    })
+    @Test
+    public void event_loop_threads_are_tracing_aware_fast_thread_local_threads(boolean preferNative) throws Exception {
+        // given
+        EventLoopGroup eventLoopGroup = customizer.getOrCreateEventLoopGroup(preferNative);
+        String expectedTransportName = (eventLoopGroup instanceof EpollEventLoopGroup) ? "epoll" : "nio";
+
+        // when
+        Thread eventLoopThread = eventLoopGroup.submit(Thread::currentThread).get();
+
+        // then
+        assertThat(eventLoopThread).isInstanceOf(TracingContextSlotCarrier.class);
+        assertThat(eventLoopThread).isInstanceOf(FastThreadLocalThread.class);
+        assertThat(eventLoopThread.isDaemon()).isTrue();
+        assertThat(eventLoopThread.getName()).startsWith(
+            TracingThreadNettyServerCustomizer.EVENT_LOOP_THREAD_NAME_PREFIX + "-" + expectedTransportName
+        );
+    }
+
+    @Test
+    public void destroy_shuts_down_the_event_loop_groups() {
+        // given
+        EventLoopGroup nioEventLoopGroup = customizer.getOrCreateEventLoopGroup(false);
+        EventLoopGroup preferredNativeEventLoopGroup = customizer.getOrCreateEventLoopGroup(true);
+
+        // when
+        customizer.destroy();
+
+        // then
+        assertThat(nioEventLoopGroup.isShuttingDown()).isTrue();
+        assertThat(preferredNativeEventLoopGroup.isShuttingDown()).isTrue();
+    }
+
+    @Test
+    public void destroy_does_nothing_if_no_event_loop_group_was_created() {
+        // expect
+        customizer.destroy();
+        assertThat(customizer.nioEventLoopGroup).isNull();
+        assertThat(customizer.nativeEventLoopGroup).isNull();
+    }
+}
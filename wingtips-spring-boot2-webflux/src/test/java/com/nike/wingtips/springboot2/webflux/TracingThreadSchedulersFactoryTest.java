@@ -0,0 +1,156 @@
+package com.nike.wingtips.springboot2.webflux;
+
+import com.nike.wingtips.contextstorage.TracingContextSlotCarrier;
+import com.nike.wingtips.contextstorage.TracingThreadFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.NonBlocking;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the functionality of {@link TracingThreadSchedulersFactory}.
+ */
+public class TracingThreadSchedulersFactoryTest {
+
+    @Before
+    public void beforeMethod() {
+        Schedulers.setFactory(new TracingThreadSchedulersFactory());
+    }
+
+    @After
+    public void afterMethod() {
+        Schedulers.resetFactory();
+    }
+
+    private Thread threadUsedBy(Scheduler scheduler) {
+        try {
+            return Mono.fromCallable(Thread::currentThread).subscribeOn(scheduler).block();
+        }
+        finally {
+            scheduler.dispose();
+        }
+    }
+
+    @Test
+    public void parallel_schedulers_run_on_non_blocking_tracing_threads() {
+        // when
+        Thread thread = threadUsedBy(Schedulers.newParallel("parallel-test", 1));
+
+        // then
+        assertThat(thread).isInstanceOf(TracingContextSlotCarrier.class);
+        assertThat(thread).isInstanceOf(NonBlocking.class);
+        assertThat(thread.getName()).startsWith("parallel-test");
+        assertThat(thread.isDaemon()).isFalse();
+    }
+
+    @Test
+    public void single_schedulers_run_on_non_blocking_tracing_threads() {
+        // when
+        Thread thread = threadUsedBy(Schedulers.newSingle("single-test", true));
+
+        // then
+        assertThat(thread).isInstanceOf(TracingContextSlotCarrier.class);
+        assertThat(thread).isInstanceOf(NonBlocking.class);
+        assertThat(thread.getName()).startsWith("single-test");
+        assertThat(thread.isDaemon()).isTrue();
+    }
+
+    @Test
+    public void bounded_elastic_schedulers_run_on_blocking_tracing_threads() {
+        // when
+        Thread thread = threadUsedBy(Schedulers.newBoundedElastic(1, 10, "bounded-elastic-test"));
+
+        // then
+        assertThat(thread).isInstanceOf(TracingContextSlotCarrier.class);
+        assertThat(thread).isNotInstanceOf(NonBlocking.class);
+        assertThat(thread.getName()).startsWith("bounded-elastic-test");
+    }
+
+    @Test
+    public void reactor_thread_factory_settings_are_probed_only_once_per_scheduler() {
+        // given
+        ReactorLikeThreadFactory reactorLikeThreadFactory = new ReactorLikeThreadFactory();
+
+        // when
+        ThreadFactory result = new TracingThreadSchedulersFactory().withTracingThreads(reactorLikeThreadFactory);
+        Thread first = result.newThread(() -> { });
+        Thread second = result.newThread(() -> { });
+
+        // then
+        assertThat(reactorLikeThreadFactory.numThreadsCreated).isEqualTo(1);
+        assertThat(first).isInstanceOf(TracingContextSlotCarrier.class).isInstanceOf(NonBlocking.class);
+        assertThat(first.getName()).isEqualTo("reactor-like-1");
+        assertThat(second.getName()).isEqualTo("reactor-like-2");
+        assertThat(first.isDaemon()).isTrue();
+        assertThat(first.getPriority()).isEqualTo(Thread.MIN_PRIORITY);
+        assertThat(first.getUncaughtExceptionHandler()).isSameAs(reactorLikeThreadFactory);
+    }
+
+    @Test
+    public void other_thread_factories_have_their_settings_copied_for_each_thread() {
+        // given
+        ThreadFactory otherThreadFactory = r -> new Thread(r, "other-thread");
+
+        // when
+        ThreadFactory result = new TracingThreadSchedulersFactory().withTracingThreads(otherThreadFactory);
+        Thread thread = result.newThread(() -> { });
+
+        // then
+        assertThat(result).isInstanceOf(TracingThreadFactory.class);
+        assertThat(thread).isInstanceOf(TracingContextSlotCarrier.class).isNotInstanceOf(NonBlocking.class);
+        assertThat(thread.getName()).isEqualTo("other-thread");
+    }
+
+    @Test
+    public void withTracingThreads_does_not_double_wrap() {
+        // given
+        TracingThreadSchedulersFactory schedulersFactory = new TracingThreadSchedulersFactory();
+        ThreadFactory alreadyWrapped = schedulersFactory.withTracingThreads(r -> new Thread(r));
+
+        // expect
+        assertThat(schedulersFactory.withTracingThreads(alreadyWrapped)).isSameAs(alreadyWrapped);
+    }
+
+    private static class ReactorLikeThreadFactory
+        implements ThreadFactory, Supplier<String>, Thread.UncaughtExceptionHandler {
+
+        private int numThreadsCreated = 0;
+
+        @Override
+        public Thread newThread(Runnable r) {
+            numThreadsCreated++;
+            Thread thread = new ReactorLikeNonBlockingThread(r, "reactor-like-" + numThreadsCreated);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.setUncaughtExceptionHandler(this);
+            return thread;
+        }
+
+        @Override
+        public String get() {
+            return "reactor-like";
+        }
+
+        @Override
+        public void uncaughtException(Thread t, Throwable e) {
+            // Do nothing.
+        }
+    }
+
+    private static class ReactorLikeNonBlockingThread extends Thread implements NonBlocking {
+
+        private ReactorLikeNonBlockingThread(Runnable target, String name) {
+            super(target, name);
+        }
+    }
+}
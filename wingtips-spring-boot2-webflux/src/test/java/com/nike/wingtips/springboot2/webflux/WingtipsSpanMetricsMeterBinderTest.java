@@ -0,0 +1,99 @@
+package com.nike.wingtips.springboot2.webflux;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.metrics.SpanMetricsListener;
+import com.nike.wingtips.tags.KnownZipkinTags;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link WingtipsSpanMetricsMeterBinder}.
+ */
+public class WingtipsSpanMetricsMeterBinderTest {
+
+    private SpanMetricsListener listener;
+    private SimpleMeterRegistry registry;
+
+    @Before
+    public void beforeMethod() {
+        listener = SpanMetricsListener.newBuilder().build();
+        registry = new SimpleMeterRegistry();
+    }
+
+    private void completeSpan(String name, long durationMillis, String statusCode, boolean error) {
+        Span.Builder builder = Span.newBuilder(name, SpanPurpose.SERVER)
+                                   .withDurationNanos(TimeUnit.MILLISECONDS.toNanos(durationMillis))
+                                   .withTag(KnownZipkinTags.HTTP_STATUS_CODE, statusCode);
+        if (error) {
+            builder.withTag(KnownZipkinTags.ERROR, "true");
+        }
+        listener.spanCompleted(builder.build());
+    }
+
+    @Test
+    public void constructor_throws_IllegalArgumentException_if_passed_null() {
+        // when
+        Throwable ex = catchThrowable(() -> new WingtipsSpanMetricsMeterBinder(null));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void bindTo_registers_meters_for_existing_and_new_span_metrics() {
+        // given
+        completeSpan("GET /foo", 10, "200", false);
+        WingtipsSpanMetricsMeterBinder binder = new WingtipsSpanMetricsMeterBinder(listener);
+
+        // when
+        binder.bindTo(registry);
+        completeSpan("GET /foo", 30, "200", false);
+        completeSpan("GET /foo", 50, "503", true);
+
+        // then
+        FunctionCounter successRequests = registry.find(WingtipsSpanMetricsMeterBinder.REQUESTS_METER_NAME)
+                                                  .tag(WingtipsSpanMetricsMeterBinder.SPAN_NAME_TAG, "GET /foo")
+                                                  .tag(WingtipsSpanMetricsMeterBinder.SPAN_PURPOSE_TAG, "SERVER")
+                                                  .tag(WingtipsSpanMetricsMeterBinder.STATUS_CLASS_TAG, "2xx")
+                                                  .functionCounter();
+        assertThat(successRequests.count()).isEqualTo(2d);
+
+        FunctionTimer successDuration = registry.find(WingtipsSpanMetricsMeterBinder.DURATION_METER_NAME)
+                                                .tag(WingtipsSpanMetricsMeterBinder.STATUS_CLASS_TAG, "2xx")
+                                                .functionTimer();
+        assertThat(successDuration.count()).isEqualTo(2d);
+        assertThat(successDuration.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(40d);
+
+        FunctionCounter serverErrors = registry.find(WingtipsSpanMetricsMeterBinder.ERRORS_METER_NAME)
+                                               .tag(WingtipsSpanMetricsMeterBinder.STATUS_CLASS_TAG, "5xx")
+                                               .functionCounter();
+        assertThat(serverErrors.count()).isEqualTo(1d);
+
+        assertThat(registry.getMeters()).hasSize(6);
+    }
+
+    @Test
+    public void meters_are_not_affected_by_snapshotAndReset() {
+        // given
+        new WingtipsSpanMetricsMeterBinder(listener).bindTo(registry);
+        completeSpan("GET /foo", 10, "200", false);
+
+        // when
+        listener.snapshotAndReset();
+
+        // then
+        assertThat(registry.get(WingtipsSpanMetricsMeterBinder.REQUESTS_METER_NAME).functionCounter().count())
+            .isEqualTo(1d);
+    }
+}
@@ -4,6 +4,14 @@ import com.nike.internal.util.Pair;
 import com.nike.wingtips.Span;
 import com.nike.wingtips.Tracer;
 import com.nike.wingtips.Tracer.SpanLoggingRepresentation;
+import com.nike.wingtips.contextstorage.ThreadLocalTracingContextStorage;
+import com.nike.wingtips.contextstorage.TracingContextSlotCarrier;
+import com.nike.wingtips.contextstorage.TracingThreadContextStorage;
+import com.nike.wingtips.lifecyclelistener.SpanLifecycleListener;
+import com.nike.wingtips.metrics.SpanMetricsListener;
+import com.nike.wingtips.sampling.AdaptiveSamplingStrategy;
+import com.nike.wingtips.sampling.RootSpanSamplingStrategy;
+import com.nike.wingtips.spring.webflux.reactor.WingtipsReactorContextPropagation;
 import com.nike.wingtips.spring.webflux.server.SpringWebfluxServerRequestTagAdapter;
 import com.nike.wingtips.spring.webflux.server.WingtipsSpringWebfluxWebFilter;
 import com.nike.wingtips.springboot2.webflux.componenttest.componentscanonly.ComponentTestMainWithComponentScanOnly;
@@ -16,6 +24,7 @@ import com.nike.wingtips.tags.NoOpHttpTagStrategy;
 import com.nike.wingtips.tags.OpenTracingHttpTagStrategy;
 import com.nike.wingtips.tags.ZipkinHttpTagStrategy;
 import com.nike.wingtips.testutils.Whitebox;
+import com.nike.wingtips.util.TracingState;
 
 import com.tngtech.java.junit.dataprovider.DataProvider;
 import com.tngtech.java.junit.dataprovider.DataProviderRunner;
@@ -26,6 +35,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.Ordered;
@@ -46,10 +56,13 @@ import java.util.stream.Stream;
 
 import notcomponentscanned.componenttest.ComponentTestMainWithCustomWingtipsWebFilter;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
+import static com.nike.wingtips.spring.webflux.WingtipsSpringWebfluxUtils.subscriberContextWithTracingInfo;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 
 /**
@@ -121,6 +134,150 @@ public class WingtipsSpringBoot2WebfluxConfigurationTest {
         assertThat(Tracer.getInstance().getSpanLoggingRepresentation()).isEqualTo(expectedSpanLoggingFormat);
     }
 
+    @Test
+    public void constructor_sets_root_span_sampling_strategy_and_registers_it_as_listener_if_needed() {
+        // given
+        RootSpanSamplingStrategy originalStrategy = Tracer.getInstance().getRootSpanSamplingStrategy();
+        WingtipsSpringBoot2WebfluxProperties props = new WingtipsSpringBoot2WebfluxProperties();
+        props.setRootSpanSamplingStrategy("ADAPTIVE");
+        props.setSamplingTargetSpansPerSecond(100d);
+
+        try {
+            // when
+            new WingtipsSpringBoot2WebfluxConfiguration(props);
+
+            // then
+            RootSpanSamplingStrategy strategy = Tracer.getInstance().getRootSpanSamplingStrategy();
+            assertThat(strategy).isInstanceOf(AdaptiveSamplingStrategy.class);
+            assertThat(((AdaptiveSamplingStrategy) strategy).getTargetSpansPerSecond()).isEqualTo(100d);
+            assertThat(Tracer.getInstance().getSpanLifecycleListeners()).contains((SpanLifecycleListener) strategy);
+        }
+        finally {
+            Tracer.getInstance().setRootSpanSamplingStrategy(originalStrategy);
+            Tracer.getInstance().removeAllSpanLifecycleListeners();
+        }
+    }
+
+    @Test
+    public void constructor_does_not_change_root_span_sampling_strategy_if_prop_is_not_set() {
+        // given
+        RootSpanSamplingStrategy originalStrategy = Tracer.getInstance().getRootSpanSamplingStrategy();
+
+        // when
+        new WingtipsSpringBoot2WebfluxConfiguration(new WingtipsSpringBoot2WebfluxProperties());
+
+        // then
+        assertThat(Tracer.getInstance().getRootSpanSamplingStrategy()).isSameAs(originalStrategy);
+    }
+
+    @Test
+    public void constructor_registers_SpanMetricsListener_if_span_metrics_are_enabled() {
+        // given
+        WingtipsSpringBoot2WebfluxProperties props = new WingtipsSpringBoot2WebfluxProperties();
+        props.setSpanMetricsEnabled(true);
+
+        // when
+        WingtipsSpringBoot2WebfluxConfiguration conf = new WingtipsSpringBoot2WebfluxConfiguration(props);
+
+        // then
+        SpanMetricsListener listener = conf.wingtipsSpanMetricsListener();
+        assertThat(listener).isNotNull();
+        assertThat(Tracer.getInstance().getSpanLifecycleListeners()).containsExactly(listener);
+    }
+
+    @Test
+    public void constructor_does_not_register_SpanMetricsListener_if_span_metrics_are_disabled() {
+        // when
+        WingtipsSpringBoot2WebfluxConfiguration conf =
+            new WingtipsSpringBoot2WebfluxConfiguration(new WingtipsSpringBoot2WebfluxProperties());
+
+        // then
+        assertThat(conf.wingtipsSpanMetricsListener()).isNull();
+        assertThat(Tracer.getInstance().getSpanLifecycleListeners()).isEmpty();
+    }
+
+    @Test
+    public void constructor_switches_to_tracing_threads_if_enabled() throws Exception {
+        // given
+        WingtipsSpringBoot2WebfluxProperties props = new WingtipsSpringBoot2WebfluxProperties();
+        props.setTracingThreadsEnabled(true);
+
+        try {
+            // when
+            new WingtipsSpringBoot2WebfluxConfiguration(props);
+
+            // then
+            assertThat(Tracer.getInstance().getTracingContextStorage())
+                .isSameAs(TracingThreadContextStorage.getDefaultInstance());
+            Scheduler scheduler = Schedulers.newParallel("tracing-threads-test", 1);
+            try {
+                Thread schedulerThread = Mono.fromCallable(Thread::currentThread).subscribeOn(scheduler).block();
+                assertThat(schedulerThread).isInstanceOf(TracingContextSlotCarrier.class);
+            }
+            finally {
+                scheduler.dispose();
+            }
+        }
+        finally {
+            Tracer.getInstance().setTracingContextStorage(ThreadLocalTracingContextStorage.getDefaultInstance());
+            Schedulers.resetFactory();
+        }
+    }
+
+    @DataProvider(value = {
+            "true",
+            "false"
+    })
+    @Test
+    public void wingtipsTracingThreadNettyServerCustomizer_returns_customizer_only_if_tracing_threads_are_enabled(
+            boolean tracingThreadsEnabled
+    ) {
+        // given
+        WingtipsSpringBoot2WebfluxProperties props = new WingtipsSpringBoot2WebfluxProperties();
+        props.setTracingThreadsEnabled(tracingThreadsEnabled);
+
+        // when
+        TracingThreadNettyServerCustomizer result =
+            new WingtipsSpringBoot2WebfluxConfiguration.WingtipsTracingThreadNettyConfiguration()
+                .wingtipsTracingThreadNettyServerCustomizer(props);
+
+        // then
+        if (tracingThreadsEnabled) {
+            assertThat(result).isNotNull();
+        }
+        else {
+            assertThat(result).isNull();
+        }
+    }
+
+    @DataProvider(value = {
+            "true",
+            "false"
+    })
+    @Test
+    public void wingtipsSpanMetricsMeterBinder_returns_binder_only_if_SpanMetricsListener_is_available(
+            boolean listenerAvailable
+    ) {
+        // given
+        SpanMetricsListener listener = (listenerAvailable) ? SpanMetricsListener.newBuilder().build() : null;
+        @SuppressWarnings("unchecked")
+        ObjectProvider<SpanMetricsListener> providerMock = mock(ObjectProvider.class);
+        doReturn(listener).when(providerMock).getIfAvailable();
+
+        // when
+        WingtipsSpanMetricsMeterBinder result =
+            new WingtipsSpringBoot2WebfluxConfiguration.WingtipsSpanMetricsMicrometerConfiguration()
+                .wingtipsSpanMetricsMeterBinder(providerMock);
+
+        // then
+        if (listenerAvailable) {
+            assertThat(result.getSpanMetricsListener()).isSameAs(listener);
+        }
+        else {
+            assertThat(result).isNull();
+        }
+    }
+
     @SuppressWarnings("unused")
     private enum PropertiesScenario {
         USER_ID_HEADER_KEYS_PROP_IS_SET(nonNullUserIdHeaderKeysProp(), null, null),
@@ -249,17 +406,20 @@ public class WingtipsSpringBoot2WebfluxConfigurationTest {
     }
 
     @DataProvider(value = {
-        "true",
-        "false"
-    })
+        "true   |   true",
+        "true   |   false",
+        "false  |   true",
+        "false  |   false"
+    }, splitBy = "\\|")
     @Test
     public void reactorInitializer_returns_WingtipsReactorInitializer_with_expected_values(
-        boolean reactorEnabled
+        boolean reactorEnabled, boolean reactorContextPropagationEnabled
     ) {
         // given
         WingtipsSpringBoot2WebfluxProperties props = generateProps(
             false, null, null, null, null, reactorEnabled
         );
+        props.setReactorContextPropagationEnabled(reactorContextPropagationEnabled);
         WingtipsSpringBoot2WebfluxConfiguration conf = new WingtipsSpringBoot2WebfluxConfiguration(props);
 
         // when
@@ -267,6 +427,7 @@ public class WingtipsSpringBoot2WebfluxConfigurationTest {
 
         // then
         assertThat(reactorInitializer.isEnabled()).isEqualTo(reactorEnabled);
+        assertThat(reactorInitializer.isContextPropagationEnabled()).isEqualTo(reactorContextPropagationEnabled);
     }
 
     private enum ExtractUserIdHeaderKeysScenario {
@@ -672,6 +833,54 @@ public class WingtipsSpringBoot2WebfluxConfigurationTest {
         }
     }
 
+    @Test
+    public void project_reactor_wingtips_integration_should_use_subscriber_context_when_context_propagation_is_enabled() {
+        // given
+        int serverPort = findFreePort();
+
+        ConfigurableApplicationContext serverAppContext = SpringApplication.run(
+            ComponentTestMainManualImportOnly.class,
+            "--server.port=" + serverPort,
+            "--wingtips.reactor-context-propagation-enabled=true"
+        );
+
+        try {
+            // given
+            // Operators must be assembled after the hook is registered (at application startup) to be traced.
+            Scheduler scheduler = Schedulers.newElastic("someNewElasticScheduler");
+            Mono<Pair<Long, Span>> asyncThreadAndTraceId =
+                Mono.just("test")
+                    .publishOn(scheduler)
+                    // Return the thread ID and current span.
+                    .map(s -> Pair.of(Thread.currentThread().getId(), Tracer.getInstance().getCurrentSpan()));
+
+            final Span rootSpan = Tracer.getInstance().startRequestWithRootSpan("root");
+            final TracingState tracingState = TracingState.getCurrentThreadTracingState();
+            final long mainThreadId = Thread.currentThread().getId();
+
+            // when
+            // The tracing state comes from the subscriber context, not from the thread that subscribes.
+            Pair<Long, Span> resultWithTracingStateInContext = asyncThreadAndTraceId
+                .subscriberContext(c -> subscriberContextWithTracingInfo(c, tracingState))
+                .block();
+            Pair<Long, Span> resultWithoutTracingStateInContext = asyncThreadAndTraceId.block();
+
+            // then
+            assertThat(resultWithTracingStateInContext.getLeft()).isNotEqualTo(mainThreadId);
+            assertThat(resultWithTracingStateInContext.getRight()).isEqualTo(rootSpan);
+            // The executor service decorator should not have been registered, so the thread's tracing state
+            //      should not leak into a Mono without the tracing state in its context.
+            assertThat(resultWithoutTracingStateInContext.getLeft()).isNotEqualTo(mainThreadId);
+            assertThat(resultWithoutTracingStateInContext.getRight()).isNull();
+            Tracer.getInstance().completeRequestSpan();
+            scheduler.dispose();
+        } finally {
+            WingtipsReactorContextPropagation.removeHook();
+            Schedulers.removeExecutorServiceDecorator(WingtipsReactorInitializer.WINGTIPS_SCHEDULER_KEY);
+            SpringApplication.exit(serverAppContext);
+        }
+    }
+
     @Test
     public void component_test_with_custom_WingtipsSpringWebfluxWebFilter() {
         // given
@@ -1,6 +1,7 @@
 package com.nike.wingtips.springboot2.webflux;
 
 import com.nike.wingtips.Tracer.SpanLoggingRepresentation;
+import com.nike.wingtips.sampling.RootSpanSamplingStrategy;
 
 import com.tngtech.java.junit.dataprovider.DataProvider;
 import com.tngtech.java.junit.dataprovider.DataProviderRunner;
@@ -103,6 +104,90 @@ public class WingtipsSpringBoot2WebfluxPropertiesTest {
                 assertThat(props.isReactorEnabled()).isEqualTo(reactorEnabled);
             }
         }
+
+        // reactorContextPropagationEnabled getter/setter
+        {
+            assertThat(new WingtipsSpringBoot2WebfluxProperties().isReactorContextPropagationEnabled()).isFalse();
+            List<Boolean> cases = Arrays.asList(true, false, true, false);
+            for (Boolean reactorContextPropagationEnabled : cases) {
+                props.setReactorContextPropagationEnabled(reactorContextPropagationEnabled);
+                assertThat(props.isReactorContextPropagationEnabled()).isEqualTo(reactorContextPropagationEnabled);
+            }
+        }
+
+        // spanMetricsEnabled getter/setter
+        {
+            assertThat(new WingtipsSpringBoot2WebfluxProperties().isSpanMetricsEnabled()).isFalse();
+            List<Boolean> cases = Arrays.asList(true, false, true, false);
+            for (Boolean spanMetricsEnabled : cases) {
+                props.setSpanMetricsEnabled(spanMetricsEnabled);
+                assertThat(props.isSpanMetricsEnabled()).isEqualTo(spanMetricsEnabled);
+            }
+        }
+
+        // tracingThreadsEnabled getter/setter
+        {
+            assertThat(new WingtipsSpringBoot2WebfluxProperties().isTracingThreadsEnabled()).isFalse();
+            List<Boolean> cases = Arrays.asList(true, false, true, false);
+            for (Boolean tracingThreadsEnabled : cases) {
+                props.setTracingThreadsEnabled(tracingThreadsEnabled);
+                assertThat(props.isTracingThreadsEnabled()).isEqualTo(tracingThreadsEnabled);
+            }
+        }
+
+        // root span sampling getters/setters
+        {
+            String strategyValue = UUID.randomUUID().toString();
+            props.setRootSpanSamplingStrategy(strategyValue);
+            props.setSamplingProbability(0.42d);
+            props.setSamplingTracesPerSecond(42);
+            props.setSamplingTargetSpansPerSecond(4242d);
+            assertThat(props.getRootSpanSamplingStrategy()).isEqualTo(strategyValue);
+            assertThat(props.getSamplingProbability()).isEqualTo(0.42d);
+            assertThat(props.getSamplingTracesPerSecond()).isEqualTo(42);
+            assertThat(props.getSamplingTargetSpansPerSecond()).isEqualTo(4242d);
+
+            props.setRootSpanSamplingStrategy(null);
+            props.setSamplingProbability(null);
+            props.setSamplingTracesPerSecond(null);
+            props.setSamplingTargetSpansPerSecond(null);
+            assertThat(props.getRootSpanSamplingStrategy()).isNull();
+            assertThat(props.getSamplingProbability()).isNull();
+            assertThat(props.getSamplingTracesPerSecond()).isNull();
+            assertThat(props.getSamplingTargetSpansPerSecond()).isNull();
+        }
+    }
+
+    @Test
+    public void generateRootSpanSamplingStrategy_returns_null_if_strategy_prop_is_not_set() {
+        // given
+        props.setSamplingProbability(0.5d);
+
+        // expect
+        assertThat(props.generateRootSpanSamplingStrategy()).isNull();
+    }
+
+    @DataProvider(value = {
+        "ALL            |   com.nike.wingtips.sampling.SampleAllTheThingsStrategy",
+        "probabilistic  |   com.nike.wingtips.sampling.ProbabilisticSamplingStrategy",
+        "RATE_LIMITED   |   com.nike.wingtips.sampling.RateLimitingSamplingStrategy",
+        "ADAPTIVE       |   com.nike.wingtips.sampling.AdaptiveSamplingStrategy"
+    }, splitBy = "\\|")
+    @Test
+    public void generateRootSpanSamplingStrategy_creates_strategy_from_props(
+        String strategyName, String expectedClassName
+    ) {
+        // given
+        props.setRootSpanSamplingStrategy(strategyName);
+        props.setSamplingProbability(0.25d);
+        props.setSamplingTracesPerSecond(10);
+        props.setSamplingTargetSpansPerSecond(100d);
+
+        // when
+        RootSpanSamplingStrategy result = props.generateRootSpanSamplingStrategy();
+
+        // then
+        assertThat(result.getClass().getName()).isEqualTo(expectedClassName);
     }
 
-}
\ No newline at end of file
+}
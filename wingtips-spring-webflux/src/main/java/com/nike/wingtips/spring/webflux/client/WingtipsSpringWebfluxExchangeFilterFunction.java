@@ -6,6 +6,8 @@ import com.nike.wingtips.Span;
 import com.nike.wingtips.Tracer;
 import com.nike.wingtips.http.HttpObjectForPropagation;
 import com.nike.wingtips.http.HttpRequestTracingUtils;
+import com.nike.wingtips.http.propagation.B3MultiHeaderPropagationCodec;
+import com.nike.wingtips.http.propagation.PropagationCodec;
 import com.nike.wingtips.spring.webflux.WingtipsSpringWebfluxUtils;
 import com.nike.wingtips.tags.HttpTagAndSpanNamingAdapter;
 import com.nike.wingtips.tags.HttpTagAndSpanNamingStrategy;
@@ -95,6 +97,10 @@ import static com.nike.wingtips.util.AsyncWingtipsHelperStatic.unlinkTracingFrom
  * interceptor executes as there's no tracing info to propagate. Turning on the subspan option mitigates this as it
  * guarantees there will be a span to propagate.
  *
+ * <p>The headers used to propagate tracing info (B3 multi-header by default) are controlled by the {@link
+ * PropagationCodec} passed to {@link #WingtipsSpringWebfluxExchangeFilterFunction(boolean,
+ * HttpTagAndSpanNamingStrategy, HttpTagAndSpanNamingAdapter, PropagationCodec)}.
+ *
  * @author Nic Munroe
  */
 public class WingtipsSpringWebfluxExchangeFilterFunction implements ExchangeFilterFunction {
@@ -119,6 +125,10 @@ public class WingtipsSpringWebfluxExchangeFilterFunction implements ExchangeFilt
      * Used by {@link #tagAndNamingStrategy} for span naming and tagging when {@link #surroundCallsWithSubspan} is true.
      */
     protected final @NotNull HttpTagAndSpanNamingAdapter<ClientRequest, ClientResponse> tagAndNamingAdapter;
+    /**
+     * Used to write the tracing info to the downstream call's request headers.
+     */
+    protected final @NotNull PropagationCodec propagationCodec;
 
     /**
      * Default constructor - sets {@link #surroundCallsWithSubspan} to true, and uses the default
@@ -156,11 +166,37 @@ public class WingtipsSpringWebfluxExchangeFilterFunction implements ExchangeFilt
      * @param tagAndNamingAdapter The tag and naming adapter to use - cannot be null. If you really want no tag and
      * naming adapter, then pass in {@link NoOpHttpTagAdapter#getDefaultInstance()}.
      */
-    @SuppressWarnings("ConstantConditions")
     public WingtipsSpringWebfluxExchangeFilterFunction(
         boolean surroundCallsWithSubspan,
         @NotNull HttpTagAndSpanNamingStrategy<ClientRequest, ClientResponse> tagAndNamingStrategy,
         @NotNull HttpTagAndSpanNamingAdapter<ClientRequest, ClientResponse> tagAndNamingAdapter
+    ) {
+        this(
+            surroundCallsWithSubspan,
+            tagAndNamingStrategy,
+            tagAndNamingAdapter,
+            B3MultiHeaderPropagationCodec.getDefaultInstance()
+        );
+    }
+
+    /**
+     * Constructor that lets you define whether downstream calls will be surrounded with a subspan, provide a
+     * different span tag strategy, and choose the {@link PropagationCodec} used to write the tracing headers.
+     *
+     * @param surroundCallsWithSubspan pass in true to have downstream calls surrounded with a new span, false to only
+     * propagate the current span's info downstream (no subspan).
+     * @param tagAndNamingStrategy The span tag and naming strategy to use - cannot be null. If you really want no
+     * tag and naming strategy, then pass in {@link NoOpHttpTagStrategy#getDefaultInstance()}.
+     * @param tagAndNamingAdapter The tag and naming adapter to use - cannot be null. If you really want no tag and
+     * naming adapter, then pass in {@link NoOpHttpTagAdapter#getDefaultInstance()}.
+     * @param propagationCodec The {@link PropagationCodec} to use for writing the tracing headers - cannot be null.
+     */
+    @SuppressWarnings("ConstantConditions")
+    public WingtipsSpringWebfluxExchangeFilterFunction(
+        boolean surroundCallsWithSubspan,
+        @NotNull HttpTagAndSpanNamingStrategy<ClientRequest, ClientResponse> tagAndNamingStrategy,
+        @NotNull HttpTagAndSpanNamingAdapter<ClientRequest, ClientResponse> tagAndNamingAdapter,
+        @NotNull PropagationCodec propagationCodec
     ) {
         if (tagAndNamingStrategy == null) {
             throw new NullPointerException(
@@ -174,9 +210,14 @@ public class WingtipsSpringWebfluxExchangeFilterFunction implements ExchangeFilt
             );
         }
 
+        if (propagationCodec == null) {
+            throw new NullPointerException("propagationCodec cannot be null");
+        }
+
         this.surroundCallsWithSubspan = surroundCallsWithSubspan;
         this.tagAndNamingStrategy = tagAndNamingStrategy;
         this.tagAndNamingAdapter = tagAndNamingAdapter;
+        this.propagationCodec = propagationCodec;
     }
 
     @Override
@@ -228,8 +269,8 @@ public class WingtipsSpringWebfluxExchangeFilterFunction implements ExchangeFilt
     }
 
     /**
-     * Calls {@link HttpRequestTracingUtils#propagateTracingHeaders(HttpObjectForPropagation, Span)} to propagate the
-     * current span's tracing state on a the given request's headers, sets a {@link TracingState} request
+     * Calls {@link PropagationCodec#injectTracingHeaders(HttpObjectForPropagation, Span)} on {@link
+     * #propagationCodec} to propagate the current span's tracing state on a the given request's headers, sets a {@link TracingState} request
      * attribute to match the given argument, then returns {@link ExchangeFunction#exchange(ClientRequest)} to
      * continue the chain. The resulting {@link Mono} will also have it's subscriber {@link Context} adjusted
      * to also include the {@link TracingState} via {@link
@@ -251,7 +292,7 @@ public class WingtipsSpringWebfluxExchangeFilterFunction implements ExchangeFilt
         ClientRequest.Builder requestWithTracingHeadersBuilder = ClientRequest.from(request);
 
         // Propagate tracing headers
-        HttpRequestTracingUtils.propagateTracingHeaders(
+        propagationCodec.injectTracingHeaders(
             requestWithTracingHeadersBuilder::header,
             Tracer.getInstance().getCurrentSpan()
         );
@@ -0,0 +1,280 @@
+package com.nike.wingtips.spring.webflux.reactor;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Tracer;
+import com.nike.wingtips.util.TracingState;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.reactivestreams.Subscription;
+
+import java.util.Deque;
+
+import reactor.core.CoreSubscriber;
+import reactor.core.Fuseable;
+import reactor.core.Scannable;
+import reactor.util.context.Context;
+
+import static com.nike.wingtips.util.AsyncWingtipsHelperStatic.linkTracingToCurrentThread;
+import static com.nike.wingtips.util.AsyncWingtipsHelperStatic.unlinkTracingFromCurrentThread;
+
+/**
+ * A {@link CoreSubscriber} (and {@link Subscription}) that sits between two Reactor operators and makes sure a
+ * {@link TracingState} is attached to whatever thread a signal passes through it on. The {@link TracingState} is the
+ * one found in the subscriber {@link Context} (see {@link
+ * com.nike.wingtips.spring.webflux.WingtipsSpringWebfluxUtils#tracingStateFromContext(Context)}), so it follows the
+ * subscription rather than whatever thread happened to schedule a task.
+ *
+ * <p>The tracing state is only linked to the current thread when it isn't already there, i.e. when the thread's
+ * current span is not the {@link TracingState}'s current span. That happens at the points where the signal crossed a
+ * thread boundary (e.g. after a {@code publishOn(...)} or an async source emitting on its own thread). Everywhere else
+ * - e.g. a wrapper further down the chain that's reached while an upstream wrapper has the state linked - the signal
+ * is passed straight through after a single span comparison. When the state is linked, the thread's previous state
+ * is restored as soon as the signal has been handled. Signals that re-enter this subscriber on the same thread while
+ * it has the state linked (e.g. a downstream {@code request(n)} from inside {@code onNext}) are recognized by thread
+ * identity alone, without looking up the thread's current span.
+ *
+ * <p>This implements {@link Fuseable.QueueSubscription} so it doesn't get in the way of operator fusion. Fusion
+ * requests are passed through to the upstream {@link Fuseable.QueueSubscription} (if the upstream is one), and values
+ * the downstream operator pulls with {@link #poll()} are pulled with the tracing state attached the same way as for
+ * signals.
+ *
+ * <p>You normally don't create these directly - {@link WingtipsReactorContextPropagation#registerHook()} wraps the
+ * subscriber of each operator that can change threads with one when the subscriber {@link Context} contains a {@link
+ * TracingState}.
+ *
+ * @param <T> The type of the signal values.
+ */
+@SuppressWarnings("WeakerAccess")
+public class TracingStateRestoringSubscriber<T>
+    implements CoreSubscriber<T>, Fuseable.QueueSubscription<T>, Scannable {
+
+    protected final @NotNull CoreSubscriber<? super T> actual;
+    protected final @NotNull Context context;
+    protected final @NotNull TracingState tracingState;
+    protected final @Nullable Span tracingStateCurrentSpan;
+
+    // The thread this subscriber has linked its tracing state to for the signal currently being handled, or null.
+    protected volatile @Nullable Thread threadWithTracingStateLinked;
+
+    protected Subscription upstream;
+    // The upstream subscription if it supports fusion, otherwise null.
+    protected @Nullable Fuseable.QueueSubscription<T> upstreamQueueSubscription;
+
+    /**
+     * @param actual The downstream subscriber - cannot be null.
+     * @param context The subscriber {@link Context} of the downstream subscriber - cannot be null. This is cached so
+     * that upstream operators asking for the {@link Context} don't have to walk the whole downstream chain.
+     * @param tracingState The {@link TracingState} to attach to the thread(s) signals pass through on - cannot be
+     * null.
+     */
+    public TracingStateRestoringSubscriber(
+        @NotNull CoreSubscriber<? super T> actual,
+        @NotNull Context context,
+        @NotNull TracingState tracingState
+    ) {
+        //noinspection ConstantConditions
+        if (actual == null) {
+            throw new IllegalArgumentException("actual cannot be null");
+        }
+
+        //noinspection ConstantConditions
+        if (context == null) {
+            throw new IllegalArgumentException("context cannot be null");
+        }
+
+        //noinspection ConstantConditions
+        if (tracingState == null) {
+            throw new IllegalArgumentException("tracingState cannot be null");
+        }
+
+        this.actual = actual;
+        this.context = context;
+        this.tracingState = tracingState;
+
+        Deque<Span> spanStack = tracingState.spanStack;
+        this.tracingStateCurrentSpan = (spanStack == null) ? null : spanStack.peek();
+    }
+
+    @Override
+    public @NotNull Context currentContext() {
+        return context;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onSubscribe(Subscription s) {
+        this.upstream = s;
+        if (s instanceof Fuseable.QueueSubscription) {
+            this.upstreamQueueSubscription = (Fuseable.QueueSubscription<T>) s;
+        }
+        TracingState previousState = linkTracingStateIfNeeded();
+        try {
+            actual.onSubscribe(this);
+        }
+        finally {
+            unlinkTracingStateIfNeeded(previousState);
+        }
+    }
+
+    @Override
+    public void onNext(T t) {
+        TracingState previousState = linkTracingStateIfNeeded();
+        try {
+            actual.onNext(t);
+        }
+        finally {
+            unlinkTracingStateIfNeeded(previousState);
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        TracingState previousState = linkTracingStateIfNeeded();
+        try {
+            actual.onError(t);
+        }
+        finally {
+            unlinkTracingStateIfNeeded(previousState);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        TracingState previousState = linkTracingStateIfNeeded();
+        try {
+            actual.onComplete();
+        }
+        finally {
+            unlinkTracingStateIfNeeded(previousState);
+        }
+    }
+
+    @Override
+    public void request(long n) {
+        TracingState previousState = linkTracingStateIfNeeded();
+        try {
+            upstream.request(n);
+        }
+        finally {
+            unlinkTracingStateIfNeeded(previousState);
+        }
+    }
+
+    @Override
+    public void cancel() {
+        TracingState previousState = linkTracingStateIfNeeded();
+        try {
+            upstream.cancel();
+        }
+        finally {
+            unlinkTracingStateIfNeeded(previousState);
+        }
+    }
+
+    /**
+     * Passes the fusion request through to the upstream subscription if it supports fusion.
+     *
+     * @param requestedMode The fusion mode requested by the downstream operator.
+     * @return The fusion mode negotiated with the upstream subscription, or {@link Fuseable#NONE} if the upstream
+     * subscription doesn't support fusion.
+     */
+    @Override
+    public int requestFusion(int requestedMode) {
+        Fuseable.QueueSubscription<T> qs = upstreamQueueSubscription;
+        if (qs == null) {
+            return Fuseable.NONE;
+        }
+
+        return qs.requestFusion(requestedMode);
+    }
+
+    @Override
+    public @Nullable T poll() {
+        Fuseable.QueueSubscription<T> qs = upstreamQueueSubscription;
+        if (qs == null) {
+            return null;
+        }
+
+        TracingState previousState = linkTracingStateIfNeeded();
+        try {
+            return qs.poll();
+        }
+        finally {
+            unlinkTracingStateIfNeeded(previousState);
+        }
+    }
+
+    @Override
+    public int size() {
+        Fuseable.QueueSubscription<T> qs = upstreamQueueSubscription;
+        return (qs == null) ? 0 : qs.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        Fuseable.QueueSubscription<T> qs = upstreamQueueSubscription;
+        return qs == null || qs.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        Fuseable.QueueSubscription<T> qs = upstreamQueueSubscription;
+        if (qs != null) {
+            qs.clear();
+        }
+    }
+
+    // Scannable declares this abstract method with a raw Attr parameter, so it can't be overridden as Attr<?> (that's a
+    //      name clash, not an override).
+    @Override
+    @SuppressWarnings("rawtypes")
+    public @Nullable Object scanUnsafe(@NotNull Attr key) {
+        if (key == Attr.PARENT) {
+            return upstream;
+        }
+
+        if (key == Attr.ACTUAL) {
+            return actual;
+        }
+
+        return null;
+    }
+
+    /**
+     * @return true if the current thread already has this subscriber's {@link TracingState} attached (judged by
+     * comparing current spans, which is much cheaper than comparing whole span stacks and MDC info), false otherwise.
+     */
+    protected boolean isTracingStateOnCurrentThread() {
+        return Tracer.getInstance().getCurrentSpan() == tracingStateCurrentSpan;
+    }
+
+    /**
+     * Links this subscriber's {@link TracingState} to the current thread if it isn't already there.
+     *
+     * @return The thread's previous state that must be passed to {@link #unlinkTracingStateIfNeeded(TracingState)}
+     * after the signal has been handled, or null if nothing was linked.
+     */
+    protected @Nullable TracingState linkTracingStateIfNeeded() {
+        Thread currentThread = Thread.currentThread();
+        if (threadWithTracingStateLinked == currentThread || isTracingStateOnCurrentThread()) {
+            return null;
+        }
+
+        TracingState previousState = linkTracingToCurrentThread(tracingState);
+        threadWithTracingStateLinked = currentThread;
+        return previousState;
+    }
+
+    /**
+     * Restores the given previous thread state, if {@link #linkTracingStateIfNeeded()} linked anything.
+     *
+     * @param previousState The result of the matching {@link #linkTracingStateIfNeeded()} call.
+     */
+    protected void unlinkTracingStateIfNeeded(@Nullable TracingState previousState) {
+        if (previousState != null) {
+            threadWithTracingStateLinked = null;
+            unlinkTracingFromCurrentThread(previousState);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.nike.wingtips.spring.webflux.reactor;
+
+import com.nike.wingtips.spring.webflux.WingtipsSpringWebfluxUtils;
+import com.nike.wingtips.util.TracingState;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import reactor.core.CoreSubscriber;
+import reactor.core.Scannable;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
+
+/**
+ * Propagates Wingtips tracing state through Project Reactor {@link reactor.core.publisher.Mono}s and {@link
+ * reactor.core.publisher.Flux}es using the subscriber {@link Context}, rather than by decorating Reactor's scheduler
+ * executor services.
+ *
+ * <p>{@link #registerHook()} adds a {@link Hooks#onEachOperator(String, java.util.function.Function)} hook that lifts
+ * each operator that can change threads (see {@link #canChangeThreads(Scannable)}) so its subscriber is wrapped in a
+ * {@link TracingStateRestoringSubscriber} - but only for subscriptions whose {@link Context} contains a {@link
+ * TracingState} (see {@link WingtipsSpringWebfluxUtils#subscriberContextWithTracingInfo(Context, TracingState)},
+ * which {@link com.nike.wingtips.spring.webflux.server.WingtipsSpringWebfluxWebFilter WingtipsSpringWebfluxWebFilter}
+ * does for you). Only operators that are known to signal on other threads are lifted - everything else signals on the
+ * thread that signalled it, where the wrapper upstream of it already attached the tracing state. Subscriptions
+ * without tracing state are left alone.
+ *
+ * <p>This is an alternative to decorating the schedulers with {@link
+ * com.nike.wingtips.util.asynchelperwrapper.ScheduledExecutorServiceWithTracing}, which propagates the tracing state
+ * of whatever thread scheduled a task. This hook makes the tracing state follow the subscription instead, which is
+ * what you want when pipelines are subscribed on threads that don't have the request's tracing state. It is not a
+ * performance optimization: registering any {@link Hooks#onEachOperator(String, java.util.function.Function)} hook
+ * adds work to the assembly of every operator, and the tracing state is linked per signal rather than per scheduled
+ * task. In the wingtips-benchmarks module's {@code ReactorTracingPropagationBenchmark} this hook had lower throughput
+ * than the scheduler decorator for every pipeline shape measured.
+ *
+ * <p>NOTE: Since the tracing state comes from the subscriber {@link Context}, it's only attached while signals
+ * (and requests/cancellations) pass between operators. Work that a source does directly inside its {@code
+ * subscribe(...)} call on another thread - e.g. the {@link java.util.concurrent.Callable} of a {@code
+ * Mono.fromCallable(...).subscribeOn(...)} - happens before any signal, so it won't see the tracing state. You can
+ * pull it out of the {@link Context} yourself in that case (e.g. with {@code Mono.subscriberContext()} and {@link
+ * WingtipsSpringWebfluxUtils#tracingStateFromContext(Context)}).
+ */
+@SuppressWarnings("WeakerAccess")
+public class WingtipsReactorContextPropagation {
+
+    /**
+     * The key used to register the Wingtips hook with {@link Hooks#onEachOperator(String,
+     * java.util.function.Function)}.
+     */
+    public static final String WINGTIPS_ON_EACH_OPERATOR_HOOK_KEY =
+        "WINGTIPS_PROJECT_REACTOR_CONTEXT_PROPAGATION_HOOK";
+
+    /**
+     * The {@code Scannable.Attr.RUN_STYLE} attribute, or null if the Reactor version on the classpath doesn't have it
+     * (it was added after the Reactor version this module compiles against, so it's looked up reflectively).
+     */
+    protected static final @Nullable Scannable.Attr<?> RUN_STYLE_ATTR = findRunStyleAttr();
+
+    // Intentionally protected - all access should be through the static methods.
+    protected WingtipsReactorContextPropagation() {
+        // Do nothing.
+    }
+
+    /**
+     * Registers the Wingtips {@link Hooks#onEachOperator(String, java.util.function.Function)} hook (replacing any
+     * previously registered one). This only affects operators assembled after this is called.
+     */
+    public static void registerHook() {
+        Hooks.onEachOperator(
+            WINGTIPS_ON_EACH_OPERATOR_HOOK_KEY,
+            Operators.lift(
+                WingtipsReactorContextPropagation::canChangeThreads,
+                WingtipsReactorContextPropagation::decorateSubscriber
+            )
+        );
+    }
+
+    /**
+     * Removes the Wingtips hook added by {@link #registerHook()}. Operators assembled before this is called will
+     * keep propagating tracing state.
+     */
+    public static void removeHook() {
+        Hooks.resetOnEachOperator(WINGTIPS_ON_EACH_OPERATOR_HOOK_KEY);
+    }
+
+    /**
+     * Used by {@link #registerHook()} to decide which operators to lift. An operator is known to change threads if
+     * it reports the {@link Scheduler} it runs on ({@link Scannable.Attr#RUN_ON}, e.g. {@code publishOn(...)}, {@code
+     * subscribeOn(...)}, {@code Mono.delay(...)}), or if it reports that it runs asynchronously ({@code
+     * Scannable.Attr.RUN_STYLE} is {@code ASYNC}, e.g. {@code Mono.fromFuture(...)} or {@code Flux.create(...)}).
+     * Operators that report neither are not lifted, so the per-signal tracing work only happens where a signal can
+     * actually arrive on a different thread.
+     *
+     * <p>NOTE: {@code RUN_STYLE} only exists in newer Reactor versions (it's looked up reflectively). On older versions
+     * only {@code RUN_ON} operators are lifted, so async sources that don't use a {@link Scheduler} (futures, {@code
+     * create(...)}, processors) won't propagate tracing state to the operators that follow them until the next thread
+     * hop. The same goes for any source that doesn't report how it runs, on any version.
+     *
+     * @param operator The operator being assembled.
+     * @return true if the given operator is known to signal its subscriber on a different thread than the one it was
+     * signalled (or subscribed) on, false otherwise.
+     */
+    public static boolean canChangeThreads(@NotNull Scannable operator) {
+        if (operator.scanUnsafe(Scannable.Attr.RUN_ON) != null) {
+            return true;
+        }
+
+        if (RUN_STYLE_ATTR == null) {
+            return false;
+        }
+
+        Object runStyle = operator.scanUnsafe(RUN_STYLE_ATTR);
+        return runStyle != null && "ASYNC".equals(runStyle.toString());
+    }
+
+    /**
+     * @param operator The operator being subscribed to (ignored).
+     * @param actual The subscriber of the operator.
+     * @return A {@link TracingStateRestoringSubscriber} that wraps the given subscriber if its {@link Context}
+     * contains a {@link TracingState}, otherwise the given subscriber itself.
+     */
+    public static <T> @NotNull CoreSubscriber<? super T> decorateSubscriber(
+        Scannable operator,
+        @NotNull CoreSubscriber<? super T> actual
+    ) {
+        Context context = actual.currentContext();
+        TracingState tracingState = WingtipsSpringWebfluxUtils.tracingStateFromContext(context);
+        if (tracingState == null) {
+            return actual;
+        }
+
+        return new TracingStateRestoringSubscriber<>(actual, context, tracingState);
+    }
+
+    protected static @Nullable Scannable.Attr<?> findRunStyleAttr() {
+        try {
+            return (Scannable.Attr<?>) Scannable.Attr.class.getField("RUN_STYLE").get(null);
+        }
+        catch (Exception ex) {
+            return null;
+        }
+    }
+}
@@ -7,6 +7,8 @@ import com.nike.wingtips.TraceHeaders;
 import com.nike.wingtips.Tracer;
 import com.nike.wingtips.http.HttpRequestTracingUtils;
 import com.nike.wingtips.http.RequestWithHeaders;
+import com.nike.wingtips.http.propagation.B3MultiHeaderPropagationCodec;
+import com.nike.wingtips.http.propagation.PropagationCodec;
 import com.nike.wingtips.spring.webflux.WingtipsSpringWebfluxUtils;
 import com.nike.wingtips.tags.HttpTagAndSpanNamingAdapter;
 import com.nike.wingtips.tags.HttpTagAndSpanNamingStrategy;
@@ -48,6 +50,9 @@ import static com.nike.wingtips.util.AsyncWingtipsHelperStatic.runnableWithTraci
  * strategy and adapter, are specified via the {@link Builder}. Use {@link #newBuilder()} to create a new
  * {@link Builder}.
  *
+ * <p>The headers that the caller's tracing info is read from (B3 multi-header by default) are controlled by the
+ * {@link PropagationCodec} specified via {@link Builder#withPropagationCodec(PropagationCodec)}.
+ *
  * @author Nic Munroe
  */
 public class WingtipsSpringWebfluxWebFilter implements WebFilter, Ordered {
@@ -77,6 +82,11 @@ public class WingtipsSpringWebfluxWebFilter implements WebFilter, Ordered {
      */
     protected final @NotNull List<String> userIdHeaderKeys;
 
+    /**
+     * The {@link PropagationCodec} used to read the caller's tracing info from the incoming request headers.
+     */
+    protected final @NotNull PropagationCodec propagationCodec;
+
     /**
      * There should only ever be one {@link WingtipsSpringWebfluxWebFilter} registered for an application, so if
      * we detect that tracing logic is happening multiple times for a request we want to log a warning. But we
@@ -119,6 +129,11 @@ public class WingtipsSpringWebfluxWebFilter implements WebFilter, Ordered {
             (builder.userIdHeaderKeys == null)
             ? Collections.emptyList()
             : Collections.unmodifiableList(new ArrayList<>(builder.userIdHeaderKeys));
+
+        this.propagationCodec =
+            (builder.propagationCodec == null)
+            ? B3MultiHeaderPropagationCodec.getDefaultInstance()
+            : builder.propagationCodec;
     }
 
     /**
@@ -210,16 +225,17 @@ public class WingtipsSpringWebfluxWebFilter implements WebFilter, Ordered {
         RequestWithHeadersServerWebExchangeAdapter requestWithHeadersAdapter =
             new RequestWithHeadersServerWebExchangeAdapter(exchange);
 
-        final Span parentSpan = HttpRequestTracingUtils.fromRequestWithHeaders(
-            requestWithHeadersAdapter, userIdHeaderKeys
-        );
+        final Span parentSpan = propagationCodec.extractSpan(requestWithHeadersAdapter, userIdHeaderKeys);
 
         Span newSpan;
 
         if (parentSpan == null) {
+            // The exchange and adapter are passed along so request-aware sampling strategies can see the request.
             newSpan = tracer.startRequestWithRootSpan(
                 getInitialSpanName(exchange, tagAndNamingStrategy, tagAndNamingAdapter),
-                HttpRequestTracingUtils.getUserIdFromRequestWithHeaders(requestWithHeadersAdapter, userIdHeaderKeys)
+                HttpRequestTracingUtils.getUserIdFromRequestWithHeaders(requestWithHeadersAdapter, userIdHeaderKeys),
+                exchange,
+                tagAndNamingAdapter
             );
             logger.debug("Parent span not found, starting a new span {}", newSpan);
         }
@@ -438,6 +454,7 @@ public class WingtipsSpringWebfluxWebFilter implements WebFilter, Ordered {
         protected @Nullable HttpTagAndSpanNamingStrategy<ServerWebExchange, ServerHttpResponse> tagAndNamingStrategy = null;
         protected @Nullable HttpTagAndSpanNamingAdapter<ServerWebExchange, ServerHttpResponse> tagAndNamingAdapter = null;
         protected @Nullable List<String> userIdHeaderKeys = null;
+        protected @Nullable PropagationCodec propagationCodec = null;
 
         /**
          * Specifies the {@link #getOrder()} for the {@link WingtipsSpringWebfluxWebFilter} - see that method for
@@ -498,6 +515,19 @@ public class WingtipsSpringWebfluxWebFilter implements WebFilter, Ordered {
             return this;
         }
 
+        /**
+         * Specifies the {@link PropagationCodec} that should be used by the {@link WingtipsSpringWebfluxWebFilter}
+         * to read the caller's tracing info from the incoming request headers. Defaults to {@link
+         * B3MultiHeaderPropagationCodec#getDefaultInstance()} if never called or if you pass null.
+         *
+         * @param propagationCodec The desired {@link PropagationCodec} - may be null if you want to use the default.
+         * @return This builder for fluent chaining.
+         */
+        public @NotNull Builder withPropagationCodec(@Nullable PropagationCodec propagationCodec) {
+            this.propagationCodec = propagationCodec;
+            return this;
+        }
+
         /**
          * @return The {@link WingtipsSpringWebfluxWebFilter} generated with the config options from this builder.
          */
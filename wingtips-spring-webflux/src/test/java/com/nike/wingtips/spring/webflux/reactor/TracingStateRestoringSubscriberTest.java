@@ -0,0 +1,412 @@
+package com.nike.wingtips.spring.webflux.reactor;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Tracer;
+import com.nike.wingtips.util.TracingState;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+import com.tngtech.java.junit.dataprovider.UseDataProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.stubbing.Answer;
+import org.reactivestreams.Subscription;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import reactor.core.CoreSubscriber;
+import reactor.core.Fuseable;
+import reactor.core.Scannable;
+import reactor.util.context.Context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests the functionality of {@link TracingStateRestoringSubscriber}.
+ */
+@RunWith(DataProviderRunner.class)
+public class TracingStateRestoringSubscriberTest {
+
+    private static final String EXTRA_MDC_KEY = "someExtraMdcKey";
+
+    private CoreSubscriber<Object> actualMock;
+    private Subscription upstreamMock;
+    private Context context;
+
+    private Span stateSpan;
+    private TracingState tracingState;
+
+    private List<Span> spansSeenDuringSignal;
+    private List<String> extraMdcValuesSeenDuringSignal;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void beforeMethod() {
+        resetTracing();
+
+        actualMock = mock(CoreSubscriber.class);
+        upstreamMock = mock(Subscription.class);
+        context = Context.of("foo", "bar");
+
+        stateSpan = Tracer.getInstance().startRequestWithRootSpan("stateSpan");
+        tracingState = TracingState.getCurrentThreadTracingState();
+        resetTracing();
+
+        spansSeenDuringSignal = new ArrayList<>();
+        extraMdcValuesSeenDuringSignal = new ArrayList<>();
+        Answer<Void> recordThreadState = invocation -> {
+            spansSeenDuringSignal.add(Tracer.getInstance().getCurrentSpan());
+            extraMdcValuesSeenDuringSignal.add(MDC.get(EXTRA_MDC_KEY));
+            return null;
+        };
+        doAnswer(recordThreadState).when(actualMock).onNext(any());
+        doAnswer(recordThreadState).when(actualMock).onError(any(Throwable.class));
+        doAnswer(recordThreadState).when(actualMock).onComplete();
+        doAnswer(recordThreadState).when(actualMock).onSubscribe(any(Subscription.class));
+        doAnswer(recordThreadState).when(upstreamMock).request(anyLong());
+        doAnswer(recordThreadState).when(upstreamMock).cancel();
+    }
+
+    @After
+    public void afterMethod() {
+        resetTracing();
+    }
+
+    private void resetTracing() {
+        MDC.clear();
+        Tracer.getInstance().unregisterFromThread();
+    }
+
+    private TracingStateRestoringSubscriber<Object> subscribedInstance() {
+        TracingStateRestoringSubscriber<Object> instance =
+            new TracingStateRestoringSubscriber<>(actualMock, context, tracingState);
+        instance.upstream = upstreamMock;
+        return instance;
+    }
+
+    private enum SignalScenario {
+        ON_SUBSCRIBE(instance -> instance.onSubscribe(mock(Subscription.class))),
+        ON_NEXT(instance -> instance.onNext("someValue")),
+        ON_ERROR(instance -> instance.onError(new RuntimeException("intentional test exception"))),
+        ON_COMPLETE(TracingStateRestoringSubscriber::onComplete),
+        REQUEST(instance -> instance.request(42)),
+        CANCEL(TracingStateRestoringSubscriber::cancel);
+
+        public final Consumer<TracingStateRestoringSubscriber<Object>> signal;
+
+        SignalScenario(Consumer<TracingStateRestoringSubscriber<Object>> signal) {
+            this.signal = signal;
+        }
+    }
+
+    @DataProvider(value = {
+        "true   |   false   |   false",
+        "false  |   true    |   false",
+        "false  |   false   |   true"
+    }, splitBy = "\\|")
+    @Test
+    public void constructor_throws_IllegalArgumentException_when_passed_null_args(
+        boolean actualIsNull, boolean contextIsNull, boolean tracingStateIsNull
+    ) {
+        // when
+        Throwable ex = catchThrowable(() -> new TracingStateRestoringSubscriber<>(
+            (actualIsNull) ? null : actualMock,
+            (contextIsNull) ? null : context,
+            (tracingStateIsNull) ? null : tracingState
+        ));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void constructor_sets_fields_as_expected() {
+        // when
+        TracingStateRestoringSubscriber<Object> instance =
+            new TracingStateRestoringSubscriber<>(actualMock, context, tracingState);
+
+        // then
+        assertThat(instance.actual).isSameAs(actualMock);
+        assertThat(instance.currentContext()).isSameAs(context);
+        assertThat(instance.tracingState).isSameAs(tracingState);
+        assertThat(instance.tracingStateCurrentSpan).isSameAs(stateSpan);
+    }
+
+    @Test
+    public void constructor_handles_TracingState_with_null_span_stack() {
+        // when
+        TracingStateRestoringSubscriber<Object> instance =
+            new TracingStateRestoringSubscriber<>(actualMock, context, new TracingState(null, null));
+
+        // then
+        assertThat(instance.tracingStateCurrentSpan).isNull();
+    }
+
+    @DataProvider
+    public static Object[][] signalScenarioDataProvider() {
+        SignalScenario[] scenarios = SignalScenario.values();
+        Object[][] result = new Object[scenarios.length][];
+        for (int i = 0; i < scenarios.length; i++) {
+            result[i] = new Object[]{ scenarios[i] };
+        }
+        return result;
+    }
+
+    @UseDataProvider("signalScenarioDataProvider")
+    @Test
+    public void signals_link_tracing_state_and_then_clear_it_when_thread_had_no_tracing_state(
+        SignalScenario scenario
+    ) {
+        // given
+        TracingStateRestoringSubscriber<Object> instance = subscribedInstance();
+        assertThat(Tracer.getInstance().getCurrentSpan()).isNull();
+
+        // when
+        scenario.signal.accept(instance);
+
+        // then
+        assertThat(spansSeenDuringSignal).containsExactly(stateSpan);
+        assertThat(Tracer.getInstance().getCurrentSpan()).isNull();
+        assertThat(MDC.getCopyOfContextMap()).isNullOrEmpty();
+    }
+
+    @UseDataProvider("signalScenarioDataProvider")
+    @Test
+    public void signals_link_tracing_state_and_then_restore_previous_state_when_thread_had_different_tracing_state(
+        SignalScenario scenario
+    ) {
+        // given
+        TracingStateRestoringSubscriber<Object> instance = subscribedInstance();
+        Span otherSpan = Tracer.getInstance().startRequestWithRootSpan("otherSpan");
+        MDC.put(EXTRA_MDC_KEY, "someExtraMdcValue");
+
+        // when
+        scenario.signal.accept(instance);
+
+        // then
+        assertThat(spansSeenDuringSignal).containsExactly(stateSpan);
+        assertThat(extraMdcValuesSeenDuringSignal).containsExactly((String) null);
+        assertThat(Tracer.getInstance().getCurrentSpan()).isSameAs(otherSpan);
+        assertThat(MDC.get(EXTRA_MDC_KEY)).isEqualTo("someExtraMdcValue");
+    }
+
+    @UseDataProvider("signalScenarioDataProvider")
+    @Test
+    public void signals_do_not_touch_thread_state_when_tracing_state_is_already_on_thread(
+        SignalScenario scenario
+    ) {
+        // given
+        TracingStateRestoringSubscriber<Object> instance = subscribedInstance();
+        Tracer.getInstance().registerWithThread(tracingState.spanStack);
+        // The extra MDC value would be wiped out if the tracing state was linked to the thread again.
+        MDC.put(EXTRA_MDC_KEY, "someExtraMdcValue");
+
+        // when
+        scenario.signal.accept(instance);
+
+        // then
+        assertThat(spansSeenDuringSignal).containsExactly(stateSpan);
+        assertThat(extraMdcValuesSeenDuringSignal).containsExactly("someExtraMdcValue");
+        assertThat(Tracer.getInstance().getCurrentSpan()).isSameAs(stateSpan);
+        assertThat(MDC.get(EXTRA_MDC_KEY)).isEqualTo("someExtraMdcValue");
+    }
+
+    @UseDataProvider("signalScenarioDataProvider")
+    @Test
+    public void signals_restore_thread_state_even_if_signal_throws_exception(SignalScenario scenario) {
+        // given
+        TracingStateRestoringSubscriber<Object> instance = subscribedInstance();
+        RuntimeException expectedEx = new RuntimeException("intentional test exception");
+        doAnswer(invocation -> { throw expectedEx; }).when(actualMock).onNext(any());
+        doAnswer(invocation -> { throw expectedEx; }).when(actualMock).onError(any(Throwable.class));
+        doAnswer(invocation -> { throw expectedEx; }).when(actualMock).onComplete();
+        doAnswer(invocation -> { throw expectedEx; }).when(actualMock).onSubscribe(any(Subscription.class));
+        doAnswer(invocation -> { throw expectedEx; }).when(upstreamMock).request(anyLong());
+        doAnswer(invocation -> { throw expectedEx; }).when(upstreamMock).cancel();
+
+        // when
+        Throwable ex = catchThrowable(() -> scenario.signal.accept(instance));
+
+        // then
+        assertThat(ex).isSameAs(expectedEx);
+        assertThat(Tracer.getInstance().getCurrentSpan()).isNull();
+    }
+
+    @Test
+    public void signals_that_reenter_on_the_thread_the_state_is_linked_to_are_passed_straight_through() {
+        // given
+        TracingStateRestoringSubscriber<Object> instance = subscribedInstance();
+        List<Span> spansSeenByReentrantRequest = new ArrayList<>();
+        List<Thread> linkedThreadsSeenDuringOnNext = new ArrayList<>();
+        doAnswer(invocation -> {
+            linkedThreadsSeenDuringOnNext.add(instance.threadWithTracingStateLinked);
+            // The downstream changes the thread's current span and then requests more from inside onNext. Since the
+            //      state is already linked for this signal, the request must not link it again.
+            Span childSpan = Tracer.getInstance().startSubSpan("child", Span.SpanPurpose.LOCAL_ONLY);
+            instance.request(1);
+            Tracer.getInstance().completeSubSpan();
+            spansSeenByReentrantRequest.add(childSpan);
+            return null;
+        }).when(actualMock).onNext(any());
+        doAnswer(invocation -> {
+            spansSeenByReentrantRequest.add(Tracer.getInstance().getCurrentSpan());
+            return null;
+        }).when(upstreamMock).request(anyLong());
+
+        // when
+        instance.onNext("someValue");
+
+        // then
+        assertThat(linkedThreadsSeenDuringOnNext).containsExactly(Thread.currentThread());
+        // The span seen by the re-entrant request is the child span that was current at the time.
+        assertThat(spansSeenByReentrantRequest).hasSize(2);
+        assertThat(spansSeenByReentrantRequest.get(0)).isSameAs(spansSeenByReentrantRequest.get(1));
+        assertThat(instance.threadWithTracingStateLinked).isNull();
+        assertThat(Tracer.getInstance().getCurrentSpan()).isNull();
+    }
+
+    @Test
+    public void onSubscribe_stores_upstream_and_passes_itself_downstream() {
+        // given
+        TracingStateRestoringSubscriber<Object> instance =
+            new TracingStateRestoringSubscriber<>(actualMock, context, tracingState);
+
+        // when
+        instance.onSubscribe(upstreamMock);
+
+        // then
+        assertThat(instance.upstream).isSameAs(upstreamMock);
+        verify(actualMock).onSubscribe(instance);
+    }
+
+    @Test
+    public void request_and_cancel_are_passed_upstream() {
+        // given
+        TracingStateRestoringSubscriber<Object> instance = subscribedInstance();
+
+        // when
+        instance.request(42);
+        instance.cancel();
+
+        // then
+        verify(upstreamMock).request(42);
+        verify(upstreamMock).cancel();
+    }
+
+    @Test
+    public void onSubscribe_stores_upstream_QueueSubscription_when_upstream_is_fuseable() {
+        // given
+        TracingStateRestoringSubscriber<Object> instance =
+            new TracingStateRestoringSubscriber<>(actualMock, context, tracingState);
+        @SuppressWarnings("unchecked")
+        Fuseable.QueueSubscription<Object> upstreamQsMock = mock(Fuseable.QueueSubscription.class);
+
+        // when
+        instance.onSubscribe(upstreamQsMock);
+
+        // then
+        assertThat(instance.upstream).isSameAs(upstreamQsMock);
+        assertThat(instance.upstreamQueueSubscription).isSameAs(upstreamQsMock);
+    }
+
+    @DataProvider(value = {
+        "0",  // Fuseable.NONE
+        "1",  // Fuseable.SYNC
+        "2",  // Fuseable.ASYNC
+        "3",  // Fuseable.ANY
+        "7"   // Fuseable.ANY | Fuseable.THREAD_BARRIER
+    })
+    @Test
+    public void fusion_is_refused_when_upstream_is_not_fuseable(int requestedMode) {
+        // given
+        TracingStateRestoringSubscriber<Object> instance = subscribedInstance();
+
+        // when
+        int result = instance.requestFusion(requestedMode);
+
+        // then
+        assertThat(result).isEqualTo(Fuseable.NONE);
+        assertThat(instance.poll()).isNull();
+        assertThat(instance.size()).isZero();
+        assertThat(instance.isEmpty()).isTrue();
+        instance.clear();
+    }
+
+    @DataProvider(value = {
+        "1  |   1",
+        "2  |   2",
+        "3  |   0",
+        "7  |   2"
+    }, splitBy = "\\|")
+    @Test
+    public void fusion_requests_and_queue_methods_are_passed_through_to_fuseable_upstream(
+        int requestedMode, int upstreamMode
+    ) {
+        // given
+        TracingStateRestoringSubscriber<Object> instance = subscribedInstance();
+        @SuppressWarnings("unchecked")
+        Fuseable.QueueSubscription<Object> upstreamQsMock = mock(Fuseable.QueueSubscription.class);
+        instance.upstream = upstreamQsMock;
+        instance.upstreamQueueSubscription = upstreamQsMock;
+        doReturn(upstreamMode).when(upstreamQsMock).requestFusion(requestedMode);
+        doReturn(42).when(upstreamQsMock).size();
+        doReturn(false).when(upstreamQsMock).isEmpty();
+
+        // when
+        int result = instance.requestFusion(requestedMode);
+
+        // then
+        assertThat(result).isEqualTo(upstreamMode);
+        assertThat(instance.size()).isEqualTo(42);
+        assertThat(instance.isEmpty()).isFalse();
+        instance.clear();
+        verify(upstreamQsMock).clear();
+    }
+
+    @Test
+    public void poll_links_tracing_state_while_polling_fuseable_upstream() {
+        // given
+        TracingStateRestoringSubscriber<Object> instance = subscribedInstance();
+        @SuppressWarnings("unchecked")
+        Fuseable.QueueSubscription<Object> upstreamQsMock = mock(Fuseable.QueueSubscription.class);
+        instance.upstream = upstreamQsMock;
+        instance.upstreamQueueSubscription = upstreamQsMock;
+        doAnswer(invocation -> {
+            spansSeenDuringSignal.add(Tracer.getInstance().getCurrentSpan());
+            return "someValue";
+        }).when(upstreamQsMock).poll();
+        assertThat(Tracer.getInstance().getCurrentSpan()).isNull();
+
+        // when
+        Object result = instance.poll();
+
+        // then
+        assertThat(result).isEqualTo("someValue");
+        assertThat(spansSeenDuringSignal).containsExactly(stateSpan);
+        assertThat(Tracer.getInstance().getCurrentSpan()).isNull();
+    }
+
+    @Test
+    public void scanUnsafe_returns_expected_values() {
+        // given
+        TracingStateRestoringSubscriber<Object> instance = subscribedInstance();
+
+        // expect
+        assertThat(instance.scanUnsafe(Scannable.Attr.PARENT)).isSameAs(upstreamMock);
+        assertThat(instance.scanUnsafe(Scannable.Attr.ACTUAL)).isSameAs(actualMock);
+        assertThat(instance.scanUnsafe(Scannable.Attr.NAME)).isNull();
+    }
+}
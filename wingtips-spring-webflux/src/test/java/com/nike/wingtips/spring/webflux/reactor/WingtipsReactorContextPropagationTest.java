@@ -0,0 +1,322 @@
+package com.nike.wingtips.spring.webflux.reactor;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Tracer;
+import com.nike.wingtips.util.TracingState;
+
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import reactor.core.CoreSubscriber;
+import reactor.core.Fuseable;
+import reactor.core.Scannable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import static com.nike.wingtips.spring.webflux.WingtipsSpringWebfluxUtils.subscriberContextWithTracingInfo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests the functionality of {@link WingtipsReactorContextPropagation}.
+ */
+@RunWith(DataProviderRunner.class)
+public class WingtipsReactorContextPropagationTest {
+
+    private Scheduler scheduler;
+
+    @Before
+    public void beforeMethod() {
+        WingtipsReactorContextPropagation.removeHook();
+        resetTracing();
+        scheduler = Schedulers.newParallel("contextPropagationTest", 2);
+    }
+
+    @After
+    public void afterMethod() {
+        WingtipsReactorContextPropagation.removeHook();
+        resetTracing();
+        scheduler.dispose();
+    }
+
+    private void resetTracing() {
+        MDC.clear();
+        Tracer.getInstance().unregisterFromThread();
+    }
+
+    @Test
+    public void code_coverage_hoops() {
+        // jump!
+        new WingtipsReactorContextPropagation();
+    }
+
+    private TracingState startSpanAndCaptureTracingStateThenClearThread(Span[] spanHolder) {
+        spanHolder[0] = Tracer.getInstance().startRequestWithRootSpan("someSpan");
+        TracingState tracingState = TracingState.getCurrentThreadTracingState();
+        resetTracing();
+        return tracingState;
+    }
+
+    @Test
+    public void registered_hook_propagates_tracing_state_from_context_across_thread_boundaries() {
+        // given
+        WingtipsReactorContextPropagation.registerHook();
+        Span[] spanHolder = new Span[1];
+        TracingState tracingState = startSpanAndCaptureTracingStateThenClearThread(spanHolder);
+
+        // when
+        List<Span> spansSeen = Flux
+            .range(0, 10)
+            .publishOn(scheduler)
+            .map(i -> Tracer.getInstance().getCurrentSpan())
+            .collectList()
+            .subscriberContext(c -> subscriberContextWithTracingInfo(c, tracingState))
+            .block();
+
+        // then
+        assertThat(spansSeen).hasSize(10).containsOnly(spanHolder[0]);
+        assertThat(Tracer.getInstance().getCurrentSpan()).isNull();
+    }
+
+    @Test
+    public void registered_hook_restores_scheduler_thread_state_after_signals() {
+        // given
+        WingtipsReactorContextPropagation.registerHook();
+        Span[] spanHolder = new Span[1];
+        TracingState tracingState = startSpanAndCaptureTracingStateThenClearThread(spanHolder);
+        Scheduler singleThreadScheduler = Schedulers.newSingle("contextPropagationSingleTest");
+
+        try {
+            // when
+            Span spanSeenInPipeline = Mono
+                .just("foo")
+                .publishOn(singleThreadScheduler)
+                .map(s -> Tracer.getInstance().getCurrentSpan())
+                .subscriberContext(c -> subscriberContextWithTracingInfo(c, tracingState))
+                .block();
+            // Same scheduler thread, but a pipeline without any tracing state in its context.
+            Optional<Span> spanSeenLater = Mono
+                .fromCallable(() -> Optional.ofNullable(Tracer.getInstance().getCurrentSpan()))
+                .subscribeOn(singleThreadScheduler)
+                .block();
+
+            // then
+            assertThat(spanSeenInPipeline).isSameAs(spanHolder[0]);
+            assertThat(spanSeenLater).isEmpty();
+        }
+        finally {
+            singleThreadScheduler.dispose();
+        }
+    }
+
+    @Test
+    public void registered_hook_propagates_tracing_state_through_fused_operators() {
+        // given
+        WingtipsReactorContextPropagation.registerHook();
+        Span[] spanHolder = new Span[1];
+        TracingState tracingState = startSpanAndCaptureTracingStateThenClearThread(spanHolder);
+        List<Span> spansSeen = new CopyOnWriteArrayList<>();
+
+        Flux<Integer> flux = Flux
+            .range(0, 3)
+            .publishOn(scheduler)
+            .map(i -> {
+                spansSeen.add(Tracer.getInstance().getCurrentSpan());
+                return i;
+            })
+            .subscriberContext(c -> subscriberContextWithTracingInfo(c, tracingState));
+
+        // expect - the tracing wrapper after publishOn(...) doesn't stop the downstream operators from fusing with it.
+        StepVerifier.create(flux)
+                    .expectFusion(Fuseable.ASYNC)
+                    .expectNext(0, 1, 2)
+                    .verifyComplete();
+        assertThat(spansSeen).hasSize(3).containsOnly(spanHolder[0]);
+    }
+
+    @Test
+    public void registered_hook_propagates_tracing_state_from_async_sources_that_do_not_use_a_scheduler()
+        throws Exception {
+        // given
+        WingtipsReactorContextPropagation.registerHook();
+        Span[] spanHolder = new Span[1];
+        TracingState tracingState = startSpanAndCaptureTracingStateThenClearThread(spanHolder);
+        CompletableFuture<String> future = new CompletableFuture<>();
+
+        CompletableFuture<Span> spanSeenFuture = Mono
+            .fromFuture(future)
+            .map(s -> Tracer.getInstance().getCurrentSpan())
+            .subscriberContext(c -> subscriberContextWithTracingInfo(c, tracingState))
+            .toFuture();
+
+        // when - the future is completed on a thread that isn't a Reactor scheduler thread.
+        Thread completingThread = new Thread(() -> future.complete("foo"));
+        completingThread.start();
+
+        // then
+        assertThat(spanSeenFuture.get(10, TimeUnit.SECONDS)).isSameAs(spanHolder[0]);
+    }
+
+    @Test
+    public void registered_hook_does_not_lift_operators_that_always_signal_synchronously() {
+        // given
+        WingtipsReactorContextPropagation.registerHook();
+        Span[] spanHolder = new Span[1];
+        TracingState tracingState = startSpanAndCaptureTracingStateThenClearThread(spanHolder);
+
+        // when - nothing here can change threads, so the tracing state isn't attached to the subscribing thread.
+        Long tracedSignalCount = Flux
+            .range(0, 10)
+            .map(i -> i + 1)
+            .filter(i -> Tracer.getInstance().getCurrentSpan() != null)
+            .subscriberContext(c -> subscriberContextWithTracingInfo(c, tracingState))
+            .count()
+            .block();
+
+        // then
+        assertThat(tracedSignalCount).isZero();
+    }
+
+    @Test
+    public void canChangeThreads_returns_true_for_operators_that_run_on_a_scheduler_or_are_async() {
+        // expect
+        assertThat(WingtipsReactorContextPropagation.canChangeThreads(
+            Scannable.from(Flux.range(0, 3).publishOn(scheduler))
+        )).isTrue();
+        assertThat(WingtipsReactorContextPropagation.canChangeThreads(
+            Scannable.from(Mono.just("foo").subscribeOn(scheduler))
+        )).isTrue();
+        assertThat(WingtipsReactorContextPropagation.canChangeThreads(
+            Scannable.from(Mono.delay(Duration.ofMillis(1), scheduler))
+        )).isTrue();
+        assertThat(WingtipsReactorContextPropagation.canChangeThreads(
+            Scannable.from(Mono.fromFuture(new CompletableFuture<>()))
+        )).isTrue();
+    }
+
+    @Test
+    public void canChangeThreads_returns_false_for_synchronous_operators() {
+        // expect
+        assertThat(WingtipsReactorContextPropagation.RUN_STYLE_ATTR).isNotNull();
+        assertThat(WingtipsReactorContextPropagation.canChangeThreads(Scannable.from(Flux.range(0, 3)))).isFalse();
+        assertThat(WingtipsReactorContextPropagation.canChangeThreads(
+            Scannable.from(Flux.range(0, 3).map(i -> i))
+        )).isFalse();
+        assertThat(WingtipsReactorContextPropagation.canChangeThreads(
+            Scannable.from(Mono.just("foo").flatMap(Mono::just))
+        )).isFalse();
+    }
+
+    @Test
+    public void canChangeThreads_returns_false_for_operators_that_do_not_report_how_they_run() {
+        // given
+        Scannable operatorMock = mock(Scannable.class);
+
+        // expect
+        assertThat(WingtipsReactorContextPropagation.canChangeThreads(operatorMock)).isFalse();
+    }
+
+    @Test
+    public void canChangeThreads_returns_true_for_operators_that_only_report_running_asynchronously() {
+        // given
+        Object asyncRunStyle = Scannable.from(Mono.fromFuture(new CompletableFuture<>()))
+                                        .scanUnsafe(WingtipsReactorContextPropagation.RUN_STYLE_ATTR);
+        Scannable operatorMock = mock(Scannable.class);
+        doReturn(asyncRunStyle).when(operatorMock).scanUnsafe(WingtipsReactorContextPropagation.RUN_STYLE_ATTR);
+
+        // expect
+        assertThat(asyncRunStyle).hasToString("ASYNC");
+        assertThat(WingtipsReactorContextPropagation.canChangeThreads(operatorMock)).isTrue();
+    }
+
+    @Test
+    public void pipelines_do_not_see_tracing_state_from_context_when_hook_is_not_registered() {
+        // given
+        Span[] spanHolder = new Span[1];
+        TracingState tracingState = startSpanAndCaptureTracingStateThenClearThread(spanHolder);
+
+        // when
+        Long tracedSignalCount = Flux
+            .range(0, 10)
+            .publishOn(scheduler)
+            .filter(i -> Tracer.getInstance().getCurrentSpan() != null)
+            .subscriberContext(c -> subscriberContextWithTracingInfo(c, tracingState))
+            .count()
+            .block();
+
+        // then
+        assertThat(tracedSignalCount).isZero();
+    }
+
+    @Test
+    public void removeHook_stops_propagation_for_newly_assembled_operators() {
+        // given
+        WingtipsReactorContextPropagation.registerHook();
+        WingtipsReactorContextPropagation.removeHook();
+        Span[] spanHolder = new Span[1];
+        TracingState tracingState = startSpanAndCaptureTracingStateThenClearThread(spanHolder);
+
+        // when
+        Long tracedSignalCount = Flux
+            .range(0, 10)
+            .publishOn(scheduler)
+            .filter(i -> Tracer.getInstance().getCurrentSpan() != null)
+            .subscriberContext(c -> subscriberContextWithTracingInfo(c, tracingState))
+            .count()
+            .block();
+
+        // then
+        assertThat(tracedSignalCount).isZero();
+    }
+
+    @Test
+    public void decorateSubscriber_returns_TracingStateRestoringSubscriber_when_context_has_TracingState() {
+        // given
+        TracingState tracingState = new TracingState(null, null);
+        Context context = subscriberContextWithTracingInfo(Context.empty(), tracingState);
+        @SuppressWarnings("unchecked")
+        CoreSubscriber<Object> actualMock = mock(CoreSubscriber.class);
+        doReturn(context).when(actualMock).currentContext();
+
+        // when
+        CoreSubscriber<? super Object> result = WingtipsReactorContextPropagation.decorateSubscriber(null, actualMock);
+
+        // then
+        assertThat(result).isInstanceOf(TracingStateRestoringSubscriber.class);
+        TracingStateRestoringSubscriber<?> resultAsTracingSubscriber = (TracingStateRestoringSubscriber<?>) result;
+        assertThat(resultAsTracingSubscriber.actual).isSameAs(actualMock);
+        assertThat(resultAsTracingSubscriber.currentContext()).isSameAs(context);
+        assertThat(resultAsTracingSubscriber.tracingState).isSameAs(tracingState);
+    }
+
+    @Test
+    public void decorateSubscriber_returns_original_subscriber_when_context_has_no_TracingState() {
+        // given
+        @SuppressWarnings("unchecked")
+        CoreSubscriber<Object> actualMock = mock(CoreSubscriber.class);
+        doReturn(Context.of("foo", "bar")).when(actualMock).currentContext();
+
+        // when
+        CoreSubscriber<? super Object> result = WingtipsReactorContextPropagation.decorateSubscriber(null, actualMock);
+
+        // then
+        assertThat(result).isSameAs(actualMock);
+    }
+}
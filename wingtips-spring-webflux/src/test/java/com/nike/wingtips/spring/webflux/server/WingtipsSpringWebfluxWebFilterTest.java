@@ -6,6 +6,9 @@ import com.nike.wingtips.Span;
 import com.nike.wingtips.TraceHeaders;
 import com.nike.wingtips.Tracer;
 import com.nike.wingtips.http.HttpRequestTracingUtils;
+import com.nike.wingtips.metrics.SpanMetricsListener;
+import com.nike.wingtips.sampling.RootSpanSamplingStrategy;
+import com.nike.wingtips.sampling.RuleBasedSamplingStrategy;
 import com.nike.wingtips.spring.webflux.server.WingtipsSpringWebfluxWebFilter.WingtipsWebFilterTracingMonoWrapper;
 import com.nike.wingtips.spring.webflux.server.WingtipsSpringWebfluxWebFilter.WingtipsWebFilterTracingSubscriber;
 import com.nike.wingtips.tags.HttpTagAndSpanNamingAdapter;
@@ -1239,6 +1242,48 @@ public class WingtipsSpringWebfluxWebFilterTest {
         assertThat(TracingState.getCurrentThreadTracingState()).isEqualTo(baseTracingState);
     }
 
+    @Test
+    public void WingtipsWebFilterTracingSubscriber_cancel_after_completion_does_not_affect_other_spans_when_span_recycling_is_enabled() {
+        // given - recycling is only done when every listener is recycling-safe.
+        Tracer.getInstance().removeAllSpanLifecycleListeners();
+        Tracer.getInstance().addSpanLifecycleListener(SpanMetricsListener.newBuilder().build());
+        Tracer.getInstance().setSpanRecyclingEnabled(true);
+        try {
+            WingtipsWebFilterTracingSubscriber impl = setupSubscriberWrapper();
+            Span completedSpan = impl.overallRequestTracingState.spanStack.peek();
+            assertThat(completedSpan).isNotNull();
+
+            impl.onSubscribe(mock(Subscription.class));
+            ArgumentCaptor<Subscription> wrappedSubscriptionCaptor = ArgumentCaptor.forClass(Subscription.class);
+            verify(impl.actual).onSubscribe(wrappedSubscriptionCaptor.capture());
+            Subscription wrappedSubscription = wrappedSubscriptionCaptor.getValue();
+
+            impl.onComplete();
+            assertThat(completedSpan.isCompleted()).isTrue();
+
+            // Another request's span is started on this thread after the first one was completed, so it gets the
+            //      first span's recycled tags map.
+            Span otherRequestSpan = Tracer.getInstance().startRequestWithRootSpan("otherRequestSpan");
+            otherRequestSpan.putTag("foo", "bar");
+            Tracer.getInstance().unregisterFromThread();
+
+            // when - the subscription for the first request is cancelled after its span was already completed.
+            wrappedSubscription.cancel();
+
+            // then - the other request's span is untouched.
+            assertThat(otherRequestSpan).isNotSameAs(completedSpan);
+            assertThat(otherRequestSpan.isCompleted()).isFalse();
+            assertThat(otherRequestSpan.getTags())
+                .containsEntry("foo", "bar")
+                .doesNotContainKey("cancelled");
+            assertThat(completedSpan.isCompleted()).isTrue();
+            assertThat(completedSpan.getTags()).doesNotContainKey("cancelled");
+        }
+        finally {
+            Tracer.getInstance().setSpanRecyclingEnabled(false);
+        }
+    }
+
 
     @Test
     public void WingtipsWebFilterTracingSubscriber_onNext_calls_actual_subscriber_onNext() {
@@ -1329,4 +1374,35 @@ public class WingtipsSpringWebfluxWebFilterTest {
         // The current thread tracing state should be unchanged after the onComplete() call.
         assertThat(TracingState.getCurrentThreadTracingState()).isEqualTo(baseTracingState);
     }
-}
\ No newline at end of file
+
+    @DataProvider(value = {
+        "GET    |   /healthcheck        |   false",
+        "get    |   /healthcheck/deep   |   false",
+        "POST   |   /healthcheck        |   true",
+        "GET    |   /api/foo            |   true"
+    }, splitBy = "\\|")
+    @Test
+    public void createNewSpanForRequest_lets_RequestAwareRootSpanSamplingStrategy_see_the_request(
+        String httpMethod, String path, boolean expectedSampleable
+    ) {
+        // given
+        RootSpanSamplingStrategy originalStrategy = Tracer.getInstance().getRootSpanSamplingStrategy();
+        Tracer.getInstance().setRootSpanSamplingStrategy(
+            RuleBasedSamplingStrategy.newBuilder().addProbabilityRule("GET", "/healthcheck", 0.0d).build()
+        );
+        doReturn(httpMethod).when(tagAndNamingAdapterMock).getRequestHttpMethod(exchange);
+        doReturn(path).when(tagAndNamingAdapterMock).getRequestPath(exchange);
+
+        try {
+            // when
+            Span result = filterSpy.createNewSpanForRequest(exchange);
+
+            // then
+            assertThat(result.getParentSpanId()).isNull();
+            assertThat(result.isSampleable()).isEqualTo(expectedSampleable);
+        }
+        finally {
+            Tracer.getInstance().setRootSpanSamplingStrategy(originalStrategy);
+        }
+    }
+}
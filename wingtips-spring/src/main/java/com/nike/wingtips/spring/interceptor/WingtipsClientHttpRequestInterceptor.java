@@ -5,6 +5,8 @@ import com.nike.wingtips.Span;
 import com.nike.wingtips.Span.SpanPurpose;
 import com.nike.wingtips.Tracer;
 import com.nike.wingtips.http.HttpRequestTracingUtils;
+import com.nike.wingtips.http.propagation.B3MultiHeaderPropagationCodec;
+import com.nike.wingtips.http.propagation.PropagationCodec;
 import com.nike.wingtips.spring.interceptor.tag.SpringHttpClientTagAdapter;
 import com.nike.wingtips.spring.util.HttpRequestWrapperWithModifiableHeaders;
 import com.nike.wingtips.spring.util.WingtipsSpringUtil;
@@ -72,6 +74,10 @@ public class WingtipsClientHttpRequestInterceptor implements ClientHttpRequestIn
      * Used by {@link #tagAndNamingStrategy} for span naming and tagging when {@link #surroundCallsWithSubspan} is true.
      */
     protected final HttpTagAndSpanNamingAdapter<HttpRequest, ClientHttpResponse> tagAndNamingAdapter;
+    /**
+     * Used to write the tracing info to the downstream call's request headers.
+     */
+    protected final PropagationCodec propagationCodec;
     
     /**
      * Default constructor - sets {@link #surroundCallsWithSubspan} to true, and uses the default
@@ -113,6 +119,33 @@ public class WingtipsClientHttpRequestInterceptor implements ClientHttpRequestIn
         boolean surroundCallsWithSubspan,
         HttpTagAndSpanNamingStrategy<HttpRequest, ClientHttpResponse> tagAndNamingStrategy,
         HttpTagAndSpanNamingAdapter<HttpRequest, ClientHttpResponse> tagAndNamingAdapter
+    ) {
+        this(
+            surroundCallsWithSubspan,
+            tagAndNamingStrategy,
+            tagAndNamingAdapter,
+            B3MultiHeaderPropagationCodec.getDefaultInstance()
+        );
+    }
+
+    /**
+     * Constructor that lets you choose whether downstream calls will be surrounded with a subspan, supply the
+     * relevant tag strategy for the subspan, and choose the {@link PropagationCodec} used to write the tracing
+     * headers.
+     *
+     * @param surroundCallsWithSubspan pass in true to have downstream calls surrounded with a new span, false to only
+     * propagate the current span's info downstream (no subspan).
+     * @param tagAndNamingStrategy The span tag and naming strategy to use - cannot be null. If you really want no
+     * tag and naming strategy, then pass in {@link NoOpHttpTagStrategy#getDefaultInstance()}.
+     * @param tagAndNamingAdapter The tag and naming adapter to use - cannot be null. If you really want no tag and
+     * naming adapter, then pass in {@link NoOpHttpTagAdapter#getDefaultInstance()}.
+     * @param propagationCodec The {@link PropagationCodec} to use for writing the tracing headers - cannot be null.
+     */
+    public WingtipsClientHttpRequestInterceptor(
+        boolean surroundCallsWithSubspan,
+        HttpTagAndSpanNamingStrategy<HttpRequest, ClientHttpResponse> tagAndNamingStrategy,
+        HttpTagAndSpanNamingAdapter<HttpRequest, ClientHttpResponse> tagAndNamingAdapter,
+        PropagationCodec propagationCodec
     ) {
         if (tagAndNamingStrategy == null) {
             throw new IllegalArgumentException(
@@ -126,9 +159,14 @@ public class WingtipsClientHttpRequestInterceptor implements ClientHttpRequestIn
             );
         }
         
+        if (propagationCodec == null) {
+            throw new IllegalArgumentException("propagationCodec cannot be null");
+        }
+
         this.surroundCallsWithSubspan = surroundCallsWithSubspan;
         this.tagAndNamingStrategy = tagAndNamingStrategy;
         this.tagAndNamingAdapter = tagAndNamingAdapter;
+        this.propagationCodec = propagationCodec;
     }
     
     @Override
@@ -147,8 +185,8 @@ public class WingtipsClientHttpRequestInterceptor implements ClientHttpRequestIn
     }
 
     /**
-     * Calls {@link WingtipsSpringUtil#propagateTracingHeaders(HttpMessage, Span)} to propagate the current span's
-     * tracing state on the given request's headers, then returns
+     * Calls {@link WingtipsSpringUtil#propagateTracingHeaders(HttpMessage, Span, PropagationCodec)} with {@link
+     * #propagationCodec} to propagate the current span's tracing state on the given request's headers, then returns
      * {@link ClientHttpRequestExecution#execute(HttpRequest, byte[])} to execute the request.
      *
      * @return The result of calling {@link ClientHttpRequestExecution#execute(HttpRequest, byte[])}.
@@ -156,7 +194,7 @@ public class WingtipsClientHttpRequestInterceptor implements ClientHttpRequestIn
     protected ClientHttpResponse propagateTracingHeadersAndExecuteRequest(
         HttpRequestWrapperWithModifiableHeaders wrapperRequest, byte[] body, ClientHttpRequestExecution execution
     ) throws IOException {
-        propagateTracingHeaders(wrapperRequest, Tracer.getInstance().getCurrentSpan());
+        propagateTracingHeaders(wrapperRequest, Tracer.getInstance().getCurrentSpan(), propagationCodec);
         
         // Execute the request/interceptor chain.
         return execution.execute(wrapperRequest, body);
@@ -4,6 +4,7 @@ import com.nike.internal.util.Pair;
 import com.nike.wingtips.Span;
 import com.nike.wingtips.Tracer;
 import com.nike.wingtips.http.HttpRequestTracingUtils;
+import com.nike.wingtips.http.propagation.PropagationCodec;
 import com.nike.wingtips.spring.interceptor.WingtipsAsyncClientHttpRequestInterceptor;
 import com.nike.wingtips.spring.interceptor.WingtipsClientHttpRequestInterceptor;
 import com.nike.wingtips.spring.interceptor.tag.SpringHttpClientTagAdapter;
@@ -15,9 +16,9 @@ import com.nike.wingtips.tags.HttpTagAndSpanNamingStrategy;
 import com.nike.wingtips.tags.NoOpHttpTagAdapter;
 import com.nike.wingtips.tags.NoOpHttpTagStrategy;
 import com.nike.wingtips.tags.ZipkinHttpTagStrategy;
+import com.nike.wingtips.util.MdcUtils;
 import com.nike.wingtips.util.TracingState;
 
-import org.slf4j.MDC;
 import org.springframework.http.HttpMessage;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRequest;
@@ -172,6 +173,30 @@ public class WingtipsSpringUtil {
         HttpRequestTracingUtils.propagateTracingHeaders(headersForPropagation, span);
     }
 
+    /**
+     * Sets the tracing headers on the given {@link HttpMessage#getHeaders()} with values from the given {@link Span},
+     * using the given {@link PropagationCodec} to decide which headers are sent (e.g. B3 vs. W3C {@code traceparent}).
+     * Does nothing if any of the given arguments are null (i.e. it is safe to pass null, but nothing will happen).
+     *
+     * @param httpMessage The {@link HttpMessage} to set tracing headers on. Can be null - if this is null then this
+     * method will do nothing.
+     * @param span The {@link Span} to get the tracing info from to set on the headers. Can be null - if this is null
+     * then this method will do nothing.
+     * @param propagationCodec The {@link PropagationCodec} that writes the headers. Can be null - if this is null
+     * then this method will do nothing.
+     */
+    public static void propagateTracingHeaders(
+        HttpMessage httpMessage,
+        Span span,
+        PropagationCodec propagationCodec
+    ) {
+        if (httpMessage == null || propagationCodec == null) {
+            return;
+        }
+
+        propagationCodec.injectTracingHeaders(new HttpHeadersForPropagation(httpMessage), span);
+    }
+
     /**
      * @param method The HTTP method.
      * @return "UNKNOWN_HTTP_METHOD" if the method is null, otherwise {@link HttpMethod#name()}.
@@ -190,7 +215,7 @@ public class WingtipsSpringUtil {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     public static <T> SuccessCallback<T> successCallbackWithTracing(SuccessCallback<T> successCallback) {
         return new SuccessCallbackWithTracing<>(successCallback);
@@ -228,7 +253,7 @@ public class WingtipsSpringUtil {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     public static FailureCallback failureCallbackWithTracing(FailureCallback failureCallback) {
         return new FailureCallbackWithTracing(failureCallback);
@@ -262,7 +287,7 @@ public class WingtipsSpringUtil {
      * execution.
      *
      * <p>NOTE: The current thread's tracing and MDC info will be extracted using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}.
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}.
      */
     public static <T> ListenableFutureCallback<T> listenableFutureCallbackWithTracing(
         ListenableFutureCallback<T> listenableFutureCallback
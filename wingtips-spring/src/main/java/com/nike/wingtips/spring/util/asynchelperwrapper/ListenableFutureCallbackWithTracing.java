@@ -3,9 +3,9 @@ package com.nike.wingtips.spring.util.asynchelperwrapper;
 import com.nike.internal.util.Pair;
 import com.nike.wingtips.Span;
 import com.nike.wingtips.Tracer;
+import com.nike.wingtips.util.MdcUtils;
 import com.nike.wingtips.util.TracingState;
 
-import org.slf4j.MDC;
 import org.springframework.util.concurrent.ListenableFutureCallback;
 
 import java.util.Deque;
@@ -27,7 +27,7 @@ public class ListenableFutureCallbackWithTracing<T> implements ListenableFutureC
 
     /**
      * Constructor that extracts the current tracing and MDC information from the current thread using {@link
-     * Tracer#getCurrentSpanStackCopy()} and {@link MDC#getCopyOfContextMap()}, and forwards the information to
+     * Tracer#getCurrentSpanStackCopy()} and {@link MdcUtils#getContextMapSnapshot()}, and forwards the information to
      * the {@link ListenableFutureCallbackWithTracing#ListenableFutureCallbackWithTracing(ListenableFutureCallback, Deque, Map)}
      * constructor. That tracing and MDC information will be associated with the thread when the given operation is
      * executed.
@@ -36,7 +36,11 @@ public class ListenableFutureCallbackWithTracing<T> implements ListenableFutureC
      * null for the operation).
      */
     public ListenableFutureCallbackWithTracing(ListenableFutureCallback<T> origListenableFutureCallback) {
-        this(origListenableFutureCallback, Tracer.getInstance().getCurrentSpanStackCopy(), MDC.getCopyOfContextMap());
+        this(
+            origListenableFutureCallback,
+            Tracer.getInstance().getCurrentSpanStackCopy(),
+            MdcUtils.getContextMapSnapshot()
+        );
     }
 
     /**
@@ -87,8 +91,8 @@ public class ListenableFutureCallbackWithTracing<T> implements ListenableFutureC
      * Equivalent to calling {@code new ListenableFutureCallbackWithTracing(origListenableFutureCallback)} - this allows you to do a static method
      * import for cleaner looking code in some cases. This method ultimately extracts the current tracing and MDC
      * information from the current thread using {@link Tracer#getCurrentSpanStackCopy()} and {@link
-     * MDC#getCopyOfContextMap()}. That tracing and MDC information will be associated with the thread when the given
-     * operation is executed.
+     * MdcUtils#getContextMapSnapshot()}. That tracing and MDC information will be associated with the thread when the
+     * given operation is executed.
      *
      * <p>The operation you pass in cannot be null (an {@link IllegalArgumentException} will be thrown if you pass in
      * null for the operation).
@@ -0,0 +1,290 @@
+package com.nike.wingtips.virtualthreads;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Tracer;
+import com.nike.wingtips.contextstorage.TracingContextSlot;
+import com.nike.wingtips.contextstorage.TracingContextStorage;
+import com.nike.wingtips.util.MdcUtils;
+import com.nike.wingtips.util.SpanStack;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.MDC;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * The tracing state (span stack and logger {@link MDC} info) that a forked thread or subtask inherits from the thread
+ * that forked it. This is an immutable binding in the spirit of the JDK's {@code ScopedValue} - it's captured once on
+ * the forking thread, then bound to the forked thread only for the duration of {@link #run(Runnable)} or {@link
+ * #call(Callable)}.
+ *
+ * <p>This is cheaper than the general purpose {@link com.nike.wingtips.util.asynchelperwrapper.RunnableWithTracing}
+ * style wrappers for the thread-per-task model that virtual threads encourage:
+ * <ul>
+ *     <li>
+ *         Capturing is O(1) - the span stack is a {@link com.nike.wingtips.util.SpanStack#snapshot()} that shares
+ *         the parent's backing array, and the MDC info is an {@link MdcUtils#getContextMapSnapshot()} that shares
+ *         the MDC's map when the logging framework allows it. Nothing is copied unless the forked thread starts a
+ *         span of its own.
+ *     </li>
+ *     <li>
+ *         If there's no tracing state to inherit then {@link ThreadFactoryWithTracing} doesn't wrap the forked
+ *         thread's task at all.
+ *     </li>
+ *     <li>
+ *         If the forked thread had no tracing state of its own beforehand (always the case for a new thread) then
+ *         its state is simply cleared afterward, rather than capturing and restoring its previous state.
+ *     </li>
+ * </ul>
+ *
+ * <p>How the state is bound depends on {@link Tracer#getTracingContextStorage()}. With the default {@link
+ * com.nike.wingtips.contextstorage.ThreadLocalTracingContextStorage} the span stack is registered with the forked
+ * thread's {@link ThreadLocal} slot, which stays with the thread (even while it's parked) until the thread ends. With
+ * {@link ScopedTracingContextStorage} a new slot holding the span stack is bound to the task itself and unbound when
+ * the task finishes, so no {@link ThreadLocal} is touched for the span stack. In that case the {@link MDC} (which is
+ * always thread local) is also left alone when there's no MDC info to inherit and {@link
+ * Tracer#getLoggerMdcSyncMode()} is {@link Tracer.LoggerMdcSyncMode#LAZY} - so with both of those a forked thread
+ * keeps no tracing state of its own at all.
+ */
+@SuppressWarnings("WeakerAccess")
+public class InheritedTracingState {
+
+    private static final InheritedTracingState EMPTY = new InheritedTracingState(null, null);
+
+    /**
+     * The span stack to bind - may be null.
+     */
+    public final @Nullable Deque<Span> spanStack;
+    /**
+     * The logger MDC info to bind - may be null.
+     */
+    public final @Nullable Map<String, String> mdcInfo;
+
+    /**
+     * Creates a new instance that binds the given state. The given span stack should not be modified after being
+     * passed in here.
+     *
+     * @param spanStack The span stack to bind - may be null.
+     * @param mdcInfo The logger MDC info to bind - may be null.
+     */
+    public InheritedTracingState(@Nullable Deque<Span> spanStack, @Nullable Map<String, String> mdcInfo) {
+        this.spanStack = spanStack;
+        this.mdcInfo = mdcInfo;
+    }
+
+    /**
+     * @return The current thread's tracing state, ready to be inherited by another thread.
+     */
+    public static @NotNull InheritedTracingState captureCurrentThreadState() {
+        Deque<Span> spanStack = Tracer.getInstance().getCurrentSpanStackCopy();
+        Map<String, String> mdcInfo = MdcUtils.getContextMapSnapshot();
+
+        if ((spanStack == null || spanStack.isEmpty()) && (mdcInfo == null || mdcInfo.isEmpty())) {
+            return EMPTY;
+        }
+
+        return new InheritedTracingState(spanStack, mdcInfo);
+    }
+
+    /**
+     * @return true if there's no tracing or MDC state to bind, false otherwise.
+     */
+    public boolean isEmpty() {
+        return (spanStack == null || spanStack.isEmpty()) && (mdcInfo == null || mdcInfo.isEmpty());
+    }
+
+    /**
+     * Binds this state to the current thread, runs the given operation, and then unbinds it again - leaving the
+     * current thread's tracing state exactly as it was before this method was called.
+     *
+     * @param operation The operation to run - cannot be null.
+     */
+    public void run(@NotNull Runnable operation) {
+        ScopedTracingContextStorage scopedStorage = getScopedTracingContextStorage();
+        if (scopedStorage != null) {
+            ScopedBinding binding = bindToCurrentTask(scopedStorage);
+            try {
+                operation.run();
+            }
+            finally {
+                binding.unbind();
+            }
+            return;
+        }
+
+        if (isEmpty() && isCurrentThreadStateEmpty()) {
+            // Nothing to bind and nothing to restore.
+            operation.run();
+            return;
+        }
+
+        InheritedTracingState previousState = bindToCurrentThread();
+        try {
+            operation.run();
+        }
+        finally {
+            restoreCurrentThread(previousState);
+        }
+    }
+
+    /**
+     * Binds this state to the current thread, calls the given operation, and then unbinds it again - leaving the
+     * current thread's tracing state exactly as it was before this method was called.
+     *
+     * @param operation The operation to call - cannot be null.
+     * @return The result of the given operation.
+     * @throws Exception if the given operation throws one.
+     */
+    public <T> T call(@NotNull Callable<T> operation) throws Exception {
+        ScopedTracingContextStorage scopedStorage = getScopedTracingContextStorage();
+        if (scopedStorage != null) {
+            ScopedBinding binding = bindToCurrentTask(scopedStorage);
+            try {
+                return operation.call();
+            }
+            finally {
+                binding.unbind();
+            }
+        }
+
+        if (isEmpty() && isCurrentThreadStateEmpty()) {
+            // Nothing to bind and nothing to restore.
+            return operation.call();
+        }
+
+        InheritedTracingState previousState = bindToCurrentThread();
+        try {
+            return operation.call();
+        }
+        finally {
+            restoreCurrentThread(previousState);
+        }
+    }
+
+    /**
+     * @return The {@link Tracer}'s storage if it's a {@link ScopedTracingContextStorage}, otherwise null.
+     */
+    protected static @Nullable ScopedTracingContextStorage getScopedTracingContextStorage() {
+        TracingContextStorage storage = Tracer.getInstance().getTracingContextStorage();
+        return (storage instanceof ScopedTracingContextStorage) ? (ScopedTracingContextStorage) storage : null;
+    }
+
+    /**
+     * Binds this state to the current task using the given {@link ScopedTracingContextStorage}. This never reads or
+     * writes the current thread's {@link ThreadLocal} span stack, and only touches the current thread's {@link MDC}
+     * if there's MDC info to bind or {@link Tracer#getLoggerMdcSyncMode()} is {@link Tracer.LoggerMdcSyncMode#EAGER}
+     * (in which case the task's spans will write to the MDC anyway, so it must be restored afterward).
+     *
+     * @param scopedStorage The storage to bind the span stack with.
+     * @return The binding that must be {@link ScopedBinding#unbind() unbound} afterward.
+     */
+    protected @NotNull ScopedBinding bindToCurrentTask(@NotNull ScopedTracingContextStorage scopedStorage) {
+        TracingContextSlot slot = new TracingContextSlot();
+        slot.setSpanStack(SpanStack.copyOf(spanStack));
+
+        boolean bindMdc = (mdcInfo != null && !mdcInfo.isEmpty())
+                          || Tracer.getInstance().getLoggerMdcSyncMode() != Tracer.LoggerMdcSyncMode.LAZY;
+        Map<String, String> previousMdcInfo = null;
+        if (bindMdc) {
+            previousMdcInfo = MdcUtils.getContextMapSnapshot();
+            setMdcContextMap(mdcInfo);
+        }
+
+        TracingContextSlot previousSlot = scopedStorage.bind(slot);
+        return new ScopedBinding(scopedStorage, previousSlot, bindMdc, previousMdcInfo);
+    }
+
+    protected static void setMdcContextMap(@Nullable Map<String, String> mdcInfo) {
+        if (mdcInfo == null || mdcInfo.isEmpty()) {
+            MDC.clear();
+        }
+        else {
+            MDC.setContextMap(mdcInfo);
+        }
+    }
+
+    protected static boolean isCurrentThreadStateEmpty() {
+        if (Tracer.getInstance().getCurrentSpanStackSize() > 0) {
+            return false;
+        }
+
+        Map<String, String> mdcInfo = MdcUtils.getContextMapSnapshot();
+        return mdcInfo == null || mdcInfo.isEmpty();
+    }
+
+    /**
+     * Binds this state to the current thread.
+     *
+     * @return The state that must be passed to {@link #restoreCurrentThread(InheritedTracingState)} afterward - null
+     * if the current thread had no state of its own, in which case there's nothing to restore.
+     */
+    protected @Nullable InheritedTracingState bindToCurrentThread() {
+        InheritedTracingState previousState = isCurrentThreadStateEmpty() ? null : captureCurrentThreadState();
+
+        Tracer tracer = Tracer.getInstance();
+        tracer.unregisterFromThread();
+        if (mdcInfo == null) {
+            MDC.clear();
+        }
+        else {
+            MDC.setContextMap(mdcInfo);
+        }
+        tracer.registerWithThread(spanStack);
+
+        return previousState;
+    }
+
+    /**
+     * Unbinds this state from the current thread, and restores the given previous state (if any).
+     *
+     * @param previousState The result of the matching {@link #bindToCurrentThread()} call.
+     */
+    protected static void restoreCurrentThread(@Nullable InheritedTracingState previousState) {
+        Tracer tracer = Tracer.getInstance();
+        tracer.unregisterFromThread();
+        MDC.clear();
+
+        if (previousState != null) {
+            if (previousState.mdcInfo != null) {
+                MDC.setContextMap(previousState.mdcInfo);
+            }
+            tracer.registerWithThread(previousState.spanStack);
+        }
+    }
+
+    /**
+     * What {@link #bindToCurrentTask(ScopedTracingContextStorage)} needs to undo when the task finishes.
+     */
+    protected static class ScopedBinding {
+        protected final @NotNull ScopedTracingContextStorage scopedStorage;
+        protected final @Nullable TracingContextSlot previousSlot;
+        protected final boolean mdcBound;
+        protected final @Nullable Map<String, String> previousMdcInfo;
+
+        protected ScopedBinding(
+            @NotNull ScopedTracingContextStorage scopedStorage,
+            @Nullable TracingContextSlot previousSlot,
+            boolean mdcBound,
+            @Nullable Map<String, String> previousMdcInfo
+        ) {
+            this.scopedStorage = scopedStorage;
+            this.previousSlot = previousSlot;
+            this.mdcBound = mdcBound;
+            this.previousMdcInfo = previousMdcInfo;
+        }
+
+        /**
+         * Unbinds the task's slot (restoring the previously bound slot, if any), and restores the MDC if it was
+         * bound.
+         */
+        public void unbind() {
+            scopedStorage.unbind(previousSlot);
+            if (mdcBound) {
+                setMdcContextMap(previousMdcInfo);
+            }
+        }
+    }
+}
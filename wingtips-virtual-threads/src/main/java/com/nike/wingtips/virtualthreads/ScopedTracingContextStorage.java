@@ -0,0 +1,124 @@
+package com.nike.wingtips.virtualthreads;
+
+import com.nike.wingtips.contextstorage.ThreadLocalTracingContextStorage;
+import com.nike.wingtips.contextstorage.TracingContextSlot;
+import com.nike.wingtips.contextstorage.TracingContextStorage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link TracingContextStorage} where the {@link TracingContextSlot} is bound to a task rather than stored in a
+ * {@link ThreadLocal}. {@link InheritedTracingState#run(Runnable)} and {@link InheritedTracingState#call(
+ * java.util.concurrent.Callable)} bind a new slot holding the inherited span stack for the duration of the task (see
+ * {@link #bind(TracingContextSlot)}), and unbind it again when the task finishes. Any other thread, or code that runs
+ * outside of a bound task, falls back to a delegate storage.
+ *
+ * <p>This is intended for the thread-per-task model that virtual threads encourage, where there can be a huge number
+ * of threads parked at any given time. With {@link ThreadLocalTracingContextStorage} every forked thread gets its own
+ * {@link ThreadLocal} map entry (and the {@link ThreadLocal} map itself, for a new thread), which lives as long as the
+ * thread does. With this storage a bound task costs one entry in a shared map while it runs, and nothing at all after
+ * it finishes. See the {@code ParkedThreadTracingStateBenchmark} in the wingtips-benchmarks module for a comparison of
+ * the memory each option retains per parked thread.
+ *
+ * <p>To use this, install it with {@link com.nike.wingtips.Tracer#setTracingContextStorage(TracingContextStorage)}
+ * during application startup. NOTE: The logger {@link org.slf4j.MDC} is always thread local. To avoid per-thread MDC
+ * state as well, also switch {@link com.nike.wingtips.Tracer#setLoggerMdcSyncMode(
+ * com.nike.wingtips.Tracer.LoggerMdcSyncMode)} to {@code LAZY} - {@link InheritedTracingState} only touches a forked
+ * thread's MDC when there's MDC info to inherit.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ScopedTracingContextStorage implements TracingContextStorage {
+
+    private static final ScopedTracingContextStorage DEFAULT_INSTANCE =
+        new ScopedTracingContextStorage(ThreadLocalTracingContextStorage.getDefaultInstance());
+
+    protected final TracingContextStorage fallbackStorage;
+    // The slots of the tasks that are currently running, keyed by the thread running them. Thread uses identity
+    //      equals/hashCode, so lookups never call into user code.
+    protected final ConcurrentHashMap<Thread, TracingContextSlot> boundSlots = new ConcurrentHashMap<>();
+
+    /**
+     * @param fallbackStorage The storage to use for threads that aren't running a bound task - cannot be null.
+     */
+    public ScopedTracingContextStorage(@NotNull TracingContextStorage fallbackStorage) {
+        //noinspection ConstantConditions
+        if (fallbackStorage == null) {
+            throw new IllegalArgumentException("fallbackStorage cannot be null");
+        }
+
+        this.fallbackStorage = fallbackStorage;
+    }
+
+    /**
+     * @return The default shared instance of this class, which falls back to {@link
+     * ThreadLocalTracingContextStorage#getDefaultInstance()} for threads that aren't running a bound task. Since that's
+     * also the {@link com.nike.wingtips.Tracer} default, switching to this instance doesn't lose track of the span
+     * stacks of any other threads.
+     */
+    public static ScopedTracingContextStorage getDefaultInstance() {
+        return DEFAULT_INSTANCE;
+    }
+
+    @Override
+    public @Nullable TracingContextSlot getCurrentSlot() {
+        TracingContextSlot slot = boundSlots.get(Thread.currentThread());
+        if (slot != null) {
+            return slot;
+        }
+
+        return fallbackStorage.getCurrentSlot();
+    }
+
+    @Override
+    public @NotNull TracingContextSlot getOrCreateCurrentSlot() {
+        TracingContextSlot slot = boundSlots.get(Thread.currentThread());
+        if (slot != null) {
+            return slot;
+        }
+
+        return fallbackStorage.getOrCreateCurrentSlot();
+    }
+
+    /**
+     * Binds the given slot to the current thread until {@link #unbind(TracingContextSlot)} is called. While it's
+     * bound, the slot hides whatever the fallback storage has for the current thread.
+     *
+     * @param slot The slot to bind - cannot be null.
+     * @return The slot that was bound to the current thread before this call (e.g. for a nested task run inline), or
+     * null if there wasn't one. This must be passed to {@link #unbind(TracingContextSlot)} afterward.
+     */
+    public @Nullable TracingContextSlot bind(@NotNull TracingContextSlot slot) {
+        //noinspection ConstantConditions
+        if (slot == null) {
+            throw new IllegalArgumentException("slot cannot be null");
+        }
+
+        return boundSlots.put(Thread.currentThread(), slot);
+    }
+
+    /**
+     * Unbinds the slot bound by the matching {@link #bind(TracingContextSlot)} call from the current thread.
+     *
+     * @param previousSlot The result of the matching {@link #bind(TracingContextSlot)} call, which is bound to the
+     * current thread again - may be null.
+     */
+    public void unbind(@Nullable TracingContextSlot previousSlot) {
+        if (previousSlot == null) {
+            boundSlots.remove(Thread.currentThread());
+        }
+        else {
+            boundSlots.put(Thread.currentThread(), previousSlot);
+        }
+    }
+
+    /**
+     * @return The number of tasks that currently have a slot bound. Intended for testing and monitoring.
+     */
+    public int getBoundSlotCount() {
+        return boundSlots.size();
+    }
+
+}
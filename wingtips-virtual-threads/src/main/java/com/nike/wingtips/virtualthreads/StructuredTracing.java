@@ -0,0 +1,105 @@
+package com.nike.wingtips.virtualthreads;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.Tracer;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Helpers for structured concurrency, where a task forks subtasks onto their own (usually virtual) threads and then
+ * joins them - e.g. the JDK's {@code StructuredTaskScope}:
+ * <pre>
+ *     try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
+ *         Subtask&lt;User&gt; user = scope.fork(StructuredTracing.subtask(() -&gt; findUser()));
+ *         Subtask&lt;Order&gt; order = scope.fork(StructuredTracing.subtaskWithSubSpan("fetchOrder", () -&gt; fetchOrder()));
+ *         scope.join().throwIfFailed();
+ *         ...
+ *     }
+ * </pre>
+ *
+ * Each helper captures the forking thread's tracing state when it's called (which is when the subtask is forked), and
+ * binds it to the subtask's thread while the subtask runs - see {@link InheritedTracingState}. The forking thread's
+ * span stack is shared with the subtasks rather than copied, so forking many subtasks is cheap.
+ *
+ * <p>These work with any API that forks {@link Callable}s or {@link Runnable}s onto other threads, not just {@code
+ * StructuredTaskScope}.
+ */
+@SuppressWarnings("WeakerAccess")
+public class StructuredTracing {
+
+    // Intentionally protected - use the static methods.
+    protected StructuredTracing() { /* do nothing */ }
+
+    /**
+     * @param subtask The subtask to wrap - cannot be null.
+     * @return A {@link Callable} that runs the given subtask with the current thread's tracing state.
+     */
+    public static <T> @NotNull Callable<T> subtask(@NotNull final Callable<T> subtask) {
+        checkNotNull(subtask);
+        final InheritedTracingState inheritedState = InheritedTracingState.captureCurrentThreadState();
+
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return inheritedState.call(subtask);
+            }
+        };
+    }
+
+    /**
+     * @param subtask The subtask to wrap - cannot be null.
+     * @return A {@link Runnable} that runs the given subtask with the current thread's tracing state.
+     */
+    public static @NotNull Runnable subtask(@NotNull final Runnable subtask) {
+        checkNotNull(subtask);
+        final InheritedTracingState inheritedState = InheritedTracingState.captureCurrentThreadState();
+
+        return new Runnable() {
+            @Override
+            public void run() {
+                inheritedState.run(subtask);
+            }
+        };
+    }
+
+    /**
+     * @param subSpanName The name of the sub-span to surround the subtask with - cannot be null.
+     * @param subtask The subtask to wrap - cannot be null.
+     * @return A {@link Callable} that runs the given subtask with the current thread's tracing state, surrounded by a
+     * new {@link SpanPurpose#LOCAL_ONLY} sub-span (or a new root span if there's no current span) that is completed
+     * when the subtask finishes. The sub-span is started on the subtask's thread, so it measures the time the
+     * subtask spent running rather than waiting to be forked.
+     */
+    public static <T> @NotNull Callable<T> subtaskWithSubSpan(
+        @NotNull final String subSpanName,
+        @NotNull final Callable<T> subtask
+    ) {
+        checkNotNull(subtask);
+        //noinspection ConstantConditions
+        if (subSpanName == null) {
+            throw new IllegalArgumentException("subSpanName cannot be null");
+        }
+
+        return subtask(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                Span subSpan = Tracer.getInstance().startSpanInCurrentContext(subSpanName, SpanPurpose.LOCAL_ONLY);
+                try {
+                    return subtask.call();
+                }
+                finally {
+                    subSpan.close();
+                }
+            }
+        });
+    }
+
+    protected static void checkNotNull(Object subtask) {
+        if (subtask == null) {
+            throw new IllegalArgumentException("subtask cannot be null");
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.nike.wingtips.virtualthreads;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A {@link ThreadFactory} that wraps a delegate factory so that each new thread inherits the tracing state of the
+ * thread that created it (see {@link InheritedTracingState}). The state is captured when {@link #newThread(Runnable)}
+ * is called, bound to the new thread when it starts running, and cleared when the thread's task finishes.
+ *
+ * <p>This is intended for the thread-per-task model - e.g. a virtual thread factory from {@link
+ * VirtualThreads#newVirtualThreadFactory(String)}, used by {@link ThreadPerTaskExecutorWithTracing} or passed to the
+ * JDK's {@code Executors.newThreadPerTaskExecutor(...)} or a {@code StructuredTaskScope}. In that model the thread is
+ * created by the thread that submits the task, so each task sees the submitter's tracing state without the task
+ * itself needing to be wrapped.
+ *
+ * <p><b>WARNING:</b> Do not use this with thread pools (e.g. {@link java.util.concurrent.ThreadPoolExecutor}). Pool
+ * threads are created once and then run many tasks, so every task would see the tracing state of whichever thread
+ * happened to cause the pool thread to be created. Use {@link
+ * com.nike.wingtips.util.asynchelperwrapper.ExecutorServiceWithTracing} for thread pools instead.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ThreadFactoryWithTracing implements ThreadFactory {
+
+    protected final ThreadFactory delegate;
+
+    /**
+     * @param delegate The factory that creates the threads - cannot be null.
+     */
+    public ThreadFactoryWithTracing(@NotNull ThreadFactory delegate) {
+        //noinspection ConstantConditions
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate cannot be null");
+        }
+
+        this.delegate = delegate;
+    }
+
+    /**
+     * @param delegate The factory to wrap - cannot be null.
+     * @return The given factory if it's already a {@link ThreadFactoryWithTracing}, otherwise a new {@link
+     * ThreadFactoryWithTracing} that wraps it.
+     */
+    public static @NotNull ThreadFactoryWithTracing withTracing(@NotNull ThreadFactory delegate) {
+        if (delegate instanceof ThreadFactoryWithTracing) {
+            return (ThreadFactoryWithTracing) delegate;
+        }
+
+        return new ThreadFactoryWithTracing(delegate);
+    }
+
+    @Override
+    public Thread newThread(@NotNull Runnable r) {
+        final InheritedTracingState inheritedState = InheritedTracingState.captureCurrentThreadState();
+        if (inheritedState.isEmpty()) {
+            // Nothing to inherit - the thread doesn't need any tracing setup at all.
+            return delegate.newThread(r);
+        }
+
+        return delegate.newThread(new RunnableWithInheritedTracingState(r, inheritedState));
+    }
+
+    /**
+     * The {@link Runnable} handed to the delegate factory when there's tracing state to inherit.
+     */
+    protected static class RunnableWithInheritedTracingState implements Runnable {
+        protected final Runnable origRunnable;
+        protected final InheritedTracingState inheritedState;
+
+        protected RunnableWithInheritedTracingState(Runnable origRunnable, InheritedTracingState inheritedState) {
+            this.origRunnable = origRunnable;
+            this.inheritedState = inheritedState;
+        }
+
+        @Override
+        public void run() {
+            inheritedState.run(origRunnable);
+        }
+    }
+}
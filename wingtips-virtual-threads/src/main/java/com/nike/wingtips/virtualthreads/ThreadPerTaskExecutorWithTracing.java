@@ -0,0 +1,185 @@
+package com.nike.wingtips.virtualthreads;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An {@link java.util.concurrent.ExecutorService} that starts a new thread for each task (like the JDK 21 {@code
+ * Executors.newThreadPerTaskExecutor(...)}), where each task's thread inherits the tracing state of the thread that
+ * submitted the task (see {@link ThreadFactoryWithTracing}). Tasks are never queued - {@link #shutdownNow()}
+ * interrupts the running tasks and always returns an empty list.
+ *
+ * <p>This is mainly intended for virtual threads - see {@link #newVirtualThreadPerTaskExecutor()} - but works with any
+ * {@link ThreadFactory}. Locking is done with a {@link ReentrantLock} rather than {@code synchronized} so that it
+ * doesn't pin virtual threads to their carrier threads.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ThreadPerTaskExecutorWithTracing extends AbstractExecutorService {
+
+    /**
+     * The name prefix used for the virtual threads created by {@link #newVirtualThreadPerTaskExecutor()}.
+     */
+    public static final String DEFAULT_VIRTUAL_THREAD_NAME_PREFIX = "wingtips-virtual-";
+
+    protected final ThreadFactoryWithTracing threadFactory;
+
+    protected final Set<Thread> activeThreads =
+        Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+    protected final ReentrantLock lock = new ReentrantLock();
+    protected final Condition terminationCondition = lock.newCondition();
+    protected volatile boolean shutdown = false;
+
+    /**
+     * @param threadFactory The factory that creates a thread for each task - cannot be null. It will be wrapped in a
+     * {@link ThreadFactoryWithTracing} if it isn't one already.
+     */
+    public ThreadPerTaskExecutorWithTracing(@NotNull ThreadFactory threadFactory) {
+        //noinspection ConstantConditions
+        if (threadFactory == null) {
+            throw new IllegalArgumentException("threadFactory cannot be null");
+        }
+
+        this.threadFactory = ThreadFactoryWithTracing.withTracing(threadFactory);
+    }
+
+    /**
+     * @return A new {@link ThreadPerTaskExecutorWithTracing} that starts a new virtual thread for each task.
+     * @throws UnsupportedOperationException if the current JVM does not support virtual threads (see {@link
+     * VirtualThreads#isSupported()}).
+     */
+    public static @NotNull ThreadPerTaskExecutorWithTracing newVirtualThreadPerTaskExecutor() {
+        return new ThreadPerTaskExecutorWithTracing(
+            VirtualThreads.newVirtualThreadFactory(DEFAULT_VIRTUAL_THREAD_NAME_PREFIX)
+        );
+    }
+
+    @Override
+    public void execute(@NotNull Runnable command) {
+        //noinspection ConstantConditions
+        if (command == null) {
+            throw new NullPointerException("command cannot be null");
+        }
+
+        Thread thread;
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("This executor has been shut down.");
+            }
+
+            // The thread is created here on the submitting thread, which is what lets it inherit the submitter's
+            //      tracing state.
+            thread = threadFactory.newThread(new TaskRunner(command));
+            if (thread == null) {
+                throw new RejectedExecutionException("The thread factory did not create a thread.");
+            }
+            activeThreads.add(thread);
+        }
+        finally {
+            lock.unlock();
+        }
+
+        try {
+            thread.start();
+        }
+        catch (Throwable t) {
+            taskThreadFinished(thread);
+            throw new RejectedExecutionException("Unable to start a thread for the task.", t);
+        }
+    }
+
+    protected void taskThreadFinished(Thread thread) {
+        lock.lock();
+        try {
+            activeThreads.remove(thread);
+            if (shutdown && activeThreads.isEmpty()) {
+                terminationCondition.signalAll();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            if (activeThreads.isEmpty()) {
+                terminationCondition.signalAll();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public @NotNull List<Runnable> shutdownNow() {
+        shutdown();
+        for (Thread thread : activeThreads) {
+            thread.interrupt();
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && activeThreads.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        long nanosRemaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (!isTerminated()) {
+                if (nanosRemaining <= 0) {
+                    return false;
+                }
+                nanosRemaining = terminationCondition.awaitNanos(nanosRemaining);
+            }
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the task, then tells the executor that the task's thread is done.
+     */
+    protected class TaskRunner implements Runnable {
+        protected final Runnable task;
+
+        protected TaskRunner(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run();
+            }
+            finally {
+                taskThreadFinished(Thread.currentThread());
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.nike.wingtips.virtualthreads;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Gives access to JDK 21+ virtual threads while still compiling and running on older JDKs. The JDK APIs ({@code
+ * Thread.ofVirtual()} and {@code Thread.isVirtual()}) are looked up once via reflection when this class is loaded -
+ * use {@link #isSupported()} to find out whether they're available on the current JVM.
+ */
+@SuppressWarnings("WeakerAccess")
+public class VirtualThreads {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private static final Method OF_VIRTUAL_METHOD;
+    private static final Method BUILDER_NAME_WITH_COUNTER_METHOD;
+    private static final Method BUILDER_FACTORY_METHOD;
+    private static final Method IS_VIRTUAL_METHOD;
+
+    static {
+        Method ofVirtual = null;
+        Method builderNameWithCounter = null;
+        Method builderFactory = null;
+        Method isVirtual = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builderNameWithCounter = builderClass.getMethod("name", String.class, long.class);
+            builderFactory = builderClass.getMethod("factory");
+            isVirtual = Thread.class.getMethod("isVirtual");
+        }
+        catch (Throwable t) {
+            logger.debug("Virtual threads are not supported by this JVM (JDK 21 or later is required).");
+            ofVirtual = null;
+        }
+
+        OF_VIRTUAL_METHOD = ofVirtual;
+        BUILDER_NAME_WITH_COUNTER_METHOD = builderNameWithCounter;
+        BUILDER_FACTORY_METHOD = builderFactory;
+        IS_VIRTUAL_METHOD = isVirtual;
+    }
+
+    // Intentionally protected - use the static methods.
+    protected VirtualThreads() { /* do nothing */ }
+
+    /**
+     * @return true if the current JVM supports virtual threads (JDK 21 or later), false otherwise.
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL_METHOD != null;
+    }
+
+    /**
+     * @param namePrefix The prefix for the names of the threads created by the returned factory - each thread's name
+     * will be this prefix followed by a counter starting at 0. Cannot be null.
+     * @return A new {@link ThreadFactory} that creates unstarted virtual threads (i.e. the result of {@code
+     * Thread.ofVirtual().name(namePrefix, 0).factory()}).
+     * @throws UnsupportedOperationException if the current JVM does not support virtual threads (see {@link
+     * #isSupported()}).
+     */
+    public static @NotNull ThreadFactory newVirtualThreadFactory(@NotNull String namePrefix) {
+        //noinspection ConstantConditions
+        if (namePrefix == null) {
+            throw new IllegalArgumentException("namePrefix cannot be null");
+        }
+
+        if (!isSupported()) {
+            throw new UnsupportedOperationException(
+                "Virtual threads are not supported by this JVM (JDK 21 or later is required)."
+            );
+        }
+
+        try {
+            Object builder = OF_VIRTUAL_METHOD.invoke(null);
+            builder = BUILDER_NAME_WITH_COUNTER_METHOD.invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) BUILDER_FACTORY_METHOD.invoke(builder);
+        }
+        catch (Exception ex) {
+            throw new IllegalStateException("Unable to create a virtual thread factory.", ex);
+        }
+    }
+
+    /**
+     * @param thread The thread to check - may be null.
+     * @return true if the given thread is a virtual thread, false if it's a platform thread, it's null, or the
+     * current JVM does not support virtual threads.
+     */
+    public static boolean isVirtual(Thread thread) {
+        if (thread == null || IS_VIRTUAL_METHOD == null) {
+            return false;
+        }
+
+        try {
+            return (Boolean) IS_VIRTUAL_METHOD.invoke(thread);
+        }
+        catch (Exception ex) {
+            return false;
+        }
+    }
+}
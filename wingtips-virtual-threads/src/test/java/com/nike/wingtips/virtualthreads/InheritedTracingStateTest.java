@@ -0,0 +1,243 @@
+package com.nike.wingtips.virtualthreads;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Tracer;
+import com.nike.wingtips.Tracer.LoggerMdcSyncMode;
+import com.nike.wingtips.contextstorage.ThreadLocalTracingContextStorage;
+import com.nike.wingtips.contextstorage.TracingContextSlot;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link InheritedTracingState}.
+ */
+@RunWith(DataProviderRunner.class)
+public class InheritedTracingStateTest {
+
+    @Before
+    public void beforeMethod() {
+        resetTracing();
+    }
+
+    @After
+    public void afterMethod() {
+        resetTracing();
+        Tracer.getInstance().setTracingContextStorage(ThreadLocalTracingContextStorage.getDefaultInstance());
+        Tracer.getInstance().setLoggerMdcSyncMode(LoggerMdcSyncMode.EAGER);
+    }
+
+    private void useScopedStorageIfRequested(boolean useScopedStorage) {
+        if (useScopedStorage) {
+            Tracer.getInstance().setTracingContextStorage(ScopedTracingContextStorage.getDefaultInstance());
+        }
+    }
+
+    private void resetTracing() {
+        MDC.clear();
+        Tracer.getInstance().unregisterFromThread();
+    }
+
+    @Test
+    public void captureCurrentThreadState_returns_empty_state_when_current_thread_has_no_state() {
+        // when
+        InheritedTracingState state = InheritedTracingState.captureCurrentThreadState();
+
+        // then
+        assertThat(state.isEmpty()).isTrue();
+        assertThat(InheritedTracingState.captureCurrentThreadState()).isSameAs(state);
+    }
+
+    @Test
+    public void captureCurrentThreadState_captures_span_stack_and_mdc_info() {
+        // given
+        Span rootSpan = Tracer.getInstance().startRequestWithRootSpan("foo");
+        Span subSpan = Tracer.getInstance().startSubSpan("bar", Span.SpanPurpose.LOCAL_ONLY);
+        Map<String, String> expectedMdcInfo = MDC.getCopyOfContextMap();
+
+        // when
+        InheritedTracingState state = InheritedTracingState.captureCurrentThreadState();
+
+        // then
+        assertThat(state.isEmpty()).isFalse();
+        assertThat(state.spanStack).containsExactly(subSpan, rootSpan);
+        assertThat(state.mdcInfo).isEqualTo(expectedMdcInfo);
+    }
+
+    @DataProvider(value = {
+        "true   |   false",
+        "false  |   false",
+        "true   |   true",
+        "false  |   true"
+    }, splitBy = "\\|")
+    @Test
+    public void run_binds_state_during_operation_and_restores_previous_state_afterward(
+        boolean currentThreadHasState, boolean useScopedStorage
+    ) {
+        // given
+        useScopedStorageIfRequested(useScopedStorage);
+        Span parentSpan = Tracer.getInstance().startRequestWithRootSpan("parent");
+        InheritedTracingState state = InheritedTracingState.captureCurrentThreadState();
+        resetTracing();
+
+        Span otherSpan = null;
+        if (currentThreadHasState) {
+            otherSpan = Tracer.getInstance().startRequestWithRootSpan("other");
+        }
+        Map<String, String> mdcInfoBefore = MDC.getCopyOfContextMap();
+
+        final List<Span> spansSeenByOperation = new ArrayList<>();
+        final List<Map<String, String>> mdcInfoSeenByOperation = new ArrayList<>();
+
+        // when
+        state.run(() -> {
+            spansSeenByOperation.add(Tracer.getInstance().getCurrentSpan());
+            mdcInfoSeenByOperation.add(MDC.getCopyOfContextMap());
+        });
+
+        // then
+        assertThat(spansSeenByOperation).containsExactly(parentSpan);
+        assertThat(mdcInfoSeenByOperation.get(0)).isEqualTo(state.mdcInfo);
+        assertThat(Tracer.getInstance().getCurrentSpan()).isSameAs(otherSpan);
+        assertThat(MDC.getCopyOfContextMap()).isEqualTo(mdcInfoBefore);
+    }
+
+    @Test
+    public void call_returns_result_and_restores_state_when_operation_throws() throws Exception {
+        // given
+        Tracer.getInstance().startRequestWithRootSpan("parent");
+        InheritedTracingState state = InheritedTracingState.captureCurrentThreadState();
+        resetTracing();
+        RuntimeException expectedEx = new RuntimeException("kaboom");
+
+        // when
+        String result = state.call(() -> Tracer.getInstance().getCurrentSpan().getSpanName());
+        Throwable ex = catchThrowable(() -> state.call(() -> {
+            throw expectedEx;
+        }));
+
+        // then
+        assertThat(result).isEqualTo("parent");
+        assertThat(ex).isSameAs(expectedEx);
+        assertThat(Tracer.getInstance().getCurrentSpan()).isNull();
+        assertThat(MDC.getCopyOfContextMap()).isNullOrEmpty();
+    }
+
+    @Test
+    public void spans_started_during_run_do_not_affect_the_captured_span_stack() {
+        // given
+        Span parentSpan = Tracer.getInstance().startRequestWithRootSpan("parent");
+        InheritedTracingState state = InheritedTracingState.captureCurrentThreadState();
+        Deque<Span> capturedStack = state.spanStack;
+        resetTracing();
+
+        // when
+        state.run(() -> Tracer.getInstance().startSubSpan("child", Span.SpanPurpose.LOCAL_ONLY));
+
+        // then
+        assertThat(capturedStack).containsExactly(parentSpan);
+        assertThat(state.spanStack).containsExactly(parentSpan);
+    }
+
+    @DataProvider(value = {
+        "false",
+        "true"
+    })
+    @Test
+    public void run_with_empty_state_clears_current_thread_state_during_operation_only(boolean useScopedStorage) {
+        // given
+        useScopedStorageIfRequested(useScopedStorage);
+        Span existingSpan = Tracer.getInstance().startRequestWithRootSpan("existing");
+        final List<Span> spansSeenByOperation = new ArrayList<>();
+
+        // when
+        new InheritedTracingState(null, null).run(
+            () -> spansSeenByOperation.add(Tracer.getInstance().getCurrentSpan())
+        );
+
+        // then
+        assertThat(spansSeenByOperation).containsExactly((Span) null);
+        assertThat(Tracer.getInstance().getCurrentSpan()).isSameAs(existingSpan);
+    }
+
+    @Test
+    public void run_with_scoped_storage_binds_span_stack_to_the_task_instead_of_the_thread_local_slot()
+        throws InterruptedException {
+        // given
+        ThreadLocalTracingContextStorage fallbackStorage = new ThreadLocalTracingContextStorage();
+        ScopedTracingContextStorage scopedStorage = new ScopedTracingContextStorage(fallbackStorage);
+        Tracer.getInstance().setTracingContextStorage(scopedStorage);
+        Span parentSpan = Tracer.getInstance().startRequestWithRootSpan("parent");
+        InheritedTracingState state = InheritedTracingState.captureCurrentThreadState();
+
+        final List<Span> spansSeenByOperation = new ArrayList<>();
+        final List<Span> subSpansStartedByOperation = new ArrayList<>();
+        final List<Integer> boundSlotCountsSeenByOperation = new ArrayList<>();
+        final List<TracingContextSlot> fallbackSlotsSeenAfterRun = new ArrayList<>();
+
+        // when
+        Thread forkedThread = new Thread(() -> {
+            state.run(() -> {
+                spansSeenByOperation.add(Tracer.getInstance().getCurrentSpan());
+                boundSlotCountsSeenByOperation.add(scopedStorage.getBoundSlotCount());
+                subSpansStartedByOperation.add(
+                    Tracer.getInstance().startSubSpan("child", Span.SpanPurpose.LOCAL_ONLY)
+                );
+                Tracer.getInstance().completeSubSpan();
+            });
+            fallbackSlotsSeenAfterRun.add(fallbackStorage.getCurrentSlot());
+        });
+        forkedThread.start();
+        forkedThread.join();
+
+        // then
+        assertThat(spansSeenByOperation).containsExactly(parentSpan);
+        assertThat(boundSlotCountsSeenByOperation).containsExactly(1);
+        assertThat(subSpansStartedByOperation.get(0).getParentSpanId()).isEqualTo(parentSpan.getSpanId());
+        // The forked thread never got a thread local slot, and nothing is left bound after the task finished.
+        assertThat(fallbackSlotsSeenAfterRun).containsExactly((TracingContextSlot) null);
+        assertThat(scopedStorage.getBoundSlotCount()).isZero();
+        assertThat(Tracer.getInstance().getCurrentSpan()).isSameAs(parentSpan);
+    }
+
+    @Test
+    public void run_with_scoped_storage_leaves_mdc_alone_when_there_is_no_mdc_info_to_inherit_in_LAZY_mode() {
+        // given
+        Tracer.getInstance().setTracingContextStorage(ScopedTracingContextStorage.getDefaultInstance());
+        Tracer.getInstance().setLoggerMdcSyncMode(LoggerMdcSyncMode.LAZY);
+        Span parentSpan = Tracer.getInstance().startRequestWithRootSpan("parent");
+        InheritedTracingState state = InheritedTracingState.captureCurrentThreadState();
+        assertThat(state.mdcInfo).isNullOrEmpty();
+        resetTracing();
+        MDC.put("foo", "bar");
+
+        final List<Span> spansSeenByOperation = new ArrayList<>();
+        final List<String> mdcValuesSeenByOperation = new ArrayList<>();
+
+        // when
+        state.run(() -> {
+            spansSeenByOperation.add(Tracer.getInstance().getCurrentSpan());
+            mdcValuesSeenByOperation.add(MDC.get("foo"));
+        });
+
+        // then
+        assertThat(spansSeenByOperation).containsExactly(parentSpan);
+        assertThat(mdcValuesSeenByOperation).containsExactly("bar");
+        assertThat(MDC.get("foo")).isEqualTo("bar");
+        assertThat(Tracer.getInstance().getCurrentSpan()).isNull();
+    }
+}
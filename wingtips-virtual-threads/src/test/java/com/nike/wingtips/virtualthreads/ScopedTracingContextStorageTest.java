@@ -0,0 +1,137 @@
+package com.nike.wingtips.virtualthreads;
+
+import com.nike.wingtips.contextstorage.ThreadLocalTracingContextStorage;
+import com.nike.wingtips.contextstorage.TracingContextSlot;
+import com.nike.wingtips.contextstorage.TracingContextStorage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+/**
+ * Tests the functionality of {@link ScopedTracingContextStorage}.
+ */
+public class ScopedTracingContextStorageTest {
+
+    @Test
+    public void constructor_throws_IllegalArgumentException_if_fallbackStorage_is_null() {
+        // when
+        Throwable ex = catchThrowable(() -> new ScopedTracingContextStorage(null));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void getDefaultInstance_falls_back_to_default_thread_local_storage() {
+        // expect
+        assertThat(ScopedTracingContextStorage.getDefaultInstance().fallbackStorage)
+            .isSameAs(ThreadLocalTracingContextStorage.getDefaultInstance());
+    }
+
+    @Test
+    public void uses_fallback_storage_when_no_slot_is_bound() {
+        // given
+        TracingContextStorage fallbackMock = mock(TracingContextStorage.class);
+        TracingContextSlot fallbackSlot = new TracingContextSlot();
+        doReturn(fallbackSlot).when(fallbackMock).getCurrentSlot();
+        doReturn(fallbackSlot).when(fallbackMock).getOrCreateCurrentSlot();
+        ScopedTracingContextStorage storage = new ScopedTracingContextStorage(fallbackMock);
+
+        // expect
+        assertThat(storage.getCurrentSlot()).isSameAs(fallbackSlot);
+        assertThat(storage.getOrCreateCurrentSlot()).isSameAs(fallbackSlot);
+    }
+
+    @Test
+    public void bound_slot_hides_fallback_storage_until_unbound() {
+        // given
+        TracingContextStorage fallbackMock = mock(TracingContextStorage.class);
+        ScopedTracingContextStorage storage = new ScopedTracingContextStorage(fallbackMock);
+        TracingContextSlot slot = new TracingContextSlot();
+
+        // when
+        TracingContextSlot previousSlot = storage.bind(slot);
+
+        // then
+        assertThat(previousSlot).isNull();
+        assertThat(storage.getCurrentSlot()).isSameAs(slot);
+        assertThat(storage.getOrCreateCurrentSlot()).isSameAs(slot);
+        assertThat(storage.getBoundSlotCount()).isEqualTo(1);
+        verifyZeroInteractions(fallbackMock);
+
+        // and when
+        storage.unbind(previousSlot);
+
+        // then
+        assertThat(storage.getBoundSlotCount()).isZero();
+        assertThat(storage.getCurrentSlot()).isNull();
+    }
+
+    @Test
+    public void nested_binding_restores_outer_slot_when_unbound() {
+        // given
+        ScopedTracingContextStorage storage = new ScopedTracingContextStorage(new ThreadLocalTracingContextStorage());
+        TracingContextSlot outerSlot = new TracingContextSlot();
+        TracingContextSlot innerSlot = new TracingContextSlot();
+        TracingContextSlot previousOfOuter = storage.bind(outerSlot);
+
+        // when
+        TracingContextSlot previousOfInner = storage.bind(innerSlot);
+
+        // then
+        assertThat(previousOfInner).isSameAs(outerSlot);
+        assertThat(storage.getCurrentSlot()).isSameAs(innerSlot);
+
+        // and when
+        storage.unbind(previousOfInner);
+
+        // then
+        assertThat(storage.getCurrentSlot()).isSameAs(outerSlot);
+
+        // and when
+        storage.unbind(previousOfOuter);
+
+        // then
+        assertThat(storage.getBoundSlotCount()).isZero();
+    }
+
+    @Test
+    public void bound_slot_is_only_visible_to_the_thread_that_bound_it() throws InterruptedException {
+        // given
+        ScopedTracingContextStorage storage = new ScopedTracingContextStorage(new ThreadLocalTracingContextStorage());
+        TracingContextSlot slot = new TracingContextSlot();
+        TracingContextSlot previousSlot = storage.bind(slot);
+        List<TracingContextSlot> slotsSeenByOtherThread = Collections.synchronizedList(new ArrayList<>());
+
+        // when
+        Thread otherThread = new Thread(() -> slotsSeenByOtherThread.add(storage.getCurrentSlot()));
+        otherThread.start();
+        otherThread.join();
+
+        // then
+        assertThat(slotsSeenByOtherThread).containsExactly((TracingContextSlot) null);
+        assertThat(storage.getCurrentSlot()).isSameAs(slot);
+        storage.unbind(previousSlot);
+    }
+
+    @Test
+    public void bind_throws_IllegalArgumentException_if_slot_is_null() {
+        // given
+        ScopedTracingContextStorage storage = new ScopedTracingContextStorage(new ThreadLocalTracingContextStorage());
+
+        // when
+        Throwable ex = catchThrowable(() -> storage.bind(null));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+}
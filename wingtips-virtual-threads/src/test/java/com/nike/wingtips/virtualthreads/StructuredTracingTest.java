@@ -0,0 +1,95 @@
+package com.nike.wingtips.virtualthreads;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Tracer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link StructuredTracing}.
+ */
+public class StructuredTracingTest {
+
+    private ExecutorService forkExecutor;
+
+    @Before
+    public void beforeMethod() {
+        resetTracing();
+        forkExecutor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void afterMethod() {
+        forkExecutor.shutdownNow();
+        resetTracing();
+    }
+
+    private void resetTracing() {
+        MDC.clear();
+        Tracer.getInstance().unregisterFromThread();
+    }
+
+    @Test
+    public void helpers_throw_IllegalArgumentException_for_null_args() {
+        // expect
+        assertThat(catchThrowable(() -> StructuredTracing.subtask((Callable<?>) null)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> StructuredTracing.subtask((Runnable) null)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> StructuredTracing.subtaskWithSubSpan("foo", null)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> StructuredTracing.subtaskWithSubSpan(null, () -> null)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void subtask_runs_with_tracing_state_from_when_it_was_forked() throws Exception {
+        // given
+        Span parentSpan = Tracer.getInstance().startRequestWithRootSpan("parent");
+        Callable<Span> callableSubtask = StructuredTracing.subtask(() -> Tracer.getInstance().getCurrentSpan());
+        AtomicReference<Span> runnableSubtaskSpan = new AtomicReference<>();
+        Runnable runnableSubtask = StructuredTracing.subtask(
+            () -> runnableSubtaskSpan.set(Tracer.getInstance().getCurrentSpan())
+        );
+        resetTracing();
+
+        // when
+        Span callableSubtaskSpan = forkExecutor.submit(callableSubtask).get();
+        forkExecutor.submit(runnableSubtask).get();
+
+        // then
+        assertThat(callableSubtaskSpan).isSameAs(parentSpan);
+        assertThat(runnableSubtaskSpan.get()).isSameAs(parentSpan);
+    }
+
+    @Test
+    public void subtaskWithSubSpan_surrounds_subtask_with_completed_child_span() throws Exception {
+        // given
+        Span parentSpan = Tracer.getInstance().startRequestWithRootSpan("parent");
+        Callable<Span> subtask = StructuredTracing.subtaskWithSubSpan(
+            "child", () -> Tracer.getInstance().getCurrentSpan()
+        );
+
+        // when
+        Span childSpan = forkExecutor.submit(subtask).get();
+
+        // then
+        assertThat(childSpan.getSpanName()).isEqualTo("child");
+        assertThat(childSpan.getTraceId()).isEqualTo(parentSpan.getTraceId());
+        assertThat(childSpan.getParentSpanId()).isEqualTo(parentSpan.getSpanId());
+        assertThat(childSpan.getSpanPurpose()).isEqualTo(Span.SpanPurpose.LOCAL_ONLY);
+        assertThat(childSpan.isCompleted()).isTrue();
+        assertThat(Tracer.getInstance().getCurrentSpan()).isSameAs(parentSpan);
+    }
+}
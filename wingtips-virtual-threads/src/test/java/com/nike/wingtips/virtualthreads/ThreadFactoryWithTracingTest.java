@@ -0,0 +1,106 @@
+package com.nike.wingtips.virtualthreads;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Tracer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests the functionality of {@link ThreadFactoryWithTracing}.
+ */
+public class ThreadFactoryWithTracingTest {
+
+    @Before
+    public void beforeMethod() {
+        resetTracing();
+    }
+
+    @After
+    public void afterMethod() {
+        resetTracing();
+    }
+
+    private void resetTracing() {
+        MDC.clear();
+        Tracer.getInstance().unregisterFromThread();
+    }
+
+    @Test
+    public void constructor_throws_IllegalArgumentException_if_delegate_is_null() {
+        // when
+        Throwable ex = catchThrowable(() -> new ThreadFactoryWithTracing(null));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void withTracing_does_not_double_wrap() {
+        // given
+        ThreadFactoryWithTracing factory = new ThreadFactoryWithTracing(Executors.defaultThreadFactory());
+
+        // expect
+        assertThat(ThreadFactoryWithTracing.withTracing(factory)).isSameAs(factory);
+        assertThat(ThreadFactoryWithTracing.withTracing(Executors.defaultThreadFactory()))
+            .isNotSameAs(factory)
+            .isInstanceOf(ThreadFactoryWithTracing.class);
+    }
+
+    @Test
+    public void newThread_passes_runnable_straight_through_when_there_is_no_state_to_inherit() {
+        // given
+        ThreadFactory delegateMock = mock(ThreadFactory.class);
+        Thread thread = new Thread();
+        doReturn(thread).when(delegateMock).newThread(any(Runnable.class));
+        Runnable runnable = () -> { };
+
+        // when
+        Thread result = new ThreadFactoryWithTracing(delegateMock).newThread(runnable);
+
+        // then
+        assertThat(result).isSameAs(thread);
+        verify(delegateMock).newThread(runnable);
+    }
+
+    @Test
+    public void new_thread_inherits_tracing_state_of_creating_thread() throws InterruptedException {
+        // given
+        Span parentSpan = Tracer.getInstance().startRequestWithRootSpan("parent");
+        Map<String, String> expectedMdcInfo = MDC.getCopyOfContextMap();
+        ThreadFactoryWithTracing factory = new ThreadFactoryWithTracing(Executors.defaultThreadFactory());
+
+        final List<Span> spansSeenByThread = Collections.synchronizedList(new ArrayList<>());
+        final List<Map<String, String>> mdcInfoSeenByThread = Collections.synchronizedList(new ArrayList<>());
+
+        // when
+        Thread thread = factory.newThread(() -> {
+            spansSeenByThread.add(Tracer.getInstance().getCurrentSpan());
+            mdcInfoSeenByThread.add(MDC.getCopyOfContextMap());
+        });
+        // The state is captured when the thread is created, not when it's started.
+        resetTracing();
+        thread.start();
+        thread.join();
+
+        // then
+        assertThat(spansSeenByThread).containsExactly(parentSpan);
+        assertThat(mdcInfoSeenByThread).containsExactly(expectedMdcInfo);
+    }
+}
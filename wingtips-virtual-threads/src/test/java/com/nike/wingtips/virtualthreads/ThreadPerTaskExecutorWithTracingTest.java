@@ -0,0 +1,145 @@
+package com.nike.wingtips.virtualthreads;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Tracer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link ThreadPerTaskExecutorWithTracing}.
+ */
+public class ThreadPerTaskExecutorWithTracingTest {
+
+    private ThreadPerTaskExecutorWithTracing executor;
+
+    @Before
+    public void beforeMethod() {
+        resetTracing();
+        executor = new ThreadPerTaskExecutorWithTracing(Executors.defaultThreadFactory());
+    }
+
+    @After
+    public void afterMethod() {
+        executor.shutdownNow();
+        resetTracing();
+    }
+
+    private void resetTracing() {
+        MDC.clear();
+        Tracer.getInstance().unregisterFromThread();
+    }
+
+    @Test
+    public void constructor_throws_IllegalArgumentException_if_threadFactory_is_null() {
+        // when
+        Throwable ex = catchThrowable(() -> new ThreadPerTaskExecutorWithTracing(null));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void tasks_run_on_new_threads_with_the_submitting_threads_tracing_state() throws Exception {
+        // given
+        Span parentSpan = Tracer.getInstance().startRequestWithRootSpan("parent");
+        Thread callingThread = Thread.currentThread();
+
+        // when
+        Future<Span> spanFuture = executor.submit(() -> Tracer.getInstance().getCurrentSpan());
+        Future<Thread> threadFuture = executor.submit(Thread::currentThread);
+
+        // then
+        assertThat(spanFuture.get()).isSameAs(parentSpan);
+        assertThat(threadFuture.get()).isNotSameAs(callingThread);
+    }
+
+    @Test
+    public void shutdown_rejects_new_tasks_and_terminates_once_running_tasks_finish() throws Exception {
+        // given
+        CountDownLatch taskLatch = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                taskLatch.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // when
+        executor.shutdown();
+        Throwable rejectedEx = catchThrowable(() -> executor.execute(() -> { }));
+
+        // then
+        assertThat(rejectedEx).isInstanceOf(RejectedExecutionException.class);
+        assertThat(executor.isShutdown()).isTrue();
+        assertThat(executor.isTerminated()).isFalse();
+        assertThat(executor.awaitTermination(10, TimeUnit.MILLISECONDS)).isFalse();
+
+        // and when
+        taskLatch.countDown();
+
+        // then
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.isTerminated()).isTrue();
+    }
+
+    @Test
+    public void shutdownNow_interrupts_running_tasks() throws Exception {
+        // given
+        CountDownLatch taskStartedLatch = new CountDownLatch(1);
+        Future<?> future = executor.submit(() -> {
+            taskStartedLatch.countDown();
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            return null;
+        });
+        taskStartedLatch.await();
+
+        // when
+        assertThat(executor.shutdownNow()).isEmpty();
+
+        // then
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(catchThrowable(future::get)).hasCauseInstanceOf(InterruptedException.class);
+    }
+
+    @Test
+    public void newVirtualThreadPerTaskExecutor_uses_virtual_threads_when_supported() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            // when
+            Throwable ex = catchThrowable(ThreadPerTaskExecutorWithTracing::newVirtualThreadPerTaskExecutor);
+
+            // then
+            assertThat(ex).isInstanceOf(UnsupportedOperationException.class);
+            return;
+        }
+
+        // given
+        ExecutorService virtualExecutor = ThreadPerTaskExecutorWithTracing.newVirtualThreadPerTaskExecutor();
+        try {
+            // when
+            Thread taskThread = virtualExecutor.submit(Thread::currentThread).get();
+
+            // then
+            assertThat(VirtualThreads.isVirtual(taskThread)).isTrue();
+            assertThat(taskThread.getName())
+                .startsWith(ThreadPerTaskExecutorWithTracing.DEFAULT_VIRTUAL_THREAD_NAME_PREFIX);
+        }
+        finally {
+            virtualExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.nike.wingtips.virtualthreads;
+
+import org.junit.Test;
+
+import java.util.concurrent.ThreadFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link VirtualThreads}.
+ */
+public class VirtualThreadsTest {
+
+    @Test
+    public void newVirtualThreadFactory_throws_IllegalArgumentException_if_namePrefix_is_null() {
+        // when
+        Throwable ex = catchThrowable(() -> VirtualThreads.newVirtualThreadFactory(null));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void newVirtualThreadFactory_creates_virtual_threads_only_when_supported() {
+        if (!VirtualThreads.isSupported()) {
+            // when
+            Throwable ex = catchThrowable(() -> VirtualThreads.newVirtualThreadFactory("foo-"));
+
+            // then
+            assertThat(ex).isInstanceOf(UnsupportedOperationException.class);
+            return;
+        }
+
+        // given
+        ThreadFactory factory = VirtualThreads.newVirtualThreadFactory("foo-");
+
+        // when
+        Thread thread = factory.newThread(() -> { });
+
+        // then
+        assertThat(VirtualThreads.isVirtual(thread)).isTrue();
+        assertThat(thread.getName()).isEqualTo("foo-0");
+    }
+
+    @Test
+    public void isVirtual_returns_false_for_platform_and_null_threads() {
+        // expect
+        assertThat(VirtualThreads.isVirtual(Thread.currentThread())).isFalse();
+        assertThat(VirtualThreads.isVirtual(null)).isFalse();
+    }
+}
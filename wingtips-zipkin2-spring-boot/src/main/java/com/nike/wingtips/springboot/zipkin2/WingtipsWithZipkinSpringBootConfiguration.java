@@ -84,7 +84,7 @@ public class WingtipsWithZipkinSpringBootConfiguration {
         if (wingtipsZipkinProperties.shouldApplyWingtipsToZipkinLifecycleListener()) {
             Reporter<zipkin2.Span> zipkinSpanReporter = (zipkinReporterOverride != null)
                 ? zipkinReporterOverride
-                : WingtipsToZipkinLifecycleListener.generateBasicZipkinReporter(wingtipsZipkinProperties.getBaseUrl());
+                : wingtipsZipkinProperties.generateZipkinReporterFactory().createReporter();
 
             WingtipsToZipkinSpanConverter zipkinSpanConverter = (zipkinSpanConverterOverride != null)
                 ? zipkinSpanConverterOverride
@@ -1,5 +1,7 @@
 package com.nike.wingtips.springboot.zipkin2;
 
+import com.nike.wingtips.zipkin2.ZipkinReporterFactory;
+
 import com.tngtech.java.junit.dataprovider.DataProvider;
 import com.tngtech.java.junit.dataprovider.DataProviderRunner;
 
@@ -9,6 +11,8 @@ import org.junit.runner.RunWith;
 
 import java.util.UUID;
 
+import zipkin2.codec.Encoding;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -104,4 +108,74 @@ public class WingtipsZipkinPropertiesTest {
         assertThat(result).isEqualTo(expectedResult);
     }
 
+    @Test
+    public void exercise_reporter_tuning_getters_and_setters() {
+        // when
+        props.setEncoding(Encoding.PROTO3);
+        props.setCompressionEnabled(false);
+        props.setMessageMaxBytes(1);
+        props.setMessageTimeoutMillis(2L);
+        props.setCloseTimeoutMillis(3L);
+        props.setQueuedMaxSpans(4);
+        props.setQueuedMaxBytes(5);
+        props.setSenderThreads(6);
+
+        // then
+        assertThat(props.getEncoding()).isEqualTo(Encoding.PROTO3);
+        assertThat(props.getCompressionEnabled()).isFalse();
+        assertThat(props.getMessageMaxBytes()).isEqualTo(1);
+        assertThat(props.getMessageTimeoutMillis()).isEqualTo(2L);
+        assertThat(props.getCloseTimeoutMillis()).isEqualTo(3L);
+        assertThat(props.getQueuedMaxSpans()).isEqualTo(4);
+        assertThat(props.getQueuedMaxBytes()).isEqualTo(5);
+        assertThat(props.getSenderThreads()).isEqualTo(6);
+    }
+
+    @DataProvider(value = {
+        "true",
+        "false"
+    })
+    @Test
+    public void generateZipkinReporterFactory_uses_reporter_tuning_properties(boolean tuningPropsSet) {
+        // given
+        String baseUrl = "http://localhost:4242/" + UUID.randomUUID().toString();
+        props.setBaseUrl(baseUrl);
+        if (tuningPropsSet) {
+            props.setEncoding(Encoding.PROTO3);
+            props.setCompressionEnabled(false);
+            props.setMessageMaxBytes(100_000);
+            props.setMessageTimeoutMillis(200L);
+            props.setCloseTimeoutMillis(300L);
+            props.setQueuedMaxSpans(400);
+            props.setQueuedMaxBytes(500_000);
+            props.setSenderThreads(2);
+        }
+
+        // when
+        ZipkinReporterFactory result = props.generateZipkinReporterFactory();
+
+        // then
+        assertThat(result.getPostZipkinSpansBaseUrl()).isEqualTo(baseUrl);
+        if (tuningPropsSet) {
+            assertThat(result.getEncoding()).isEqualTo(Encoding.PROTO3);
+            assertThat(result.getCompressionEnabled()).isFalse();
+            assertThat(result.getMessageMaxBytes()).isEqualTo(100_000);
+            assertThat(result.getMessageTimeoutMillis()).isEqualTo(200L);
+            assertThat(result.getCloseTimeoutMillis()).isEqualTo(300L);
+            assertThat(result.getQueuedMaxSpans()).isEqualTo(400);
+            assertThat(result.getQueuedMaxBytes()).isEqualTo(500_000);
+            assertThat(result.getNumSenderThreads()).isEqualTo(2);
+        }
+        else {
+            assertThat(result.getEncoding()).isEqualTo(Encoding.JSON);
+            assertThat(result.getCompressionEnabled()).isNull();
+            assertThat(result.getMessageMaxBytes()).isNull();
+            assertThat(result.getMessageTimeoutMillis()).isNull();
+            assertThat(result.getCloseTimeoutMillis()).isNull();
+            assertThat(result.getQueuedMaxSpans()).isNull();
+            assertThat(result.getQueuedMaxBytes()).isNull();
+            assertThat(result.getNumSenderThreads()).isEqualTo(1);
+        }
+    }
+
 }
@@ -81,7 +81,7 @@ public class WingtipsWithZipkinSpringBoot2WebfluxConfiguration {
         if (wingtipsZipkinProperties.shouldApplyWingtipsToZipkinLifecycleListener()) {
             Reporter<zipkin2.Span> zipkinSpanReporter = (zipkinReporterOverride != null)
                 ? zipkinReporterOverride
-                : WingtipsToZipkinLifecycleListener.generateBasicZipkinReporter(wingtipsZipkinProperties.getBaseUrl());
+                : wingtipsZipkinProperties.generateZipkinReporterFactory().createReporter();
 
             WingtipsToZipkinSpanConverter zipkinSpanConverter = (zipkinSpanConverterOverride != null)
                 ? zipkinSpanConverterOverride
@@ -1,9 +1,12 @@
 package com.nike.wingtips.springboot2.webflux.zipkin2;
 
 import com.nike.wingtips.zipkin2.WingtipsToZipkinLifecycleListener;
+import com.nike.wingtips.zipkin2.ZipkinReporterFactory;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import zipkin2.codec.Encoding;
+
 /**
  * A {@link ConfigurationProperties} companion for {@link WingtipsWithZipkinSpringBoot2WebfluxConfiguration} that
  * allows you to specify the configuration of {@link WingtipsToZipkinLifecycleListener} via your Spring Boot
@@ -30,11 +33,34 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  *     </li>
  * </ul>
  *
+ * <p>The following optional properties tune the Zipkin reporter that batches up and sends spans (see {@link
+ * ZipkinReporterFactory} for details). Any that are left out use the Zipkin defaults, and they are ignored if you
+ * provide your own {@link zipkin2.reporter.Reporter} bean:
+ * <ul>
+ *     <li>wingtips.zipkin.encoding - {@code JSON} (the default) or {@code PROTO3}.</li>
+ *     <li>wingtips.zipkin.compression-enabled - Whether to gzip the requests sent to Zipkin (default true).</li>
+ *     <li>wingtips.zipkin.message-max-bytes - The maximum size of a single request sent to Zipkin.</li>
+ *     <li>
+ *         wingtips.zipkin.message-timeout-millis - The maximum time a span waits before being sent, i.e. the flush
+ *         interval.
+ *     </li>
+ *     <li>wingtips.zipkin.close-timeout-millis - How long closing the reporter waits for queued spans to be sent.</li>
+ *     <li>wingtips.zipkin.queued-max-spans - The maximum number of spans waiting to be sent before spans are dropped.</li>
+ *     <li>
+ *         wingtips.zipkin.queued-max-bytes - The maximum total size of spans waiting to be sent before spans are
+ *         dropped.
+ *     </li>
+ *     <li>wingtips.zipkin.sender-threads - The number of threads to queue and send spans on (default 1).</li>
+ * </ul>
+ *
  * <p>For example you could set the following properties in your {@code application.properties}:
  * <pre>
  *     wingtips.zipkin.zipkin-disabled=false
  *     wingtips.zipkin.base-url=http://localhost:9411
  *     wingtips.zipkin.service-name=some-service-name
+ *     wingtips.zipkin.encoding=PROTO3
+ *     wingtips.zipkin.queued-max-spans=100000
+ *     wingtips.zipkin.sender-threads=2
  * </pre>
  *
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
@@ -45,11 +71,36 @@ public class WingtipsZipkinProperties {
     // TODO: Look for a non-empty `spring.application.name` property value before defaulting to `unknown`. See https://github.com/Nike-Inc/wingtips/pull/70#pullrequestreview-136998397
     private String serviceName = "unknown";
     private String baseUrl;
+    private Encoding encoding;
+    private Boolean compressionEnabled;
+    private Integer messageMaxBytes;
+    private Long messageTimeoutMillis;
+    private Long closeTimeoutMillis;
+    private Integer queuedMaxSpans;
+    private Integer queuedMaxBytes;
+    private Integer senderThreads;
 
     public boolean shouldApplyWingtipsToZipkinLifecycleListener() {
         return (!zipkinDisabled && serviceName != null && baseUrl != null);
     }
 
+    /**
+     * @return A {@link ZipkinReporterFactory} for the {@link #getBaseUrl()} Zipkin server using the reporter tuning
+     * properties from this instance.
+     */
+    public ZipkinReporterFactory generateZipkinReporterFactory() {
+        return ZipkinReporterFactory.newBuilder(baseUrl)
+                                    .withEncoding(encoding)
+                                    .withCompressionEnabled(compressionEnabled)
+                                    .withMessageMaxBytes(messageMaxBytes)
+                                    .withMessageTimeoutMillis(messageTimeoutMillis)
+                                    .withCloseTimeoutMillis(closeTimeoutMillis)
+                                    .withQueuedMaxSpans(queuedMaxSpans)
+                                    .withQueuedMaxBytes(queuedMaxBytes)
+                                    .withNumSenderThreads(senderThreads)
+                                    .build();
+    }
+
     public boolean isZipkinDisabled() {
         return zipkinDisabled;
     }
@@ -73,4 +124,68 @@ public class WingtipsZipkinProperties {
     public void setBaseUrl(String baseUrl) {
         this.baseUrl = baseUrl;
     }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(Encoding encoding) {
+        this.encoding = encoding;
+    }
+
+    public Boolean getCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public void setCompressionEnabled(Boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    public Integer getMessageMaxBytes() {
+        return messageMaxBytes;
+    }
+
+    public void setMessageMaxBytes(Integer messageMaxBytes) {
+        this.messageMaxBytes = messageMaxBytes;
+    }
+
+    public Long getMessageTimeoutMillis() {
+        return messageTimeoutMillis;
+    }
+
+    public void setMessageTimeoutMillis(Long messageTimeoutMillis) {
+        this.messageTimeoutMillis = messageTimeoutMillis;
+    }
+
+    public Long getCloseTimeoutMillis() {
+        return closeTimeoutMillis;
+    }
+
+    public void setCloseTimeoutMillis(Long closeTimeoutMillis) {
+        this.closeTimeoutMillis = closeTimeoutMillis;
+    }
+
+    public Integer getQueuedMaxSpans() {
+        return queuedMaxSpans;
+    }
+
+    public void setQueuedMaxSpans(Integer queuedMaxSpans) {
+        this.queuedMaxSpans = queuedMaxSpans;
+    }
+
+    public Integer getQueuedMaxBytes() {
+        return queuedMaxBytes;
+    }
+
+    public void setQueuedMaxBytes(Integer queuedMaxBytes) {
+        this.queuedMaxBytes = queuedMaxBytes;
+    }
+
+    public Integer getSenderThreads() {
+        return senderThreads;
+    }
+
+    public void setSenderThreads(Integer senderThreads) {
+        this.senderThreads = senderThreads;
+    }
 }
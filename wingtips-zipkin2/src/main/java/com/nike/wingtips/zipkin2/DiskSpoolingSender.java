@@ -0,0 +1,507 @@
+package com.nike.wingtips.zipkin2;
+
+import com.nike.wingtips.zipkin2.util.MappedFileSpanSpool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import zipkin2.Call;
+import zipkin2.Callback;
+import zipkin2.CheckResult;
+import zipkin2.codec.Encoding;
+import zipkin2.reporter.AsyncReporter;
+import zipkin2.reporter.Sender;
+
+/**
+ * A Zipkin {@link Sender} decorator that protects spans from collector outages by spooling them to disk. While the
+ * delegate sender is healthy, messages pass straight through to it. When a send fails, the spans in that message are
+ * appended to a {@link MappedFileSpanSpool} instead of being lost, and the call still succeeds from the {@link
+ * AsyncReporter}'s point of view, so the reporter keeps draining its in-memory queue rather than filling up and
+ * dropping spans. Until the delegate recovers, new messages go straight to the spool without waiting on the failing
+ * collector.
+ *
+ * <p>A background daemon thread replays the spool to the delegate every replay interval, oldest spans first, in
+ * messages no bigger than the delegate allows. The first successful replay marks the delegate healthy again. Since
+ * the spool is bounded on disk (evicting its oldest segment when full) and lives outside the heap, a long outage
+ * costs some disk space rather than memory or an unbounded backlog. Spans still in the spool when the application
+ * shuts down are replayed by the next {@link DiskSpoolingSender} that uses the same spool directory.
+ *
+ * <p>Not every failed send is an outage - the collector might be up but reject a particular message (e.g. an HTTP 400
+ * or 413 response). Retrying such a message would block the spool forever, so when a replayed message fails while
+ * {@link #isRejectedByCollector(Throwable)} says the collector itself is fine, it's retried at most {@link
+ * Builder#withMaxReplayAttemptsPerRejectedMessage(int)} times and then dropped (see {@link #getDroppedSpanCount()}),
+ * and replay carries on with the spans behind it.
+ *
+ * <p>Wrap whatever {@link Sender} you use and hand the result to an {@link AsyncReporter}, for example:
+ * <pre>
+ *  Sender spoolingSender = DiskSpoolingSender.newBuilder(URLConnectionSender.create(zipkinUrl), spoolDirectory)
+ *                                            .withMaxSpoolSizeBytes(512L * 1024 * 1024)
+ *                                            .build();
+ *  Reporter&lt;zipkin2.Span> reporter = AsyncReporter.create(spoolingSender);
+ * </pre>
+ */
+@SuppressWarnings("WeakerAccess")
+public class DiskSpoolingSender extends Sender {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskSpoolingSender.class);
+
+    public static final int DEFAULT_SEGMENT_SIZE_BYTES = 8 * 1024 * 1024;
+    public static final long DEFAULT_MAX_SPOOL_SIZE_BYTES = 256L * 1024 * 1024;
+    public static final long DEFAULT_REPLAY_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    public static final int DEFAULT_MAX_SPANS_PER_REPLAY_MESSAGE = 1000;
+    public static final int DEFAULT_MAX_REPLAY_ATTEMPTS_PER_REJECTED_MESSAGE = 3;
+
+    private static final AtomicInteger replayThreadCounter = new AtomicInteger(0);
+
+    protected final Sender delegate;
+    protected final MappedFileSpanSpool spool;
+    protected final long replayIntervalMillis;
+    protected final int maxSpansPerReplayMessage;
+    protected final int maxReplayAttemptsPerRejectedMessage;
+    protected final Thread replayThread;
+
+    protected volatile boolean running = true;
+    protected volatile boolean delegateHealthy = true;
+    // The spooled batch the collector last rejected, and how many times in a row it has been rejected. Only used by
+    //      replaySpooledSpans(), which is guarded by replayLock.
+    protected MappedFileSpanSpool.Batch rejectedBatch;
+    protected int rejectedBatchAttempts = 0;
+    protected final Object replayLock = new Object();
+
+    protected final AtomicLong spooledSpanCount = new AtomicLong(0);
+    protected final AtomicLong replayedSpanCount = new AtomicLong(0);
+    protected final AtomicLong droppedSpanCount = new AtomicLong(0);
+
+    protected DiskSpoolingSender(Builder builder) throws IOException {
+        if (builder.delegate == null) {
+            throw new IllegalArgumentException("delegate cannot be null");
+        }
+        if (builder.spool == null && builder.spoolDirectory == null) {
+            throw new IllegalArgumentException("spoolDirectory cannot be null");
+        }
+        if (builder.replayIntervalMillis < 1) {
+            throw new IllegalArgumentException(
+                "replayIntervalMillis must be at least 1. Received: " + builder.replayIntervalMillis
+            );
+        }
+        if (builder.maxSpansPerReplayMessage < 1) {
+            throw new IllegalArgumentException(
+                "maxSpansPerReplayMessage must be at least 1. Received: " + builder.maxSpansPerReplayMessage
+            );
+        }
+        if (builder.maxReplayAttemptsPerRejectedMessage < 1) {
+            throw new IllegalArgumentException(
+                "maxReplayAttemptsPerRejectedMessage must be at least 1. Received: "
+                + builder.maxReplayAttemptsPerRejectedMessage
+            );
+        }
+
+        this.delegate = builder.delegate;
+        this.spool = (builder.spool != null)
+                     ? builder.spool
+                     : new MappedFileSpanSpool(
+                         builder.spoolDirectory, builder.segmentSizeBytes, builder.maxSpoolSizeBytes
+                     );
+        this.replayIntervalMillis = builder.replayIntervalMillis;
+        this.maxSpansPerReplayMessage = builder.maxSpansPerReplayMessage;
+        this.maxReplayAttemptsPerRejectedMessage = builder.maxReplayAttemptsPerRejectedMessage;
+
+        this.replayThread = new Thread(
+            new Runnable() {
+                @Override
+                public void run() {
+                    runReplayLoop();
+                }
+            },
+            "wingtips-zipkin-spool-replay-" + replayThreadCounter.incrementAndGet()
+        );
+        this.replayThread.setDaemon(true);
+        this.replayThread.start();
+    }
+
+    /**
+     * @param delegate The sender to send spans with when the collector is available. Cannot be null.
+     * @param spoolDirectory The directory to spool spans to when the delegate can't send them. Cannot be null.
+     * @return A new {@link Builder}.
+     */
+    public static Builder newBuilder(Sender delegate, File spoolDirectory) {
+        return new Builder(delegate, spoolDirectory, null);
+    }
+
+    /**
+     * @param delegate The sender to send spans with when the collector is available. Cannot be null.
+     * @param spool The spool to use when the delegate can't send spans. Cannot be null. The segment size and max
+     * spool size builder options are ignored since the spool has already been created.
+     * @return A new {@link Builder}.
+     */
+    public static Builder newBuilder(Sender delegate, MappedFileSpanSpool spool) {
+        if (spool == null) {
+            throw new IllegalArgumentException("spool cannot be null");
+        }
+        return new Builder(delegate, null, spool);
+    }
+
+    @Override
+    public Encoding encoding() {
+        return delegate.encoding();
+    }
+
+    @Override
+    public int messageMaxBytes() {
+        return delegate.messageMaxBytes();
+    }
+
+    @Override
+    public int messageSizeInBytes(List<byte[]> encodedSpans) {
+        return delegate.messageSizeInBytes(encodedSpans);
+    }
+
+    @Override
+    public int messageSizeInBytes(int encodedSizeInBytes) {
+        return delegate.messageSizeInBytes(encodedSizeInBytes);
+    }
+
+    @Override
+    public Call<Void> sendSpans(List<byte[]> encodedSpans) {
+        return new SendOrSpoolCall(encodedSpans);
+    }
+
+    /**
+     * Sends the given spans with the delegate if it's healthy, and spools them if it isn't (or if the send fails).
+     */
+    protected void sendOrSpool(List<byte[]> encodedSpans) {
+        if (delegateHealthy) {
+            try {
+                delegate.sendSpans(encodedSpans).execute();
+                return;
+            }
+            catch (Throwable ex) {
+                Call.propagateIfFatal(ex);
+                markDelegateUnhealthy(ex);
+            }
+        }
+
+        for (byte[] encodedSpan : encodedSpans) {
+            if (spool.append(encodedSpan)) {
+                spooledSpanCount.incrementAndGet();
+            }
+        }
+    }
+
+    protected void markDelegateUnhealthy(Throwable ex) {
+        if (delegateHealthy) {
+            delegateHealthy = false;
+            logger.warn(
+                "Unable to send spans to Zipkin - spooling spans to disk until the collector recovers. spool_dir={}",
+                spool.getDirectory().getAbsolutePath(), ex
+            );
+        }
+    }
+
+    protected void runReplayLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(replayIntervalMillis));
+            if (!running) {
+                return;
+            }
+            try {
+                replaySpooledSpans();
+            }
+            catch (Throwable ex) {
+                // Never let the replay thread die - just try again next interval.
+                logger.warn("Unexpected error while replaying spooled spans to Zipkin.", ex);
+            }
+        }
+    }
+
+    /**
+     * Sends spooled spans to the delegate, oldest first, until the spool is empty or a send fails. A message the
+     * collector keeps rejecting is dropped once it has been tried {@link #maxReplayAttemptsPerRejectedMessage} times,
+     * and replay continues with the spans after it. Called periodically by the background replay thread - you don't
+     * normally need to call this yourself.
+     *
+     * @return The number of spans successfully replayed.
+     */
+    public int replaySpooledSpans() {
+        synchronized (replayLock) {
+            return doReplaySpooledSpans();
+        }
+    }
+
+    protected int doReplaySpooledSpans() {
+        int numReplayed = 0;
+        int messageMaxBytes = delegate.messageMaxBytes();
+
+        while (running) {
+            MappedFileSpanSpool.Batch batch = spool.peekBatch(maxSpansPerReplayMessage, messageMaxBytes);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            List<byte[]> message = new ArrayList<>(batch.getEncodedSpans());
+            // The raw span sizes don't include the message framing, so trim until the message fits.
+            while (message.size() > 1 && delegate.messageSizeInBytes(message) > messageMaxBytes) {
+                message.remove(message.size() - 1);
+            }
+
+            try {
+                delegate.sendSpans(message).execute();
+            }
+            catch (Throwable ex) {
+                Call.propagateIfFatal(ex);
+                if (isRejectedByCollector(ex) && dropIfRejectedTooOften(batch, message.size(), ex)) {
+                    continue;
+                }
+                markDelegateUnhealthy(ex);
+                break;
+            }
+
+            rejectedBatch = null;
+            rejectedBatchAttempts = 0;
+            spool.remove(batch, message.size());
+            numReplayed += message.size();
+            replayedSpanCount.addAndGet(message.size());
+            if (!delegateHealthy) {
+                delegateHealthy = true;
+                logger.info("Zipkin collector has recovered - replaying spooled spans from disk.");
+            }
+        }
+
+        return numReplayed;
+    }
+
+    /**
+     * Decides whether a failed send means the collector rejected that particular message (so retrying it will never
+     * work), as opposed to the collector being unavailable. The default implementation treats the failure as a
+     * rejection if the delegate's {@link Sender#check()} still passes. Override this if your sender's exceptions
+     * identify permanent failures directly, e.g. by HTTP status code.
+     *
+     * @param ex The exception the delegate threw when sending a replayed message.
+     * @return true if the collector is reachable and rejected the message.
+     */
+    protected boolean isRejectedByCollector(Throwable ex) {
+        try {
+            return delegate.check().ok();
+        }
+        catch (Throwable checkEx) {
+            Call.propagateIfFatal(checkEx);
+            return false;
+        }
+    }
+
+    /**
+     * Counts a rejection of the given batch's first {@code messageSize} spans, and removes them from the spool if
+     * they've now been rejected {@link #maxReplayAttemptsPerRejectedMessage} times in a row.
+     *
+     * @return true if the spans were dropped.
+     */
+    protected boolean dropIfRejectedTooOften(MappedFileSpanSpool.Batch batch, int messageSize, Throwable ex) {
+        if (rejectedBatch != null && rejectedBatch.hasSameOldestSpanAs(batch)) {
+            rejectedBatchAttempts++;
+        }
+        else {
+            rejectedBatch = batch;
+            rejectedBatchAttempts = 1;
+        }
+
+        if (rejectedBatchAttempts < maxReplayAttemptsPerRejectedMessage) {
+            return false;
+        }
+
+        rejectedBatch = null;
+        rejectedBatchAttempts = 0;
+        spool.remove(batch, messageSize);
+        droppedSpanCount.addAndGet(messageSize);
+        logger.warn(
+            "Zipkin collector rejected the same spooled spans {} times in a row - dropping them. dropped_span_count={}",
+            maxReplayAttemptsPerRejectedMessage, messageSize, ex
+        );
+        return true;
+    }
+
+    @Override
+    public CheckResult check() {
+        return delegate.check();
+    }
+
+    /**
+     * Stops the replay thread, closes the spool (leaving any spans that haven't been replayed yet in the spool
+     * directory for next time), and closes the delegate sender.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(replayThread);
+        if (Thread.currentThread() != replayThread) {
+            try {
+                replayThread.join(TimeUnit.SECONDS.toMillis(5));
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        spool.close();
+        delegate.close();
+    }
+
+    /**
+     * @return true if the last attempt to send spans with the delegate succeeded.
+     */
+    public boolean isDelegateHealthy() {
+        return delegateHealthy;
+    }
+
+    /**
+     * @return The spool used to hold spans while the delegate is unavailable.
+     */
+    public MappedFileSpanSpool getSpool() {
+        return spool;
+    }
+
+    /**
+     * @return The total number of spans written to the spool.
+     */
+    public long getSpooledSpanCount() {
+        return spooledSpanCount.get();
+    }
+
+    /**
+     * @return The total number of spooled spans that have been successfully replayed to the delegate.
+     */
+    public long getReplayedSpanCount() {
+        return replayedSpanCount.get();
+    }
+
+    /**
+     * @return The total number of spooled spans that were dropped because the collector kept rejecting them.
+     */
+    public long getDroppedSpanCount() {
+        return droppedSpanCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DiskSpoolingSender{" + delegate + "}";
+    }
+
+    protected class SendOrSpoolCall extends Call.Base<Void> {
+        protected final List<byte[]> encodedSpans;
+
+        protected SendOrSpoolCall(List<byte[]> encodedSpans) {
+            this.encodedSpans = encodedSpans;
+        }
+
+        @Override
+        protected Void doExecute() {
+            sendOrSpool(encodedSpans);
+            return null;
+        }
+
+        @Override
+        protected void doEnqueue(Callback<Void> callback) {
+            try {
+                sendOrSpool(encodedSpans);
+                callback.onSuccess(null);
+            }
+            catch (Throwable ex) {
+                Call.propagateIfFatal(ex);
+                callback.onError(ex);
+            }
+        }
+
+        @Override
+        public Call<Void> clone() {
+            return new SendOrSpoolCall(encodedSpans);
+        }
+    }
+
+    /**
+     * Builder for {@link DiskSpoolingSender}.
+     */
+    public static final class Builder {
+
+        private final Sender delegate;
+        private final File spoolDirectory;
+        private final MappedFileSpanSpool spool;
+        private int segmentSizeBytes = DEFAULT_SEGMENT_SIZE_BYTES;
+        private long maxSpoolSizeBytes = DEFAULT_MAX_SPOOL_SIZE_BYTES;
+        private long replayIntervalMillis = DEFAULT_REPLAY_INTERVAL_MILLIS;
+        private int maxSpansPerReplayMessage = DEFAULT_MAX_SPANS_PER_REPLAY_MESSAGE;
+        private int maxReplayAttemptsPerRejectedMessage = DEFAULT_MAX_REPLAY_ATTEMPTS_PER_REJECTED_MESSAGE;
+
+        private Builder(Sender delegate, File spoolDirectory, MappedFileSpanSpool spool) {
+            this.delegate = delegate;
+            this.spoolDirectory = spoolDirectory;
+            this.spool = spool;
+        }
+
+        /**
+         * @param segmentSizeBytes The size of each spool segment file. Defaults to {@link
+         * #DEFAULT_SEGMENT_SIZE_BYTES}.
+         * @return This builder.
+         */
+        public Builder withSegmentSizeBytes(int segmentSizeBytes) {
+            this.segmentSizeBytes = segmentSizeBytes;
+            return this;
+        }
+
+        /**
+         * @param maxSpoolSizeBytes The maximum disk space the spool can use. Defaults to {@link
+         * #DEFAULT_MAX_SPOOL_SIZE_BYTES}. The oldest spooled spans are dropped to stay within this limit.
+         * @return This builder.
+         */
+        public Builder withMaxSpoolSizeBytes(long maxSpoolSizeBytes) {
+            this.maxSpoolSizeBytes = maxSpoolSizeBytes;
+            return this;
+        }
+
+        /**
+         * @param replayIntervalMillis How often the background thread tries to replay spooled spans. Defaults to
+         * {@link #DEFAULT_REPLAY_INTERVAL_MILLIS}.
+         * @return This builder.
+         */
+        public Builder withReplayIntervalMillis(long replayIntervalMillis) {
+            this.replayIntervalMillis = replayIntervalMillis;
+            return this;
+        }
+
+        /**
+         * @param maxSpansPerReplayMessage The maximum number of spooled spans to send in one message when replaying.
+         * Defaults to {@link #DEFAULT_MAX_SPANS_PER_REPLAY_MESSAGE}.
+         * @return This builder.
+         */
+        public Builder withMaxSpansPerReplayMessage(int maxSpansPerReplayMessage) {
+            this.maxSpansPerReplayMessage = maxSpansPerReplayMessage;
+            return this;
+        }
+
+        /**
+         * @param maxReplayAttemptsPerRejectedMessage How many times in a row a replayed message can be rejected by a
+         * reachable collector before it's dropped. Failures while the collector is unavailable don't count. Defaults
+         * to {@link #DEFAULT_MAX_REPLAY_ATTEMPTS_PER_REJECTED_MESSAGE}.
+         * @return This builder.
+         */
+        public Builder withMaxReplayAttemptsPerRejectedMessage(int maxReplayAttemptsPerRejectedMessage) {
+            this.maxReplayAttemptsPerRejectedMessage = maxReplayAttemptsPerRejectedMessage;
+            return this;
+        }
+
+        /**
+         * @return A new {@link DiskSpoolingSender} with this builder's settings. Any spans left in the spool
+         * directory by a previous sender will be replayed.
+         * @throws IOException If the spool directory or its segment files can't be created or read.
+         */
+        public DiskSpoolingSender build() throws IOException {
+            return new DiskSpoolingSender(this);
+        }
+    }
+}
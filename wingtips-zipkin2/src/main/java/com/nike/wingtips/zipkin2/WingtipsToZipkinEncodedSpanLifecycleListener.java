@@ -0,0 +1,147 @@
+package com.nike.wingtips.zipkin2;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.lifecyclelistener.BatchSpanLifecycleListener;
+import com.nike.wingtips.zipkin2.util.PreEncodedSpanBytesEncoder;
+import com.nike.wingtips.zipkin2.util.WingtipsToZipkinSpanEncoder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import zipkin2.Endpoint;
+import zipkin2.reporter.AsyncReporter;
+import zipkin2.reporter.Reporter;
+import zipkin2.reporter.Sender;
+
+/**
+ * An alternative to {@link WingtipsToZipkinLifecycleListener} that encodes Wingtips {@link Span}s straight to Zipkin
+ * JSON or PROTO3 bytes with a {@link WingtipsToZipkinSpanEncoder}, skipping the intermediate {@link zipkin2.Span}
+ * object, and hands the bytes to a {@code Reporter<byte[]>} for queueing, batching, and sending. The simplest way to
+ * use it is the {@link #WingtipsToZipkinEncodedSpanLifecycleListener(String, Sender)} constructor, which creates an
+ * {@link AsyncReporter} for pre-encoded spans (see {@link #generatePreEncodedZipkinReporter(Sender)}) that sends
+ * them through whatever Zipkin {@link Sender} you pass in, using the sender's encoding.
+ *
+ * <p>What gets sent to Zipkin is identical to what {@link WingtipsToZipkinLifecycleListener} would send when using
+ * the default {@link com.nike.wingtips.zipkin2.util.WingtipsToZipkinSpanConverterDefaultImpl} converter. If you need a
+ * custom {@link com.nike.wingtips.zipkin2.util.WingtipsToZipkinSpanConverter} you'll need to stick with {@link
+ * WingtipsToZipkinLifecycleListener}.
+ */
+@SuppressWarnings("WeakerAccess")
+public class WingtipsToZipkinEncodedSpanLifecycleListener implements BatchSpanLifecycleListener {
+
+    private final Logger zipkinConversionOrReportingErrorLogger = LoggerFactory.getLogger("ZIPKIN_SPAN_CONVERSION_OR_HANDLING_ERROR");
+
+    protected final WingtipsToZipkinSpanEncoder zipkinSpanEncoder;
+    protected final Reporter<byte[]> encodedSpanReporter;
+
+    protected final AtomicLong spanHandlingErrorCounter = new AtomicLong(0);
+    protected long lastSpanHandlingErrorLogTimeEpochMillis = 0;
+    protected static final long MIN_SPAN_HANDLING_ERROR_LOG_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    /**
+     * Kitchen-sink constructor.
+     *
+     * @param zipkinSpanEncoder The encoder to use - its encoding must match the encoding expected by the reporter.
+     * Cannot be null.
+     * @param encodedSpanReporter The reporter that will receive the encoded spans. Cannot be null.
+     */
+    public WingtipsToZipkinEncodedSpanLifecycleListener(
+        WingtipsToZipkinSpanEncoder zipkinSpanEncoder, Reporter<byte[]> encodedSpanReporter
+    ) {
+        if (zipkinSpanEncoder == null) {
+            throw new IllegalArgumentException("zipkinSpanEncoder cannot be null");
+        }
+        if (encodedSpanReporter == null) {
+            throw new IllegalArgumentException("encodedSpanReporter cannot be null");
+        }
+        this.zipkinSpanEncoder = zipkinSpanEncoder;
+        this.encodedSpanReporter = encodedSpanReporter;
+    }
+
+    /**
+     * Convenience constructor that encodes spans using the given sender's encoding and reports them through a new
+     * {@link AsyncReporter} wrapping the given sender.
+     *
+     * @param serviceName The name of this service. This is used to build the Zipkin {@link Endpoint} that tells
+     * Zipkin which service generated the spans.
+     * @param zipkinSpanSender The Zipkin {@link Sender} to send spans with. Its encoding must be JSON or PROTO3.
+     */
+    public WingtipsToZipkinEncodedSpanLifecycleListener(String serviceName, Sender zipkinSpanSender) {
+        this(
+            new WingtipsToZipkinSpanEncoder(
+                zipkinSpanSender.encoding(), Endpoint.newBuilder().serviceName(serviceName).build()
+            ),
+            generatePreEncodedZipkinReporter(zipkinSpanSender)
+        );
+    }
+
+    /**
+     * @param zipkinSpanSender The Zipkin {@link Sender} to send spans with. Its encoding must be JSON or PROTO3.
+     * @return A new {@link AsyncReporter} with default settings that accepts spans that have already been encoded
+     * with the sender's encoding.
+     */
+    public static AsyncReporter<byte[]> generatePreEncodedZipkinReporter(Sender zipkinSpanSender) {
+        return AsyncReporter.builder(zipkinSpanSender)
+                            .build(PreEncodedSpanBytesEncoder.forEncoding(zipkinSpanSender.encoding()));
+    }
+
+    @Override
+    public void spanStarted(Span span) {
+        // Do nothing
+    }
+
+    @Override
+    public void spanSampled(Span span) {
+        // Do nothing
+    }
+
+    protected boolean shouldReportCompletedSpan(Span span) {
+        // We only want to send the span if it was sampled.
+        return span.isSampleable();
+    }
+
+    @Override
+    public void spanCompleted(Span span) {
+        if (!shouldReportCompletedSpan(span)) {
+            return;
+        }
+
+        try {
+            encodedSpanReporter.report(zipkinSpanEncoder.encode(span));
+        }
+        catch(Throwable ex) {
+            handleSpanEncodingOrReportingError(span, ex);
+        }
+    }
+
+    @Override
+    public void spansCompleted(List<Span> spans) {
+        for (Span span : spans) {
+            spanCompleted(span);
+        }
+    }
+
+    protected void handleSpanEncodingOrReportingError(Span span, Throwable ex) {
+        long currentBadSpanCount = spanHandlingErrorCounter.incrementAndGet();
+
+        // Only log once every MIN_SPAN_HANDLING_ERROR_LOG_INTERVAL_MILLIS time interval to prevent log spam from a malicious (or broken) caller.
+        long currentTimeMillis = System.currentTimeMillis();
+        long timeSinceLastLogMsgMillis = currentTimeMillis - lastSpanHandlingErrorLogTimeEpochMillis;
+        if (timeSinceLastLogMsgMillis >= MIN_SPAN_HANDLING_ERROR_LOG_INTERVAL_MILLIS) {
+            // We're not synchronizing the read and write to lastSpanHandlingErrorLogTimeEpochMillis, and that's ok. If we get a few extra
+            //      log messages due to a race condition it's not the end of the world - we're still satisfying the goal of not allowing a
+            //      malicious caller to endlessly spam the logs.
+            lastSpanHandlingErrorLogTimeEpochMillis = currentTimeMillis;
+
+            String exAsString = ex.toString();
+            zipkinConversionOrReportingErrorLogger.warn(
+                "There have been {} spans that were not Zipkin compatible, or that experienced an error during span handling. Latest example: "
+                + "wingtips_span_with_error=\"{}\", conversion_or_handling_error=\"{}\"",
+                currentBadSpanCount, span.toKeyValueString(), exAsString, ex);
+        }
+    }
+}
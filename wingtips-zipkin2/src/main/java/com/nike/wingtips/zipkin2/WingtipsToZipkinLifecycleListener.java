@@ -1,6 +1,7 @@
 package com.nike.wingtips.zipkin2;
 
 import com.nike.wingtips.Span;
+import com.nike.wingtips.lifecyclelistener.BatchSpanLifecycleListener;
 import com.nike.wingtips.lifecyclelistener.SpanLifecycleListener;
 import com.nike.wingtips.zipkin2.util.WingtipsToZipkinSpanConverter;
 import com.nike.wingtips.zipkin2.util.WingtipsToZipkinSpanConverterDefaultImpl;
@@ -8,6 +9,7 @@ import com.nike.wingtips.zipkin2.util.WingtipsToZipkinSpanConverterDefaultImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -70,7 +72,7 @@ import zipkin2.reporter.urlconnection.URLConnectionSender;
  * @author Nic Munroe
  */
 @SuppressWarnings("WeakerAccess")
-public class WingtipsToZipkinLifecycleListener implements SpanLifecycleListener {
+public class WingtipsToZipkinLifecycleListener implements BatchSpanLifecycleListener {
 
     private final Logger zipkinConversionOrReportingErrorLogger = LoggerFactory.getLogger("ZIPKIN_SPAN_CONVERSION_OR_HANDLING_ERROR");
 
@@ -132,14 +134,11 @@ public class WingtipsToZipkinLifecycleListener implements SpanLifecycleListener
      * @param postZipkinSpansBaseUrl The Zipkin base URL. This is everything except the endpoint path, i.e.
      * {@code http://foo.bar:9411}.
      * @return A new {@link AsyncReporter} that uses a basic {@link URLConnectionSender} for sending spans via HTTP to
-     * the standard Zipkin {@code POST /api/v2/spans} endpoint.
+     * the standard Zipkin {@code POST /api/v2/spans} endpoint. Use {@link ZipkinReporterFactory} if you need to tune
+     * the reporter (queue sizes, encoding, compression, sender threads, etc).
      */
     public static Reporter<zipkin2.Span> generateBasicZipkinReporter(String postZipkinSpansBaseUrl) {
-        return AsyncReporter.create(
-            URLConnectionSender.create(
-                postZipkinSpansBaseUrl + (postZipkinSpansBaseUrl.endsWith("/") ? "" : "/") + "api/v2/spans"
-            )
-        );
+        return ZipkinReporterFactory.newBuilder(postZipkinSpansBaseUrl).build().createReporter();
     }
 
     @Override
@@ -168,23 +167,71 @@ public class WingtipsToZipkinLifecycleListener implements SpanLifecycleListener
             zipkinSpanReporter.report(zipkinSpan);
         }
         catch(Throwable ex) {
-            long currentBadSpanCount = spanHandlingErrorCounter.incrementAndGet();
-
-            // Only log once every MIN_SPAN_HANDLING_ERROR_LOG_INTERVAL_MILLIS time interval to prevent log spam from a malicious (or broken) caller.
-            long currentTimeMillis = System.currentTimeMillis();
-            long timeSinceLastLogMsgMillis = currentTimeMillis - lastSpanHandlingErrorLogTimeEpochMillis;
-            if (timeSinceLastLogMsgMillis >= MIN_SPAN_HANDLING_ERROR_LOG_INTERVAL_MILLIS) {
-                // We're not synchronizing the read and write to lastSpanHandlingErrorLogTimeEpochMillis, and that's ok. If we get a few extra
-                //      log messages due to a race condition it's not the end of the world - we're still satisfying the goal of not allowing a
-                //      malicious caller to endlessly spam the logs.
-                lastSpanHandlingErrorLogTimeEpochMillis = currentTimeMillis;
-
-                String exAsString = ex.toString();
-                zipkinConversionOrReportingErrorLogger.warn(
-                    "There have been {} spans that were not Zipkin compatible, or that experienced an error during span handling. Latest example: "
-                    + "wingtips_span_with_error=\"{}\", conversion_or_handling_error=\"{}\"",
-                    currentBadSpanCount, span.toKeyValueString(), exAsString, ex);
+            handleSpanConversionOrReportingError(span, ex);
+        }
+    }
+
+    /**
+     * Converts and reports the given batch of spans in one pass. The end result is the same as calling {@link
+     * #spanCompleted(Span)} for each span, but when the {@link #zipkinSpanConverter} is a plain {@link
+     * WingtipsToZipkinSpanConverterDefaultImpl} a single {@link zipkin2.Span.Builder} is reused for the whole batch
+     * rather than allocating a new one per span. This is called by {@link
+     * com.nike.wingtips.lifecyclelistener.AsyncSpanLifecycleListener} when it's wrapping this listener.
+     */
+    @Override
+    public void spansCompleted(List<Span> spans) {
+        WingtipsToZipkinSpanConverterDefaultImpl defaultImplConverter =
+            // Subclasses may have overridden the single-span conversion method, so only take the builder-reuse path
+            //      for the default impl itself.
+            (zipkinSpanConverter != null
+             && zipkinSpanConverter.getClass() == WingtipsToZipkinSpanConverterDefaultImpl.class)
+            ? (WingtipsToZipkinSpanConverterDefaultImpl) zipkinSpanConverter
+            : null;
+        zipkin2.Span.Builder reusableSpanBuilder = null;
+
+        for (Span span : spans) {
+            if (!shouldReportCompletedSpan(span)) {
+                continue;
             }
+
+            try {
+                zipkin2.Span zipkinSpan;
+                if (defaultImplConverter == null) {
+                    zipkinSpan = zipkinSpanConverter.convertWingtipsSpanToZipkinSpan(span, zipkinEndpoint);
+                }
+                else {
+                    if (reusableSpanBuilder == null) {
+                        reusableSpanBuilder = zipkin2.Span.newBuilder();
+                    }
+                    zipkinSpan = defaultImplConverter.convertWingtipsSpanToZipkinSpan(
+                        span, zipkinEndpoint, reusableSpanBuilder
+                    );
+                }
+                zipkinSpanReporter.report(zipkinSpan);
+            }
+            catch(Throwable ex) {
+                handleSpanConversionOrReportingError(span, ex);
+            }
+        }
+    }
+
+    protected void handleSpanConversionOrReportingError(Span span, Throwable ex) {
+        long currentBadSpanCount = spanHandlingErrorCounter.incrementAndGet();
+
+        // Only log once every MIN_SPAN_HANDLING_ERROR_LOG_INTERVAL_MILLIS time interval to prevent log spam from a malicious (or broken) caller.
+        long currentTimeMillis = System.currentTimeMillis();
+        long timeSinceLastLogMsgMillis = currentTimeMillis - lastSpanHandlingErrorLogTimeEpochMillis;
+        if (timeSinceLastLogMsgMillis >= MIN_SPAN_HANDLING_ERROR_LOG_INTERVAL_MILLIS) {
+            // We're not synchronizing the read and write to lastSpanHandlingErrorLogTimeEpochMillis, and that's ok. If we get a few extra
+            //      log messages due to a race condition it's not the end of the world - we're still satisfying the goal of not allowing a
+            //      malicious caller to endlessly spam the logs.
+            lastSpanHandlingErrorLogTimeEpochMillis = currentTimeMillis;
+
+            String exAsString = ex.toString();
+            zipkinConversionOrReportingErrorLogger.warn(
+                "There have been {} spans that were not Zipkin compatible, or that experienced an error during span handling. Latest example: "
+                + "wingtips_span_with_error=\"{}\", conversion_or_handling_error=\"{}\"",
+                currentBadSpanCount, span.toKeyValueString(), exAsString, ex);
         }
     }
-}
\ No newline at end of file
+}
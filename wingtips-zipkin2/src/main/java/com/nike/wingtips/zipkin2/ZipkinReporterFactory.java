@@ -0,0 +1,367 @@
+package com.nike.wingtips.zipkin2;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import zipkin2.codec.Encoding;
+import zipkin2.codec.SpanBytesEncoder;
+import zipkin2.reporter.AsyncReporter;
+import zipkin2.reporter.Reporter;
+import zipkin2.reporter.Sender;
+import zipkin2.reporter.urlconnection.URLConnectionSender;
+
+/**
+ * Creates the Zipkin {@link Reporter} (and underlying {@link URLConnectionSender}) used to send spans over HTTP to the
+ * standard Zipkin {@code POST /api/v2/spans} endpoint, with the knobs that matter for high-throughput export exposed
+ * as settings: queue limits, message size, flush interval, close timeout, JSON vs. PROTO3 encoding, gzip compression,
+ * and the number of sender threads. Any setting left null falls back to the Zipkin {@link AsyncReporter} or {@link
+ * URLConnectionSender} default, so a factory with nothing but a base URL creates the same reporter as {@link
+ * WingtipsToZipkinLifecycleListener#generateBasicZipkinReporter(String)}.
+ *
+ * <p>Example usage:
+ * <pre>
+ *  Reporter&lt;zipkin2.Span> reporter = ZipkinReporterFactory
+ *      .newBuilder("http://localhost:9411")
+ *      .withEncoding(Encoding.PROTO3)
+ *      .withQueuedMaxSpans(100_000)
+ *      .withMessageTimeoutMillis(500L)
+ *      .withNumSenderThreads(2)
+ *      .build()
+ *      .createReporter();
+ *  WingtipsToZipkinLifecycleListener w2zListener = new WingtipsToZipkinLifecycleListener(
+ *      serviceName, new WingtipsToZipkinSpanConverterDefaultImpl(), reporter
+ *  );
+ * </pre>
+ *
+ * <p>A single {@link AsyncReporter} sends every message from one background thread, which can become the bottleneck
+ * when a node produces tens of thousands of spans per second. Setting {@link Builder#withNumSenderThreads(Integer)}
+ * above 1 creates a {@link ShardedReporter} that spreads spans across that many {@link AsyncReporter}s (each with
+ * its own queue and sending thread) sharing the same {@link Sender}. The queued max spans/bytes settings are split
+ * evenly across the shards so they remain limits for the reporter as a whole.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ZipkinReporterFactory {
+
+    protected final String postZipkinSpansBaseUrl;
+    protected final Encoding encoding;
+    protected final Boolean compressionEnabled;
+    protected final Integer messageMaxBytes;
+    protected final Long messageTimeoutMillis;
+    protected final Long closeTimeoutMillis;
+    protected final Integer queuedMaxSpans;
+    protected final Integer queuedMaxBytes;
+    protected final int numSenderThreads;
+
+    protected ZipkinReporterFactory(Builder builder) {
+        if (builder.postZipkinSpansBaseUrl == null) {
+            throw new IllegalArgumentException("postZipkinSpansBaseUrl cannot be null");
+        }
+        if (builder.encoding != null && builder.encoding != Encoding.JSON && builder.encoding != Encoding.PROTO3) {
+            throw new IllegalArgumentException(
+                "encoding must be JSON or PROTO3 (or null for the default). Received: " + builder.encoding
+            );
+        }
+        if (builder.numSenderThreads != null && builder.numSenderThreads < 1) {
+            throw new IllegalArgumentException(
+                "numSenderThreads must be at least 1 (or null for the default). Received: " + builder.numSenderThreads
+            );
+        }
+
+        this.postZipkinSpansBaseUrl = builder.postZipkinSpansBaseUrl;
+        this.encoding = (builder.encoding == null) ? Encoding.JSON : builder.encoding;
+        this.compressionEnabled = builder.compressionEnabled;
+        this.messageMaxBytes = builder.messageMaxBytes;
+        this.messageTimeoutMillis = builder.messageTimeoutMillis;
+        this.closeTimeoutMillis = builder.closeTimeoutMillis;
+        this.queuedMaxSpans = builder.queuedMaxSpans;
+        this.queuedMaxBytes = builder.queuedMaxBytes;
+        this.numSenderThreads = (builder.numSenderThreads == null) ? 1 : builder.numSenderThreads;
+    }
+
+    /**
+     * @param postZipkinSpansBaseUrl The Zipkin base URL. This is everything except the endpoint path, i.e.
+     * {@code http://foo.bar:9411}. Cannot be null.
+     * @return A new {@link Builder} for a {@link ZipkinReporterFactory} that sends spans to the given Zipkin server.
+     */
+    public static Builder newBuilder(String postZipkinSpansBaseUrl) {
+        return new Builder(postZipkinSpansBaseUrl);
+    }
+
+    /**
+     * @return A new {@link URLConnectionSender} that sends spans to the standard Zipkin {@code POST /api/v2/spans}
+     * endpoint using this factory's encoding, compression, and message size settings.
+     */
+    public Sender createSender() {
+        URLConnectionSender.Builder senderBuilder = URLConnectionSender
+            .newBuilder()
+            .endpoint(
+                postZipkinSpansBaseUrl + (postZipkinSpansBaseUrl.endsWith("/") ? "" : "/") + "api/v2/spans"
+            )
+            .encoding(encoding);
+
+        if (compressionEnabled != null) {
+            senderBuilder.compressionEnabled(compressionEnabled);
+        }
+        if (messageMaxBytes != null) {
+            senderBuilder.messageMaxBytes(messageMaxBytes);
+        }
+
+        return senderBuilder.build();
+    }
+
+    /**
+     * @return A new {@link Reporter} that sends spans through a new {@link #createSender()} sender. This will be an
+     * {@link AsyncReporter} if the number of sender threads is 1 (the default), or a {@link ShardedReporter} of
+     * {@link AsyncReporter}s otherwise.
+     */
+    public Reporter<zipkin2.Span> createReporter() {
+        Sender sender = createSender();
+
+        if (numSenderThreads == 1) {
+            return createAsyncReporter(sender, queuedMaxSpans, queuedMaxBytes);
+        }
+
+        Integer queuedMaxSpansPerShard = (queuedMaxSpans == null) ? null : Math.max(1, queuedMaxSpans / numSenderThreads);
+        Integer queuedMaxBytesPerShard = (queuedMaxBytes == null) ? null : Math.max(1, queuedMaxBytes / numSenderThreads);
+
+        List<Reporter<zipkin2.Span>> shards = new ArrayList<>(numSenderThreads);
+        for (int i = 0; i < numSenderThreads; i++) {
+            shards.add(createAsyncReporter(sender, queuedMaxSpansPerShard, queuedMaxBytesPerShard));
+        }
+
+        return new ShardedReporter<>(shards);
+    }
+
+    protected AsyncReporter<zipkin2.Span> createAsyncReporter(
+        Sender sender, Integer queuedMaxSpansToUse, Integer queuedMaxBytesToUse
+    ) {
+        AsyncReporter.Builder reporterBuilder = AsyncReporter.builder(sender);
+
+        if (messageMaxBytes != null) {
+            reporterBuilder.messageMaxBytes(messageMaxBytes);
+        }
+        if (messageTimeoutMillis != null) {
+            reporterBuilder.messageTimeout(messageTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        if (closeTimeoutMillis != null) {
+            reporterBuilder.closeTimeout(closeTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        if (queuedMaxSpansToUse != null) {
+            reporterBuilder.queuedMaxSpans(queuedMaxSpansToUse);
+        }
+        if (queuedMaxBytesToUse != null) {
+            reporterBuilder.queuedMaxBytes(queuedMaxBytesToUse);
+        }
+
+        return reporterBuilder.build(
+            (encoding == Encoding.PROTO3) ? SpanBytesEncoder.PROTO3 : SpanBytesEncoder.JSON_V2
+        );
+    }
+
+    public String getPostZipkinSpansBaseUrl() {
+        return postZipkinSpansBaseUrl;
+    }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    public Boolean getCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public Integer getMessageMaxBytes() {
+        return messageMaxBytes;
+    }
+
+    public Long getMessageTimeoutMillis() {
+        return messageTimeoutMillis;
+    }
+
+    public Long getCloseTimeoutMillis() {
+        return closeTimeoutMillis;
+    }
+
+    public Integer getQueuedMaxSpans() {
+        return queuedMaxSpans;
+    }
+
+    public Integer getQueuedMaxBytes() {
+        return queuedMaxBytes;
+    }
+
+    public int getNumSenderThreads() {
+        return numSenderThreads;
+    }
+
+    /**
+     * A {@link Reporter} that spreads spans across several delegate reporters so that queueing and sending happen
+     * on more than one thread. Spans are handed to the delegates round-robin, so every delegate's queue gets used
+     * even when all spans are reported from a single thread (e.g. an async span dispatcher). Flushing or closing this
+     * reporter flushes or closes all the delegates that support it.
+     *
+     * @param <S> The type of span being reported.
+     */
+    public static class ShardedReporter<S> implements Reporter<S>, Flushable, Closeable {
+
+        protected final List<Reporter<S>> shards;
+        protected final AtomicInteger nextShardIndex = new AtomicInteger();
+
+        /**
+         * @param shards The delegate reporters to spread spans across. Cannot be null or empty.
+         */
+        public ShardedReporter(List<? extends Reporter<S>> shards) {
+            if (shards == null || shards.isEmpty()) {
+                throw new IllegalArgumentException("shards cannot be null or empty");
+            }
+            this.shards = Collections.unmodifiableList(new ArrayList<Reporter<S>>(shards));
+        }
+
+        @Override
+        public void report(S span) {
+            // Mask off the sign bit so the index stays valid after the counter wraps around.
+            int shardIndex = (nextShardIndex.getAndIncrement() & Integer.MAX_VALUE) % shards.size();
+            shards.get(shardIndex).report(span);
+        }
+
+        @Override
+        public void flush() {
+            for (Reporter<S> shard : shards) {
+                if (shard instanceof Flushable) {
+                    try {
+                        ((Flushable) shard).flush();
+                    }
+                    catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            for (Reporter<S> shard : shards) {
+                if (shard instanceof Closeable) {
+                    try {
+                        ((Closeable) shard).close();
+                    }
+                    catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link ZipkinReporterFactory}. All settings are optional - leave them null to use the Zipkin
+     * defaults.
+     */
+    public static final class Builder {
+
+        private String postZipkinSpansBaseUrl;
+        private Encoding encoding;
+        private Boolean compressionEnabled;
+        private Integer messageMaxBytes;
+        private Long messageTimeoutMillis;
+        private Long closeTimeoutMillis;
+        private Integer queuedMaxSpans;
+        private Integer queuedMaxBytes;
+        private Integer numSenderThreads;
+
+        private Builder(String postZipkinSpansBaseUrl) {
+            this.postZipkinSpansBaseUrl = postZipkinSpansBaseUrl;
+        }
+
+        /**
+         * @param encoding The encoding to send spans with - {@link Encoding#JSON} (the default) or {@link
+         * Encoding#PROTO3}. PROTO3 is more compact and cheaper to encode, and is supported by Zipkin Server 2.8+.
+         * @return This builder.
+         */
+        public Builder withEncoding(Encoding encoding) {
+            this.encoding = encoding;
+            return this;
+        }
+
+        /**
+         * @param compressionEnabled Whether to gzip the HTTP request bodies sent to Zipkin (the {@link
+         * URLConnectionSender} default is true).
+         * @return This builder.
+         */
+        public Builder withCompressionEnabled(Boolean compressionEnabled) {
+            this.compressionEnabled = compressionEnabled;
+            return this;
+        }
+
+        /**
+         * @param messageMaxBytes The maximum size of a single message (HTTP request body) sent to Zipkin. Applied to
+         * both the sender and the reporter.
+         * @return This builder.
+         */
+        public Builder withMessageMaxBytes(Integer messageMaxBytes) {
+            this.messageMaxBytes = messageMaxBytes;
+            return this;
+        }
+
+        /**
+         * @param messageTimeoutMillis The maximum time a span waits in the reporter before being sent, i.e. the
+         * flush interval for partially filled messages.
+         * @return This builder.
+         */
+        public Builder withMessageTimeoutMillis(Long messageTimeoutMillis) {
+            this.messageTimeoutMillis = messageTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * @param closeTimeoutMillis How long closing the reporter waits for queued spans to be sent.
+         * @return This builder.
+         */
+        public Builder withCloseTimeoutMillis(Long closeTimeoutMillis) {
+            this.closeTimeoutMillis = closeTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * @param queuedMaxSpans The maximum number of spans waiting to be sent before new spans are dropped.
+         * @return This builder.
+         */
+        public Builder withQueuedMaxSpans(Integer queuedMaxSpans) {
+            this.queuedMaxSpans = queuedMaxSpans;
+            return this;
+        }
+
+        /**
+         * @param queuedMaxBytes The maximum total encoded size of spans waiting to be sent before new spans are
+         * dropped.
+         * @return This builder.
+         */
+        public Builder withQueuedMaxBytes(Integer queuedMaxBytes) {
+            this.queuedMaxBytes = queuedMaxBytes;
+            return this;
+        }
+
+        /**
+         * @param numSenderThreads The number of threads to queue and send spans on - see the {@link
+         * ZipkinReporterFactory} class javadocs for details. Must be at least 1 (the default).
+         * @return This builder.
+         */
+        public Builder withNumSenderThreads(Integer numSenderThreads) {
+            this.numSenderThreads = numSenderThreads;
+            return this;
+        }
+
+        /**
+         * @return A {@link ZipkinReporterFactory} built with this builder's settings.
+         */
+        public ZipkinReporterFactory build() {
+            return new ZipkinReporterFactory(this);
+        }
+    }
+}
@@ -0,0 +1,538 @@
+package com.nike.wingtips.zipkin2.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A durable, bounded, append-only spool of encoded spans (e.g. the Zipkin JSON or PROTO3 bytes a {@link
+ * zipkin2.reporter.Sender} is asked to send) stored in a directory as a log of fixed-size memory-mapped segment
+ * files. Spans are appended to the newest segment and read back oldest-first. When the spool would grow past its
+ * maximum size the oldest segment is deleted, dropping whatever spans it still held, so disk usage stays bounded and
+ * the heap isn't used for the spooled spans at all.
+ *
+ * <p>Each record in a segment is a 4-byte length followed by the encoded span. Reading spans out of the spool is a
+ * two step process: {@link #peekBatch(int, int)} returns the oldest pending spans without removing them, and {@link
+ * #remove(Batch, int)} marks them consumed once they've been handled successfully (consumed records have their length
+ * negated in place). A length of zero marks the end of a segment's records - the header slot after the last record
+ * is always zeroed before that record's length is written, so a record that was only partly written when the process
+ * died is never mistaken for a complete one, whatever bytes were left behind it. Because the records live in the
+ * mapped files, a new spool opened on the same directory (e.g. after an application restart) picks up any spans that
+ * weren't consumed. Writes go to the OS page cache, so they survive the JVM going away, but not necessarily the whole
+ * machine going away unless {@link #force()} is called.
+ *
+ * <p>Segment files are unmapped before they're deleted, so their disk space is freed right away rather than whenever
+ * the garbage collector gets around to the mapping (and so deleting works on platforms that refuse to delete mapped
+ * files). A segment file that still can't be deleted is emptied instead, so no future spool recovers spans from it.
+ *
+ * <p>This class is thread safe. It is meant to be used by one process at a time per directory.
+ */
+@SuppressWarnings("WeakerAccess")
+public class MappedFileSpanSpool implements Closeable {
+
+    protected static final String SEGMENT_FILE_PREFIX = "wingtips-span-spool-";
+    protected static final String SEGMENT_FILE_SUFFIX = ".segment";
+    protected static final int RECORD_HEADER_SIZE_BYTES = 4;
+
+    protected final File directory;
+    protected final int segmentSizeBytes;
+    protected final int maxSegments;
+
+    // All segment state is guarded by this spool's monitor.
+    protected final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    protected long nextSegmentId = 0;
+    protected long pendingSpanCount = 0;
+    protected boolean closed = false;
+
+    protected final AtomicLong evictedSpanCount = new AtomicLong(0);
+    protected final AtomicLong rejectedSpanCount = new AtomicLong(0);
+
+    /**
+     * Creates a spool in the given directory, recovering any spans left by a previous spool that used the same
+     * directory.
+     *
+     * @param directory The directory to store segment files in. Will be created if it doesn't exist. Cannot be null.
+     * @param segmentSizeBytes The size of each segment file. Spans larger than this (minus a 4 byte header) are
+     * rejected. Must be at least 64.
+     * @param maxSpoolSizeBytes The maximum total size of the segment files. Must be at least twice the segment size.
+     * @throws IOException If the directory or the segment files can't be created, read, or memory-mapped.
+     */
+    public MappedFileSpanSpool(File directory, int segmentSizeBytes, long maxSpoolSizeBytes) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory cannot be null");
+        }
+        if (segmentSizeBytes < 64) {
+            throw new IllegalArgumentException("segmentSizeBytes must be at least 64. Received: " + segmentSizeBytes);
+        }
+        if (maxSpoolSizeBytes < 2L * segmentSizeBytes) {
+            throw new IllegalArgumentException(
+                "maxSpoolSizeBytes must be at least twice segmentSizeBytes. Received maxSpoolSizeBytes="
+                + maxSpoolSizeBytes + ", segmentSizeBytes=" + segmentSizeBytes
+            );
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create spool directory: " + directory.getAbsolutePath());
+        }
+
+        this.directory = directory;
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.maxSegments = (int) Math.min(Integer.MAX_VALUE, maxSpoolSizeBytes / segmentSizeBytes);
+
+        recoverExistingSegments();
+    }
+
+    protected void recoverExistingSegments() throws IOException {
+        File[] segmentFiles = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return parseSegmentId(name) >= 0;
+            }
+        });
+        if (segmentFiles == null) {
+            throw new IOException("Unable to list spool directory: " + directory.getAbsolutePath());
+        }
+
+        long[] segmentIds = new long[segmentFiles.length];
+        for (int i = 0; i < segmentFiles.length; i++) {
+            segmentIds[i] = parseSegmentId(segmentFiles[i].getName());
+        }
+        Arrays.sort(segmentIds);
+
+        for (long segmentId : segmentIds) {
+            Segment segment = Segment.open(segmentFile(segmentId), segmentId, -1);
+            if (segment.pendingCount == 0) {
+                segment.delete();
+                continue;
+            }
+            segments.addLast(segment);
+            pendingSpanCount += segment.pendingCount;
+            nextSegmentId = segmentId + 1;
+        }
+
+        // Respect the size bound even if the previous spool was configured with a larger one.
+        while (segments.size() > maxSegments) {
+            evictOldestSegment();
+        }
+    }
+
+    protected static long parseSegmentId(String fileName) {
+        if (!fileName.startsWith(SEGMENT_FILE_PREFIX) || !fileName.endsWith(SEGMENT_FILE_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(
+                fileName.substring(SEGMENT_FILE_PREFIX.length(), fileName.length() - SEGMENT_FILE_SUFFIX.length())
+            );
+        }
+        catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    protected File segmentFile(long segmentId) {
+        // Zero padded so the files sort naturally in directory listings.
+        return new File(directory, SEGMENT_FILE_PREFIX + String.format("%019d", segmentId) + SEGMENT_FILE_SUFFIX);
+    }
+
+    /**
+     * Appends the given encoded span to the spool, evicting the oldest segment first if the spool is full.
+     *
+     * @param encodedSpan The encoded span to spool.
+     * @return true if the span was spooled, false if it was rejected because it was empty, too big to fit in a
+     * segment, the spool has been closed, or a new segment file couldn't be created.
+     */
+    public synchronized boolean append(byte[] encodedSpan) {
+        int recordSize = RECORD_HEADER_SIZE_BYTES + encodedSpan.length;
+        if (closed || encodedSpan.length == 0 || recordSize > segmentSizeBytes) {
+            rejectedSpanCount.incrementAndGet();
+            return false;
+        }
+
+        Segment tail = segments.peekLast();
+        if (tail == null || tail.remainingBytes() < recordSize) {
+            try {
+                tail = startNewSegment();
+            }
+            catch (IOException ex) {
+                rejectedSpanCount.incrementAndGet();
+                return false;
+            }
+        }
+
+        tail.append(encodedSpan);
+        pendingSpanCount++;
+        return true;
+    }
+
+    protected Segment startNewSegment() throws IOException {
+        while (segments.size() >= maxSegments) {
+            evictOldestSegment();
+        }
+
+        long segmentId = nextSegmentId++;
+        Segment segment = Segment.open(segmentFile(segmentId), segmentId, segmentSizeBytes);
+        segments.addLast(segment);
+        return segment;
+    }
+
+    protected void evictOldestSegment() {
+        Segment oldest = segments.pollFirst();
+        if (oldest != null) {
+            evictedSpanCount.addAndGet(oldest.pendingCount);
+            pendingSpanCount -= oldest.pendingCount;
+            oldest.delete();
+        }
+    }
+
+    /**
+     * Returns (without removing) the oldest pending spans in the spool.
+     *
+     * @param maxSpans The maximum number of spans to return.
+     * @param maxBytes The maximum combined size of the returned spans. At least one span is always returned if the
+     * spool isn't empty, even if it's bigger than this.
+     * @return A {@link Batch} containing the oldest pending spans - empty if the spool is empty. Pass it to {@link
+     * #remove(Batch, int)} once the spans have been handled.
+     */
+    public synchronized Batch peekBatch(int maxSpans, int maxBytes) {
+        List<byte[]> encodedSpans = new ArrayList<>();
+        List<Segment> recordSegments = new ArrayList<>();
+        List<Integer> recordPositions = new ArrayList<>();
+        int totalBytes = 0;
+
+        for (Segment segment : segments) {
+            int position = segment.readPosition;
+            while (encodedSpans.size() < maxSpans && position < segment.writePosition) {
+                int length = segment.buffer.getInt(position);
+                int absLength = Math.abs(length);
+                if (length > 0) {
+                    if (!encodedSpans.isEmpty() && totalBytes + length > maxBytes) {
+                        return new Batch(encodedSpans, recordSegments, recordPositions);
+                    }
+                    byte[] encodedSpan = new byte[length];
+                    ByteBuffer view = segment.buffer.duplicate();
+                    view.position(position + RECORD_HEADER_SIZE_BYTES);
+                    view.get(encodedSpan);
+                    encodedSpans.add(encodedSpan);
+                    recordSegments.add(segment);
+                    recordPositions.add(position);
+                    totalBytes += length;
+                }
+                position += RECORD_HEADER_SIZE_BYTES + absLength;
+            }
+            if (encodedSpans.size() >= maxSpans) {
+                break;
+            }
+        }
+
+        return new Batch(encodedSpans, recordSegments, recordPositions);
+    }
+
+    /**
+     * Marks the first {@code count} spans of the given batch as consumed so they won't be returned again, and deletes
+     * any segment files that no longer hold pending spans. Spans that were evicted since the batch was peeked are
+     * ignored.
+     *
+     * @param batch A batch returned by {@link #peekBatch(int, int)}.
+     * @param count The number of spans from the start of the batch to remove.
+     */
+    public synchronized void remove(Batch batch, int count) {
+        int numToRemove = Math.min(count, batch.encodedSpans.size());
+        for (int i = 0; i < numToRemove; i++) {
+            Segment segment = batch.recordSegments.get(i);
+            if (segment.deleted) {
+                continue;
+            }
+            if (segment.markConsumed(batch.recordPositions.get(i))) {
+                pendingSpanCount--;
+            }
+        }
+
+        Iterator<Segment> iterator = segments.iterator();
+        while (iterator.hasNext()) {
+            Segment segment = iterator.next();
+            // Keep the newest segment around (it's still being appended to) unless the spool is closed.
+            if (segment.pendingCount > 0 || (segment == segments.peekLast() && !closed)) {
+                break;
+            }
+            iterator.remove();
+            segment.delete();
+        }
+    }
+
+    /**
+     * @return The number of spans in the spool that have not been removed.
+     */
+    public synchronized long size() {
+        return pendingSpanCount;
+    }
+
+    /**
+     * @return true if the spool holds no pending spans.
+     */
+    public synchronized boolean isEmpty() {
+        return pendingSpanCount == 0;
+    }
+
+    /**
+     * @return The number of spans dropped because their segment was evicted to keep the spool within its size bound.
+     */
+    public long getEvictedSpanCount() {
+        return evictedSpanCount.get();
+    }
+
+    /**
+     * @return The number of spans {@link #append(byte[])} refused to spool.
+     */
+    public long getRejectedSpanCount() {
+        return rejectedSpanCount.get();
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Forces any spooled spans that are only in the OS page cache out to the storage device.
+     */
+    public synchronized void force() {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+    }
+
+    /**
+     * Forces the spool to disk and stops accepting new spans. Pending spans stay in the segment files for the next
+     * spool opened on the same directory.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        force();
+        closed = true;
+    }
+
+    /**
+     * A group of spans returned by {@link #peekBatch(int, int)}.
+     */
+    public static class Batch {
+        protected final List<byte[]> encodedSpans;
+        protected final List<Segment> recordSegments;
+        protected final List<Integer> recordPositions;
+
+        protected Batch(List<byte[]> encodedSpans, List<Segment> recordSegments, List<Integer> recordPositions) {
+            this.encodedSpans = Collections.unmodifiableList(encodedSpans);
+            this.recordSegments = recordSegments;
+            this.recordPositions = recordPositions;
+        }
+
+        /**
+         * @return The encoded spans in this batch, oldest first.
+         */
+        public List<byte[]> getEncodedSpans() {
+            return encodedSpans;
+        }
+
+        public boolean isEmpty() {
+            return encodedSpans.isEmpty();
+        }
+
+        /**
+         * @param other Another batch from the same spool.
+         * @return true if both batches start with the same spooled span, and that span hasn't been evicted since -
+         * i.e. they're (at least partly) the same spans peeked twice.
+         */
+        public boolean hasSameOldestSpanAs(Batch other) {
+            if (other == null || isEmpty() || other.isEmpty()) {
+                return false;
+            }
+            Segment segment = recordSegments.get(0);
+            return segment == other.recordSegments.get(0)
+                   && !segment.deleted
+                   && recordPositions.get(0).equals(other.recordPositions.get(0));
+        }
+    }
+
+    /**
+     * One memory-mapped segment file. Guarded by the owning spool's monitor.
+     */
+    protected static class Segment {
+        protected final long id;
+        protected final File file;
+        // Null once the segment has been deleted and its file unmapped.
+        protected MappedByteBuffer buffer;
+        protected int readPosition = 0;
+        protected int writePosition = 0;
+        protected int pendingCount = 0;
+        protected boolean deleted = false;
+
+        protected Segment(long id, File file, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        /**
+         * @param sizeBytes The size for a new segment file, or -1 to map an existing file at its current size.
+         */
+        protected static Segment open(File file, long id, int sizeBytes) throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                long mapSize = (sizeBytes < 0) ? Math.min(raf.length(), Integer.MAX_VALUE) : sizeBytes;
+                if (sizeBytes >= 0) {
+                    raf.setLength(sizeBytes);
+                }
+                // The mapping stays valid after the channel is closed.
+                MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, mapSize);
+                Segment segment = new Segment(id, file, buffer);
+                segment.recoverPositions();
+                return segment;
+            }
+        }
+
+        protected void recoverPositions() {
+            int limit = buffer.capacity();
+            int position = 0;
+            boolean foundPending = false;
+            while (position + RECORD_HEADER_SIZE_BYTES <= limit) {
+                int length = buffer.getInt(position);
+                int absLength = Math.abs(length);
+                // Zero marks the end of the records. A length that runs past the end means a partial write.
+                if (length == 0 || absLength > limit - position - RECORD_HEADER_SIZE_BYTES) {
+                    break;
+                }
+                if (length > 0) {
+                    pendingCount++;
+                    if (!foundPending) {
+                        readPosition = position;
+                        foundPending = true;
+                    }
+                }
+                position += RECORD_HEADER_SIZE_BYTES + absLength;
+            }
+            writePosition = position;
+            if (!foundPending) {
+                readPosition = position;
+            }
+            // Whatever stopped the recovery (e.g. a partly written record) will be overwritten by the next append.
+            //      Clear its header so it can't be read as a record if the process dies during that append.
+            zeroHeaderAt(writePosition);
+        }
+
+        protected void zeroHeaderAt(int position) {
+            if (position + RECORD_HEADER_SIZE_BYTES <= buffer.capacity()) {
+                buffer.putInt(position, 0);
+            }
+        }
+
+        protected int remainingBytes() {
+            return buffer.capacity() - writePosition;
+        }
+
+        protected void append(byte[] encodedSpan) {
+            int nextWritePosition = writePosition + RECORD_HEADER_SIZE_BYTES + encodedSpan.length;
+            // Mark the end of the records after this one first - the bytes there may be left over from a partly
+            //      written record that a previous process didn't finish.
+            zeroHeaderAt(nextWritePosition);
+            ByteBuffer view = buffer.duplicate();
+            view.position(writePosition + RECORD_HEADER_SIZE_BYTES);
+            view.put(encodedSpan);
+            // Write the length last so a partially written record is never seen as complete.
+            buffer.putInt(writePosition, encodedSpan.length);
+            writePosition = nextWritePosition;
+            pendingCount++;
+        }
+
+        protected boolean markConsumed(int position) {
+            int length = buffer.getInt(position);
+            if (length <= 0) {
+                return false;
+            }
+            buffer.putInt(position, -length);
+            pendingCount--;
+            if (position == readPosition) {
+                // Skip past any already consumed records.
+                while (readPosition < writePosition && buffer.getInt(readPosition) < 0) {
+                    readPosition += RECORD_HEADER_SIZE_BYTES - buffer.getInt(readPosition);
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Unmaps and deletes the segment file. If the file can't be deleted it's truncated to nothing instead (and
+         * deleted when the JVM exits), so a future spool can't recover spans from it.
+         */
+        protected void delete() {
+            deleted = true;
+            MappedByteBuffer mappedBuffer = buffer;
+            buffer = null;
+            if (mappedBuffer != null) {
+                unmap(mappedBuffer);
+            }
+
+            if (file.delete() || !file.exists()) {
+                return;
+            }
+
+            file.deleteOnExit();
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(0);
+            }
+            catch (IOException ex) {
+                // Nothing more we can do - the next spool opened on this directory will try to delete it again, but
+                //      may replay whatever spans it still holds.
+            }
+        }
+    }
+
+    /**
+     * Releases the given mapping right away instead of waiting for it to be garbage collected. There's no public API
+     * for this, so it uses {@code sun.misc.Unsafe.invokeCleaner(ByteBuffer)} on Java 9+ and the buffer's cleaner on
+     * older JVMs. If neither is available the mapping is simply left for the garbage collector. The buffer must never
+     * be touched again after this is called.
+     *
+     * @return true if the buffer was unmapped.
+     */
+    protected static boolean unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner;
+            try {
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            }
+            catch (NoSuchMethodException ex) {
+                // Java 8 and earlier.
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner == null) {
+                    return false;
+                }
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+                return true;
+            }
+            Field theUnsafeField = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafeField.setAccessible(true);
+            invokeCleaner.invoke(theUnsafeField.get(null), buffer);
+            return true;
+        }
+        catch (Exception ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.nike.wingtips.zipkin2.util;
+
+import java.util.List;
+
+import zipkin2.codec.BytesEncoder;
+import zipkin2.codec.Encoding;
+import zipkin2.reporter.BytesMessageEncoder;
+
+/**
+ * A pass-through {@link BytesEncoder} for spans that have already been encoded, e.g. by {@link
+ * WingtipsToZipkinSpanEncoder}. Build an {@link zipkin2.reporter.AsyncReporter} with it to get a {@code
+ * Reporter<byte[]>} that queues, batches, and sends pre-encoded spans through any {@link zipkin2.reporter.Sender}
+ * exactly like it would for {@link zipkin2.Span}s, without encoding them a second time:
+ *
+ * <pre>
+ *  AsyncReporter&lt;byte[]> reporter = AsyncReporter.builder(sender)
+ *                                               .build(PreEncodedSpanBytesEncoder.forEncoding(sender.encoding()));
+ * </pre>
+ *
+ * <p>The encoding must match the encoding the spans were encoded with (and the {@link zipkin2.reporter.Sender}'s
+ * encoding - {@link zipkin2.reporter.AsyncReporter} will reject a mismatch).
+ */
+@SuppressWarnings("WeakerAccess")
+public class PreEncodedSpanBytesEncoder implements BytesEncoder<byte[]> {
+
+    protected static final PreEncodedSpanBytesEncoder JSON = new PreEncodedSpanBytesEncoder(Encoding.JSON);
+    protected static final PreEncodedSpanBytesEncoder PROTO3 = new PreEncodedSpanBytesEncoder(Encoding.PROTO3);
+
+    protected final Encoding encoding;
+    protected final BytesMessageEncoder messageEncoder;
+
+    protected PreEncodedSpanBytesEncoder(Encoding encoding) {
+        this.encoding = encoding;
+        this.messageEncoder = BytesMessageEncoder.forEncoding(encoding);
+    }
+
+    /**
+     * @param encoding The encoding of the pre-encoded spans - must be {@link Encoding#JSON} or {@link
+     * Encoding#PROTO3}.
+     * @return The {@link PreEncodedSpanBytesEncoder} for the given encoding.
+     */
+    public static PreEncodedSpanBytesEncoder forEncoding(Encoding encoding) {
+        if (encoding == Encoding.JSON) {
+            return JSON;
+        }
+        if (encoding == Encoding.PROTO3) {
+            return PROTO3;
+        }
+        throw new IllegalArgumentException("encoding must be JSON or PROTO3. Received: " + encoding);
+    }
+
+    @Override
+    public Encoding encoding() {
+        return encoding;
+    }
+
+    @Override
+    public int sizeInBytes(byte[] encodedSpan) {
+        return encodedSpan.length;
+    }
+
+    @Override
+    public byte[] encode(byte[] encodedSpan) {
+        return encodedSpan;
+    }
+
+    @Override
+    public byte[] encodeList(List<byte[]> encodedSpans) {
+        return messageEncoder.encode(encodedSpans);
+    }
+}
@@ -54,33 +54,78 @@ public class WingtipsToZipkinSpanConverterDefaultImpl implements WingtipsToZipki
 
     @Override
     public zipkin2.Span convertWingtipsSpanToZipkinSpan(Span wingtipsSpan, Endpoint zipkinEndpoint) {
-        long durationMicros = TimeUnit.NANOSECONDS.toMicros(wingtipsSpan.getDurationNanos());
+        return convertWingtipsSpanToZipkinSpan(wingtipsSpan, zipkinEndpoint, zipkin2.Span.newBuilder());
+    }
 
-        String spanId = sanitizeIdIfNecessary(wingtipsSpan.getSpanId(), false);
-        String traceId = sanitizeIdIfNecessary(wingtipsSpan.getTraceId(), true);
-        String parentId = sanitizeIdIfNecessary(wingtipsSpan.getParentSpanId(), false);
+    /**
+     * Same as {@link #convertWingtipsSpanToZipkinSpan(Span, Endpoint)}, except the given {@link zipkin2.Span.Builder}
+     * is {@link zipkin2.Span.Builder#clear() cleared} and reused rather than allocating a new builder (and its
+     * internal tag map and annotation list) for every span. This is intended for converting a batch of spans in one
+     * pass - see {@link com.nike.wingtips.zipkin2.WingtipsToZipkinLifecycleListener#spansCompleted(java.util.List)}.
+     * The builder is not thread-safe, so don't share it between threads.
+     *
+     * @param wingtipsSpan The Wingtips span to convert.
+     * @param zipkinEndpoint The Zipkin {@link Endpoint} associated with the current service.
+     * @param reusableSpanBuilder The builder to clear and populate - cannot be null.
+     * @return The given Wingtips {@link Span} after it has been converted to a {@link zipkin2.Span}.
+     */
+    public zipkin2.Span convertWingtipsSpanToZipkinSpan(
+        Span wingtipsSpan, Endpoint zipkinEndpoint, zipkin2.Span.Builder reusableSpanBuilder
+    ) {
+        long durationMicros = TimeUnit.NANOSECONDS.toMicros(wingtipsSpan.getDurationNanos());
 
-        final zipkin2.Span.Builder spanBuilder = zipkin2.Span
-            .newBuilder()
-            .id(spanId)
+        // Numeric IDs were generated by Wingtips and are always valid, so they can be handed to Zipkin directly
+        //      without rendering them to lowerhex strings on the Wingtips span or running them through sanitization.
+        //      String IDs (e.g. received from a caller) go through the sanitization check as usual.
+        String spanId = (wingtipsSpan.hasNumericSpanId())
+                        ? null
+                        : sanitizeIdIfNecessary(wingtipsSpan.getSpanId(), false);
+        String traceId = (wingtipsSpan.hasNumericTraceId())
+                         ? null
+                         : sanitizeIdIfNecessary(wingtipsSpan.getTraceId(), true);
+        String parentId = (wingtipsSpan.hasNumericParentSpanId())
+                          ? null
+                          : sanitizeIdIfNecessary(wingtipsSpan.getParentSpanId(), false);
+
+        final zipkin2.Span.Builder spanBuilder = reusableSpanBuilder
+            .clear()
             .name(wingtipsSpan.getSpanName())
-            .parentId(parentId)
-            .traceId(traceId)
             .timestamp(wingtipsSpan.getSpanStartTimeEpochMicros())
             .duration(durationMicros)
             .localEndpoint(zipkinEndpoint)
             .kind(determineZipkinKind(wingtipsSpan));
+
+        if (wingtipsSpan.hasNumericSpanId()) {
+            spanBuilder.id(wingtipsSpan.getSpanIdAsLong());
+        }
+        else {
+            spanBuilder.id(spanId);
+        }
+
+        if (wingtipsSpan.hasNumericTraceId()) {
+            spanBuilder.traceId(wingtipsSpan.getTraceIdHigh(), wingtipsSpan.getTraceIdLow());
+        }
+        else {
+            spanBuilder.traceId(traceId);
+        }
+
+        if (wingtipsSpan.hasNumericParentSpanId()) {
+            spanBuilder.parentId(wingtipsSpan.getParentSpanIdAsLong());
+        }
+        else {
+            spanBuilder.parentId(parentId);
+        }
         
         // Iterate over existing wingtips tags and add them to the zipkin builder.
         for (Map.Entry<String, String> tagEntry : wingtipsSpan.getTags().entrySet()) {
             nullSafePutTag(spanBuilder, tagEntry.getKey(), tagEntry.getValue());
         }
             
-        if (!spanId.equals(wingtipsSpan.getSpanId())) {
+        if (spanId != null && !spanId.equals(wingtipsSpan.getSpanId())) {
             nullSafePutTag(spanBuilder, "invalid.span_id", wingtipsSpan.getSpanId());
             wingtipsSpan.putTag("sanitized_span_id", spanId);
         }
-        if (!traceId.equals(wingtipsSpan.getTraceId())) {
+        if (traceId != null && !traceId.equals(wingtipsSpan.getTraceId())) {
             nullSafePutTag(spanBuilder, "invalid.trace_id", wingtipsSpan.getTraceId());
             wingtipsSpan.putTag("sanitized_trace_id", traceId);
         }
@@ -0,0 +1,851 @@
+package com.nike.wingtips.zipkin2.util;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.TimestampedAnnotation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import zipkin2.Endpoint;
+import zipkin2.codec.Encoding;
+import zipkin2.codec.SpanBytesEncoder;
+
+/**
+ * Encodes a Wingtips {@link Span} straight into Zipkin v2 {@link Encoding#JSON JSON} or {@link Encoding#PROTO3 PROTO3}
+ * bytes, without building an intermediate {@link zipkin2.Span}. The usual path of converting via {@link
+ * WingtipsToZipkinSpanConverter} and then letting {@link zipkin2.reporter.AsyncReporter} encode the result creates two
+ * full object graphs per span (the {@link zipkin2.Span} with its copied tags and annotations, and then the encoded
+ * bytes). This class writes the span fields directly into a per-thread pooled buffer and only allocates the final
+ * exact-size {@code byte[]}, which is what a {@link zipkin2.reporter.Sender} needs anyway. Pair it with {@link
+ * PreEncodedSpanBytesEncoder} to report the bytes through an {@link zipkin2.reporter.AsyncReporter}, or just use
+ * {@link com.nike.wingtips.zipkin2.WingtipsToZipkinEncodedSpanLifecycleListener} which wires everything together.
+ *
+ * <p>The output is byte-for-byte identical to {@link SpanBytesEncoder#JSON_V2} or {@link SpanBytesEncoder#PROTO3}
+ * applied to the {@link zipkin2.Span} that {@link WingtipsToZipkinSpanConverterDefaultImpl} would have produced -
+ * including Zipkin's normalization rules (lowercased span names, left-padded IDs, omitted zero timestamps and
+ * durations, tags sorted by key, and annotations sorted by timestamp then value). The one exception is that Zipkin's
+ * JSON encoder can leave trailing NUL padding after the closing brace when it overestimates the size of strings that
+ * mix escaped and multi-byte characters - this class always outputs exactly the JSON. Invalid IDs cause an {@link
+ * IllegalArgumentException} just like they do when building a {@link zipkin2.Span}. ID sanitization and the mapping
+ * of {@link Span.SpanPurpose} to {@link zipkin2.Span.Kind} are delegated to the {@link
+ * WingtipsToZipkinSpanConverterDefaultImpl} passed into the constructor, so they behave exactly the same as the
+ * converter path (including adding {@code sanitized_*_id} tags to the Wingtips span when sanitization kicks in).
+ *
+ * <p>This class is thread-safe.
+ */
+@SuppressWarnings("WeakerAccess")
+public class WingtipsToZipkinSpanEncoder {
+
+    /**
+     * Pooled buffers that grow beyond this size while encoding an unusually large span are discarded afterward rather
+     * than being held on to by the thread forever.
+     */
+    protected static final int MAX_POOLED_BUFFER_SIZE_BYTES = 64 * 1024;
+    protected static final int INITIAL_BUFFER_SIZE_BYTES = 1024;
+
+    // PROTO3 field keys: (field_number << 3) | wire_type. See https://github.com/openzipkin/zipkin-api/blob/master/zipkin.proto
+    protected static final int LIST_OF_SPANS_SPAN_KEY = (1 << 3) | 2;
+    protected static final int TRACE_ID_KEY = (1 << 3) | 2;
+    protected static final int PARENT_ID_KEY = (2 << 3) | 2;
+    protected static final int ID_KEY = (3 << 3) | 2;
+    protected static final int KIND_KEY = 4 << 3;
+    protected static final int NAME_KEY = (5 << 3) | 2;
+    protected static final int TIMESTAMP_KEY = (6 << 3) | 1;
+    protected static final int DURATION_KEY = 7 << 3;
+    protected static final int LOCAL_ENDPOINT_KEY = (8 << 3) | 2;
+    protected static final int ANNOTATION_KEY = (10 << 3) | 2;
+    protected static final int TAG_KEY = (11 << 3) | 2;
+    protected static final int ENDPOINT_SERVICE_NAME_KEY = (1 << 3) | 2;
+    protected static final int ENDPOINT_IPV4_KEY = (2 << 3) | 2;
+    protected static final int ENDPOINT_IPV6_KEY = (3 << 3) | 2;
+    protected static final int ENDPOINT_PORT_KEY = 4 << 3;
+    protected static final int ANNOTATION_TIMESTAMP_KEY = (1 << 3) | 1;
+    protected static final int ANNOTATION_VALUE_KEY = (2 << 3) | 2;
+    protected static final int TAG_ENTRY_KEY_KEY = (1 << 3) | 2;
+    protected static final int TAG_ENTRY_VALUE_KEY = (2 << 3) | 2;
+
+    // The top-level PROTO3 span message is written after this much reserved space so its key and length prefix can be
+    //      filled in afterward (1 byte key + up to 5 bytes varint length).
+    protected static final int PROTO3_SPAN_PREFIX_RESERVED_BYTES = 6;
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes();
+
+    protected final Encoding encoding;
+    protected final Endpoint localEndpoint;
+    protected final WingtipsToZipkinSpanConverterDefaultImpl converter;
+    // The local endpoint never changes, so it's encoded once up front. Null if the endpoint is empty.
+    protected final byte[] encodedLocalEndpoint;
+
+    protected final ThreadLocal<EncodingBuffer> pooledBuffers = new ThreadLocal<EncodingBuffer>() {
+        @Override
+        protected EncodingBuffer initialValue() {
+            return new EncodingBuffer(INITIAL_BUFFER_SIZE_BYTES);
+        }
+    };
+
+    /**
+     * Creates a new instance that uses a default {@link WingtipsToZipkinSpanConverterDefaultImpl} (no ID
+     * sanitization).
+     *
+     * @param encoding The encoding to output - must be {@link Encoding#JSON} or {@link Encoding#PROTO3}.
+     * @param localEndpoint The Zipkin {@link Endpoint} associated with the current service - cannot be null.
+     */
+    public WingtipsToZipkinSpanEncoder(Encoding encoding, Endpoint localEndpoint) {
+        this(encoding, localEndpoint, new WingtipsToZipkinSpanConverterDefaultImpl());
+    }
+
+    /**
+     * @param encoding The encoding to output - must be {@link Encoding#JSON} or {@link Encoding#PROTO3}.
+     * @param localEndpoint The Zipkin {@link Endpoint} associated with the current service - cannot be null.
+     * @param converter The converter to use for ID sanitization and span kind mapping - cannot be null.
+     */
+    public WingtipsToZipkinSpanEncoder(
+        Encoding encoding, Endpoint localEndpoint, WingtipsToZipkinSpanConverterDefaultImpl converter
+    ) {
+        if (encoding != Encoding.JSON && encoding != Encoding.PROTO3) {
+            throw new IllegalArgumentException("encoding must be JSON or PROTO3. Received: " + encoding);
+        }
+        if (localEndpoint == null) {
+            throw new IllegalArgumentException("localEndpoint cannot be null");
+        }
+        if (converter == null) {
+            throw new IllegalArgumentException("converter cannot be null");
+        }
+
+        this.encoding = encoding;
+        this.localEndpoint = localEndpoint;
+        this.converter = converter;
+
+        EncodingBuffer endpointBuffer = new EncodingBuffer(128);
+        if (encoding == Encoding.JSON) {
+            writeJsonEndpoint(localEndpoint, endpointBuffer);
+        }
+        else {
+            writeProto3Endpoint(localEndpoint, endpointBuffer);
+        }
+        this.encodedLocalEndpoint = (endpointBuffer.position == 0)
+                                    ? null
+                                    : endpointBuffer.toByteArray(0, endpointBuffer.position);
+    }
+
+    /**
+     * @return The encoding this instance outputs.
+     */
+    public Encoding encoding() {
+        return encoding;
+    }
+
+    /**
+     * Encodes the given completed span. For {@link Encoding#PROTO3} the result is a {@code ListOfSpans} entry (i.e.
+     * the span message prefixed with its field key and length), exactly like {@link SpanBytesEncoder#PROTO3}, so
+     * encoded spans can be concatenated to form a message.
+     *
+     * @param wingtipsSpan The completed Wingtips span to encode.
+     * @return The encoded span.
+     * @throws IllegalArgumentException if the span has not been completed or has IDs that Zipkin would reject.
+     */
+    public byte[] encode(Span wingtipsSpan) {
+        EncodingBuffer buffer = pooledBuffers.get();
+        try {
+            SpanFields fields = buffer.spanFields;
+            fields.populate(wingtipsSpan, converter);
+
+            if (encoding == Encoding.JSON) {
+                buffer.position = 0;
+                writeJsonSpan(fields, buffer);
+                return buffer.toByteArray(0, buffer.position);
+            }
+
+            buffer.position = PROTO3_SPAN_PREFIX_RESERVED_BYTES;
+            writeProto3SpanBody(fields, buffer);
+            int bodySize = buffer.position - PROTO3_SPAN_PREFIX_RESERVED_BYTES;
+            int start = PROTO3_SPAN_PREFIX_RESERVED_BYTES - 1 - varintSizeInBytes(bodySize);
+            int end = buffer.position;
+            buffer.position = start;
+            buffer.writeByte(LIST_OF_SPANS_SPAN_KEY);
+            buffer.writeVarint(bodySize);
+            return buffer.toByteArray(start, end);
+        }
+        finally {
+            buffer.spanFields.clear();
+            if (buffer.bytes.length > MAX_POOLED_BUFFER_SIZE_BYTES) {
+                pooledBuffers.remove();
+            }
+        }
+    }
+
+    protected void writeJsonSpan(SpanFields fields, EncodingBuffer buffer) {
+        buffer.writeAscii("{\"traceId\":\"");
+        if (fields.traceIdHigh != 0) {
+            buffer.writeLowerHex(fields.traceIdHigh);
+        }
+        buffer.writeLowerHex(fields.traceIdLow);
+        buffer.writeByte('"');
+        if (fields.hasParentId) {
+            buffer.writeAscii(",\"parentId\":\"");
+            buffer.writeLowerHex(fields.parentId);
+            buffer.writeByte('"');
+        }
+        buffer.writeAscii(",\"id\":\"");
+        buffer.writeLowerHex(fields.id);
+        buffer.writeByte('"');
+        if (fields.kind != null) {
+            buffer.writeAscii(",\"kind\":\"");
+            buffer.writeAscii(fields.kind.name());
+            buffer.writeByte('"');
+        }
+        if (fields.name != null) {
+            buffer.writeAscii(",\"name\":\"");
+            buffer.writeJsonEscapedUtf8(fields.name);
+            buffer.writeByte('"');
+        }
+        if (fields.timestampMicros > 0) {
+            buffer.writeAscii(",\"timestamp\":");
+            buffer.writeDecimal(fields.timestampMicros);
+        }
+        if (fields.durationMicros > 0) {
+            buffer.writeAscii(",\"duration\":");
+            buffer.writeDecimal(fields.durationMicros);
+        }
+        if (encodedLocalEndpoint != null) {
+            buffer.writeAscii(",\"localEndpoint\":");
+            buffer.writeBytes(encodedLocalEndpoint);
+        }
+        if (fields.annotationCount > 0) {
+            buffer.writeAscii(",\"annotations\":[");
+            for (int i = 0; i < fields.annotationCount; i++) {
+                if (i > 0) {
+                    buffer.writeByte(',');
+                }
+                buffer.writeAscii("{\"timestamp\":");
+                buffer.writeDecimal(fields.annotationTimestamps[i]);
+                buffer.writeAscii(",\"value\":\"");
+                buffer.writeJsonEscapedUtf8(fields.annotationValues[i]);
+                buffer.writeAscii("\"}");
+            }
+            buffer.writeByte(']');
+        }
+        if (fields.tagCount > 0) {
+            buffer.writeAscii(",\"tags\":{");
+            for (int i = 0; i < fields.tagCount; i++) {
+                if (i > 0) {
+                    buffer.writeByte(',');
+                }
+                buffer.writeByte('"');
+                buffer.writeJsonEscapedUtf8(fields.tagKeys[i]);
+                buffer.writeAscii("\":\"");
+                buffer.writeJsonEscapedUtf8(fields.tagValues[i]);
+                buffer.writeByte('"');
+            }
+            buffer.writeByte('}');
+        }
+        buffer.writeByte('}');
+    }
+
+    protected void writeJsonEndpoint(Endpoint endpoint, EncodingBuffer buffer) {
+        int fieldCount = 0;
+        buffer.writeByte('{');
+        if (endpoint.serviceName() != null) {
+            buffer.writeAscii("\"serviceName\":\"");
+            buffer.writeJsonEscapedUtf8(endpoint.serviceName());
+            buffer.writeByte('"');
+            fieldCount++;
+        }
+        if (endpoint.ipv4() != null) {
+            buffer.writeAscii((fieldCount > 0) ? ",\"ipv4\":\"" : "\"ipv4\":\"");
+            buffer.writeAscii(endpoint.ipv4());
+            buffer.writeByte('"');
+            fieldCount++;
+        }
+        if (endpoint.ipv6() != null) {
+            buffer.writeAscii((fieldCount > 0) ? ",\"ipv6\":\"" : "\"ipv6\":\"");
+            buffer.writeAscii(endpoint.ipv6());
+            buffer.writeByte('"');
+            fieldCount++;
+        }
+        if (endpoint.portAsInt() != 0) {
+            buffer.writeAscii((fieldCount > 0) ? ",\"port\":" : "\"port\":");
+            buffer.writeDecimal(endpoint.portAsInt());
+            fieldCount++;
+        }
+        buffer.writeByte('}');
+
+        if (fieldCount == 0) {
+            // Zipkin omits empty endpoints entirely.
+            buffer.position = 0;
+        }
+    }
+
+    protected void writeProto3SpanBody(SpanFields fields, EncodingBuffer buffer) {
+        buffer.writeByte(TRACE_ID_KEY);
+        if (fields.traceIdHigh != 0) {
+            buffer.writeByte(16);
+            buffer.writeLongBigEndian(fields.traceIdHigh);
+        }
+        else {
+            buffer.writeByte(8);
+        }
+        buffer.writeLongBigEndian(fields.traceIdLow);
+        if (fields.hasParentId) {
+            buffer.writeByte(PARENT_ID_KEY);
+            buffer.writeByte(8);
+            buffer.writeLongBigEndian(fields.parentId);
+        }
+        buffer.writeByte(ID_KEY);
+        buffer.writeByte(8);
+        buffer.writeLongBigEndian(fields.id);
+        if (fields.kind != null) {
+            buffer.writeByte(KIND_KEY);
+            buffer.writeVarint(fields.kind.ordinal() + 1);
+        }
+        if (fields.name != null) {
+            buffer.writeByte(NAME_KEY);
+            buffer.writeVarint(utf8SizeInBytes(fields.name));
+            buffer.writeUtf8(fields.name);
+        }
+        if (fields.timestampMicros > 0) {
+            buffer.writeByte(TIMESTAMP_KEY);
+            buffer.writeLongLittleEndian(fields.timestampMicros);
+        }
+        if (fields.durationMicros > 0) {
+            buffer.writeByte(DURATION_KEY);
+            buffer.writeVarint(fields.durationMicros);
+        }
+        if (encodedLocalEndpoint != null) {
+            buffer.writeByte(LOCAL_ENDPOINT_KEY);
+            buffer.writeVarint(encodedLocalEndpoint.length);
+            buffer.writeBytes(encodedLocalEndpoint);
+        }
+        for (int i = 0; i < fields.annotationCount; i++) {
+            long timestamp = fields.annotationTimestamps[i];
+            String value = fields.annotationValues[i];
+            int valueSize = utf8SizeInBytes(value);
+            int annotationSize = ((timestamp != 0) ? 9 : 0) + 1 + varintSizeInBytes(valueSize) + valueSize;
+            buffer.writeByte(ANNOTATION_KEY);
+            buffer.writeVarint(annotationSize);
+            if (timestamp != 0) {
+                buffer.writeByte(ANNOTATION_TIMESTAMP_KEY);
+                buffer.writeLongLittleEndian(timestamp);
+            }
+            buffer.writeByte(ANNOTATION_VALUE_KEY);
+            buffer.writeVarint(valueSize);
+            buffer.writeUtf8(value);
+        }
+        for (int i = 0; i < fields.tagCount; i++) {
+            String key = fields.tagKeys[i];
+            String value = fields.tagValues[i];
+            int keySize = utf8SizeInBytes(key);
+            int valueSize = utf8SizeInBytes(value);
+            int entrySize = 1 + varintSizeInBytes(keySize) + keySize + 1 + varintSizeInBytes(valueSize) + valueSize;
+            buffer.writeByte(TAG_KEY);
+            buffer.writeVarint(entrySize);
+            buffer.writeByte(TAG_ENTRY_KEY_KEY);
+            buffer.writeVarint(keySize);
+            buffer.writeUtf8(key);
+            buffer.writeByte(TAG_ENTRY_VALUE_KEY);
+            buffer.writeVarint(valueSize);
+            buffer.writeUtf8(value);
+        }
+    }
+
+    protected void writeProto3Endpoint(Endpoint endpoint, EncodingBuffer buffer) {
+        String serviceName = endpoint.serviceName();
+        if (serviceName != null) {
+            buffer.writeByte(ENDPOINT_SERVICE_NAME_KEY);
+            buffer.writeVarint(utf8SizeInBytes(serviceName));
+            buffer.writeUtf8(serviceName);
+        }
+        byte[] ipv4 = endpoint.ipv4Bytes();
+        if (ipv4 != null) {
+            buffer.writeByte(ENDPOINT_IPV4_KEY);
+            buffer.writeVarint(ipv4.length);
+            buffer.writeBytes(ipv4);
+        }
+        byte[] ipv6 = endpoint.ipv6Bytes();
+        if (ipv6 != null) {
+            buffer.writeByte(ENDPOINT_IPV6_KEY);
+            buffer.writeVarint(ipv6.length);
+            buffer.writeBytes(ipv6);
+        }
+        if (endpoint.portAsInt() != 0) {
+            buffer.writeByte(ENDPOINT_PORT_KEY);
+            buffer.writeVarint(endpoint.portAsInt());
+        }
+    }
+
+    protected static int varintSizeInBytes(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * @return The number of bytes the given string takes up when UTF-8 encoded, with unpaired surrogates counted as a
+     * single {@code ?} byte (matching {@link EncodingBuffer#writeUtf8(String)} and Zipkin's own encoders).
+     */
+    protected static int utf8SizeInBytes(String value) {
+        int size = 0;
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                size++;
+            }
+            else if (c < 0x800) {
+                size += 2;
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                size += 4;
+                i++;
+            }
+            else if (Character.isSurrogate(c)) {
+                size++;
+            }
+            else {
+                size += 3;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Parses the given Zipkin-style lowerhex ID (already sanitized if sanitization is enabled), applying the same
+     * validation and normalization as {@link zipkin2.Span.Builder}: IDs shorter than the max length are treated as if
+     * left-padded with zeros, and anything that isn't lowerhex is rejected.
+     *
+     * @return The low 64 bits of the ID. The high 64 bits (for 128-bit trace IDs) are put into {@code highBitsOut[0]}.
+     */
+    protected static long parseLowerHexId(String id, String idName, int maxLength, long[] highBitsOut) {
+        if (id == null) {
+            throw new IllegalArgumentException(idName + " == null");
+        }
+        int length = id.length();
+        if (length == 0) {
+            throw new IllegalArgumentException(idName + " is empty");
+        }
+        if (length > maxLength) {
+            throw new IllegalArgumentException(idName + ".length > " + maxLength);
+        }
+
+        int lowStart = Math.max(0, length - 16);
+        highBitsOut[0] = (lowStart == 0) ? 0 : parseLowerHex(id, idName, 0, lowStart);
+        return parseLowerHex(id, idName, lowStart, length);
+    }
+
+    private static long parseLowerHex(String id, String idName, int start, int end) {
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            char c = id.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            }
+            else if (c >= 'a' && c <= 'f') {
+                digit = c - 'a' + 10;
+            }
+            else {
+                throw new IllegalArgumentException(idName + " should be lower-hex encoded with no prefix");
+            }
+            result = (result << 4) | digit;
+        }
+        return result;
+    }
+
+    /**
+     * The normalized Zipkin field values for the span currently being encoded. The tag and annotation arrays are
+     * reused from span to span (they're owned by a pooled {@link EncodingBuffer}), and are sorted the same way
+     * {@link zipkin2.Span} sorts them.
+     */
+    protected static class SpanFields {
+        protected long traceIdHigh;
+        protected long traceIdLow;
+        protected boolean hasParentId;
+        protected long parentId;
+        protected long id;
+        protected zipkin2.Span.Kind kind;
+        protected String name;
+        protected long timestampMicros;
+        protected long durationMicros;
+
+        protected int tagCount;
+        protected String[] tagKeys = new String[8];
+        protected String[] tagValues = new String[8];
+
+        protected int annotationCount;
+        protected long[] annotationTimestamps = new long[4];
+        protected String[] annotationValues = new String[4];
+
+        protected final long[] highBitsScratch = new long[1];
+
+        protected void populate(Span wingtipsSpan, WingtipsToZipkinSpanConverterDefaultImpl converter) {
+            Long durationNanos = wingtipsSpan.getDurationNanos();
+            if (durationNanos == null) {
+                throw new IllegalArgumentException("Cannot encode a span that has not been completed");
+            }
+
+            // Same ID handling as WingtipsToZipkinSpanConverterDefaultImpl - numeric IDs were generated by Wingtips
+            //      and are always valid, string IDs go through the sanitization check.
+            String spanId = (wingtipsSpan.hasNumericSpanId())
+                            ? null
+                            : converter.sanitizeIdIfNecessary(wingtipsSpan.getSpanId(), false);
+            String traceId = (wingtipsSpan.hasNumericTraceId())
+                             ? null
+                             : converter.sanitizeIdIfNecessary(wingtipsSpan.getTraceId(), true);
+            String parentSpanId = (wingtipsSpan.hasNumericParentSpanId())
+                                  ? null
+                                  : converter.sanitizeIdIfNecessary(wingtipsSpan.getParentSpanId(), false);
+
+            if (wingtipsSpan.hasNumericTraceId()) {
+                traceIdHigh = wingtipsSpan.getTraceIdHigh();
+                traceIdLow = wingtipsSpan.getTraceIdLow();
+            }
+            else {
+                traceIdLow = parseLowerHexId(traceId, "traceId", 32, highBitsScratch);
+                traceIdHigh = highBitsScratch[0];
+            }
+            if (traceIdHigh == 0 && traceIdLow == 0) {
+                throw new IllegalArgumentException("traceId is all zeros");
+            }
+
+            id = (wingtipsSpan.hasNumericSpanId())
+                 ? wingtipsSpan.getSpanIdAsLong()
+                 : parseLowerHexId(spanId, "id", 16, highBitsScratch);
+
+            if (wingtipsSpan.hasNumericParentSpanId()) {
+                parentId = wingtipsSpan.getParentSpanIdAsLong();
+            }
+            else {
+                parentId = (parentSpanId == null) ? 0 : parseLowerHexId(parentSpanId, "parentId", 16, highBitsScratch);
+            }
+            // Zipkin treats an all-zeros parent ID the same as no parent.
+            hasParentId = (parentId != 0);
+
+            kind = converter.determineZipkinKind(wingtipsSpan);
+            name = normalizeName(wingtipsSpan.getSpanName());
+            timestampMicros = wingtipsSpan.getSpanStartTimeEpochMicros();
+            durationMicros = TimeUnit.NANOSECONDS.toMicros(durationNanos);
+
+            for (Map.Entry<String, String> tagEntry : wingtipsSpan.getTags().entrySet()) {
+                putTag(tagEntry.getKey(), tagEntry.getValue());
+            }
+            if (spanId != null && !spanId.equals(wingtipsSpan.getSpanId())) {
+                putTag("invalid.span_id", wingtipsSpan.getSpanId());
+                wingtipsSpan.putTag("sanitized_span_id", spanId);
+            }
+            if (traceId != null && !traceId.equals(wingtipsSpan.getTraceId())) {
+                putTag("invalid.trace_id", wingtipsSpan.getTraceId());
+                wingtipsSpan.putTag("sanitized_trace_id", traceId);
+            }
+            if (parentSpanId != null && !parentSpanId.equals(wingtipsSpan.getParentSpanId())) {
+                putTag("invalid.parent_id", wingtipsSpan.getParentSpanId());
+                wingtipsSpan.putTag("sanitized_parent_id", parentSpanId);
+            }
+
+            List<TimestampedAnnotation> annotations = wingtipsSpan.getTimestampedAnnotations();
+            for (int i = 0, size = annotations.size(); i < size; i++) {
+                TimestampedAnnotation annotation = annotations.get(i);
+                addAnnotation(annotation.getTimestampEpochMicros(), annotation.getValue());
+            }
+        }
+
+        protected static String normalizeName(String name) {
+            if (name == null || name.isEmpty()) {
+                return null;
+            }
+            // Zipkin lowercases span names. Avoid allocating a new string in the common case that it's already
+            //      lowercase.
+            for (int i = 0, length = name.length(); i < length; i++) {
+                char c = name.charAt(i);
+                if (c >= 'A' && c <= 'Z' || c >= 0x80) {
+                    return name.toLowerCase(Locale.ROOT);
+                }
+            }
+            return name;
+        }
+
+        /**
+         * Inserts the given tag in key order, replacing the value of any existing tag with the same key.
+         */
+        protected void putTag(String key, String value) {
+            if (key == null) {
+                key = "NULL_KEY";
+            }
+            if (value == null) {
+                value = "NULL_VALUE";
+            }
+
+            int insertAt = tagCount;
+            while (insertAt > 0) {
+                int comparison = tagKeys[insertAt - 1].compareTo(key);
+                if (comparison == 0) {
+                    tagValues[insertAt - 1] = value;
+                    return;
+                }
+                if (comparison < 0) {
+                    break;
+                }
+                insertAt--;
+            }
+
+            if (tagCount == tagKeys.length) {
+                tagKeys = Arrays.copyOf(tagKeys, tagCount * 2);
+                tagValues = Arrays.copyOf(tagValues, tagCount * 2);
+            }
+            System.arraycopy(tagKeys, insertAt, tagKeys, insertAt + 1, tagCount - insertAt);
+            System.arraycopy(tagValues, insertAt, tagValues, insertAt + 1, tagCount - insertAt);
+            tagKeys[insertAt] = key;
+            tagValues[insertAt] = value;
+            tagCount++;
+        }
+
+        /**
+         * Inserts the given annotation ordered by timestamp and then value.
+         */
+        protected void addAnnotation(long timestamp, String value) {
+            if (value == null) {
+                value = "NULL_VALUE";
+            }
+
+            int insertAt = annotationCount;
+            while (insertAt > 0) {
+                long previousTimestamp = annotationTimestamps[insertAt - 1];
+                if (previousTimestamp < timestamp
+                    || (previousTimestamp == timestamp && annotationValues[insertAt - 1].compareTo(value) <= 0)) {
+                    break;
+                }
+                insertAt--;
+            }
+
+            if (annotationCount == annotationValues.length) {
+                annotationTimestamps = Arrays.copyOf(annotationTimestamps, annotationCount * 2);
+                annotationValues = Arrays.copyOf(annotationValues, annotationCount * 2);
+            }
+            System.arraycopy(
+                annotationTimestamps, insertAt, annotationTimestamps, insertAt + 1, annotationCount - insertAt
+            );
+            System.arraycopy(annotationValues, insertAt, annotationValues, insertAt + 1, annotationCount - insertAt);
+            annotationTimestamps[insertAt] = timestamp;
+            annotationValues[insertAt] = value;
+            annotationCount++;
+        }
+
+        /**
+         * Drops references to the last span's strings so a pooled instance doesn't keep them reachable.
+         */
+        protected void clear() {
+            Arrays.fill(tagKeys, 0, tagCount, null);
+            Arrays.fill(tagValues, 0, tagCount, null);
+            Arrays.fill(annotationValues, 0, annotationCount, null);
+            tagCount = 0;
+            annotationCount = 0;
+            name = null;
+            kind = null;
+        }
+    }
+
+    /**
+     * A simple growable byte buffer with the primitive writes needed for Zipkin JSON and PROTO3. One of these is
+     * pooled per thread per encoder.
+     */
+    protected static class EncodingBuffer {
+        protected byte[] bytes;
+        protected int position;
+        protected final SpanFields spanFields = new SpanFields();
+
+        protected EncodingBuffer(int initialSize) {
+            this.bytes = new byte[initialSize];
+        }
+
+        protected void ensureCapacity(int additionalBytes) {
+            int required = position + additionalBytes;
+            if (required > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length * 2));
+            }
+        }
+
+        protected byte[] toByteArray(int start, int end) {
+            return Arrays.copyOfRange(bytes, start, end);
+        }
+
+        protected void writeByte(int b) {
+            ensureCapacity(1);
+            bytes[position++] = (byte) b;
+        }
+
+        protected void writeBytes(byte[] toWrite) {
+            ensureCapacity(toWrite.length);
+            System.arraycopy(toWrite, 0, bytes, position, toWrite.length);
+            position += toWrite.length;
+        }
+
+        /**
+         * Writes the given string, which must only contain ASCII characters.
+         */
+        protected void writeAscii(String value) {
+            int length = value.length();
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                bytes[position++] = (byte) value.charAt(i);
+            }
+        }
+
+        protected void writeLowerHex(long value) {
+            ensureCapacity(16);
+            for (int shift = 60; shift >= 0; shift -= 4) {
+                bytes[position++] = HEX_DIGITS[(int) (value >>> shift) & 0xF];
+            }
+        }
+
+        protected void writeDecimal(long value) {
+            if (value < 0) {
+                writeAscii(Long.toString(value));
+                return;
+            }
+
+            int numDigits = 1;
+            for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+                numDigits++;
+            }
+            ensureCapacity(numDigits);
+            int digitPosition = position + numDigits;
+            do {
+                bytes[--digitPosition] = (byte) ('0' + (value % 10));
+                value /= 10;
+            }
+            while (value > 0);
+            position += numDigits;
+        }
+
+        protected void writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[position++] = (byte) value;
+        }
+
+        protected void writeLongBigEndian(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        protected void writeLongLittleEndian(long value) {
+            ensureCapacity(8);
+            for (int shift = 0; shift < 64; shift += 8) {
+                bytes[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        protected void writeUtf8(String value) {
+            int length = value.length();
+            ensureCapacity(length * 3);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes[position++] = (byte) c;
+                }
+                else {
+                    i = writeNonAsciiUtf8(value, i, c);
+                }
+            }
+        }
+
+        /**
+         * Writes the given string UTF-8 encoded, with the same JSON escaping as Zipkin's JSON encoder.
+         */
+        protected void writeJsonEscapedUtf8(String value) {
+            int length = value.length();
+            // Worst case is 6 bytes per char for a unicode escape.
+            ensureCapacity(length * 6);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    if (c >= 0x20 && c != '"' && c != '\\') {
+                        bytes[position++] = (byte) c;
+                        continue;
+                    }
+                    bytes[position++] = '\\';
+                    switch (c) {
+                        case '"':
+                        case '\\':
+                            bytes[position++] = (byte) c;
+                            break;
+                        case '\b':
+                            bytes[position++] = 'b';
+                            break;
+                        case '\t':
+                            bytes[position++] = 't';
+                            break;
+                        case '\n':
+                            bytes[position++] = 'n';
+                            break;
+                        case '\f':
+                            bytes[position++] = 'f';
+                            break;
+                        case '\r':
+                            bytes[position++] = 'r';
+                            break;
+                        default:
+                            writeUnicodeEscapeSuffix(c);
+                    }
+                }
+                else if (c == '\u2028' || c == '\u2029') {
+                    bytes[position++] = '\\';
+                    writeUnicodeEscapeSuffix(c);
+                }
+                else {
+                    i = writeNonAsciiUtf8(value, i, c);
+                }
+            }
+        }
+
+        private void writeUnicodeEscapeSuffix(char c) {
+            bytes[position++] = 'u';
+            bytes[position++] = HEX_DIGITS[(c >>> 12) & 0xF];
+            bytes[position++] = HEX_DIGITS[(c >>> 8) & 0xF];
+            bytes[position++] = HEX_DIGITS[(c >>> 4) & 0xF];
+            bytes[position++] = HEX_DIGITS[c & 0xF];
+        }
+
+        /**
+         * Writes the given non-ASCII char (and its low surrogate if it's the start of a surrogate pair). Capacity must
+         * already have been ensured.
+         *
+         * @return The index of the last char consumed.
+         */
+        private int writeNonAsciiUtf8(String value, int index, char c) {
+            if (c < 0x800) {
+                bytes[position++] = (byte) (0xC0 | (c >> 6));
+                bytes[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+            else if (Character.isHighSurrogate(c)
+                     && index + 1 < value.length()
+                     && Character.isLowSurrogate(value.charAt(index + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+                bytes[position++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                return index + 1;
+            }
+            else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate - not representable in UTF-8.
+                bytes[position++] = '?';
+            }
+            else {
+                bytes[position++] = (byte) (0xE0 | (c >> 12));
+                bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+            return index;
+        }
+    }
+}
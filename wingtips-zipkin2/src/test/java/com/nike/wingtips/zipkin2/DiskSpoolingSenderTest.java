@@ -0,0 +1,360 @@
+package com.nike.wingtips.zipkin2;
+
+import com.nike.wingtips.zipkin2.util.MappedFileSpanSpool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import zipkin2.Call;
+import zipkin2.CheckResult;
+import zipkin2.codec.Encoding;
+import zipkin2.reporter.Sender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link DiskSpoolingSender}.
+ */
+public class DiskSpoolingSenderTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private StubSender stubSender;
+    private File spoolDir;
+    private DiskSpoolingSender spoolingSender;
+
+    @Before
+    public void beforeMethod() throws IOException {
+        stubSender = new StubSender();
+        spoolDir = tempFolder.newFolder();
+        spoolingSender = newSpoolingSender(TimeUnit.HOURS.toMillis(1));
+    }
+
+    @After
+    public void afterMethod() throws IOException {
+        spoolingSender.close();
+    }
+
+    private DiskSpoolingSender newSpoolingSender(long replayIntervalMillis) throws IOException {
+        return DiskSpoolingSender.newBuilder(stubSender, spoolDir)
+                                 .withSegmentSizeBytes(1024)
+                                 .withMaxSpoolSizeBytes(8192)
+                                 .withReplayIntervalMillis(replayIntervalMillis)
+                                 .withMaxSpansPerReplayMessage(2)
+                                 .build();
+    }
+
+    private static List<byte[]> spans(String... values) {
+        List<byte[]> result = new ArrayList<>();
+        for (String value : values) {
+            result.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    /**
+     * A {@link Sender} that records what it sends and can be told to fail, to simulate a collector outage, or to
+     * reject any message containing a particular span, to simulate a collector that's up but refuses a message.
+     */
+    private static class StubSender extends Sender {
+        volatile boolean failing = false;
+        volatile String rejectedSpan = null;
+        final List<String> sentSpans = new ArrayList<>();
+        final List<Integer> sentMessageSizes = new ArrayList<>();
+        boolean closed = false;
+
+        @Override
+        public Encoding encoding() {
+            return Encoding.JSON;
+        }
+
+        @Override
+        public int messageMaxBytes() {
+            return 1000;
+        }
+
+        @Override
+        public int messageSizeInBytes(List<byte[]> encodedSpans) {
+            return Encoding.JSON.listSizeInBytes(encodedSpans);
+        }
+
+        @Override
+        public Call<Void> sendSpans(List<byte[]> encodedSpans) {
+            if (failing) {
+                throw new IllegalStateException("collector is down");
+            }
+            for (byte[] encodedSpan : encodedSpans) {
+                if (new String(encodedSpan, StandardCharsets.UTF_8).equals(rejectedSpan)) {
+                    throw new IllegalArgumentException("collector rejected the message");
+                }
+            }
+            synchronized (sentSpans) {
+                for (byte[] encodedSpan : encodedSpans) {
+                    sentSpans.add(new String(encodedSpan, StandardCharsets.UTF_8));
+                }
+                sentMessageSizes.add(encodedSpans.size());
+            }
+            return Call.create(null);
+        }
+
+        @Override
+        public CheckResult check() {
+            return failing ? CheckResult.failed(new IllegalStateException("down")) : CheckResult.OK;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Test
+    public void sendSpans_passes_through_to_delegate_when_it_is_healthy() throws IOException {
+        // when
+        spoolingSender.sendSpans(spans("a", "b")).execute();
+
+        // then
+        assertThat(stubSender.sentSpans).containsExactly("a", "b");
+        assertThat(spoolingSender.getSpool().isEmpty()).isTrue();
+        assertThat(spoolingSender.isDelegateHealthy()).isTrue();
+    }
+
+    @Test
+    public void sendSpans_spools_spans_when_delegate_fails_and_keeps_spooling_while_it_is_unhealthy() throws IOException {
+        // given
+        stubSender.failing = true;
+
+        // when
+        spoolingSender.sendSpans(spans("a", "b")).execute();
+        stubSender.failing = false;
+        spoolingSender.sendSpans(spans("c")).execute();
+
+        // then
+        assertThat(stubSender.sentSpans).isEmpty();
+        assertThat(spoolingSender.isDelegateHealthy()).isFalse();
+        assertThat(spoolingSender.getSpool().size()).isEqualTo(3);
+        assertThat(spoolingSender.getSpooledSpanCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void replaySpooledSpans_sends_spooled_spans_once_delegate_recovers() throws IOException {
+        // given
+        stubSender.failing = true;
+        spoolingSender.sendSpans(spans("a", "b", "c")).execute();
+
+        // when
+        int replayedWhileDown = spoolingSender.replaySpooledSpans();
+
+        // then
+        assertThat(replayedWhileDown).isZero();
+        assertThat(spoolingSender.getSpool().size()).isEqualTo(3);
+
+        // and when
+        stubSender.failing = false;
+        int replayedAfterRecovery = spoolingSender.replaySpooledSpans();
+
+        // then
+        assertThat(replayedAfterRecovery).isEqualTo(3);
+        assertThat(stubSender.sentSpans).containsExactly("a", "b", "c");
+        // Replay messages are limited to maxSpansPerReplayMessage.
+        assertThat(stubSender.sentMessageSizes).containsExactly(2, 1);
+        assertThat(spoolingSender.getSpool().isEmpty()).isTrue();
+        assertThat(spoolingSender.isDelegateHealthy()).isTrue();
+        assertThat(spoolingSender.getReplayedSpanCount()).isEqualTo(3);
+
+        // and when
+        spoolingSender.sendSpans(spans("d")).execute();
+
+        // then
+        assertThat(stubSender.sentSpans).containsExactly("a", "b", "c", "d");
+    }
+
+    @Test
+    public void replaySpooledSpans_drops_a_message_the_collector_keeps_rejecting_and_sends_the_spans_after_it()
+        throws IOException {
+        // given
+        stubSender.rejectedSpan = "bad";
+        spoolingSender.sendSpans(spans("bad", "b")).execute();
+        spoolingSender.sendSpans(spans("c")).execute();
+        assertThat(spoolingSender.getSpool().size()).isEqualTo(3);
+
+        // when
+        for (int i = 1; i < DiskSpoolingSender.DEFAULT_MAX_REPLAY_ATTEMPTS_PER_REJECTED_MESSAGE; i++) {
+            assertThat(spoolingSender.replaySpooledSpans()).isZero();
+        }
+
+        // then
+        assertThat(spoolingSender.getDroppedSpanCount()).isZero();
+        assertThat(spoolingSender.getSpool().size()).isEqualTo(3);
+
+        // and when
+        int replayed = spoolingSender.replaySpooledSpans();
+
+        // then
+        assertThat(replayed).isEqualTo(1);
+        assertThat(stubSender.sentSpans).containsExactly("c");
+        assertThat(spoolingSender.getDroppedSpanCount()).isEqualTo(2);
+        assertThat(spoolingSender.getSpool().isEmpty()).isTrue();
+        assertThat(spoolingSender.isDelegateHealthy()).isTrue();
+
+        // and when
+        spoolingSender.sendSpans(spans("d")).execute();
+
+        // then
+        assertThat(stubSender.sentSpans).containsExactly("c", "d");
+    }
+
+    @Test
+    public void replaySpooledSpans_never_drops_spans_while_the_collector_is_unavailable() throws IOException {
+        // given
+        stubSender.failing = true;
+        spoolingSender.sendSpans(spans("a", "b")).execute();
+
+        // when
+        for (int i = 0; i < DiskSpoolingSender.DEFAULT_MAX_REPLAY_ATTEMPTS_PER_REJECTED_MESSAGE * 2; i++) {
+            spoolingSender.replaySpooledSpans();
+        }
+
+        // then
+        assertThat(spoolingSender.getDroppedSpanCount()).isZero();
+        assertThat(spoolingSender.getSpool().size()).isEqualTo(2);
+    }
+
+    @Test
+    public void background_thread_replays_spooled_spans() throws IOException, InterruptedException {
+        // given
+        spoolingSender.close();
+        spoolingSender = newSpoolingSender(10);
+        stubSender.failing = true;
+        spoolingSender.sendSpans(spans("a", "b")).execute();
+        stubSender.failing = false;
+
+        // when
+        long giveUpTimeMillis = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!spoolingSender.getSpool().isEmpty() && System.currentTimeMillis() < giveUpTimeMillis) {
+            Thread.sleep(10);
+        }
+
+        // then
+        assertThat(spoolingSender.getSpool().isEmpty()).isTrue();
+        synchronized (stubSender.sentSpans) {
+            assertThat(stubSender.sentSpans).containsExactly("a", "b");
+        }
+    }
+
+    @Test
+    public void spooled_spans_survive_a_restart() throws IOException {
+        // given
+        stubSender.failing = true;
+        spoolingSender.sendSpans(spans("a", "b")).execute();
+        spoolingSender.close();
+        stubSender.failing = false;
+
+        // when
+        spoolingSender = newSpoolingSender(TimeUnit.HOURS.toMillis(1));
+        spoolingSender.replaySpooledSpans();
+
+        // then
+        assertThat(stubSender.sentSpans).containsExactly("a", "b");
+    }
+
+    @Test
+    public void enqueue_spools_and_reports_success_when_delegate_fails() {
+        // given
+        stubSender.failing = true;
+        List<Object> callbackResults = new ArrayList<>();
+
+        // when
+        spoolingSender.sendSpans(spans("a")).enqueue(new zipkin2.Callback<Void>() {
+            @Override
+            public void onSuccess(Void value) {
+                callbackResults.add("success");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                callbackResults.add(t);
+            }
+        });
+
+        // then
+        assertThat(callbackResults).containsExactly("success");
+        assertThat(spoolingSender.getSpool().size()).isEqualTo(1);
+    }
+
+    @Test
+    public void sender_methods_delegate_and_close_closes_delegate() throws IOException {
+        // expect
+        assertThat(spoolingSender.encoding()).isEqualTo(stubSender.encoding());
+        assertThat(spoolingSender.messageMaxBytes()).isEqualTo(stubSender.messageMaxBytes());
+        List<byte[]> message = spans("a", "bb");
+        assertThat(spoolingSender.messageSizeInBytes(message)).isEqualTo(stubSender.messageSizeInBytes(message));
+        assertThat(spoolingSender.messageSizeInBytes(42)).isEqualTo(stubSender.messageSizeInBytes(42));
+        assertThat(spoolingSender.check()).isSameAs(CheckResult.OK);
+
+        // and when
+        spoolingSender.close();
+
+        // then
+        assertThat(stubSender.closed).isTrue();
+        assertThat(spoolingSender.replayThread.isAlive()).isFalse();
+    }
+
+    @Test
+    public void builder_throws_IllegalArgumentException_for_invalid_args() throws IOException {
+        // given
+        MappedFileSpanSpool spool = new MappedFileSpanSpool(tempFolder.newFolder(), 1024, 4096);
+
+        // expect
+        assertThat(catchThrowable(() -> DiskSpoolingSender.newBuilder(null, spoolDir).build()))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> DiskSpoolingSender.newBuilder(stubSender, (File) null).build()))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> DiskSpoolingSender.newBuilder(stubSender, (MappedFileSpanSpool) null)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(
+            () -> DiskSpoolingSender.newBuilder(stubSender, spool).withReplayIntervalMillis(0).build()
+        )).isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(
+            () -> DiskSpoolingSender.newBuilder(stubSender, spool).withMaxSpansPerReplayMessage(0).build()
+        )).isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(
+            () -> DiskSpoolingSender.newBuilder(stubSender, spool).withMaxReplayAttemptsPerRejectedMessage(0).build()
+        )).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void newBuilder_with_existing_spool_uses_that_spool() throws IOException {
+        // given
+        MappedFileSpanSpool spool = new MappedFileSpanSpool(tempFolder.newFolder(), 1024, 4096);
+
+        // when
+        DiskSpoolingSender sender = DiskSpoolingSender.newBuilder(stubSender, spool).build();
+
+        // then
+        try {
+            assertThat(sender.getSpool()).isSameAs(spool);
+            assertThat(Arrays.asList(sender.replayIntervalMillis, (long) sender.maxSpansPerReplayMessage))
+                .containsExactly(
+                    DiskSpoolingSender.DEFAULT_REPLAY_INTERVAL_MILLIS,
+                    (long) DiskSpoolingSender.DEFAULT_MAX_SPANS_PER_REPLAY_MESSAGE
+                );
+        }
+        finally {
+            sender.close();
+        }
+    }
+}
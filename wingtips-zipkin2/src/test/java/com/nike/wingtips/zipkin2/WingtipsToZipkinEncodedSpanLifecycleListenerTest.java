@@ -0,0 +1,276 @@
+package com.nike.wingtips.zipkin2;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.testutil.Whitebox;
+import com.nike.wingtips.zipkin2.util.PreEncodedSpanBytesEncoder;
+import com.nike.wingtips.zipkin2.util.WingtipsToZipkinSpanConverterDefaultImpl;
+import com.nike.wingtips.zipkin2.util.WingtipsToZipkinSpanEncoder;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import zipkin2.Call;
+import zipkin2.Endpoint;
+import zipkin2.codec.Encoding;
+import zipkin2.codec.SpanBytesDecoder;
+import zipkin2.reporter.AsyncReporter;
+import zipkin2.reporter.Reporter;
+import zipkin2.reporter.Sender;
+
+import static com.nike.wingtips.zipkin2.WingtipsToZipkinEncodedSpanLifecycleListener.MIN_SPAN_HANDLING_ERROR_LOG_INTERVAL_MILLIS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+/**
+ * Tests the functionality of {@link WingtipsToZipkinEncodedSpanLifecycleListener}.
+ */
+@RunWith(DataProviderRunner.class)
+public class WingtipsToZipkinEncodedSpanLifecycleListenerTest {
+
+    private WingtipsToZipkinEncodedSpanLifecycleListener listener;
+    private WingtipsToZipkinSpanEncoder spanEncoderMock;
+    private Reporter<byte[]> reporterMock;
+    private Span spanMock;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void beforeMethod() {
+        spanEncoderMock = mock(WingtipsToZipkinSpanEncoder.class);
+        reporterMock = mock(Reporter.class);
+        listener = new WingtipsToZipkinEncodedSpanLifecycleListener(spanEncoderMock, reporterMock);
+
+        spanMock = mock(Span.class);
+        doReturn(true).when(spanMock).isSampleable();
+    }
+
+    private static Span completedSpan(String spanName) {
+        return Span.newBuilder(spanName, Span.SpanPurpose.SERVER)
+                   .withDurationNanos(TimeUnit.MILLISECONDS.toNanos(42))
+                   .withTag("foo", "bar")
+                   .build();
+    }
+
+    /**
+     * A {@link Sender} that records the messages it's asked to send.
+     */
+    private static class RecordingSender extends Sender {
+        private final Encoding encoding;
+        private final List<byte[]> sentMessages = new ArrayList<>();
+
+        RecordingSender(Encoding encoding) {
+            this.encoding = encoding;
+        }
+
+        @Override
+        public Encoding encoding() {
+            return encoding;
+        }
+
+        @Override
+        public int messageMaxBytes() {
+            return 500_000;
+        }
+
+        @Override
+        public int messageSizeInBytes(List<byte[]> encodedSpans) {
+            return encoding.listSizeInBytes(encodedSpans);
+        }
+
+        @Override
+        public Call<Void> sendSpans(List<byte[]> encodedSpans) {
+            synchronized (sentMessages) {
+                sentMessages.add(PreEncodedSpanBytesEncoder.forEncoding(encoding).encodeList(encodedSpans));
+            }
+            return Call.create(null);
+        }
+    }
+
+    @Test
+    public void kitchen_sink_constructor_sets_fields_as_expected() {
+        // expect
+        assertThat(listener.zipkinSpanEncoder).isSameAs(spanEncoderMock);
+        assertThat(listener.encodedSpanReporter).isSameAs(reporterMock);
+    }
+
+    @Test
+    public void kitchen_sink_constructor_throws_IllegalArgumentException_for_null_args() {
+        // expect
+        assertThat(catchThrowable(() -> new WingtipsToZipkinEncodedSpanLifecycleListener(null, reporterMock)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> new WingtipsToZipkinEncodedSpanLifecycleListener(spanEncoderMock, null)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DataProvider(value = {
+        "JSON",
+        "PROTO3"
+    })
+    @Test
+    public void convenience_constructor_encodes_and_sends_spans_through_the_given_sender(
+        Encoding encoding
+    ) throws InterruptedException {
+        // given
+        String serviceName = UUID.randomUUID().toString();
+        RecordingSender sender = new RecordingSender(encoding);
+        WingtipsToZipkinEncodedSpanLifecycleListener listener =
+            new WingtipsToZipkinEncodedSpanLifecycleListener(serviceName, sender);
+        Span span1 = completedSpan("span1");
+        Span span2 = completedSpan("span2");
+        Endpoint expectedEndpoint = Endpoint.newBuilder().serviceName(serviceName).build();
+        WingtipsToZipkinSpanConverterDefaultImpl converter = new WingtipsToZipkinSpanConverterDefaultImpl();
+
+        // when
+        listener.spansCompleted(Arrays.asList(span1, span2));
+
+        // then
+        assertThat(listener.zipkinSpanEncoder.encoding()).isEqualTo(encoding);
+        // The AsyncReporter flushes on a background thread as well as when we ask it to, and its message buffering
+        //      can leave spans for a subsequent flush, so keep flushing until everything has been sent (or we give up).
+        SpanBytesDecoder decoder = (encoding == Encoding.JSON) ? SpanBytesDecoder.JSON_V2 : SpanBytesDecoder.PROTO3;
+        List<zipkin2.Span> decoded = new ArrayList<>();
+        long giveUpTimeMillis = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (decoded.size() < 2 && System.currentTimeMillis() < giveUpTimeMillis) {
+            ((AsyncReporter<byte[]>) listener.encodedSpanReporter).flush();
+            decoded.clear();
+            synchronized (sender.sentMessages) {
+                for (byte[] message : sender.sentMessages) {
+                    decoded.addAll(decoder.decodeList(message));
+                }
+            }
+            if (decoded.size() < 2) {
+                Thread.sleep(10);
+            }
+        }
+        assertThat(decoded).containsExactly(
+            converter.convertWingtipsSpanToZipkinSpan(span1, expectedEndpoint),
+            converter.convertWingtipsSpanToZipkinSpan(span2, expectedEndpoint)
+        );
+    }
+
+    @Test
+    public void generatePreEncodedZipkinReporter_throws_IllegalArgumentException_for_THRIFT_sender() {
+        // when
+        Throwable ex = catchThrowable(
+            () -> WingtipsToZipkinEncodedSpanLifecycleListener.generatePreEncodedZipkinReporter(
+                new RecordingSender(Encoding.THRIFT)
+            )
+        );
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void spanStarted_and_spanSampled_do_nothing() {
+        // when
+        listener.spanStarted(spanMock);
+        listener.spanSampled(spanMock);
+
+        // then
+        verifyNoInteractions(spanEncoderMock, reporterMock, spanMock);
+    }
+
+    @Test
+    public void spanCompleted_encodes_span_and_passes_it_to_reporter() {
+        // given
+        byte[] encodedSpan = new byte[]{1, 2, 3};
+        doReturn(encodedSpan).when(spanEncoderMock).encode(spanMock);
+
+        // when
+        listener.spanCompleted(spanMock);
+
+        // then
+        verify(reporterMock).report(encodedSpan);
+    }
+
+    @Test
+    public void spanCompleted_does_nothing_if_span_is_not_sampleable() {
+        // given
+        doReturn(false).when(spanMock).isSampleable();
+
+        // when
+        listener.spanCompleted(spanMock);
+
+        // then
+        verify(spanMock).isSampleable();
+        verifyNoMoreInteractions(spanMock);
+        verifyNoInteractions(spanEncoderMock, reporterMock);
+    }
+
+    @Test
+    public void spansCompleted_keeps_going_when_a_span_in_the_batch_fails() {
+        // given
+        Span secondSpanMock = mock(Span.class);
+        doReturn(true).when(secondSpanMock).isSampleable();
+        byte[] secondEncodedSpan = new byte[]{4, 5, 6};
+        doThrow(new IllegalArgumentException("kaboom")).when(spanEncoderMock).encode(spanMock);
+        doReturn(secondEncodedSpan).when(spanEncoderMock).encode(secondSpanMock);
+
+        // when
+        Throwable ex = catchThrowable(() -> listener.spansCompleted(Arrays.asList(spanMock, secondSpanMock)));
+
+        // then
+        assertThat(ex).isNull();
+        verify(reporterMock).report(secondEncodedSpan);
+        verifyNoMoreInteractions(reporterMock);
+        assertThat(listener.spanHandlingErrorCounter.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void spanCompleted_logs_error_during_handling_if_time_since_last_log_is_greater_than_MIN_SPAN_HANDLING_ERROR_LOG_INTERVAL_MILLIS() {
+        // given
+        Logger loggerMock = mock(Logger.class);
+        Whitebox.setInternalState(listener, "zipkinConversionOrReportingErrorLogger", loggerMock);
+        long lastLogTimeToSet = System.currentTimeMillis() - (MIN_SPAN_HANDLING_ERROR_LOG_INTERVAL_MILLIS + 10);
+        Whitebox.setInternalState(listener, "lastSpanHandlingErrorLogTimeEpochMillis", lastLogTimeToSet);
+        Throwable ex = new RuntimeException("kaboom");
+        doThrow(ex).when(reporterMock).report(any());
+
+        // when
+        long before = System.currentTimeMillis();
+        listener.spanCompleted(spanMock);
+        long after = System.currentTimeMillis();
+
+        // then
+        verify(loggerMock).warn(anyString(), anyLong(), any(), anyString(), eq(ex));
+        assertThat(listener.lastSpanHandlingErrorLogTimeEpochMillis).isBetween(before, after);
+    }
+
+    @Test
+    public void spanCompleted_does_not_log_an_error_during_handling_if_time_since_last_log_is_less_than_MIN_SPAN_HANDLING_ERROR_LOG_INTERVAL_MILLIS() {
+        // given
+        Logger loggerMock = mock(Logger.class);
+        Whitebox.setInternalState(listener, "zipkinConversionOrReportingErrorLogger", loggerMock);
+        long lastLogTimeToSet = System.currentTimeMillis() - (MIN_SPAN_HANDLING_ERROR_LOG_INTERVAL_MILLIS - 1000);
+        Whitebox.setInternalState(listener, "lastSpanHandlingErrorLogTimeEpochMillis", lastLogTimeToSet);
+        doThrow(new RuntimeException("kaboom")).when(reporterMock).report(any());
+
+        // when
+        listener.spanCompleted(spanMock);
+
+        // then
+        verifyNoInteractions(loggerMock);
+        assertThat(listener.lastSpanHandlingErrorLogTimeEpochMillis).isEqualTo(lastLogTimeToSet);
+    }
+}
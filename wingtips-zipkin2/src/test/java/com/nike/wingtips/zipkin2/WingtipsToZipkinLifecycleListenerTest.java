@@ -15,6 +15,9 @@ import org.slf4j.Logger;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 import zipkin2.Endpoint;
@@ -32,6 +35,7 @@ import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -215,4 +219,107 @@ public class WingtipsToZipkinLifecycleListenerTest {
         verifyNoMoreInteractions(spanMock);
         verifyNoInteractions(listener.zipkinSpanConverter, listener.zipkinSpanReporter);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void spansCompleted_converts_and_reports_every_sampleable_span_in_order() {
+        // given
+        Span notSampleableSpanMock = mock(Span.class);
+        doReturn(false).when(notSampleableSpanMock).isSampleable();
+        Span secondSpanMock = mock(Span.class);
+        doReturn(true).when(secondSpanMock).isSampleable();
+
+        zipkin2.Span firstZipkinSpan = zipkin2.Span.newBuilder().traceId("42").id("4242").name("foo").build();
+        zipkin2.Span secondZipkinSpan = zipkin2.Span.newBuilder().traceId("42").id("4243").name("bar").build();
+        doReturn(firstZipkinSpan).when(spanConverterMock).convertWingtipsSpanToZipkinSpan(spanMock, listener.zipkinEndpoint);
+        doReturn(secondZipkinSpan).when(spanConverterMock).convertWingtipsSpanToZipkinSpan(secondSpanMock, listener.zipkinEndpoint);
+
+        // when
+        listener.spansCompleted(Arrays.asList(spanMock, notSampleableSpanMock, secondSpanMock));
+
+        // then
+        verify(spanConverterMock).convertWingtipsSpanToZipkinSpan(spanMock, listener.zipkinEndpoint);
+        verify(spanConverterMock).convertWingtipsSpanToZipkinSpan(secondSpanMock, listener.zipkinEndpoint);
+        verifyNoMoreInteractions(spanConverterMock);
+        verify(spanReporterMock).report(firstZipkinSpan);
+        verify(spanReporterMock).report(secondZipkinSpan);
+        verifyNoMoreInteractions(spanReporterMock);
+    }
+
+    @Test
+    public void spansCompleted_keeps_going_when_a_span_in_the_batch_fails() {
+        // given
+        Span secondSpanMock = mock(Span.class);
+        doReturn(true).when(secondSpanMock).isSampleable();
+        zipkin2.Span secondZipkinSpan = zipkin2.Span.newBuilder().traceId("42").id("4243").name("bar").build();
+        doThrow(new RuntimeException("kaboom")).when(spanConverterMock).convertWingtipsSpanToZipkinSpan(spanMock, listener.zipkinEndpoint);
+        doReturn(secondZipkinSpan).when(spanConverterMock).convertWingtipsSpanToZipkinSpan(secondSpanMock, listener.zipkinEndpoint);
+
+        // when
+        Throwable ex = catchThrowable(() -> listener.spansCompleted(Arrays.asList(spanMock, secondSpanMock)));
+
+        // then
+        assertThat(ex).isNull();
+        verify(spanReporterMock).report(secondZipkinSpan);
+        verifyNoMoreInteractions(spanReporterMock);
+        assertThat(listener.spanHandlingErrorCounter.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void spansCompleted_with_default_converter_produces_same_zipkin_spans_as_spanCompleted() {
+        // given
+        List<zipkin2.Span> singleReported = new ArrayList<>();
+        List<zipkin2.Span> batchReported = new ArrayList<>();
+        WingtipsToZipkinLifecycleListener singleListener = new WingtipsToZipkinLifecycleListener(
+            serviceName, new WingtipsToZipkinSpanConverterDefaultImpl(), singleReported::add
+        );
+        WingtipsToZipkinLifecycleListener batchListener = new WingtipsToZipkinLifecycleListener(
+            serviceName, new WingtipsToZipkinSpanConverterDefaultImpl(), batchReported::add
+        );
+
+        List<Span> spans = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Span span = Span.generateRootSpanForNewTrace("span-" + i, Span.SpanPurpose.CLIENT)
+                            .withTag("tag-" + i, "value-" + i)
+                            .withTimestampedAnnotation(Span.TimestampedAnnotation.forEpochMicros(i + 1, "annotation-" + i))
+                            .withDurationNanos(1000L * (i + 1))
+                            .build();
+            spans.add(span);
+        }
+
+        // when
+        for (Span span : spans) {
+            singleListener.spanCompleted(span);
+        }
+        batchListener.spansCompleted(spans);
+
+        // then
+        assertThat(batchReported).hasSize(3);
+        assertThat(batchReported).isEqualTo(singleReported);
+        // The builder is reused across the batch, so make sure earlier spans didn't pick up later spans' data.
+        for (int i = 0; i < 3; i++) {
+            assertThat(batchReported.get(i).tags()).containsOnlyKeys("tag-" + i);
+            assertThat(batchReported.get(i).annotations()).hasSize(1);
+        }
+    }
+
+    @Test
+    public void spansCompleted_does_not_use_builder_reuse_path_for_default_converter_subclasses() {
+        // given
+        zipkin2.Span overriddenZipkinSpan = zipkin2.Span.newBuilder().traceId("42").id("4242").name("foo").build();
+        WingtipsToZipkinSpanConverterDefaultImpl converterSubclass = new WingtipsToZipkinSpanConverterDefaultImpl() {
+            @Override
+            public zipkin2.Span convertWingtipsSpanToZipkinSpan(Span wingtipsSpan, Endpoint zipkinEndpoint) {
+                return overriddenZipkinSpan;
+            }
+        };
+        WingtipsToZipkinLifecycleListener batchListener = new WingtipsToZipkinLifecycleListener(
+            serviceName, converterSubclass, spanReporterMock
+        );
+
+        // when
+        batchListener.spansCompleted(Arrays.asList(spanMock, spanMock));
+
+        // then
+        verify(spanReporterMock, times(2)).report(overriddenZipkinSpan);
+    }
+}
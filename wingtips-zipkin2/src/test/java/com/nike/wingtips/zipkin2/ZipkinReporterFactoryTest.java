@@ -0,0 +1,229 @@
+package com.nike.wingtips.zipkin2;
+
+import com.nike.wingtips.testutil.Whitebox;
+import com.nike.wingtips.zipkin2.ZipkinReporterFactory.ShardedReporter;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import zipkin2.codec.Encoding;
+import zipkin2.codec.SpanBytesEncoder;
+import zipkin2.reporter.AsyncReporter;
+import zipkin2.reporter.Reporter;
+import zipkin2.reporter.urlconnection.URLConnectionSender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Tests the functionality of {@link ZipkinReporterFactory}.
+ */
+@RunWith(DataProviderRunner.class)
+public class ZipkinReporterFactoryTest {
+
+    @DataProvider(value = {
+        "http://localhost:4242",
+        "http://localhost:4242/"
+    })
+    @Test
+    public void factory_with_only_base_url_creates_same_reporter_as_the_zipkin_defaults(
+        String baseUrl
+    ) throws MalformedURLException {
+        // given
+        ZipkinReporterFactory factory = ZipkinReporterFactory.newBuilder(baseUrl).build();
+        AsyncReporter<zipkin2.Span> zipkinDefaultReporter =
+            AsyncReporter.create(URLConnectionSender.create("http://localhost:4242/api/v2/spans"));
+
+        // when
+        Reporter<zipkin2.Span> result = factory.createReporter();
+
+        // then
+        assertThat(factory.getNumSenderThreads()).isEqualTo(1);
+        assertThat(factory.getEncoding()).isEqualTo(Encoding.JSON);
+        assertThat(result).isInstanceOf(AsyncReporter.class);
+        Object sender = Whitebox.getInternalState(result, "sender");
+        assertThat(sender).isInstanceOf(URLConnectionSender.class);
+        assertThat(Whitebox.getInternalState(sender, "endpoint"))
+            .isEqualTo(new URL("http://localhost:4242/api/v2/spans"));
+        assertThat(Whitebox.getInternalState(sender, "compressionEnabled")).isEqualTo(true);
+        for (String field : new String[]{"encoder", "messageMaxBytes", "messageTimeoutNanos", "closeTimeoutNanos"}) {
+            assertThat(Whitebox.getInternalState(result, field))
+                .isEqualTo(Whitebox.getInternalState(zipkinDefaultReporter, field));
+        }
+        Object pending = Whitebox.getInternalState(result, "pending");
+        Object defaultPending = Whitebox.getInternalState(zipkinDefaultReporter, "pending");
+        assertThat(Whitebox.getInternalState(pending, "maxSize"))
+            .isEqualTo(Whitebox.getInternalState(defaultPending, "maxSize"));
+        assertThat(Whitebox.getInternalState(pending, "maxBytes"))
+            .isEqualTo(Whitebox.getInternalState(defaultPending, "maxBytes"));
+    }
+
+    @DataProvider(value = {
+        "JSON   |   true",
+        "PROTO3 |   false"
+    }, splitBy = "\\|")
+    @Test
+    public void createReporter_applies_all_settings(Encoding encoding, boolean compressionEnabled) {
+        // given
+        ZipkinReporterFactory factory = ZipkinReporterFactory
+            .newBuilder("http://localhost:4242")
+            .withEncoding(encoding)
+            .withCompressionEnabled(compressionEnabled)
+            .withMessageMaxBytes(123_456)
+            .withMessageTimeoutMillis(42L)
+            .withCloseTimeoutMillis(4242L)
+            .withQueuedMaxSpans(1234)
+            .withQueuedMaxBytes(98_765)
+            .build();
+
+        // when
+        Reporter<zipkin2.Span> result = factory.createReporter();
+
+        // then
+        Object sender = Whitebox.getInternalState(result, "sender");
+        assertThat(Whitebox.getInternalState(sender, "encoding")).isEqualTo(encoding);
+        assertThat(Whitebox.getInternalState(sender, "compressionEnabled")).isEqualTo(compressionEnabled);
+        assertThat(Whitebox.getInternalState(sender, "messageMaxBytes")).isEqualTo(123_456);
+
+        assertThat(Whitebox.getInternalState(result, "encoder"))
+            .isEqualTo((encoding == Encoding.PROTO3) ? SpanBytesEncoder.PROTO3 : SpanBytesEncoder.JSON_V2);
+        assertThat(Whitebox.getInternalState(result, "messageMaxBytes")).isEqualTo(123_456);
+        assertThat(Whitebox.getInternalState(result, "messageTimeoutNanos"))
+            .isEqualTo(TimeUnit.MILLISECONDS.toNanos(42));
+        assertThat(Whitebox.getInternalState(result, "closeTimeoutNanos"))
+            .isEqualTo(TimeUnit.MILLISECONDS.toNanos(4242));
+        Object pending = Whitebox.getInternalState(result, "pending");
+        assertThat(Whitebox.getInternalState(pending, "maxSize")).isEqualTo(1234);
+        assertThat(Whitebox.getInternalState(pending, "maxBytes")).isEqualTo(98_765);
+    }
+
+    @Test
+    public void createReporter_creates_ShardedReporter_with_split_queue_limits_for_multiple_sender_threads() {
+        // given
+        ZipkinReporterFactory factory = ZipkinReporterFactory
+            .newBuilder("http://localhost:4242")
+            .withQueuedMaxSpans(3000)
+            .withQueuedMaxBytes(30_000)
+            .withNumSenderThreads(3)
+            .build();
+
+        // when
+        Reporter<zipkin2.Span> result = factory.createReporter();
+
+        // then
+        assertThat(result).isInstanceOf(ShardedReporter.class);
+        List<? extends Reporter<?>> shards = ((ShardedReporter<?>) result).shards;
+        assertThat(shards).hasSize(3);
+        Object firstSender = Whitebox.getInternalState(shards.get(0), "sender");
+        for (Reporter<?> shard : shards) {
+            assertThat(shard).isInstanceOf(AsyncReporter.class);
+            assertThat(Whitebox.getInternalState(shard, "sender")).isSameAs(firstSender);
+            Object pending = Whitebox.getInternalState(shard, "pending");
+            assertThat(Whitebox.getInternalState(pending, "maxSize")).isEqualTo(1000);
+            assertThat(Whitebox.getInternalState(pending, "maxBytes")).isEqualTo(10_000);
+        }
+    }
+
+    @Test
+    public void builder_throws_IllegalArgumentException_for_invalid_settings() {
+        // expect
+        assertThat(catchThrowable(() -> ZipkinReporterFactory.newBuilder(null).build()))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(
+            () -> ZipkinReporterFactory.newBuilder("http://localhost:4242").withEncoding(Encoding.THRIFT).build()
+        )).isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(
+            () -> ZipkinReporterFactory.newBuilder("http://localhost:4242").withNumSenderThreads(0).build()
+        )).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void ShardedReporter_reports_to_shards_round_robin_even_from_a_single_thread() {
+        // given
+        Reporter<String> shard1 = mock(Reporter.class);
+        Reporter<String> shard2 = mock(Reporter.class);
+        Reporter<String> shard3 = mock(Reporter.class);
+        ShardedReporter<String> shardedReporter = new ShardedReporter<>(Arrays.asList(shard1, shard2, shard3));
+
+        // when
+        for (int i = 0; i < 6; i++) {
+            shardedReporter.report("span-" + i);
+        }
+
+        // then
+        verify(shard1).report("span-0");
+        verify(shard2).report("span-1");
+        verify(shard3).report("span-2");
+        verify(shard1).report("span-3");
+        verify(shard2).report("span-4");
+        verify(shard3).report("span-5");
+        verifyNoMoreInteractions(shard1, shard2, shard3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void ShardedReporter_keeps_using_valid_shards_after_the_counter_wraps_around() {
+        // given
+        Reporter<String> shard1 = mock(Reporter.class);
+        Reporter<String> shard2 = mock(Reporter.class);
+        Reporter<String> shard3 = mock(Reporter.class);
+        ShardedReporter<String> shardedReporter = new ShardedReporter<>(Arrays.asList(shard1, shard2, shard3));
+        shardedReporter.nextShardIndex.set(Integer.MAX_VALUE);
+
+        // when
+        shardedReporter.report("foo");
+        shardedReporter.report("bar");
+
+        // then
+        // Integer.MAX_VALUE % 3 == 1, and the wrapped counter masks to 0.
+        verify(shard2).report("foo");
+        verify(shard1).report("bar");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void ShardedReporter_flush_and_close_pass_through_to_shards_that_support_them() throws IOException {
+        // given
+        Reporter<String> plainShard = mock(Reporter.class);
+        Reporter<String> flushableAndCloseableShard = mock(
+            Reporter.class, withSettings().extraInterfaces(Flushable.class, Closeable.class)
+        );
+        ShardedReporter<String> shardedReporter =
+            new ShardedReporter<>(Arrays.asList(plainShard, flushableAndCloseableShard));
+
+        // when
+        shardedReporter.flush();
+        shardedReporter.close();
+
+        // then
+        verify((Flushable) flushableAndCloseableShard).flush();
+        verify((Closeable) flushableAndCloseableShard).close();
+    }
+
+    @Test
+    public void ShardedReporter_constructor_throws_IllegalArgumentException_for_null_or_empty_shards() {
+        // expect
+        assertThat(catchThrowable(() -> new ShardedReporter<String>(null)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> new ShardedReporter<String>(Collections.<Reporter<String>>emptyList())))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,318 @@
+package com.nike.wingtips.zipkin2.util;
+
+import com.nike.wingtips.zipkin2.util.MappedFileSpanSpool.Batch;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link MappedFileSpanSpool}.
+ */
+public class MappedFileSpanSpoolTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> asStrings(Batch batch) {
+        List<String> result = new ArrayList<>();
+        for (byte[] encodedSpan : batch.getEncodedSpans()) {
+            result.add(new String(encodedSpan, StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    private File[] segmentFiles(File dir) {
+        return dir.listFiles((d, name) -> name.endsWith(MappedFileSpanSpool.SEGMENT_FILE_SUFFIX));
+    }
+
+    @Test
+    public void append_peekBatch_and_remove_work_in_oldest_first_order() throws IOException {
+        // given
+        MappedFileSpanSpool spool = new MappedFileSpanSpool(tempFolder.newFolder(), 1024, 4096);
+        for (int i = 0; i < 5; i++) {
+            assertThat(spool.append(bytes("span-" + i))).isTrue();
+        }
+
+        // when
+        Batch firstBatch = spool.peekBatch(3, Integer.MAX_VALUE);
+
+        // then
+        assertThat(asStrings(firstBatch)).containsExactly("span-0", "span-1", "span-2");
+        // Peeking doesn't remove anything.
+        assertThat(spool.size()).isEqualTo(5);
+        assertThat(asStrings(spool.peekBatch(3, Integer.MAX_VALUE))).containsExactly("span-0", "span-1", "span-2");
+
+        // and when
+        spool.remove(firstBatch, 2);
+
+        // then
+        assertThat(spool.size()).isEqualTo(3);
+        assertThat(asStrings(spool.peekBatch(10, Integer.MAX_VALUE))).containsExactly("span-2", "span-3", "span-4");
+    }
+
+    @Test
+    public void peekBatch_respects_maxBytes_but_always_returns_at_least_one_span() throws IOException {
+        // given
+        MappedFileSpanSpool spool = new MappedFileSpanSpool(tempFolder.newFolder(), 1024, 4096);
+        spool.append(bytes("0123456789"));
+        spool.append(bytes("abcdefghij"));
+
+        // expect
+        assertThat(asStrings(spool.peekBatch(10, 15))).containsExactly("0123456789");
+        assertThat(asStrings(spool.peekBatch(10, 20))).containsExactly("0123456789", "abcdefghij");
+        assertThat(asStrings(spool.peekBatch(10, 1))).containsExactly("0123456789");
+    }
+
+    @Test
+    public void peekBatch_returns_empty_batch_for_empty_spool() throws IOException {
+        // given
+        MappedFileSpanSpool spool = new MappedFileSpanSpool(tempFolder.newFolder(), 1024, 4096);
+
+        // expect
+        assertThat(spool.isEmpty()).isTrue();
+        assertThat(spool.peekBatch(10, Integer.MAX_VALUE).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void spans_roll_over_into_new_segments_and_consumed_segments_are_deleted() throws IOException {
+        // given
+        File dir = tempFolder.newFolder();
+        MappedFileSpanSpool spool = new MappedFileSpanSpool(dir, 64, 1024);
+        // Each record is 4 + 26 = 30 bytes, so two fit in a 64 byte segment.
+        for (int i = 0; i < 6; i++) {
+            spool.append(bytes(String.format("span-%021d", i)));
+        }
+        assertThat(segmentFiles(dir)).hasSize(3);
+
+        // when
+        Batch batch = spool.peekBatch(4, Integer.MAX_VALUE);
+        spool.remove(batch, 4);
+
+        // then
+        assertThat(segmentFiles(dir)).hasSize(1);
+        assertThat(spool.size()).isEqualTo(2);
+        assertThat(asStrings(spool.peekBatch(10, Integer.MAX_VALUE)))
+            .containsExactly(String.format("span-%021d", 4), String.format("span-%021d", 5));
+    }
+
+    @Test
+    public void full_spool_evicts_oldest_segment() throws IOException {
+        // given
+        File dir = tempFolder.newFolder();
+        MappedFileSpanSpool spool = new MappedFileSpanSpool(dir, 64, 128);
+
+        // when
+        for (int i = 0; i < 6; i++) {
+            assertThat(spool.append(bytes(String.format("span-%021d", i)))).isTrue();
+        }
+
+        // then
+        assertThat(segmentFiles(dir)).hasSize(2);
+        assertThat(spool.getEvictedSpanCount()).isEqualTo(2);
+        assertThat(spool.size()).isEqualTo(4);
+        assertThat(asStrings(spool.peekBatch(10, Integer.MAX_VALUE))).containsExactly(
+            String.format("span-%021d", 2), String.format("span-%021d", 3),
+            String.format("span-%021d", 4), String.format("span-%021d", 5)
+        );
+    }
+
+    @Test
+    public void remove_ignores_spans_evicted_after_they_were_peeked() throws IOException {
+        // given
+        MappedFileSpanSpool spool = new MappedFileSpanSpool(tempFolder.newFolder(), 64, 128);
+        spool.append(bytes(String.format("span-%021d", 0)));
+        Batch batch = spool.peekBatch(10, Integer.MAX_VALUE);
+        for (int i = 1; i < 6; i++) {
+            spool.append(bytes(String.format("span-%021d", i)));
+        }
+        long sizeBeforeRemove = spool.size();
+
+        // when
+        spool.remove(batch, 1);
+
+        // then
+        assertThat(spool.size()).isEqualTo(sizeBeforeRemove);
+    }
+
+    @Test
+    public void append_rejects_empty_and_oversized_spans_and_appends_after_close() throws IOException {
+        // given
+        MappedFileSpanSpool spool = new MappedFileSpanSpool(tempFolder.newFolder(), 64, 128);
+
+        // expect
+        assertThat(spool.append(new byte[0])).isFalse();
+        assertThat(spool.append(new byte[61])).isFalse();
+        assertThat(spool.append(new byte[60])).isTrue();
+        spool.close();
+        assertThat(spool.append(new byte[1])).isFalse();
+        assertThat(spool.getRejectedSpanCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void new_spool_recovers_pending_spans_left_by_a_previous_spool() throws IOException {
+        // given
+        File dir = tempFolder.newFolder();
+        MappedFileSpanSpool originalSpool = new MappedFileSpanSpool(dir, 64, 1024);
+        for (int i = 0; i < 5; i++) {
+            originalSpool.append(bytes(String.format("span-%021d", i)));
+        }
+        originalSpool.remove(originalSpool.peekBatch(3, Integer.MAX_VALUE), 3);
+        originalSpool.close();
+
+        // when
+        MappedFileSpanSpool recoveredSpool = new MappedFileSpanSpool(dir, 64, 1024);
+
+        // then
+        assertThat(recoveredSpool.size()).isEqualTo(2);
+        assertThat(asStrings(recoveredSpool.peekBatch(10, Integer.MAX_VALUE)))
+            .containsExactly(String.format("span-%021d", 3), String.format("span-%021d", 4));
+
+        // and when
+        recoveredSpool.append(bytes("new-span"));
+
+        // then
+        assertThat(asStrings(recoveredSpool.peekBatch(10, Integer.MAX_VALUE))).containsExactly(
+            String.format("span-%021d", 3), String.format("span-%021d", 4), "new-span"
+        );
+    }
+
+    @Test
+    public void new_spool_deletes_fully_consumed_segments_left_by_a_previous_spool() throws IOException {
+        // given
+        File dir = tempFolder.newFolder();
+        MappedFileSpanSpool originalSpool = new MappedFileSpanSpool(dir, 64, 1024);
+        originalSpool.append(bytes("span-0"));
+        originalSpool.remove(originalSpool.peekBatch(1, Integer.MAX_VALUE), 1);
+        originalSpool.close();
+        assertThat(segmentFiles(dir)).hasSize(1);
+
+        // when
+        MappedFileSpanSpool recoveredSpool = new MappedFileSpanSpool(dir, 64, 1024);
+
+        // then
+        assertThat(recoveredSpool.isEmpty()).isTrue();
+        assertThat(segmentFiles(dir)).isEmpty();
+    }
+
+    @Test
+    public void leftover_bytes_after_the_last_record_are_never_recovered_as_records() throws IOException {
+        // given
+        File dir = tempFolder.newFolder();
+        MappedFileSpanSpool originalSpool = new MappedFileSpanSpool(dir, 64, 1024);
+        originalSpool.append(bytes("span-0"));
+        originalSpool.close();
+        // Simulate a previous process that died part way through writing records after span-0 (which is 10 bytes
+        //      including its header): a header that runs past the end of the segment, followed by what looks like a
+        //      complete record exactly where the record after a 3 byte span would start.
+        try (RandomAccessFile raf = new RandomAccessFile(segmentFiles(dir)[0], "rw")) {
+            raf.seek(10);
+            raf.writeInt(1000);
+            raf.seek(17);
+            raf.writeInt(2);
+            raf.write(bytes("xx"));
+        }
+        MappedFileSpanSpool recoveredSpool = new MappedFileSpanSpool(dir, 64, 1024);
+        assertThat(asStrings(recoveredSpool.peekBatch(10, Integer.MAX_VALUE))).containsExactly("span-0");
+
+        // when
+        recoveredSpool.append(bytes("new"));
+        recoveredSpool.close();
+        MappedFileSpanSpool secondRecoveredSpool = new MappedFileSpanSpool(dir, 64, 1024);
+
+        // then
+        assertThat(secondRecoveredSpool.size()).isEqualTo(2);
+        assertThat(asStrings(secondRecoveredSpool.peekBatch(10, Integer.MAX_VALUE))).containsExactly("span-0", "new");
+    }
+
+    @Test
+    public void evicted_segments_are_unmapped_before_their_files_are_deleted() throws IOException {
+        // given
+        MappedFileSpanSpool spool = new MappedFileSpanSpool(tempFolder.newFolder(), 64, 128);
+        spool.append(bytes(String.format("span-%021d", 0)));
+        MappedFileSpanSpool.Segment oldestSegment = spool.segments.peekFirst();
+
+        // when
+        for (int i = 1; i < 6; i++) {
+            spool.append(bytes(String.format("span-%021d", i)));
+        }
+
+        // then
+        assertThat(oldestSegment.deleted).isTrue();
+        assertThat(oldestSegment.buffer).isNull();
+        assertThat(oldestSegment.file).doesNotExist();
+    }
+
+    @Test
+    public void unmap_releases_the_mapping() throws IOException {
+        // given
+        MappedByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(tempFolder.newFile(), "rw")) {
+            raf.setLength(64);
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, 64);
+        }
+
+        // expect
+        assertThat(MappedFileSpanSpool.unmap(buffer)).isTrue();
+    }
+
+    @Test
+    public void hasSameOldestSpanAs_is_true_only_for_batches_starting_with_the_same_pending_span() throws IOException {
+        // given
+        MappedFileSpanSpool spool = new MappedFileSpanSpool(tempFolder.newFolder(), 64, 128);
+        spool.append(bytes(String.format("span-%021d", 0)));
+        spool.append(bytes(String.format("span-%021d", 1)));
+        Batch firstPeek = spool.peekBatch(2, Integer.MAX_VALUE);
+        Batch secondPeek = spool.peekBatch(1, Integer.MAX_VALUE);
+        Batch emptyBatch = new MappedFileSpanSpool(tempFolder.newFolder(), 64, 128).peekBatch(1, Integer.MAX_VALUE);
+
+        // expect
+        assertThat(firstPeek.hasSameOldestSpanAs(secondPeek)).isTrue();
+        assertThat(firstPeek.hasSameOldestSpanAs(emptyBatch)).isFalse();
+        assertThat(firstPeek.hasSameOldestSpanAs(null)).isFalse();
+
+        // and when
+        spool.remove(secondPeek, 1);
+
+        // then
+        assertThat(firstPeek.hasSameOldestSpanAs(spool.peekBatch(1, Integer.MAX_VALUE))).isFalse();
+
+        // and when
+        for (int i = 2; i < 6; i++) {
+            spool.append(bytes(String.format("span-%021d", i)));
+        }
+
+        // then
+        assertThat(firstPeek.hasSameOldestSpanAs(secondPeek)).isFalse();
+    }
+
+    @Test
+    public void constructor_throws_IllegalArgumentException_for_invalid_args() throws IOException {
+        // given
+        File dir = tempFolder.newFolder();
+
+        // expect
+        assertThat(catchThrowable(() -> new MappedFileSpanSpool(null, 64, 128)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> new MappedFileSpanSpool(dir, 63, 128)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> new MappedFileSpanSpool(dir, 64, 127)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,71 @@
+package com.nike.wingtips.zipkin2.util;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import zipkin2.codec.Encoding;
+import zipkin2.codec.SpanBytesEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link PreEncodedSpanBytesEncoder}.
+ */
+@RunWith(DataProviderRunner.class)
+public class PreEncodedSpanBytesEncoderTest {
+
+    private final zipkin2.Span span1 = zipkin2.Span.newBuilder().traceId("1").id("2").name("foo").build();
+    private final zipkin2.Span span2 = zipkin2.Span.newBuilder().traceId("1").id("3").name("bar").build();
+
+    @DataProvider(value = {
+        "JSON",
+        "PROTO3"
+    })
+    @Test
+    public void forEncoding_returns_pass_through_encoder_for_supported_encodings(Encoding encoding) {
+        // given
+        byte[] encodedSpan = "some-bytes".getBytes(StandardCharsets.UTF_8);
+
+        // when
+        PreEncodedSpanBytesEncoder encoder = PreEncodedSpanBytesEncoder.forEncoding(encoding);
+
+        // then
+        assertThat(encoder.encoding()).isEqualTo(encoding);
+        assertThat(encoder.encode(encodedSpan)).isSameAs(encodedSpan);
+        assertThat(encoder.sizeInBytes(encodedSpan)).isEqualTo(encodedSpan.length);
+    }
+
+    @Test
+    public void forEncoding_throws_IllegalArgumentException_for_unsupported_encodings() {
+        // expect
+        assertThat(catchThrowable(() -> PreEncodedSpanBytesEncoder.forEncoding(Encoding.THRIFT)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> PreEncodedSpanBytesEncoder.forEncoding(null)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DataProvider(value = {
+        "JSON",
+        "PROTO3"
+    })
+    @Test
+    public void encodeList_produces_same_message_as_zipkin_encoder(Encoding encoding) {
+        // given
+        SpanBytesEncoder zipkinEncoder = (encoding == Encoding.JSON) ? SpanBytesEncoder.JSON_V2 : SpanBytesEncoder.PROTO3;
+        List<byte[]> encodedSpans = Arrays.asList(zipkinEncoder.encode(span1), zipkinEncoder.encode(span2));
+
+        // when
+        byte[] result = PreEncodedSpanBytesEncoder.forEncoding(encoding).encodeList(encodedSpans);
+
+        // then
+        assertThat(result).isEqualTo(zipkinEncoder.encodeList(Arrays.asList(span1, span2)));
+    }
+}
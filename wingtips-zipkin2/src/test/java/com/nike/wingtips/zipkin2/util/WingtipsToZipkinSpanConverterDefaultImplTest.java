@@ -242,6 +242,38 @@ public class WingtipsToZipkinSpanConverterDefaultImplTest {
         // then
         assertThat(zipkinSpan.traceId()).isEqualTo(traceId128Bits);
     }
+
+    @Test
+    public void convertWingtipsSpanToZipkinSpan_uses_numeric_ids_directly_when_wingtips_span_has_them() {
+        // given
+        impl = new WingtipsToZipkinSpanConverterDefaultImpl(true);
+        long traceIdHigh = 0x463ac35c9f6413adL;
+        long traceIdLow = 0x48485a3953bb6124L;
+        long spanIdAsLong = random.nextLong();
+        long parentSpanIdAsLong = random.nextLong();
+        Endpoint zipkinEndpoint = Endpoint.newBuilder().serviceName(UUID.randomUUID().toString()).build();
+        Span wingtipsSpan = Span.newBuilder("foo", SpanPurpose.CLIENT)
+                                .withTraceId(traceIdHigh, traceIdLow)
+                                .withSpanId(spanIdAsLong)
+                                .withParentSpanId(parentSpanIdAsLong)
+                                .withSpanStartTimeEpochMicros(Math.abs(random.nextLong()))
+                                .withDurationNanos(Math.abs(random.nextLong()))
+                                .build();
+
+        // when
+        zipkin2.Span zipkinSpan = impl.convertWingtipsSpanToZipkinSpan(wingtipsSpan, zipkinEndpoint);
+
+        // then
+        assertThat(zipkinSpan.traceId()).isEqualTo("463ac35c9f6413ad48485a3953bb6124");
+        assertThat(zipkinSpan.id()).isEqualTo(TraceAndSpanIdGenerator.longToUnsignedLowerHexString(spanIdAsLong));
+        assertThat(zipkinSpan.parentId())
+            .isEqualTo(TraceAndSpanIdGenerator.longToUnsignedLowerHexString(parentSpanIdAsLong));
+        assertThat(zipkinSpan.traceId()).isEqualTo(wingtipsSpan.getTraceId());
+        assertThat(zipkinSpan.id()).isEqualTo(wingtipsSpan.getSpanId());
+        assertThat(zipkinSpan.parentId()).isEqualTo(wingtipsSpan.getParentSpanId());
+        assertThat(zipkinSpan.tags()).isEmpty();
+        assertThat(wingtipsSpan.getTags()).isEmpty();
+    }
     
     @DataProvider(value = {
             "   \t\n\r   ",
@@ -0,0 +1,434 @@
+package com.nike.wingtips.zipkin2.util;
+
+import com.nike.wingtips.Span;
+import com.nike.wingtips.Span.SpanPurpose;
+import com.nike.wingtips.Span.TimestampedAnnotation;
+
+import com.tngtech.java.junit.dataprovider.DataProvider;
+import com.tngtech.java.junit.dataprovider.DataProviderRunner;
+import com.tngtech.java.junit.dataprovider.UseDataProvider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import zipkin2.Endpoint;
+import zipkin2.codec.Encoding;
+import zipkin2.codec.SpanBytesDecoder;
+import zipkin2.codec.SpanBytesEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Tests the functionality of {@link WingtipsToZipkinSpanEncoder}. Most tests verify that the encoder's output is
+ * byte-for-byte identical to encoding the result of {@link WingtipsToZipkinSpanConverterDefaultImpl} with Zipkin's own
+ * {@link SpanBytesEncoder}.
+ */
+@RunWith(DataProviderRunner.class)
+public class WingtipsToZipkinSpanEncoderTest {
+
+    private static final long START_TIME_EPOCH_MICROS = 1_600_000_000_000_000L;
+
+    private static Span.Builder completedSpanBuilder(String spanName, SpanPurpose spanPurpose) {
+        return Span.newBuilder(spanName, spanPurpose)
+                   .withSpanStartTimeEpochMicros(START_TIME_EPOCH_MICROS)
+                   .withDurationNanos(TimeUnit.MILLISECONDS.toNanos(42));
+    }
+
+    private enum SpanScenario {
+        NUMERIC_IDS_WITH_TAGS_AND_ANNOTATIONS(() ->
+            completedSpanBuilder("GET /api/v1/orders/{orderId}", SpanPurpose.SERVER)
+                .withTraceId(1234L)
+                .withSpanId(5678L)
+                .withParentSpanId(-42L)
+                .withTag("http.status_code", "200")
+                .withTag("http.method", "GET")
+                .withTag("http.url", "https://example.com/orders?expand=\"items\"")
+                .withTimestampedAnnotation(TimestampedAnnotation.forEpochMicros(START_TIME_EPOCH_MICROS + 50, "b"))
+                .withTimestampedAnnotation(TimestampedAnnotation.forEpochMicros(START_TIME_EPOCH_MICROS + 10, "z"))
+                .withTimestampedAnnotation(TimestampedAnnotation.forEpochMicros(START_TIME_EPOCH_MICROS + 50, "a"))
+                .build()
+        ),
+        NUMERIC_128_BIT_TRACE_ID(() ->
+            completedSpanBuilder("client-call", SpanPurpose.CLIENT)
+                .withTraceId(0x1122334455667788L, 0x99aabbccddeeff00L)
+                .withSpanId(Long.MIN_VALUE)
+                .build()
+        ),
+        STRING_IDS(() ->
+            completedSpanBuilder("string-ids", SpanPurpose.CLIENT)
+                .withTraceId("a1b2c3d4e5f60718")
+                .withSpanId("0123456789abcdef")
+                .withParentSpanId("fedcba9876543210")
+                .build()
+        ),
+        STRING_128_BIT_TRACE_ID(() ->
+            completedSpanBuilder("string-128", SpanPurpose.SERVER)
+                .withTraceId("1a2b3c4d5e6f1a2b3c4d5e6f1a2b3c4d")
+                .withSpanId("1")
+                .build()
+        ),
+        STRING_128_BIT_TRACE_ID_WITH_ZERO_HIGH_BITS(() ->
+            completedSpanBuilder("string-128-zero-high", SpanPurpose.SERVER)
+                .withTraceId("00000000000000003c4d5e6f1a2b3c4d")
+                .withSpanId("2")
+                .build()
+        ),
+        SHORT_STRING_IDS_AND_ODD_LENGTH_TRACE_ID(() ->
+            completedSpanBuilder("short-ids", SpanPurpose.LOCAL_ONLY)
+                .withTraceId("abc123456789012345678")
+                .withSpanId("abc")
+                .withParentSpanId("0000000000000000")
+                .build()
+        ),
+        NAME_AND_TAGS_NEEDING_NORMALIZATION_AND_ESCAPING(() -> {
+            Span span = completedSpanBuilder(
+                "MiXeD Case \u00c9t\u00e9 \"quoted\" \\ \n\t\r\b\f \u0001 \u2028\u2029\u00a0 \ud83d\ude00 \ud800 end",
+                SpanPurpose.UNKNOWN
+            ).build();
+            span.putTag("unicode", "\u00e9\u4e2d\ud83d\ude00");
+            span.putTag("control", "\u001f\u007f");
+            span.putTag(null, "null key");
+            span.putTag("null value", null);
+            span.addTimestampedAnnotation(TimestampedAnnotation.forEpochMicros(START_TIME_EPOCH_MICROS, null));
+            span.addTimestampedAnnotation(TimestampedAnnotation.forEpochMicros(START_TIME_EPOCH_MICROS, ""));
+            return span;
+        }),
+        ZERO_TIMESTAMPS_AND_DURATION(() ->
+            Span.newBuilder("zeros", SpanPurpose.LOCAL_ONLY)
+                .withSpanStartTimeEpochMicros(0L)
+                .withDurationNanos(999L)
+                .withTimestampedAnnotation(TimestampedAnnotation.forEpochMicros(0, "zero-timestamp"))
+                .withTag("", "")
+                .build()
+        ),
+        EMPTY_NAME(() ->
+            completedSpanBuilder("", SpanPurpose.SERVER).build()
+        ),
+        MANY_TAGS_AND_ANNOTATIONS(() -> {
+            Span.Builder builder = completedSpanBuilder("many", SpanPurpose.SERVER);
+            for (int i = 0; i < 50; i++) {
+                builder.withTag("tag-" + ((i * 7) % 50), "value-" + i);
+                builder.withTimestampedAnnotation(
+                    TimestampedAnnotation.forEpochMicros(START_TIME_EPOCH_MICROS + ((i * 13) % 20), "annotation-" + i)
+                );
+            }
+            return builder.build();
+        });
+
+        private final Supplier<Span> spanSupplier;
+
+        SpanScenario(Supplier<Span> spanSupplier) {
+            this.spanSupplier = spanSupplier;
+        }
+    }
+
+    private enum EndpointScenario {
+        SERVICE_NAME_ONLY(Endpoint.newBuilder().serviceName("Some-Service").build()),
+        IPV4_AND_PORT(Endpoint.newBuilder().serviceName("svc").ip("10.1.2.3").port(8080).build()),
+        IPV6(Endpoint.newBuilder().serviceName("svc").ip("2001:db8::c001").port(443).build()),
+        EMPTY(Endpoint.newBuilder().build());
+
+        private final Endpoint endpoint;
+
+        EndpointScenario(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    @DataProvider
+    public static List<List<Object>> spanAndEndpointScenarios() {
+        List<List<Object>> result = new ArrayList<>();
+        for (SpanScenario spanScenario : SpanScenario.values()) {
+            for (EndpointScenario endpointScenario : EndpointScenario.values()) {
+                for (Encoding encoding : Arrays.asList(Encoding.JSON, Encoding.PROTO3)) {
+                    result.add(Arrays.asList(spanScenario, endpointScenario, encoding));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static byte[] encodeViaConverter(
+        WingtipsToZipkinSpanConverterDefaultImpl converter, Span span, Endpoint endpoint, Encoding encoding
+    ) {
+        zipkin2.Span zipkinSpan = converter.convertWingtipsSpanToZipkinSpan(span, endpoint);
+        if (encoding == Encoding.PROTO3) {
+            return SpanBytesEncoder.PROTO3.encode(zipkinSpan);
+        }
+
+        // Zipkin's JSON encoder sizes its output array up front, and for some strings that mix escaped characters with
+        //      multi-byte characters it overestimates and leaves trailing NUL bytes after the closing brace. Our
+        //      encoder doesn't have that problem, so ignore the padding.
+        byte[] json = SpanBytesEncoder.JSON_V2.encode(zipkinSpan);
+        int length = json.length;
+        while (length > 0 && json[length - 1] == 0) {
+            length--;
+        }
+        return Arrays.copyOf(json, length);
+    }
+
+    @UseDataProvider("spanAndEndpointScenarios")
+    @Test
+    public void encode_produces_same_bytes_as_converter_plus_zipkin_encoder(
+        SpanScenario spanScenario, EndpointScenario endpointScenario, Encoding encoding
+    ) {
+        // given
+        Span span = spanScenario.spanSupplier.get();
+        WingtipsToZipkinSpanEncoder encoder = new WingtipsToZipkinSpanEncoder(encoding, endpointScenario.endpoint);
+        byte[] expected = encodeViaConverter(
+            new WingtipsToZipkinSpanConverterDefaultImpl(), span, endpointScenario.endpoint, encoding
+        );
+
+        // when
+        byte[] result = encoder.encode(span);
+
+        // then
+        assertThat(result).isEqualTo(expected);
+        // Encoding again with the now-warm pooled buffer should produce the same result.
+        assertThat(encoder.encode(span)).isEqualTo(expected);
+    }
+
+    @DataProvider(value = {
+        "JSON",
+        "PROTO3"
+    })
+    @Test
+    public void encode_produces_same_bytes_and_wingtips_tags_as_converter_when_ids_are_sanitized(Encoding encoding) {
+        // given
+        Endpoint endpoint = Endpoint.newBuilder().serviceName("svc").build();
+        Span original = completedSpanBuilder("sanitized", SpanPurpose.SERVER)
+            .withTraceId("98943667-2429-4019-910E-0F219A43949B")
+            .withSpanId("not-a-hex-string")
+            .withParentSpanId("DAA63E253DAB8990")
+            .withTag("invalid.span_id", "collides with the sanitization tag")
+            .build();
+        Span spanForConverter = Span.newBuilder(original).build();
+        Span spanForEncoder = Span.newBuilder(original).build();
+        WingtipsToZipkinSpanConverterDefaultImpl converter = new WingtipsToZipkinSpanConverterDefaultImpl(true);
+        WingtipsToZipkinSpanEncoder encoder = new WingtipsToZipkinSpanEncoder(encoding, endpoint, converter);
+        byte[] expected = encodeViaConverter(converter, spanForConverter, endpoint, encoding);
+
+        // when
+        byte[] result = encoder.encode(spanForEncoder);
+
+        // then
+        assertThat(result).isEqualTo(expected);
+        assertThat(spanForEncoder.getTags()).isEqualTo(spanForConverter.getTags());
+        assertThat(spanForEncoder.getTags()).containsKeys(
+            "sanitized_trace_id", "sanitized_span_id", "sanitized_parent_id"
+        );
+    }
+
+    @DataProvider(value = {
+        "JSON",
+        "PROTO3"
+    })
+    @Test
+    public void encoded_spans_can_be_decoded_by_zipkin(Encoding encoding) {
+        // given
+        Endpoint endpoint = Endpoint.newBuilder().serviceName("svc").ip("10.1.2.3").port(8080).build();
+        Span span = SpanScenario.NUMERIC_IDS_WITH_TAGS_AND_ANNOTATIONS.spanSupplier.get();
+        WingtipsToZipkinSpanEncoder encoder = new WingtipsToZipkinSpanEncoder(encoding, endpoint);
+        zipkin2.Span expected = new WingtipsToZipkinSpanConverterDefaultImpl().convertWingtipsSpanToZipkinSpan(
+            span, endpoint
+        );
+
+        // when
+        byte[] message = PreEncodedSpanBytesEncoder.forEncoding(encoding).encodeList(
+            Arrays.asList(encoder.encode(span), encoder.encode(span))
+        );
+        List<zipkin2.Span> decoded = (encoding == Encoding.JSON)
+                                     ? SpanBytesDecoder.JSON_V2.decodeList(message)
+                                     : SpanBytesDecoder.PROTO3.decodeList(message);
+
+        // then
+        assertThat(decoded).containsExactly(expected, expected);
+    }
+
+    private enum InvalidSpanScenario {
+        NOT_COMPLETED(() -> Span.newBuilder("foo", SpanPurpose.SERVER).build()),
+        UPPERCASE_HEX_ID(() -> completedSpanBuilder("foo", SpanPurpose.SERVER).withSpanId("ABC").build()),
+        NON_HEX_TRACE_ID(() -> completedSpanBuilder("foo", SpanPurpose.SERVER).withTraceId("xyz").build()),
+        TOO_LONG_SPAN_ID(() ->
+            completedSpanBuilder("foo", SpanPurpose.SERVER).withSpanId("00000000000000001").build()
+        ),
+        TOO_LONG_TRACE_ID(() ->
+            completedSpanBuilder("foo", SpanPurpose.SERVER).withTraceId("000000000000000000000000000000001").build()
+        ),
+        EMPTY_TRACE_ID(() -> completedSpanBuilder("foo", SpanPurpose.SERVER).withTraceId("").build()),
+        ALL_ZEROS_TRACE_ID(() ->
+            completedSpanBuilder("foo", SpanPurpose.SERVER).withTraceId("0000000000000000").build()
+        );
+
+        private final Supplier<Span> spanSupplier;
+
+        InvalidSpanScenario(Supplier<Span> spanSupplier) {
+            this.spanSupplier = spanSupplier;
+        }
+    }
+
+    @DataProvider
+    public static List<List<InvalidSpanScenario>> invalidSpanScenarios() {
+        List<List<InvalidSpanScenario>> result = new ArrayList<>();
+        for (InvalidSpanScenario scenario : InvalidSpanScenario.values()) {
+            result.add(Arrays.asList(scenario));
+        }
+        return result;
+    }
+
+    @UseDataProvider("invalidSpanScenarios")
+    @Test
+    public void encode_throws_IllegalArgumentException_for_spans_zipkin_would_reject(InvalidSpanScenario scenario) {
+        // given
+        Span span = scenario.spanSupplier.get();
+        WingtipsToZipkinSpanEncoder encoder = new WingtipsToZipkinSpanEncoder(
+            Encoding.JSON, Endpoint.newBuilder().serviceName("svc").build()
+        );
+
+        // when
+        Throwable ex = catchThrowable(() -> encoder.encode(span));
+
+        // then
+        assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+        // The pooled buffer state should have been reset so the next span is unaffected.
+        Span goodSpan = SpanScenario.STRING_IDS.spanSupplier.get();
+        assertThat(encoder.encode(goodSpan)).isEqualTo(
+            encodeViaConverter(
+                new WingtipsToZipkinSpanConverterDefaultImpl(), goodSpan, encoder.localEndpoint, Encoding.JSON
+            )
+        );
+    }
+
+    @Test
+    public void constructor_throws_IllegalArgumentException_for_bad_args() {
+        // given
+        Endpoint endpoint = Endpoint.newBuilder().serviceName("svc").build();
+
+        // expect
+        assertThat(catchThrowable(() -> new WingtipsToZipkinSpanEncoder(Encoding.THRIFT, endpoint)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> new WingtipsToZipkinSpanEncoder(null, endpoint)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> new WingtipsToZipkinSpanEncoder(Encoding.JSON, null)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(catchThrowable(() -> new WingtipsToZipkinSpanEncoder(Encoding.JSON, endpoint, null)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void constructor_sets_fields_as_expected() {
+        // given
+        Endpoint endpoint = Endpoint.newBuilder().serviceName("svc").build();
+        WingtipsToZipkinSpanConverterDefaultImpl converter = new WingtipsToZipkinSpanConverterDefaultImpl();
+
+        // when
+        WingtipsToZipkinSpanEncoder encoder = new WingtipsToZipkinSpanEncoder(Encoding.PROTO3, endpoint, converter);
+
+        // then
+        assertThat(encoder.encoding()).isEqualTo(Encoding.PROTO3);
+        assertThat(encoder.localEndpoint).isSameAs(endpoint);
+        assertThat(encoder.converter).isSameAs(converter);
+    }
+
+    @DataProvider(value = {
+        "JSON",
+        "PROTO3"
+    })
+    @Test
+    public void encode_reuses_pooled_buffer_but_discards_it_after_an_oversized_span(Encoding encoding) {
+        // given
+        WingtipsToZipkinSpanEncoder encoder = new WingtipsToZipkinSpanEncoder(
+            encoding, Endpoint.newBuilder().serviceName("svc").build()
+        );
+        Span normalSpan = SpanScenario.NUMERIC_IDS_WITH_TAGS_AND_ANNOTATIONS.spanSupplier.get();
+        StringBuilder hugeValue = new StringBuilder();
+        while (hugeValue.length() <= WingtipsToZipkinSpanEncoder.MAX_POOLED_BUFFER_SIZE_BYTES) {
+            hugeValue.append("0123456789");
+        }
+        Span hugeSpan = completedSpanBuilder("huge", SpanPurpose.SERVER).withTag("huge", hugeValue.toString()).build();
+
+        // when
+        encoder.encode(normalSpan);
+        WingtipsToZipkinSpanEncoder.EncodingBuffer bufferAfterFirstSpan = encoder.pooledBuffers.get();
+        encoder.encode(normalSpan);
+        WingtipsToZipkinSpanEncoder.EncodingBuffer bufferAfterSecondSpan = encoder.pooledBuffers.get();
+        byte[] hugeResult = encoder.encode(hugeSpan);
+        WingtipsToZipkinSpanEncoder.EncodingBuffer bufferAfterHugeSpan = encoder.pooledBuffers.get();
+
+        // then
+        assertThat(bufferAfterSecondSpan).isSameAs(bufferAfterFirstSpan);
+        assertThat(bufferAfterHugeSpan).isNotSameAs(bufferAfterFirstSpan);
+        assertThat(bufferAfterHugeSpan.bytes.length).isEqualTo(WingtipsToZipkinSpanEncoder.INITIAL_BUFFER_SIZE_BYTES);
+        assertThat(hugeResult.length).isGreaterThan(WingtipsToZipkinSpanEncoder.MAX_POOLED_BUFFER_SIZE_BYTES);
+        // The pooled buffer must not keep the last span's strings reachable.
+        assertThat(bufferAfterFirstSpan.spanFields.tagKeys).containsOnlyNulls();
+        assertThat(bufferAfterFirstSpan.spanFields.annotationValues).containsOnlyNulls();
+    }
+
+    @Test
+    public void encode_is_safe_to_call_from_multiple_threads() throws Exception {
+        // given
+        WingtipsToZipkinSpanEncoder encoder = new WingtipsToZipkinSpanEncoder(
+            Encoding.PROTO3, Endpoint.newBuilder().serviceName("svc").build()
+        );
+        List<Span> spans = new ArrayList<>();
+        List<byte[]> expected = new ArrayList<>();
+        for (SpanScenario scenario : SpanScenario.values()) {
+            Span span = scenario.spanSupplier.get();
+            spans.add(span);
+            expected.add(encodeViaConverter(
+                new WingtipsToZipkinSpanConverterDefaultImpl(), span, encoder.localEndpoint, Encoding.PROTO3
+            ));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> futures = new ArrayList<>();
+
+        try {
+            // when
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        int index = i % spans.size();
+                        if (!Arrays.equals(encoder.encode(spans.get(index)), expected.get(index))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+
+            // then
+            for (Future<Boolean> future : futures) {
+                assertThat(future.get(30, TimeUnit.SECONDS)).isTrue();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @DataProvider(value = {
+        "0                      |   1",
+        "127                    |   1",
+        "128                    |   2",
+        "16383                  |   2",
+        "16384                  |   3",
+        "-1                     |   10",
+        "9223372036854775807    |   9"
+    }, splitBy = "\\|")
+    @Test
+    public void varintSizeInBytes_works_as_expected(long value, int expectedSize) {
+        // expect
+        assertThat(WingtipsToZipkinSpanEncoder.varintSizeInBytes(value)).isEqualTo(expectedSize);
+    }
+}